@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map.impl.querycache;
+
+import com.hazelcast.client.spi.ClientContext;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapEvent;
+import com.hazelcast.core.Member;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.impl.DataAwareEntryEvent;
+import com.hazelcast.map.impl.querycache.subscriber.AbstractQueryCache;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.hazelcast.map.listener.EntryMergedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.map.listener.MapClearedListener;
+import com.hazelcast.map.listener.MapEvictedListener;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.getters.Extractors;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link com.hazelcast.map.QueryCache QueryCache} created on a client.
+ * <p/>
+ * There are no client protocol messages for the member side publishers of query caches yet, so the client side
+ * query cache listens to all events of the map and applies the predicate locally. The initial contents are fetched
+ * with a predicate query. Since the events are not sequenced, lost events can not be detected; {@link #tryRecover()}
+ * fetches the contents again instead of replaying the events.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ClientQueryCache<K, V> extends AbstractQueryCache<K, V> {
+
+    private final IMap<K, V> map;
+    private final ConcurrentMap<String, ClientQueryCache> queryCaches;
+    private final ClientContext context;
+    private final boolean populate;
+
+    private volatile String registrationId;
+
+    /**
+     * @param queryCaches the query caches of the map, this query cache removes itself from it when destroyed
+     */
+    public ClientQueryCache(String name, IMap<K, V> map, ConcurrentMap<String, ClientQueryCache> queryCaches,
+                            QueryCacheConfig config, Predicate predicate, boolean includeValue, ClientContext context) {
+        super(name, map.getName(), config, predicate, includeValue,
+                (InternalSerializationService) context.getSerializationService(), Extractors.empty());
+        this.map = map;
+        this.queryCaches = queryCaches;
+        this.context = context;
+        this.populate = config.isPopulate();
+    }
+
+    /**
+     * Subscribes to the events of the map and populates the initial contents when configured.
+     */
+    public void start() {
+        registrationId = map.addEntryListener(new MapEventListener(), true);
+        if (populate) {
+            populate();
+        }
+    }
+
+    @Override
+    public boolean tryRecover() {
+        clearInternal();
+        populate();
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        queryCaches.remove(name, this);
+        String registrationId = this.registrationId;
+        if (registrationId != null) {
+            map.removeEntryListener(registrationId);
+        }
+        clearInternal();
+    }
+
+    @Override
+    protected Member getEventSourceMember() {
+        return null;
+    }
+
+    @Override
+    protected int getPartitionId(Data key) {
+        return context.getPartitionService().getPartitionId(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void populate() {
+        if (includeValue) {
+            for (Map.Entry<K, V> entry : map.entrySet(predicate)) {
+                putInternal(toData(entry.getKey()), toData(entry.getValue()), false);
+            }
+        } else {
+            for (K key : map.keySet(predicate)) {
+                putInternal(toData(key), null, false);
+            }
+        }
+    }
+
+    private Data toData(Object object) {
+        return serializationService.toData(object);
+    }
+
+    private void onEntryEvent(EntryEvent<K, V> event) {
+        DataAwareEntryEvent dataAwareEvent = (DataAwareEntryEvent) event;
+        Data key = dataAwareEvent.getKeyData();
+        Data newValue = dataAwareEvent.getNewValueData();
+        EntryEventType eventType = event.getEventType();
+        switch (eventType) {
+            case ADDED:
+                if (matches(key, newValue)) {
+                    putInternal(key, newValue, true);
+                }
+                break;
+            case UPDATED:
+            case MERGED:
+                if (matches(key, newValue)) {
+                    putInternal(key, newValue, true);
+                } else {
+                    removeInternal(key, EntryEventType.REMOVED);
+                }
+                break;
+            default:
+                removeInternal(key, eventType);
+                break;
+        }
+    }
+
+    private final class MapEventListener implements EntryAddedListener<K, V>, EntryUpdatedListener<K, V>,
+            EntryMergedListener<K, V>, EntryRemovedListener<K, V>, EntryEvictedListener<K, V>, EntryExpiredListener<K, V>,
+            MapClearedListener, MapEvictedListener {
+
+        @Override
+        public void entryAdded(EntryEvent<K, V> event) {
+            onEntryEvent(event);
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<K, V> event) {
+            onEntryEvent(event);
+        }
+
+        @Override
+        public void entryMerged(EntryEvent<K, V> event) {
+            onEntryEvent(event);
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<K, V> event) {
+            onEntryEvent(event);
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<K, V> event) {
+            onEntryEvent(event);
+        }
+
+        @Override
+        public void entryExpired(EntryEvent<K, V> event) {
+            onEntryEvent(event);
+        }
+
+        @Override
+        public void mapCleared(MapEvent event) {
+            removeAllInternal(EntryEventType.CLEAR_ALL);
+        }
+
+        @Override
+        public void mapEvicted(MapEvent event) {
+            removeAllInternal(EntryEventType.EVICT_ALL);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.client.proxy;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.client.impl.ClientLockReferenceIdGenerator;
 import com.hazelcast.client.impl.ClientMessageDecoder;
 import com.hazelcast.client.impl.protocol.ClientMessage;
@@ -74,6 +75,8 @@ import com.hazelcast.client.impl.protocol.codec.MapValuesCodec;
 import com.hazelcast.client.impl.protocol.codec.MapValuesWithPagingPredicateCodec;
 import com.hazelcast.client.impl.protocol.codec.MapValuesWithPredicateCodec;
 import com.hazelcast.client.map.impl.ClientMapPartitionIterator;
+import com.hazelcast.client.map.impl.ClientMapQueryPartitionIterator;
+import com.hazelcast.client.map.impl.querycache.ClientQueryCache;
 import com.hazelcast.client.spi.ClientPartitionService;
 import com.hazelcast.client.spi.ClientProxy;
 import com.hazelcast.client.spi.EventHandler;
@@ -81,6 +84,8 @@ import com.hazelcast.client.spi.impl.ClientInvocation;
 import com.hazelcast.client.spi.impl.ClientInvocationFuture;
 import com.hazelcast.client.spi.impl.ListenerMessageCodec;
 import com.hazelcast.client.util.ClientDelegatingFuture;
+import com.hazelcast.config.EntryListenerConfig;
+import com.hazelcast.config.QueryCacheConfig;
 import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.core.EntryListener;
@@ -97,6 +102,7 @@ import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.MapPartitionLostEvent;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.impl.DataAwareEntryEvent;
 import com.hazelcast.map.impl.LazyMapEntry;
 import com.hazelcast.map.impl.ListenerAdapter;
@@ -116,9 +122,14 @@ import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
+import com.hazelcast.nio.ClassLoaderUtil;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.TruePredicate;
+import com.hazelcast.query.impl.CachedQueryEntry;
+import com.hazelcast.query.impl.getters.Extractors;
 import com.hazelcast.spi.impl.UnmodifiableLazyList;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.CollectionUtil;
@@ -130,16 +141,20 @@ import com.hazelcast.util.collection.InflatableSet;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EventListener;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
 import static com.hazelcast.map.impl.MapListenerFlagOperator.setAndGetListenerFlags;
+import static com.hazelcast.map.impl.querycache.QueryCacheUtil.getPredicate;
 import static com.hazelcast.util.CollectionUtil.objectToDataCollection;
 import static com.hazelcast.util.ExceptionUtil.rethrow;
 import static com.hazelcast.util.Preconditions.checkNotNull;
@@ -161,6 +176,9 @@ public class ClientMapProxy<K, V>
     protected static final String NULL_KEY_IS_NOT_ALLOWED = "Null key is not allowed!";
     protected static final String NULL_VALUE_IS_NOT_ALLOWED = "Null value is not allowed!";
     protected static final String NULL_PREDICATE_IS_NOT_ALLOWED = "Predicate should not be null!";
+    protected static final String NULL_AGGREGATOR_IS_NOT_ALLOWED = "Aggregator should not be null!";
+    protected static final String NULL_PROJECTION_IS_NOT_ALLOWED = "Projection should not be null!";
+    protected static final String NULL_QUERY_CACHE_NAME_IS_NOT_ALLOWED = "Query cache name should not be null!";
 
     @SuppressWarnings("unchecked")
     private static final ClientMessageDecoder GET_ASYNC_RESPONSE_DECODER = new ClientMessageDecoder() {
@@ -202,6 +220,8 @@ public class ClientMapProxy<K, V>
         }
     };
 
+    private final ConcurrentMap<String, ClientQueryCache> queryCaches = new ConcurrentHashMap<String, ClientQueryCache>();
+
     private ClientLockReferenceIdGenerator lockReferenceIdGenerator;
 
     public ClientMapProxy(String serviceName, String name) {
@@ -1284,6 +1304,159 @@ public class ClientMapProxy<K, V>
         return prepareResult(resultParameters.response);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator) {
+        return aggregate(aggregator, (Predicate<K, V>) TruePredicate.INSTANCE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate<K, V> predicate) {
+        checkNotNull(aggregator, NULL_AGGREGATOR_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Predicate should not be a paging predicate");
+        }
+
+        // there is no client protocol message for the aggregation yet, so the entries matching the predicate
+        // are fetched and accumulated on the client side
+        ClientMessage request = MapEntriesWithPredicateCodec.encodeRequest(name, toData(predicate));
+        ClientMessage response = invoke(request);
+        MapEntriesWithPredicateCodec.ResponseParameters resultParameters = MapEntriesWithPredicateCodec.decodeResponse(response);
+
+        InternalSerializationService serializationService = ((InternalSerializationService) getContext()
+                .getSerializationService());
+        // like on the members, the given aggregator is left untouched
+        Aggregator<Map.Entry<K, V>, R> result = serializationService.toObject(serializationService.toData(aggregator));
+        Extractors extractors = Extractors.empty();
+        CachedQueryEntry queryEntry = new CachedQueryEntry();
+        for (Entry<Data, Data> row : resultParameters.response) {
+            queryEntry.init(serializationService, row.getKey(), row.getValue(), extractors);
+            result.accumulate(queryEntry);
+        }
+        result.onAccumulationFinished();
+        result.onCombinationFinished();
+        return result.aggregate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection) {
+        return project(projection, (Predicate<K, V>) TruePredicate.INSTANCE);
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate<K, V> predicate) {
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Predicate should not be a paging predicate");
+        }
+
+        // there is no client protocol message for the projection yet, so the entries matching the predicate
+        // are fetched and projected on the client side
+        ClientMessage request = MapEntriesWithPredicateCodec.encodeRequest(name, toData(predicate));
+        ClientMessage response = invoke(request);
+        MapEntriesWithPredicateCodec.ResponseParameters resultParameters = MapEntriesWithPredicateCodec.decodeResponse(response);
+
+        InternalSerializationService serializationService = ((InternalSerializationService) getContext()
+                .getSerializationService());
+        Extractors extractors = Extractors.empty();
+        CachedQueryEntry queryEntry = new CachedQueryEntry();
+        List<R> result = new ArrayList<R>(resultParameters.response.size());
+        for (Entry<Data, Data> row : resultParameters.response) {
+            queryEntry.init(serializationService, row.getKey(), row.getValue(), extractors);
+            result.add(projection.transform(queryEntry));
+        }
+        return result;
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name) {
+        checkNotNull(name, NULL_QUERY_CACHE_NAME_IS_NOT_ALLOWED);
+        QueryCacheConfig config = findQueryCacheConfig(name);
+        Preconditions.checkTrue(config != null, "No query cache config found with name " + name);
+
+        Predicate predicate = getPredicate(config.getPredicateConfig(), getContext().getClientConfig().getClassLoader());
+        return getQueryCacheInternal(name, null, predicate, config.isIncludeValue(), config);
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, Predicate<K, V> predicate, boolean includeValue) {
+        checkNotNull(name, NULL_QUERY_CACHE_NAME_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getQueryCacheInternal(name, null, predicate, includeValue, getQueryCacheConfigOrDefault(name));
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, MapListener listener, Predicate<K, V> predicate, boolean includeValue) {
+        checkNotNull(name, NULL_QUERY_CACHE_NAME_IS_NOT_ALLOWED);
+        checkNotNull(listener, NULL_LISTENER_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getQueryCacheInternal(name, listener, predicate, includeValue, getQueryCacheConfigOrDefault(name));
+    }
+
+    @SuppressWarnings("unchecked")
+    private QueryCache<K, V> getQueryCacheInternal(String cacheName, MapListener listener, Predicate predicate,
+                                                   boolean includeValue, QueryCacheConfig config) {
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("PagingPredicate is not supported by query caches");
+        }
+        ClientQueryCache<K, V> queryCache = queryCaches.get(cacheName);
+        if (queryCache != null) {
+            return queryCache;
+        }
+
+        // there are no client protocol messages for the query cache publishers yet, so the client side
+        // query cache is fed by a listener on all events of the map
+        queryCache = new ClientQueryCache<K, V>(cacheName, this, queryCaches, config, predicate, includeValue, getContext());
+        for (EntryListenerConfig listenerConfig : config.getEntryListenerConfigs()) {
+            EventListener configuredListener = getListenerImplOrNull(listenerConfig);
+            if (configuredListener != null) {
+                queryCache.addListenerInternal(configuredListener, null, null, listenerConfig.isIncludeValue());
+            }
+        }
+        if (listener != null) {
+            queryCache.addListenerInternal(listener, null, null, includeValue);
+        }
+        queryCache.start();
+
+        ClientQueryCache<K, V> existing = queryCaches.putIfAbsent(cacheName, queryCache);
+        if (existing != null) {
+            queryCache.destroy();
+            return existing;
+        }
+        return queryCache;
+    }
+
+    private EventListener getListenerImplOrNull(EntryListenerConfig listenerConfig) {
+        if (listenerConfig.getImplementation() != null) {
+            return listenerConfig.getImplementation();
+        }
+        if (listenerConfig.getClassName() != null) {
+            try {
+                return ClassLoaderUtil.newInstance(getContext().getClientConfig().getClassLoader(),
+                        listenerConfig.getClassName());
+            } catch (Exception e) {
+                throw rethrow(e);
+            }
+        }
+        return null;
+    }
+
+    private QueryCacheConfig findQueryCacheConfig(String cacheName) {
+        Map<String, QueryCacheConfig> configs = getContext().getClientConfig().getQueryCacheConfigs().get(name);
+        return configs == null ? null : configs.get(cacheName);
+    }
+
+    private QueryCacheConfig getQueryCacheConfigOrDefault(String cacheName) {
+        QueryCacheConfig config = findQueryCacheConfig(cacheName);
+        return config == null ? new QueryCacheConfig(cacheName) : config;
+    }
+
     @Override
     public <SuppliedValue, Result> Result aggregate(Supplier<K, V, SuppliedValue> supplier,
                                                     Aggregation<K, SuppliedValue, Result> aggregation) {
@@ -1408,6 +1581,24 @@ public class ClientMapProxy<K, V>
         return new ClientMapPartitionIterator<K, V>(this, getContext(), fetchSize, partitionId, prefetchValues);
     }
 
+    /**
+     * Returns an iterator over the entries of the given partition which match the given predicate. The entries are
+     * fetched in chunks of {@code fetchSize} entries while iterating, so large result sets can be scanned without
+     * materializing them.
+     *
+     * @param fetchSize   the number of entries to fetch at once
+     * @param partitionId the partition to iterate
+     * @param predicate   the predicate which the entries should match
+     * @return the iterator over the matching entries
+     */
+    public Iterator<Entry<K, V>> iterator(int fetchSize, int partitionId, Predicate<K, V> predicate) {
+        Preconditions.checkPositive(fetchSize, "fetchSize should be positive");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        Preconditions.checkFalse(predicate instanceof PagingPredicate,
+                "PagingPredicate is not supported by partition iterators");
+        return new ClientMapQueryPartitionIterator<K, V>(this, getContext(), fetchSize, partitionId, predicate);
+    }
+
     protected long getTimeInMillis(final long time, final TimeUnit timeunit) {
         return timeunit != null ? timeunit.toMillis(time) : time;
     }
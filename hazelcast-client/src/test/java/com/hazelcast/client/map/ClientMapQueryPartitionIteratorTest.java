@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.client.proxy.ClientMapProxy;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientMapQueryPartitionIteratorTest extends HazelcastTestSupport {
+
+    private TestHazelcastFactory factory;
+    private HazelcastInstance server;
+    private ClientMapProxy<String, Integer> map;
+
+    @Before
+    public void setup() {
+        factory = new TestHazelcastFactory();
+        server = factory.newHazelcastInstance(getConfig());
+        HazelcastInstance client = factory.newHazelcastClient();
+        map = (ClientMapProxy<String, Integer>) client.<String, Integer>getMap(randomString());
+    }
+
+    @After
+    public void teardown() {
+        factory.terminateAll();
+    }
+
+    @Test
+    public void test_HasNext_Returns_False_On_EmptyPartition() {
+        Predicate<String, Integer> predicate = Predicates.greaterEqual("this", 0);
+
+        Iterator<Map.Entry<String, Integer>> iterator = map.iterator(10, 1, predicate);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void test_HasNext_Returns_False_When_Nothing_Matches() {
+        putValuesToPartition(1, 100);
+        Predicate<String, Integer> predicate = Predicates.greaterEqual("this", 100);
+
+        Iterator<Map.Entry<String, Integer>> iterator = map.iterator(10, 1, predicate);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void test_Next_Returns_Only_Matching_Entries() {
+        putValuesToPartition(1, 100);
+        Predicate<String, Integer> predicate = Predicates.lessThan("this", 30);
+
+        Iterator<Map.Entry<String, Integer>> iterator = map.iterator(7, 1, predicate);
+        Set<Integer> values = new HashSet<Integer>();
+        while (iterator.hasNext()) {
+            Integer value = iterator.next().getValue();
+            assertTrue(value < 30);
+            assertTrue(values.add(value));
+        }
+
+        assertEquals(30, values.size());
+    }
+
+    private void putValuesToPartition(int partitionId, int count) {
+        for (int i = 0; i < count; i++) {
+            String key = generateKeyForPartition(server, partitionId);
+            map.put(key, i);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.codegen;
+
+/**
+ * A field of an annotated class as it is written and read by the generated serializer.
+ */
+final class SerializedField {
+
+    private final String name;
+    private final String type;
+    private final String methodSuffix;
+    private final String getter;
+    private final String setter;
+
+    /**
+     * @param name         the name of the field.
+     * @param type         the (erased) source name of the type of the field.
+     * @param methodSuffix the suffix of the ObjectDataOutput/ObjectDataInput methods to use, e.g. 'Int' for writeInt/readInt.
+     * @param getter       the name of the getter, or null if the field is accessed directly.
+     * @param setter       the name of the setter, or null if the field is accessed directly.
+     */
+    SerializedField(String name, String type, String methodSuffix, String getter, String setter) {
+        this.name = name;
+        this.type = type;
+        this.methodSuffix = methodSuffix;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    String name() {
+        return name;
+    }
+
+    boolean isObject() {
+        return "Object".equals(methodSuffix);
+    }
+
+    String writeStatement(String out, String object) {
+        String value = getter == null ? object + "." + name : object + "." + getter + "()";
+        return out + ".write" + methodSuffix + "(" + value + ");";
+    }
+
+    String readStatement(String in, String object) {
+        String value = isObject() ? "(" + type + ") " + in + ".readObject()" : in + ".read" + methodSuffix + "()";
+        return setter == null ? object + "." + name + " = " + value + ";" : object + "." + setter + "(" + value + ");";
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.codegen;
+
+import com.hazelcast.nio.serialization.GenerateSerializer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.hazelcast.util.EmptyStatement.ignore;
+import static javax.lang.model.util.ElementFilter.constructorsIn;
+import static javax.lang.model.util.ElementFilter.fieldsIn;
+import static javax.lang.model.util.ElementFilter.methodsIn;
+
+/**
+ * An annotation processor that generates a {@link com.hazelcast.nio.serialization.StreamSerializer} and a
+ * {@link com.hazelcast.nio.serialization.SerializerHook} for every class annotated with {@link GenerateSerializer}.
+ *
+ * The generated serializer writes the fields directly (or through their getters and setters) using the
+ * ObjectDataOutput/ObjectDataInput methods matching the type of the field; so there is no factory lookup, no
+ * ClassDefinition and no reflection involved. Fields of a type without a dedicated method are written using
+ * writeObject/readObject and therefor can be serialized by any serializer, including generated ones.
+ *
+ * The hooks are registered in "META-INF/services/com.hazelcast.SerializerHook" so the serializers are picked up
+ * when the serialization service is created.
+ */
+public class SerializerProcessor extends AbstractProcessor {
+
+    static final String SERVICES_FILE = "META-INF/services/com.hazelcast.SerializerHook";
+
+    private final Set<String> hooks = new TreeSet<String>();
+
+    private Filer filer;
+    private Messager messager;
+    private Elements elements;
+    private Types types;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(GenerateSerializer.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateSerializer.class)) {
+            if (isValid(element)) {
+                generate((TypeElement) element);
+            }
+        }
+
+        if (roundEnv.processingOver() && !hooks.isEmpty()) {
+            writeServicesFile();
+        }
+        return true;
+    }
+
+    private boolean isValid(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            return error(element, "@GenerateSerializer can only be placed on a class");
+        }
+
+        TypeElement type = (TypeElement) element;
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return error(element, "@GenerateSerializer can't be placed on an abstract class");
+        }
+
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return error(element, "A class with @GenerateSerializer can't be private or be nested in a private class");
+            }
+            if (e.getKind().isClass() && ((TypeElement) e).getNestingKind() == NestingKind.MEMBER
+                    && !e.getModifiers().contains(Modifier.STATIC)) {
+                return error(element, "A nested class with @GenerateSerializer needs to be static");
+            }
+        }
+
+        if (!hasNoArgConstructor(type)) {
+            return error(element, "A class with @GenerateSerializer needs a non private no-arg constructor");
+        }
+
+        if (type.getAnnotation(GenerateSerializer.class).typeId() <= 0) {
+            return error(element, "The typeId of @GenerateSerializer needs to be positive");
+        }
+        return true;
+    }
+
+    private boolean hasNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return !constructor.getModifiers().contains(Modifier.PRIVATE);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        List<SerializedField> fields = fields(type);
+        if (fields == null) {
+            return;
+        }
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String prefix = packageName.length() == 0 ? "" : packageName + ".";
+        String baseName = flatName(type);
+        String serializerName = baseName + "Serializer";
+        String hookName = baseName + "SerializerHook";
+        int typeId = type.getAnnotation(GenerateSerializer.class).typeId();
+
+        SerializerSourceWriter sourceWriter = new SerializerSourceWriter(
+                packageName, types.erasure(type.asType()).toString(), typeId, fields);
+        try {
+            Writer writer = filer.createSourceFile(prefix + serializerName, type).openWriter();
+            try {
+                sourceWriter.writeSerializer(writer, serializerName);
+            } finally {
+                writer.close();
+            }
+
+            writer = filer.createSourceFile(prefix + hookName, type).openWriter();
+            try {
+                sourceWriter.writeHook(writer, hookName, serializerName);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            error(type, "Failed to generate the serializer: " + e);
+            return;
+        }
+        hooks.add(prefix + hookName);
+    }
+
+    /**
+     * Returns the fields to serialize, starting with the fields of the top most super class, or null if one of the fields
+     * can't be serialized.
+     */
+    private List<SerializedField> fields(TypeElement type) {
+        LinkedList<TypeElement> hierarchy = new LinkedList<TypeElement>();
+        for (TypeElement t = type; t != null; t = superclass(t)) {
+            hierarchy.addFirst(t);
+        }
+
+        PackageElement packageElement = elements.getPackageOf(type);
+        List<SerializedField> fields = new ArrayList<SerializedField>();
+        boolean valid = true;
+        for (TypeElement t : hierarchy) {
+            for (VariableElement field : fieldsIn(t.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+
+                SerializedField serializedField = field(type, packageElement, field);
+                if (serializedField == null) {
+                    valid = false;
+                } else {
+                    fields.add(serializedField);
+                }
+            }
+        }
+        return valid ? fields : null;
+    }
+
+    private SerializedField field(TypeElement type, PackageElement packageElement, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        TypeMirror fieldType = field.asType();
+        String typeName = types.erasure(fieldType).toString();
+        String methodSuffix = methodSuffix(fieldType);
+
+        if (isAccessible(field, packageElement)) {
+            if (field.getModifiers().contains(Modifier.FINAL)) {
+                error(field, "Field '" + name + "' can't be final");
+                return null;
+            }
+            return new SerializedField(name, typeName, methodSuffix, null, null);
+        }
+
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        String getter = findMethod(type, packageElement, "get" + capitalized, fieldType, null);
+        if (getter == null && fieldType.getKind() == TypeKind.BOOLEAN) {
+            getter = findMethod(type, packageElement, "is" + capitalized, fieldType, null);
+        }
+        String setter = findMethod(type, packageElement, "set" + capitalized, null, fieldType);
+        if (getter == null || setter == null) {
+            error(field, "Field '" + name + "' is not accessible and has no accessible getter and setter");
+            return null;
+        }
+        return new SerializedField(name, typeName, methodSuffix, getter, setter);
+    }
+
+    /**
+     * Looks for a method with the given name that either returns the given type and has no parameters, or has a single
+     * parameter of the given type.
+     */
+    private String findMethod(TypeElement type, PackageElement packageElement, String name,
+                              TypeMirror returnType, TypeMirror parameterType) {
+        for (ExecutableElement method : methodsIn(elements.getAllMembers(type))) {
+            if (!method.getSimpleName().contentEquals(name)
+                    || method.getModifiers().contains(Modifier.STATIC)
+                    || !isAccessible(method, packageElement)) {
+                continue;
+            }
+
+            List<? extends VariableElement> parameters = method.getParameters();
+            if (returnType != null && parameters.isEmpty() && types.isSameType(method.getReturnType(), returnType)) {
+                return name;
+            }
+            if (parameterType != null && parameters.size() == 1
+                    && types.isSameType(parameters.get(0).asType(), parameterType)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private boolean isAccessible(Element element, PackageElement packageElement) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return modifiers.contains(Modifier.PUBLIC)
+                || elements.getPackageOf(element).equals(packageElement);
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+    }
+
+    private static String methodSuffix(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Boolean";
+            case BYTE:
+                return "Byte";
+            case CHAR:
+                return "Char";
+            case SHORT:
+                return "Short";
+            case INT:
+                return "Int";
+            case LONG:
+                return "Long";
+            case FLOAT:
+                return "Float";
+            case DOUBLE:
+                return "Double";
+            case ARRAY:
+                TypeMirror componentType = ((ArrayType) type).getComponentType();
+                if (componentType.getKind().isPrimitive()) {
+                    return methodSuffix(componentType) + "Array";
+                }
+                return isString(componentType) ? "UTFArray" : "Object";
+            default:
+                return isString(type) ? "UTF" : "Object";
+        }
+    }
+
+    private static boolean isString(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && type.toString().equals(String.class.getName());
+    }
+
+    /**
+     * Returns the simple name of the type, prefixed by the simple names of the enclosing classes, separated by '_'.
+     */
+    private static String flatName(TypeElement type) {
+        StringBuilder sb = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            sb.insert(0, e.getSimpleName() + "_");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the services file containing the generated hooks. Entries already present, e.g. from a previous incremental
+     * compilation or a hand written hook, are preserved.
+     */
+    private void writeServicesFile() {
+        Set<String> entries = new TreeSet<String>(hooks);
+        entries.addAll(readServicesFile());
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICES_FILE);
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(file.openOutputStream(), "UTF-8"));
+            try {
+                for (String entry : entries) {
+                    out.println(entry);
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICES_FILE + ": " + e);
+        }
+    }
+
+    private Set<String> readServicesFile() {
+        Set<String> entries = new TreeSet<String>();
+        try {
+            FileObject file = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICES_FILE);
+            BufferedReader in = new BufferedReader(new InputStreamReader(file.openInputStream(), "UTF-8"));
+            try {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    line = line.trim();
+                    if (line.length() > 0 && !line.startsWith("#")) {
+                        entries.add(line);
+                    }
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // there is no existing services file
+            ignore(e);
+        } catch (IllegalArgumentException e) {
+            // the compiler doesn't support reading resources from the class output
+            ignore(e);
+        }
+        return entries;
+    }
+
+    private boolean error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.codegen;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the source of the generated serializer and serializer hook of an annotated class.
+ */
+final class SerializerSourceWriter {
+
+    private static final String GENERATED_COMMENT = "// Generated by " + SerializerProcessor.class.getName() + ", do not edit.";
+
+    private final String packageName;
+    private final String typeName;
+    private final int typeId;
+    private final List<SerializedField> fields;
+
+    /**
+     * @param packageName the package of the annotated class; empty for the default package.
+     * @param typeName    the canonical name of the annotated class.
+     * @param typeId      the type id of the serializer.
+     * @param fields      the fields to serialize, in serialization order.
+     */
+    SerializerSourceWriter(String packageName, String typeName, int typeId, List<SerializedField> fields) {
+        this.packageName = packageName;
+        this.typeName = typeName;
+        this.typeId = typeId;
+        this.fields = fields;
+    }
+
+    void writeSerializer(Writer writer, String serializerName) {
+        PrintWriter out = new PrintWriter(writer);
+        writeHeader(out);
+        out.println("public final class " + serializerName);
+        out.println("        implements com.hazelcast.nio.serialization.StreamSerializer<" + typeName + "> {");
+        out.println();
+        out.println("    public static final int TYPE_ID = " + typeId + ";");
+        out.println();
+        out.println("    @Override");
+        out.println("    public int getTypeId() {");
+        out.println("        return TYPE_ID;");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public void write(com.hazelcast.nio.ObjectDataOutput out, " + typeName + " object)");
+        out.println("            throws java.io.IOException {");
+        for (SerializedField field : fields) {
+            out.println("        " + field.writeStatement("out", "object"));
+        }
+        out.println("    }");
+        out.println();
+        if (hasObjectFields()) {
+            out.println("    @SuppressWarnings(\"unchecked\")");
+        }
+        out.println("    @Override");
+        out.println("    public " + typeName + " read(com.hazelcast.nio.ObjectDataInput in) throws java.io.IOException {");
+        out.println("        " + typeName + " object = new " + typeName + "();");
+        for (SerializedField field : fields) {
+            out.println("        " + field.readStatement("in", "object"));
+        }
+        out.println("        return object;");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public void destroy() {");
+        out.println("    }");
+        out.println("}");
+        out.flush();
+    }
+
+    void writeHook(Writer writer, String hookName, String serializerName) {
+        PrintWriter out = new PrintWriter(writer);
+        writeHeader(out);
+        out.println("public final class " + hookName);
+        out.println("        implements com.hazelcast.nio.serialization.SerializerHook<" + typeName + "> {");
+        out.println();
+        out.println("    @Override");
+        out.println("    public Class<" + typeName + "> getSerializationType() {");
+        out.println("        return " + typeName + ".class;");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public com.hazelcast.nio.serialization.Serializer createSerializer() {");
+        out.println("        return new " + serializerName + "();");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public boolean isOverwritable() {");
+        out.println("        return true;");
+        out.println("    }");
+        out.println("}");
+        out.flush();
+    }
+
+    private void writeHeader(PrintWriter out) {
+        out.println(GENERATED_COMMENT);
+        if (packageName.length() > 0) {
+            out.println("package " + packageName + ";");
+        }
+        out.println();
+    }
+
+    private boolean hasObjectFields() {
+        for (SerializedField field : fields) {
+            if (field.isObject()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
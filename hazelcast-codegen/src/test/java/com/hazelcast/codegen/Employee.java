@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.codegen;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.GenerateSerializer;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * An IdentifiedDataSerializable without a registered factory; so it can only be deserialized using the generated
+ * serializer.
+ */
+@GenerateSerializer(typeId = 1002)
+public class Employee extends Person implements IdentifiedDataSerializable {
+
+    static final int FACTORY_ID = 1000;
+    static final int CLASS_ID = 1;
+
+    String department;
+
+    @Override
+    public int getFactoryId() {
+        return FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return CLASS_ID;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(department);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        department = in.readUTF();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && equal(department, ((Employee) o).department);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.codegen;
+
+import com.hazelcast.nio.serialization.GenerateSerializer;
+
+import java.util.Arrays;
+import java.util.List;
+
+@GenerateSerializer(typeId = 1000)
+public class Person {
+
+    static int instanceCount;
+
+    boolean active;
+    byte initial;
+    char grade;
+    short level;
+    int age;
+    long id;
+    float height;
+    double salary;
+    String name;
+    int[] scores;
+    String[] tags;
+    Integer luckyNumber;
+    List<String> nicknames;
+    Address address;
+    transient String cached;
+
+    private String email;
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Person that = (Person) o;
+        return active == that.active
+                && initial == that.initial
+                && grade == that.grade
+                && level == that.level
+                && age == that.age
+                && id == that.id
+                && Float.compare(height, that.height) == 0
+                && Double.compare(salary, that.salary) == 0
+                && equal(name, that.name)
+                && Arrays.equals(scores, that.scores)
+                && Arrays.equals(tags, that.tags)
+                && equal(luckyNumber, that.luckyNumber)
+                && equal(nicknames, that.nicknames)
+                && equal(address, that.address)
+                && equal(email, that.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (id ^ (id >>> 32));
+    }
+
+    static boolean equal(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    @GenerateSerializer(typeId = 1001)
+    public static class Address {
+
+        String street;
+        int number;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Address that = (Address) o;
+            return number == that.number && equal(street, that.street);
+        }
+
+        @Override
+        public int hashCode() {
+            return number;
+        }
+    }
+}
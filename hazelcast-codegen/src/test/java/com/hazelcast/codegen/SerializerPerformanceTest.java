@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.codegen;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataSerializableFactory;
+import com.hazelcast.nio.serialization.GenerateSerializer;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableFactory;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the serializer generated by the {@link SerializerProcessor} with IdentifiedDataSerializable, Portable and
+ * Java serialization for an object with the same fields.
+ * <p/>
+ * Run with '-prof gc' to see the difference in allocation rate; the size of the serialized forms is printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializerPerformanceTest {
+
+    private static final int FACTORY_ID = 2000;
+    private static final int CLASS_ID = 1;
+    private static final int WARMUP_ITERATIONS_COUNT = 5;
+    private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+
+    private InternalSerializationService serializationService;
+
+    private GeneratedOrder generatedOrder;
+    private IdentifiedOrder identifiedOrder;
+    private PortableOrder portableOrder;
+    private SerializableOrder serializableOrder;
+
+    private Data generatedData;
+    private Data identifiedData;
+    private Data portableData;
+    private Data serializableData;
+
+    @Setup
+    public void setup() {
+        serializationService = new DefaultSerializationServiceBuilder()
+                .addDataSerializableFactory(FACTORY_ID, new DataSerializableFactory() {
+                    @Override
+                    public IdentifiedDataSerializable create(int typeId) {
+                        return new IdentifiedOrder();
+                    }
+                })
+                .addPortableFactory(FACTORY_ID, new PortableFactory() {
+                    @Override
+                    public Portable create(int classId) {
+                        return new PortableOrder();
+                    }
+                })
+                .build();
+
+        generatedOrder = populate(new GeneratedOrder());
+        identifiedOrder = populate(new IdentifiedOrder());
+        portableOrder = populate(new PortableOrder());
+        serializableOrder = populate(new SerializableOrder());
+
+        generatedData = toData(generatedOrder);
+        identifiedData = toData(identifiedOrder);
+        portableData = toData(portableOrder);
+        serializableData = toData(serializableOrder);
+    }
+
+    private Data toData(Object object) {
+        Data data = serializationService.toData(object);
+        System.out.println(object.getClass().getSimpleName() + " serialized size: " + data.totalSize() + " bytes");
+        return data;
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializationService.dispose();
+    }
+
+    @Benchmark
+    public Data serialize_generated() {
+        return serializationService.toData(generatedOrder);
+    }
+
+    @Benchmark
+    public Data serialize_identifiedDataSerializable() {
+        return serializationService.toData(identifiedOrder);
+    }
+
+    @Benchmark
+    public Data serialize_portable() {
+        return serializationService.toData(portableOrder);
+    }
+
+    @Benchmark
+    public Data serialize_serializable() {
+        return serializationService.toData(serializableOrder);
+    }
+
+    @Benchmark
+    public Object deserialize_generated() {
+        return serializationService.toObject(generatedData);
+    }
+
+    @Benchmark
+    public Object deserialize_identifiedDataSerializable() {
+        return serializationService.toObject(identifiedData);
+    }
+
+    @Benchmark
+    public Object deserialize_portable() {
+        return serializationService.toObject(portableData);
+    }
+
+    @Benchmark
+    public Object deserialize_serializable() {
+        return serializationService.toObject(serializableData);
+    }
+
+    private static <O extends Order> O populate(O order) {
+        order.id = 1234567890L;
+        order.quantity = 100;
+        order.price = 99.95;
+        order.buy = true;
+        order.symbol = "HZ";
+        order.fills = new long[]{10, 20, 30, 40};
+        return order;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SerializerPerformanceTest.class.getSimpleName())
+                .warmupIterations(WARMUP_ITERATIONS_COUNT)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+                .measurementTime(TimeValue.seconds(1))
+                .verbosity(VerboseMode.NORMAL)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    abstract static class Order {
+        long id;
+        int quantity;
+        double price;
+        boolean buy;
+        String symbol;
+        long[] fills;
+    }
+
+    @GenerateSerializer(typeId = 2000)
+    public static class GeneratedOrder extends Order {
+    }
+
+    public static class SerializableOrder extends Order implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class IdentifiedOrder extends Order implements IdentifiedDataSerializable {
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getId() {
+            return CLASS_ID;
+        }
+
+        @Override
+        public void writeData(ObjectDataOutput out) throws IOException {
+            out.writeLong(id);
+            out.writeInt(quantity);
+            out.writeDouble(price);
+            out.writeBoolean(buy);
+            out.writeUTF(symbol);
+            out.writeLongArray(fills);
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            id = in.readLong();
+            quantity = in.readInt();
+            price = in.readDouble();
+            buy = in.readBoolean();
+            symbol = in.readUTF();
+            fills = in.readLongArray();
+        }
+    }
+
+    public static class PortableOrder extends Order implements Portable {
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeLong("id", id);
+            writer.writeInt("quantity", quantity);
+            writer.writeDouble("price", price);
+            writer.writeBoolean("buy", buy);
+            writer.writeUTF("symbol", symbol);
+            writer.writeLongArray("fills", fills);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            id = reader.readLong("id");
+            quantity = reader.readInt("quantity");
+            price = reader.readDouble("price");
+            buy = reader.readBoolean("buy");
+            symbol = reader.readUTF("symbol");
+            fills = reader.readLongArray("fills");
+        }
+    }
+}
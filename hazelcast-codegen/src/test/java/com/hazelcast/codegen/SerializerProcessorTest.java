@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.codegen;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the serializers generated by the {@link SerializerProcessor} for the test sources of this module.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class SerializerProcessorTest {
+
+    private InternalSerializationService serializationService;
+
+    @Before
+    public void setup() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+    }
+
+    @After
+    public void tearDown() {
+        serializationService.dispose();
+    }
+
+    @Test
+    public void testGeneratedSerializerUsed() {
+        Data data = serializationService.toData(new Person());
+
+        assertEquals(PersonSerializer.TYPE_ID, data.getType());
+    }
+
+    @Test
+    public void testNestedClass() {
+        Person.Address address = newAddress();
+
+        Data data = serializationService.toData(address);
+        Person.Address found = serializationService.toObject(data);
+
+        assertEquals(Person_AddressSerializer.TYPE_ID, data.getType());
+        assertEquals(address, found);
+    }
+
+    @Test
+    public void testAllFields() {
+        Person person = populate(new Person());
+
+        Person found = serializationService.toObject(serializationService.toData(person));
+
+        assertEquals(person, found);
+    }
+
+    @Test
+    public void testNullFields() {
+        Person person = new Person();
+
+        Person found = serializationService.toObject(serializationService.toData(person));
+
+        assertEquals(person, found);
+    }
+
+    @Test
+    public void testTransientFieldIgnored() {
+        Person person = new Person();
+        person.cached = "cached";
+
+        Person found = serializationService.toObject(serializationService.toData(person));
+
+        assertEquals(null, found.cached);
+    }
+
+    @Test
+    public void testGeneratedSerializerOverridesDataSerializable() {
+        Employee employee = populate(new Employee());
+        employee.department = "engineering";
+
+        Data data = serializationService.toData(employee);
+        Employee found = serializationService.toObject(data);
+
+        assertEquals(EmployeeSerializer.TYPE_ID, data.getType());
+        assertEquals(employee, found);
+    }
+
+    private static <P extends Person> P populate(P person) {
+        person.active = true;
+        person.initial = 1;
+        person.grade = 'A';
+        person.level = 3;
+        person.age = 42;
+        person.id = Long.MAX_VALUE;
+        person.height = 1.8f;
+        person.salary = 1000.5;
+        person.name = "Peter";
+        person.scores = new int[]{1, 2, 3};
+        person.tags = new String[]{"a", "b"};
+        person.luckyNumber = 7;
+        person.nicknames = new ArrayList<String>(Arrays.asList("Pete", "P"));
+        person.address = newAddress();
+        person.setEmail("peter@example.com");
+        return person;
+    }
+
+    private static Person.Address newAddress() {
+        Person.Address address = new Person.Address();
+        address.street = "Main Street";
+        address.number = 1;
+        return address;
+    }
+}
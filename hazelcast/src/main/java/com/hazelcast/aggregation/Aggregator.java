@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import java.io.Serializable;
+
+/**
+ * Computes an aggregated result from the entries of an {@link com.hazelcast.core.IMap}.
+ * <p>
+ * The aggregation runs in two phases:
+ * <ul>
+ * <li>accumulation: a copy of the aggregator is sent to every member and accumulates the entries of the
+ * member's partitions (or of a single partition, if the member's result could not be used because of a migration),
+ * then {@link #onAccumulationFinished()} is called;</li>
+ * <li>combination: the accumulated copies are combined on the caller, then {@link #onCombinationFinished()} is
+ * called and {@link #aggregate()} produces the result.</li>
+ * </ul>
+ * The aggregator has to be serializable since it is sent over the wire, together with its accumulated state.
+ * The entry passed to {@link #accumulate(Object)} may be reused for the next entry, so the aggregator must not
+ * keep a reference to it.
+ * <p>
+ * The built-in aggregators can be found in {@link Aggregators}.
+ *
+ * @param <I> the type of the accumulated input, usually a map entry
+ * @param <R> the type of the result
+ * @since 3.8
+ */
+public abstract class Aggregator<I, R> implements Serializable {
+
+    /**
+     * Accumulates the given input.
+     *
+     * @param input the input to accumulate
+     */
+    public abstract void accumulate(I input);
+
+    /**
+     * Called after the last call of {@link #accumulate(Object)} on this instance.
+     */
+    public void onAccumulationFinished() {
+    }
+
+    /**
+     * Merges the state of another aggregator of the same type into this one.
+     *
+     * @param aggregator the aggregator to combine with
+     */
+    public abstract void combine(Aggregator aggregator);
+
+    /**
+     * Called after the last call of {@link #combine(Aggregator)} on this instance.
+     */
+    public void onCombinationFinished() {
+    }
+
+    /**
+     * Returns the result of the aggregation.
+     *
+     * @return the aggregated result
+     */
+    public abstract R aggregate();
+}
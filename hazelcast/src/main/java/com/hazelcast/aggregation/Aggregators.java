@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import com.hazelcast.aggregation.impl.CountAggregator;
+import com.hazelcast.aggregation.impl.DistinctValuesAggregator;
+import com.hazelcast.aggregation.impl.DoubleAverageAggregator;
+import com.hazelcast.aggregation.impl.DoubleMaxAggregator;
+import com.hazelcast.aggregation.impl.DoubleMinAggregator;
+import com.hazelcast.aggregation.impl.DoubleSumAggregator;
+import com.hazelcast.aggregation.impl.LongAverageAggregator;
+import com.hazelcast.aggregation.impl.LongMaxAggregator;
+import com.hazelcast.aggregation.impl.LongMinAggregator;
+import com.hazelcast.aggregation.impl.LongSumAggregator;
+
+import java.util.Set;
+
+import static com.hazelcast.util.Preconditions.checkHasText;
+
+/**
+ * Factory of the built-in {@link Aggregator}s.
+ * <p>
+ * The attribute paths are the same as in predicates, e.g. {@code "age"}, {@code "address.city"} or
+ * {@code "orders[any].amount"}. Values of a multi-valued attribute are aggregated one by one. {@code null}
+ * values are skipped. The numeric aggregators accept any {@link Number} and accumulate primitive longs or doubles,
+ * without boxing the intermediate results.
+ *
+ * @since 3.8
+ */
+public final class Aggregators {
+
+    private Aggregators() {
+    }
+
+    /**
+     * @return an aggregator counting the entries
+     */
+    public static <I> Aggregator<I, Long> count() {
+        return new CountAggregator<I>();
+    }
+
+    /**
+     * @param attributePath the attribute to count the values of
+     * @return an aggregator counting the non-null values of the attribute
+     */
+    public static <I> Aggregator<I, Long> count(String attributePath) {
+        return new CountAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the attribute to collect the values of
+     * @return an aggregator collecting the distinct values of the attribute
+     */
+    public static <I, R> Aggregator<I, Set<R>> distinct(String attributePath) {
+        return new DistinctValuesAggregator<I, R>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the numeric attribute to sum
+     * @return an aggregator summing the values of the attribute as longs
+     */
+    public static <I> Aggregator<I, Long> longSum(String attributePath) {
+        return new LongSumAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the numeric attribute to average
+     * @return an aggregator averaging the values of the attribute summed as longs, {@code null} if there are none
+     */
+    public static <I> Aggregator<I, Double> longAvg(String attributePath) {
+        return new LongAverageAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the numeric attribute to find the minimum of
+     * @return an aggregator finding the minimum of the values of the attribute as longs, {@code null} if there are none
+     */
+    public static <I> Aggregator<I, Long> longMin(String attributePath) {
+        return new LongMinAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the numeric attribute to find the maximum of
+     * @return an aggregator finding the maximum of the values of the attribute as longs, {@code null} if there are none
+     */
+    public static <I> Aggregator<I, Long> longMax(String attributePath) {
+        return new LongMaxAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the numeric attribute to sum
+     * @return an aggregator summing the values of the attribute as doubles
+     */
+    public static <I> Aggregator<I, Double> doubleSum(String attributePath) {
+        return new DoubleSumAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the numeric attribute to average
+     * @return an aggregator averaging the values of the attribute as doubles, {@code null} if there are none
+     */
+    public static <I> Aggregator<I, Double> doubleAvg(String attributePath) {
+        return new DoubleAverageAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the numeric attribute to find the minimum of
+     * @return an aggregator finding the minimum of the values of the attribute as doubles, {@code null} if there are none
+     */
+    public static <I> Aggregator<I, Double> doubleMin(String attributePath) {
+        return new DoubleMinAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    /**
+     * @param attributePath the numeric attribute to find the maximum of
+     * @return an aggregator finding the maximum of the values of the attribute as doubles, {@code null} if there are none
+     */
+    public static <I> Aggregator<I, Double> doubleMax(String attributePath) {
+        return new DoubleMaxAggregator<I>(checkAttributePath(attributePath));
+    }
+
+    private static String checkAttributePath(String attributePath) {
+        return checkHasText(attributePath, "attributePath must contain text");
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.query.impl.Extractable;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of the built-in aggregators. It extracts the value of the configured attribute from each entry,
+ * or takes the entry's value if no attribute is given, and accumulates the values one by one, each element of
+ * a multi-valued attribute (e.g. {@code orders[any].amount}) separately.
+ *
+ * @param <I> the type of the accumulated input
+ * @param <E> the type of the extracted values
+ * @param <R> the type of the result
+ */
+public abstract class AbstractAggregator<I, E, R> extends Aggregator<I, R> {
+
+    protected final String attributePath;
+
+    protected AbstractAggregator(String attributePath) {
+        this.attributePath = attributePath;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void accumulate(I input) {
+        Object extracted = extract(input);
+        if (extracted instanceof MultiResult) {
+            List<Object> results = ((MultiResult) extracted).getResults();
+            for (Object result : results) {
+                accumulateExtracted((E) result);
+            }
+        } else {
+            accumulateExtracted((E) extracted);
+        }
+    }
+
+    /**
+     * Accumulates a value extracted from the input.
+     *
+     * @param value the extracted value, may be {@code null}
+     */
+    protected abstract void accumulateExtracted(E value);
+
+    private Object extract(I input) {
+        if (attributePath == null) {
+            if (input instanceof Map.Entry) {
+                return ((Map.Entry) input).getValue();
+            }
+            return input;
+        }
+        if (input instanceof Extractable) {
+            return ((Extractable) input).getAttributeValue(attributePath);
+        }
+        throw new IllegalArgumentException("Cannot extract attribute '" + attributePath + "' from " + input);
+    }
+}
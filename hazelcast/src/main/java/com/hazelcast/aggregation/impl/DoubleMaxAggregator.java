@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+
+/**
+ * Finds the maximum of the non-null numeric values of an attribute, compared as doubles.
+ * The result is {@code null} if there are no values.
+ *
+ * @param <I> the type of the accumulated input
+ */
+public final class DoubleMaxAggregator<I> extends AbstractAggregator<I, Number, Double> {
+
+    private double max;
+    private boolean empty = true;
+
+    public DoubleMaxAggregator(String attributePath) {
+        super(attributePath);
+    }
+
+    @Override
+    protected void accumulateExtracted(Number value) {
+        if (value != null) {
+            accumulateMax(value.doubleValue());
+        }
+    }
+
+    @Override
+    public void combine(Aggregator aggregator) {
+        DoubleMaxAggregator other = (DoubleMaxAggregator) aggregator;
+        if (!other.empty) {
+            accumulateMax(other.max);
+        }
+    }
+
+    @Override
+    public Double aggregate() {
+        return empty ? null : max;
+    }
+
+    private void accumulateMax(double value) {
+        if (empty || value > max) {
+            max = value;
+            empty = false;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.protocol.codec;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.util.ParameterUtil;
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.serialization.Data;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Codec for fetching the next chunk of the entries of a partition which match a predicate; the client side of
+ * {@link com.hazelcast.map.impl.operation.MapFetchWithPredicateOperation}.
+ * <p/>
+ * It is written by hand in the layout of the generated codecs, since the protocol definitions don't contain this
+ * message yet. The response has the same layout as the one of {@link MapFetchEntriesCodec}.
+ */
+@SuppressFBWarnings("URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD")
+public final class MapFetchWithPredicateCodec {
+
+    /**
+     * The message type; outside of the range used by the generated map messages.
+     */
+    public static final int REQUEST_TYPE = 0x01ff;
+    public static final int RESPONSE_TYPE = MapFetchEntriesCodec.RESPONSE_TYPE;
+    public static final boolean RETRYABLE = true;
+
+    private MapFetchWithPredicateCodec() {
+    }
+
+    public static class RequestParameters {
+        public static final int TYPE = REQUEST_TYPE;
+        public String name;
+        public int partitionId;
+        public int tableIndex;
+        public int batch;
+        public Data predicate;
+
+        public static int calculateDataSize(String name, int partitionId, int tableIndex, int batch, Data predicate) {
+            int dataSize = ClientMessage.HEADER_SIZE;
+            dataSize += ParameterUtil.calculateDataSize(name);
+            dataSize += Bits.INT_SIZE_IN_BYTES;
+            dataSize += Bits.INT_SIZE_IN_BYTES;
+            dataSize += Bits.INT_SIZE_IN_BYTES;
+            dataSize += ParameterUtil.calculateDataSize(predicate);
+            return dataSize;
+        }
+    }
+
+    public static ClientMessage encodeRequest(String name, int partitionId, int tableIndex, int batch, Data predicate) {
+        int requiredDataSize = RequestParameters.calculateDataSize(name, partitionId, tableIndex, batch, predicate);
+        ClientMessage clientMessage = ClientMessage.createForEncode(requiredDataSize);
+        clientMessage.setMessageType(REQUEST_TYPE);
+        clientMessage.setRetryable(RETRYABLE);
+        clientMessage.set(name);
+        clientMessage.set(partitionId);
+        clientMessage.set(tableIndex);
+        clientMessage.set(batch);
+        clientMessage.set(predicate);
+        clientMessage.updateFrameLength();
+        return clientMessage;
+    }
+
+    public static RequestParameters decodeRequest(ClientMessage clientMessage) {
+        RequestParameters parameters = new RequestParameters();
+        parameters.name = clientMessage.getStringUtf8();
+        parameters.partitionId = clientMessage.getInt();
+        parameters.tableIndex = clientMessage.getInt();
+        parameters.batch = clientMessage.getInt();
+        parameters.predicate = clientMessage.getData();
+        return parameters;
+    }
+
+    public static ClientMessage encodeResponse(int tableIndex, Collection<Map.Entry<Data, Data>> entries) {
+        return MapFetchEntriesCodec.encodeResponse(tableIndex, entries);
+    }
+
+    public static MapFetchEntriesCodec.ResponseParameters decodeResponse(ClientMessage clientMessage) {
+        return MapFetchEntriesCodec.decodeResponse(clientMessage);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.protocol.task.map;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.MapFetchWithPredicateCodec;
+import com.hazelcast.instance.Node;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.operation.MapOperationProvider;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+import com.hazelcast.spi.Operation;
+
+import java.security.Permission;
+import java.util.Collections;
+import java.util.Map;
+
+public class MapFetchWithPredicateMessageTask
+        extends AbstractMapPartitionMessageTask<MapFetchWithPredicateCodec.RequestParameters> {
+
+    public MapFetchWithPredicateMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
+        super(clientMessage, node, connection);
+    }
+
+    @Override
+    protected Operation prepareOperation() {
+        MapOperationProvider operationProvider = getMapOperationProvider(parameters.name);
+        Predicate predicate = serializationService.toObject(parameters.predicate);
+        return operationProvider.createFetchWithPredicateOperation(parameters.name, parameters.tableIndex,
+                parameters.batch, predicate);
+    }
+
+    @Override
+    protected MapFetchWithPredicateCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
+        return MapFetchWithPredicateCodec.decodeRequest(clientMessage);
+    }
+
+    @Override
+    protected ClientMessage encodeResponse(Object response) {
+        if (response == null) {
+            return MapFetchWithPredicateCodec.encodeResponse(-1, Collections.<Map.Entry<Data, Data>>emptyList());
+        }
+        MapEntriesWithCursor mapEntriesWithCursor = (MapEntriesWithCursor) response;
+        return MapFetchWithPredicateCodec.encodeResponse(mapEntriesWithCursor.getNextTableIndexToReadFrom(),
+                mapEntriesWithCursor.getEntries());
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return new MapPermission(parameters.name, ActionConstants.ACTION_READ);
+    }
+
+    @Override
+    public String getDistributedObjectName() {
+        return parameters.name;
+    }
+
+    @Override
+    public String getMethodName() {
+        return "iterator";
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return new Object[]{parameters.predicate};
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.config;
+
+import com.hazelcast.nio.compression.DeflateCompressionCodec;
+
+import static com.hazelcast.util.Preconditions.checkHasText;
+import static com.hazelcast.util.Preconditions.checkNotNegative;
+
+/**
+ * Configures the compression of the values of a map.
+ * <p/>
+ * When enabled, values with a serialized size of at least the threshold are compressed when they are stored, and
+ * decompressed when they are read. This trades CPU for memory, and mostly pays off for large, compressible values like
+ * JSON or XML documents. It only applies to maps with {@link InMemoryFormat#BINARY}.
+ */
+public class CompressionConfig {
+
+    /**
+     * The default codec.
+     */
+    public static final String DEFAULT_CODEC = DeflateCompressionCodec.NAME;
+
+    /**
+     * The default minimum size in bytes of a serialized value to compress it.
+     */
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    private boolean enabled;
+    private String codec = DEFAULT_CODEC;
+    private int threshold = DEFAULT_THRESHOLD;
+
+    public CompressionConfig() {
+    }
+
+    public CompressionConfig(CompressionConfig compressionConfig) {
+        enabled = compressionConfig.enabled;
+        codec = compressionConfig.codec;
+        threshold = compressionConfig.threshold;
+    }
+
+    /**
+     * Returns whether compression is enabled.
+     *
+     * @return true if compression is enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether compression is enabled.
+     *
+     * @param enabled true to enable compression, false to disable it
+     * @return this CompressionConfig
+     */
+    public CompressionConfig setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Returns the codec used to compress the values.
+     *
+     * @return the codec
+     */
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * Sets the codec used to compress the values. This is either the name of a built-in codec, currently only
+     * {@value DeflateCompressionCodec#NAME}, or the class name of a {@link com.hazelcast.nio.compression.CompressionCodec}
+     * implementation.
+     * <p/>
+     * The default is {@value #DEFAULT_CODEC}.
+     *
+     * @param codec the codec
+     * @return this CompressionConfig
+     */
+    public CompressionConfig setCodec(String codec) {
+        this.codec = checkHasText(codec, "codec can't be null or empty");
+        return this;
+    }
+
+    /**
+     * Returns the minimum size in bytes of a serialized value to compress it.
+     *
+     * @return the threshold in bytes
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets the minimum size in bytes of a serialized value to compress it. Smaller values are stored uncompressed, since
+     * they rarely compress well enough to pay for the cost of compressing.
+     * <p/>
+     * The default is {@value #DEFAULT_THRESHOLD}.
+     *
+     * @param threshold the threshold in bytes
+     * @return this CompressionConfig
+     */
+    public CompressionConfig setThreshold(int threshold) {
+        this.threshold = checkNotNegative(threshold, "threshold can't be negative");
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionConfig{"
+                + "enabled=" + enabled
+                + ", codec='" + codec + '\''
+                + ", threshold=" + threshold
+                + '}';
+    }
+}
@@ -411,6 +411,9 @@ public class ConfigXmlGenerator {
             xml.append("<read-backup-data>").append(m.isReadBackupData())
                     .append("</read-backup-data>");
             appendHotRestartConfig(xml, m.getHotRestartConfig());
+            appendCompressionConfig(xml, m.getCompressionConfig());
+            xml.append("<value-deduplication-enabled>").append(m.isValueDeduplicationEnabled())
+                    .append("</value-deduplication-enabled>");
             xml.append("<statistics-enabled>").append(m.isStatisticsEnabled())
                     .append("</statistics-enabled>");
 
@@ -441,6 +444,13 @@ public class ConfigXmlGenerator {
                 .append("</hot-restart>");
     }
 
+    private void appendCompressionConfig(StringBuilder xml, CompressionConfig c) {
+        xml.append("<compression enabled=\"").append(c.isEnabled()).append("\">")
+                .append("<codec>").append(c.getCodec()).append("</codec>")
+                .append("<threshold>").append(c.getThreshold()).append("</threshold>")
+                .append("</compression>");
+    }
+
     private void cacheConfigXmlGenerator(StringBuilder xml, Config config) {
         for (CacheSimpleConfig c : config.getCacheConfigs().values()) {
             xml.append("<cache name=\"").append(c.getName()).append("\">");
@@ -572,7 +582,8 @@ public class ConfigXmlGenerator {
         if (!m.getMapIndexConfigs().isEmpty()) {
             xml.append("<indexes>");
             for (MapIndexConfig indexCfg : m.getMapIndexConfigs()) {
-                xml.append("<index ordered=\"").append(indexCfg.isOrdered()).append("\">");
+                xml.append("<index ordered=\"").append(indexCfg.isOrdered())
+                        .append("\" store-type=\"").append(indexCfg.getStoreType()).append("\">");
                 xml.append(indexCfg.getAttribute());
                 xml.append("</index>");
             }
@@ -150,6 +150,10 @@ public class MapConfig {
 
     private HotRestartConfig hotRestartConfig = new HotRestartConfig();
 
+    private CompressionConfig compressionConfig = new CompressionConfig();
+
+    private boolean valueDeduplicationEnabled;
+
     private MapConfigReadOnly readOnly;
 
     // we use these 2 flags to detect a conflict between (deprecated) #setOptimizeQueries()
@@ -194,6 +198,8 @@ public class MapConfig {
                 ? new PartitioningStrategyConfig(config.getPartitioningStrategyConfig()) : null;
         this.quorumName = config.quorumName;
         this.hotRestartConfig = new HotRestartConfig(config.hotRestartConfig);
+        this.compressionConfig = new CompressionConfig(config.compressionConfig);
+        this.valueDeduplicationEnabled = config.valueDeduplicationEnabled;
     }
 
     public MapConfigReadOnly getAsReadOnly() {
@@ -832,6 +838,48 @@ public class MapConfig {
         return this;
     }
 
+    /**
+     * Gets the {@code CompressionConfig} for this {@code MapConfig}
+     *
+     * @return compression config
+     */
+    public CompressionConfig getCompressionConfig() {
+        return compressionConfig;
+    }
+
+    /**
+     * Sets the {@code CompressionConfig} for this {@code MapConfig}
+     *
+     * @param compressionConfig compression config
+     * @return this {@code MapConfig} instance
+     */
+    public MapConfig setCompressionConfig(CompressionConfig compressionConfig) {
+        this.compressionConfig = isNotNull(compressionConfig, "compressionConfig");
+        return this;
+    }
+
+    /**
+     * Checks if value deduplication is enabled for this map.
+     *
+     * @return True if value deduplication is enabled, false otherwise.
+     */
+    public boolean isValueDeduplicationEnabled() {
+        return valueDeduplicationEnabled;
+    }
+
+    /**
+     * Enables or disables value deduplication for this map. When enabled, entries of a partition
+     * whose serialized values are equal share a single copy of the value. This only applies to
+     * the {@link InMemoryFormat#BINARY} in-memory format.
+     *
+     * @param valueDeduplicationEnabled True to enable value deduplication, false to disable.
+     * @return The current map config instance.
+     */
+    public MapConfig setValueDeduplicationEnabled(boolean valueDeduplicationEnabled) {
+        this.valueDeduplicationEnabled = valueDeduplicationEnabled;
+        return this;
+    }
+
     /**
      * Get current value cache settings
      *
@@ -955,6 +1003,8 @@ public class MapConfig {
                 + ", maxSizeConfig=" + maxSizeConfig
                 + ", readBackupData=" + readBackupData
                 + ", hotRestart=" + hotRestartConfig
+                + ", compressionConfig=" + compressionConfig
+                + ", valueDeduplicationEnabled=" + valueDeduplicationEnabled
                 + ", nearCacheConfig=" + nearCacheConfig
                 + ", mapStoreConfig=" + mapStoreConfig
                 + ", mergePolicyConfig='" + mergePolicy + '\''
@@ -124,6 +124,16 @@ public class MapConfigReadOnly extends MapConfig {
         throw new UnsupportedOperationException("This config is read-only map: " + getName());
     }
 
+    @Override
+    public MapConfig setCompressionConfig(CompressionConfig compressionConfig) {
+        throw new UnsupportedOperationException("This config is read-only map: " + getName());
+    }
+
+    @Override
+    public MapConfig setValueDeduplicationEnabled(boolean valueDeduplicationEnabled) {
+        throw new UnsupportedOperationException("This config is read-only map: " + getName());
+    }
+
     @Override
     public MapConfig setName(String name) {
         throw new UnsupportedOperationException("This config is read-only map: " + getName());
@@ -21,6 +21,7 @@ import com.hazelcast.logging.Logger;
 
 import static com.hazelcast.query.QueryConstants.KEY_ATTRIBUTE_NAME;
 import static com.hazelcast.util.Preconditions.checkHasText;
+import static com.hazelcast.util.Preconditions.checkNotNull;
 
 /**
  * Contains the configuration for an index in a map. This class should be used in combination
@@ -29,10 +30,16 @@ import static com.hazelcast.util.Preconditions.checkHasText;
  */
 public class MapIndexConfig {
 
+    /**
+     * Default index store type.
+     */
+    public static final IndexStoreType DEFAULT_STORE_TYPE = IndexStoreType.DEFAULT;
+
     private static final ILogger LOG = Logger.getLogger(MapIndexConfig.class);
 
     private String attribute;
     private boolean ordered;
+    private IndexStoreType storeType = DEFAULT_STORE_TYPE;
     private MapIndexConfigReadOnly readOnly;
 
     /**
@@ -57,6 +64,7 @@ public class MapIndexConfig {
     public MapIndexConfig(MapIndexConfig config) {
         attribute = config.getAttribute();
         ordered = config.isOrdered();
+        storeType = config.getStoreType();
     }
 
     public MapIndexConfigReadOnly getAsReadOnly() {
@@ -111,9 +119,31 @@ public class MapIndexConfig {
         return this;
     }
 
+    /**
+     * Returns the type of the store which keeps the index.
+     *
+     * @return the index store type.
+     * @see #setStoreType(IndexStoreType)
+     */
+    public IndexStoreType getStoreType() {
+        return storeType;
+    }
+
+    /**
+     * Sets the type of the store which keeps the index. See {@link IndexStoreType} for the available types.
+     *
+     * @param storeType the index store type.
+     * @return the updated MapIndexConfig.
+     * @throws NullPointerException if storeType is null.
+     */
+    public MapIndexConfig setStoreType(IndexStoreType storeType) {
+        this.storeType = checkNotNull(storeType, "Index store type cannot be null");
+        return this;
+    }
+
     @Override
     public String toString() {
-        return "MapIndexConfig{attribute='" + attribute + "', ordered=" + ordered + '}';
+        return "MapIndexConfig{attribute='" + attribute + "', ordered=" + ordered + ", storeType=" + storeType + '}';
     }
 
     /**
@@ -133,4 +163,26 @@ public class MapIndexConfig {
         }
         return attribute;
     }
+
+    /**
+     * Type of the store which keeps an index.
+     */
+    public enum IndexStoreType {
+        /**
+         * A skip list of hash maps for ordered indexes, a hash map of hash maps for unordered ones.
+         */
+        DEFAULT,
+        /**
+         * A B+tree for ordered indexes. It has a much smaller memory footprint than the default store
+         * for large maps, at the cost of copying query results out of the index. Unordered indexes
+         * use the default store.
+         */
+        BTREE,
+        /**
+         * A compressed bitmap of the entries per distinct attribute value, for attributes with few distinct
+         * values like a status or a country. Predicates over bitmap indexes combined with AND, OR and NOT
+         * are evaluated as bitwise operations. Ordered comparisons are supported but visit every distinct value.
+         */
+        BITMAP
+    }
 }
@@ -17,6 +17,7 @@
 package com.hazelcast.config;
 
 import com.hazelcast.nio.serialization.ClassDefinition;
+import com.hazelcast.nio.serialization.Compact;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.nio.serialization.PortableFactory;
 
@@ -63,6 +64,8 @@ public class SerializationConfig {
 
     private Set<ClassDefinition> classDefinitions;
 
+    private Set<Class<? extends Compact>> compactClasses;
+
     public SerializationConfig() {
     }
 
@@ -319,6 +322,37 @@ public class SerializationConfig {
         return this;
     }
 
+    /**
+     * @return registered {@link Compact} classes
+     */
+    public Set<Class<? extends Compact>> getCompactClasses() {
+        if (compactClasses == null) {
+            compactClasses = new HashSet<Class<? extends Compact>>();
+        }
+        return compactClasses;
+    }
+
+    /**
+     * Registers a {@link Compact} class so its schema is known before the first instance is serialized. This is optional
+     * since serialized objects carry their schema; it validates the class at startup.
+     *
+     * @param compactClass the Compact class to be registered
+     * @return configured {@link com.hazelcast.config.SerializerConfig} for chaining
+     */
+    public SerializationConfig addCompactClass(Class<? extends Compact> compactClass) {
+        getCompactClasses().add(isNotNull(compactClass, "compactClass"));
+        return this;
+    }
+
+    /**
+     * @param compactClasses set of {@link Compact} classes to be registered
+     * @return configured {@link com.hazelcast.config.SerializerConfig} for chaining
+     */
+    public SerializationConfig setCompactClasses(Set<Class<? extends Compact>> compactClasses) {
+        this.compactClasses = compactClasses;
+        return this;
+    }
+
     /**
      * Default value is true (enabled).
      * When enabled, serialization system will check for class definitions error at start and throw an Serialization
@@ -452,6 +486,7 @@ public class SerializationConfig {
                 + ", serializerConfigs=" + serializerConfigs
                 + ", checkClassDefErrors=" + checkClassDefErrors
                 + ", classDefinitions=" + classDefinitions
+                + ", compactClasses=" + compactClasses
                 + ", byteOrder=" + byteOrder
                 + ", useNativeByteOrder=" + useNativeByteOrder
                 + '}';
@@ -1087,6 +1087,10 @@ public class XmlConfigBuilder extends AbstractConfigBuilder implements ConfigBui
                 mapConfig.setMergePolicy(value);
             } else if ("hot-restart".equals(nodeName)) {
                 mapConfig.setHotRestartConfig(createHotRestartConfig(node));
+            } else if ("compression".equals(nodeName)) {
+                mapConfig.setCompressionConfig(createCompressionConfig(node));
+            } else if ("value-deduplication-enabled".equals(nodeName)) {
+                mapConfig.setValueDeduplicationEnabled(getBooleanValue(value));
             } else if ("read-backup-data".equals(nodeName)) {
                 mapConfig.setReadBackupData(getBooleanValue(value));
             } else if ("statistics-enabled".equals(nodeName)) {
@@ -1176,6 +1180,25 @@ public class XmlConfigBuilder extends AbstractConfigBuilder implements ConfigBui
         return hotRestartConfig;
     }
 
+    private CompressionConfig createCompressionConfig(Node node) {
+        CompressionConfig compressionConfig = new CompressionConfig();
+
+        Node attrEnabled = node.getAttributes().getNamedItem("enabled");
+        boolean enabled = getBooleanValue(getTextContent(attrEnabled));
+        compressionConfig.setEnabled(enabled);
+
+        for (Node n : childElements(node)) {
+            String name = cleanNodeName(n);
+            if ("codec".equals(name)) {
+                compressionConfig.setCodec(getTextContent(n));
+            } else if ("threshold".equals(name)) {
+                compressionConfig.setThreshold(getIntegerValue("threshold", getTextContent(n)));
+            }
+        }
+
+        return compressionConfig;
+    }
+
     private void handleCache(Node node) throws Exception {
         String name = getAttribute(node, "name");
         CacheSimpleConfig cacheConfig = new CacheSimpleConfig();
@@ -1399,7 +1422,7 @@ public class XmlConfigBuilder extends AbstractConfigBuilder implements ConfigBui
                 NamedNodeMap attrs = indexNode.getAttributes();
                 boolean ordered = getBooleanValue(getTextContent(attrs.getNamedItem("ordered")));
                 String attribute = getTextContent(indexNode);
-                mapConfig.addMapIndexConfig(new MapIndexConfig(attribute, ordered));
+                mapConfig.addMapIndexConfig(createMapIndexConfig(attribute, ordered, attrs));
             }
         }
     }
@@ -1410,11 +1433,21 @@ public class XmlConfigBuilder extends AbstractConfigBuilder implements ConfigBui
                 NamedNodeMap attrs = indexNode.getAttributes();
                 boolean ordered = getBooleanValue(getTextContent(attrs.getNamedItem("ordered")));
                 String attribute = getTextContent(indexNode);
-                queryCacheConfig.addIndexConfig(new MapIndexConfig(attribute, ordered));
+                queryCacheConfig.addIndexConfig(createMapIndexConfig(attribute, ordered, attrs));
             }
         }
     }
 
+    private MapIndexConfig createMapIndexConfig(String attribute, boolean ordered, NamedNodeMap attrs) {
+        MapIndexConfig mapIndexConfig = new MapIndexConfig(attribute, ordered);
+        Node storeType = attrs.getNamedItem("store-type");
+        if (storeType != null) {
+            String storeTypeName = upperCaseInternal(getTextContent(storeType));
+            mapIndexConfig.setStoreType(MapIndexConfig.IndexStoreType.valueOf(storeTypeName));
+        }
+        return mapIndexConfig;
+    }
+
     private void mapAttributesHandle(Node n, MapConfig mapConfig) {
         for (Node extractorNode : childElements(n)) {
             if ("attribute".equals(cleanNodeName(extractorNode))) {
@@ -16,8 +16,10 @@
 
 package com.hazelcast.core;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.QueryResultSizeExceededException;
 import com.hazelcast.map.impl.LegacyAsyncMap;
 import com.hazelcast.map.listener.MapListener;
@@ -26,6 +28,7 @@ import com.hazelcast.mapreduce.JobTracker;
 import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.spi.properties.GroupProperty;
 
@@ -1587,6 +1590,108 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, LegacyAsyncMap<K, V> {
      */
     Map<K, Object> executeOnEntries(EntryProcessor entryProcessor, Predicate predicate);
 
+    /**
+     * Applies the aggregation logic on all map entries and returns the result.
+     * <p>
+     * Unlike {@link #aggregate(Supplier, Aggregation)}, the aggregation does not run on the Map-Reduce engine but on
+     * the Query infrastructure: each member accumulates the entries of its own partitions and only the accumulated
+     * state of the aggregator is sent back to the caller, where it is combined into the result.
+     * A set of built-in aggregators can be found in {@link com.hazelcast.aggregation.Aggregators}.
+     *
+     * @param aggregator aggregator to aggregate the entries with
+     * @param <R>        type of the result
+     * @return the result of the given type
+     * @since 3.8
+     */
+    <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator);
+
+    /**
+     * Applies the aggregation logic on map entries filtered with the Predicate and returns the result.
+     * <p>
+     * The predicate is evaluated the same way as in the queries, so the indexes are used where possible.
+     * {@link com.hazelcast.query.PagingPredicate}s are not supported.
+     *
+     * @param aggregator aggregator to aggregate the entries with
+     * @param predicate  predicate to filter the entries with
+     * @param <R>        type of the result
+     * @return the result of the given type
+     * @since 3.8
+     */
+    <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate<K, V> predicate);
+
+    /**
+     * Applies the projection logic on all map entries and returns the result.
+     * <p>
+     * The projection is applied on the members owning the entries, so only the projected values are sent back
+     * to the caller instead of the whole entries. A set of built-in projections can be found in
+     * {@link com.hazelcast.projection.Projections}.
+     * <p>
+     * The returned collection is not backed by the map and may contain duplicates.
+     *
+     * @param projection projection to transform the entries with
+     * @param <R>        type of the projected values
+     * @return the projected values
+     * @throws QueryResultSizeExceededException if query result size limit is exceeded
+     * @since 3.8
+     */
+    <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection);
+
+    /**
+     * Applies the projection logic on map entries filtered with the Predicate and returns the result.
+     * <p>
+     * The predicate is evaluated the same way as in the queries, so the indexes are used where possible.
+     * {@link com.hazelcast.query.PagingPredicate}s are not supported.
+     *
+     * @param projection projection to transform the entries with
+     * @param predicate  predicate to filter the entries with
+     * @param <R>        type of the projected values
+     * @return the projected values
+     * @throws QueryResultSizeExceededException if query result size limit is exceeded
+     * @since 3.8
+     */
+    <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate<K, V> predicate);
+
+    /**
+     * Returns the {@link QueryCache} with the given name which is configured by a {@link com.hazelcast.config.QueryCacheConfig}
+     * of this map, creating and populating it on the first call.
+     * <p>
+     * A query cache keeps the entries matching its predicate locally and is kept up to date continuously by the events
+     * of the map, so querying it does not need any remote call. Repeated calls with the same name return the same instance.
+     *
+     * @param name the name of the query cache
+     * @return the query cache
+     * @throws IllegalArgumentException if there is no {@link com.hazelcast.config.QueryCacheConfig} with the given name
+     * @since 3.8
+     */
+    QueryCache<K, V> getQueryCache(String name);
+
+    /**
+     * Returns the {@link QueryCache} with the given name, creating it with the given predicate if it does not exist yet.
+     * Configuration not covered by the parameters is taken from the {@link com.hazelcast.config.QueryCacheConfig} with
+     * the same name if it exists, otherwise the defaults are used.
+     *
+     * @param name         the name of the query cache
+     * @param predicate    the predicate selecting the entries of the query cache
+     * @param includeValue {@code true} to keep the values in the query cache, {@code false} to keep only the keys
+     * @return the query cache
+     * @since 3.8
+     */
+    QueryCache<K, V> getQueryCache(String name, Predicate<K, V> predicate, boolean includeValue);
+
+    /**
+     * Returns the {@link QueryCache} with the given name, creating it with the given predicate and listener if it does
+     * not exist yet. The listener is registered before the query cache is populated, it is not notified of the populated
+     * entries but of every change after that.
+     *
+     * @param name         the name of the query cache
+     * @param listener     the listener to be notified of the changes of the query cache
+     * @param predicate    the predicate selecting the entries of the query cache
+     * @param includeValue {@code true} to keep the values in the query cache, {@code false} to keep only the keys
+     * @return the query cache
+     * @since 3.8
+     */
+    QueryCache<K, V> getQueryCache(String name, MapListener listener, Predicate<K, V> predicate, boolean includeValue);
+
     /**
      * Executes a predefined aggregation on the maps data set. The {@link com.hazelcast.mapreduce.aggregation.Supplier}
      * is used to either select or to select and extract a (sub-)value. A predefined set of aggregations can be found in
@@ -17,7 +17,12 @@
 package com.hazelcast.instance;
 
 import com.hazelcast.cluster.Joiner;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.LoggingService;
 import com.hazelcast.nio.ConnectionManager;
+import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.NodeIOService;
 import com.hazelcast.nio.tcp.IOThreadingModel;
 import com.hazelcast.nio.tcp.TcpIpConnectionManager;
@@ -25,11 +30,18 @@ import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadingModel;
 import com.hazelcast.nio.tcp.spinning.SpinningIOThreadingModel;
 import com.hazelcast.spi.annotation.PrivateApi;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.channels.ServerSocketChannel;
 
+import static com.hazelcast.nio.ClassLoaderUtil.loadClass;
+import static com.hazelcast.spi.properties.GroupProperty.IO_THREADING_MODEL;
+
 @PrivateApi
 public class DefaultNodeContext implements NodeContext {
 
+    private static final String EPOLL_THREADING_MODEL = "com.hazelcast.nio.tcp.epoll.EpollIOThreadingModel";
+
     @Override
     public NodeExtension createNodeExtension(Node node) {
         return NodeExtensionFactory.create(node);
@@ -59,17 +71,81 @@ public class DefaultNodeContext implements NodeContext {
     }
 
     private IOThreadingModel createTcpIpConnectionThreadingModel(Node node, NodeIOService ioService) {
+        String threadingModel = node.getProperties().getString(IO_THREADING_MODEL);
         boolean spinning = Boolean.getBoolean("hazelcast.io.spinning");
-        if (spinning) {
+        if (spinning || "spinning".equals(threadingModel)) {
             return new SpinningIOThreadingModel(
                     node.loggingService,
                     node.getHazelcastThreadGroup());
-        } else {
-            return new NonBlockingIOThreadingModel(
+        }
+
+        if ("epoll".equals(threadingModel)) {
+            // created like a custom threading model, so it falls back to non blocking when the native library is missing
+            threadingModel = EPOLL_THREADING_MODEL;
+        }
+
+        if (!"nonblocking".equals(threadingModel)) {
+            IOThreadingModel customThreadingModel = createCustomThreadingModel(node, ioService, threadingModel);
+            if (customThreadingModel != null) {
+                return customThreadingModel;
+            }
+        }
+
+        return new NonBlockingIOThreadingModel(
+                ioService,
+                node.loggingService,
+                node.nodeEngine.getMetricsRegistry(),
+                node.getHazelcastThreadGroup());
+    }
+
+    private IOThreadingModel createCustomThreadingModel(Node node, NodeIOService ioService, String className) {
+        Constructor<?> constructor = getCustomThreadingModelConstructor(node, className);
+        ILogger logger = node.getLogger(DefaultNodeContext.class);
+        try {
+            IOThreadingModel threadingModel = (IOThreadingModel) constructor.newInstance(
                     ioService,
                     node.loggingService,
                     node.nodeEngine.getMetricsRegistry(),
                     node.getHazelcastThreadGroup());
+            logger.info("Using IOThreadingModel " + className);
+            return threadingModel;
+        } catch (InvocationTargetException e) {
+            // native threading models fail in their constructor when they are not supported on this platform
+            return fallBack(logger, className, e.getCause());
+        } catch (LinkageError e) {
+            // e.g. an UnsatisfiedLinkError thrown by the static initializer which loads the native library
+            return fallBack(logger, className, e);
+        } catch (InstantiationException e) {
+            throw new HazelcastException("IOThreadingModel " + className + " can't be instantiated", e);
+        } catch (IllegalAccessException e) {
+            throw new HazelcastException("IOThreadingModel " + className + " can't be instantiated", e);
+        }
+    }
+
+    private static IOThreadingModel fallBack(ILogger logger, String className, Throwable cause) {
+        logger.warning("Failed to create IOThreadingModel " + className
+                + ", falling back to the non blocking IOThreadingModel. Cause: " + cause);
+        return null;
+    }
+
+    private static Constructor<?> getCustomThreadingModelConstructor(Node node, String className) {
+        Class<?> clazz;
+        try {
+            clazz = loadClass(node.getConfigClassLoader(), className);
+        } catch (ClassNotFoundException e) {
+            throw new HazelcastException("IOThreadingModel " + className + " configured by '" + IO_THREADING_MODEL.getName()
+                    + "' is not found", e);
+        }
+        if (!IOThreadingModel.class.isAssignableFrom(clazz)) {
+            throw new HazelcastException("Class " + className + " configured by '" + IO_THREADING_MODEL.getName()
+                    + "' is not an IOThreadingModel");
+        }
+        try {
+            return clazz.getConstructor(
+                    IOService.class, LoggingService.class, MetricsRegistry.class, HazelcastThreadGroup.class);
+        } catch (NoSuchMethodException e) {
+            throw new HazelcastException("IOThreadingModel " + className + " has no public constructor with the parameters"
+                    + " (IOService, LoggingService, MetricsRegistry, HazelcastThreadGroup)", e);
         }
     }
 }
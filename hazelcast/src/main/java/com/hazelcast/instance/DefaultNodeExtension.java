@@ -20,9 +20,13 @@ import com.hazelcast.cache.impl.CacheService;
 import com.hazelcast.cache.impl.ICacheService;
 import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.core.PartitioningStrategy;
 import com.hazelcast.internal.cluster.ClusterStateListener;
+import com.hazelcast.internal.memory.NativeMemoryManager;
+import com.hazelcast.internal.memory.impl.PooledMemoryManager;
+import com.hazelcast.internal.memory.impl.StandardMemoryManager;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.SerializationServiceBuilder;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
@@ -33,6 +37,8 @@ import com.hazelcast.memory.MemoryStats;
 import com.hazelcast.nio.ClassLoaderUtil;
 import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.MemberSocketInterceptor;
+import com.hazelcast.nio.PacketPayloadPool;
+import com.hazelcast.nio.tcp.CompressingMemberWriteHandler;
 import com.hazelcast.nio.tcp.DefaultSocketChannelWrapperFactory;
 import com.hazelcast.nio.tcp.MemberReadHandler;
 import com.hazelcast.nio.tcp.MemberWriteHandler;
@@ -45,6 +51,7 @@ import com.hazelcast.security.SecurityContext;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.annotation.PrivateApi;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
 import com.hazelcast.spi.impl.servicemanager.ServiceManager;
 import com.hazelcast.spi.properties.GroupProperty;
 import com.hazelcast.util.ConstructorFunction;
@@ -65,7 +72,8 @@ public class DefaultNodeExtension implements NodeExtension {
     protected final ILogger logger;
     protected final ILogger systemLogger;
 
-    private final MemoryStats memoryStats = new DefaultMemoryStats();
+    private volatile NativeMemoryManager nativeMemoryManager;
+    private volatile MemoryStats memoryStats = new DefaultMemoryStats();
 
     public DefaultNodeExtension(Node node) {
         this.node = node;
@@ -75,6 +83,27 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public void beforeStart() {
+        NativeMemoryConfig nativeMemoryConfig = node.getConfig().getNativeMemoryConfig();
+        if (nativeMemoryConfig.isEnabled()) {
+            nativeMemoryManager = createNativeMemoryManager(nativeMemoryConfig);
+            memoryStats = new NativeMemoryStats(nativeMemoryManager);
+        }
+    }
+
+    protected NativeMemoryManager createNativeMemoryManager(NativeMemoryConfig nativeMemoryConfig) {
+        long maxMemory = nativeMemoryConfig.getSize().bytes();
+        logger.info("Using " + nativeMemoryConfig.getAllocatorType() + " native memory allocator, max size: "
+                + nativeMemoryConfig.getSize().toPrettyString());
+        switch (nativeMemoryConfig.getAllocatorType()) {
+            case STANDARD:
+                return new StandardMemoryManager(maxMemory);
+            case POOLED:
+                return new PooledMemoryManager(maxMemory, nativeMemoryConfig.getPageSize(),
+                        nativeMemoryConfig.getMinBlockSize());
+            default:
+                throw new IllegalArgumentException("Unknown native memory allocator type: "
+                        + nativeMemoryConfig.getAllocatorType());
+        }
     }
 
     @Override
@@ -185,20 +214,35 @@ public class DefaultNodeExtension implements NodeExtension {
     @Override
     public ReadHandler createReadHandler(TcpIpConnection connection, IOService ioService) {
         NodeEngineImpl nodeEngine = node.nodeEngine;
-        return new MemberReadHandler(connection, nodeEngine.getPacketDispatcher());
+        int payloadPoolSize = ioService.getReadPayloadPoolSize();
+        PacketPayloadPool payloadPool = payloadPoolSize > 0
+                ? new PacketPayloadPool(payloadPoolSize, ioService.getReadPayloadPoolMaxSize())
+                : null;
+        return new MemberReadHandler(connection, nodeEngine.getPacketDispatcher(), ioService.getCompressionCodec(),
+                ioService.getCompressionMaxSize(), payloadPool);
     }
 
     @Override
     public WriteHandler createWriteHandler(TcpIpConnection connection, IOService ioService) {
+        if (ioService.isCompressionEnabled()) {
+            return new CompressingMemberWriteHandler(connection, ioService.getCompressionCodec(),
+                    ioService.getCompressionThreshold(), ioService.getCompressionMaxSize());
+        }
         return new MemberWriteHandler();
     }
 
     @Override
     public void onThreadStart(Thread thread) {
+        if (thread instanceof PartitionOperationThread && nativeMemoryManager instanceof PooledMemoryManager) {
+            ((PooledMemoryManager) nativeMemoryManager).registerThread();
+        }
     }
 
     @Override
     public void onThreadStop(Thread thread) {
+        if (thread instanceof PartitionOperationThread && nativeMemoryManager instanceof PooledMemoryManager) {
+            ((PooledMemoryManager) nativeMemoryManager).unregisterThread();
+        }
     }
 
     @Override
@@ -206,6 +250,11 @@ public class DefaultNodeExtension implements NodeExtension {
         return memoryStats;
     }
 
+    @Override
+    public NativeMemoryManager getNativeMemoryManager() {
+        return nativeMemoryManager;
+    }
+
     @Override
     public void beforeShutdown() {
     }
@@ -213,6 +262,10 @@ public class DefaultNodeExtension implements NodeExtension {
     @Override
     public void shutdown() {
         logger.info("Destroying node NodeExtension.");
+        NativeMemoryManager memoryManager = nativeMemoryManager;
+        if (memoryManager != null) {
+            memoryManager.dispose();
+        }
     }
 
     @Override
@@ -239,4 +292,36 @@ public class DefaultNodeExtension implements NodeExtension {
         logger.warning("Force start is available when hot restart is active!");
         return false;
     }
+
+    /**
+     * {@link MemoryStats} which reports the native memory usage of this node's {@link NativeMemoryManager}.
+     */
+    private static final class NativeMemoryStats extends DefaultMemoryStats {
+
+        private final NativeMemoryManager memoryManager;
+
+        NativeMemoryStats(NativeMemoryManager memoryManager) {
+            this.memoryManager = memoryManager;
+        }
+
+        @Override
+        public long getMaxNative() {
+            return memoryManager.getMaxMemory();
+        }
+
+        @Override
+        public long getCommittedNative() {
+            return memoryManager.getCommittedMemory();
+        }
+
+        @Override
+        public long getUsedNative() {
+            return memoryManager.getUsedMemory();
+        }
+
+        @Override
+        public long getFreeNative() {
+            return memoryManager.getMaxMemory() - memoryManager.getUsedMemory();
+        }
+    }
 }
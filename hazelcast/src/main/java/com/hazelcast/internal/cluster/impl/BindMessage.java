@@ -28,14 +28,24 @@ public class BindMessage implements IdentifiedDataSerializable {
     private Address localAddress;
     private Address targetAddress;
     private boolean reply;
+    private String compressionCodec;
 
     public BindMessage() {
     }
 
     public BindMessage(Address localAddress, Address targetAddress, boolean reply) {
+        this(localAddress, targetAddress, reply, null);
+    }
+
+    /**
+     * @param compressionCodec the class name of the codec the sending member decompresses packets with; or null if it
+     *                         can't decompress packets.
+     */
+    public BindMessage(Address localAddress, Address targetAddress, boolean reply, String compressionCodec) {
         this.localAddress = localAddress;
         this.targetAddress = targetAddress;
         this.reply = reply;
+        this.compressionCodec = compressionCodec;
     }
 
     public Address getLocalAddress() {
@@ -50,6 +60,10 @@ public class BindMessage implements IdentifiedDataSerializable {
         return reply;
     }
 
+    public String getCompressionCodec() {
+        return compressionCodec;
+    }
+
     @Override
     public int getFactoryId() {
         return ClusterDataSerializerHook.F_ID;
@@ -70,6 +84,7 @@ public class BindMessage implements IdentifiedDataSerializable {
             targetAddress.readData(in);
         }
         reply = in.readBoolean();
+        compressionCodec = in.readUTF();
     }
 
     @Override
@@ -81,6 +96,7 @@ public class BindMessage implements IdentifiedDataSerializable {
             targetAddress.writeData(out);
         }
         out.writeBoolean(reply);
+        out.writeUTF(compressionCodec);
     }
 
     @Override
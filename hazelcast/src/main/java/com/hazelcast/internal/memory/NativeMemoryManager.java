@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory;
+
+/**
+ * {@link MemoryManager} which manages the node-wide budget of native (off-heap) memory. Its
+ * allocator hands out genuine native addresses, to be accessed through the associated
+ * global {@link MemoryAccessor}.
+ */
+public interface NativeMemoryManager extends MemoryManager {
+
+    /**
+     * @return the maximum number of bytes this memory manager is allowed to hand out
+     */
+    long getMaxMemory();
+
+    /**
+     * @return the number of bytes reserved from the operating system, which is at least
+     * the number of bytes currently in use
+     */
+    long getCommittedMemory();
+
+    /**
+     * @return the number of bytes in blocks currently allocated and not yet freed
+     */
+    long getUsedMemory();
+}
@@ -0,0 +1,631 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry;
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.NativeMemoryManager;
+import com.hazelcast.internal.metrics.LongProbeFunction;
+import com.hazelcast.internal.metrics.MetricsProvider;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.util.collection.Long2LongHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.metrics.ProbeLevel.INFO;
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.QuickMath.isPowerOfTwo;
+
+/**
+ * {@link NativeMemoryManager} for the {@code POOLED} allocator type.
+ * <p>
+ * Memory is obtained from the operating system in pages of a fixed size. Each page is dedicated to one
+ * <em>size class</em> and carved into equally sized blocks; a request is served from the smallest size class
+ * which fits it. Size classes grow in quarter steps between powers of two, which bounds internal fragmentation
+ * to 25%. Requests larger than an eighth of a page bypass the pool and go straight to the operating system.
+ * <p>
+ * Every page keeps its own intrusive free list (the first 8 bytes of a free block point to the next free block)
+ * and a count of used blocks, so a page which becomes empty is returned to the operating system, except for one
+ * spare page per size class which absorbs churn. Thus the native footprint follows the live data instead of
+ * creeping up to its historic peak.
+ * <p>
+ * Threads which call {@link #registerThread()}, like the partition operation threads, get a small thread-local
+ * cache of blocks per size class. Allocations and frees by such threads usually touch only their cache and take
+ * the size class lock only to move half a cache's worth of blocks at a time.
+ */
+public class PooledMemoryManager implements NativeMemoryManager, MetricsProvider {
+
+    /**
+     * A thread cache keeps at most this many bytes of free blocks per size class.
+     */
+    static final int MAX_CACHED_BYTES_PER_SIZE_CLASS = 1 << 16;
+    static final int MAX_CACHED_BLOCKS_PER_SIZE_CLASS = 64;
+    static final int MIN_CACHED_BLOCKS_PER_SIZE_CLASS = 4;
+
+    private static final int MIN_BLOCK_ALIGNMENT = 8;
+    private static final int SUB_STEPS_PER_POWER_OF_TWO = 4;
+    private static final int MAX_SIZE_CLASS_TO_PAGE_SIZE_SHIFT = 3;
+    private static final double PERCENT = 100d;
+
+    private final long maxMemory;
+    private final int pageSize;
+    private final MemoryAllocator systemMalloc;
+    private final MemoryAccessor mem = GlobalMemoryAccessorRegistry.MEM;
+    private final int[] sizeClassSizes;
+    private final SizeClass[] sizeClasses;
+    private final Allocator allocator = new Allocator();
+
+    private final AtomicLong committedMemory = new AtomicLong();
+    private final AtomicLong hugeMemory = new AtomicLong();
+    // address -> size of the blocks which are too large to be pooled
+    private final Long2LongHashMap hugeBlocks = new Long2LongHashMap(-1L);
+
+    private final ThreadLocal<ThreadCache> threadCache = new ThreadLocal<ThreadCache>();
+    private final List<ThreadCache> threadCaches = new CopyOnWriteArrayList<ThreadCache>();
+
+    // set before the pages are freed; blocks returned afterwards, e.g. by a stopping thread, are ignored
+    private volatile boolean disposed;
+
+    public PooledMemoryManager(long maxMemory, int pageSize, int minBlockSize) {
+        this(maxMemory, pageSize, minBlockSize, new UnsafeMalloc());
+    }
+
+    public PooledMemoryManager(long maxMemory, int pageSize, int minBlockSize, MemoryAllocator systemMalloc) {
+        this.maxMemory = checkPositive(maxMemory, "Max memory should be positive");
+        this.pageSize = checkPositive(pageSize, "Page size should be positive");
+        checkPositive(minBlockSize, "Minimum block size should be positive");
+        if (!isPowerOfTwo(pageSize) || !isPowerOfTwo(minBlockSize)) {
+            throw new IllegalArgumentException("Page size and minimum block size must be powers of two, but they are "
+                    + pageSize + " and " + minBlockSize);
+        }
+        this.systemMalloc = systemMalloc;
+        this.sizeClassSizes = createSizeClassSizes(Math.max(minBlockSize, 2 * MIN_BLOCK_ALIGNMENT),
+                pageSize >> MAX_SIZE_CLASS_TO_PAGE_SIZE_SHIFT);
+        this.sizeClasses = new SizeClass[sizeClassSizes.length];
+        for (int i = 0; i < sizeClasses.length; i++) {
+            sizeClasses[i] = new SizeClass(sizeClassSizes[i]);
+        }
+    }
+
+    static int[] createSizeClassSizes(int minBlockSize, int maxBlockSize) {
+        List<Integer> sizes = new ArrayList<Integer>();
+        for (int powerOfTwo = minBlockSize; powerOfTwo <= maxBlockSize; powerOfTwo <<= 1) {
+            int step = Math.max(MIN_BLOCK_ALIGNMENT, powerOfTwo / SUB_STEPS_PER_POWER_OF_TWO);
+            for (int size = powerOfTwo; size < powerOfTwo << 1 && size <= maxBlockSize; size += step) {
+                sizes.add(size);
+            }
+        }
+        int[] result = new int[sizes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sizes.get(i);
+        }
+        return result;
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return mem;
+    }
+
+    @Override
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    @Probe(name = "committed", level = MANDATORY)
+    @Override
+    public long getCommittedMemory() {
+        return committedMemory.get();
+    }
+
+    @Probe(name = "used", level = MANDATORY)
+    @Override
+    public long getUsedMemory() {
+        long used = hugeMemory.get();
+        for (SizeClass sizeClass : sizeClasses) {
+            used += sizeClass.handedOutBlocks * sizeClass.blockSize;
+        }
+        for (ThreadCache cache : threadCaches) {
+            used -= cache.cachedBytes;
+        }
+        return used;
+    }
+
+    @Probe(name = "max")
+    private long maxMemory() {
+        return maxMemory;
+    }
+
+    @Probe(name = "pages")
+    private long pageCount() {
+        long pages = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            pages += sizeClass.pageCount;
+        }
+        return pages;
+    }
+
+    @Probe(name = "freePages")
+    private long freePageCount() {
+        long freePages = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            freePages += sizeClass.emptyPageCount;
+        }
+        return freePages;
+    }
+
+    @Probe(name = "huge")
+    private long hugeMemory() {
+        return hugeMemory.get();
+    }
+
+    /**
+     * @return the percentage of committed memory which is not in use: free blocks in the pages,
+     * blocks held in thread caches and the unused tails of blocks.
+     */
+    @Probe(name = "fragmentationPercentage")
+    private double fragmentationPercentage() {
+        long committed = getCommittedMemory();
+        if (committed == 0) {
+            return 0;
+        }
+        return PERCENT * (committed - getUsedMemory()) / committed;
+    }
+
+    @Override
+    public void provideMetrics(MetricsRegistry registry) {
+        registry.scanAndRegister(this, "memory.pooled");
+        for (SizeClass sizeClass : sizeClasses) {
+            String prefix = "memory.pooled.sizeClass[" + sizeClass.blockSize + "]";
+            registry.register(sizeClass, prefix + ".pages", INFO, new LongProbeFunction<SizeClass>() {
+                @Override
+                public long get(SizeClass source) {
+                    return source.pageCount;
+                }
+            });
+            registry.register(sizeClass, prefix + ".freePages", INFO, new LongProbeFunction<SizeClass>() {
+                @Override
+                public long get(SizeClass source) {
+                    return source.emptyPageCount;
+                }
+            });
+            registry.register(sizeClass, prefix + ".usedBlocks", INFO, new LongProbeFunction<SizeClass>() {
+                @Override
+                public long get(SizeClass source) {
+                    return source.handedOutBlocks;
+                }
+            });
+        }
+    }
+
+    /**
+     * Gives the calling thread its own cache of free blocks. Must be paired with {@link #unregisterThread()}
+     * in the same thread, which returns the cached blocks to the pool.
+     */
+    public void registerThread() {
+        if (threadCache.get() != null) {
+            return;
+        }
+        ThreadCache cache = new ThreadCache();
+        threadCache.set(cache);
+        threadCaches.add(cache);
+    }
+
+    /**
+     * Returns the blocks cached by the calling thread to the pool and removes its cache.
+     */
+    public void unregisterThread() {
+        ThreadCache cache = threadCache.get();
+        if (cache == null) {
+            return;
+        }
+        cache.flushAll();
+        threadCache.remove();
+        threadCaches.remove(cache);
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        for (SizeClass sizeClass : sizeClasses) {
+            sizeClass.dispose();
+        }
+        synchronized (hugeBlocks) {
+            for (Map.Entry<Long, Long> entry : hugeBlocks.entrySet()) {
+                systemMalloc.free(entry.getKey(), entry.getValue());
+                releaseCommitted(entry.getValue());
+            }
+            hugeBlocks.clear();
+        }
+        hugeMemory.set(0);
+        threadCaches.clear();
+    }
+
+    int sizeClassIndexOf(long size) {
+        if (size > sizeClassSizes[sizeClassSizes.length - 1]) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(sizeClassSizes, (int) size);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void reserveCommitted(long size) {
+        for (; ; ) {
+            long committed = committedMemory.get();
+            long newCommitted = committed + size;
+            if (newCommitted > maxMemory) {
+                throw new NativeOutOfMemoryError("Not enough native memory to allocate " + size
+                        + " bytes! Max: " + maxMemory + ", committed: " + committed + ", used: " + getUsedMemory());
+            }
+            if (committedMemory.compareAndSet(committed, newCommitted)) {
+                return;
+            }
+        }
+    }
+
+    private void releaseCommitted(long size) {
+        committedMemory.addAndGet(-size);
+    }
+
+    private long allocateHuge(long size) {
+        reserveCommitted(size);
+        long address;
+        try {
+            address = systemMalloc.allocate(size);
+        } catch (NativeOutOfMemoryError e) {
+            releaseCommitted(size);
+            throw e;
+        }
+        synchronized (hugeBlocks) {
+            hugeBlocks.put(address, size);
+        }
+        hugeMemory.addAndGet(size);
+        return address;
+    }
+
+    private void freeHuge(long address, long size) {
+        synchronized (hugeBlocks) {
+            if (hugeBlocks.remove(address) == -1L) {
+                // already freed by dispose()
+                return;
+            }
+        }
+        systemMalloc.free(address, size);
+        hugeMemory.addAndGet(-size);
+        releaseCommitted(size);
+    }
+
+    private final class Allocator implements MemoryAllocator {
+
+        @Override
+        public long allocate(long size) {
+            assert size > 0 : "Attempted to allocate " + size + " bytes";
+            int index = sizeClassIndexOf(size);
+            if (index < 0) {
+                return allocateHuge(size);
+            }
+            ThreadCache cache = threadCache.get();
+            long address = cache != null ? cache.allocate(index) : sizeClasses[index].allocateBlock();
+            mem.setMemory(address, size, (byte) 0);
+            return address;
+        }
+
+        @Override
+        public long reallocate(long address, long currentSize, long newSize) {
+            int currentIndex = sizeClassIndexOf(currentSize);
+            if (currentIndex >= 0 && currentIndex == sizeClassIndexOf(newSize)) {
+                if (newSize > currentSize) {
+                    mem.setMemory(address + currentSize, newSize - currentSize, (byte) 0);
+                }
+                return address;
+            }
+            long newAddress = allocate(newSize);
+            mem.copyMemory(address, newAddress, Math.min(currentSize, newSize));
+            free(address, currentSize);
+            return newAddress;
+        }
+
+        @Override
+        public void free(long address, long size) {
+            int index = sizeClassIndexOf(size);
+            if (index < 0) {
+                freeHuge(address, size);
+                return;
+            }
+            ThreadCache cache = threadCache.get();
+            if (cache != null) {
+                cache.free(index, address);
+            } else {
+                sizeClasses[index].freeBlock(address);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            PooledMemoryManager.this.dispose();
+        }
+    }
+
+    /**
+     * A page carved into blocks of one size class. Guarded by the lock of its size class.
+     */
+    private static final class Page {
+
+        final long address;
+        final int capacity;
+        int usedBlocks;
+        // index of the first block which has never been handed out
+        int untouchedIndex;
+        long freeListHead = NULL_ADDRESS;
+        // links of the intrusive list of pages with free blocks
+        Page previous;
+        Page next;
+        boolean hasFreeBlocks = true;
+
+        Page(long address, int capacity) {
+            this.address = address;
+            this.capacity = capacity;
+        }
+
+        boolean isFull() {
+            return usedBlocks == capacity;
+        }
+    }
+
+    /**
+     * All pages of a single block size. Its methods are synchronized; thread caches amortize the locking
+     * by moving blocks in batches.
+     */
+    final class SizeClass {
+
+        final int blockSize;
+        final int blocksPerPage;
+        private final TreeMap<Long, Page> pages = new TreeMap<Long, Page>();
+        // head of the list of pages which have free blocks
+        private Page availablePages;
+
+        volatile long handedOutBlocks;
+        volatile int pageCount;
+        volatile int emptyPageCount;
+
+        SizeClass(int blockSize) {
+            this.blockSize = blockSize;
+            this.blocksPerPage = pageSize / blockSize;
+        }
+
+        synchronized long allocateBlock() {
+            return takeBlock();
+        }
+
+        /**
+         * Takes up to {@code count} blocks. Fewer blocks are taken when the memory runs out during the batch;
+         * the error is only thrown when not a single block could be taken.
+         *
+         * @return the number of blocks written to {@code dest}
+         */
+        synchronized int allocateBlocks(long[] dest, int offset, int count) {
+            for (int i = 0; i < count; i++) {
+                try {
+                    dest[offset + i] = takeBlock();
+                } catch (NativeOutOfMemoryError e) {
+                    if (i == 0) {
+                        throw e;
+                    }
+                    return i;
+                }
+            }
+            return count;
+        }
+
+        synchronized void freeBlock(long address) {
+            if (disposed) {
+                return;
+            }
+            putBlock(address);
+        }
+
+        synchronized void freeBlocks(long[] src, int offset, int count) {
+            if (disposed) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                putBlock(src[offset + i]);
+            }
+        }
+
+        synchronized void dispose() {
+            for (Page page : pages.values()) {
+                systemMalloc.free(page.address, pageSize);
+                releaseCommitted(pageSize);
+            }
+            pages.clear();
+            availablePages = null;
+            pageCount = 0;
+            emptyPageCount = 0;
+            handedOutBlocks = 0;
+        }
+
+        private long takeBlock() {
+            Page page = availablePages;
+            if (page == null) {
+                page = newPage();
+            }
+            if (page.usedBlocks == 0) {
+                emptyPageCount--;
+            }
+            long address;
+            if (page.freeListHead != NULL_ADDRESS) {
+                address = page.freeListHead;
+                page.freeListHead = mem.getLong(address);
+            } else {
+                address = page.address + (long) page.untouchedIndex * blockSize;
+                page.untouchedIndex++;
+            }
+            page.usedBlocks++;
+            if (page.isFull()) {
+                unlinkAvailable(page);
+            }
+            handedOutBlocks++;
+            return address;
+        }
+
+        private void putBlock(long address) {
+            Map.Entry<Long, Page> entry = pages.floorEntry(address);
+            assert entry != null && address < entry.getKey() + pageSize
+                    : "Attempted to free address " + address + " which does not belong to size class " + blockSize;
+            Page page = entry.getValue();
+            mem.putLong(address, page.freeListHead);
+            page.freeListHead = address;
+            page.usedBlocks--;
+            handedOutBlocks--;
+            if (!page.hasFreeBlocks) {
+                linkAvailable(page);
+            }
+            if (page.usedBlocks == 0) {
+                emptyPageCount++;
+                // keep a single spare page to absorb churn
+                if (emptyPageCount > 1) {
+                    releasePage(page);
+                }
+            }
+        }
+
+        private Page newPage() {
+            reserveCommitted(pageSize);
+            long address;
+            try {
+                address = systemMalloc.allocate(pageSize);
+            } catch (NativeOutOfMemoryError e) {
+                releaseCommitted(pageSize);
+                throw e;
+            }
+            Page page = new Page(address, blocksPerPage);
+            pages.put(address, page);
+            page.hasFreeBlocks = false;
+            linkAvailable(page);
+            pageCount++;
+            emptyPageCount++;
+            return page;
+        }
+
+        private void releasePage(Page page) {
+            unlinkAvailable(page);
+            pages.remove(page.address);
+            systemMalloc.free(page.address, pageSize);
+            releaseCommitted(pageSize);
+            pageCount--;
+            emptyPageCount--;
+        }
+
+        private void linkAvailable(Page page) {
+            page.hasFreeBlocks = true;
+            page.previous = null;
+            page.next = availablePages;
+            if (availablePages != null) {
+                availablePages.previous = page;
+            }
+            availablePages = page;
+        }
+
+        private void unlinkAvailable(Page page) {
+            if (page.previous != null) {
+                page.previous.next = page.next;
+            } else {
+                availablePages = page.next;
+            }
+            if (page.next != null) {
+                page.next.previous = page.previous;
+            }
+            page.previous = null;
+            page.next = null;
+            page.hasFreeBlocks = false;
+        }
+    }
+
+    /**
+     * Per-thread stacks of free blocks, one per size class. Only its owner thread modifies it;
+     * {@link #cachedBytes} is also read by the metrics.
+     */
+    private final class ThreadCache {
+
+        private final long[][] blocks = new long[sizeClasses.length][];
+        private final int[] counts = new int[sizeClasses.length];
+
+        volatile long cachedBytes;
+
+        ThreadCache() {
+            for (int i = 0; i < blocks.length; i++) {
+                int capacity = MAX_CACHED_BYTES_PER_SIZE_CLASS / sizeClassSizes[i];
+                capacity = Math.max(MIN_CACHED_BLOCKS_PER_SIZE_CLASS, Math.min(MAX_CACHED_BLOCKS_PER_SIZE_CLASS, capacity));
+                blocks[i] = new long[capacity];
+            }
+        }
+
+        long allocate(int index) {
+            long[] stack = blocks[index];
+            int count = counts[index];
+            if (count == 0) {
+                count = sizeClasses[index].allocateBlocks(stack, 0, stack.length / 2);
+                cachedBytes += (long) count * sizeClassSizes[index];
+            }
+            count--;
+            counts[index] = count;
+            cachedBytes -= sizeClassSizes[index];
+            return stack[count];
+        }
+
+        void free(int index, long address) {
+            long[] stack = blocks[index];
+            int count = counts[index];
+            if (count == stack.length) {
+                int half = stack.length / 2;
+                sizeClasses[index].freeBlocks(stack, half, count - half);
+                cachedBytes -= (long) (count - half) * sizeClassSizes[index];
+                count = half;
+            }
+            stack[count] = address;
+            counts[index] = count + 1;
+            cachedBytes += sizeClassSizes[index];
+        }
+
+        void flushAll() {
+            for (int i = 0; i < blocks.length; i++) {
+                if (counts[i] > 0) {
+                    sizeClasses[i].freeBlocks(blocks[i], 0, counts[i]);
+                    counts[i] = 0;
+                }
+            }
+            cachedBytes = 0;
+        }
+    }
+}
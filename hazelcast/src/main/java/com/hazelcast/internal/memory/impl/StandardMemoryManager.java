@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry;
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.NativeMemoryManager;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * {@link NativeMemoryManager} for the {@code STANDARD} allocator type: every block is obtained
+ * from the operating system through {@link UnsafeMalloc} and returned to it on {@code free}.
+ * The manager enforces the configured maximum and tracks the exact number of bytes in use.
+ */
+public class StandardMemoryManager implements NativeMemoryManager {
+
+    private final long maxMemory;
+    private final MemoryAllocator malloc;
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final Allocator allocator = new Allocator();
+
+    public StandardMemoryManager(long maxMemory) {
+        this(maxMemory, new UnsafeMalloc());
+    }
+
+    public StandardMemoryManager(long maxMemory, MemoryAllocator malloc) {
+        this.maxMemory = checkPositive(maxMemory, "Max memory should be positive");
+        this.malloc = malloc;
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return GlobalMemoryAccessorRegistry.MEM;
+    }
+
+    @Override
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    @Override
+    public long getCommittedMemory() {
+        return usedMemory.get();
+    }
+
+    @Override
+    public long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    @Override
+    public void dispose() {
+        malloc.dispose();
+    }
+
+    private void reserve(long size) {
+        for (; ; ) {
+            long used = usedMemory.get();
+            long newUsed = used + size;
+            if (newUsed > maxMemory) {
+                throw new NativeOutOfMemoryError("Not enough native memory to allocate " + size
+                        + " bytes! Max: " + maxMemory + ", used: " + used);
+            }
+            if (usedMemory.compareAndSet(used, newUsed)) {
+                return;
+            }
+        }
+    }
+
+    private final class Allocator implements MemoryAllocator {
+
+        @Override
+        public long allocate(long size) {
+            reserve(size);
+            try {
+                return malloc.allocate(size);
+            } catch (NativeOutOfMemoryError e) {
+                usedMemory.addAndGet(-size);
+                throw e;
+            }
+        }
+
+        @Override
+        public long reallocate(long address, long currentSize, long newSize) {
+            long diff = newSize - currentSize;
+            if (diff > 0) {
+                reserve(diff);
+            }
+            final long newAddress;
+            try {
+                newAddress = malloc.reallocate(address, currentSize, newSize);
+            } catch (NativeOutOfMemoryError e) {
+                if (diff > 0) {
+                    usedMemory.addAndGet(-diff);
+                }
+                throw e;
+            }
+            if (diff < 0) {
+                usedMemory.addAndGet(diff);
+            }
+            return newAddress;
+        }
+
+        @Override
+        public void free(long address, long size) {
+            malloc.free(address, size);
+            usedMemory.addAndGet(-size);
+        }
+
+        @Override
+        public void dispose() {
+            StandardMemoryManager.this.dispose();
+        }
+    }
+}
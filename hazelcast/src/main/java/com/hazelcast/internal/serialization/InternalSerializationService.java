@@ -22,6 +22,7 @@ import com.hazelcast.nio.BufferObjectDataOutput;
 import com.hazelcast.nio.Disposable;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.CompactReader;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.PortableReader;
 import com.hazelcast.spi.serialization.SerializationService;
@@ -55,6 +56,8 @@ public interface InternalSerializationService extends SerializationService, Disp
 
     PortableContext getPortableContext();
 
+    CompactReader createCompactReader(Data data) throws IOException;
+
     ClassLoader getClassLoader();
 
     ByteOrder getByteOrder();
@@ -21,6 +21,7 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.ManagedContext;
 import com.hazelcast.core.PartitioningStrategy;
 import com.hazelcast.nio.serialization.ClassDefinition;
+import com.hazelcast.nio.serialization.Compact;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.nio.serialization.PortableFactory;
 import com.hazelcast.spi.serialization.SerializationService;
@@ -43,6 +44,8 @@ public interface SerializationServiceBuilder {
 
     SerializationServiceBuilder addClassDefinition(ClassDefinition cd);
 
+    SerializationServiceBuilder addCompactClass(Class<? extends Compact> compactClass);
+
     SerializationServiceBuilder setCheckClassDefErrors(boolean checkClassDefErrors);
 
     SerializationServiceBuilder setManagedContext(ManagedContext managedContext);
@@ -62,6 +62,7 @@ public abstract class AbstractSerializationService implements InternalSerializat
     protected final InputOutputFactory inputOutputFactory;
     protected final PartitioningStrategy globalPartitioningStrategy;
     protected final BufferPoolThreadLocal bufferPoolThreadLocal;
+    protected final ConstantTypeDataWriter constantTypeDataWriter;
 
     protected SerializerAdapter dataSerializerAdapter;
     protected SerializerAdapter portableSerializerAdapter;
@@ -79,6 +80,9 @@ public abstract class AbstractSerializationService implements InternalSerializat
     //Global serializer may override Java Serialization or not
     private boolean overrideJavaSerialization;
 
+    //Custom serializer registered for a DataSerializable or Portable type, e.g. a generated one
+    private boolean overrideDefaultSerializers;
+
     private final ClassLoader classLoader;
     private final int outputBufferSize;
     private volatile boolean active = true;
@@ -98,6 +102,7 @@ public abstract class AbstractSerializationService implements InternalSerializat
         this.outputBufferSize = initialOutputBufferSize;
         this.bufferPoolThreadLocal = new BufferPoolThreadLocal(this, bufferPoolFactory);
         this.nullSerializerAdapter = createSerializerAdapter(new ConstantSerializers.NullSerializer(), this);
+        this.constantTypeDataWriter = new ConstantTypeDataWriter(inputOutputFactory.getByteOrder());
     }
 
     //region Serialization Service
@@ -115,10 +120,44 @@ public abstract class AbstractSerializationService implements InternalSerializat
             return (B) obj;
         }
 
+        if (ConstantTypeDataWriter.isSupported(obj)) {
+            try {
+                return (B) constantTypeDataWriter.toData(obj, calculatePartitionHash(obj, strategy));
+            } catch (Throwable e) {
+                throw handleSerializeException(obj, e);
+            }
+        }
+        if (obj instanceof Enum) {
+            return (B) toEnumData((Enum) obj, strategy);
+        }
+
         byte[] bytes = toBytes(obj, strategy);
         return (B) new HeapData(bytes);
     }
 
+    /**
+     * Returns the cached {@link Data} of an enum constant, unless it has a partition hash. Only the Data written by a
+     * built-in serializer is cached, since a custom serializer may not write the same bytes each time.
+     */
+    private Data toEnumData(Enum obj, PartitioningStrategy strategy) {
+        Data data = constantTypeDataWriter.getEnumData(obj);
+        if (data == null || hasPartitionHash(obj, strategy)) {
+            data = new HeapData(toBytes(obj, strategy));
+            if (!data.hasPartitionHash() && serializerFor(obj).getTypeId() < 0) {
+                constantTypeDataWriter.putEnumData(obj, data);
+            }
+        }
+        return data;
+    }
+
+    private boolean hasPartitionHash(Object obj, PartitioningStrategy strategy) {
+        try {
+            return calculatePartitionHash(obj, strategy) != 0;
+        } catch (Throwable e) {
+            throw handleSerializeException(obj, e);
+        }
+    }
+
     @Override
     public byte[] toBytes(Object obj) {
         return toBytes(obj, globalPartitioningStrategy);
@@ -128,6 +167,14 @@ public abstract class AbstractSerializationService implements InternalSerializat
     public byte[] toBytes(Object obj, PartitioningStrategy strategy) {
         checkNotNull(obj);
 
+        if (ConstantTypeDataWriter.isSupported(obj)) {
+            try {
+                return constantTypeDataWriter.toBytes(obj, calculatePartitionHash(obj, strategy));
+            } catch (Throwable e) {
+                throw handleSerializeException(obj, e);
+            }
+        }
+
         BufferPool pool = bufferPoolThreadLocal.get();
         BufferObjectDataOutput out = pool.takeOutputBuffer();
         try {
@@ -290,6 +337,9 @@ public abstract class AbstractSerializationService implements InternalSerializat
                     "Type id must be positive! Current: " + serializer.getTypeId() + ", Serializer: " + serializer);
         }
         safeRegister(type, createSerializerAdapter(serializer, this));
+        if (DataSerializable.class.isAssignableFrom(type) || Portable.class.isAssignableFrom(type)) {
+            overrideDefaultSerializers = true;
+        }
     }
 
     public final void registerGlobal(final Serializer serializer) {
@@ -379,6 +429,7 @@ public abstract class AbstractSerializationService implements InternalSerializat
 
             1-NULL serializer
             2-Default serializers, like primitives, arrays, String and some Java types
+              (a custom serializer registered for the exact DataSerializable or Portable type takes precedence)
             3-Custom registered types by user
             4-JDK serialization ( Serializable and Externalizable ) if a global serializer with Java serialization not registered
             5-Global serializer if registered by user
@@ -419,14 +470,19 @@ public abstract class AbstractSerializationService implements InternalSerializat
 
     private SerializerAdapter lookupDefaultSerializer(Class type) {
         if (DataSerializable.class.isAssignableFrom(type)) {
-            return dataSerializerAdapter;
+            return overrideDefaultSerializers ? lookupOverride(type, dataSerializerAdapter) : dataSerializerAdapter;
         }
         if (Portable.class.isAssignableFrom(type)) {
-            return portableSerializerAdapter;
+            return overrideDefaultSerializers ? lookupOverride(type, portableSerializerAdapter) : portableSerializerAdapter;
         }
         return constantTypesMap.get(type);
     }
 
+    private SerializerAdapter lookupOverride(Class type, SerializerAdapter defaultSerializer) {
+        SerializerAdapter serializer = typeMap.get(type);
+        return serializer == null ? defaultSerializer : serializer;
+    }
+
     private SerializerAdapter lookupCustomSerializer(Class type) {
         SerializerAdapter serializer = typeMap.get(type);
         if (serializer != null) {
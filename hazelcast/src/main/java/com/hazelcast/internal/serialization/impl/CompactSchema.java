@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.hazelcast.util.HashUtil.MurmurHash3_x64_64;
+import static com.hazelcast.util.StringUtil.stringToBytes;
+
+/**
+ * Describes the binary layout of a {@link com.hazelcast.nio.serialization.Compact} class.
+ * <p/>
+ * The layout only depends on the name of the class and the names and kinds of its fields; not on the order in which the
+ * fields are written. So every member derives the same schema, and the same fingerprint, for a class.
+ * <p/>
+ * A serialized Compact object looks like this:
+ * <pre>
+ * long    fingerprint of the schema
+ * int     length in bytes of the remainder of the object
+ * int     offset of the schema section relative to the start of the object
+ * byte[]  fixed size section: fixed size fields ordered by size (descending) and name, followed by booleans as bits
+ * int[]   offset table: for every variable size field (ordered by name) the offset relative to the start of the
+ *         object, or -1 if the value is null
+ * byte[]  variable size section
+ * byte[]  schema section: the name of the class and the names and kinds of the fields
+ * </pre>
+ * Like the field definitions of a {@link com.hazelcast.nio.serialization.Portable}, the schema is shipped with the data.
+ * A reader that already knows the fingerprint skips the schema section; otherwise the schema is read from the data and
+ * registered, so no up front registration is needed to deserialize or query an object.
+ */
+final class CompactSchema {
+
+    /**
+     * The size of the fingerprint, the length and the schema offset preceding the fixed size section.
+     */
+    static final int HEADER_SIZE = 16;
+
+    enum Kind {
+        BOOLEAN(0),
+        BYTE(1),
+        CHAR(2),
+        SHORT(2),
+        INT(4),
+        LONG(8),
+        FLOAT(4),
+        DOUBLE(8),
+        UTF(-1),
+        COMPACT(-1),
+        BYTE_ARRAY(-1),
+        BOOLEAN_ARRAY(-1),
+        CHAR_ARRAY(-1),
+        SHORT_ARRAY(-1),
+        INT_ARRAY(-1),
+        LONG_ARRAY(-1),
+        FLOAT_ARRAY(-1),
+        DOUBLE_ARRAY(-1),
+        UTF_ARRAY(-1);
+
+        private final int size;
+
+        Kind(int size) {
+            this.size = size;
+        }
+
+        boolean isFixedSize() {
+            return size >= 0;
+        }
+    }
+
+    static final class Field {
+        private final String name;
+        private final Kind kind;
+        private final int offset;
+        private final int bit;
+
+        Field(String name, Kind kind, int offset, int bit) {
+            this.name = name;
+            this.kind = kind;
+            this.offset = offset;
+            this.bit = bit;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the offset within the fixed size section for a fixed size field, or the index in the offset table for
+         * a variable size field.
+         */
+        int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns the bit within the byte at the offset for a boolean field.
+         */
+        int getBit() {
+            return bit;
+        }
+    }
+
+    private static final Comparator<Map.Entry<String, Kind>> FIXED_SIZE_ORDER = new Comparator<Map.Entry<String, Kind>>() {
+        @Override
+        public int compare(Map.Entry<String, Kind> e1, Map.Entry<String, Kind> e2) {
+            int result = e2.getValue().size - e1.getValue().size;
+            return result != 0 ? result : e1.getKey().compareTo(e2.getKey());
+        }
+    };
+
+    private final String typeName;
+    private final Map<String, Kind> kinds;
+    private final Map<String, Field> fields = new HashMap<String, Field>();
+    private final long fingerprint;
+    private final int fixedSize;
+    private final int booleanOffset;
+    private final int variableFieldCount;
+
+    /**
+     * @param typeName the name of the class.
+     * @param kinds    the kinds of the fields by field name.
+     */
+    CompactSchema(String typeName, Map<String, Kind> kinds) {
+        this.typeName = typeName;
+        this.kinds = Collections.unmodifiableMap(new TreeMap<String, Kind>(kinds));
+
+        List<Map.Entry<String, Kind>> fixedSizeFields = new ArrayList<Map.Entry<String, Kind>>();
+        List<String> booleanFields = new ArrayList<String>();
+        List<String> variableSizeFields = new ArrayList<String>();
+        for (Map.Entry<String, Kind> entry : this.kinds.entrySet()) {
+            Kind kind = entry.getValue();
+            if (kind == Kind.BOOLEAN) {
+                booleanFields.add(entry.getKey());
+            } else if (kind.isFixedSize()) {
+                fixedSizeFields.add(entry);
+            } else {
+                variableSizeFields.add(entry.getKey());
+            }
+        }
+        Collections.sort(fixedSizeFields, FIXED_SIZE_ORDER);
+
+        int offset = 0;
+        for (Map.Entry<String, Kind> entry : fixedSizeFields) {
+            add(entry.getKey(), entry.getValue(), offset, 0);
+            offset += entry.getValue().size;
+        }
+        this.booleanOffset = offset;
+        for (int i = 0; i < booleanFields.size(); i++) {
+            add(booleanFields.get(i), Kind.BOOLEAN, offset + i / Byte.SIZE, i % Byte.SIZE);
+        }
+        this.fixedSize = offset + (booleanFields.size() + Byte.SIZE - 1) / Byte.SIZE;
+
+        for (int i = 0; i < variableSizeFields.size(); i++) {
+            String name = variableSizeFields.get(i);
+            add(name, this.kinds.get(name), i, 0);
+        }
+        this.variableFieldCount = variableSizeFields.size();
+        this.fingerprint = fingerprint();
+    }
+
+    private void add(String name, Kind kind, int offset, int bit) {
+        fields.put(name, new Field(name, kind, offset, bit));
+    }
+
+    private long fingerprint() {
+        StringBuilder sb = new StringBuilder(typeName);
+        for (Map.Entry<String, Kind> entry : kinds.entrySet()) {
+            sb.append('|').append(entry.getKey()).append(':').append(entry.getValue().name());
+        }
+        byte[] bytes = stringToBytes(sb.toString());
+        return MurmurHash3_x64_64(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the schema section; the kinds are written by ordinal.
+     */
+    void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(typeName);
+        out.writeInt(kinds.size());
+        for (Map.Entry<String, Kind> entry : kinds.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeByte(entry.getValue().ordinal());
+        }
+    }
+
+    /**
+     * Reads a schema section written by {@link #writeData(ObjectDataOutput)}.
+     */
+    static CompactSchema readData(ObjectDataInput in) throws IOException {
+        String typeName = in.readUTF();
+        int fieldCount = in.readInt();
+        Kind[] allKinds = Kind.values();
+        Map<String, Kind> kinds = new HashMap<String, Kind>();
+        for (int i = 0; i < fieldCount; i++) {
+            String name = in.readUTF();
+            int ordinal = in.readByte();
+            if (ordinal < 0 || ordinal >= allKinds.length) {
+                throw new HazelcastSerializationException("Unknown field kind: " + ordinal + " for field: '" + name
+                        + "' of Compact class: " + typeName);
+            }
+            kinds.put(name, allKinds[ordinal]);
+        }
+        return new CompactSchema(typeName, kinds);
+    }
+
+    String getTypeName() {
+        return typeName;
+    }
+
+    long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the field with the given name, or null if there is no such field.
+     */
+    Field getField(String name) {
+        return fields.get(name);
+    }
+
+    int getFieldCount() {
+        return fields.size();
+    }
+
+    int getFixedSize() {
+        return fixedSize;
+    }
+
+    /**
+     * Returns the offset within the fixed size section of the bytes containing the booleans.
+     */
+    int getBooleanOffset() {
+        return booleanOffset;
+    }
+
+    /**
+     * Returns the number of bytes containing the booleans.
+     */
+    int getBooleanSize() {
+        return fixedSize - booleanOffset;
+    }
+
+    int getVariableFieldCount() {
+        return variableFieldCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CompactSchema that = (CompactSchema) o;
+        return typeName.equals(that.typeName) && kinds.equals(that.kinds);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "CompactSchema{"
+                + "typeName='" + typeName + '\''
+                + ", fingerprint=" + fingerprint
+                + ", fields=" + kinds
+                + '}';
+    }
+}
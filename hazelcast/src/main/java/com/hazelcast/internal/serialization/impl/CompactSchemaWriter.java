@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.impl.CompactSchema.Kind;
+import com.hazelcast.nio.serialization.Compact;
+import com.hazelcast.nio.serialization.CompactWriter;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link CompactWriter} that doesn't write anything, but records the fields to create the {@link CompactSchema} of a
+ * class.
+ */
+final class CompactSchemaWriter implements CompactWriter {
+
+    private final String typeName;
+    private final Map<String, Kind> kinds = new HashMap<String, Kind>();
+
+    CompactSchemaWriter(String typeName) {
+        this.typeName = typeName;
+    }
+
+    CompactSchema build() {
+        return new CompactSchema(typeName, kinds);
+    }
+
+    @Override
+    public void writeBoolean(String fieldName, boolean value) {
+        add(fieldName, Kind.BOOLEAN);
+    }
+
+    @Override
+    public void writeByte(String fieldName, byte value) {
+        add(fieldName, Kind.BYTE);
+    }
+
+    @Override
+    public void writeChar(String fieldName, char value) {
+        add(fieldName, Kind.CHAR);
+    }
+
+    @Override
+    public void writeShort(String fieldName, short value) {
+        add(fieldName, Kind.SHORT);
+    }
+
+    @Override
+    public void writeInt(String fieldName, int value) {
+        add(fieldName, Kind.INT);
+    }
+
+    @Override
+    public void writeLong(String fieldName, long value) {
+        add(fieldName, Kind.LONG);
+    }
+
+    @Override
+    public void writeFloat(String fieldName, float value) {
+        add(fieldName, Kind.FLOAT);
+    }
+
+    @Override
+    public void writeDouble(String fieldName, double value) {
+        add(fieldName, Kind.DOUBLE);
+    }
+
+    @Override
+    public void writeUTF(String fieldName, String value) {
+        add(fieldName, Kind.UTF);
+    }
+
+    @Override
+    public void writeByteArray(String fieldName, byte[] value) {
+        add(fieldName, Kind.BYTE_ARRAY);
+    }
+
+    @Override
+    public void writeBooleanArray(String fieldName, boolean[] value) {
+        add(fieldName, Kind.BOOLEAN_ARRAY);
+    }
+
+    @Override
+    public void writeCharArray(String fieldName, char[] value) {
+        add(fieldName, Kind.CHAR_ARRAY);
+    }
+
+    @Override
+    public void writeShortArray(String fieldName, short[] value) {
+        add(fieldName, Kind.SHORT_ARRAY);
+    }
+
+    @Override
+    public void writeIntArray(String fieldName, int[] value) {
+        add(fieldName, Kind.INT_ARRAY);
+    }
+
+    @Override
+    public void writeLongArray(String fieldName, long[] value) {
+        add(fieldName, Kind.LONG_ARRAY);
+    }
+
+    @Override
+    public void writeFloatArray(String fieldName, float[] value) {
+        add(fieldName, Kind.FLOAT_ARRAY);
+    }
+
+    @Override
+    public void writeDoubleArray(String fieldName, double[] value) {
+        add(fieldName, Kind.DOUBLE_ARRAY);
+    }
+
+    @Override
+    public void writeUTFArray(String fieldName, String[] value) {
+        add(fieldName, Kind.UTF_ARRAY);
+    }
+
+    @Override
+    public void writeCompact(String fieldName, Compact value) {
+        add(fieldName, Kind.COMPACT);
+    }
+
+    private void add(String fieldName, Kind kind) {
+        if (kinds.put(fieldName, kind) != null) {
+            throw new HazelcastSerializationException("Field '" + fieldName + "' of " + typeName + " is written more than once");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.ClassLoaderUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Compact;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.nio.serialization.StreamSerializer;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The serializer for {@link Compact} objects. It also acts as the registry of the {@link CompactSchema}s; a schema is
+ * registered when the first instance of a class is serialized, when the class is registered explicitly or when an object
+ * with an unknown schema is read, since every serialized object carries its schema.
+ */
+final class CompactSerializer implements StreamSerializer<Compact> {
+
+    private final ConcurrentMap<Class, CompactSchema> schemasByClass = new ConcurrentHashMap<Class, CompactSchema>();
+    private final ConcurrentMap<Long, CompactSchema> schemasByFingerprint = new ConcurrentHashMap<Long, CompactSchema>();
+    private final ClassLoader classLoader;
+
+    CompactSerializer(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public int getTypeId() {
+        return SerializationConstants.COMPACT_TYPE;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, Compact object) throws IOException {
+        if (!(out instanceof BufferObjectDataOutput)) {
+            throw new IllegalArgumentException("ObjectDataOutput must be instance of BufferObjectDataOutput!");
+        }
+        writeInternal((BufferObjectDataOutput) out, object);
+    }
+
+    void writeInternal(BufferObjectDataOutput out, Compact object) throws IOException {
+        CompactSchema schema = lookupOrRegisterSchema(object);
+        DefaultCompactWriter writer = new DefaultCompactWriter(this, out, schema);
+        object.writeCompact(writer);
+        writer.end();
+    }
+
+    @Override
+    public Compact read(ObjectDataInput in) throws IOException {
+        if (!(in instanceof BufferObjectDataInput)) {
+            throw new IllegalArgumentException("ObjectDataInput must be instance of BufferObjectDataInput!");
+        }
+        return readInternal((BufferObjectDataInput) in);
+    }
+
+    Compact readInternal(BufferObjectDataInput in) throws IOException {
+        DefaultCompactReader reader = createReader(in);
+        Compact object = newInstance(reader.getSchema());
+        object.readCompact(reader);
+        reader.end();
+        return object;
+    }
+
+    DefaultCompactReader createReader(BufferObjectDataInput in) throws IOException {
+        int begin = in.position();
+        long fingerprint = in.readLong();
+        int length = in.readInt();
+        int schemaOffset = in.readInt();
+
+        CompactSchema schema = schemasByFingerprint.get(fingerprint);
+        if (schema == null) {
+            schema = readSchema(in, begin + schemaOffset, fingerprint);
+        }
+        return new DefaultCompactReader(this, in, schema, begin, length);
+    }
+
+    /**
+     * Reads the schema section of an object of which the schema isn't known yet and registers the schema.
+     */
+    private CompactSchema readSchema(BufferObjectDataInput in, int schemaPosition, long fingerprint) throws IOException {
+        int position = in.position();
+        in.position(schemaPosition);
+        CompactSchema schema = CompactSchema.readData(in);
+        in.position(position);
+
+        if (schema.getFingerprint() != fingerprint) {
+            throw new HazelcastSerializationException("Fingerprint mismatch for " + schema + ", expected: " + fingerprint);
+        }
+        CompactSchema found = schemasByFingerprint.putIfAbsent(fingerprint, schema);
+        if (found != null && !found.equals(schema)) {
+            throw new HazelcastSerializationException("Fingerprint collision between " + found + " and " + schema);
+        }
+        return found == null ? schema : found;
+    }
+
+    /**
+     * Registers the schema of the given class. The schema is derived from the fields written by a new instance.
+     *
+     * @param clazz the Compact class.
+     */
+    void registerClass(Class<? extends Compact> clazz) {
+        try {
+            lookupOrRegisterSchema(ClassLoaderUtil.newInstance(clazz, classLoader, clazz.getName()));
+        } catch (Exception e) {
+            throw new HazelcastSerializationException("Failed to register the Compact class: " + clazz.getName(), e);
+        }
+    }
+
+    private CompactSchema lookupOrRegisterSchema(Compact object) throws IOException {
+        Class<? extends Compact> clazz = object.getClass();
+        CompactSchema schema = schemasByClass.get(clazz);
+        if (schema != null) {
+            return schema;
+        }
+
+        CompactSchemaWriter schemaWriter = new CompactSchemaWriter(clazz.getName());
+        object.writeCompact(schemaWriter);
+        schema = schemaWriter.build();
+
+        CompactSchema found = schemasByFingerprint.putIfAbsent(schema.getFingerprint(), schema);
+        if (found != null && !found.equals(schema)) {
+            throw new HazelcastSerializationException("Fingerprint collision between " + found + " and " + schema);
+        }
+        schemasByClass.putIfAbsent(clazz, schema);
+        return schema;
+    }
+
+    private Compact newInstance(CompactSchema schema) {
+        try {
+            return ClassLoaderUtil.newInstance(classLoader, schema.getTypeName());
+        } catch (Exception e) {
+            throw new HazelcastSerializationException("Failed to create an instance of: " + schema.getTypeName(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        schemasByClass.clear();
+        schemasByFingerprint.clear();
+    }
+}
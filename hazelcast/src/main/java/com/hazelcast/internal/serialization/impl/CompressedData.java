@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.compression.CompressionCodec;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.HashUtil;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.PARTITION_HASH_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.TYPE_OFFSET;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+
+/**
+ * A {@link Data} which keeps its payload compressed, to reduce the memory needed to store large values.
+ * <p/>
+ * The type, the partition hash and the hash code are kept uncompressed, so they can be retrieved without decompressing.
+ * The payload is decompressed each time the bytes are needed, see {@link #toByteArray()}; the returned bytes are not
+ * retained. A CompressedData is equal to a {@link HeapData} with the same uncompressed bytes.
+ *
+ * @see #compress(Data, CompressionCodec, int)
+ */
+public final class CompressedData implements Data {
+
+    // array (12: array header, 4: length)
+    private static final int ARRAY_HEADER_SIZE_IN_BYTES = 16;
+    // the int fields and the references to the compressed bytes and the codec
+    private static final int FIELDS_COST_IN_BYTES = 4 * INT_SIZE_IN_BYTES + 2 * REFERENCE_COST_IN_BYTES;
+
+    private final int partitionHash;
+    private final int type;
+    private final int totalSize;
+    private final int hashCode;
+    private final byte[] compressed;
+    private final CompressionCodec codec;
+
+    private CompressedData(Data data, byte[] compressed, CompressionCodec codec) {
+        byte[] payload = data.toByteArray();
+        this.partitionHash = Bits.readIntB(payload, PARTITION_HASH_OFFSET);
+        this.type = Bits.readIntB(payload, TYPE_OFFSET);
+        this.totalSize = payload.length;
+        this.hashCode = data.hashCode();
+        this.compressed = compressed;
+        this.codec = codec;
+    }
+
+    /**
+     * Compresses the given data if its payload is at least the given threshold and compressing actually saves memory.
+     *
+     * @param data      the data to compress.
+     * @param codec     the codec to compress with.
+     * @param threshold the minimum payload size in bytes to compress.
+     * @return the compressed data, or the given data if it wasn't compressed.
+     */
+    public static Data compress(Data data, CompressionCodec codec, int threshold) {
+        if (data instanceof CompressedData || data.dataSize() < threshold) {
+            return data;
+        }
+
+        byte[] compressed = codec.compress(data.toByteArray(), DATA_OFFSET, data.dataSize());
+        if (compressed.length + FIELDS_COST_IN_BYTES >= data.dataSize()) {
+            return data;
+        }
+        return new CompressedData(data, compressed, codec);
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        byte[] payload = new byte[totalSize];
+        Bits.writeIntB(payload, PARTITION_HASH_OFFSET, partitionHash);
+        Bits.writeIntB(payload, TYPE_OFFSET, type);
+        codec.decompress(compressed, 0, compressed.length, payload, DATA_OFFSET, dataSize());
+        return payload;
+    }
+
+    @Override
+    public int getType() {
+        return type;
+    }
+
+    @Override
+    public int totalSize() {
+        return totalSize;
+    }
+
+    @Override
+    public int dataSize() {
+        return totalSize - DATA_OFFSET;
+    }
+
+    /**
+     * Returns the heap cost of the compressed form, which is what this data occupies on the heap.
+     */
+    @Override
+    public int getHeapCost() {
+        return REFERENCE_COST_IN_BYTES + FIELDS_COST_IN_BYTES + ARRAY_HEADER_SIZE_IN_BYTES + compressed.length;
+    }
+
+    @Override
+    public int getPartitionHash() {
+        return hasPartitionHash() ? partitionHash : hashCode;
+    }
+
+    @Override
+    public boolean hasPartitionHash() {
+        return partitionHash != 0;
+    }
+
+    @Override
+    public long hash64() {
+        return HashUtil.MurmurHash3_x64_64(toByteArray(), DATA_OFFSET, dataSize());
+    }
+
+    @Override
+    public boolean isPortable() {
+        return SerializationConstants.CONSTANT_TYPE_PORTABLE == type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Data)) {
+            return false;
+        }
+
+        Data data = (Data) o;
+        if (type != data.getType() || dataSize() != data.dataSize()) {
+            return false;
+        }
+        if (data instanceof CompressedData && hashCode != data.hashCode()) {
+            return false;
+        }
+        return equals(toByteArray(), data.toByteArray());
+    }
+
+    private static boolean equals(byte[] data1, byte[] data2) {
+        for (int i = data1.length - 1; i >= DATA_OFFSET; i--) {
+            if (data1[i] != data2[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedData{"
+                + "type=" + type
+                + ", hashCode=" + hashCode
+                + ", partitionHash=" + getPartitionHash()
+                + ", totalSize=" + totalSize
+                + ", compressedSize=" + compressed.length
+                + ", heapCost=" + getHeapCost()
+                + '}';
+    }
+}
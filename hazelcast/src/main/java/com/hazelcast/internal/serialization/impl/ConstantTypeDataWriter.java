@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.ConcurrentReferenceHashMap;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.DATA_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.PARTITION_HASH_OFFSET;
+import static com.hazelcast.internal.serialization.impl.HeapData.TYPE_OFFSET;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_BOOLEAN;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_BYTE;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_BYTE_ARRAY;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_CHAR;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_INTEGER;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_LONG;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_SHORT;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_STRING;
+import static com.hazelcast.nio.Bits.BYTE_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.CHAR_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.SHORT_SIZE_IN_BYTES;
+import static com.hazelcast.util.ConcurrentReferenceHashMap.ReferenceType.STRONG;
+import static com.hazelcast.util.ConcurrentReferenceHashMap.ReferenceType.WEAK;
+
+/**
+ * Serializes the most common constant types ({@link Long}, {@link Integer}, {@link String}, {@code byte[]} and the
+ * other integral boxed primitives) directly into an exactly sized byte array. There is no pooled
+ * {@link com.hazelcast.nio.BufferObjectDataOutput} and no copy of its buffer. The produced bytes are identical to the
+ * ones written by the {@link ConstantSerializers}.
+ * <p/>
+ * {@link Float} and {@link Double} are not handled, since the unsafe output writes their raw bits while the byte array
+ * output writes their canonical bits.
+ * <p/>
+ * The {@link Data} of small integers and longs without a partition hash is created once, as is the {@link Data} of enum
+ * constants; these are frequently used as keys and values.
+ */
+final class ConstantTypeDataWriter {
+
+    static final int CACHE_LOW = -128;
+    static final int CACHE_HIGH = 127;
+
+    private static final int UTF8_MAX_ONE_BYTE_CHAR = 0x7F;
+    private static final int UTF8_MAX_TWO_BYTE_CHAR = 0x7FF;
+    private static final int UTF8_THREE_BYTES = 3;
+
+    private final boolean isBigEndian;
+    private final Data[] integerCache = new Data[CACHE_HIGH - CACHE_LOW + 1];
+    private final Data[] longCache = new Data[CACHE_HIGH - CACHE_LOW + 1];
+    private final ConcurrentMap<Enum, Data> enumCache = new ConcurrentReferenceHashMap<Enum, Data>(WEAK, STRONG);
+
+    ConstantTypeDataWriter(ByteOrder byteOrder) {
+        this.isBigEndian = byteOrder == ByteOrder.BIG_ENDIAN;
+        for (int i = 0; i < integerCache.length; i++) {
+            integerCache[i] = new HeapData(toBytes(CACHE_LOW + i, 0));
+            longCache[i] = new HeapData(toBytes((long) (CACHE_LOW + i), 0));
+        }
+    }
+
+    /**
+     * Checks if the given object can be written by this writer.
+     *
+     * @param obj the object to check, not {@code null}.
+     * @return true if the object is of a supported type, false otherwise.
+     */
+    static boolean isSupported(Object obj) {
+        Class type = obj.getClass();
+        return type == Long.class || type == String.class || type == Integer.class || type == byte[].class
+                || type == Short.class || type == Byte.class || type == Boolean.class || type == Character.class;
+    }
+
+    /**
+     * Returns the {@link Data} of the given object, which is cached for small integers and longs.
+     *
+     * @param obj           the object to serialize, of a {@link #isSupported(Object) supported} type.
+     * @param partitionHash the partition hash of the object.
+     * @return the serialized object.
+     */
+    Data toData(Object obj, int partitionHash) {
+        if (partitionHash == 0) {
+            if (obj instanceof Long) {
+                long value = (Long) obj;
+                if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+                    return longCache[(int) value - CACHE_LOW];
+                }
+            } else if (obj instanceof Integer) {
+                int value = (Integer) obj;
+                if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+                    return integerCache[value - CACHE_LOW];
+                }
+            }
+        }
+        return new HeapData(toBytes(obj, partitionHash));
+    }
+
+    /**
+     * Serializes the given object into a new, exactly sized byte array.
+     *
+     * @param obj           the object to serialize, of a {@link #isSupported(Object) supported} type.
+     * @param partitionHash the partition hash of the object.
+     * @return the serialized object.
+     */
+    byte[] toBytes(Object obj, int partitionHash) {
+        byte[] bytes;
+        if (obj instanceof Long) {
+            bytes = allocate(LONG_SIZE_IN_BYTES, CONSTANT_TYPE_LONG, partitionHash);
+            Bits.writeLong(bytes, DATA_OFFSET, (Long) obj, isBigEndian);
+        } else if (obj instanceof String) {
+            bytes = writeString((String) obj, partitionHash);
+        } else if (obj instanceof Integer) {
+            bytes = allocate(INT_SIZE_IN_BYTES, CONSTANT_TYPE_INTEGER, partitionHash);
+            Bits.writeInt(bytes, DATA_OFFSET, (Integer) obj, isBigEndian);
+        } else if (obj instanceof byte[]) {
+            byte[] array = (byte[]) obj;
+            bytes = allocate(INT_SIZE_IN_BYTES + array.length, CONSTANT_TYPE_BYTE_ARRAY, partitionHash);
+            Bits.writeInt(bytes, DATA_OFFSET, array.length, isBigEndian);
+            System.arraycopy(array, 0, bytes, DATA_OFFSET + INT_SIZE_IN_BYTES, array.length);
+        } else if (obj instanceof Short) {
+            bytes = allocate(SHORT_SIZE_IN_BYTES, CONSTANT_TYPE_SHORT, partitionHash);
+            Bits.writeShort(bytes, DATA_OFFSET, (Short) obj, isBigEndian);
+        } else if (obj instanceof Byte) {
+            bytes = allocate(BYTE_SIZE_IN_BYTES, CONSTANT_TYPE_BYTE, partitionHash);
+            bytes[DATA_OFFSET] = (Byte) obj;
+        } else if (obj instanceof Boolean) {
+            bytes = allocate(BYTE_SIZE_IN_BYTES, CONSTANT_TYPE_BOOLEAN, partitionHash);
+            bytes[DATA_OFFSET] = (byte) ((Boolean) obj ? 1 : 0);
+        } else if (obj instanceof Character) {
+            bytes = allocate(CHAR_SIZE_IN_BYTES, CONSTANT_TYPE_CHAR, partitionHash);
+            Bits.writeChar(bytes, DATA_OFFSET, (Character) obj, isBigEndian);
+        } else {
+            throw new IllegalArgumentException("Unsupported type: " + obj.getClass());
+        }
+        return bytes;
+    }
+
+    Data getEnumData(Enum obj) {
+        return enumCache.get(obj);
+    }
+
+    void putEnumData(Enum obj, Data data) {
+        enumCache.putIfAbsent(obj, data);
+    }
+
+    private byte[] writeString(String str, int partitionHash) {
+        int length = str.length();
+        int utf8Length = 0;
+        for (int i = 0; i < length; i++) {
+            int c = str.charAt(i);
+            if (c <= UTF8_MAX_ONE_BYTE_CHAR) {
+                utf8Length++;
+            } else if (c > UTF8_MAX_TWO_BYTE_CHAR) {
+                utf8Length += UTF8_THREE_BYTES;
+            } else {
+                utf8Length += 2;
+            }
+        }
+
+        byte[] bytes = allocate(INT_SIZE_IN_BYTES + utf8Length, CONSTANT_TYPE_STRING, partitionHash);
+        Bits.writeInt(bytes, DATA_OFFSET, length, isBigEndian);
+        int pos = DATA_OFFSET + INT_SIZE_IN_BYTES;
+        if (utf8Length == length) {
+            for (int i = 0; i < length; i++) {
+                bytes[pos++] = (byte) str.charAt(i);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                pos += Bits.writeUtf8Char(bytes, pos, str.charAt(i));
+            }
+        }
+        return bytes;
+    }
+
+    private static byte[] allocate(int payloadSize, int typeId, int partitionHash) {
+        byte[] bytes = new byte[DATA_OFFSET + payloadSize];
+        Bits.writeIntB(bytes, PARTITION_HASH_OFFSET, partitionHash);
+        Bits.writeIntB(bytes, TYPE_OFFSET, typeId);
+        return bytes;
+    }
+}
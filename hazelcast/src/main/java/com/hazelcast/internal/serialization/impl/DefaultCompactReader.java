@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.impl.CompactSchema.Field;
+import com.hazelcast.internal.serialization.impl.CompactSchema.Kind;
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.serialization.Compact;
+import com.hazelcast.nio.serialization.CompactReader;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+
+import java.io.IOException;
+
+import static com.hazelcast.internal.serialization.impl.CompactSchema.HEADER_SIZE;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+
+/**
+ * Reads the fields of a serialized {@link Compact} object in any order using the layout described by its
+ * {@link CompactSchema}. Apart from deserializing an object, it is used to read a single field, or a path of fields
+ * through nested Compact objects, directly from the serialized form; see {@link #read(String)}.
+ */
+public final class DefaultCompactReader implements CompactReader {
+
+    private final CompactSerializer serializer;
+    private final BufferObjectDataInput in;
+    private final CompactSchema schema;
+    private final int begin;
+    private final int fixedSizeOffset;
+    private final int offsetTableOffset;
+    private final int end;
+
+    /**
+     * @param begin  the position of the start of the object.
+     * @param length the length of the object, excluding the header.
+     */
+    DefaultCompactReader(CompactSerializer serializer, BufferObjectDataInput in, CompactSchema schema, int begin, int length) {
+        this.serializer = serializer;
+        this.in = in;
+        this.schema = schema;
+        this.begin = begin;
+        this.fixedSizeOffset = begin + HEADER_SIZE;
+        this.offsetTableOffset = fixedSizeOffset + schema.getFixedSize();
+        this.end = fixedSizeOffset + length;
+    }
+
+    CompactSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public boolean hasField(String fieldName) {
+        return schema.getField(fieldName) != null;
+    }
+
+    @Override
+    public boolean readBoolean(String fieldName) throws IOException {
+        Field field = field(fieldName, Kind.BOOLEAN);
+        return (in.readByte(fixedSizeOffset + field.getOffset()) & (1 << field.getBit())) != 0;
+    }
+
+    @Override
+    public byte readByte(String fieldName) throws IOException {
+        return in.readByte(fixedSizeOffset + field(fieldName, Kind.BYTE).getOffset());
+    }
+
+    @Override
+    public char readChar(String fieldName) throws IOException {
+        return in.readChar(fixedSizeOffset + field(fieldName, Kind.CHAR).getOffset());
+    }
+
+    @Override
+    public short readShort(String fieldName) throws IOException {
+        return in.readShort(fixedSizeOffset + field(fieldName, Kind.SHORT).getOffset());
+    }
+
+    @Override
+    public int readInt(String fieldName) throws IOException {
+        return in.readInt(fixedSizeOffset + field(fieldName, Kind.INT).getOffset());
+    }
+
+    @Override
+    public long readLong(String fieldName) throws IOException {
+        return in.readLong(fixedSizeOffset + field(fieldName, Kind.LONG).getOffset());
+    }
+
+    @Override
+    public float readFloat(String fieldName) throws IOException {
+        return in.readFloat(fixedSizeOffset + field(fieldName, Kind.FLOAT).getOffset());
+    }
+
+    @Override
+    public double readDouble(String fieldName) throws IOException {
+        return in.readDouble(fixedSizeOffset + field(fieldName, Kind.DOUBLE).getOffset());
+    }
+
+    @Override
+    public String readUTF(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.UTF)) ? in.readUTF() : null;
+    }
+
+    @Override
+    public byte[] readByteArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.BYTE_ARRAY)) ? in.readByteArray() : null;
+    }
+
+    @Override
+    public boolean[] readBooleanArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.BOOLEAN_ARRAY)) ? in.readBooleanArray() : null;
+    }
+
+    @Override
+    public char[] readCharArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.CHAR_ARRAY)) ? in.readCharArray() : null;
+    }
+
+    @Override
+    public short[] readShortArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.SHORT_ARRAY)) ? in.readShortArray() : null;
+    }
+
+    @Override
+    public int[] readIntArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.INT_ARRAY)) ? in.readIntArray() : null;
+    }
+
+    @Override
+    public long[] readLongArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.LONG_ARRAY)) ? in.readLongArray() : null;
+    }
+
+    @Override
+    public float[] readFloatArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.FLOAT_ARRAY)) ? in.readFloatArray() : null;
+    }
+
+    @Override
+    public double[] readDoubleArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.DOUBLE_ARRAY)) ? in.readDoubleArray() : null;
+    }
+
+    @Override
+    public String[] readUTFArray(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.UTF_ARRAY)) ? in.readUTFArray() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Compact> T readCompact(String fieldName) throws IOException {
+        return seek(field(fieldName, Kind.COMPACT)) ? (T) serializer.readInternal(in) : null;
+    }
+
+    /**
+     * Reads the value of the field at the given path. The path is either a field name, or a sequence of field names
+     * separated by a dot where all but the last field are nested Compact objects; e.g. 'address.city'.
+     *
+     * @param fieldPath the path of the field.
+     * @return the value of the field, or null if the field doesn't exist or the value or one of the nested objects on the
+     * path is null.
+     * @throws IOException
+     */
+    public Object read(String fieldPath) throws IOException {
+        int dot = fieldPath.indexOf('.');
+        if (dot < 0) {
+            return read(schema.getField(fieldPath));
+        }
+
+        Field field = schema.getField(fieldPath.substring(0, dot));
+        if (field == null || field.getKind() != Kind.COMPACT || !seek(field)) {
+            return null;
+        }
+        return serializer.createReader(in).read(fieldPath.substring(dot + 1));
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private Object read(Field field) throws IOException {
+        if (field == null) {
+            return null;
+        }
+
+        String name = field.getName();
+        switch (field.getKind()) {
+            case BOOLEAN:
+                return readBoolean(name);
+            case BYTE:
+                return readByte(name);
+            case CHAR:
+                return readChar(name);
+            case SHORT:
+                return readShort(name);
+            case INT:
+                return readInt(name);
+            case LONG:
+                return readLong(name);
+            case FLOAT:
+                return readFloat(name);
+            case DOUBLE:
+                return readDouble(name);
+            case UTF:
+                return readUTF(name);
+            case COMPACT:
+                return readCompact(name);
+            case BYTE_ARRAY:
+                return readByteArray(name);
+            case BOOLEAN_ARRAY:
+                return readBooleanArray(name);
+            case CHAR_ARRAY:
+                return readCharArray(name);
+            case SHORT_ARRAY:
+                return readShortArray(name);
+            case INT_ARRAY:
+                return readIntArray(name);
+            case LONG_ARRAY:
+                return readLongArray(name);
+            case FLOAT_ARRAY:
+                return readFloatArray(name);
+            case DOUBLE_ARRAY:
+                return readDoubleArray(name);
+            case UTF_ARRAY:
+                return readUTFArray(name);
+            default:
+                throw new IllegalArgumentException("Unknown field kind: " + field.getKind());
+        }
+    }
+
+    /**
+     * Moves the input to the end of the object. Needs to be called after all fields are read.
+     */
+    void end() {
+        in.position(end);
+    }
+
+    /**
+     * Moves the input to the value of the variable size field.
+     *
+     * @return true if the value is not null, false otherwise.
+     */
+    private boolean seek(Field field) throws IOException {
+        int offset = in.readInt(offsetTableOffset + field.getOffset() * INT_SIZE_IN_BYTES);
+        if (offset < 0) {
+            return false;
+        }
+        in.position(begin + offset);
+        return true;
+    }
+
+    private Field field(String fieldName, Kind kind) {
+        Field field = schema.getField(fieldName);
+        if (field == null) {
+            throw new HazelcastSerializationException("Unknown field name: '" + fieldName + "' for schema: " + schema);
+        }
+        if (field.getKind() != kind) {
+            throw new HazelcastSerializationException("Invalid field type: '" + fieldName + "' for schema: " + schema
+                    + ", expected: " + field.getKind() + ", actual: " + kind);
+        }
+        return field;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.impl.CompactSchema.Field;
+import com.hazelcast.internal.serialization.impl.CompactSchema.Kind;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.serialization.Compact;
+import com.hazelcast.nio.serialization.CompactWriter;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+
+import java.io.IOException;
+
+import static com.hazelcast.internal.serialization.impl.CompactSchema.HEADER_SIZE;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * Writes a {@link Compact} object using the layout described by its {@link CompactSchema}.
+ * <p/>
+ * Fixed size fields are written directly at their position in the fixed size section; variable size fields are appended
+ * and their position is stored in the offset table.
+ */
+final class DefaultCompactWriter implements CompactWriter {
+
+    private final CompactSerializer serializer;
+    private final BufferObjectDataOutput out;
+    private final CompactSchema schema;
+    private final int begin;
+    private final int fixedSizeOffset;
+    private final int offsetTableOffset;
+    private final byte[] booleans;
+
+    DefaultCompactWriter(CompactSerializer serializer, BufferObjectDataOutput out, CompactSchema schema) throws IOException {
+        this.serializer = serializer;
+        this.out = out;
+        this.schema = schema;
+        this.begin = out.position();
+
+        out.writeLong(schema.getFingerprint());
+        // room for the length and the schema offset
+        out.writeZeroBytes(2 * INT_SIZE_IN_BYTES);
+
+        this.fixedSizeOffset = out.position();
+        out.writeZeroBytes(schema.getFixedSize());
+
+        this.offsetTableOffset = out.position();
+        for (int i = 0; i < schema.getVariableFieldCount(); i++) {
+            out.writeInt(-1);
+        }
+        this.booleans = new byte[schema.getBooleanSize()];
+    }
+
+    @Override
+    public void writeBoolean(String fieldName, boolean value) {
+        Field field = field(fieldName, Kind.BOOLEAN);
+        if (value) {
+            booleans[field.getOffset() - schema.getBooleanOffset()] |= 1 << field.getBit();
+        }
+    }
+
+    @Override
+    public void writeByte(String fieldName, byte value) throws IOException {
+        out.writeByte(position(fieldName, Kind.BYTE), value);
+    }
+
+    @Override
+    public void writeChar(String fieldName, char value) throws IOException {
+        out.writeChar(position(fieldName, Kind.CHAR), value);
+    }
+
+    @Override
+    public void writeShort(String fieldName, short value) throws IOException {
+        out.writeShort(position(fieldName, Kind.SHORT), value);
+    }
+
+    @Override
+    public void writeInt(String fieldName, int value) throws IOException {
+        out.writeInt(position(fieldName, Kind.INT), value);
+    }
+
+    @Override
+    public void writeLong(String fieldName, long value) throws IOException {
+        out.writeLong(position(fieldName, Kind.LONG), value);
+    }
+
+    @Override
+    public void writeFloat(String fieldName, float value) throws IOException {
+        out.writeFloat(position(fieldName, Kind.FLOAT), value);
+    }
+
+    @Override
+    public void writeDouble(String fieldName, double value) throws IOException {
+        out.writeDouble(position(fieldName, Kind.DOUBLE), value);
+    }
+
+    @Override
+    public void writeUTF(String fieldName, String value) throws IOException {
+        if (setOffset(fieldName, Kind.UTF, value)) {
+            out.writeUTF(value);
+        }
+    }
+
+    @Override
+    public void writeByteArray(String fieldName, byte[] value) throws IOException {
+        if (setOffset(fieldName, Kind.BYTE_ARRAY, value)) {
+            out.writeByteArray(value);
+        }
+    }
+
+    @Override
+    public void writeBooleanArray(String fieldName, boolean[] value) throws IOException {
+        if (setOffset(fieldName, Kind.BOOLEAN_ARRAY, value)) {
+            out.writeBooleanArray(value);
+        }
+    }
+
+    @Override
+    public void writeCharArray(String fieldName, char[] value) throws IOException {
+        if (setOffset(fieldName, Kind.CHAR_ARRAY, value)) {
+            out.writeCharArray(value);
+        }
+    }
+
+    @Override
+    public void writeShortArray(String fieldName, short[] value) throws IOException {
+        if (setOffset(fieldName, Kind.SHORT_ARRAY, value)) {
+            out.writeShortArray(value);
+        }
+    }
+
+    @Override
+    public void writeIntArray(String fieldName, int[] value) throws IOException {
+        if (setOffset(fieldName, Kind.INT_ARRAY, value)) {
+            out.writeIntArray(value);
+        }
+    }
+
+    @Override
+    public void writeLongArray(String fieldName, long[] value) throws IOException {
+        if (setOffset(fieldName, Kind.LONG_ARRAY, value)) {
+            out.writeLongArray(value);
+        }
+    }
+
+    @Override
+    public void writeFloatArray(String fieldName, float[] value) throws IOException {
+        if (setOffset(fieldName, Kind.FLOAT_ARRAY, value)) {
+            out.writeFloatArray(value);
+        }
+    }
+
+    @Override
+    public void writeDoubleArray(String fieldName, double[] value) throws IOException {
+        if (setOffset(fieldName, Kind.DOUBLE_ARRAY, value)) {
+            out.writeDoubleArray(value);
+        }
+    }
+
+    @Override
+    public void writeUTFArray(String fieldName, String[] value) throws IOException {
+        if (setOffset(fieldName, Kind.UTF_ARRAY, value)) {
+            out.writeUTFArray(value);
+        }
+    }
+
+    @Override
+    public void writeCompact(String fieldName, Compact value) throws IOException {
+        if (setOffset(fieldName, Kind.COMPACT, value)) {
+            serializer.writeInternal(out, value);
+        }
+    }
+
+    /**
+     * Writes the booleans, the schema section and the length. Needs to be called after all fields are written.
+     */
+    void end() throws IOException {
+        int booleanOffset = fixedSizeOffset + schema.getBooleanOffset();
+        for (int i = 0; i < booleans.length; i++) {
+            out.writeByte(booleanOffset + i, booleans[i]);
+        }
+        out.writeInt(begin + LONG_SIZE_IN_BYTES + INT_SIZE_IN_BYTES, out.position() - begin);
+        schema.writeData(out);
+        out.writeInt(begin + LONG_SIZE_IN_BYTES, out.position() - begin - HEADER_SIZE);
+    }
+
+    private int position(String fieldName, Kind kind) {
+        return fixedSizeOffset + field(fieldName, kind).getOffset();
+    }
+
+    /**
+     * Stores the current position as the offset of the variable size field in the offset table, unless the value is null.
+     *
+     * @return true if the value needs to be written, false if it is null.
+     */
+    private boolean setOffset(String fieldName, Kind kind, Object value) throws IOException {
+        Field field = field(fieldName, kind);
+        if (value == null) {
+            return false;
+        }
+        out.writeInt(offsetTableOffset + field.getOffset() * INT_SIZE_IN_BYTES, out.position() - begin);
+        return true;
+    }
+
+    private Field field(String fieldName, Kind kind) {
+        Field field = schema.getField(fieldName);
+        if (field == null) {
+            throw new HazelcastSerializationException("Invalid field name: '" + fieldName
+                    + "' for schema: " + schema + ". The fields written need to be the same for every instance.");
+        }
+        if (field.getKind() != kind) {
+            throw new HazelcastSerializationException("Invalid field type: '" + fieldName + "' for schema: " + schema
+                    + ", expected: " + field.getKind() + ", actual: " + kind);
+        }
+        return field;
+    }
+}
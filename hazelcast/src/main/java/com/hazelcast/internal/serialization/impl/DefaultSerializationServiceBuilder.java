@@ -30,6 +30,7 @@ import com.hazelcast.internal.serialization.SerializationServiceBuilder;
 import com.hazelcast.internal.serialization.impl.bufferpool.BufferPoolFactoryImpl;
 import com.hazelcast.nio.ClassLoaderUtil;
 import com.hazelcast.nio.serialization.ClassDefinition;
+import com.hazelcast.nio.serialization.Compact;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.nio.serialization.HazelcastSerializationException;
 import com.hazelcast.nio.serialization.PortableFactory;
@@ -65,6 +66,8 @@ public class DefaultSerializationServiceBuilder
 
     protected final Set<ClassDefinition> classDefinitions = new HashSet<ClassDefinition>();
 
+    protected final Set<Class<? extends Compact>> compactClasses = new HashSet<Class<? extends Compact>>();
+
     protected ManagedContext managedContext;
 
     protected boolean useNativeByteOrder;
@@ -142,6 +145,12 @@ public class DefaultSerializationServiceBuilder
         return this;
     }
 
+    @Override
+    public SerializationServiceBuilder addCompactClass(Class<? extends Compact> compactClass) {
+        compactClasses.add(compactClass);
+        return this;
+    }
+
     @Override
     public SerializationServiceBuilder setCheckClassDefErrors(boolean checkClassDefErrors) {
         this.checkClassDefErrors = checkClassDefErrors;
@@ -212,6 +221,7 @@ public class DefaultSerializationServiceBuilder
             addConfigDataSerializableFactories(dataSerializableFactories, config, classLoader);
             addConfigPortableFactories(portableFactories, config, classLoader);
             classDefinitions.addAll(config.getClassDefinitions());
+            compactClasses.addAll(config.getCompactClasses());
         }
 
         InputOutputFactory inputOutputFactory = createInputOutputFactory();
@@ -266,6 +276,7 @@ public class DefaultSerializationServiceBuilder
                         partitioningStrategy, initialOutputBufferSize, new BufferPoolFactoryImpl(), enableCompression,
                         enableSharedObject);
                 serializationServiceV1.registerClassDefinitions(classDefinitions, checkClassDefErrors);
+                serializationServiceV1.registerCompactClasses(compactClasses);
                 return serializationServiceV1;
 
             //Future version note: add new versions here
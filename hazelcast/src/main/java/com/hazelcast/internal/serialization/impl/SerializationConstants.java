@@ -89,6 +89,11 @@ public final class SerializationConstants {
     public static final int JAVA_DEFAULT_TYPE_SERIALIZABLE = -100;
     public static final int JAVA_DEFAULT_TYPE_EXTERNALIZABLE = -101;
 
+    // ------------------------------------------------------------
+    // COMPACT SERIALIZATION
+
+    public static final int COMPACT_TYPE = -102;
+
     // ------------------------------------------------------------
     // LANGUAGE SPECIFIC SERIALIZERS
     // USED BY CLIENTS (Not deserialized by server)
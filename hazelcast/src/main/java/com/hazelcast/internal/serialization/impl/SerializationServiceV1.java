@@ -26,6 +26,8 @@ import com.hazelcast.internal.serialization.impl.ConstantSerializers.StringArray
 import com.hazelcast.internal.serialization.impl.bufferpool.BufferPoolFactory;
 import com.hazelcast.nio.BufferObjectDataInput;
 import com.hazelcast.nio.serialization.ClassDefinition;
+import com.hazelcast.nio.serialization.Compact;
+import com.hazelcast.nio.serialization.CompactReader;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.DataSerializable;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
@@ -76,6 +78,7 @@ public class SerializationServiceV1 extends AbstractSerializationService {
 
     private final PortableContextImpl portableContext;
     private final PortableSerializer portableSerializer;
+    private final CompactSerializer compactSerializer;
 
     SerializationServiceV1(InputOutputFactory inputOutputFactory, byte version, int portableVersion, ClassLoader classLoader,
             Map<Integer, ? extends DataSerializableFactory> dataSerializableFactories,
@@ -101,6 +104,9 @@ public class SerializationServiceV1 extends AbstractSerializationService {
                 new JavaDefaultSerializers.ExternalizableSerializer(enableCompression), this);
         registerConstantSerializers();
         registerJavaTypeSerializers();
+
+        compactSerializer = new CompactSerializer(classLoader);
+        safeRegister(Compact.class, compactSerializer);
     }
 
     public PortableReader createPortableReader(Data data) throws IOException {
@@ -115,6 +121,20 @@ public class SerializationServiceV1 extends AbstractSerializationService {
         return portableContext;
     }
 
+    public CompactReader createCompactReader(Data data) throws IOException {
+        if (data.getType() != SerializationConstants.COMPACT_TYPE) {
+            throw new IllegalArgumentException("Given data is not Compact! -> " + data.getType());
+        }
+        BufferObjectDataInput in = createObjectDataInput(data);
+        return compactSerializer.createReader(in);
+    }
+
+    public void registerCompactClasses(Collection<Class<? extends Compact>> compactClasses) {
+        for (Class<? extends Compact> compactClass : compactClasses) {
+            compactSerializer.registerClass(compactClass);
+        }
+    }
+
     private void registerConstantSerializers() {
         registerConstant(null, nullSerializerAdapter);
         registerConstant(DataSerializable.class, dataSerializerAdapter);
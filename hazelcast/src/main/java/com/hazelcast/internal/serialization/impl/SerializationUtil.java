@@ -47,6 +47,16 @@ public final class SerializationUtil {
         return data.dataSize() == 0 && data.getType() == SerializationConstants.CONSTANT_TYPE_NULL;
     }
 
+    /**
+     * Checks if the data is a serialized {@link com.hazelcast.nio.serialization.Compact} object.
+     *
+     * @param data the data to check.
+     * @return true if the data is a Compact object, false otherwise.
+     */
+    public static boolean isCompact(Data data) {
+        return data.getType() == SerializationConstants.COMPACT_TYPE;
+    }
+
     static RuntimeException handleException(Throwable e) {
         if (e instanceof OutOfMemoryError) {
             OutOfMemoryErrorDispatcher.onOutOfMemory((OutOfMemoryError) e);
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util.counters;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Long.numberOfLeadingZeros;
+
+/**
+ * A histogram of latencies using buckets that double in size: [0,1), [1,2), [2,4), [4,8) etc. The last bucket contains
+ * all latencies equal or larger than its lower bound. The unit of the latencies is up to the user.
+ * <p>
+ * Just like the {@link SwCounter}, the LatencyDistribution is made to be used by a single writing thread and it makes
+ * use of lazySet to reduce the overhead of recording. Any thread can read it.
+ */
+public final class LatencyDistribution {
+
+    /**
+     * The number of buckets.
+     */
+    public static final int BUCKET_COUNT = 18;
+
+    private static final int INDEX_COUNT = BUCKET_COUNT;
+    private static final int INDEX_TOTAL = BUCKET_COUNT + 1;
+    private static final int INDEX_MAX = BUCKET_COUNT + 2;
+
+    private final AtomicLongArray values = new AtomicLongArray(BUCKET_COUNT + 3);
+
+    /**
+     * Records a latency. A negative latency is recorded as 0.
+     * <p>
+     * Should only be called by a single thread.
+     *
+     * @param latency the latency to record.
+     */
+    public void record(long latency) {
+        long value = latency < 0 ? 0 : latency;
+        int bucket = bucket(value);
+        values.lazySet(bucket, values.get(bucket) + 1);
+        values.lazySet(INDEX_COUNT, values.get(INDEX_COUNT) + 1);
+        values.lazySet(INDEX_TOTAL, values.get(INDEX_TOTAL) + value);
+        if (value > values.get(INDEX_MAX)) {
+            values.lazySet(INDEX_MAX, value);
+        }
+    }
+
+    /**
+     * Returns the index of the bucket the latency belongs to.
+     *
+     * @param latency the latency; should not be negative.
+     * @return the index of the bucket.
+     */
+    public static int bucket(long latency) {
+        int bucket = Long.SIZE - numberOfLeadingZeros(latency);
+        return bucket < BUCKET_COUNT ? bucket : BUCKET_COUNT - 1;
+    }
+
+    /**
+     * Returns the lower bound (inclusive) of the given bucket.
+     *
+     * @param bucket the index of the bucket.
+     * @return the lower bound.
+     */
+    public static long bucketLowerBound(int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    /**
+     * Returns the number of latencies recorded in the given bucket.
+     *
+     * @param bucket the index of the bucket.
+     * @return the number of latencies.
+     */
+    public long bucketCount(int bucket) {
+        return values.get(bucket);
+    }
+
+    public long count() {
+        return values.get(INDEX_COUNT);
+    }
+
+    public long total() {
+        return values.get(INDEX_TOTAL);
+    }
+
+    public long max() {
+        return values.get(INDEX_MAX);
+    }
+}
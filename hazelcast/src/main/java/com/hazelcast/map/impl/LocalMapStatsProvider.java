@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl;
 
 import com.hazelcast.cache.impl.nearcache.NearCache;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.internal.cluster.ClusterService;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.nearcache.NearCacheProvider;
@@ -126,8 +127,11 @@ public class LocalMapStatsProvider {
         onDemandStats.incrementLockedEntryCount(recordStore.getLockedEntryCount());
         onDemandStats.incrementHits(recordStore.getHits());
         onDemandStats.incrementDirtyEntryCount(recordStore.getMapDataStore().notFinishedOperationsCount());
-        onDemandStats.incrementOwnedEntryMemoryCost(recordStore.getHeapCost());
-        onDemandStats.incrementHeapCost(recordStore.getHeapCost());
+        long entryMemoryCost = recordStore.getHeapCost();
+        onDemandStats.incrementOwnedEntryMemoryCost(entryMemoryCost);
+        if (!isNative(recordStore)) {
+            onDemandStats.incrementHeapCost(entryMemoryCost);
+        }
         onDemandStats.incrementOwnedEntryCount(recordStore.size());
 
         stats.setLastAccessTime(recordStore.getLastAccessTime());
@@ -153,6 +157,7 @@ public class LocalMapStatsProvider {
                                             IPartitionService partitionService, int backupCount, Address thisAddress) {
         long backupEntryCount = 0;
         long backupEntryMemoryCost = 0;
+        long backupHeapCost = 0;
 
         for (int replica = 1; replica <= backupCount; replica++) {
             Address replicaAddress = getReplicaAddress(replica, partition, partitionService, backupCount);
@@ -163,12 +168,14 @@ public class LocalMapStatsProvider {
             if (isReplicaOnThisNode(replicaAddress, thisAddress)) {
                 RecordStore recordStore = getRecordStoreOrNull(mapName, partitionId);
                 if (hasRecords(recordStore)) {
-                    backupEntryMemoryCost += recordStore.getHeapCost();
+                    long entryMemoryCost = recordStore.getHeapCost();
+                    backupEntryMemoryCost += entryMemoryCost;
+                    backupHeapCost += isNative(recordStore) ? 0 : entryMemoryCost;
                     backupEntryCount += recordStore.size();
                 }
             }
         }
-        onDemandStats.incrementHeapCost(backupEntryMemoryCost);
+        onDemandStats.incrementHeapCost(backupHeapCost);
         onDemandStats.incrementBackupEntryMemoryCost(backupEntryMemoryCost);
         onDemandStats.incrementBackupEntryCount(backupEntryCount);
     }
@@ -177,6 +184,14 @@ public class LocalMapStatsProvider {
         return recordStore != null && recordStore.size() > 0;
     }
 
+    /**
+     * Entries of maps with {@link InMemoryFormat#NATIVE} in-memory format live off-heap,
+     * so their memory cost is not a part of the heap cost.
+     */
+    protected boolean isNative(RecordStore recordStore) {
+        return recordStore.getMapContainer().getMapConfig().getInMemoryFormat() == InMemoryFormat.NATIVE;
+    }
+
     protected boolean isReplicaAvailable(Address replicaAddress, IPartitionService partitionService, int backupCount) {
         return !(replicaAddress == null && partitionService.getMaxAllowedBackupCount() >= backupCount);
     }
@@ -16,8 +16,12 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.config.CompressionConfig;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.config.MapIndexConfig.IndexStoreType;
 import com.hazelcast.config.WanReplicationRef;
 import com.hazelcast.core.IFunction;
 import com.hazelcast.core.PartitioningStrategy;
@@ -30,10 +34,13 @@ import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListener;
 import com.hazelcast.map.impl.query.QueryEntryFactory;
 import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
 import com.hazelcast.map.impl.record.ObjectRecordFactory;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.merge.MapMergePolicy;
 import com.hazelcast.nio.ClassLoaderUtil;
+import com.hazelcast.nio.compression.CompressionCodec;
+import com.hazelcast.nio.compression.CompressionCodecs;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
@@ -146,14 +153,17 @@ public class MapContainer {
 
     // overridden in different context.
     ConstructorFunction<Void, RecordFactory> createRecordFactoryConstructor(final SerializationService serializationService) {
+        final CompressionCodec compressionCodec = createCompressionCodec();
         return new ConstructorFunction<Void, RecordFactory>() {
             @Override
             public RecordFactory createNew(Void notUsedArg) {
                 switch (mapConfig.getInMemoryFormat()) {
                     case BINARY:
-                        return new DataRecordFactory(mapConfig, serializationService, partitioningStrategy);
+                        return new DataRecordFactory(mapConfig, serializationService, partitioningStrategy, compressionCodec);
                     case OBJECT:
                         return new ObjectRecordFactory(mapConfig, serializationService);
+                    case NATIVE:
+                        return new NativeRecordFactory(mapConfig, serializationService, partitioningStrategy);
                     default:
                         throw new IllegalArgumentException("Invalid storage format: " + mapConfig.getInMemoryFormat());
                 }
@@ -161,6 +171,21 @@ public class MapContainer {
         };
     }
 
+    /**
+     * Creates the codec to compress the values of this map with. The codec is shared by the record factories of all
+     * partitions.
+     *
+     * @return the codec, or null if the values of this map are not compressed.
+     */
+    private CompressionCodec createCompressionCodec() {
+        CompressionConfig compressionConfig = mapConfig.getCompressionConfig();
+        if (!compressionConfig.isEnabled() || mapConfig.getInMemoryFormat() != InMemoryFormat.BINARY) {
+            return null;
+        }
+        ClassLoader classLoader = mapServiceContext.getNodeEngine().getConfigClassLoader();
+        return CompressionCodecs.newCodec(compressionConfig.getCodec(), classLoader);
+    }
+
     public void initWanReplication(NodeEngine nodeEngine) {
         WanReplicationRef wanReplicationRef = mapConfig.getWanReplicationRef();
         if (wanReplicationRef == null) {
@@ -180,6 +205,22 @@ public class MapContainer {
         return indexes;
     }
 
+    /**
+     * Returns the index store type configured for the given attribute, or the default type
+     * if the index is not configured statically, e.g. when it is added via {@code IMap.addIndex}.
+     */
+    public IndexStoreType getIndexStoreType(String attribute) {
+        String canonicalAttribute = Indexes.canonicalizeAttribute(attribute);
+        for (MapIndexConfig indexConfig : mapConfig.getMapIndexConfigs()) {
+            String configuredAttribute = indexConfig.getAttribute();
+            if (configuredAttribute != null
+                    && canonicalAttribute.equals(Indexes.canonicalizeAttribute(configuredAttribute))) {
+                return indexConfig.getStoreType();
+            }
+        }
+        return MapIndexConfig.DEFAULT_STORE_TYPE;
+    }
+
     public WanReplicationPublisher getWanReplicationPublisher() {
         return wanReplicationPublisher;
     }
@@ -49,6 +49,7 @@ import com.hazelcast.map.impl.operation.LoadStatusOperation;
 import com.hazelcast.map.impl.operation.LoadStatusOperationFactory;
 import com.hazelcast.map.impl.operation.MapFetchEntriesOperation;
 import com.hazelcast.map.impl.operation.MapFetchKeysOperation;
+import com.hazelcast.map.impl.operation.MapFetchWithPredicateOperation;
 import com.hazelcast.map.impl.operation.MapFlushBackupOperation;
 import com.hazelcast.map.impl.operation.MapFlushOperation;
 import com.hazelcast.map.impl.operation.MapFlushOperationFactory;
@@ -89,10 +90,18 @@ import com.hazelcast.map.impl.operation.SetOperation;
 import com.hazelcast.map.impl.operation.SizeOperationFactory;
 import com.hazelcast.map.impl.operation.TryPutOperation;
 import com.hazelcast.map.impl.operation.TryRemoveOperation;
+import com.hazelcast.map.impl.query.AggregationOperation;
+import com.hazelcast.map.impl.query.AggregationPartitionOperation;
+import com.hazelcast.map.impl.query.AggregationResult;
 import com.hazelcast.map.impl.query.QueryOperation;
 import com.hazelcast.map.impl.query.QueryPartitionOperation;
 import com.hazelcast.map.impl.query.QueryResult;
 import com.hazelcast.map.impl.query.QueryResultRow;
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
+import com.hazelcast.map.impl.querycache.publisher.DestroyPublisherOperation;
+import com.hazelcast.map.impl.querycache.publisher.MadePublishableOperation;
+import com.hazelcast.map.impl.querycache.publisher.PublisherCreateOperation;
+import com.hazelcast.map.impl.querycache.publisher.SetReadCursorOperation;
 import com.hazelcast.map.impl.tx.TxnDeleteOperation;
 import com.hazelcast.map.impl.tx.TxnLockAndGetOperation;
 import com.hazelcast.map.impl.tx.TxnPrepareBackupOperation;
@@ -205,8 +214,17 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int REMOVE_INTERCEPTOR_FACTORY = 88;
     public static final int SIZE_FACTORY = 89;
     public static final int MULTIPLE_ENTRY_FACTORY = 90;
+    public static final int AGGREGATION_RESULT = 91;
+    public static final int AGGREGATION = 92;
+    public static final int AGGREGATION_PARTITION = 93;
+    public static final int QUERY_CACHE_BATCH_EVENT = 94;
+    public static final int PUBLISHER_CREATE = 95;
+    public static final int MADE_PUBLISHABLE = 96;
+    public static final int SET_READ_CURSOR = 97;
+    public static final int DESTROY_PUBLISHER = 98;
+    public static final int FETCH_WITH_PREDICATE = 99;
 
-    private static final int LEN = MULTIPLE_ENTRY_FACTORY + 1;
+    private static final int LEN = FETCH_WITH_PREDICATE + 1;
 
     @Override
     public int getFactoryId() {
@@ -657,6 +675,51 @@ public final class MapDataSerializerHook implements DataSerializerHook {
                 return new MultipleEntryOperationFactory();
             }
         };
+        constructors[AGGREGATION_RESULT] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new AggregationResult();
+            }
+        };
+        constructors[AGGREGATION] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new AggregationOperation();
+            }
+        };
+        constructors[AGGREGATION_PARTITION] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new AggregationPartitionOperation();
+            }
+        };
+        constructors[QUERY_CACHE_BATCH_EVENT] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new BatchEventData();
+            }
+        };
+        constructors[PUBLISHER_CREATE] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new PublisherCreateOperation();
+            }
+        };
+        constructors[MADE_PUBLISHABLE] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new MadePublishableOperation();
+            }
+        };
+        constructors[SET_READ_CURSOR] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new SetReadCursorOperation();
+            }
+        };
+        constructors[DESTROY_PUBLISHER] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new DestroyPublisherOperation();
+            }
+        };
+        constructors[FETCH_WITH_PREDICATE] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new MapFetchWithPredicateOperation();
+            }
+        };
 
         return new ArrayDataSerializableFactory(constructors);
     }
@@ -68,6 +68,10 @@ class MapMigrationAwareService implements MigrationAwareService {
         migrateIndex(event);
         if (event.getMigrationEndpoint() == MigrationEndpoint.SOURCE) {
             clearMapsHavingLesserBackupCountThan(event.getPartitionId(), event.getNewReplicaIndex());
+            if (event.getCurrentReplicaIndex() == 0) {
+                // the new owner restarts the event sequence of the partition for the query caches
+                mapServiceContext.getQueryCacheContext().getPublisherRegistry().removePartition(event.getPartitionId());
+            }
         }
         PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(event.getPartitionId());
         for (RecordStore recordStore : partitionContainer.getAllRecordStores()) {
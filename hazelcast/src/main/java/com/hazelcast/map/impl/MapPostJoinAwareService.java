@@ -38,6 +38,7 @@ class MapPostJoinAwareService implements PostJoinAwareService {
             o.addMapIndex(mapContainer);
             o.addMapInterceptors(mapContainer);
         }
+        o.addQueryCachePublishers(mapServiceContext.getQueryCacheContext().getPublisherRegistry().getAllPublishers());
         return o;
     }
 }
@@ -36,6 +36,7 @@ import com.hazelcast.map.impl.operation.MapOperationProviders;
 import com.hazelcast.map.impl.operation.MapPartitionDestroyTask;
 import com.hazelcast.map.impl.query.MapQueryEngine;
 import com.hazelcast.map.impl.query.MapQueryEngineImpl;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
 import com.hazelcast.map.impl.recordstore.DefaultRecordStore;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.listener.MapPartitionLostListener;
@@ -101,6 +102,7 @@ class MapServiceContextImpl implements MapServiceContext {
     protected final AtomicInteger writeBehindQueueItemCounter = new AtomicInteger(0);
     protected final ExpirationManager expirationManager;
     protected final NearCacheProvider nearCacheProvider;
+    protected final QueryCacheContext queryCacheContext;
     protected final LocalMapStatsProvider localMapStatsProvider;
     protected final MergePolicyProvider mergePolicyProvider;
     protected final MapQueryEngine mapQueryEngine;
@@ -119,6 +121,7 @@ class MapServiceContextImpl implements MapServiceContext {
         this.ownedPartitions = new AtomicReference<Collection<Integer>>();
         this.expirationManager = new ExpirationManager(partitionContainers, nodeEngine);
         this.nearCacheProvider = createNearCacheProvider();
+        this.queryCacheContext = new QueryCacheContext(nodeEngine);
         this.localMapStatsProvider = createLocalMapStatsProvider();
         this.mergePolicyProvider = new MergePolicyProvider(nodeEngine);
         this.mapEventPublisher = createMapEventPublisherSupport();
@@ -263,6 +266,7 @@ class MapServiceContextImpl implements MapServiceContext {
         }
         mapContainer.getMapStoreContext().stop();
         nearCacheProvider.destroyNearCache(mapName);
+        queryCacheContext.destroy(mapName);
         nodeEngine.getEventService().deregisterAllListeners(SERVICE_NAME, mapName);
         localMapStatsProvider.destroyLocalMapStatsImpl(mapContainer.getName());
 
@@ -288,6 +292,7 @@ class MapServiceContextImpl implements MapServiceContext {
     public void reset() {
         clearPartitions(false);
         getNearCacheProvider().reset();
+        queryCacheContext.reset();
     }
 
     @Override
@@ -302,6 +307,11 @@ class MapServiceContextImpl implements MapServiceContext {
         return nearCacheProvider;
     }
 
+    @Override
+    public QueryCacheContext getQueryCacheContext() {
+        return queryCacheContext;
+    }
+
     @Override
     public RecordStore getRecordStore(int partitionId, String mapName) {
         return getPartitionContainer(partitionId).getRecordStore(mapName);
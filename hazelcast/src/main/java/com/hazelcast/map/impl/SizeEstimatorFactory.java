@@ -19,6 +19,7 @@ package com.hazelcast.map.impl;
 import com.hazelcast.config.InMemoryFormat;
 
 import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 
 /**
  * Static factory methods for various size estimators.
@@ -37,6 +38,9 @@ public final class SizeEstimatorFactory {
         if (BINARY.equals(inMemoryFormat)) {
             return new BinaryMapSizeEstimator();
         }
+        if (NATIVE.equals(inMemoryFormat)) {
+            return new NativeMapSizeEstimator();
+        }
         return ZERO_SIZE_ESTIMATOR;
     }
 
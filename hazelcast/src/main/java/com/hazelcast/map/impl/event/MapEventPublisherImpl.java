@@ -18,16 +18,25 @@ package com.hazelcast.map.impl.event;
 
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.map.impl.EntryEventFilter;
 import com.hazelcast.map.impl.EventListenerFilter;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapPartitionLostEventFilter;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.query.QueryEventFilter;
+import com.hazelcast.map.impl.querycache.event.DefaultQueryCacheEventData;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.map.impl.querycache.publisher.PublisherRegistry;
+import com.hazelcast.map.impl.querycache.publisher.QueryCachePublisher;
 import com.hazelcast.map.impl.wan.MapReplicationRemove;
 import com.hazelcast.map.impl.wan.MapReplicationUpdate;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CachedQueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.Extractors;
 import com.hazelcast.spi.EventFilter;
 import com.hazelcast.spi.EventRegistration;
 import com.hazelcast.spi.EventService;
@@ -42,6 +51,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 
+import static com.hazelcast.core.EntryEventType.ADDED;
+import static com.hazelcast.core.EntryEventType.REMOVED;
+import static com.hazelcast.core.EntryEventType.UPDATED;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static com.hazelcast.map.impl.event.AbstractFilteringStrategy.FILTER_DOES_NOT_MATCH;
 import static com.hazelcast.util.CollectionUtil.isEmpty;
@@ -147,6 +159,8 @@ public class MapEventPublisherImpl implements MapEventPublisher {
     @Override
     public void publishEvent(Address caller, String mapName, EntryEventType eventType,
                              Data dataKey, Object oldValue, Object value, Object mergingValue) {
+        publishToQueryCaches(mapName, eventType, dataKey, oldValue, value);
+
         Collection<EventRegistration> registrations = getRegistrations(mapName);
         if (isEmpty(registrations)) {
             return;
@@ -183,6 +197,73 @@ public class MapEventPublisherImpl implements MapEventPublisher {
         }
     }
 
+    /**
+     * Accumulates the event for the {@link com.hazelcast.map.QueryCache} publishers of the map. The publishers only need
+     * to know whether the entry is in or out of the query cache after the event, so an update turning a matching
+     * entry into a non-matching one is published as a removal and vice versa. When the old value of an update is not
+     * known, the entry is removed from the query cache if the new value does not match, since it might have matched before.
+     */
+    private void publishToQueryCaches(String mapName, EntryEventType eventType, Data dataKey, Object oldValue, Object value) {
+        PublisherRegistry publisherRegistry = mapServiceContext.getQueryCacheContext().getPublisherRegistry();
+        Collection<QueryCachePublisher> publishers = publisherRegistry.getPublishers(mapName);
+        if (publishers.isEmpty()) {
+            return;
+        }
+
+        int partitionId = nodeEngine.getPartitionService().getPartitionId(dataKey);
+        Extractors extractors = mapServiceContext.getExtractors(mapName);
+        Data dataValue = null;
+        for (QueryCachePublisher publisher : publishers) {
+            PublisherInfo info = publisher.getInfo();
+            int eventTypeForQueryCache = getEventTypeForQueryCache(info.getPredicate(), eventType, dataKey, oldValue, value,
+                    extractors);
+            if (eventTypeForQueryCache == FILTER_DOES_NOT_MATCH) {
+                continue;
+            }
+
+            DefaultQueryCacheEventData eventData = new DefaultQueryCacheEventData();
+            eventData.setDataKey(dataKey);
+            eventData.setEventType(eventTypeForQueryCache);
+            eventData.setPartitionId(partitionId);
+            boolean upsert = eventTypeForQueryCache == ADDED.getType() || eventTypeForQueryCache == UPDATED.getType();
+            if (info.isIncludeValue() && upsert) {
+                if (dataValue == null) {
+                    dataValue = serializationService.toData(value);
+                }
+                eventData.setDataNewValue(dataValue);
+            }
+            publisher.addEvent(eventData);
+        }
+    }
+
+    private int getEventTypeForQueryCache(Predicate predicate, EntryEventType eventType, Data dataKey,
+                                          Object oldValue, Object value, Extractors extractors) {
+        switch (eventType) {
+            case ADDED:
+                return matches(predicate, dataKey, value, extractors) ? ADDED.getType() : FILTER_DOES_NOT_MATCH;
+            case UPDATED:
+            case MERGED:
+                if (matches(predicate, dataKey, value, extractors)) {
+                    return UPDATED.getType();
+                }
+                return oldValue == null || matches(predicate, dataKey, oldValue, extractors)
+                        ? REMOVED.getType() : FILTER_DOES_NOT_MATCH;
+            case REMOVED:
+            case EVICTED:
+            case EXPIRED:
+                return oldValue == null || matches(predicate, dataKey, oldValue, extractors)
+                        ? eventType.getType() : FILTER_DOES_NOT_MATCH;
+            default:
+                return FILTER_DOES_NOT_MATCH;
+        }
+    }
+
+    private boolean matches(Predicate predicate, Data dataKey, Object value, Extractors extractors) {
+        QueryableEntry entry = new CachedQueryEntry((InternalSerializationService) serializationService, dataKey, value,
+                extractors);
+        return predicate.apply(entry);
+    }
+
     /**
      * Hook for actions to perform after any of {@code publishEvent} methods is executed.
      * This method will be invoked once per unique EntryEventData generated by {@code publishEvent},
@@ -235,12 +316,20 @@ public class MapEventPublisherImpl implements MapEventPublisher {
     @Override
     public void hintMapEvent(Address caller, String mapName, EntryEventType eventType,
                              int numberOfEntriesAffected, int partitionId) {
-        // NOP
+        // query caches are cleared partition by partition, since their events are sequenced per partition
+        PublisherRegistry publisherRegistry = mapServiceContext.getQueryCacheContext().getPublisherRegistry();
+        for (QueryCachePublisher publisher : publisherRegistry.getPublishers(mapName)) {
+            DefaultQueryCacheEventData eventData = new DefaultQueryCacheEventData();
+            eventData.setEventType(eventType.getType());
+            eventData.setPartitionId(partitionId);
+            publisher.addEvent(eventData);
+        }
     }
 
     @Override
     public boolean hasEventListener(String mapName) {
-        return eventService.hasEventRegistration(SERVICE_NAME, mapName);
+        return eventService.hasEventRegistration(SERVICE_NAME, mapName)
+                || mapServiceContext.getQueryCacheContext().getPublisherRegistry().hasPublisher(mapName);
     }
 
     protected Collection<EventRegistration> getRegistrations(String mapName) {
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.iterator;
+
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+
+/**
+ * Base class for iterating the entries of a partition which match a predicate.
+ * <p>
+ * Matching entries are fetched in chunks as the iteration proceeds, so the whole result set of the partition is
+ * never held in memory at once. A fetched chunk may be empty while the partition is not exhausted yet, for example
+ * when no entries in the scanned part of the partition match the predicate, so fetching continues until the table
+ * index becomes negative.
+ */
+public abstract class AbstractMapQueryPartitionIterator<K, V> extends AbstractMapPartitionIterator<K, V> {
+
+    protected final Predicate<K, V> predicate;
+
+    public AbstractMapQueryPartitionIterator(IMap<K, V> map, int fetchSize, int partitionId, Predicate<K, V> predicate) {
+        super(map, fetchSize, partitionId, true);
+        this.predicate = predicate;
+    }
+
+    @Override
+    protected boolean advance() {
+        while (lastTableIndex >= 0) {
+            result = fetch();
+            if (result != null && result.size() > 0) {
+                index = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unlike {@link #setLastTableIndex(java.util.List, int)}, always moves the table index since an empty chunk
+     * does not mean that the partition is exhausted.
+     */
+    protected void setNextTableIndex(int nextTableIndex) {
+        this.lastTableIndex = nextTableIndex;
+    }
+}
@@ -56,7 +56,7 @@ public class AddIndexOperation extends MapOperation implements PartitionAwareOpe
     @Override
     public void run() throws Exception {
         Indexes indexes = mapContainer.getIndexes();
-        Index index = indexes.addOrGetIndex(attributeName, ordered);
+        Index index = indexes.addOrGetIndex(attributeName, ordered, mapContainer.getIndexStoreType(attributeName));
 
         final long now = getNow();
         final Iterator<Record> iterator = recordStore.iterator(now, false);
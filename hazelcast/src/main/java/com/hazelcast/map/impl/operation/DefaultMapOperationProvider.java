@@ -244,4 +244,10 @@ public class DefaultMapOperationProvider implements MapOperationProvider {
         return new MapFetchEntriesOperation(name, lastTableIndex, fetchSize);
     }
 
+    @Override
+    public MapOperation createFetchWithPredicateOperation(String name, int lastTableIndex, int fetchSize,
+                                                          Predicate predicate) {
+        return new MapFetchWithPredicateOperation(name, lastTableIndex, fetchSize, predicate);
+    }
+
 }
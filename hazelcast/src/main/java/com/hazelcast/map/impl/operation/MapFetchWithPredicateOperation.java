@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CachedQueryEntry;
+import com.hazelcast.spi.ReadonlyOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches the next chunk of the entries of a partition which match a predicate, starting from the given table index.
+ * <p>
+ * At most {@value #SCAN_LIMIT_FACTOR} times {@code fetchSize} entries are scanned in one run, so a very selective
+ * predicate does not hold the partition thread for the whole partition. In that case the returned chunk may be empty
+ * while the returned table index is still non-negative, which means the caller should continue fetching.
+ */
+public class MapFetchWithPredicateOperation extends MapOperation implements ReadonlyOperation {
+
+    static final int SCAN_LIMIT_FACTOR = 16;
+
+    private int fetchSize;
+    private int lastTableIndex;
+    private Predicate predicate;
+    private transient MapEntriesWithCursor response;
+
+    public MapFetchWithPredicateOperation() {
+    }
+
+    public MapFetchWithPredicateOperation(String name, int lastTableIndex, int fetchSize, Predicate predicate) {
+        super(name);
+        this.lastTableIndex = lastTableIndex;
+        this.fetchSize = fetchSize;
+        this.predicate = predicate;
+    }
+
+    @Override
+    public void run() throws Exception {
+        InternalSerializationService serializationService
+                = ((InternalSerializationService) getNodeEngine().getSerializationService());
+        CachedQueryEntry queryEntry = new CachedQueryEntry();
+        List<Map.Entry<Data, Data>> matches = new ArrayList<Map.Entry<Data, Data>>(fetchSize);
+
+        int tableIndex = lastTableIndex;
+        int scanLimit = fetchSize * SCAN_LIMIT_FACTOR;
+        int scanned = 0;
+        while (matches.size() < fetchSize && scanned < scanLimit) {
+            MapEntriesWithCursor chunk = recordStore.fetchEntries(tableIndex, fetchSize);
+            for (Map.Entry<Data, Data> entry : chunk.getEntries()) {
+                queryEntry.init(serializationService, entry.getKey(), entry.getValue(), mapContainer.getExtractors());
+                if (predicate.apply(queryEntry)) {
+                    matches.add(entry);
+                }
+            }
+            scanned += chunk.getEntries().size();
+            tableIndex = chunk.getNextTableIndexToReadFrom();
+            if (tableIndex < 0) {
+                break;
+            }
+        }
+        response = new MapEntriesWithCursor(matches, tableIndex);
+    }
+
+    @Override
+    public Object getResponse() {
+        return response;
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        fetchSize = in.readInt();
+        lastTableIndex = in.readInt();
+        predicate = in.readObject();
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(fetchSize);
+        out.writeInt(lastTableIndex);
+        out.writeObject(predicate);
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.FETCH_WITH_PREDICATE;
+    }
+}
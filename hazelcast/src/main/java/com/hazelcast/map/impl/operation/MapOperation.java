@@ -69,6 +69,7 @@ public abstract class MapOperation extends AbstractNamedOperation implements Ide
         mapEventPublisher = mapServiceContext.getMapEventPublisher();
 
         innerBeforeRun();
+        disposeDeferredBlocks();
     }
 
     public void innerBeforeRun() throws Exception {
@@ -80,6 +81,16 @@ public abstract class MapOperation extends AbstractNamedOperation implements Ide
         }
     }
 
+    /**
+     * Frees the native memory blocks of records removed by the previous operations of this partition.
+     * Those operations have completed, so none of their record flyweights is in use anymore.
+     */
+    private void disposeDeferredBlocks() {
+        if (recordStore != null) {
+            recordStore.disposeDeferredBlocks();
+        }
+    }
+
     @Override
     public String getServiceName() {
         return MapService.SERVICE_NAME;
@@ -240,4 +240,10 @@ abstract class MapOperationProviderDelegator implements MapOperationProvider {
     public MapOperation createFetchEntriesOperation(String name, int lastTableIndex, int fetchSize) {
         return getDelegate().createFetchEntriesOperation(name, lastTableIndex, fetchSize);
     }
+
+    @Override
+    public MapOperation createFetchWithPredicateOperation(String name, int lastTableIndex, int fetchSize,
+                                                          Predicate predicate) {
+        return getDelegate().createFetchWithPredicateOperation(name, lastTableIndex, fetchSize, predicate);
+    }
 }
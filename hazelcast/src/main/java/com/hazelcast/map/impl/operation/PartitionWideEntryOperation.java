@@ -40,7 +40,8 @@ import java.util.Map;
 /**
  * GOTCHA : This operation does NOT load missing keys from map-store for now.
  */
-public class PartitionWideEntryOperation extends AbstractMultipleEntryOperation implements BackupAwareOperation {
+public class PartitionWideEntryOperation extends AbstractMultipleEntryOperation
+        implements BackupAwareOperation {
 
     public PartitionWideEntryOperation(String name, EntryProcessor entryProcessor) {
         super(name, entryProcessor);
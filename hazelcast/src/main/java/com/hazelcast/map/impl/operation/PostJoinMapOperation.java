@@ -21,6 +21,9 @@ import com.hazelcast.map.impl.InterceptorRegistry;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.map.impl.querycache.publisher.PublisherRegistry;
+import com.hazelcast.map.impl.querycache.publisher.QueryCachePublisher;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.DataSerializable;
@@ -30,7 +33,9 @@ import com.hazelcast.spi.Operation;
 
 import java.io.IOException;
 import java.util.AbstractMap;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +44,8 @@ public class PostJoinMapOperation extends Operation {
 
     private List<MapIndexInfo> indexInfoList = new LinkedList<MapIndexInfo>();
     private List<InterceptorInfo> interceptorInfoList = new LinkedList<InterceptorInfo>();
+    private List<PublisherInfo> publisherInfoList = new LinkedList<PublisherInfo>();
+    private List<Boolean> publishableList = new LinkedList<Boolean>();
 
     @Override
     public String getServiceName() {
@@ -71,6 +78,13 @@ public class PostJoinMapOperation extends Operation {
         interceptorInfoList.add(interceptorInfo);
     }
 
+    public void addQueryCachePublishers(Collection<QueryCachePublisher> publishers) {
+        for (QueryCachePublisher publisher : publishers) {
+            publisherInfoList.add(publisher.getInfo());
+            publishableList.add(publisher.isPublishable());
+        }
+    }
+
     static class InterceptorInfo implements DataSerializable {
 
         private String mapName;
@@ -117,7 +131,8 @@ public class PostJoinMapOperation extends Operation {
             final MapContainer mapContainer = mapServiceContext.getMapContainer(mapIndex.mapName);
             final Indexes indexes = mapContainer.getIndexes();
             for (MapIndexInfo.IndexInfo indexInfo : mapIndex.lsIndexes) {
-                indexes.addOrGetIndex(indexInfo.attributeName, indexInfo.ordered);
+                indexes.addOrGetIndex(indexInfo.attributeName, indexInfo.ordered,
+                        mapContainer.getIndexStoreType(indexInfo.attributeName));
             }
         }
         for (InterceptorInfo interceptorInfo : interceptorInfoList) {
@@ -131,6 +146,11 @@ public class PostJoinMapOperation extends Operation {
                 }
             }
         }
+        PublisherRegistry publisherRegistry = mapServiceContext.getQueryCacheContext().getPublisherRegistry();
+        Iterator<Boolean> publishable = publishableList.iterator();
+        for (PublisherInfo publisherInfo : publisherInfoList) {
+            publisherRegistry.getOrCreate(publisherInfo).setPublishable(publishable.next());
+        }
     }
 
     @Override
@@ -144,6 +164,12 @@ public class PostJoinMapOperation extends Operation {
         for (InterceptorInfo interceptorInfo : interceptorInfoList) {
             interceptorInfo.writeData(out);
         }
+        out.writeInt(publisherInfoList.size());
+        Iterator<Boolean> publishable = publishableList.iterator();
+        for (PublisherInfo publisherInfo : publisherInfoList) {
+            publisherInfo.writeData(out);
+            out.writeBoolean(publishable.next());
+        }
     }
 
     @Override
@@ -161,6 +187,13 @@ public class PostJoinMapOperation extends Operation {
             info.readData(in);
             interceptorInfoList.add(info);
         }
+        int size3 = in.readInt();
+        for (int i = 0; i < size3; i++) {
+            PublisherInfo publisherInfo = new PublisherInfo();
+            publisherInfo.readData(in);
+            publisherInfoList.add(publisherInfo);
+            publishableList.add(in.readBoolean());
+        }
     }
 
     static class MapIndexInfo implements DataSerializable {
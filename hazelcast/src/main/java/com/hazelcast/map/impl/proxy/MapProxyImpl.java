@@ -16,7 +16,10 @@
 
 package com.hazelcast.map.impl.proxy;
 
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.config.EntryListenerConfig;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.QueryCacheConfig;
 import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.core.ExecutionCallback;
@@ -26,12 +29,16 @@ import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.core.IMap;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.SimpleEntryView;
 import com.hazelcast.map.impl.iterator.MapPartitionIterator;
+import com.hazelcast.map.impl.iterator.MapQueryPartitionIterator;
 import com.hazelcast.map.impl.query.MapQueryEngine;
 import com.hazelcast.map.impl.query.QueryResult;
 import com.hazelcast.map.impl.query.QueryResultCollection;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
+import com.hazelcast.map.impl.querycache.subscriber.NodeQueryCache;
 import com.hazelcast.map.listener.MapListener;
 import com.hazelcast.map.listener.MapPartitionLostListener;
 import com.hazelcast.mapreduce.Collator;
@@ -46,6 +53,7 @@ import com.hazelcast.mapreduce.ReducingSubmittableJob;
 import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.TruePredicate;
@@ -54,6 +62,7 @@ import com.hazelcast.spi.InternalCompletableFuture;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.util.CollectionUtil;
+import com.hazelcast.util.ConstructorFunction;
 import com.hazelcast.util.IterationType;
 import com.hazelcast.util.MapUtil;
 import com.hazelcast.util.executor.DelegatingFuture;
@@ -69,6 +78,8 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+import static com.hazelcast.map.impl.querycache.QueryCacheUtil.getPredicate;
+import static com.hazelcast.util.Preconditions.checkFalse;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.Preconditions.checkPositive;
 import static com.hazelcast.util.Preconditions.checkTrue;
@@ -745,6 +756,104 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
         return resultingMap;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator) {
+        return aggregate(aggregator, (Predicate<K, V>) TruePredicate.INSTANCE);
+    }
+
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate<K, V> predicate) {
+        checkNotNull(aggregator, NULL_AGGREGATOR_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        MapQueryEngine queryEngine = getMapQueryEngine();
+        return queryEngine.invokeAggregateAllPartitions(name, predicate, aggregator);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection) {
+        return project(projection, (Predicate<K, V>) TruePredicate.INSTANCE);
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate<K, V> predicate) {
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        MapQueryEngine queryEngine = getMapQueryEngine();
+        QueryResult result = queryEngine.invokeQueryAllPartitionsWithProjection(name, predicate, projection);
+        return new QueryResultCollection<R>(getNodeEngine().getSerializationService(), IterationType.VALUE, false, false, result);
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name) {
+        checkNotNull(name, NULL_QUERY_CACHE_NAME_IS_NOT_ALLOWED);
+        QueryCacheConfig config = findQueryCacheConfig(name);
+        checkTrue(config != null, "No query cache config found with name " + name);
+
+        Predicate predicate = getPredicate(config.getPredicateConfig(), getNodeEngine().getConfigClassLoader());
+        return getQueryCacheInternal(name, null, predicate, config.isIncludeValue(), config);
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, Predicate<K, V> predicate, boolean includeValue) {
+        checkNotNull(name, NULL_QUERY_CACHE_NAME_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getQueryCacheInternal(name, null, predicate, includeValue, getQueryCacheConfigOrDefault(name));
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, MapListener listener, Predicate<K, V> predicate, boolean includeValue) {
+        checkNotNull(name, NULL_QUERY_CACHE_NAME_IS_NOT_ALLOWED);
+        checkNotNull(listener, NULL_LISTENER_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getQueryCacheInternal(name, listener, predicate, includeValue, getQueryCacheConfigOrDefault(name));
+    }
+
+    @SuppressWarnings("unchecked")
+    private QueryCache<K, V> getQueryCacheInternal(String cacheName, final MapListener listener, final Predicate predicate,
+                                                   final boolean includeValue, final QueryCacheConfig config) {
+        checkFalse(predicate instanceof PagingPredicate, "PagingPredicate is not supported by query caches");
+
+        QueryCacheContext queryCacheContext = mapServiceContext.getQueryCacheContext();
+        return queryCacheContext.getOrCreateQueryCache(name, cacheName, new ConstructorFunction<String, NodeQueryCache>() {
+            @Override
+            public NodeQueryCache createNew(String cacheName) {
+                NodeQueryCache<K, V> queryCache = new NodeQueryCache<K, V>(cacheName, name, config, predicate, includeValue,
+                        mapServiceContext);
+                for (EntryListenerConfig listenerConfig : config.getEntryListenerConfigs()) {
+                    MapListener configuredListener = initializeListener(listenerConfig);
+                    if (configuredListener != null) {
+                        queryCache.addListenerInternal(configuredListener, null, null, listenerConfig.isIncludeValue());
+                    }
+                }
+                if (listener != null) {
+                    queryCache.addListenerInternal(listener, null, null, includeValue);
+                }
+                queryCache.start();
+                return queryCache;
+            }
+        });
+    }
+
+    private QueryCacheConfig findQueryCacheConfig(String cacheName) {
+        for (QueryCacheConfig config : getMapConfig().getQueryCacheConfigs()) {
+            if (cacheName.equals(config.getName())) {
+                return config;
+            }
+        }
+        return null;
+    }
+
+    private QueryCacheConfig getQueryCacheConfigOrDefault(String cacheName) {
+        QueryCacheConfig config = findQueryCacheConfig(cacheName);
+        return config == null ? new QueryCacheConfig(cacheName) : config;
+    }
+
     @Override
     public <SuppliedValue, Result> Result aggregate(Supplier<K, V, SuppliedValue> supplier,
                                                     Aggregation<K, SuppliedValue, Result> aggregation) {
@@ -797,6 +906,23 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
         return new MapPartitionIterator<K, V>(this, fetchSize, partitionId, prefetchValues);
     }
 
+    /**
+     * Returns an iterator over the entries of the given partition which match the given predicate. The predicate is
+     * applied on the partition owner and the matching entries are fetched in chunks of about {@code fetchSize} entries
+     * while iterating, so large result sets can be scanned without materializing them.
+     *
+     * @param fetchSize   the number of matching entries to fetch at once
+     * @param partitionId the partition to iterate
+     * @param predicate   the predicate which the entries should match
+     * @return the iterator over the matching entries
+     */
+    public Iterator<Entry<K, V>> iterator(int fetchSize, int partitionId, Predicate<K, V> predicate) {
+        checkPositive(fetchSize, "fetchSize should be positive");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        checkFalse(predicate instanceof PagingPredicate, "PagingPredicate is not supported by partition iterators");
+        return new MapQueryPartitionIterator<K, V>(this, fetchSize, partitionId, predicate);
+    }
+
     @Override
     public String toString() {
         return "IMap{name='" + name + '\'' + '}';
@@ -119,6 +119,9 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     protected static final String NULL_VALUE_IS_NOT_ALLOWED = "Null value is not allowed!";
     protected static final String NULL_PREDICATE_IS_NOT_ALLOWED = "Predicate should not be null!";
     protected static final String NULL_LISTENER_IS_NOT_ALLOWED = "Null listener is not allowed!";
+    protected static final String NULL_AGGREGATOR_IS_NOT_ALLOWED = "Aggregator should not be null!";
+    protected static final String NULL_PROJECTION_IS_NOT_ALLOWED = "Projection should not be null!";
+    protected static final String NULL_QUERY_CACHE_NAME_IS_NOT_ALLOWED = "Query cache name should not be null!";
 
     private static final int CHECK_IF_LOADED_TIMEOUT_SECONDS = 60;
 
@@ -253,7 +256,7 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         }
     }
 
-    private <T extends EventListener> T initializeListener(ListenerConfig listenerConfig) {
+    protected <T extends EventListener> T initializeListener(ListenerConfig listenerConfig) {
         T listener = getListenerImplOrNull(listenerConfig);
 
         if (listener instanceof HazelcastInstanceAware) {
@@ -16,6 +16,8 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.util.IterationType;
@@ -49,6 +51,18 @@ public interface MapQueryEngine {
     QueryResult queryLocalPartitions(String mapName, Predicate predicate, IterationType iterationType)
             throws ExecutionException, InterruptedException;
 
+    /**
+     * Executes a query on all the local partitions, like {@link #queryLocalPartitions(String, Predicate, IterationType)},
+     * and returns the values projected from the matching entries instead of the entries.
+     *
+     * @param mapName    the name of the map
+     * @param predicate  except paging predicate.
+     * @param projection the projection to apply to the matching entries
+     * @return the QueryResult containing the serialized projected values as row values
+     */
+    QueryResult queryLocalPartitionsWithProjection(String mapName, Predicate predicate, Projection projection)
+            throws ExecutionException, InterruptedException;
+
     /**
      * Executes a query on a specific local partition.
      * <p>
@@ -66,6 +80,18 @@ public interface MapQueryEngine {
      */
     QueryResult queryLocalPartition(String mapName, Predicate predicate, int partitionId, IterationType iterationType);
 
+    /**
+     * Executes a query on a specific local partition, like {@link #queryLocalPartition(String, Predicate, int, IterationType)},
+     * and returns the values projected from the matching entries instead of the entries.
+     *
+     * @param mapName     map name.
+     * @param predicate   except paging predicate.
+     * @param partitionId partition id.
+     * @param projection  the projection to apply to the matching entries
+     * @return the QueryResult containing the serialized projected values as row values
+     */
+    QueryResult queryLocalPartitionWithProjection(String mapName, Predicate predicate, int partitionId, Projection projection);
+
     /**
      * Query all local partitions.
      * <p>
@@ -91,6 +117,20 @@ public interface MapQueryEngine {
      */
     QueryResult invokeQueryAllPartitions(String mapName, Predicate predicate, IterationType iterationType);
 
+    /**
+     * Queries all partitions and returns the values projected from the matching entries. Paging predicates are not allowed.
+     * - Does NOT accept PagingPredicate
+     * - Query executed in an Operation on each member (NOT in the calling thread)
+     * - The projection is applied on the members, only the projected values are sent back to the caller
+     * - Calls {@link #queryLocalPartitionsWithProjection(String, Predicate, Projection)} in an operation
+     *
+     * @param mapName    map name.
+     * @param predicate  except paging predicate.
+     * @param projection the projection to apply to the matching entries
+     * @return the QueryResult containing the serialized projected values as row values
+     */
+    QueryResult invokeQueryAllPartitionsWithProjection(String mapName, Predicate predicate, Projection projection);
+
     /**
      * Query all local partitions with a paging predicate.
      * <p>
@@ -123,4 +163,51 @@ public interface MapQueryEngine {
      * @return {@link SortedQueryResultSet}
      */
     Set queryAllPartitionsWithPagingPredicate(String mapName, PagingPredicate pagingPredicate, IterationType iterationType);
+
+    /**
+     * Aggregates the entries of all the local partitions matching the predicate.
+     * <p>
+     * - Uses Indexes
+     * - Does NOT accept PagingPredicate
+     * - Aggregation executed in the calling thread, the entries are accumulated in the given aggregator
+     * - partitionIds are not set on the AggregationResult if the aggregation is executed during migrations and the
+     * result cannot be retrieved safely, so callers will ignore the result and fallback to
+     * {@code AggregationPartitionOperation}s.
+     *
+     * @param mapName    map name.
+     * @param predicate  except paging predicate.
+     * @param aggregator the aggregator to accumulate the entries in
+     * @return the AggregationResult
+     */
+    AggregationResult aggregateLocalPartitions(String mapName, Predicate predicate, Aggregator aggregator);
+
+    /**
+     * Aggregates the entries of a specific local partition matching the predicate.
+     * <p>
+     * - Does NOT use Indexes
+     * - Sequential full table scan
+     * - Aggregation executed in the calling thread, the entries are accumulated in the given aggregator
+     *
+     * @param mapName     map name.
+     * @param predicate   except paging predicate.
+     * @param partitionId partition id.
+     * @param aggregator  the aggregator to accumulate the entries in
+     * @return the AggregationResult
+     */
+    AggregationResult aggregateLocalPartition(String mapName, Predicate predicate, int partitionId, Aggregator aggregator);
+
+    /**
+     * Aggregates the entries of all partitions matching the predicate.
+     * <p>
+     * - Does NOT accept PagingPredicate
+     * - Aggregation executed in an Operation on each member (NOT in the calling thread)
+     * - Calls {@link #aggregateLocalPartitions(String, Predicate, Aggregator)} in an operation
+     * - The given aggregator is not modified, copies of it are sent to the members
+     *
+     * @param mapName    map name.
+     * @param predicate  except paging predicate.
+     * @param aggregator the aggregator
+     * @return the aggregated result
+     */
+    <R> R invokeAggregateAllPartitions(String mapName, Predicate predicate, Aggregator<?, R> aggregator);
 }
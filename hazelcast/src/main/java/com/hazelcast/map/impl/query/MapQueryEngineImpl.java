@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.core.Member;
 import com.hazelcast.internal.cluster.ClusterService;
@@ -31,6 +32,7 @@ import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.Records;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.TruePredicate;
@@ -62,12 +64,14 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.query.PagingPredicateAccessor.getNearestAnchorEntry;
 import static com.hazelcast.spi.ExecutionService.QUERY_EXECUTOR;
 import static com.hazelcast.spi.properties.GroupProperty.QUERY_PREDICATE_PARALLEL_EVALUATION;
 import static com.hazelcast.util.ExceptionUtil.rethrow;
 import static com.hazelcast.util.FutureUtil.RETHROW_EVERYTHING;
 import static com.hazelcast.util.FutureUtil.returnWithDeadline;
+import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.SortingUtil.compareAnchor;
 import static com.hazelcast.util.SortingUtil.getSortedQueryResultSet;
 import static com.hazelcast.util.SortingUtil.getSortedSubList;
@@ -116,7 +120,17 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     @Override
     public QueryResult queryLocalPartitions(String mapName, Predicate predicate, IterationType iterationType)
             throws ExecutionException, InterruptedException {
+        return queryLocalPartitions(mapName, predicate, iterationType, null);
+    }
+
+    @Override
+    public QueryResult queryLocalPartitionsWithProjection(String mapName, Predicate predicate, Projection projection)
+            throws ExecutionException, InterruptedException {
+        return queryLocalPartitions(mapName, predicate, IterationType.VALUE, projection);
+    }
 
+    protected QueryResult queryLocalPartitions(String mapName, Predicate predicate, IterationType iterationType,
+                                               Projection projection) throws ExecutionException, InterruptedException {
         int initialPartitionStateVersion = partitionService.getPartitionStateVersion();
         Collection<Integer> initialPartitions = mapServiceContext.getOwnedPartitions();
         MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
@@ -127,17 +141,17 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         // then we try to run using an index, but if that doesn't work, we'll try a full table scan
         // This would be the point where a query-plan should be added. It should determine if a full table scan
         // or an index should be used.
-        QueryResult result = tryQueryUsingIndexes(predicate, initialPartitions, mapContainer, iterationType,
+        QueryResult result = tryQueryUsingIndexes(predicate, initialPartitions, mapContainer, iterationType, projection,
                 initialPartitionStateVersion);
         if (result == null) {
-            result = querySafelyUsingFullTableScan(mapName, predicate, initialPartitions, iterationType,
+            result = querySafelyUsingFullTableScan(mapName, predicate, initialPartitions, iterationType, projection,
                     initialPartitionStateVersion);
         }
 
         if (result == null) {
             // if fallback to full table scan also failed to return any results due to migrations,
             // then return empty result set without any partition IDs set (so that it is ignored by callers).
-            result = newQueryResult(initialPartitions.size(), iterationType);
+            result = newQueryResult(initialPartitions.size(), iterationType, projection);
         } else if (hasPartitionVersion(initialPartitionStateVersion, predicate)) {
             // if results have been returned and partition state version has not changed, set the partition IDs
             // so that caller is aware of partitions from which results were obtained.
@@ -150,7 +164,8 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     protected QueryResult tryQueryUsingIndexes(Predicate predicate, Collection<Integer> partitions, MapContainer mapContainer,
-                                               IterationType iterationType, int initialPartitionStateVersion) {
+                                               IterationType iterationType, Projection projection,
+                                               int initialPartitionStateVersion) {
 
         // if a migration is in progress, do not attempt to use an index as they may have not been created yet.
         // MapService.getMigrationsInFlight() returns the number of currently executing migrations (for which
@@ -166,7 +181,7 @@ public class MapQueryEngineImpl implements MapQueryEngine {
             return null;
         }
 
-        QueryResult result = newQueryResult(partitions.size(), iterationType);
+        QueryResult result = newQueryResult(partitions.size(), iterationType, projection);
         // If partition state version has changed in the meanwhile, this means migrations were executed and we may
         // return stale data, so we should rather return null and let the query run with a full table scan.
         // Also make sure there are no long migrations in flight which may have started after starting the query
@@ -187,8 +202,8 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     /**
-     * Wraps {@link #queryUsingFullTableScan(String, Predicate, Collection, IterationType)} to avoid returning potentially
-     * flawed results.
+     * Wraps {@link #queryUsingFullTableScan(String, Predicate, Collection, IterationType, Projection)} to avoid returning
+     * potentially flawed results.
      * <ul>
      *     <li>if owner partition migrations are executing before running the query, then return immediately {@code null}, as
      *     results cannot be reliably obtained</li>
@@ -200,22 +215,24 @@ public class MapQueryEngineImpl implements MapQueryEngine {
      * @param predicate
      * @param partitions
      * @param iterationType
+     * @param projection
      * @param initialPartitionStateVersion
      * @return query results or {@code null} if results are considered potentially flawed.
      * @throws InterruptedException
      * @throws ExecutionException
      */
     protected QueryResult querySafelyUsingFullTableScan(String name, Predicate predicate, Collection<Integer> partitions,
-                                                        IterationType iterationType, int initialPartitionStateVersion)
+                                                        IterationType iterationType, Projection projection,
+                                                        int initialPartitionStateVersion)
             throws InterruptedException, ExecutionException {
 
         QueryResult result;
 
-        if (hasOwnerMigrationsInFlight()) {
+        if (hasOwnerMigrationsInFlight() || !isScannableOutsidePartitionThreads(name)) {
             return null;
         }
 
-        result = queryUsingFullTableScan(name, predicate, partitions, iterationType);
+        result = queryUsingFullTableScan(name, predicate, partitions, iterationType, projection);
 
         // If partition state version has changed in the meanwhile, this means migrations were executed and we may
         // return stale data, so we should rather return null.
@@ -229,22 +246,22 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     protected QueryResult queryUsingFullTableScan(String name, Predicate predicate, Collection<Integer> partitions,
-                                                  IterationType iterationType)
+                                                  IterationType iterationType, Projection projection)
             throws InterruptedException, ExecutionException {
 
         if (predicate instanceof PagingPredicate) {
             return queryParallelForPaging(name, (PagingPredicate) predicate, partitions, iterationType);
         } else if (parallelEvaluation) {
-            return queryParallel(name, predicate, partitions, iterationType);
+            return queryParallel(name, predicate, partitions, iterationType, projection);
         } else {
-            return querySequential(name, predicate, partitions, iterationType);
+            return querySequential(name, predicate, partitions, iterationType, projection);
         }
     }
 
     protected QueryResult querySequential(String name, Predicate predicate, Collection<Integer> partitions,
-                                          IterationType iterationType) {
+                                          IterationType iterationType, Projection projection) {
 
-        QueryResult result = newQueryResult(partitions.size(), iterationType);
+        QueryResult result = newQueryResult(partitions.size(), iterationType, projection);
         RetryableHazelcastException storedException = null;
         for (Integer partitionId : partitions) {
             try {
@@ -266,8 +283,9 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     protected QueryResult queryParallel(String name, Predicate predicate, Collection<Integer> partitions,
-                                        IterationType iterationType) throws InterruptedException, ExecutionException {
-        QueryResult result = newQueryResult(partitions.size(), iterationType);
+                                        IterationType iterationType, Projection projection)
+            throws InterruptedException, ExecutionException {
+        QueryResult result = newQueryResult(partitions.size(), iterationType, projection);
 
         List<Future<Collection<QueryableEntry>>> futures
                 = new ArrayList<Future<Collection<QueryableEntry>>>(partitions.size());
@@ -353,6 +371,16 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         return getSortedSubList(resultList, pagingPredicate, nearestAnchorEntry);
     }
 
+    /**
+     * Checks if the record stores of the map may be scanned by a thread other than the partition thread, e.g. by a
+     * query thread or the generic thread running a {@link QueryOperation}. The records of a {@code NATIVE} map live in
+     * native memory which the partition thread may free at any time, so they may only be scanned by partition operations.
+     */
+    protected boolean isScannableOutsidePartitionThreads(String mapName) {
+        MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
+        return mapContainer.getMapConfig().getInMemoryFormat() != NATIVE;
+    }
+
     private boolean shouldUseCachedValue(MapContainer mapContainer) {
         CacheDeserializedValues cacheDeserializedValues = mapContainer.getMapConfig().getCacheDeserializedValues();
         switch (cacheDeserializedValues) {
@@ -368,8 +396,19 @@ public class MapQueryEngineImpl implements MapQueryEngine {
 
     @Override
     public QueryResult queryLocalPartition(String mapName, Predicate predicate, int partitionId, IterationType iterationType) {
+        return queryLocalPartition(mapName, predicate, partitionId, iterationType, null);
+    }
+
+    @Override
+    public QueryResult queryLocalPartitionWithProjection(String mapName, Predicate predicate, int partitionId,
+                                                         Projection projection) {
+        return queryLocalPartition(mapName, predicate, partitionId, IterationType.VALUE, projection);
+    }
+
+    protected QueryResult queryLocalPartition(String mapName, Predicate predicate, int partitionId, IterationType iterationType,
+                                              Projection projection) {
         Collection<QueryableEntry> queryableEntries = queryTheLocalPartition(mapName, predicate, partitionId);
-        QueryResult result = newQueryResult(1, iterationType);
+        QueryResult result = newQueryResult(1, iterationType, projection);
         result.addAll(queryableEntries);
         result.setPartitionIds(singletonList(partitionId));
         return result;
@@ -478,6 +517,17 @@ public class MapQueryEngineImpl implements MapQueryEngine {
 
     @Override
     public QueryResult invokeQueryAllPartitions(String mapName, Predicate predicate, IterationType iterationType) {
+        return invokeQueryAllPartitions(mapName, predicate, iterationType, null);
+    }
+
+    @Override
+    public QueryResult invokeQueryAllPartitionsWithProjection(String mapName, Predicate predicate, Projection projection) {
+        checkNotNull(projection, "projection should not be null");
+        return invokeQueryAllPartitions(mapName, predicate, IterationType.VALUE, projection);
+    }
+
+    protected QueryResult invokeQueryAllPartitions(String mapName, Predicate predicate, IterationType iterationType,
+                                                   Projection projection) {
         checkNotPagingPredicate(predicate);
         if (predicate == TruePredicate.INSTANCE) {
             queryResultSizeLimiter.checkMaxResultLimitOnLocalPartitions(mapName);
@@ -488,7 +538,7 @@ public class MapQueryEngineImpl implements MapQueryEngine {
 
         // query the local partitions
         try {
-            List<Future<QueryResult>> futures = queryOnMembers(mapName, predicate, iterationType);
+            List<Future<QueryResult>> futures = queryOnMembers(mapName, predicate, iterationType, projection);
             // modifies partitionIds list!
             addResultsOfPredicate(futures, result, partitionIds);
             if (partitionIds.isEmpty()) {
@@ -503,7 +553,7 @@ public class MapQueryEngineImpl implements MapQueryEngine {
 
         // query the remaining partitions that are not local to the member
         try {
-            List<Future<QueryResult>> futures = queryPartitions(mapName, predicate, partitionIds, iterationType);
+            List<Future<QueryResult>> futures = queryPartitions(mapName, predicate, partitionIds, iterationType, projection);
             addResultsOfPredicate(futures, result, partitionIds);
         } catch (Throwable t) {
             throw rethrow(t);
@@ -512,6 +562,162 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         return result;
     }
 
+    @Override
+    public AggregationResult aggregateLocalPartitions(String mapName, Predicate predicate, Aggregator aggregator) {
+        int initialPartitionStateVersion = partitionService.getPartitionStateVersion();
+        Collection<Integer> initialPartitions = mapServiceContext.getOwnedPartitions();
+        MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
+
+        predicate = queryOptimizer.optimize(predicate, mapContainer.getIndexes());
+
+        AggregationResult result = new AggregationResult(aggregator);
+        if (hasOwnerMigrationsInFlight()) {
+            // the result would be ignored anyway, so let the callers fall back to the partition operations
+            return result;
+        }
+
+        Set<QueryableEntry> entries = mapContainer.getIndexes().query(predicate);
+        if (entries != null) {
+            for (QueryableEntry entry : entries) {
+                aggregator.accumulate(entry);
+            }
+        } else if (!isScannableOutsidePartitionThreads(mapName)) {
+            // the result is ignored since it has no partition ids, so the callers fall back to the partition operations
+            return result;
+        } else {
+            for (Integer partitionId : initialPartitions) {
+                aggregateTheLocalPartition(mapName, predicate, partitionId, aggregator);
+            }
+        }
+        aggregator.onAccumulationFinished();
+
+        if (isResultSafe(initialPartitionStateVersion) && hasPartitionVersion(initialPartitionStateVersion, predicate)) {
+            result.setPartitionIds(initialPartitions);
+        }
+
+        updateStatistics(mapContainer);
+
+        return result;
+    }
+
+    @Override
+    public AggregationResult aggregateLocalPartition(String mapName, Predicate predicate, int partitionId,
+                                                     Aggregator aggregator) {
+        aggregateTheLocalPartition(mapName, predicate, partitionId, aggregator);
+        aggregator.onAccumulationFinished();
+
+        AggregationResult result = new AggregationResult(aggregator);
+        result.setPartitionIds(singletonList(partitionId));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void aggregateTheLocalPartition(String mapName, Predicate predicate, int partitionId, Aggregator aggregator) {
+        PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(partitionId);
+        MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
+        Iterator<Record> iterator = partitionContainer.getRecordStore(mapName).loadAwareIterator(getNow(), false);
+        boolean useCachedVersion = shouldUseCachedValue(mapContainer);
+        Extractors extractors = mapServiceContext.getExtractors(mapName);
+        // the aggregators don't keep references to the accumulated entries, so a single entry can be reused
+        CachedQueryEntry queryEntry = new CachedQueryEntry();
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            Object value = useCachedVersion ? Records.getValueOrCachedValue(record, serializationService) : record.getValue();
+            if (value == null) {
+                continue;
+            }
+            queryEntry.init(serializationService, record.getKey(), value, extractors);
+
+            if (predicate.apply(queryEntry)) {
+                aggregator.accumulate(queryEntry);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R invokeAggregateAllPartitions(String mapName, Predicate predicate, Aggregator<?, R> aggregator) {
+        checkNotPagingPredicate(predicate);
+
+        Set<Integer> partitionIds = getAllPartitionIds();
+        Aggregator<?, R> result = copyOf(aggregator);
+
+        // aggregate the local partitions of each member
+        try {
+            List<Future<AggregationResult>> futures = aggregateOnMembers(mapName, predicate, aggregator);
+            // modifies partitionIds list!
+            combineResultsOfAggregation(futures, result, partitionIds);
+        } catch (Throwable t) {
+            logger.warning("Could not get results", t);
+        }
+
+        // aggregate the remaining partitions one by one
+        if (!partitionIds.isEmpty()) {
+            try {
+                List<Future<AggregationResult>> futures = aggregatePartitions(mapName, predicate, partitionIds, aggregator);
+                combineResultsOfAggregation(futures, result, partitionIds);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        result.onCombinationFinished();
+        return result.aggregate();
+    }
+
+    protected List<Future<AggregationResult>> aggregateOnMembers(String mapName, Predicate predicate, Aggregator aggregator) {
+        Collection<Member> members = clusterService.getMembers(DATA_MEMBER_SELECTOR);
+        List<Future<AggregationResult>> futures = new ArrayList<Future<AggregationResult>>(members.size());
+        for (Member member : members) {
+            // local invocations don't serialize the operation, so each member gets its own copy of the aggregator
+            Operation operation = new AggregationOperation(mapName, predicate, copyOf(aggregator));
+            Future<AggregationResult> future = operationService.invokeOnTarget(MapService.SERVICE_NAME, operation,
+                    member.getAddress());
+            futures.add(future);
+        }
+        return futures;
+    }
+
+    protected List<Future<AggregationResult>> aggregatePartitions(String mapName, Predicate predicate,
+                                                                  Collection<Integer> partitionIds, Aggregator aggregator) {
+        List<Future<AggregationResult>> futures = new ArrayList<Future<AggregationResult>>(partitionIds.size());
+        for (Integer partitionId : partitionIds) {
+            Operation op = new AggregationPartitionOperation(mapName, predicate, copyOf(aggregator));
+            op.setPartitionId(partitionId);
+            Future<AggregationResult> future = operationService.invokeOnPartition(MapService.SERVICE_NAME, op, partitionId);
+            futures.add(future);
+        }
+        return futures;
+    }
+
+    /**
+     * Combines the aggregation results into the given aggregator and removes aggregated partition ids.
+     */
+    protected void combineResultsOfAggregation(List<Future<AggregationResult>> futures, Aggregator aggregator,
+                                               Collection<Integer> partitionIds) {
+        Collection<AggregationResult> results = returnWithDeadline(futures, QUERY_EXECUTION_TIMEOUT_MINUTES, MINUTES,
+                RETHROW_EVERYTHING);
+        for (AggregationResult aggregationResult : results) {
+            if (aggregationResult == null) {
+                continue;
+            }
+            Collection<Integer> aggregatedPartitionIds = aggregationResult.getPartitionIds();
+            if (aggregatedPartitionIds != null) {
+                if (!partitionIds.containsAll(aggregatedPartitionIds)) {
+                    // do not combine results that contain partition IDs already removed from partitionIds collection
+                    // as this means that we would aggregate a single partition twice
+                    continue;
+                }
+                partitionIds.removeAll(aggregatedPartitionIds);
+                aggregator.combine(aggregationResult.getAggregator());
+            }
+        }
+    }
+
+    protected <T> T copyOf(T object) {
+        return serializationService.toObject(serializationService.toData(object));
+    }
+
     /**
      * Creates a {@link QueryResult} with configured result limit (according to the number of partitions) if feature is enabled.
      *
@@ -522,6 +728,21 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         return new QueryResult(iterationType, queryResultSizeLimiter.getNodeResultLimit(numberOfPartitions));
     }
 
+    /**
+     * Creates a {@link QueryResult} with configured result limit (according to the number of partitions) if feature is enabled,
+     * containing the projected values of the added entries if a projection is given.
+     *
+     * @param numberOfPartitions number of partitions to calculate result limit
+     * @param projection         the projection to apply to the added entries, may be {@code null}
+     * @return {@link QueryResult}
+     */
+    protected QueryResult newQueryResult(int numberOfPartitions, IterationType iterationType, Projection projection) {
+        if (projection == null) {
+            return newQueryResult(numberOfPartitions, iterationType);
+        }
+        return new QueryResult(projection, serializationService, queryResultSizeLimiter.getNodeResultLimit(numberOfPartitions));
+    }
+
     protected void checkNotPagingPredicate(Predicate predicate) {
         if (predicate instanceof PagingPredicate) {
             throw new IllegalArgumentException("Predicate should not be a paging predicate");
@@ -534,10 +755,15 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     protected List<Future<QueryResult>> queryOnMembers(String mapName, Predicate predicate, IterationType iterationType) {
+        return queryOnMembers(mapName, predicate, iterationType, null);
+    }
+
+    protected List<Future<QueryResult>> queryOnMembers(String mapName, Predicate predicate, IterationType iterationType,
+                                                       Projection projection) {
         Collection<Member> members = clusterService.getMembers(DATA_MEMBER_SELECTOR);
         List<Future<QueryResult>> futures = new ArrayList<Future<QueryResult>>(members.size());
         for (Member member : members) {
-            Operation operation = new QueryOperation(mapName, predicate, iterationType);
+            Operation operation = new QueryOperation(mapName, predicate, iterationType, projection);
             Future<QueryResult> future = operationService.invokeOnTarget(MapService.SERVICE_NAME, operation, member.getAddress());
             futures.add(future);
         }
@@ -546,13 +772,18 @@ public class MapQueryEngineImpl implements MapQueryEngine {
 
     protected List<Future<QueryResult>> queryPartitions(String mapName, Predicate predicate,
                                                         Collection<Integer> partitionIds, IterationType iterationType) {
+        return queryPartitions(mapName, predicate, partitionIds, iterationType, null);
+    }
+
+    protected List<Future<QueryResult>> queryPartitions(String mapName, Predicate predicate, Collection<Integer> partitionIds,
+                                                        IterationType iterationType, Projection projection) {
         if (partitionIds == null || partitionIds.isEmpty()) {
             return Collections.emptyList();
         }
 
         List<Future<QueryResult>> futures = new ArrayList<Future<QueryResult>>(partitionIds.size());
         for (Integer partitionId : partitionIds) {
-            Operation op = new QueryPartitionOperation(mapName, predicate, iterationType);
+            Operation op = new QueryPartitionOperation(mapName, predicate, iterationType, projection);
             op.setPartitionId(partitionId);
             try {
                 Future<QueryResult> future = operationService
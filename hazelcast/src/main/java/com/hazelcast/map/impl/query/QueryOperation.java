@@ -21,6 +21,7 @@ import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.map.impl.operation.MapOperation;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.spi.ExceptionAction;
 import com.hazelcast.spi.ReadonlyOperation;
@@ -36,20 +37,30 @@ public class QueryOperation extends MapOperation implements ReadonlyOperation {
     private Predicate predicate;
     private QueryResult result;
     private IterationType iterationType;
+    private Projection projection;
 
     public QueryOperation() {
     }
 
     public QueryOperation(String mapName, Predicate predicate, IterationType iterationType) {
+        this(mapName, predicate, iterationType, null);
+    }
+
+    public QueryOperation(String mapName, Predicate predicate, IterationType iterationType, Projection projection) {
         super(mapName);
         this.predicate = predicate;
         this.iterationType = iterationType;
+        this.projection = projection;
     }
 
     @Override
     public void run() throws Exception {
         MapQueryEngine queryEngine = mapServiceContext.getMapQueryEngine(name);
-        result = queryEngine.queryLocalPartitions(name, predicate, iterationType);
+        if (projection == null) {
+            result = queryEngine.queryLocalPartitions(name, predicate, iterationType);
+        } else {
+            result = queryEngine.queryLocalPartitionsWithProjection(name, predicate, projection);
+        }
     }
 
     @Override
@@ -70,6 +81,7 @@ public class QueryOperation extends MapOperation implements ReadonlyOperation {
         super.writeInternal(out);
         out.writeObject(predicate);
         out.writeByte(iterationType.getId());
+        out.writeObject(projection);
     }
 
     @Override
@@ -77,6 +89,7 @@ public class QueryOperation extends MapOperation implements ReadonlyOperation {
         super.readInternal(in);
         predicate = in.readObject();
         iterationType = IterationType.getById(in.readByte());
+        projection = in.readObject();
     }
 
     @Override
@@ -20,32 +20,45 @@ import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.map.impl.operation.MapOperation;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.spi.PartitionAwareOperation;
 import com.hazelcast.spi.ReadonlyOperation;
+import com.hazelcast.spi.impl.LongRunningOperation;
 import com.hazelcast.util.IterationType;
 
 import java.io.IOException;
 
-public class QueryPartitionOperation extends MapOperation implements PartitionAwareOperation, ReadonlyOperation {
+public class QueryPartitionOperation extends MapOperation
+        implements PartitionAwareOperation, ReadonlyOperation, LongRunningOperation {
 
     private Predicate predicate;
     private QueryResult result;
     private IterationType iterationType;
+    private Projection projection;
 
     public QueryPartitionOperation() {
     }
 
     public QueryPartitionOperation(String mapName, Predicate predicate, IterationType iterationType) {
+        this(mapName, predicate, iterationType, null);
+    }
+
+    public QueryPartitionOperation(String mapName, Predicate predicate, IterationType iterationType, Projection projection) {
         super(mapName);
         this.predicate = predicate;
         this.iterationType = iterationType;
+        this.projection = projection;
     }
 
     @Override
     public void run() {
         MapQueryEngine queryEngine = mapServiceContext.getMapQueryEngine(name);
-        result = queryEngine.queryLocalPartition(name, predicate, getPartitionId(), iterationType);
+        if (projection == null) {
+            result = queryEngine.queryLocalPartition(name, predicate, getPartitionId(), iterationType);
+        } else {
+            result = queryEngine.queryLocalPartitionWithProjection(name, predicate, getPartitionId(), projection);
+        }
     }
 
     @Override
@@ -58,6 +71,7 @@ public class QueryPartitionOperation extends MapOperation implements PartitionAw
         super.writeInternal(out);
         out.writeObject(predicate);
         out.writeByte(iterationType.getId());
+        out.writeObject(projection);
     }
 
     @Override
@@ -65,6 +79,7 @@ public class QueryPartitionOperation extends MapOperation implements PartitionAw
         super.readInternal(in);
         predicate = in.readObject();
         iterationType = IterationType.getById(in.readByte());
+        projection = in.readObject();
     }
 
     @Override
@@ -22,7 +22,9 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.IterationType;
 
 import java.io.IOException;
@@ -47,6 +49,9 @@ public class QueryResult implements IdentifiedDataSerializable, Iterable<QueryRe
     private transient long resultSize;
     private IterationType iterationType;
 
+    private transient Projection projection;
+    private transient SerializationService serializationService;
+
     public QueryResult() {
         resultLimit = Long.MAX_VALUE;
     }
@@ -56,6 +61,19 @@ public class QueryResult implements IdentifiedDataSerializable, Iterable<QueryRe
         this.iterationType = iterationType;
     }
 
+    /**
+     * Creates a QueryResult whose rows contain the values projected from the added entries instead of the entries.
+     *
+     * @param projection           the projection to apply to the added entries
+     * @param serializationService the serialization service to serialize the projected values with
+     * @param resultLimit          the maximum number of rows
+     */
+    public QueryResult(Projection projection, SerializationService serializationService, long resultLimit) {
+        this(IterationType.VALUE, resultLimit);
+        this.projection = projection;
+        this.serializationService = serializationService;
+    }
+
     // for testing
     IterationType getIterationType() {
         return iterationType;
@@ -87,12 +105,18 @@ public class QueryResult implements IdentifiedDataSerializable, Iterable<QueryRe
         rows.add(row);
     }
 
+    @SuppressWarnings("unchecked")
     public void addAll(Collection<QueryableEntry> entries) {
         for (QueryableEntry entry : entries) {
             if (++resultSize > resultLimit) {
                 throw new QueryResultSizeExceededException();
             }
 
+            if (projection != null) {
+                rows.add(new QueryResultRow(null, serializationService.toData(projection.transform(entry))));
+                continue;
+            }
+
             Data key = null;
             Data value = null;
             switch (iterationType) {
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache;
+
+import com.hazelcast.map.impl.querycache.publisher.PublisherRegistry;
+import com.hazelcast.map.impl.querycache.subscriber.NodeQueryCache;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+
+/**
+ * Holds the {@link com.hazelcast.map.QueryCache QueryCache} related state of a member: the publishers
+ * feeding the query caches of the cluster and the query caches created on this member.
+ */
+public class QueryCacheContext {
+
+    private final PublisherRegistry publisherRegistry;
+    private final ConcurrentMap<String, ConcurrentMap<String, NodeQueryCache>> queryCachesByMap
+            = new ConcurrentHashMap<String, ConcurrentMap<String, NodeQueryCache>>();
+    private final ConstructorFunction<String, ConcurrentMap<String, NodeQueryCache>> queryCachesConstructor
+            = new ConstructorFunction<String, ConcurrentMap<String, NodeQueryCache>>() {
+        @Override
+        public ConcurrentMap<String, NodeQueryCache> createNew(String mapName) {
+            return new ConcurrentHashMap<String, NodeQueryCache>();
+        }
+    };
+
+    public QueryCacheContext(NodeEngine nodeEngine) {
+        this.publisherRegistry = new PublisherRegistry(nodeEngine);
+    }
+
+    public PublisherRegistry getPublisherRegistry() {
+        return publisherRegistry;
+    }
+
+    /**
+     * Returns the query cache with the given name of the map or creates it if it does not exist yet.
+     * The constructor is called outside of any lock and may be called more than once concurrently,
+     * the query caches which lose the race are destroyed.
+     */
+    public NodeQueryCache getOrCreateQueryCache(String mapName, String cacheName,
+                                                ConstructorFunction<String, NodeQueryCache> constructor) {
+        ConcurrentMap<String, NodeQueryCache> queryCaches = getOrPutIfAbsent(queryCachesByMap, mapName, queryCachesConstructor);
+        NodeQueryCache queryCache = queryCaches.get(cacheName);
+        if (queryCache != null) {
+            return queryCache;
+        }
+        queryCache = constructor.createNew(cacheName);
+        NodeQueryCache existing = queryCaches.putIfAbsent(cacheName, queryCache);
+        if (existing != null) {
+            queryCache.destroy();
+            return existing;
+        }
+        return queryCache;
+    }
+
+    public NodeQueryCache getQueryCache(String mapName, String cacheName) {
+        ConcurrentMap<String, NodeQueryCache> queryCaches = queryCachesByMap.get(mapName);
+        return queryCaches == null ? null : queryCaches.get(cacheName);
+    }
+
+    public void removeQueryCache(String mapName, String cacheName, NodeQueryCache queryCache) {
+        ConcurrentMap<String, NodeQueryCache> queryCaches = queryCachesByMap.get(mapName);
+        if (queryCaches != null) {
+            queryCaches.remove(cacheName, queryCache);
+        }
+    }
+
+    /**
+     * Forgets the publishers and the local query caches of a destroyed map.
+     */
+    public void destroy(String mapName) {
+        publisherRegistry.removeMap(mapName);
+        queryCachesByMap.remove(mapName);
+    }
+
+    public void reset() {
+        publisherRegistry.reset();
+        queryCachesByMap.clear();
+    }
+}
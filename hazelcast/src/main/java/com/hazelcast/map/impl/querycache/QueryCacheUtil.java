@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache;
+
+import com.hazelcast.config.PredicateConfig;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.query.TruePredicate;
+
+import static com.hazelcast.nio.ClassLoaderUtil.newInstance;
+import static com.hazelcast.util.ExceptionUtil.rethrow;
+
+/**
+ * Utility methods shared by the member and client side {@link com.hazelcast.map.QueryCache QueryCache} implementations.
+ */
+public final class QueryCacheUtil {
+
+    private QueryCacheUtil() {
+    }
+
+    /**
+     * Resolves the predicate of a query cache from its configuration: the predicate implementation, the predicate
+     * class name or the SQL predicate, in that order. A query cache without a configured predicate holds all entries.
+     */
+    public static Predicate getPredicate(PredicateConfig predicateConfig, ClassLoader classLoader) {
+        if (predicateConfig.getImplementation() != null) {
+            return predicateConfig.getImplementation();
+        }
+        if (predicateConfig.getClassName() != null) {
+            try {
+                return newInstance(classLoader, predicateConfig.getClassName());
+            } catch (Exception e) {
+                throw rethrow(e);
+            }
+        }
+        if (predicateConfig.getSql() != null) {
+            return new SqlPredicate(predicateConfig.getSql());
+        }
+        return TruePredicate.INSTANCE;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.event;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carries a batch of sequenced {@link QueryCacheEventData} of a single partition from a publisher
+ * to the subscriber of a {@link com.hazelcast.map.QueryCache QueryCache}.
+ */
+public class BatchEventData implements IdentifiedDataSerializable {
+
+    private String cacheId;
+    private int partitionId;
+    private long accumulatorId;
+    private List<QueryCacheEventData> events;
+
+    public BatchEventData() {
+    }
+
+    public BatchEventData(String cacheId, int partitionId, long accumulatorId, List<QueryCacheEventData> events) {
+        this.cacheId = cacheId;
+        this.partitionId = partitionId;
+        this.accumulatorId = accumulatorId;
+        this.events = events;
+    }
+
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    /**
+     * Returns the id of the accumulator which assigned the sequences of the events in this batch.
+     */
+    public long getAccumulatorId() {
+        return accumulatorId;
+    }
+
+    /**
+     * Returns the events of this batch ordered by their sequence.
+     */
+    public List<QueryCacheEventData> getEvents() {
+        return events;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(cacheId);
+        out.writeInt(partitionId);
+        out.writeLong(accumulatorId);
+        out.writeInt(events.size());
+        for (QueryCacheEventData event : events) {
+            event.writeData(out);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        cacheId = in.readUTF();
+        partitionId = in.readInt();
+        accumulatorId = in.readLong();
+        int size = in.readInt();
+        events = new ArrayList<QueryCacheEventData>(size);
+        for (int i = 0; i < size; i++) {
+            DefaultQueryCacheEventData event = new DefaultQueryCacheEventData();
+            event.readData(in);
+            events.add(event);
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.QUERY_CACHE_BATCH_EVENT;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchEventData{"
+                + "cacheId='" + cacheId + '\''
+                + ", partitionId=" + partitionId
+                + ", accumulatorId=" + accumulatorId
+                + ", size=" + events.size()
+                + '}';
+    }
+}
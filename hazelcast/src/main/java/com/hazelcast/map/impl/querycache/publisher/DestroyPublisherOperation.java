@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.operation.MapOperation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+/**
+ * Removes the publisher of a destroyed query cache from a member.
+ */
+public class DestroyPublisherOperation extends MapOperation {
+
+    private String cacheId;
+
+    public DestroyPublisherOperation() {
+    }
+
+    public DestroyPublisherOperation(String mapName, String cacheId) {
+        super(mapName);
+        this.cacheId = cacheId;
+    }
+
+    @Override
+    public void run() {
+        PublisherRegistry publisherRegistry = mapServiceContext.getQueryCacheContext().getPublisherRegistry();
+        publisherRegistry.remove(name, cacheId);
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeUTF(cacheId);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        cacheId = in.readUTF();
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.DESTROY_PUBLISHER;
+    }
+}
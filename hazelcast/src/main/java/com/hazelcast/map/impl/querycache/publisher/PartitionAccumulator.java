@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Sequences and buffers the {@link QueryCacheEventData} of one partition for one publisher.
+ * <p/>
+ * Events are kept in a ring buffer of fixed capacity and every event gets the next sequence number of this accumulator.
+ * The events which were already sent stay in the buffer until they are overwritten, so that a subscriber which
+ * detected a gap in the sequence can ask to re-read them, see {@link #setReadCursor(long)}.
+ * <p/>
+ * When coalescing is enabled, a new event for a key which still has an unsent event in the buffer replaces that
+ * event in place and keeps its sequence and its pending time, so only the latest change of the key is sent and a
+ * frequently updated key does not postpone its batch. An event without a key, e.g. a clear of the map, is never
+ * coalesced and older events are not coalesced across it, since that would reorder them.
+ * <p/>
+ * Every accumulator has a random id; a subscriber can detect that the sequence of a partition was restarted,
+ * for example after a migration, by observing a new id.
+ */
+public class PartitionAccumulator {
+
+    private final long id;
+    private final boolean coalesce;
+    private final QueryCacheEventData[] buffer;
+    // the creation time of the first event accumulated for each sequence, kept when coalescing
+    private final long[] pendingSince;
+    private final Map<Data, Long> unsentSequences;
+
+    // sequence of the last accumulated event, sequences start from 1
+    private long headSequence;
+    // sequence of the last event handed out by drain
+    private long readSequence;
+
+    public PartitionAccumulator(long id, int capacity, boolean coalesce) {
+        checkPositive(capacity, "capacity should be positive");
+        this.id = id;
+        this.coalesce = coalesce;
+        this.buffer = new QueryCacheEventData[capacity];
+        this.pendingSince = new long[capacity];
+        this.unsentSequences = coalesce ? new HashMap<Data, Long>() : null;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Adds the event to this accumulator and assigns its sequence.
+     *
+     * @return number of events which are waiting to be sent
+     */
+    public synchronized int accumulate(QueryCacheEventData event) {
+        Data key = event.getDataKey();
+        if (coalesce && key == null) {
+            unsentSequences.clear();
+        } else if (coalesce) {
+            Long unsentSequence = unsentSequences.get(key);
+            if (unsentSequence != null) {
+                event.setSequence(unsentSequence);
+                buffer[indexOf(unsentSequence)] = event;
+                return pendingCount();
+            }
+        }
+
+        long sequence = ++headSequence;
+        event.setSequence(sequence);
+        int index = indexOf(sequence);
+        if (coalesce) {
+            forgetUnsent(buffer[index]);
+        }
+        buffer[index] = event;
+        pendingSince[index] = event.getCreationTime();
+
+        // unsent events which were just overwritten are lost, the subscriber will observe a gap in the sequence
+        long oldestAvailable = sequence - buffer.length + 1;
+        if (readSequence < oldestAvailable - 1) {
+            readSequence = oldestAvailable - 1;
+        }
+        if (coalesce && key != null) {
+            unsentSequences.put(key, sequence);
+        }
+        return pendingCount();
+    }
+
+    /**
+     * Returns the next batch of unsent events if it is due: either there are at least {@code batchSize} events waiting
+     * or the oldest waiting sequence has been pending for {@code delayMillis}.
+     *
+     * @return the events in sequence order or {@code null} if there is nothing to send yet
+     */
+    public synchronized List<QueryCacheEventData> drain(int batchSize, long delayMillis, long now) {
+        int pending = pendingCount();
+        if (pending == 0) {
+            return null;
+        }
+        if (pending < batchSize) {
+            if (now - pendingSince[indexOf(readSequence + 1)] < delayMillis) {
+                return null;
+            }
+        }
+
+        int count = Math.min(pending, batchSize);
+        List<QueryCacheEventData> batch = new ArrayList<QueryCacheEventData>(count);
+        for (int i = 0; i < count; i++) {
+            QueryCacheEventData event = buffer[indexOf(++readSequence)];
+            if (coalesce) {
+                forgetUnsent(event);
+            }
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    /**
+     * Moves the read cursor back, so that the events starting from {@code sequence} are sent again.
+     *
+     * @return {@code false} if the event with the given sequence is no longer in the buffer
+     */
+    public synchronized boolean setReadCursor(long sequence) {
+        long oldestAvailable = Math.max(1, headSequence - buffer.length + 1);
+        if (sequence < oldestAvailable || sequence > headSequence + 1) {
+            return false;
+        }
+        readSequence = sequence - 1;
+        return true;
+    }
+
+    public synchronized int pendingCount() {
+        return (int) (headSequence - readSequence);
+    }
+
+    public synchronized long getHeadSequence() {
+        return headSequence;
+    }
+
+    private void forgetUnsent(QueryCacheEventData event) {
+        if (event == null || event.getDataKey() == null) {
+            return;
+        }
+        Long sequence = unsentSequences.get(event.getDataKey());
+        if (sequence != null && sequence == event.getSequence()) {
+            unsentSequences.remove(event.getDataKey());
+        }
+    }
+
+    private int indexOf(long sequence) {
+        return (int) ((sequence - 1) % buffer.length);
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionAccumulator{"
+                + "id=" + id
+                + ", headSequence=" + headSequence
+                + ", readSequence=" + readSequence
+                + ", capacity=" + buffer.length
+                + '}';
+    }
+}
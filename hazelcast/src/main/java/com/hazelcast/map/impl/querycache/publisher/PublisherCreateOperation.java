@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.operation.MapOperation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+/**
+ * Creates the publisher of a query cache on a member. The created publisher accumulates events
+ * but does not send them until it is made publishable by {@link MadePublishableOperation}.
+ */
+public class PublisherCreateOperation extends MapOperation {
+
+    private PublisherInfo info;
+
+    public PublisherCreateOperation() {
+    }
+
+    public PublisherCreateOperation(PublisherInfo info) {
+        super(info.getMapName());
+        this.info = info;
+    }
+
+    @Override
+    public void run() {
+        PublisherRegistry publisherRegistry = mapServiceContext.getQueryCacheContext().getPublisherRegistry();
+        publisherRegistry.getOrCreate(info);
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        info.writeData(out);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        info = new PublisherInfo();
+        info.readData(in);
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.PUBLISHER_CREATE;
+    }
+}
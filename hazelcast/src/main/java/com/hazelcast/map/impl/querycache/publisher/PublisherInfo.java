@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.query.Predicate;
+
+import java.io.IOException;
+
+/**
+ * Describes a publisher of a {@link com.hazelcast.map.QueryCache QueryCache}: which map it listens to,
+ * which entries it is interested in and how events should be buffered before they are sent to the subscriber.
+ */
+public class PublisherInfo implements DataSerializable {
+
+    private String mapName;
+    private String cacheId;
+    private Predicate predicate;
+    private boolean includeValue;
+    private boolean coalesce;
+    private int batchSize;
+    private int bufferSize;
+    private int delaySeconds;
+
+    public PublisherInfo() {
+    }
+
+    public PublisherInfo(String mapName, String cacheId, Predicate predicate, boolean includeValue,
+                         QueryCacheConfig config) {
+        this.mapName = mapName;
+        this.cacheId = cacheId;
+        this.predicate = predicate;
+        this.includeValue = includeValue;
+        this.coalesce = config.isCoalesce();
+        this.batchSize = config.getBatchSize();
+        this.bufferSize = config.getBufferSize();
+        this.delaySeconds = config.getDelaySeconds();
+    }
+
+    public String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * Returns the cluster wide unique id of the query cache, this is also the topic which subscribers listen to.
+     */
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    public boolean isIncludeValue() {
+        return includeValue;
+    }
+
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getDelaySeconds() {
+        return delaySeconds;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        out.writeUTF(cacheId);
+        out.writeObject(predicate);
+        out.writeBoolean(includeValue);
+        out.writeBoolean(coalesce);
+        out.writeInt(batchSize);
+        out.writeInt(bufferSize);
+        out.writeInt(delaySeconds);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        mapName = in.readUTF();
+        cacheId = in.readUTF();
+        predicate = in.readObject();
+        includeValue = in.readBoolean();
+        coalesce = in.readBoolean();
+        batchSize = in.readInt();
+        bufferSize = in.readInt();
+        delaySeconds = in.readInt();
+    }
+
+    @Override
+    public String toString() {
+        return "PublisherInfo{"
+                + "mapName='" + mapName + '\''
+                + ", cacheId='" + cacheId + '\''
+                + ", predicate=" + predicate
+                + ", includeValue=" + includeValue
+                + ", coalesce=" + coalesce
+                + ", batchSize=" + batchSize
+                + ", bufferSize=" + bufferSize
+                + ", delaySeconds=" + delaySeconds
+                + '}';
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Keeps all {@link QueryCachePublisher} instances of this member, grouped by map name.
+ * <p/>
+ * Also periodically sweeps the publishers to send the events which were held back by the batching
+ * and delay settings of their query caches.
+ */
+public class PublisherRegistry {
+
+    private static final String SWEEPER_EXECUTOR = "hz:query-cache-publisher";
+    private static final long SWEEP_PERIOD_MILLIS = 1000;
+
+    private final NodeEngine nodeEngine;
+    private final ConcurrentMap<String, ConcurrentMap<String, QueryCachePublisher>> publishersByMap
+            = new ConcurrentHashMap<String, ConcurrentMap<String, QueryCachePublisher>>();
+    private final ConstructorFunction<String, ConcurrentMap<String, QueryCachePublisher>> publishersConstructor
+            = new ConstructorFunction<String, ConcurrentMap<String, QueryCachePublisher>>() {
+        @Override
+        public ConcurrentMap<String, QueryCachePublisher> createNew(String mapName) {
+            return new ConcurrentHashMap<String, QueryCachePublisher>();
+        }
+    };
+    private final AtomicBoolean sweeperStarted = new AtomicBoolean();
+
+    public PublisherRegistry(NodeEngine nodeEngine) {
+        this.nodeEngine = nodeEngine;
+    }
+
+    public QueryCachePublisher getOrCreate(PublisherInfo info) {
+        ConcurrentMap<String, QueryCachePublisher> publishers
+                = getOrPutIfAbsent(publishersByMap, info.getMapName(), publishersConstructor);
+        QueryCachePublisher publisher = publishers.get(info.getCacheId());
+        if (publisher == null) {
+            int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+            publisher = new QueryCachePublisher(info, nodeEngine.getEventService(), partitionCount);
+            QueryCachePublisher existing = publishers.putIfAbsent(info.getCacheId(), publisher);
+            if (existing != null) {
+                return existing;
+            }
+            startSweeper();
+        }
+        return publisher;
+    }
+
+    public QueryCachePublisher get(String mapName, String cacheId) {
+        ConcurrentMap<String, QueryCachePublisher> publishers = publishersByMap.get(mapName);
+        return publishers == null ? null : publishers.get(cacheId);
+    }
+
+    /**
+     * Returns the publishers of the map, the returned collection is a live view.
+     */
+    public Collection<QueryCachePublisher> getPublishers(String mapName) {
+        ConcurrentMap<String, QueryCachePublisher> publishers = publishersByMap.get(mapName);
+        if (publishers == null) {
+            return Collections.emptyList();
+        }
+        return publishers.values();
+    }
+
+    public boolean hasPublisher(String mapName) {
+        ConcurrentMap<String, QueryCachePublisher> publishers = publishersByMap.get(mapName);
+        return publishers != null && !publishers.isEmpty();
+    }
+
+    public List<QueryCachePublisher> getAllPublishers() {
+        List<QueryCachePublisher> all = new ArrayList<QueryCachePublisher>();
+        for (ConcurrentMap<String, QueryCachePublisher> publishers : publishersByMap.values()) {
+            all.addAll(publishers.values());
+        }
+        return all;
+    }
+
+    public QueryCachePublisher remove(String mapName, String cacheId) {
+        ConcurrentMap<String, QueryCachePublisher> publishers = publishersByMap.get(mapName);
+        return publishers == null ? null : publishers.remove(cacheId);
+    }
+
+    public void removeMap(String mapName) {
+        publishersByMap.remove(mapName);
+    }
+
+    /**
+     * Flushes and drops the accumulators of the partition, called when this member is no longer its owner.
+     */
+    public void removePartition(int partitionId) {
+        for (ConcurrentMap<String, QueryCachePublisher> publishers : publishersByMap.values()) {
+            for (QueryCachePublisher publisher : publishers.values()) {
+                publisher.removePartition(partitionId);
+            }
+        }
+    }
+
+    public void reset() {
+        publishersByMap.clear();
+    }
+
+    private void startSweeper() {
+        if (!sweeperStarted.compareAndSet(false, true)) {
+            return;
+        }
+        ExecutionService executionService = nodeEngine.getExecutionService();
+        executionService.scheduleWithRepetition(SWEEPER_EXECUTOR, new Runnable() {
+            @Override
+            public void run() {
+                for (ConcurrentMap<String, QueryCachePublisher> publishers : publishersByMap.values()) {
+                    for (QueryCachePublisher publisher : publishers.values()) {
+                        publisher.sweep();
+                    }
+                }
+            }
+        }, SWEEP_PERIOD_MILLIS, SWEEP_PERIOD_MILLIS, MILLISECONDS);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.spi.EventRegistration;
+import com.hazelcast.spi.EventService;
+import com.hazelcast.util.Clock;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+import static com.hazelcast.util.CollectionUtil.isEmpty;
+import static com.hazelcast.util.UuidUtil.newUnsecureUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Member side counterpart of a {@link com.hazelcast.map.QueryCache QueryCache}.
+ * <p/>
+ * Holds one {@link PartitionAccumulator} per partition which had a matching event on this member and sends
+ * the accumulated events to the subscriber in batches. A publisher only starts sending after it was made
+ * publishable, this allows the subscriber to populate its contents first without missing any event.
+ */
+public class QueryCachePublisher {
+
+    private final PublisherInfo info;
+    private final EventService eventService;
+    private final long delayMillis;
+    private final AtomicReferenceArray<PartitionAccumulator> accumulators;
+
+    private volatile boolean publishable;
+
+    public QueryCachePublisher(PublisherInfo info, EventService eventService, int partitionCount) {
+        this.info = info;
+        this.eventService = eventService;
+        this.delayMillis = SECONDS.toMillis(info.getDelaySeconds());
+        this.accumulators = new AtomicReferenceArray<PartitionAccumulator>(partitionCount);
+    }
+
+    public PublisherInfo getInfo() {
+        return info;
+    }
+
+    public boolean isPublishable() {
+        return publishable;
+    }
+
+    public void setPublishable(boolean publishable) {
+        this.publishable = publishable;
+    }
+
+    /**
+     * Accumulates the event in the accumulator of its partition and sends the events of that partition if they are due.
+     * Called on the partition thread of the event.
+     */
+    public void addEvent(QueryCacheEventData event) {
+        int partitionId = event.getPartitionId();
+        PartitionAccumulator accumulator = getOrCreateAccumulator(partitionId);
+        accumulator.accumulate(event);
+        if (publishable) {
+            flush(accumulator, partitionId, delayMillis);
+        }
+    }
+
+    /**
+     * Sends the events of all partitions which are due because of their age.
+     */
+    public void sweep() {
+        if (!publishable) {
+            return;
+        }
+        for (int partitionId = 0; partitionId < accumulators.length(); partitionId++) {
+            PartitionAccumulator accumulator = accumulators.get(partitionId);
+            if (accumulator != null) {
+                flush(accumulator, partitionId, delayMillis);
+            }
+        }
+    }
+
+    /**
+     * Rewinds the accumulator of the partition to replay the events starting from the given sequence.
+     *
+     * @return {@code false} if the accumulator was restarted in the meantime or the event is no longer buffered
+     */
+    public boolean setReadCursor(int partitionId, long accumulatorId, long sequence) {
+        PartitionAccumulator accumulator = accumulators.get(partitionId);
+        if (accumulator == null || accumulator.getId() != accumulatorId) {
+            return false;
+        }
+        if (!accumulator.setReadCursor(sequence)) {
+            return false;
+        }
+        if (publishable) {
+            flush(accumulator, partitionId, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Sends everything accumulated for the partition and forgets its accumulator.
+     * Called when this member is no longer the owner of the partition.
+     */
+    public void removePartition(int partitionId) {
+        PartitionAccumulator accumulator = accumulators.getAndSet(partitionId, null);
+        if (accumulator != null && publishable) {
+            flush(accumulator, partitionId, 0);
+        }
+    }
+
+    private PartitionAccumulator getOrCreateAccumulator(int partitionId) {
+        PartitionAccumulator accumulator = accumulators.get(partitionId);
+        if (accumulator == null) {
+            long accumulatorId = newUnsecureUUID().getMostSignificantBits();
+            accumulator = new PartitionAccumulator(accumulatorId, info.getBufferSize(), info.isCoalesce());
+            if (!accumulators.compareAndSet(partitionId, null, accumulator)) {
+                accumulator = accumulators.get(partitionId);
+            }
+        }
+        return accumulator;
+    }
+
+    private void flush(PartitionAccumulator accumulator, int partitionId, long delayMillis) {
+        // drained batches are published under the accumulator lock, otherwise a concurrent sweep could
+        // publish a later batch of the partition before an earlier one
+        synchronized (accumulator) {
+            long now = Clock.currentTimeMillis();
+            List<QueryCacheEventData> batch;
+            while ((batch = accumulator.drain(info.getBatchSize(), delayMillis, now)) != null) {
+                publish(new BatchEventData(info.getCacheId(), partitionId, accumulator.getId(), batch), partitionId);
+            }
+        }
+    }
+
+    private void publish(BatchEventData batchEventData, int partitionId) {
+        Collection<EventRegistration> registrations = eventService.getRegistrations(SERVICE_NAME, info.getCacheId());
+        if (isEmpty(registrations)) {
+            return;
+        }
+        eventService.publishEvent(SERVICE_NAME, registrations, batchEventData, partitionId);
+    }
+}
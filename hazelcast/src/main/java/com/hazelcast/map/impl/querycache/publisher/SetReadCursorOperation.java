@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.operation.MapOperation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.PartitionAwareOperation;
+
+import java.io.IOException;
+
+/**
+ * Rewinds the accumulator of a partition so that the events starting from the given sequence are sent again.
+ * Used by a subscriber to recover from lost events, responds with {@code false} if recovery is not possible.
+ */
+public class SetReadCursorOperation extends MapOperation implements PartitionAwareOperation {
+
+    private String cacheId;
+    private long accumulatorId;
+    private long sequence;
+    private boolean result;
+
+    public SetReadCursorOperation() {
+    }
+
+    public SetReadCursorOperation(String mapName, String cacheId, long accumulatorId, long sequence) {
+        super(mapName);
+        this.cacheId = cacheId;
+        this.accumulatorId = accumulatorId;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public void run() {
+        PublisherRegistry publisherRegistry = mapServiceContext.getQueryCacheContext().getPublisherRegistry();
+        QueryCachePublisher publisher = publisherRegistry.get(name, cacheId);
+        result = publisher != null && publisher.setReadCursor(getPartitionId(), accumulatorId, sequence);
+    }
+
+    @Override
+    public Object getResponse() {
+        return result;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeUTF(cacheId);
+        out.writeLong(accumulatorId);
+        out.writeLong(sequence);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        cacheId = in.readUTF();
+        accumulatorId = in.readLong();
+        sequence = in.readLong();
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.SET_READ_CURSOR;
+    }
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.subscriber;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.core.IMapEvent;
+import com.hazelcast.core.MapEvent;
+import com.hazelcast.core.Member;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.map.impl.DataAwareEntryEvent;
+import com.hazelcast.map.impl.ListenerAdapter;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.map.listener.MapListener;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
+import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.UuidUtil.newUnsecureUuidString;
+import static java.util.Collections.unmodifiableCollection;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Base class of {@link QueryCache} implementations which keeps the contents and the local listeners of the cache.
+ * <p/>
+ * The contents are keyed by the serialized key. Values are kept in the {@link InMemoryFormat} of the
+ * {@link QueryCacheConfig}; when the cache does not include values only the keys are kept. Subclasses feed the
+ * contents by {@link #applyEvent(QueryCacheEventData)} and {@link #putInternal(Data, Data, boolean)}.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public abstract class AbstractQueryCache<K, V> implements QueryCache<K, V> {
+
+    protected static final String NULL_KEY_IS_NOT_ALLOWED = "Null key is not allowed!";
+    protected static final String NULL_LISTENER_IS_NOT_ALLOWED = "Null listener is not allowed!";
+    protected static final String NULL_PREDICATE_IS_NOT_ALLOWED = "Predicate should not be null!";
+
+    // marks an entry of a cache which does not include values, ConcurrentHashMap does not allow null values
+    private static final Object NO_VALUE = new Object();
+
+    protected final String name;
+    protected final String mapName;
+    protected final Predicate predicate;
+    protected final boolean includeValue;
+    protected final InternalSerializationService serializationService;
+
+    private final boolean objectFormat;
+    private final Extractors extractors;
+    private final Indexes indexes;
+    private final ConcurrentMap<Data, Object> store = new ConcurrentHashMap<Data, Object>();
+    private final ConcurrentMap<String, ListenerRegistration> listeners = new ConcurrentHashMap<String, ListenerRegistration>();
+
+    protected AbstractQueryCache(String name, String mapName, QueryCacheConfig config, Predicate predicate,
+                                 boolean includeValue, InternalSerializationService serializationService,
+                                 Extractors extractors) {
+        this.name = name;
+        this.mapName = mapName;
+        this.predicate = predicate;
+        this.includeValue = includeValue;
+        this.serializationService = serializationService;
+        this.objectFormat = config.getInMemoryFormat() == InMemoryFormat.OBJECT;
+        this.extractors = extractors;
+        this.indexes = new Indexes(serializationService, extractors);
+        for (MapIndexConfig indexConfig : config.getIndexConfigs()) {
+            if (indexConfig.getAttribute() != null) {
+                indexes.addOrGetIndex(indexConfig.getAttribute(), indexConfig.isOrdered());
+            }
+        }
+    }
+
+    /**
+     * Returns the member which the events fired to the local listeners originate from.
+     */
+    protected abstract Member getEventSourceMember();
+
+    protected abstract int getPartitionId(Data key);
+
+    @Override
+    public V get(Object key) {
+        checkNotNull(key, NULL_KEY_IS_NOT_ALLOWED);
+        return toValue(store.get(toData(key)));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        checkNotNull(key, NULL_KEY_IS_NOT_ALLOWED);
+        return store.containsKey(toData(key));
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        checkNotNull(value, "Null value is not allowed!");
+        for (Object storedValue : store.values()) {
+            if (value.equals(toValue(storedValue))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void addIndex(String attribute, boolean ordered) {
+        checkNotNull(attribute, "Attribute should not be null!");
+        indexes.addOrGetIndex(attribute, ordered);
+        if (!includeValue) {
+            return;
+        }
+        for (Map.Entry<Data, Object> entry : store.entrySet()) {
+            indexes.saveEntryIndex(newQueryEntry(entry.getKey(), entry.getValue()), null);
+        }
+    }
+
+    @Override
+    public Map<K, V> getAll(Set<K> keys) {
+        checkNotNull(keys, "Null keys collection is not allowed!");
+        Map<K, V> result = new HashMap<K, V>(keys.size());
+        for (K key : keys) {
+            Object storedValue = store.get(toData(key));
+            if (storedValue != null) {
+                result.put(key, this.<V>toValue(storedValue));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<K>(store.size());
+        for (Data key : store.keySet()) {
+            keys.add(serializationService.<K>toObject(key));
+        }
+        return unmodifiableSet(keys);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<K> keySet(Predicate predicate) {
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        Set<K> keys = new HashSet<K>();
+        for (QueryableEntry entry : query(predicate)) {
+            keys.add((K) entry.getKey());
+        }
+        return unmodifiableSet(keys);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> entries = new HashSet<Map.Entry<K, V>>(store.size());
+        for (Map.Entry<Data, Object> entry : store.entrySet()) {
+            K key = serializationService.toObject(entry.getKey());
+            V value = toValue(entry.getValue());
+            entries.add(new AbstractMap.SimpleImmutableEntry<K, V>(key, value));
+        }
+        return unmodifiableSet(entries);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Map.Entry<K, V>> entrySet(Predicate predicate) {
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        Set<Map.Entry<K, V>> entries = new HashSet<Map.Entry<K, V>>();
+        for (QueryableEntry entry : query(predicate)) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<K, V>((K) entry.getKey(), (V) entry.getValue()));
+        }
+        return unmodifiableSet(entries);
+    }
+
+    @Override
+    public Collection<V> values() {
+        List<V> values = new ArrayList<V>(store.size());
+        for (Object storedValue : store.values()) {
+            values.add(this.<V>toValue(storedValue));
+        }
+        return unmodifiableCollection(values);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<V> values(Predicate predicate) {
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        List<V> values = new ArrayList<V>();
+        for (QueryableEntry entry : query(predicate)) {
+            values.add((V) entry.getValue());
+        }
+        return unmodifiableCollection(values);
+    }
+
+    @Override
+    public String addEntryListener(MapListener listener, boolean includeValue) {
+        return addListenerInternal(listener, null, null, includeValue);
+    }
+
+    @Override
+    public String addEntryListener(MapListener listener, K key, boolean includeValue) {
+        checkNotNull(key, NULL_KEY_IS_NOT_ALLOWED);
+        return addListenerInternal(listener, toData(key), null, includeValue);
+    }
+
+    @Override
+    public String addEntryListener(MapListener listener, Predicate<K, V> predicate, boolean includeValue) {
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        return addListenerInternal(listener, null, predicate, includeValue);
+    }
+
+    @Override
+    public String addEntryListener(MapListener listener, Predicate<K, V> predicate, K key, boolean includeValue) {
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        checkNotNull(key, NULL_KEY_IS_NOT_ALLOWED);
+        return addListenerInternal(listener, toData(key), predicate, includeValue);
+    }
+
+    @Override
+    public boolean removeEntryListener(String id) {
+        checkNotNull(id, "Listener id should not be null!");
+        return listeners.remove(id) != null;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Registers a listener which is notified of the changes of this cache, the listener can be any
+     * {@link MapListener} or {@link com.hazelcast.core.EntryListener}.
+     */
+    public String addListenerInternal(Object listener, Data key, Predicate predicate, boolean includeValue) {
+        checkNotNull(listener, NULL_LISTENER_IS_NOT_ALLOWED);
+        ListenerAdapter adapter = createListenerAdapter(listener);
+        String id = newUnsecureUuidString();
+        listeners.put(id, new ListenerRegistration(adapter, key, predicate, includeValue));
+        return id;
+    }
+
+    /**
+     * Applies an event received from a publisher to the contents of this cache and notifies the local listeners.
+     */
+    protected void applyEvent(QueryCacheEventData event) {
+        EntryEventType eventType = EntryEventType.getByType(event.getEventType());
+        switch (eventType) {
+            case ADDED:
+            case UPDATED:
+            case MERGED:
+                putInternal(event.getDataKey(), event.getDataNewValue(), true);
+                break;
+            case REMOVED:
+            case EVICTED:
+            case EXPIRED:
+                removeInternal(event.getDataKey(), eventType);
+                break;
+            case CLEAR_ALL:
+            case EVICT_ALL:
+                clearPartition(event.getPartitionId(), eventType);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Puts the entry into this cache.
+     *
+     * @param fireEvent {@code true} to notify the local listeners, populating the cache does not fire events
+     */
+    protected void putInternal(Data key, Data value, boolean fireEvent) {
+        Object newValue = toStoredValue(value);
+        Object oldValue = store.put(key, newValue);
+        if (includeValue && newValue != NO_VALUE) {
+            indexes.saveEntryIndex(newQueryEntry(key, newValue), oldValue == null ? null : toValue(oldValue));
+        }
+        if (fireEvent) {
+            EntryEventType eventType = oldValue == null ? EntryEventType.ADDED : EntryEventType.UPDATED;
+            fireEntryEvent(eventType, key, newValue, oldValue);
+        }
+    }
+
+    protected void removeInternal(Data key, EntryEventType eventType) {
+        Object oldValue = store.remove(key);
+        if (oldValue == null) {
+            return;
+        }
+        if (includeValue && indexes.hasIndex()) {
+            indexes.removeEntryIndex(key, toValue(oldValue));
+        }
+        fireEntryEvent(eventType, key, null, oldValue);
+    }
+
+    /**
+     * Removes all entries of this cache and notifies the listeners with a single map event.
+     */
+    protected void removeAllInternal(EntryEventType eventType) {
+        int removed = store.size();
+        clearInternal();
+        if (removed > 0) {
+            fireMapEvent(eventType, removed);
+        }
+    }
+
+    /**
+     * Removes all entries of this cache without notifying the listeners.
+     */
+    protected void clearInternal() {
+        store.clear();
+        for (Index index : indexes.getIndexes()) {
+            index.clear();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the entry matches the predicate of this cache.
+     */
+    protected boolean matches(Data key, Data value) {
+        return predicate.apply(new QueryEntry(serializationService, key, value, extractors));
+    }
+
+    private void clearPartition(int partitionId, EntryEventType eventType) {
+        int removed = 0;
+        Iterator<Map.Entry<Data, Object>> iterator = store.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Object> entry = iterator.next();
+            if (getPartitionId(entry.getKey()) != partitionId) {
+                continue;
+            }
+            iterator.remove();
+            if (includeValue && indexes.hasIndex()) {
+                indexes.removeEntryIndex(entry.getKey(), toValue(entry.getValue()));
+            }
+            removed++;
+        }
+        if (removed > 0) {
+            fireMapEvent(eventType, removed);
+        }
+    }
+
+    private Collection<QueryableEntry> query(Predicate predicate) {
+        Set<QueryableEntry> indexedResult = indexes.query(predicate);
+        if (indexedResult != null) {
+            return indexedResult;
+        }
+        List<QueryableEntry> result = new ArrayList<QueryableEntry>();
+        for (Map.Entry<Data, Object> entry : store.entrySet()) {
+            QueryEntry queryEntry = newQueryEntry(entry.getKey(), entry.getValue());
+            if (predicate.apply(queryEntry)) {
+                result.add(queryEntry);
+            }
+        }
+        return result;
+    }
+
+    private void fireEntryEvent(EntryEventType eventType, Data key, Object newValue, Object oldValue) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Data dataNewValue = newValue == null || newValue == NO_VALUE ? null : toData(newValue);
+        Data dataOldValue = oldValue == null || oldValue == NO_VALUE ? null : toData(oldValue);
+        for (ListenerRegistration registration : listeners.values()) {
+            if (registration.key != null && !registration.key.equals(key)) {
+                continue;
+            }
+            if (registration.predicate != null) {
+                Object testValue = eventType == EntryEventType.ADDED || eventType == EntryEventType.UPDATED
+                        ? newValue : oldValue;
+                if (!registration.predicate.apply(newQueryEntry(key, testValue))) {
+                    continue;
+                }
+            }
+            IMapEvent event = registration.includeValue
+                    ? new DataAwareEntryEvent(getEventSourceMember(), eventType.getType(), name, key, dataNewValue,
+                    dataOldValue, null, serializationService)
+                    : new DataAwareEntryEvent(getEventSourceMember(), eventType.getType(), name, key, null,
+                    null, null, serializationService);
+            registration.adapter.onEvent(event);
+        }
+    }
+
+    private void fireMapEvent(EntryEventType eventType, int numberOfEntriesAffected) {
+        for (ListenerRegistration registration : listeners.values()) {
+            registration.adapter.onEvent(new MapEvent(name, getEventSourceMember(), eventType.getType(),
+                    numberOfEntriesAffected));
+        }
+    }
+
+    private QueryEntry newQueryEntry(Data key, Object storedValue) {
+        Object value = storedValue == NO_VALUE ? null : storedValue;
+        return new QueryEntry(serializationService, key, value, extractors);
+    }
+
+    private Data toData(Object object) {
+        return serializationService.toData(object);
+    }
+
+    private Object toStoredValue(Data value) {
+        if (!includeValue || value == null) {
+            return NO_VALUE;
+        }
+        return objectFormat ? serializationService.toObject(value) : value;
+    }
+
+    private <T> T toValue(Object storedValue) {
+        if (storedValue == null || storedValue == NO_VALUE) {
+            return null;
+        }
+        return serializationService.toObject(storedValue);
+    }
+
+    private static final class ListenerRegistration {
+
+        private final ListenerAdapter adapter;
+        private final Data key;
+        private final Predicate predicate;
+        private final boolean includeValue;
+
+        private ListenerRegistration(ListenerAdapter adapter, Data key, Predicate predicate, boolean includeValue) {
+            this.adapter = adapter;
+            this.key = key;
+            this.predicate = predicate;
+            this.includeValue = includeValue;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.subscriber;
+
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.core.Member;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.ListenerAdapter;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.query.MapQueryEngine;
+import com.hazelcast.map.impl.query.QueryResult;
+import com.hazelcast.map.impl.query.QueryResultRow;
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.map.impl.querycache.publisher.DestroyPublisherOperation;
+import com.hazelcast.map.impl.querycache.publisher.MadePublishableOperation;
+import com.hazelcast.map.impl.querycache.publisher.PublisherCreateOperation;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.map.impl.querycache.publisher.SetReadCursorOperation;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.EventService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.impl.eventservice.impl.TrueEventFilter;
+import com.hazelcast.util.ConstructorFunction;
+import com.hazelcast.util.IterationType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
+import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+import static com.hazelcast.util.FutureUtil.RETHROW_EVERYTHING;
+import static com.hazelcast.util.FutureUtil.waitWithDeadline;
+import static com.hazelcast.util.UuidUtil.newUnsecureUuidString;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * {@link com.hazelcast.map.QueryCache QueryCache} created on a member.
+ * <p/>
+ * Creates a publisher on every data member and receives the sequenced event batches of the publishers
+ * through a listener registered on the unique id of this cache. The publishers only start sending after
+ * the initial contents were populated, so no change in between is missed. Lost events are detected per
+ * partition by gaps in the sequence and can be replayed from the buffers of the publishers by {@link #tryRecover()}.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class NodeQueryCache<K, V> extends AbstractQueryCache<K, V> {
+
+    private static final long OPERATION_TIMEOUT_MINUTES = 1;
+
+    private final String cacheId;
+    private final QueryCacheConfig config;
+    private final NodeEngine nodeEngine;
+    private final MapServiceContext mapServiceContext;
+    private final EventService eventService;
+    private final OperationService operationService;
+    private final PartitionSequencer[] sequencers;
+    private final ILogger logger;
+
+    private volatile String registrationId;
+
+    public NodeQueryCache(String name, String mapName, QueryCacheConfig config, Predicate predicate, boolean includeValue,
+                          MapServiceContext mapServiceContext) {
+        super(name, mapName, config, predicate, includeValue,
+                (InternalSerializationService) mapServiceContext.getNodeEngine().getSerializationService(),
+                mapServiceContext.getExtractors(mapName));
+        this.cacheId = newUnsecureUuidString();
+        this.config = config;
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.mapServiceContext = mapServiceContext;
+        this.eventService = nodeEngine.getEventService();
+        this.operationService = nodeEngine.getOperationService();
+        this.logger = nodeEngine.getLogger(getClass());
+        int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        this.sequencers = new PartitionSequencer[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            sequencers[i] = new PartitionSequencer();
+        }
+    }
+
+    /**
+     * Subscribes to the events of the map, populates the initial contents when configured
+     * and then lets the publishers send their events.
+     */
+    public void start() {
+        registrationId = eventService.registerListener(SERVICE_NAME, cacheId, TrueEventFilter.INSTANCE,
+                new BatchEventListener()).getId();
+
+        final PublisherInfo info = new PublisherInfo(mapName, cacheId, predicate, includeValue, config);
+        invokeOnAllDataMembers(new ConstructorFunction<Member, Operation>() {
+            @Override
+            public Operation createNew(Member member) {
+                return new PublisherCreateOperation(info);
+            }
+        });
+
+        if (config.isPopulate()) {
+            populate();
+        }
+
+        invokeOnAllDataMembers(new ConstructorFunction<Member, Operation>() {
+            @Override
+            public Operation createNew(Member member) {
+                return new MadePublishableOperation(mapName, cacheId);
+            }
+        });
+    }
+
+    @Override
+    public boolean tryRecover() {
+        boolean recovered = true;
+        for (int partitionId = 0; partitionId < sequencers.length; partitionId++) {
+            PartitionSequencer sequencer = sequencers[partitionId];
+            long sequence = sequencer.beginRecovery();
+            if (sequence < 0) {
+                continue;
+            }
+            Operation operation = new SetReadCursorOperation(mapName, cacheId, sequencer.getAccumulatorId(), sequence);
+            boolean cursorSet;
+            try {
+                cursorSet = operationService.<Boolean>invokeOnPartition(SERVICE_NAME, operation, partitionId).join();
+            } catch (Exception e) {
+                logger.warning("Could not recover partition " + partitionId + " of query cache " + name, e);
+                cursorSet = false;
+            }
+            if (!cursorSet) {
+                sequencer.cancelRecovery();
+                recovered = false;
+            }
+        }
+        return recovered;
+    }
+
+    @Override
+    public void destroy() {
+        mapServiceContext.getQueryCacheContext().removeQueryCache(mapName, name, this);
+        String registrationId = this.registrationId;
+        if (registrationId != null) {
+            eventService.deregisterListener(SERVICE_NAME, cacheId, registrationId);
+        }
+        invokeOnAllDataMembers(new ConstructorFunction<Member, Operation>() {
+            @Override
+            public Operation createNew(Member member) {
+                return new DestroyPublisherOperation(mapName, cacheId);
+            }
+        });
+        clearInternal();
+    }
+
+    @Override
+    protected Member getEventSourceMember() {
+        return nodeEngine.getLocalMember();
+    }
+
+    @Override
+    protected int getPartitionId(Data key) {
+        return nodeEngine.getPartitionService().getPartitionId(key);
+    }
+
+    private void populate() {
+        MapQueryEngine queryEngine = mapServiceContext.getMapQueryEngine(mapName);
+        IterationType iterationType = includeValue ? IterationType.ENTRY : IterationType.KEY;
+        QueryResult result = queryEngine.invokeQueryAllPartitions(mapName, predicate, iterationType);
+        for (QueryResultRow row : result) {
+            putInternal(row.getKey(), row.getValue(), false);
+        }
+    }
+
+    private void invokeOnAllDataMembers(ConstructorFunction<Member, Operation> operationConstructor) {
+        Collection<Member> members = nodeEngine.getClusterService().getMembers(DATA_MEMBER_SELECTOR);
+        List<Future> futures = new ArrayList<Future>(members.size());
+        for (Member member : members) {
+            Operation operation = operationConstructor.createNew(member);
+            futures.add(operationService.invokeOnTarget(SERVICE_NAME, operation, member.getAddress()));
+        }
+        waitWithDeadline(futures, OPERATION_TIMEOUT_MINUTES, MINUTES, RETHROW_EVERYTHING);
+    }
+
+    private void onBatch(BatchEventData batch) {
+        PartitionSequencer sequencer = sequencers[batch.getPartitionId()];
+        for (QueryCacheEventData event : batch.getEvents()) {
+            boolean lostBefore = sequencer.isLost();
+            boolean accepted = sequencer.onEvent(batch.getAccumulatorId(), event.getSequence());
+            if (!lostBefore && sequencer.isLost()) {
+                logger.warning("Events of partition " + batch.getPartitionId() + " were lost by query cache " + name
+                        + " of map " + mapName + ", QueryCache#tryRecover can be used to replay them");
+            }
+            if (!accepted) {
+                continue;
+            }
+            event.setSerializationService(serializationService);
+            applyEvent(event);
+        }
+    }
+
+    private final class BatchEventListener implements ListenerAdapter<BatchEventData> {
+
+        @Override
+        public void onEvent(BatchEventData batch) {
+            onBatch(batch);
+        }
+    }
+}
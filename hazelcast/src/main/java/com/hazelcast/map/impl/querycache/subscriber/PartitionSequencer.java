@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.subscriber;
+
+/**
+ * Tracks the sequence of the events received for one partition of a query cache.
+ * <p/>
+ * Drops duplicate events, detects gaps and keeps the last sequence up to which all events were received,
+ * which is the point to replay from when recovering. While recovering, events are dropped until the replayed
+ * event following that point arrives.
+ */
+class PartitionSequencer {
+
+    private static final long NONE = -1;
+
+    private long accumulatorId;
+    private long retiredAccumulatorId = NONE;
+    private boolean started;
+    private long lastSequence;
+    private long consistentSequence;
+    private boolean lost;
+    private boolean recovering;
+
+    /**
+     * @return {@code true} if the event should be applied to the cache
+     */
+    synchronized boolean onEvent(long accumulatorId, long sequence) {
+        if (!started || accumulatorId != this.accumulatorId) {
+            return onNewAccumulator(accumulatorId, sequence);
+        }
+        if (recovering) {
+            if (sequence != consistentSequence + 1) {
+                return false;
+            }
+            recovering = false;
+            lost = false;
+            lastSequence = sequence;
+            consistentSequence = sequence;
+            return true;
+        }
+        if (sequence <= lastSequence) {
+            return false;
+        }
+        if (sequence != lastSequence + 1) {
+            lost = true;
+        } else if (!lost) {
+            consistentSequence = sequence;
+        }
+        lastSequence = sequence;
+        return true;
+    }
+
+    private boolean onNewAccumulator(long accumulatorId, long sequence) {
+        if (started && accumulatorId == retiredAccumulatorId) {
+            // a late batch of the previous owner of the partition: its changes are missed like the ones of a gap
+            lost = true;
+            return false;
+        }
+        if (started) {
+            retiredAccumulatorId = this.accumulatorId;
+        }
+        this.started = true;
+        this.accumulatorId = accumulatorId;
+        this.recovering = false;
+        this.lastSequence = sequence;
+        if (sequence == 1) {
+            consistentSequence = 1;
+        } else {
+            // every accumulator starts from 1, the events before this one did not arrive
+            consistentSequence = 0;
+            lost = true;
+        }
+        return true;
+    }
+
+    synchronized boolean isLost() {
+        return lost;
+    }
+
+    synchronized long getAccumulatorId() {
+        return accumulatorId;
+    }
+
+    /**
+     * Starts dropping events until the replay from the returned sequence arrives.
+     *
+     * @return the sequence to replay from or {@code -1} if there is nothing to recover
+     */
+    synchronized long beginRecovery() {
+        if (!lost || !started) {
+            return NONE;
+        }
+        recovering = true;
+        return consistentSequence + 1;
+    }
+
+    synchronized void cancelRecovery() {
+        recovering = false;
+    }
+}
@@ -19,6 +19,8 @@ package com.hazelcast.map.impl.record;
 import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.serialization.impl.CompressedData;
+import com.hazelcast.nio.compression.CompressionCodec;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.serialization.SerializationService;
 
@@ -28,20 +30,32 @@ public class DataRecordFactory implements RecordFactory<Data> {
     private final PartitioningStrategy partitionStrategy;
     private final CacheDeserializedValues cacheDeserializedValues;
     private final boolean statisticsEnabled;
+    private final CompressionCodec compressionCodec;
+    private final int compressionThreshold;
 
     public DataRecordFactory(MapConfig config, SerializationService serializationService,
                              PartitioningStrategy partitionStrategy) {
+        this(config, serializationService, partitionStrategy, null);
+    }
+
+    /**
+     * @param compressionCodec the codec to compress the values with, or null if values are not compressed.
+     */
+    public DataRecordFactory(MapConfig config, SerializationService serializationService,
+                             PartitioningStrategy partitionStrategy, CompressionCodec compressionCodec) {
         this.serializationService = serializationService;
         this.partitionStrategy = partitionStrategy;
         this.statisticsEnabled = config.isStatisticsEnabled();
         this.cacheDeserializedValues = config.getCacheDeserializedValues();
+        this.compressionCodec = compressionCodec;
+        this.compressionThreshold = config.getCompressionConfig().getThreshold();
     }
 
     @Override
     public Record<Data> newRecord(Object value) {
         assert value != null : "value can not be null";
 
-        final Data data = serializationService.toData(value, partitionStrategy);
+        final Data data = compress(serializationService.toData(value, partitionStrategy));
         switch (cacheDeserializedValues) {
             case NEVER:
                 return statisticsEnabled ? new DataRecordWithStats(data) : new DataRecord(data);
@@ -60,7 +74,11 @@ public class DataRecordFactory implements RecordFactory<Data> {
         } else {
             v = serializationService.toData(value, partitionStrategy);
         }
-        record.setValue(v);
+        record.setValue(compress(v));
+    }
+
+    private Data compress(Data data) {
+        return compressionCodec == null ? data : CompressedData.compress(data, compressionCodec, compressionThreshold);
     }
 
     @Override
@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * {@link Record} of a map with {@link com.hazelcast.config.InMemoryFormat#NATIVE} in-memory format.
+ * <p>
+ * A freshly created record is <em>detached</em>: its metadata is staged on-heap until the record is put
+ * into a {@link com.hazelcast.map.impl.recordstore.NativeStorageImpl}, which {@link #bind(long, Data, MemoryManager)
+ * binds} it to a native record block. From then on this object is a flyweight over the native memory: all metadata
+ * lives in the record block and key and value blobs are kept in separate native blocks referenced from it.
+ * Reading the key or the value always returns an on-heap copy.
+ * <p>
+ * Layout of the record block:
+ * <pre>
+ * 0x00 version            0x08 ttl               0x10 creation time     0x18 hits
+ * 0x20 last access time   0x28 last update time  0x30 last stored time  0x38 expiration time
+ * 0x40 key address        0x48 value address     0x50 next record       0x58 key size (int), value size (int)
+ * </pre>
+ */
+public final class NativeRecord implements Record<Data> {
+
+    /**
+     * Size of the native record block in bytes.
+     */
+    public static final int RECORD_BLOCK_SIZE = 0x60;
+
+    static final int VERSION_OFFSET = 0x00;
+    static final int TTL_OFFSET = 0x08;
+    static final int CREATION_TIME_OFFSET = 0x10;
+    static final int HITS_OFFSET = 0x18;
+    static final int LAST_ACCESS_TIME_OFFSET = 0x20;
+    static final int LAST_UPDATE_TIME_OFFSET = 0x28;
+    static final int LAST_STORED_TIME_OFFSET = 0x30;
+    static final int EXPIRATION_TIME_OFFSET = 0x38;
+    static final int KEY_ADDRESS_OFFSET = 0x40;
+    static final int VALUE_ADDRESS_OFFSET = 0x48;
+    static final int NEXT_OFFSET = 0x50;
+    static final int KEY_SIZE_OFFSET = 0x58;
+    static final int VALUE_SIZE_OFFSET = 0x5C;
+
+    private static final int NUMBER_OF_STAGED_FIELDS = 8;
+
+    private final boolean statisticsEnabled;
+
+    private long address = NULL_ADDRESS;
+    private MemoryAccessor mem;
+    private MemoryAllocator malloc;
+
+    // on-heap state of a detached record
+    private long[] staged;
+    private Data stagedValue;
+
+    // immutable, so it is safe to cache the on-heap copy of the key
+    private Data key;
+
+    NativeRecord(Data value, boolean statisticsEnabled) {
+        this.statisticsEnabled = statisticsEnabled;
+        this.staged = new long[NUMBER_OF_STAGED_FIELDS];
+        this.stagedValue = value;
+    }
+
+    private NativeRecord(long address, MemoryManager memoryManager, boolean statisticsEnabled) {
+        this.statisticsEnabled = statisticsEnabled;
+        this.address = address;
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+    }
+
+    /**
+     * Creates a flyweight over an already bound record block.
+     */
+    public static NativeRecord fromAddress(long address, MemoryManager memoryManager, boolean statisticsEnabled) {
+        assert address != NULL_ADDRESS : "Attempted to create a record flyweight over NULL_ADDRESS";
+        return new NativeRecord(address, memoryManager, statisticsEnabled);
+    }
+
+    /**
+     * Copies the state of this detached record into the supplied, zero-initialized record block and
+     * turns this object into a flyweight over it. Allocates the native blobs for the key and the value.
+     *
+     * @param recordAddress base address of a block of {@link #RECORD_BLOCK_SIZE} bytes
+     * @param key           key of the record
+     * @param memoryManager memory manager which allocated the record block
+     */
+    public void bind(long recordAddress, Data key, MemoryManager memoryManager) {
+        assert !isBound() : "Record is already bound to address " + address;
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.address = recordAddress;
+        for (int i = 0; i < NUMBER_OF_STAGED_FIELDS; i++) {
+            mem.putLong(recordAddress + i * LONG_SIZE_IN_BYTES, staged[i]);
+        }
+        byte[] keyBytes = key.toByteArray();
+        mem.putLong(recordAddress + KEY_ADDRESS_OFFSET, copyToNative(keyBytes));
+        mem.putInt(recordAddress + KEY_SIZE_OFFSET, keyBytes.length);
+        writeValue(stagedValue);
+        this.key = key;
+        this.staged = null;
+        this.stagedValue = null;
+    }
+
+    /**
+     * Frees the key and value blobs and the record block itself. The flyweight is unusable afterwards.
+     */
+    public void free() {
+        assert isBound() : "Attempted to free a detached record";
+        freeBlob(mem.getLong(address + KEY_ADDRESS_OFFSET), mem.getInt(address + KEY_SIZE_OFFSET));
+        freeBlob(mem.getLong(address + VALUE_ADDRESS_OFFSET), mem.getInt(address + VALUE_SIZE_OFFSET));
+        malloc.free(address, RECORD_BLOCK_SIZE);
+        address = NULL_ADDRESS;
+    }
+
+    public boolean isBound() {
+        return address != NULL_ADDRESS;
+    }
+
+    public long address() {
+        return address;
+    }
+
+    /**
+     * @return address of the next record block in the collision chain of the owning storage
+     */
+    public long getNext() {
+        return mem.getLong(address + NEXT_OFFSET);
+    }
+
+    public void setNext(long nextAddress) {
+        mem.putLong(address + NEXT_OFFSET, nextAddress);
+    }
+
+    /**
+     * Compares the serialized form of the supplied key with the key blob of this record,
+     * following the semantics of {@link HeapData#equals(Object)}.
+     */
+    public boolean keyEquals(byte[] keyBytes) {
+        final int keySize = mem.getInt(address + KEY_SIZE_OFFSET);
+        if (keySize != keyBytes.length) {
+            return false;
+        }
+        final long keyAddress = mem.getLong(address + KEY_ADDRESS_OFFSET);
+        for (int i = keySize - 1; i >= HeapData.TYPE_OFFSET; i--) {
+            if (mem.getByte(keyAddress + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Data getKey() {
+        if (key == null && isBound()) {
+            key = readBlob(mem.getLong(address + KEY_ADDRESS_OFFSET), mem.getInt(address + KEY_SIZE_OFFSET));
+        }
+        return key;
+    }
+
+    @Override
+    public Data getValue() {
+        if (!isBound()) {
+            return stagedValue;
+        }
+        return readBlob(mem.getLong(address + VALUE_ADDRESS_OFFSET), mem.getInt(address + VALUE_SIZE_OFFSET));
+    }
+
+    @Override
+    public void setValue(Data value) {
+        if (!isBound()) {
+            stagedValue = value;
+            return;
+        }
+        // values are never exposed without copying them to heap first, so the old blob can be freed eagerly
+        freeBlob(mem.getLong(address + VALUE_ADDRESS_OFFSET), mem.getInt(address + VALUE_SIZE_OFFSET));
+        writeValue(value);
+    }
+
+    /**
+     * @return the exact number of native bytes owned by this record: the record block plus the key and value blobs
+     */
+    @Override
+    public long getCost() {
+        if (!isBound()) {
+            return 0L;
+        }
+        return RECORD_BLOCK_SIZE + mem.getInt(address + KEY_SIZE_OFFSET) + mem.getInt(address + VALUE_SIZE_OFFSET);
+    }
+
+    @Override
+    public void onAccess(long now) {
+        setHits(getHits() + 1);
+        setLastAccessTime(now);
+    }
+
+    @Override
+    public void onUpdate(long now) {
+        onAccess(now);
+        setVersion(getVersion() + 1);
+        setLastUpdateTime(now);
+    }
+
+    @Override
+    public void onStore() {
+        if (statisticsEnabled) {
+            setLong(LAST_STORED_TIME_OFFSET, Clock.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return getLong(VERSION_OFFSET);
+    }
+
+    @Override
+    public void setVersion(long version) {
+        setLong(VERSION_OFFSET, version);
+    }
+
+    @Override
+    public Object getCachedValueUnsafe() {
+        return Record.NOT_CACHED;
+    }
+
+    @Override
+    public boolean casCachedValue(Object expectedValue, Object newValue) {
+        return true;
+    }
+
+    @Override
+    public long getTtl() {
+        return getLong(TTL_OFFSET);
+    }
+
+    @Override
+    public void setTtl(long ttl) {
+        setLong(TTL_OFFSET, ttl);
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return getLong(LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setLong(LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return getLong(LAST_UPDATE_TIME_OFFSET);
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdatedTime) {
+        setLong(LAST_UPDATE_TIME_OFFSET, lastUpdatedTime);
+    }
+
+    @Override
+    public long getCreationTime() {
+        return getLong(CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setLong(CREATION_TIME_OFFSET, creationTime);
+    }
+
+    @Override
+    public long getHits() {
+        return getLong(HITS_OFFSET);
+    }
+
+    @Override
+    public void setHits(long hits) {
+        setLong(HITS_OFFSET, hits);
+    }
+
+    @Override
+    public long getExpirationTime() {
+        return statisticsEnabled ? getLong(EXPIRATION_TIME_OFFSET) : NOT_AVAILABLE;
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        if (statisticsEnabled) {
+            setLong(EXPIRATION_TIME_OFFSET, expirationTime);
+        }
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        return statisticsEnabled ? getLong(LAST_STORED_TIME_OFFSET) : NOT_AVAILABLE;
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        if (statisticsEnabled) {
+            setLong(LAST_STORED_TIME_OFFSET, lastStoredTime);
+        }
+    }
+
+    @Override
+    public long getSequence() {
+        return NOT_AVAILABLE;
+    }
+
+    @Override
+    public void setSequence(long sequence) {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NativeRecord)) {
+            return false;
+        }
+        NativeRecord that = (NativeRecord) o;
+        return isBound() && address == that.address;
+    }
+
+    @Override
+    public int hashCode() {
+        return isBound() ? (int) (address ^ (address >>> 32)) : System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "NativeRecord{address=" + address + '}';
+    }
+
+    private long getLong(int offset) {
+        return isBound() ? mem.getLong(address + offset) : staged[offset / LONG_SIZE_IN_BYTES];
+    }
+
+    private void setLong(int offset, long value) {
+        if (isBound()) {
+            mem.putLong(address + offset, value);
+        } else {
+            staged[offset / LONG_SIZE_IN_BYTES] = value;
+        }
+    }
+
+    private void writeValue(Data value) {
+        byte[] valueBytes = value.toByteArray();
+        mem.putLong(address + VALUE_ADDRESS_OFFSET, copyToNative(valueBytes));
+        mem.putInt(address + VALUE_SIZE_OFFSET, valueBytes.length);
+    }
+
+    private long copyToNative(byte[] bytes) {
+        if (bytes.length == 0) {
+            return NULL_ADDRESS;
+        }
+        long blobAddress = malloc.allocate(bytes.length);
+        mem.copyFromByteArray(bytes, 0, blobAddress, bytes.length);
+        return blobAddress;
+    }
+
+    private Data readBlob(long blobAddress, int size) {
+        byte[] bytes = new byte[size];
+        if (size > 0) {
+            mem.copyToByteArray(blobAddress, bytes, 0, size);
+        }
+        return new HeapData(bytes);
+    }
+
+    private void freeBlob(long blobAddress, int size) {
+        if (blobAddress != NULL_ADDRESS) {
+            malloc.free(blobAddress, size);
+        }
+    }
+}
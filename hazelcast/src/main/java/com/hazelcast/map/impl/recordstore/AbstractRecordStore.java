@@ -20,6 +20,7 @@ import com.hazelcast.concurrent.lock.LockService;
 import com.hazelcast.concurrent.lock.LockStore;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.memory.NativeMemoryManager;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
@@ -27,6 +28,7 @@ import com.hazelcast.map.impl.SizeEstimator;
 import com.hazelcast.map.impl.mapstore.MapDataStore;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.mapstore.MapStoreManager;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.impl.record.Records;
@@ -35,11 +37,13 @@ import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.spi.DefaultObjectNamespace;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.Clock;
 
 import java.util.Collection;
 
+import static com.hazelcast.config.InMemoryFormat.BINARY;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateMaxIdleMillis;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateTTLMillis;
@@ -106,9 +110,26 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     @Override
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        if (NATIVE == memoryFormat) {
+            return new NativeStorageImpl((NativeRecordFactory) recordFactory, getNativeMemoryManager(),
+                    serializationService);
+        }
+        if (BINARY == memoryFormat && mapContainer.getMapConfig().isValueDeduplicationEnabled()) {
+            return new DeduplicatingStorageImpl(recordFactory, memoryFormat, serializationService);
+        }
         return new StorageImpl(recordFactory, memoryFormat, serializationService);
     }
 
+    private NativeMemoryManager getNativeMemoryManager() {
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) mapServiceContext.getNodeEngine();
+        NativeMemoryManager memoryManager = nodeEngine.getNode().getNodeExtension().getNativeMemoryManager();
+        if (memoryManager == null) {
+            throw new IllegalStateException("Map '" + name + "' is configured with " + NATIVE
+                    + " in-memory format, but native memory is not enabled. See NativeMemoryConfig.");
+        }
+        return memoryManager;
+    }
+
     @Override
     public String getName() {
         return name;
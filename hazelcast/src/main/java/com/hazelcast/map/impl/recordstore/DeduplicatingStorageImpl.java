@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+
+/**
+ * A {@link StorageImpl} which stores equal values only once, for maps whose values are drawn from a small set.
+ * <p/>
+ * When a record enters this storage or its value is updated, its value is replaced by the equal value from a per
+ * partition {@link ValuePool}; when a record leaves this storage or its value is replaced, its value is released.
+ * <p/>
+ * The {@link com.hazelcast.map.impl.SizeEstimator} accounts for every pooled value once: the cost of a record excludes
+ * its value, and the cost of the pool is added separately.
+ *
+ * @param <R> the value type to be put in this storage.
+ */
+class DeduplicatingStorageImpl<R extends Record> extends StorageImpl<R> {
+
+    private final ValuePool valuePool = new ValuePool();
+
+    DeduplicatingStorageImpl(RecordFactory<R> recordFactory, InMemoryFormat inMemoryFormat,
+                             SerializationService serializationService) {
+        super(recordFactory, inMemoryFormat, serializationService);
+    }
+
+    @Override
+    public void put(Data key, R record) {
+        long poolCost = valuePool.getHeapCost();
+        R previousRecord = get(key);
+
+        // acquire before releasing, so a record which is put again keeps its pooled value
+        acquire(record);
+        super.put(key, record);
+        if (previousRecord != null) {
+            release(previousRecord.getValue());
+        }
+
+        updateSizeEstimator(valuePool.getHeapCost() - poolCost);
+    }
+
+    @Override
+    public void updateRecordValue(Data key, R record, Object value) {
+        long poolCost = valuePool.getHeapCost();
+        Object oldValue = record.getValue();
+
+        super.updateRecordValue(key, record, value);
+        acquire(record);
+        release(oldValue);
+
+        updateSizeEstimator(valuePool.getHeapCost() - poolCost);
+    }
+
+    @Override
+    public void removeRecord(R record) {
+        if (record == null) {
+            return;
+        }
+
+        long poolCost = valuePool.getHeapCost();
+
+        super.removeRecord(record);
+        release(record.getValue());
+
+        updateSizeEstimator(valuePool.getHeapCost() - poolCost);
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        super.clear(isDuringShutdown);
+        valuePool.clear();
+    }
+
+    /**
+     * Calculates the cost of records without the cost of their value, since the value is accounted for by the pool.
+     */
+    @Override
+    protected long calculateHeapCost(Object obj) {
+        long cost = super.calculateHeapCost(obj);
+        if (obj instanceof Record) {
+            Object value = ((Record) obj).getValue();
+            if (value instanceof Data) {
+                cost -= ((Data) value).getHeapCost();
+            }
+        }
+        return cost;
+    }
+
+    ValuePool getValuePool() {
+        return valuePool;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void acquire(R record) {
+        Object value = record.getValue();
+        if (!(value instanceof Data)) {
+            return;
+        }
+
+        Data pooledValue = valuePool.acquire((Data) value);
+        if (pooledValue != value) {
+            record.setValue(pooledValue);
+        }
+    }
+
+    private void release(Object value) {
+        if (value instanceof Data) {
+            valuePool.release((Data) value);
+        }
+    }
+}
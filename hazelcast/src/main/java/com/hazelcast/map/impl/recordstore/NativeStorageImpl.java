@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.util.ThreadLocalRandom;
+import com.hazelcast.internal.util.hashslot.HashSlotArray8byteKey;
+import com.hazelcast.internal.util.hashslot.HashSlotCursor8byteKey;
+import com.hazelcast.internal.util.hashslot.impl.HashSlotArray8byteKeyImpl;
+import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.NativeRecord;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.util.hashslot.impl.HashSlotArrayBase.HEADER_SIZE;
+import static com.hazelcast.map.impl.SizeEstimatorFactory.createMapSizeEstimator;
+import static com.hazelcast.map.impl.record.NativeRecord.RECORD_BLOCK_SIZE;
+
+/**
+ * {@link Storage} for maps with {@link com.hazelcast.config.InMemoryFormat#NATIVE} in-memory format.
+ * <p>
+ * Keys, values and record metadata are all kept in native memory obtained from the supplied
+ * {@link MemoryManager}; see {@link NativeRecord} for the layout. Records are indexed by an off-heap
+ * {@link HashSlotArray8byteKey} keyed by {@link Data#hash64()} of the key, whose value block holds the
+ * address of the first record in a (normally single-element) collision chain.
+ * <p>
+ * Removed records are not freed immediately because the caller may still hold their flyweights; their blocks
+ * are freed by {@link #disposeDeferredBlocks()}, which is called between map operations.
+ * The {@link SizeEstimator} of this storage reports the exact number of native bytes in use, including the
+ * hash slot array.
+ * <p>
+ * Like all record stores, this class must only be accessed by its partition thread.
+ *
+ * @param <R> type of the records, always {@link NativeRecord} at runtime
+ */
+public class NativeStorageImpl<R extends Record> implements Storage<Data, R> {
+
+    private static final int SLOT_VALUE_LENGTH = 8;
+    private static final int SLOT_LENGTH = 8 + SLOT_VALUE_LENGTH;
+    private static final int VALUE_OFFSET_IN_SLOT = 8;
+    private static final int INITIAL_DEFERRED_CAPACITY = 16;
+
+    private final NativeRecordFactory recordFactory;
+    private final MemoryManager memoryManager;
+    private final MemoryAccessor mem;
+    private final MemoryAllocator malloc;
+    private final SerializationService serializationService;
+    private final HashSlotArray8byteKey index;
+
+    private long[] deferredBlocks = new long[INITIAL_DEFERRED_CAPACITY];
+    private int deferredBlockCount;
+    // incremented whenever record blocks are actually freed; invalidates outstanding iterators. It is only
+    // accessed by the partition thread, like the rest of this storage, so it doesn't need to be volatile
+    private int disposeEpoch;
+    private int size;
+    private long indexFootprint;
+
+    // not final for testing purposes.
+    private SizeEstimator sizeEstimator;
+
+    NativeStorageImpl(NativeRecordFactory recordFactory, MemoryManager memoryManager,
+                      SerializationService serializationService) {
+        this.recordFactory = recordFactory;
+        this.memoryManager = memoryManager;
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.serializationService = serializationService;
+        this.sizeEstimator = createMapSizeEstimator(NATIVE);
+        this.index = new HashSlotArray8byteKeyImpl(NULL_ADDRESS, memoryManager, SLOT_VALUE_LENGTH);
+        this.index.gotoNew();
+        updateIndexFootprint();
+    }
+
+    @Override
+    public void put(Data key, R record) {
+        NativeRecord nativeRecord = (NativeRecord) record;
+        byte[] keyBytes = key.toByteArray();
+        long hash = key.hash64();
+
+        long existingAddress = find(hash, keyBytes);
+        if (existingAddress != NULL_ADDRESS) {
+            if (nativeRecord.isBound() && nativeRecord.address() == existingAddress) {
+                return;
+            }
+            removeRecord((R) recordFactory.newRecordAt(existingAddress, memoryManager));
+        }
+
+        long recordAddress = malloc.allocate(RECORD_BLOCK_SIZE);
+        try {
+            nativeRecord.bind(recordAddress, key, memoryManager);
+        } catch (RuntimeException e) {
+            malloc.free(recordAddress, RECORD_BLOCK_SIZE);
+            throw e;
+        }
+
+        long slotValueAddress = index.ensure(hash);
+        if (slotValueAddress > 0) {
+            nativeRecord.setNext(NULL_ADDRESS);
+        } else {
+            slotValueAddress = -slotValueAddress;
+            nativeRecord.setNext(mem.getLong(slotValueAddress));
+        }
+        mem.putLong(slotValueAddress, recordAddress);
+        size++;
+
+        updateSizeEstimator(nativeRecord.getCost());
+        updateIndexFootprint();
+    }
+
+    @Override
+    public void updateRecordValue(Data key, R record, Object value) {
+        updateSizeEstimator(-record.getCost());
+
+        recordFactory.setValue(record, value);
+
+        updateSizeEstimator(record.getCost());
+    }
+
+    @Override
+    public R get(Data key) {
+        long recordAddress = find(key.hash64(), key.toByteArray());
+        if (recordAddress == NULL_ADDRESS) {
+            return null;
+        }
+        return (R) recordFactory.newRecordAt(recordAddress, memoryManager);
+    }
+
+    /**
+     * Keys handed to this storage are always on-heap copies, so being the same key blob is
+     * equivalent to being an equal key.
+     */
+    @Override
+    public R getIfSameKey(Data key) {
+        return get(key);
+    }
+
+    @Override
+    public void removeRecord(R record) {
+        if (record == null) {
+            return;
+        }
+
+        NativeRecord nativeRecord = (NativeRecord) record;
+        long recordAddress = nativeRecord.address();
+        long hash = nativeRecord.getKey().hash64();
+        long slotValueAddress = index.get(hash);
+        if (slotValueAddress == NULL_ADDRESS) {
+            return;
+        }
+
+        long head = mem.getLong(slotValueAddress);
+        if (head == recordAddress) {
+            long next = nativeRecord.getNext();
+            if (next == NULL_ADDRESS) {
+                index.remove(hash);
+            } else {
+                mem.putLong(slotValueAddress, next);
+            }
+        } else {
+            NativeRecord previous = recordFactory.newRecordAt(head, memoryManager);
+            while (previous.getNext() != recordAddress) {
+                long next = previous.getNext();
+                if (next == NULL_ADDRESS) {
+                    return;
+                }
+                previous = recordFactory.newRecordAt(next, memoryManager);
+            }
+            previous.setNext(nativeRecord.getNext());
+        }
+        size--;
+
+        updateSizeEstimator(-nativeRecord.getCost());
+        updateIndexFootprint();
+        deferFree(recordAddress);
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return find(key.hash64(), key.toByteArray()) != NULL_ADDRESS;
+    }
+
+    /**
+     * Returns a snapshot of the records. Iterators over the snapshot stop early once record blocks
+     * have been freed by {@link #disposeDeferredBlocks()}, so they can never expose freed memory, even
+     * when they are kept across operations of the partition thread.
+     * <p>
+     * The records must not be accessed by any other thread, since the partition thread may free their blocks
+     * at any time; this is why the query engine leaves the partitions of {@code NATIVE} maps to partition operations.
+     */
+    @Override
+    public Collection<R> values() {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        final List<R> records = new ArrayList<R>(size);
+        HashSlotCursor8byteKey cursor = index.cursor();
+        while (cursor.advance()) {
+            long recordAddress = mem.getLong(cursor.valueAddress());
+            while (recordAddress != NULL_ADDRESS) {
+                NativeRecord record = recordFactory.newRecordAt(recordAddress, memoryManager);
+                records.add((R) record);
+                recordAddress = record.getNext();
+            }
+        }
+        return new SnapshotCollection(records);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        HashSlotCursor8byteKey cursor = index.cursor();
+        while (cursor.advance()) {
+            long recordAddress = mem.getLong(cursor.valueAddress());
+            while (recordAddress != NULL_ADDRESS) {
+                NativeRecord record = recordFactory.newRecordAt(recordAddress, memoryManager);
+                recordAddress = record.getNext();
+                record.free();
+            }
+        }
+        index.clear();
+        index.trimToSize();
+        size = 0;
+        disposeDeferredBlocks();
+        disposeEpoch++;
+
+        sizeEstimator.reset();
+        indexFootprint = 0;
+        updateIndexFootprint();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+        index.dispose();
+        sizeEstimator.reset();
+        indexFootprint = 0;
+    }
+
+    @Override
+    public SizeEstimator getSizeEstimator() {
+        return sizeEstimator;
+    }
+
+    @Override
+    public void setSizeEstimator(SizeEstimator sizeEstimator) {
+        this.sizeEstimator = sizeEstimator;
+    }
+
+    @Override
+    public void disposeDeferredBlocks() {
+        if (deferredBlockCount == 0) {
+            return;
+        }
+        for (int i = 0; i < deferredBlockCount; i++) {
+            recordFactory.newRecordAt(deferredBlocks[i], memoryManager).free();
+        }
+        deferredBlockCount = 0;
+        if (deferredBlocks.length > INITIAL_DEFERRED_CAPACITY) {
+            deferredBlocks = new long[INITIAL_DEFERRED_CAPACITY];
+        }
+        disposeEpoch++;
+    }
+
+    @Override
+    public Iterable<LazyEntryViewFromRecord> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        if (sampleCount == 0 || size == 0) {
+            return Collections.emptyList();
+        }
+        List<LazyEntryViewFromRecord> samples = new ArrayList<LazyEntryViewFromRecord>(sampleCount);
+        int capacity = (int) index.capacity();
+        int slot = ThreadLocalRandom.current().nextInt(capacity);
+        for (int i = 0; i < capacity && samples.size() < sampleCount; i++) {
+            long recordAddress = recordAddressOfSlot(slot);
+            while (recordAddress != NULL_ADDRESS && samples.size() < sampleCount) {
+                NativeRecord record = recordFactory.newRecordAt(recordAddress, memoryManager);
+                samples.add(new LazyEntryViewFromRecord<NativeRecord>(record, serializationService));
+                recordAddress = record.getNext();
+            }
+            slot = slot + 1 == capacity ? 0 : slot + 1;
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(int tableIndex, int size) {
+        List<Data> keys = new ArrayList<Data>(size);
+        int nextTableIndex = startingTableIndex(tableIndex);
+        while (nextTableIndex >= 0 && keys.size() < size) {
+            long recordAddress = recordAddressOfSlot(nextTableIndex--);
+            while (recordAddress != NULL_ADDRESS) {
+                NativeRecord record = recordFactory.newRecordAt(recordAddress, memoryManager);
+                keys.add(record.getKey());
+                recordAddress = record.getNext();
+            }
+        }
+        return new MapKeysWithCursor(keys, nextTableIndex);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(int tableIndex, int size, SerializationService serializationService) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<Map.Entry<Data, Data>>(size);
+        int nextTableIndex = startingTableIndex(tableIndex);
+        while (nextTableIndex >= 0 && entries.size() < size) {
+            long recordAddress = recordAddressOfSlot(nextTableIndex--);
+            while (recordAddress != NULL_ADDRESS) {
+                NativeRecord record = recordFactory.newRecordAt(recordAddress, memoryManager);
+                entries.add(new AbstractMap.SimpleEntry<Data, Data>(record.getKey(), record.getValue()));
+                recordAddress = record.getNext();
+            }
+        }
+        return new MapEntriesWithCursor(entries, nextTableIndex);
+    }
+
+    private int startingTableIndex(int tableIndex) {
+        int capacity = (int) index.capacity();
+        return tableIndex >= 0 && tableIndex < capacity ? tableIndex : capacity - 1;
+    }
+
+    private long recordAddressOfSlot(int slot) {
+        return mem.getLong(index.address() + (long) slot * SLOT_LENGTH + VALUE_OFFSET_IN_SLOT);
+    }
+
+    private long find(long hash, byte[] keyBytes) {
+        long slotValueAddress = index.get(hash);
+        if (slotValueAddress == NULL_ADDRESS) {
+            return NULL_ADDRESS;
+        }
+        long recordAddress = mem.getLong(slotValueAddress);
+        while (recordAddress != NULL_ADDRESS) {
+            NativeRecord record = recordFactory.newRecordAt(recordAddress, memoryManager);
+            if (record.keyEquals(keyBytes)) {
+                return recordAddress;
+            }
+            recordAddress = record.getNext();
+        }
+        return NULL_ADDRESS;
+    }
+
+    private void deferFree(long recordAddress) {
+        if (deferredBlockCount == deferredBlocks.length) {
+            long[] newDeferredBlocks = new long[deferredBlocks.length << 1];
+            System.arraycopy(deferredBlocks, 0, newDeferredBlocks, 0, deferredBlockCount);
+            deferredBlocks = newDeferredBlocks;
+        }
+        deferredBlocks[deferredBlockCount++] = recordAddress;
+    }
+
+    private void updateIndexFootprint() {
+        long footprint = HEADER_SIZE + index.capacity() * SLOT_LENGTH;
+        updateSizeEstimator(footprint - indexFootprint);
+        indexFootprint = footprint;
+    }
+
+    protected void updateSizeEstimator(long recordSize) {
+        sizeEstimator.add(recordSize);
+    }
+
+    /**
+     * Snapshot of records whose iterators end as soon as the storage frees any record block.
+     */
+    private final class SnapshotCollection extends AbstractCollection<R> {
+
+        private final List<R> records;
+
+        SnapshotCollection(List<R> records) {
+            this.records = records;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            final Iterator<R> iterator = records.iterator();
+            final int epoch = disposeEpoch;
+            return new Iterator<R>() {
+                @Override
+                public boolean hasNext() {
+                    return epoch == disposeEpoch && iterator.hasNext();
+                }
+
+                @Override
+                public R next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return records.size();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.collection.Long2ObjectHashMap;
+
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+
+/**
+ * A reference counted pool of values, so that records with equal values can share a single {@link Data} instance.
+ * <p/>
+ * Values are content addressed by their {@link Data#hash64()}; the rare values with the same hash are chained. A value is
+ * removed from the pool when the last record referencing it releases it.
+ * <p/>
+ * This class is not thread-safe; like the record store owning it, it is only accessed by the partition thread.
+ */
+final class ValuePool {
+
+    // the entry (object header, 2 references and the reference count) and its key and value slots in the hash map
+    static final int ENTRY_COST_IN_BYTES = 2 * LONG_SIZE_IN_BYTES + 3 * REFERENCE_COST_IN_BYTES + INT_SIZE_IN_BYTES
+            + LONG_SIZE_IN_BYTES + REFERENCE_COST_IN_BYTES;
+
+    private final Long2ObjectHashMap<Entry> entries = new Long2ObjectHashMap<Entry>();
+    private int size;
+    private long heapCost;
+
+    /**
+     * Acquires a reference to a value equal to the given value. If the pool doesn't contain such a value yet, the given
+     * value is added.
+     *
+     * @param value the value to acquire.
+     * @return the pooled value, which should be used instead of the given value.
+     */
+    Data acquire(Data value) {
+        long hash = value.hash64();
+        Entry head = entries.get(hash);
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            if (entry.matches(value)) {
+                entry.refCount++;
+                return entry.value;
+            }
+        }
+
+        entries.put(hash, new Entry(value, head));
+        size++;
+        heapCost += value.getHeapCost() + ENTRY_COST_IN_BYTES;
+        return value;
+    }
+
+    /**
+     * Releases a reference to the given value, which was returned by {@link #acquire(Data)}. If it was the last
+     * reference, the value is removed from the pool. A value which isn't in the pool is ignored.
+     *
+     * @param value the value to release.
+     */
+    void release(Data value) {
+        long hash = value.hash64();
+        Entry previous = null;
+        for (Entry entry = entries.get(hash); entry != null; previous = entry, entry = entry.next) {
+            if (!entry.matches(value)) {
+                continue;
+            }
+
+            if (--entry.refCount == 0) {
+                if (previous != null) {
+                    previous.next = entry.next;
+                } else if (entry.next != null) {
+                    entries.put(hash, entry.next);
+                } else {
+                    entries.remove(hash);
+                }
+                size--;
+                heapCost -= entry.value.getHeapCost() + ENTRY_COST_IN_BYTES;
+            }
+            return;
+        }
+    }
+
+    /**
+     * Returns the number of distinct values in this pool.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the estimated heap cost of the values in this pool, including the overhead of the pool itself.
+     */
+    long getHeapCost() {
+        return heapCost;
+    }
+
+    void clear() {
+        entries.clear();
+        size = 0;
+        heapCost = 0;
+    }
+
+    private static final class Entry {
+        private final Data value;
+        private Entry next;
+        private int refCount = 1;
+
+        Entry(Data value, Entry next) {
+            this.value = value;
+            this.next = next;
+        }
+
+        boolean matches(Data other) {
+            return value == other || value.equals(other);
+        }
+    }
+}
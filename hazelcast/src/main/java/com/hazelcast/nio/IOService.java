@@ -23,6 +23,7 @@ import com.hazelcast.config.SymmetricEncryptionConfig;
 import com.hazelcast.internal.ascii.TextCommandService;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.compression.CompressionCodec;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.tcp.ReadHandler;
 import com.hazelcast.nio.tcp.SocketChannelWrapperFactory;
@@ -119,6 +120,55 @@ public interface IOService {
      */
     int getBalancerIntervalSeconds();
 
+    /**
+     * @return the maximum number of normal priority frames pending to be written on a single connection before bounded
+     * packets are rejected, or a value smaller than 1 if the number of pending frames is not bound.
+     */
+    int getWriteQueueCapacity();
+
+    /**
+     * @return the minimum size in bytes of a packet to write it using a gathering write.
+     */
+    int getGatheringWriteThreshold();
+
+    /**
+     * @return true if a thread writing to an idle connection writes to the socket itself, false otherwise.
+     */
+    boolean isWriteThroughEnabled();
+
+    /**
+     * @return true if packets send to other members are compressed, false otherwise.
+     */
+    boolean isCompressionEnabled();
+
+    /**
+     * @return the minimum payload size in bytes of a packet to compress it.
+     */
+    int getCompressionThreshold();
+
+    /**
+     * @return the maximum payload size in bytes of a compressed packet.
+     */
+    int getCompressionMaxSize();
+
+    /**
+     * Returns the codec to compress and decompress packets with. The codec is also returned when compression is
+     * disabled, since compressed packets received from other members still need to be decompressed.
+     *
+     * @return the codec.
+     */
+    CompressionCodec getCompressionCodec();
+
+    /**
+     * @return the number of received packet payloads to pool per connection and payload size class; 0 disables pooling.
+     */
+    int getReadPayloadPoolSize();
+
+    /**
+     * @return the maximum size in bytes of a received packet payload to pool.
+     */
+    int getReadPayloadPoolMaxSize();
+
     void onDisconnect(Address endpoint, Throwable cause);
 
     boolean isClient();
@@ -29,6 +29,8 @@ import com.hazelcast.internal.ascii.TextCommandService;
 import com.hazelcast.internal.cluster.impl.ClusterServiceImpl;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.compression.CompressionCodec;
+import com.hazelcast.nio.compression.CompressionCodecs;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.tcp.ReadHandler;
 import com.hazelcast.nio.tcp.SocketChannelWrapperFactory;
@@ -39,6 +41,7 @@ import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.annotation.PrivateApi;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -51,10 +54,13 @@ public class NodeIOService implements IOService {
 
     private final Node node;
     private final NodeEngineImpl nodeEngine;
+    private final CompressionCodec compressionCodec;
 
     public NodeIOService(Node node, NodeEngineImpl nodeEngine) {
         this.node = node;
         this.nodeEngine = nodeEngine;
+        String codec = node.getProperties().getString(GroupProperty.IO_COMPRESSION_CODEC);
+        this.compressionCodec = CompressionCodecs.newCodec(codec, node.getConfigClassLoader());
     }
 
     @Override
@@ -272,6 +278,56 @@ public class NodeIOService implements IOService {
         return node.getProperties().getSeconds(GroupProperty.IO_BALANCER_INTERVAL_SECONDS);
     }
 
+    @Override
+    public int getWriteQueueCapacity() {
+        HazelcastProperties properties = node.getProperties();
+        // without connection back pressure a full write queue could only be handled by blocking the writing thread
+        if ("NONE".equalsIgnoreCase(properties.getString(GroupProperty.BACKPRESSURE_CONNECTION_MODE))) {
+            return 0;
+        }
+        return properties.getInteger(GroupProperty.IO_WRITE_QUEUE_CAPACITY);
+    }
+
+    @Override
+    public int getGatheringWriteThreshold() {
+        return node.getProperties().getInteger(GroupProperty.IO_WRITE_GATHERING_THRESHOLD);
+    }
+
+    @Override
+    public boolean isWriteThroughEnabled() {
+        return node.getProperties().getBoolean(GroupProperty.IO_WRITE_THROUGH_ENABLED);
+    }
+
+    @Override
+    public boolean isCompressionEnabled() {
+        return node.getProperties().getBoolean(GroupProperty.IO_COMPRESSION_ENABLED);
+    }
+
+    @Override
+    public int getCompressionThreshold() {
+        return node.getProperties().getInteger(GroupProperty.IO_COMPRESSION_THRESHOLD);
+    }
+
+    @Override
+    public int getCompressionMaxSize() {
+        return node.getProperties().getInteger(GroupProperty.IO_COMPRESSION_MAX_SIZE);
+    }
+
+    @Override
+    public CompressionCodec getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    @Override
+    public int getReadPayloadPoolSize() {
+        return node.getProperties().getInteger(GroupProperty.IO_READ_PAYLOAD_POOL_SIZE);
+    }
+
+    @Override
+    public int getReadPayloadPoolMaxSize() {
+        return node.getProperties().getInteger(GroupProperty.IO_READ_PAYLOAD_POOL_MAX_SIZE);
+    }
+
     @Override
     public void executeAsync(final Runnable runnable) {
         nodeEngine.getExecutionService().execute(ExecutionService.IO_EXECUTOR, runnable);
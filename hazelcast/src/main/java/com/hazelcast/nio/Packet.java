@@ -49,11 +49,28 @@ public final class Packet extends HeapData implements OutboundFrame {
      */
     public static final int FLAG_OP_CONTROL = 1 << 6;
 
+    /**
+     * A flag to indicate the payload of this packet is compressed. The payload then consists of the length of the
+     * uncompressed payload followed by the compressed bytes.
+     *
+     * @see com.hazelcast.nio.tcp.CompressingMemberWriteHandler
+     */
+    public static final int FLAG_COMPRESSED = 1 << 7;
+
+    /**
+     * A flag to indicate the operation in this packet is a {@link com.hazelcast.spi.impl.StealableOperation}, so an idle
+     * partition operation thread may execute it without deserializing it first.
+     */
+    public static final int FLAG_OP_STEALABLE = 1 << 8;
+
     private static final int HEADER_SIZE = BYTE_SIZE_IN_BYTES + SHORT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES;
 
     private short flags;
     private int partitionId;
     private transient Connection conn;
+    private transient PacketPayloadPool payloadPool;
+    private transient boolean bounded;
+    private transient long enqueueNanos;
 
     // These 2 fields are only used during read/write. Otherwise they have no meaning.
     private int valueOffset;
@@ -64,6 +81,16 @@ public final class Packet extends HeapData implements OutboundFrame {
     public Packet() {
     }
 
+    /**
+     * Creates a Packet for reading, whose payload is taken from the given pool.
+     *
+     * @param payloadPool the pool to take the payload from.
+     * @see #releasePayload()
+     */
+    public Packet(PacketPayloadPool payloadPool) {
+        this.payloadPool = payloadPool;
+    }
+
     public Packet(byte[] payload) {
         this(payload, -1);
     }
@@ -94,6 +121,50 @@ public final class Packet extends HeapData implements OutboundFrame {
         this.conn = conn;
     }
 
+    /**
+     * Gets the {@link System#nanoTime()} this Packet was added to an operation queue.
+     * <p/>
+     * This is only used on the receiving side and is not sent over the wire.
+     *
+     * @return the time the Packet was queued, or 0 if it hasn't been queued.
+     */
+    public long getEnqueueNanos() {
+        return enqueueNanos;
+    }
+
+    /**
+     * Sets the {@link System#nanoTime()} this Packet was added to an operation queue.
+     *
+     * @param enqueueNanos the time the Packet was queued.
+     */
+    public void setEnqueueNanos(long enqueueNanos) {
+        this.enqueueNanos = enqueueNanos;
+    }
+
+    /**
+     * Marks this Packet as subject to the capacity of the write queue of the connection it is written to: when that
+     * write queue is full, the Packet is rejected. Only packets of new invocations are marked; responses and backups
+     * are never rejected since the other side can't recover from losing them.
+     * <p/>
+     * This is only used on the writing side and is not sent over the wire.
+     *
+     * @return this (for fluent interface)
+     */
+    public Packet setBounded() {
+        this.bounded = true;
+        return this;
+    }
+
+    /**
+     * Checks if this Packet is subject to the capacity of the write queue.
+     *
+     * @return true if the Packet can be rejected when the write queue is full, false otherwise.
+     * @see #setBounded()
+     */
+    public boolean isBounded() {
+        return bounded;
+    }
+
     /**
      * Sets a particular flag. The other flags will not be touched.
      *
@@ -174,6 +245,25 @@ public final class Packet extends HeapData implements OutboundFrame {
         return writeValue(dst);
     }
 
+    /**
+     * Writes only the header of this packet to the given buffer. This is used when the payload, see {@link #toByteArray()},
+     * is written separately, for example using a gathering write. The write state of this packet is not changed.
+     *
+     * @param dst the buffer to write the header to
+     * @return {@code true} if the header was written, {@code false} if there was not enough space in the buffer
+     */
+    public boolean writeHeaderTo(ByteBuffer dst) {
+        if (dst.remaining() < HEADER_SIZE) {
+            return false;
+        }
+
+        dst.put(VERSION);
+        dst.putShort(flags);
+        dst.putInt(partitionId);
+        dst.putInt(totalSize());
+        return true;
+    }
+
     public boolean readFrom(ByteBuffer src) {
         if (!headerComplete) {
             if (src.remaining() < HEADER_SIZE) {
@@ -199,7 +289,7 @@ public final class Packet extends HeapData implements OutboundFrame {
 
     private boolean readValue(ByteBuffer src) {
         if (payload == null) {
-            payload = new byte[size];
+            payload = payloadPool == null ? new byte[size] : payloadPool.take(size);
         }
 
         if (size > 0) {
@@ -260,6 +350,25 @@ public final class Packet extends HeapData implements OutboundFrame {
         return true;
     }
 
+    /**
+     * Releases the payload of this Packet to the {@link PacketPayloadPool} it was taken from, so it can be reused for
+     * another packet. If the payload wasn't taken from a pool, the call is ignored.
+     *
+     * Should only be called once the payload has been deserialized and no references to it are retained. After this
+     * call the payload of this Packet can't be accessed anymore.
+     */
+    public void releasePayload() {
+        PacketPayloadPool pool = payloadPool;
+        byte[] releasedPayload = payload;
+        if (pool == null || releasedPayload == null) {
+            return;
+        }
+
+        payloadPool = null;
+        payload = null;
+        pool.release(releasedPayload);
+    }
+
     /**
      * Returns an estimation of the packet, including its payload, in bytes.
      *
@@ -305,6 +414,8 @@ public final class Packet extends HeapData implements OutboundFrame {
                 + ", isResponse=" + isFlagSet(Packet.FLAG_RESPONSE)
                 + ", isOperation=" + isFlagSet(Packet.FLAG_OP)
                 + ", isEvent=" + isFlagSet(Packet.FLAG_EVENT)
+                + ", isCompressed=" + isFlagSet(Packet.FLAG_COMPRESSED)
+                + ", isStealable=" + isFlagSet(Packet.FLAG_OP_STEALABLE)
                 + ", partitionId=" + partitionId
                 + ", conn=" + conn
                 + '}';
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.spi.annotation.PrivateApi;
+import com.hazelcast.util.concurrent.ManyToOneConcurrentArrayQueue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * A pool of {@link Packet} payload byte-arrays, so that the read path doesn't need to allocate a new byte-array for
+ * every packet it receives.
+ *
+ * A payload is taken by the thread reading the connection and released by the thread that deserialized the packet,
+ * e.g. a partition thread. So there can be many threads releasing payloads, but only one thread taking them. Once a
+ * payload has been released, the {@link Packet} it belonged to can't be used anymore.
+ *
+ * Since a {@link Packet} is a {@link com.hazelcast.internal.serialization.impl.HeapData}, the length of the payload
+ * needs to match the size of the packet exactly. Therefore the payloads are pooled per size class: the size of a payload
+ * determines the queue it is pooled in, so packets of different sizes don't evict each other's payloads. If a taken
+ * payload has another size in the same size class, it is put back for a later packet of its own size. The total number
+ * of pooled payloads is bound by the capacity of the pool.
+ */
+@PrivateApi
+public final class PacketPayloadPool {
+
+    static final int SIZE_CLASSES = 32;
+
+    private static final int SIZE_CLASS_MASK = SIZE_CLASSES - 1;
+
+    private final ManyToOneConcurrentArrayQueue<byte[]>[] sizeClasses;
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int capacity;
+    private final int maxPayloadSize;
+
+    /**
+     * Creates a new PacketPayloadPool.
+     *
+     * @param capacity       the maximum number of payloads to pool.
+     * @param maxPayloadSize the maximum size of a payload to pool; larger payloads are always allocated.
+     */
+    @SuppressWarnings("unchecked")
+    public PacketPayloadPool(int capacity, int maxPayloadSize) {
+        checkPositive(capacity, "capacity should be positive");
+        checkPositive(maxPayloadSize, "maxPayloadSize should be positive");
+        this.capacity = capacity;
+        this.maxPayloadSize = maxPayloadSize;
+        this.sizeClasses = new ManyToOneConcurrentArrayQueue[SIZE_CLASSES];
+        for (int k = 0; k < SIZE_CLASSES; k++) {
+            sizeClasses[k] = new ManyToOneConcurrentArrayQueue<byte[]>(capacity);
+        }
+    }
+
+    /**
+     * Takes a payload of the given size.
+     *
+     * Should only be called by the thread reading the connection.
+     *
+     * @param size the size of the payload.
+     * @return the payload.
+     */
+    public byte[] take(int size) {
+        if (size <= maxPayloadSize) {
+            ManyToOneConcurrentArrayQueue<byte[]> sizeClass = sizeClass(size);
+            byte[] payload = sizeClass.poll();
+            if (payload != null) {
+                if (payload.length == size) {
+                    pooled.decrementAndGet();
+                    return payload;
+                }
+                // the payload has another size in the same size class; keep it for a packet of its own size
+                if (!sizeClass.offer(payload)) {
+                    pooled.decrementAndGet();
+                }
+            }
+        }
+        return new byte[size];
+    }
+
+    /**
+     * Releases a payload so it can be reused. If the pool is full or the payload is too big, the payload is dropped.
+     *
+     * Can be called by any thread.
+     *
+     * @param payload the payload to release.
+     */
+    public void release(byte[] payload) {
+        if (payload.length > maxPayloadSize) {
+            return;
+        }
+
+        if (pooled.incrementAndGet() > capacity || !sizeClass(payload.length).offer(payload)) {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of pooled payloads.
+     *
+     * @return the number of pooled payloads.
+     */
+    public int size() {
+        return pooled.get();
+    }
+
+    private ManyToOneConcurrentArrayQueue<byte[]> sizeClass(int payloadSize) {
+        return sizeClasses[payloadSize & SIZE_CLASS_MASK];
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.compression;
+
+/**
+ * Compresses and decompresses byte arrays.
+ * <p/>
+ * A codec is shared between threads, so implementations need to be thread-safe. The length of the uncompressed data is
+ * always known by the caller when decompressing, so a codec doesn't need to store it in the compressed form.
+ *
+ * @see CompressionCodecs
+ */
+public interface CompressionCodec {
+
+    /**
+     * Compresses the given range of bytes.
+     *
+     * @param src    the bytes to compress.
+     * @param offset the offset of the first byte to compress.
+     * @param length the number of bytes to compress.
+     * @return the compressed bytes. The length of the returned array is the compressed length.
+     */
+    byte[] compress(byte[] src, int offset, int length);
+
+    /**
+     * Decompresses the given range of bytes into the destination array.
+     *
+     * @param src       the compressed bytes.
+     * @param srcOffset the offset of the first compressed byte.
+     * @param srcLength the number of compressed bytes.
+     * @param dst       the array to decompress into.
+     * @param dstOffset the offset in the destination array.
+     * @param dstLength the length of the decompressed data.
+     * @return the number of bytes written to the destination array, which is at most {@code dstLength}.
+     * @throws com.hazelcast.core.HazelcastException if the compressed bytes are corrupt.
+     */
+    int decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength);
+}
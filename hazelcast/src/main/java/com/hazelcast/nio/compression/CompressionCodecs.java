@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.compression;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.nio.ClassLoaderUtil;
+
+/**
+ * Utility to create a {@link CompressionCodec} from its configured name.
+ */
+public final class CompressionCodecs {
+
+    private CompressionCodecs() {
+    }
+
+    /**
+     * Creates a codec. The codec is either the name of a built-in codec, currently only
+     * {@value DeflateCompressionCodec#NAME}, or the class name of a {@link CompressionCodec} implementation with a
+     * no-arg constructor.
+     *
+     * @param codec       the name of the codec.
+     * @param classLoader the class loader to load a custom codec with.
+     * @return the created codec.
+     * @throws HazelcastException if the codec could not be created.
+     */
+    public static CompressionCodec newCodec(String codec, ClassLoader classLoader) {
+        if (DeflateCompressionCodec.NAME.equalsIgnoreCase(codec)) {
+            return new DeflateCompressionCodec();
+        }
+
+        try {
+            return ClassLoaderUtil.newInstance(classLoader, codec);
+        } catch (Exception e) {
+            throw new HazelcastException("Could not create compression codec: " + codec, e);
+        }
+    }
+}
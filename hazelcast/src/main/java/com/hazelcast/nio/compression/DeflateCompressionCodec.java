@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.compression;
+
+import com.hazelcast.core.HazelcastException;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link CompressionCodec} using the deflate algorithm of {@link java.util.zip}.
+ * <p/>
+ * Creating a {@link Deflater} or {@link Inflater} is expensive since it allocates native memory, so each thread reuses
+ * its own instances.
+ */
+public class DeflateCompressionCodec implements CompressionCodec {
+
+    /**
+     * The name to select this codec with.
+     */
+    public static final String NAME = "deflate";
+
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+    };
+
+    public DeflateCompressionCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param level the compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+     */
+    public DeflateCompressionCodec(final int level) {
+        this.deflaters = new ThreadLocal<Deflater>() {
+            @Override
+            protected Deflater initialValue() {
+                return new Deflater(level);
+            }
+        };
+    }
+
+    @Override
+    public byte[] compress(byte[] src, int offset, int length) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(src, offset, length);
+        deflater.finish();
+
+        byte[] dst = new byte[Math.max(length / 2, MIN_BUFFER_SIZE)];
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == dst.length) {
+                dst = Arrays.copyOf(dst, dst.length * 2);
+            }
+            size += deflater.deflate(dst, size, dst.length - size);
+        }
+        return size == dst.length ? dst : Arrays.copyOf(dst, size);
+    }
+
+    @Override
+    public int decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength) {
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(src, srcOffset, srcLength);
+        try {
+            int size = 0;
+            while (size < dstLength) {
+                int inflated = inflater.inflate(dst, dstOffset + size, dstLength - size);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new HazelcastException("Compressed data is truncated, expected " + dstLength
+                            + " bytes but only " + size + " bytes could be decompressed");
+                }
+                size += inflated;
+            }
+            if (!inflater.finished() && inflater.inflate(new byte[1]) > 0) {
+                throw new HazelcastException("Compressed data is larger than the expected " + dstLength + " bytes");
+            }
+            return size;
+        } catch (DataFormatException e) {
+            throw new HazelcastException("Compressed data is corrupt", e);
+        }
+    }
+}
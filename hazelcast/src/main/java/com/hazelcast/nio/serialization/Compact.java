@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.spi.annotation.Beta;
+
+import java.io.IOException;
+
+/**
+ * Compact provides an alternative to {@link Portable} that produces smaller payloads while still allowing single fields to
+ * be read without deserializing the object; e.g. when querying.
+ * <p/>
+ * The fields of a Compact object are described by a schema that is derived from the fields written by
+ * {@link #writeCompact(CompactWriter)}. Every serialized object starts with the 64-bit fingerprint of its schema. Fixed
+ * size fields are packed at fixed offsets and variable size fields are located through an offset table, so a field is
+ * read in constant time.
+ * <p/>
+ * The schema is sent along with the object, after its fields. A member or client that doesn't know the fingerprint yet
+ * registers the schema from the data, so it can query on the object even if the class isn't on its classpath. The schema
+ * is derived deterministically from the class, so the fingerprints are the same on every member.
+ * <p/>
+ * Requirements:
+ * <ol>
+ * <li>the class needs a public no-arg constructor</li>
+ * <li>{@link #writeCompact(CompactWriter)} needs to write the same fields, with the same types, for every instance of the
+ * class</li>
+ * </ol>
+ */
+@Beta
+public interface Compact {
+
+    /**
+     * Serializes this object by writing its fields to the given writer.
+     *
+     * @param writer CompactWriter to write the fields to
+     * @throws IOException
+     */
+    void writeCompact(CompactWriter writer) throws IOException;
+
+    /**
+     * Deserializes this object by reading its fields from the given reader.
+     *
+     * @param reader CompactReader to read the fields from
+     * @throws IOException
+     */
+    void readCompact(CompactReader reader) throws IOException;
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.spi.annotation.Beta;
+
+import java.io.IOException;
+
+/**
+ * Provides a mean of reading the fields of a {@link Compact} object. The fields can be read in any order.
+ *
+ * Reading a field that was not written, or reading it using a different type than it was written with, results in a
+ * {@link HazelcastSerializationException}.
+ */
+@Beta
+public interface CompactReader {
+
+    /**
+     * Reads a primitive boolean.
+     *
+     * @param fieldName name of the field
+     * @return the boolean value read
+     * @throws IOException
+     */
+    boolean readBoolean(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive byte.
+     *
+     * @param fieldName name of the field
+     * @return the byte value read
+     * @throws IOException
+     */
+    byte readByte(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive char.
+     *
+     * @param fieldName name of the field
+     * @return the char value read
+     * @throws IOException
+     */
+    char readChar(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive short.
+     *
+     * @param fieldName name of the field
+     * @return the short value read
+     * @throws IOException
+     */
+    short readShort(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive int.
+     *
+     * @param fieldName name of the field
+     * @return the int value read
+     * @throws IOException
+     */
+    int readInt(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive long.
+     *
+     * @param fieldName name of the field
+     * @return the long value read
+     * @throws IOException
+     */
+    long readLong(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive float.
+     *
+     * @param fieldName name of the field
+     * @return the float value read
+     * @throws IOException
+     */
+    float readFloat(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive double.
+     *
+     * @param fieldName name of the field
+     * @return the double value read
+     * @throws IOException
+     */
+    double readDouble(String fieldName) throws IOException;
+
+    /**
+     * Reads an UTF string.
+     *
+     * @param fieldName name of the field
+     * @return the String value read
+     * @throws IOException
+     */
+    String readUTF(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive byte-array.
+     *
+     * @param fieldName name of the field
+     * @return the byte[] value read
+     * @throws IOException
+     */
+    byte[] readByteArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive boolean-array.
+     *
+     * @param fieldName name of the field
+     * @return the boolean[] value read
+     * @throws IOException
+     */
+    boolean[] readBooleanArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive char-array.
+     *
+     * @param fieldName name of the field
+     * @return the char[] value read
+     * @throws IOException
+     */
+    char[] readCharArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive short-array.
+     *
+     * @param fieldName name of the field
+     * @return the short[] value read
+     * @throws IOException
+     */
+    short[] readShortArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive int-array.
+     *
+     * @param fieldName name of the field
+     * @return the int[] value read
+     * @throws IOException
+     */
+    int[] readIntArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive long-array.
+     *
+     * @param fieldName name of the field
+     * @return the long[] value read
+     * @throws IOException
+     */
+    long[] readLongArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive float-array.
+     *
+     * @param fieldName name of the field
+     * @return the float[] value read
+     * @throws IOException
+     */
+    float[] readFloatArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a primitive double-array.
+     *
+     * @param fieldName name of the field
+     * @return the double[] value read
+     * @throws IOException
+     */
+    double[] readDoubleArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a String-array.
+     *
+     * @param fieldName name of the field
+     * @return the String[] value read
+     * @throws IOException
+     */
+    String[] readUTFArray(String fieldName) throws IOException;
+
+    /**
+     * Reads a nested Compact object.
+     *
+     * @param fieldName name of the field
+     * @param <T>       the type of the Compact object
+     * @return the Compact object read; can be null
+     * @throws IOException
+     */
+    <T extends Compact> T readCompact(String fieldName) throws IOException;
+
+    /**
+     * Checks if the object has a field with the given name.
+     *
+     * @param fieldName name of the field
+     * @return true if the field exists, false otherwise
+     */
+    boolean hasField(String fieldName);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Marks a class for which a {@link StreamSerializer} should be generated at compile time by the Hazelcast serializer
+ * annotation processor (the hazelcast-codegen module).
+ *
+ * For every annotated class the processor generates a reflection free StreamSerializer named
+ * {@code <ClassName>Serializer} and a {@link SerializerHook} named {@code <ClassName>SerializerHook} in the same package,
+ * and registers the hook in "META-INF/services/com.hazelcast.SerializerHook" so the serializer is picked up
+ * automatically when the serialization service is created.
+ *
+ * The annotated class needs an accessible no-arg constructor. All non static and non transient fields are serialized in
+ * declaration order; private fields need a getter and setter following the JavaBeans naming convention.
+ *
+ * A generated serializer takes precedence over {@link DataSerializable} and {@link Portable} serialization of the class,
+ * so an existing domain class can be annotated without being changed. Be aware that this changes the binary format of
+ * the class; all members and clients need to use the same serializers.
+ */
+@Documented
+@Retention(CLASS)
+@Target(TYPE)
+public @interface GenerateSerializer {
+
+    /**
+     * The type id of the generated serializer; see {@link Serializer#getTypeId()}. Needs to be unique and positive.
+     *
+     * @return the type id.
+     */
+    int typeId();
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp;
+
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.compression.CompressionCodec;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+
+/**
+ * A {@link MemberWriteHandler} that compresses the payload of large packets before writing them.
+ *
+ * Packets are only compressed once the other member has advertised the same codec in the bind handshake, see
+ * {@link TcpIpConnection#isCompressionEnabled()}. Till then, e.g. for the bind packet itself, they are written as is.
+ *
+ * A packet with a payload of at least the threshold is replaced by a packet with the {@link Packet#FLAG_COMPRESSED} flag,
+ * whose payload is the length of the original payload followed by the compressed bytes. If compressing doesn't make the
+ * payload smaller, the original packet is written. The {@link MemberReadHandler} on the other side restores the original
+ * packet.
+ *
+ * Compression is done by the thread writing to the socket. Since a packet can take multiple calls to
+ * {@link #onWrite(Packet, ByteBuffer)} to be written, the compressed packet is retained till it is completely written.
+ */
+public class CompressingMemberWriteHandler extends MemberWriteHandler {
+
+    private final TcpIpConnection connection;
+    private final CompressionCodec codec;
+    private final int threshold;
+    private final int maxSize;
+
+    // the packet currently being written and the packet that is actually written for it
+    private Packet packet;
+    private Packet packetToWrite;
+
+    /**
+     * @param connection the connection to write to.
+     * @param codec      the codec to compress with.
+     * @param threshold  the minimum payload size of a packet to compress it.
+     * @param maxSize    the maximum payload size of a packet to compress it; larger packets are written as is, since the
+     *                   other member rejects them.
+     */
+    public CompressingMemberWriteHandler(TcpIpConnection connection, CompressionCodec codec, int threshold, int maxSize) {
+        this.connection = connection;
+        this.codec = codec;
+        this.threshold = threshold;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public boolean onWrite(Packet packet, ByteBuffer dst) {
+        if (this.packet != packet) {
+            this.packet = packet;
+            this.packetToWrite = compress(packet);
+        }
+
+        boolean complete = packetToWrite.writeTo(dst);
+        if (complete) {
+            this.packet = null;
+            this.packetToWrite = null;
+        }
+        return complete;
+    }
+
+    private Packet compress(Packet packet) {
+        int size = packet.totalSize();
+        if (size < threshold || size > maxSize || packet.isFlagSet(Packet.FLAG_COMPRESSED)
+                || !connection.isCompressionEnabled()) {
+            return packet;
+        }
+
+        byte[] compressed = codec.compress(packet.toByteArray(), 0, size);
+        if (compressed.length + INT_SIZE_IN_BYTES >= size) {
+            return packet;
+        }
+
+        byte[] payload = new byte[INT_SIZE_IN_BYTES + compressed.length];
+        Bits.writeIntB(payload, 0, size);
+        System.arraycopy(compressed, 0, payload, INT_SIZE_IN_BYTES, compressed.length);
+        return new Packet(payload, packet.getPartitionId()).setAllFlags(packet.getFlags() | Packet.FLAG_COMPRESSED);
+    }
+}
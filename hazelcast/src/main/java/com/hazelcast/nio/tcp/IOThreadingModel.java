@@ -46,6 +46,10 @@ import com.hazelcast.nio.Connection;
  * is a concern of the {@link ReadHandler} and the {@link WriteHandler} instance each SocketReader/SocketWriter
  * has. So a SocketReader/SocketWriter-class is independent of the type of communication that runs on top of it.
  *
+ * Which IOThreadingModel a member uses can be configured using the 'hazelcast.io.threading.model' system property. This
+ * also allows plugging in a custom IOThreadingModel, e.g. one that uses a native event loop, with a fallback to the
+ * non blocking IOThreadingModel when it isn't available; see {@link com.hazelcast.instance.DefaultNodeContext}.
+ *
  * @see com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadingModel
  * @see com.hazelcast.nio.tcp.spinning.SpinningIOThreadingModel
  */
@@ -17,16 +17,29 @@
 package com.hazelcast.nio.tcp;
 
 import com.hazelcast.internal.util.counters.Counter;
+import com.hazelcast.nio.Bits;
 import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.PacketPayloadPool;
+import com.hazelcast.nio.compression.CompressionCodec;
 import com.hazelcast.spi.impl.packetdispatcher.PacketDispatcher;
 
 import java.nio.ByteBuffer;
 
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+
 /**
  * The {@link ReadHandler} for member to member communication.
  *
  * It reads as many packets from the src ByteBuffer as possible, and each of the Packets is send to the {@link PacketDispatcher}.
  *
+ * The payloads of the packets are taken from a {@link PacketPayloadPool}, so that once a packet has been deserialized its
+ * payload can be reused for a subsequent packet of the same size instead of allocating a new byte-array. The pool is
+ * configured using {@link com.hazelcast.spi.properties.GroupProperty#IO_READ_PAYLOAD_POOL_SIZE}; 0 disables pooling.
+ *
+ * Packets with the {@link Packet#FLAG_COMPRESSED} flag, see {@link CompressingMemberWriteHandler}, are decompressed before
+ * they are dispatched. The uncompressed size is send by the other member, so it is validated before anything is allocated
+ * and the codec has to produce exactly that many bytes; otherwise the packet is rejected and the connection is closed.
+ *
  * @see PacketDispatcher
  * @see MemberWriteHandler
  */
@@ -38,20 +51,38 @@ public class MemberReadHandler implements ReadHandler {
     private final PacketDispatcher packetDispatcher;
     private final Counter normalPacketsRead;
     private final Counter priorityPacketsRead;
+    private final PacketPayloadPool payloadPool;
+    private final CompressionCodec compressionCodec;
+    private final int compressionMaxSize;
 
     public MemberReadHandler(TcpIpConnection connection, PacketDispatcher packetDispatcher) {
+        this(connection, packetDispatcher, null, 0, null);
+    }
+
+    /**
+     * @param compressionCodec the codec to decompress compressed packets with. If null, receiving a compressed packet
+     *                         fails.
+     * @param compressionMaxSize the maximum uncompressed payload size of a compressed packet.
+     * @param payloadPool      the pool to take the payloads of the received packets from. If null, payloads are always
+     *                         allocated.
+     */
+    public MemberReadHandler(TcpIpConnection connection, PacketDispatcher packetDispatcher,
+                             CompressionCodec compressionCodec, int compressionMaxSize, PacketPayloadPool payloadPool) {
         this.connection = connection;
+        this.compressionCodec = compressionCodec;
+        this.compressionMaxSize = compressionMaxSize;
         this.packetDispatcher = packetDispatcher;
         SocketReader socketReader = connection.getSocketReader();
         this.normalPacketsRead = socketReader.getNormalFramesReadCounter();
         this.priorityPacketsRead = socketReader.getPriorityFramesReadCounter();
+        this.payloadPool = payloadPool;
     }
 
     @Override
     public void onRead(ByteBuffer src) throws Exception {
         while (src.hasRemaining()) {
             if (packet == null) {
-                packet = new Packet();
+                packet = payloadPool == null ? new Packet() : new Packet(payloadPool);
             }
             boolean complete = packet.readFrom(src);
             if (complete) {
@@ -70,8 +101,38 @@ public class MemberReadHandler implements ReadHandler {
             normalPacketsRead.inc();
         }
 
-        packet.setConn(connection);
+        Packet dispatched = packet.isFlagSet(Packet.FLAG_COMPRESSED) ? decompress(packet) : packet;
+        dispatched.setConn(connection);
+
+        packetDispatcher.dispatch(dispatched);
+    }
+
+    private Packet decompress(Packet packet) {
+        if (compressionCodec == null) {
+            throw new IllegalStateException("Received a compressed packet, but no compression codec is configured");
+        }
+
+        byte[] payload = packet.toByteArray();
+        if (payload == null || payload.length < INT_SIZE_IN_BYTES) {
+            throw new IllegalStateException("Received a compressed packet without the uncompressed size");
+        }
+        int size = Bits.readIntB(payload, 0);
+        if (size < 0 || size > compressionMaxSize) {
+            throw new IllegalStateException("Received a compressed packet with an invalid uncompressed size of " + size
+                    + " bytes, the maximum is " + compressionMaxSize + " bytes");
+        }
+        byte[] decompressed = new byte[size];
+        int decompressedSize = compressionCodec.decompress(
+                payload, INT_SIZE_IN_BYTES, payload.length - INT_SIZE_IN_BYTES, decompressed, 0, size);
+        if (decompressedSize != size) {
+            throw new IllegalStateException("Compressed packet decompressed to " + decompressedSize
+                    + " bytes, but " + size + " bytes were expected");
+        }
 
-        packetDispatcher.dispatch(packet);
+        Packet result = new Packet(decompressed, packet.getPartitionId())
+                .setAllFlags(packet.getFlags() & ~Packet.FLAG_COMPRESSED);
+        // the compressed payload isn't needed anymore, so it can be reused straight away
+        packet.releasePayload();
+        return result;
     }
 }
@@ -41,6 +41,15 @@ public interface SocketWriter {
      */
     int totalFramesPending();
 
+    /**
+     * Returns the number of bytes of the normal priority packets pending to be written to the socket.
+     *
+     * This is used to detect overloaded connections.
+     *
+     * @return the number of pending bytes.
+     */
+    long bytesPending();
+
     /**
      * Returns the last {@link com.hazelcast.util.Clock#currentTimeMillis()} that a write to the socket completed.
      *
@@ -56,9 +65,12 @@ public interface SocketWriter {
      *
      * No guarantees are made that the frame is going to be written or received by the other side.
      *
+     * This call never blocks. If the write queue is bound and full, the frame is rejected.
+     *
      * @param frame the Frame to write.
+     * @return true if the frame was queued, false if it was rejected because the write queue is full.
      */
-    void write(OutboundFrame frame);
+    boolean write(OutboundFrame frame);
 
     /**
      * Gets the {@link WriteHandler} that belongs to this SocketWriter.
@@ -72,6 +72,8 @@ public final class TcpIpConnection implements Connection, MetricsProvider, Disca
 
     private volatile String closeReason;
 
+    private volatile boolean compressionEnabled;
+
     public TcpIpConnection(TcpIpConnectionManager connectionManager,
                            int connectionId,
                            SocketChannelWrapper socketChannel,
@@ -173,6 +175,20 @@ public final class TcpIpConnection implements Connection, MetricsProvider, Disca
         this.endPoint = endPoint;
     }
 
+    /**
+     * Checks if packets written to this connection may be compressed. This is only the case once the other member has
+     * advertised the same compression codec in the bind handshake, so it is able to decompress them.
+     *
+     * @return true if packets may be compressed, false otherwise.
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
     public void setMonitor(TcpIpConnectionMonitor monitor) {
         this.monitor = monitor;
     }
@@ -217,7 +233,12 @@ public final class TcpIpConnection implements Connection, MetricsProvider, Disca
             }
             return false;
         }
-        socketWriter.write(frame);
+        if (!socketWriter.write(frame)) {
+            if (logger.isFinestEnabled()) {
+                logger.finest("Write queue is full, won't write packet -> " + frame);
+            }
+            return false;
+        }
         return true;
     }
 
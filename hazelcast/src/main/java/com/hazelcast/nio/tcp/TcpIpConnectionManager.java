@@ -31,6 +31,7 @@ import com.hazelcast.nio.ConnectionManager;
 import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.MemberSocketInterceptor;
 import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.compression.CompressionCodec;
 import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadingModel;
 import com.hazelcast.nio.tcp.nonblocking.iobalancer.IOBalancer;
 import com.hazelcast.spi.impl.PacketHandler;
@@ -233,7 +234,19 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         assert packet.isFlagSet(Packet.FLAG_BIND);
 
         BindMessage bind = ioService.getSerializationService().toObject(packet);
-        bind((TcpIpConnection) packet.getConn(), bind.getLocalAddress(), bind.getTargetAddress(), bind.shouldReply());
+        TcpIpConnection connection = (TcpIpConnection) packet.getConn();
+        connection.setCompressionEnabled(isCompressionSupported(bind.getCompressionCodec()));
+        bind(connection, bind.getLocalAddress(), bind.getTargetAddress(), bind.shouldReply());
+    }
+
+    private boolean isCompressionSupported(String remoteCompressionCodec) {
+        String compressionCodec = getCompressionCodec();
+        return compressionCodec != null && compressionCodec.equals(remoteCompressionCodec);
+    }
+
+    private String getCompressionCodec() {
+        CompressionCodec codec = ioService.getCompressionCodec();
+        return codec == null ? null : codec.getClass().getName();
     }
 
     /**
@@ -333,7 +346,7 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         if (logger.isFinestEnabled()) {
             logger.finest("Sending bind packet to " + remoteEndPoint);
         }
-        BindMessage bind = new BindMessage(ioService.getThisAddress(), remoteEndPoint, replyBack);
+        BindMessage bind = new BindMessage(ioService.getThisAddress(), remoteEndPoint, replyBack, getCompressionCodec());
         byte[] bytes = ioService.getSerializationService().toBytes(bind);
         Packet packet = new Packet(bytes);
         packet.setFlag(Packet.FLAG_BIND);
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.epoll;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.tcp.SocketChannelWrapper;
+import com.hazelcast.nio.tcp.TcpIpConnection;
+
+import java.io.EOFException;
+
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+
+/**
+ * The base of the handlers that read from or write to the socket of a {@link TcpIpConnection} on the events their
+ * {@link EpollIOThread} receives for the file descriptor of the socket.
+ */
+public abstract class AbstractHandler {
+
+    @Probe
+    protected final SwCounter eventCount = newSwCounter();
+    protected final TcpIpConnection connection;
+    protected final SocketChannelWrapper socketChannel;
+    protected final EpollIOThread ioThread;
+    protected final ILogger logger;
+    protected final int fd;
+
+    public AbstractHandler(TcpIpConnection connection, EpollIOThread ioThread, ILogger logger) {
+        this.connection = connection;
+        this.socketChannel = connection.getSocketChannelWrapper();
+        this.ioThread = ioThread;
+        this.logger = logger;
+        this.fd = Epoll.fdOf(socketChannel.socket().getChannel());
+    }
+
+    public SocketChannelWrapper getSocketChannel() {
+        return socketChannel;
+    }
+
+    /**
+     * Registers the file descriptor of the socket at the ioThread.
+     */
+    public void register() {
+        ioThread.register(this);
+    }
+
+    /**
+     * Deregisters the file descriptor of the socket from the ioThread.
+     */
+    public void deregister() {
+        ioThread.deregister(this);
+    }
+
+    /**
+     * Handles an event of the file descriptor. Since the file descriptor is registered edge-triggered, it needs to
+     * read or write till the socket would block; otherwise it isn't notified again.
+     * <p/>
+     * This call is only made by the ioThread.
+     *
+     * @throws Exception if the event can't be handled, after which the connection is closed.
+     */
+    abstract void handle() throws Exception;
+
+    public void onFailure(Throwable e) {
+        if (e instanceof OutOfMemoryError) {
+            ioThread.getOomeHandler().handle((OutOfMemoryError) e);
+        }
+
+        if (e instanceof EOFException) {
+            connection.close("Connection closed by the other side", e);
+        } else {
+            connection.close("Exception in " + getClass().getSimpleName(), e);
+        }
+    }
+}
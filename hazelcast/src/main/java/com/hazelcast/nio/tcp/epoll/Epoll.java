@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.epoll;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
+import static com.hazelcast.util.StringUtil.lowerCaseInternal;
+
+/**
+ * The JNI bindings of the Linux epoll and eventfd system calls used by the {@link EpollIOThreadingModel}.
+ *
+ * The native part is the 'hazelcast-epoll' library, see src/main/native/hazelcast-epoll.c, which is loaded from the
+ * java.library.path. When it can't be loaded, e.g. because the member doesn't run on Linux, {@link #isAvailable()}
+ * returns false and the native methods must not be called.
+ */
+final class Epoll {
+
+    static final int EPOLLIN = 0x001;
+    static final int EPOLLOUT = 0x004;
+    static final int EPOLLRDHUP = 0x2000;
+    static final int EPOLLET = 1 << 31;
+
+    static final int EPOLL_CTL_ADD = 1;
+    static final int EPOLL_CTL_DEL = 2;
+
+    static final String LIBRARY_NAME = "hazelcast-epoll";
+
+    private static final Throwable UNAVAILABILITY_CAUSE;
+
+    static {
+        Throwable cause = null;
+        try {
+            if (!lowerCaseInternal(System.getProperty("os.name")).startsWith("linux")) {
+                throw new UnsupportedOperationException("epoll is only available on Linux");
+            }
+            System.loadLibrary(LIBRARY_NAME);
+        } catch (Throwable t) {
+            cause = t;
+        }
+        UNAVAILABILITY_CAUSE = cause;
+    }
+
+    private Epoll() {
+    }
+
+    /**
+     * Checks if the native library is loaded.
+     *
+     * @return true if the native methods can be used, false otherwise.
+     */
+    static boolean isAvailable() {
+        return UNAVAILABILITY_CAUSE == null;
+    }
+
+    /**
+     * Makes sure the native library is loaded.
+     *
+     * @throws UnsatisfiedLinkError if the native library isn't loaded.
+     */
+    static void ensureAvailability() {
+        if (UNAVAILABILITY_CAUSE != null) {
+            UnsatisfiedLinkError error = new UnsatisfiedLinkError("Native library '" + LIBRARY_NAME + "' is not available: "
+                    + UNAVAILABILITY_CAUSE.getMessage());
+            error.initCause(UNAVAILABILITY_CAUSE);
+            throw error;
+        }
+    }
+
+    static native int epollCreate() throws IOException;
+
+    static native void epollCtl(int epfd, int op, int fd, int events) throws IOException;
+
+    /**
+     * Waits for events on the epoll instance.
+     *
+     * @param epfd          the epoll instance.
+     * @param fds           receives the file descriptors that are ready.
+     * @param events        receives the events of the file descriptors that are ready.
+     * @param timeoutMillis the maximum time to wait; 0 doesn't wait and -1 waits indefinitely.
+     * @return the number of ready file descriptors; 0 if the timeout expired or if the wait was interrupted.
+     * @throws IOException if the wait failed.
+     */
+    static native int epollWait(int epfd, int[] fds, int[] events, int timeoutMillis) throws IOException;
+
+    static native int eventFd() throws IOException;
+
+    static native void eventFdWrite(int fd) throws IOException;
+
+    static native void eventFdRead(int fd) throws IOException;
+
+    static native void close(int fd) throws IOException;
+
+    /**
+     * Returns the file descriptor of a SocketChannel.
+     *
+     * @param channel the SocketChannel.
+     * @return the file descriptor.
+     * @throws NoSuchFieldError if the SocketChannel implementation of this JVM is not supported.
+     */
+    static native int fdOf(SocketChannel channel);
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.epoll;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadOutOfMemoryHandler;
+import com.hazelcast.spi.impl.operationexecutor.OperationHostileThread;
+import com.hazelcast.util.EmptyStatement;
+import com.hazelcast.util.collection.Int2ObjectHashMap;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.nio.tcp.epoll.Epoll.EPOLLIN;
+import static com.hazelcast.nio.tcp.epoll.Epoll.EPOLL_CTL_ADD;
+import static com.hazelcast.nio.tcp.epoll.Epoll.EPOLL_CTL_DEL;
+
+/**
+ * An io thread that waits for the events of its connections using an edge-triggered epoll instance.
+ *
+ * The file descriptor of a connection is registered once, for all the events this thread handles. Since the
+ * registration is edge-triggered, the interest set never needs to be changed afterwards; a handler is notified once
+ * the socket becomes readable or writable again and then needs to read or write until the socket would block.
+ *
+ * Other threads wake this thread up by writing to an eventfd, but only when this thread actually is about to wait for
+ * events, so a busy io thread isn't interrupted by a system call for every task.
+ */
+public class EpollIOThread extends Thread implements OperationHostileThread {
+
+    // the maximum time to wait for events; a thread adding a task wakes this thread up.
+    private static final int WAIT_TIME_MILLIS = 5000;
+    private static final int MAX_EVENTS = 1024;
+
+    @Probe(name = "taskQueueSize")
+    private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<Runnable>();
+    @Probe
+    private final SwCounter eventCount = newSwCounter();
+    @Probe
+    private final SwCounter completedTaskCount = newSwCounter();
+    @Probe
+    private final MwCounter wakeupCount = newMwCounter();
+
+    private final ILogger logger;
+    private final NonBlockingIOThreadOutOfMemoryHandler oomeHandler;
+    // the epoll events the file descriptors of the handlers of this thread are registered for
+    private final int events;
+    private final int epollFd;
+    private final int eventFd;
+    private final Int2ObjectHashMap<AbstractHandler> handlers = new Int2ObjectHashMap<AbstractHandler>();
+    private final int[] readyFds = new int[MAX_EVENTS];
+    private final int[] readyEvents = new int[MAX_EVENTS];
+    // set while this thread is about to wait for events, so a thread adding a task needs to wake it up
+    private final AtomicBoolean waiting = new AtomicBoolean();
+    private volatile boolean stop;
+
+    public EpollIOThread(ThreadGroup threadGroup,
+                         String threadName,
+                         ILogger logger,
+                         NonBlockingIOThreadOutOfMemoryHandler oomeHandler,
+                         int events) {
+        super(threadGroup, threadName);
+        this.logger = logger;
+        this.oomeHandler = oomeHandler;
+        this.events = events;
+        try {
+            this.epollFd = Epoll.epollCreate();
+            this.eventFd = Epoll.eventFd();
+            Epoll.epollCtl(epollFd, EPOLL_CTL_ADD, eventFd, EPOLLIN);
+        } catch (IOException e) {
+            throw new HazelcastException("Failed to create an epoll instance", e);
+        }
+    }
+
+    public NonBlockingIOThreadOutOfMemoryHandler getOomeHandler() {
+        return oomeHandler;
+    }
+
+    /**
+     * Returns the total number of events that have been processed by this thread.
+     *
+     * @return total number of events.
+     */
+    public long getEventCount() {
+        return eventCount.get();
+    }
+
+    /**
+     * Adds a task to this EpollIOThread without notifying the thread. Should only be called by this thread.
+     *
+     * @param task the task to add
+     * @throws NullPointerException if task is null
+     */
+    public final void addTask(Runnable task) {
+        taskQueue.add(task);
+    }
+
+    /**
+     * Adds a task to be executed by the EpollIOThread and wakes up the thread if it is waiting for events.
+     *
+     * @param task the task to add.
+     * @throws NullPointerException if task is null
+     */
+    public void addTaskAndWakeup(Runnable task) {
+        taskQueue.add(task);
+        if (waiting.get() && waiting.compareAndSet(true, false)) {
+            wakeup();
+        }
+    }
+
+    private void wakeup() {
+        wakeupCount.inc();
+        try {
+            Epoll.eventFdWrite(eventFd);
+        } catch (IOException e) {
+            logger.warning(getName() + " failed to wake up", e);
+        }
+    }
+
+    /**
+     * Registers the file descriptor of the handler, so the handler is called on its events.
+     *
+     * @param handler the handler to register.
+     */
+    void register(final AbstractHandler handler) {
+        addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    handlers.put(handler.fd, handler);
+                    Epoll.epollCtl(epollFd, EPOLL_CTL_ADD, handler.fd, events);
+                } catch (Throwable t) {
+                    handlers.remove(handler.fd);
+                    handler.onFailure(t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deregisters the file descriptor of the handler.
+     *
+     * @param handler the handler to deregister.
+     */
+    void deregister(final AbstractHandler handler) {
+        addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                if (handlers.get(handler.fd) != handler) {
+                    // the file descriptor has been closed and reused by a new connection in the meantime
+                    return;
+                }
+
+                handlers.remove(handler.fd);
+                try {
+                    Epoll.epollCtl(epollFd, EPOLL_CTL_DEL, handler.fd, 0);
+                } catch (IOException e) {
+                    // closing the file descriptor already removed it from the epoll instance
+                    EmptyStatement.ignore(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public final void run() {
+        try {
+            eventLoop();
+        } catch (OutOfMemoryError e) {
+            oomeHandler.handle(e);
+        } catch (Throwable e) {
+            logger.warning("Unhandled exception in " + getName(), e);
+        } finally {
+            closeFileDescriptors();
+        }
+
+        logger.finest(getName() + " finished");
+    }
+
+    private void eventLoop() throws IOException {
+        while (!stop) {
+            processTaskQueue();
+
+            waiting.set(true);
+            // a task added before the waiting flag was set didn't wake this thread up, so it must not wait
+            int timeoutMillis = taskQueue.isEmpty() ? WAIT_TIME_MILLIS : 0;
+            int readyCount = Epoll.epollWait(epollFd, readyFds, readyEvents, timeoutMillis);
+            waiting.set(false);
+
+            for (int i = 0; i < readyCount; i++) {
+                handleEvent(readyFds[i]);
+            }
+        }
+    }
+
+    private void processTaskQueue() {
+        while (!stop) {
+            Runnable task = taskQueue.poll();
+            if (task == null) {
+                return;
+            }
+            executeTask(task);
+        }
+    }
+
+    private void executeTask(Runnable task) {
+        completedTaskCount.inc();
+        try {
+            task.run();
+        } catch (Throwable t) {
+            logger.warning(getName() + " caught an exception while processing task:" + task, t);
+        }
+    }
+
+    private void handleEvent(int fd) throws IOException {
+        if (fd == eventFd) {
+            Epoll.eventFdRead(eventFd);
+            return;
+        }
+
+        AbstractHandler handler = handlers.get(fd);
+        if (handler == null) {
+            // the handler was deregistered while its event was pending
+            return;
+        }
+
+        eventCount.inc();
+        try {
+            handler.handle();
+        } catch (Throwable t) {
+            handler.onFailure(t);
+        }
+    }
+
+    private void closeFileDescriptors() {
+        try {
+            Epoll.close(eventFd);
+            Epoll.close(epollFd);
+        } catch (IOException e) {
+            logger.finest("Failed to close the epoll instance", e);
+        }
+    }
+
+    public final void shutdown() {
+        stop = true;
+        taskQueue.clear();
+        wakeup();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
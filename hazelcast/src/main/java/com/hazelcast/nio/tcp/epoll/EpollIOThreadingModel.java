@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.epoll;
+
+import com.hazelcast.instance.HazelcastThreadGroup;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.LoggingService;
+import com.hazelcast.nio.IOService;
+import com.hazelcast.nio.tcp.IOThreadingModel;
+import com.hazelcast.nio.tcp.SocketReader;
+import com.hazelcast.nio.tcp.SocketReaderInitializer;
+import com.hazelcast.nio.tcp.SocketReaderInitializerImpl;
+import com.hazelcast.nio.tcp.SocketWriter;
+import com.hazelcast.nio.tcp.SocketWriterInitializer;
+import com.hazelcast.nio.tcp.SocketWriterInitializerImpl;
+import com.hazelcast.nio.tcp.TcpIpConnection;
+import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadOutOfMemoryHandler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.nio.tcp.epoll.Epoll.EPOLLET;
+import static com.hazelcast.nio.tcp.epoll.Epoll.EPOLLIN;
+import static com.hazelcast.nio.tcp.epoll.Epoll.EPOLLOUT;
+import static com.hazelcast.nio.tcp.epoll.Epoll.EPOLLRDHUP;
+import static com.hazelcast.util.HashUtil.hashToIndex;
+
+/**
+ * An {@link IOThreadingModel} that uses the Linux-native, edge-triggered epoll event loop instead of a JDK
+ * {@link java.nio.channels.Selector}.
+ *
+ * Like the {@link com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadingModel} there are input and output threads and
+ * each connection is assigned to one of each. Compared to a Selector:
+ * <ul>
+ * <li>the file descriptor of a connection is registered once, so a full socket doesn't cost epoll_ctl calls to
+ * register and unregister the interest in write events</li>
+ * <li>a thread adding a task only wakes up the io thread when it is waiting, using an eventfd, instead of a
+ * synchronized Selector.wakeup() on every task</li>
+ * <li>there are no selected-key sets, so there is no garbage and none of the {@link java.nio.channels.Selector}
+ * workarounds</li>
+ * </ul>
+ * The socket IO itself still goes through the SocketChannel of the connection.
+ *
+ * The native 'hazelcast-epoll' library needs to be on the java.library.path. If it isn't, the constructor throws an
+ * {@link UnsatisfiedLinkError} and the member falls back to the NonBlockingIOThreadingModel. Connections aren't
+ * migrated between io threads, so there is no IOBalancer.
+ *
+ * This is an experimental feature and disabled by default; it is enabled using
+ * {@link com.hazelcast.spi.properties.GroupProperty#IO_THREADING_MODEL}.
+ */
+public class EpollIOThreadingModel implements IOThreadingModel<TcpIpConnection, SocketReader, SocketWriter> {
+
+    private final EpollIOThread[] inputThreads;
+    private final EpollIOThread[] outputThreads;
+    private final AtomicInteger nextInputThreadIndex = new AtomicInteger();
+    private final AtomicInteger nextOutputThreadIndex = new AtomicInteger();
+    private final ILogger logger;
+    private final MetricsRegistry metricsRegistry;
+    private final LoggingService loggingService;
+    private final HazelcastThreadGroup hazelcastThreadGroup;
+    private final NonBlockingIOThreadOutOfMemoryHandler oomeHandler;
+    private final int writeQueueCapacity;
+    private final SocketWriterInitializer socketWriterInitializer;
+    private final SocketReaderInitializer socketReaderInitializer;
+
+    public EpollIOThreadingModel(final IOService ioService,
+                                 LoggingService loggingService,
+                                 MetricsRegistry metricsRegistry,
+                                 HazelcastThreadGroup hazelcastThreadGroup) {
+        Epoll.ensureAvailability();
+
+        this.logger = loggingService.getLogger(EpollIOThreadingModel.class);
+        this.loggingService = loggingService;
+        this.metricsRegistry = metricsRegistry;
+        this.hazelcastThreadGroup = hazelcastThreadGroup;
+        this.inputThreads = new EpollIOThread[ioService.getInputSelectorThreadCount()];
+        this.outputThreads = new EpollIOThread[ioService.getOutputSelectorThreadCount()];
+        this.writeQueueCapacity = ioService.getWriteQueueCapacity();
+        this.socketWriterInitializer = new SocketWriterInitializerImpl(
+                loggingService.getLogger(SocketWriterInitializerImpl.class));
+        this.socketReaderInitializer = new SocketReaderInitializerImpl(
+                loggingService.getLogger(SocketReaderInitializerImpl.class));
+        this.oomeHandler = new NonBlockingIOThreadOutOfMemoryHandler() {
+            @Override
+            public void handle(OutOfMemoryError error) {
+                ioService.onOutOfMemory(error);
+            }
+        };
+    }
+
+    /**
+     * Checks if the native library could be loaded, so this IOThreadingModel can be used on this platform.
+     *
+     * @return true if available, false otherwise.
+     */
+    public static boolean isAvailable() {
+        return Epoll.isAvailable();
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    @Override
+    public void start() {
+        logger.info("TcpIpConnectionManager configured with Epoll IO-threading model: "
+                + inputThreads.length + " input threads and "
+                + outputThreads.length + " output threads");
+
+        startThreads(inputThreads, "in-", "tcp.inputThread", EPOLLIN | EPOLLRDHUP | EPOLLET);
+        startThreads(outputThreads, "out-", "tcp.outputThread", EPOLLOUT | EPOLLET);
+    }
+
+    private void startThreads(EpollIOThread[] threads, String namePrefix, String metricsPrefix, int events) {
+        for (int i = 0; i < threads.length; i++) {
+            EpollIOThread thread = new EpollIOThread(
+                    hazelcastThreadGroup.getInternalThreadGroup(),
+                    hazelcastThreadGroup.getThreadPoolNamePrefix("IO") + namePrefix + i,
+                    loggingService.getLogger(EpollIOThread.class),
+                    oomeHandler,
+                    events);
+            threads[i] = thread;
+            metricsRegistry.scanAndRegister(thread, metricsPrefix + "[" + thread.getName() + "]");
+            thread.start();
+        }
+    }
+
+    @Override
+    public SocketWriter newSocketWriter(TcpIpConnection connection) {
+        EpollIOThread outputThread = nextThread(outputThreads, nextOutputThreadIndex);
+        return new EpollSocketWriter(
+                connection,
+                outputThread,
+                loggingService.getLogger(EpollSocketWriter.class),
+                socketWriterInitializer,
+                writeQueueCapacity);
+    }
+
+    @Override
+    public SocketReader newSocketReader(TcpIpConnection connection) {
+        EpollIOThread inputThread = nextThread(inputThreads, nextInputThreadIndex);
+        return new EpollSocketReader(
+                connection,
+                inputThread,
+                loggingService.getLogger(EpollSocketReader.class),
+                socketReaderInitializer);
+    }
+
+    private static EpollIOThread nextThread(EpollIOThread[] threads, AtomicInteger nextIndex) {
+        EpollIOThread thread = threads[hashToIndex(nextIndex.getAndIncrement(), threads.length)];
+        if (thread == null) {
+            throw new IllegalStateException("IO thread is closed!");
+        }
+        return thread;
+    }
+
+    @Override
+    public void onConnectionAdded(TcpIpConnection connection) {
+        // the reader registered itself when the connection was started
+        ((EpollSocketWriter) connection.getSocketWriter()).register();
+    }
+
+    @Override
+    public void onConnectionRemoved(TcpIpConnection connection) {
+        ((EpollSocketReader) connection.getSocketReader()).deregister();
+        ((EpollSocketWriter) connection.getSocketWriter()).deregister();
+    }
+
+    @Override
+    public void shutdown() {
+        if (logger.isFinestEnabled()) {
+            logger.finest("Shutting down IO Threads... Total: " + (inputThreads.length + outputThreads.length));
+        }
+
+        shutdown(inputThreads);
+        shutdown(outputThreads);
+    }
+
+    private void shutdown(EpollIOThread[] threads) {
+        for (int i = 0; i < threads.length; i++) {
+            EpollIOThread ioThread = threads[i];
+            if (ioThread != null) {
+                ioThread.shutdown();
+            }
+            threads[i] = null;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.epoll;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.tcp.ReadHandler;
+import com.hazelcast.nio.tcp.SocketReader;
+import com.hazelcast.nio.tcp.SocketReaderInitializer;
+import com.hazelcast.nio.tcp.TcpIpConnection;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * A {@link SocketReader} for the {@link EpollIOThreadingModel}.
+ *
+ * When the {@link EpollIOThread} receives a read event, {@link #handle()} reads the socket till it is drained and hands
+ * the data over to the {@link ReadHandler}. To prevent a single connection from starving the other connections of the
+ * thread, at most {@link #MAX_READS_PER_EVENT} reads are done per event; if there is more data, the remaining reads are
+ * done by a task that is added to the end of the task queue of the thread.
+ */
+public final class EpollSocketReader extends AbstractHandler implements SocketReader, Runnable {
+
+    static final int MAX_READS_PER_EVENT = 16;
+
+    @Probe(name = "bytesRead")
+    private final SwCounter bytesRead = newSwCounter();
+    @Probe(name = "normalFramesRead")
+    private final SwCounter normalFramesRead = newSwCounter();
+    @Probe(name = "priorityFramesRead")
+    private final SwCounter priorityFramesRead = newSwCounter();
+
+    private final SocketReaderInitializer initializer;
+    private final ByteBuffer protocolBuffer = ByteBuffer.allocate(3);
+    private ByteBuffer inputBuffer;
+    private ReadHandler readHandler;
+    private volatile long lastReadTime;
+
+    public EpollSocketReader(TcpIpConnection connection,
+                             EpollIOThread ioThread,
+                             ILogger logger,
+                             SocketReaderInitializer initializer) {
+        super(connection, ioThread, logger);
+        this.initializer = initializer;
+    }
+
+    @Override
+    public ByteBuffer getProtocolBuffer() {
+        return protocolBuffer;
+    }
+
+    @Override
+    public void initInputBuffer(ByteBuffer inputBuffer) {
+        this.inputBuffer = inputBuffer;
+    }
+
+    @Override
+    public void initReadHandler(ReadHandler readHandler) {
+        this.readHandler = readHandler;
+    }
+
+    @Probe(name = "idleTimeMs")
+    private long idleTimeMs() {
+        return Math.max(currentTimeMillis() - lastReadTime, 0);
+    }
+
+    @Override
+    public SwCounter getNormalFramesReadCounter() {
+        return normalFramesRead;
+    }
+
+    @Override
+    public SwCounter getPriorityFramesReadCounter() {
+        return priorityFramesRead;
+    }
+
+    @Override
+    public long getLastReadTimeMillis() {
+        return lastReadTime;
+    }
+
+    @Override
+    public void init() {
+        register();
+    }
+
+    @Override
+    void handle() throws Exception {
+        eventCount.inc();
+        lastReadTime = currentTimeMillis();
+
+        if (readHandler == null) {
+            initializer.init(connection, this);
+            if (readHandler == null) {
+                // not all protocol bytes have been received yet; they come with a next event.
+                return;
+            }
+        }
+
+        for (int reads = 0; reads < MAX_READS_PER_EVENT; reads++) {
+            int readBytes = socketChannel.read(inputBuffer);
+            if (readBytes <= 0) {
+                if (readBytes == -1) {
+                    throw new EOFException("Remote socket closed!");
+                }
+                // the socket is drained, the next data comes with a next event.
+                return;
+            }
+
+            bytesRead.inc(readBytes);
+
+            inputBuffer.flip();
+            readHandler.onRead(inputBuffer);
+            if (inputBuffer.hasRemaining()) {
+                inputBuffer.compact();
+            } else {
+                inputBuffer.clear();
+            }
+        }
+
+        // the socket isn't drained yet, but no event is received for the data that already is there.
+        ioThread.addTask(this);
+    }
+
+    @Override
+    public void run() {
+        if (!connection.isAlive()) {
+            return;
+        }
+
+        try {
+            handle();
+        } catch (Throwable t) {
+            onFailure(t);
+        }
+    }
+
+    @Override
+    public void close() {
+        ioThread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    socketChannel.closeInbound();
+                } catch (IOException e) {
+                    logger.finest("Error while closing inbound", e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return connection + ".socketReader";
+    }
+}
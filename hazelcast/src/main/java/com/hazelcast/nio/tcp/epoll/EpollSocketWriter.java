@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.epoll;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.OutboundFrame;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.tcp.SocketWriter;
+import com.hazelcast.nio.tcp.SocketWriterInitializer;
+import com.hazelcast.nio.tcp.TcpIpConnection;
+import com.hazelcast.nio.tcp.WriteHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.nio.Protocols.CLUSTER;
+import static com.hazelcast.util.EmptyStatement.ignore;
+import static java.lang.Math.max;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A {@link SocketWriter} for the {@link EpollIOThreadingModel}.
+ *
+ * Frames are placed on the write queues by any thread; the first thread that writes a frame while this SocketWriter
+ * isn't scheduled, schedules it on the {@link EpollIOThread}. The io thread copies the frames into the outputBuffer and
+ * writes it to the socket till the queues are empty or the socket would block. In the latter case this SocketWriter
+ * stays scheduled and continues on the next write event; since the file descriptor is registered edge-triggered, no
+ * interest in write events needs to be registered and unregistered on every full socket, like a selector requires.
+ *
+ * Like the {@link com.hazelcast.nio.tcp.nonblocking.NonBlockingSocketWriter}, a {@link Packet#isBounded() bounded} packet
+ * is rejected when the write queue capacity has been reached.
+ */
+public final class EpollSocketWriter extends AbstractHandler implements Runnable, SocketWriter {
+
+    private static final long TIMEOUT = 3;
+
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    @Probe(name = "writeQueueSize")
+    public final Queue<OutboundFrame> writeQueue = new ConcurrentLinkedQueue<OutboundFrame>();
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    @Probe(name = "priorityWriteQueueSize")
+    public final Queue<OutboundFrame> urgentWriteQueue = new ConcurrentLinkedQueue<OutboundFrame>();
+
+    @Probe(name = "bytesWritten")
+    private final SwCounter bytesWritten = newSwCounter();
+    @Probe(name = "normalFramesWritten")
+    private final SwCounter normalFramesWritten = newSwCounter();
+    @Probe(name = "priorityFramesWritten")
+    private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = "writeCalls")
+    private final SwCounter writeCalls = newSwCounter();
+    @Probe(name = "writeQueueFullCount")
+    private final MwCounter writeQueueFullCount = newMwCounter();
+
+    private final SocketWriterInitializer initializer;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    // the number of frames in the writeQueue; ConcurrentLinkedQueue.size() is too expensive to check on every write
+    private final AtomicInteger writeQueuePendingFrames = new AtomicInteger();
+    // the number of bytes of the packets in the writeQueue
+    private final AtomicLong writeQueuePendingBytes = new AtomicLong();
+    private final int writeQueueCapacity;
+
+    private ByteBuffer outputBuffer;
+    private WriteHandler writeHandler;
+    private volatile OutboundFrame currentFrame;
+    private volatile long lastWriteTime;
+
+    public EpollSocketWriter(TcpIpConnection connection,
+                             EpollIOThread ioThread,
+                             ILogger logger,
+                             SocketWriterInitializer initializer,
+                             int writeQueueCapacity) {
+        super(connection, ioThread, logger);
+        this.initializer = initializer;
+        this.writeQueueCapacity = writeQueueCapacity > 0 ? writeQueueCapacity : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int totalFramesPending() {
+        return writeQueuePendingFrames.get() + urgentWriteQueue.size();
+    }
+
+    @Override
+    public long getLastWriteTimeMillis() {
+        return lastWriteTime;
+    }
+
+    @Override
+    public WriteHandler getWriteHandler() {
+        return writeHandler;
+    }
+
+    @Override
+    @Probe(name = "writeQueuePendingBytes", level = DEBUG)
+    public long bytesPending() {
+        return writeQueuePendingBytes.get();
+    }
+
+    @Probe(name = "idleTimeMs")
+    private long idleTimeMs() {
+        return max(currentTimeMillis() - lastWriteTime, 0);
+    }
+
+    @Probe(name = "isScheduled", level = DEBUG)
+    private long isScheduled() {
+        return scheduled.get() ? 1 : 0;
+    }
+
+    private static int sizeOf(OutboundFrame frame) {
+        return frame instanceof Packet ? ((Packet) frame).packetSize() : 0;
+    }
+
+    private static boolean isBounded(OutboundFrame frame) {
+        return frame instanceof Packet && ((Packet) frame).isBounded();
+    }
+
+    // accessed from ReadHandler and SocketConnector
+    @Override
+    public void setProtocol(final String protocol) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ioThread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (writeHandler == null) {
+                        initializer.init(connection, EpollSocketWriter.this, protocol);
+                    }
+                } catch (Throwable t) {
+                    onFailure(t);
+                } finally {
+                    latch.countDown();
+                }
+            }
+        });
+
+        try {
+            latch.await(TIMEOUT, SECONDS);
+        } catch (InterruptedException e) {
+            logger.finest("CountDownLatch::await interrupted", e);
+        }
+    }
+
+    @Override
+    public void initOutputBuffer(ByteBuffer outputBuffer) {
+        this.outputBuffer = outputBuffer;
+    }
+
+    @Override
+    public void initWriteHandler(WriteHandler writeHandler) {
+        this.writeHandler = writeHandler;
+    }
+
+    @Override
+    public boolean write(OutboundFrame frame) {
+        if (frame.isUrgent()) {
+            urgentWriteQueue.offer(frame);
+        } else {
+            if (writeQueuePendingFrames.incrementAndGet() > writeQueueCapacity && isBounded(frame)) {
+                writeQueuePendingFrames.decrementAndGet();
+                writeQueueFullCount.inc();
+                return false;
+            }
+            writeQueuePendingBytes.addAndGet(sizeOf(frame));
+            writeQueue.offer(frame);
+        }
+
+        schedule();
+        return true;
+    }
+
+    private OutboundFrame poll() {
+        for (; ; ) {
+            boolean urgent = true;
+            OutboundFrame frame = urgentWriteQueue.poll();
+
+            if (frame == null) {
+                urgent = false;
+                frame = writeQueue.poll();
+                if (frame != null) {
+                    writeQueuePendingFrames.decrementAndGet();
+                }
+            }
+
+            if (frame == null) {
+                return null;
+            }
+
+            if (frame.getClass() == TaskFrame.class) {
+                TaskFrame taskFrame = (TaskFrame) frame;
+                taskFrame.task.run();
+                continue;
+            }
+
+            if (urgent) {
+                priorityFramesWritten.inc();
+            } else {
+                normalFramesWritten.inc();
+                writeQueuePendingBytes.addAndGet(-sizeOf(frame));
+            }
+
+            return frame;
+        }
+    }
+
+    /**
+     * Makes sure this SocketWriter is scheduled to be executed by the io thread. If it already is scheduled, the call is
+     * ignored.
+     */
+    private void schedule() {
+        if (scheduled.get()) {
+            return;
+        }
+
+        if (!scheduled.compareAndSet(false, true)) {
+            // another thread already has scheduled this SocketWriter
+            return;
+        }
+
+        ioThread.addTaskAndWakeup(this);
+    }
+
+    /**
+     * Tries to unschedule this SocketWriter. It stays scheduled as long as not all data could be written; the
+     * edge-triggered write event of the socket continues the writing.
+     * <p/>
+     * This call is only made by the io thread.
+     */
+    private void unschedule() {
+        if (dirtyOutputBuffer() || currentFrame != null) {
+            return;
+        }
+
+        scheduled.set(false);
+
+        if (writeQueue.isEmpty() && urgentWriteQueue.isEmpty()) {
+            // there are no remaining frames, so we are done.
+            return;
+        }
+
+        // frames were added after the queues were drained, but before this SocketWriter was unscheduled.
+        if (!scheduled.compareAndSet(false, true)) {
+            // someone else managed to schedule this SocketWriter, so we are done.
+            return;
+        }
+
+        ioThread.addTask(this);
+    }
+
+    @Override
+    void handle() throws Exception {
+        eventCount.inc();
+
+        if (!scheduled.get()) {
+            // a write event while there is nothing pending, e.g. the one received on registration.
+            return;
+        }
+
+        lastWriteTime = currentTimeMillis();
+
+        if (writeHandler == null) {
+            initializer.init(connection, this, CLUSTER);
+        }
+
+        fillOutputBuffer();
+
+        if (dirtyOutputBuffer()) {
+            writeOutputBufferToSocket();
+        }
+
+        unschedule();
+    }
+
+    private boolean dirtyOutputBuffer() {
+        return outputBuffer.position() > 0;
+    }
+
+    /**
+     * Writes the content of the outputBuffer to the socket. If the socket would block, the remaining content stays in the
+     * outputBuffer.
+     */
+    private void writeOutputBufferToSocket() throws IOException {
+        outputBuffer.flip();
+        int written = socketChannel.write(outputBuffer);
+
+        writeCalls.inc();
+        bytesWritten.inc(written);
+
+        if (outputBuffer.hasRemaining()) {
+            outputBuffer.compact();
+        } else {
+            outputBuffer.clear();
+        }
+    }
+
+    /**
+     * Fills the outputBuffer with frames, till there are no more frames or till there is no more space in the outputBuffer.
+     */
+    private void fillOutputBuffer() throws Exception {
+        for (; ; ) {
+            if (!outputBuffer.hasRemaining()) {
+                return;
+            }
+
+            if (currentFrame == null) {
+                currentFrame = poll();
+                if (currentFrame == null) {
+                    return;
+                }
+            }
+
+            if (!writeHandler.onWrite(currentFrame, outputBuffer)) {
+                // not all data of the current frame fits in the outputBuffer
+                return;
+            }
+
+            currentFrame = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            handle();
+        } catch (Throwable t) {
+            onFailure(t);
+        }
+    }
+
+    @Override
+    public void close() {
+        // the writeQueue only supports a single consumer, so it is cleared by the CloseTask on the io thread
+        urgentWriteQueue.clear();
+
+        CloseTask closeTask = new CloseTask();
+        write(new TaskFrame(closeTask));
+        closeTask.awaitCompletion();
+    }
+
+    @Override
+    public String toString() {
+        return connection + ".socketWriter";
+    }
+
+    /**
+     * A task that is put on the write queues, so it is run by the io thread in order with the frames.
+     */
+    private static final class TaskFrame implements OutboundFrame {
+
+        private final Runnable task;
+
+        private TaskFrame(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public boolean isUrgent() {
+            return true;
+        }
+    }
+
+    private class CloseTask implements Runnable {
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public void run() {
+            writeQueue.clear();
+            writeQueuePendingBytes.set(0);
+            writeQueuePendingFrames.set(0);
+            try {
+                socketChannel.closeOutbound();
+            } catch (IOException e) {
+                logger.finest("Error while closing outbound", e);
+            } finally {
+                latch.countDown();
+            }
+        }
+
+        void awaitCompletion() {
+            try {
+                latch.await(TIMEOUT, SECONDS);
+            } catch (InterruptedException e) {
+                ignore(e);
+            }
+        }
+    }
+}
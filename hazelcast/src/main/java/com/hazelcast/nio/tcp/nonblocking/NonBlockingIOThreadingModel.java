@@ -34,6 +34,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.hazelcast.spi.properties.GroupProperty.IO_WRITE_GATHERING_THRESHOLD;
 import static com.hazelcast.util.HashUtil.hashToIndex;
 import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.INFO;
@@ -59,6 +60,7 @@ public class NonBlockingIOThreadingModel
     private final HazelcastThreadGroup hazelcastThreadGroup;
     private final NonBlockingIOThreadOutOfMemoryHandler oomeHandler;
     private final int balanceIntervalSeconds;
+    private final int writeQueueCapacity;
     private final SocketWriterInitializer socketWriterInitializer;
     private final SocketReaderInitializer socketReaderInitializer;
 
@@ -73,6 +75,10 @@ public class NonBlockingIOThreadingModel
     private SelectorMode selectorMode;
     private volatile IOBalancer ioBalancer;
     private boolean selectorWorkaroundTest = Boolean.getBoolean("hazelcast.io.selector.workaround.test");
+    // when enabled, the thread writing a frame to an idle connection writes it to the socket itself instead of handing
+    // it over to an output thread. See NonBlockingSocketWriter.
+    private boolean writeThrough;
+    private int gatheringWriteThreshold = Integer.parseInt(IO_WRITE_GATHERING_THRESHOLD.getDefaultValue());
 
     public NonBlockingIOThreadingModel(
             final IOService ioService,
@@ -86,6 +92,7 @@ public class NonBlockingIOThreadingModel
                 ioService.getInputSelectorThreadCount(),
                 ioService.getOutputSelectorThreadCount(),
                 ioService.getBalancerIntervalSeconds(),
+                ioService.getWriteQueueCapacity(),
                 new SocketWriterInitializerImpl(loggingService.getLogger(SocketWriterInitializerImpl.class)),
                 new SocketReaderInitializerImpl(loggingService.getLogger(SocketReaderInitializerImpl.class)),
                 new NonBlockingIOThreadOutOfMemoryHandler() {
@@ -94,6 +101,8 @@ public class NonBlockingIOThreadingModel
                         ioService.onOutOfMemory(error);
                     }
                 });
+        this.gatheringWriteThreshold = ioService.getGatheringWriteThreshold();
+        this.writeThrough = ioService.isWriteThroughEnabled();
     }
 
     public NonBlockingIOThreadingModel(
@@ -103,6 +112,7 @@ public class NonBlockingIOThreadingModel
             int inputThreadCount,
             int outputThreadCount,
             int balanceIntervalSeconds,
+            int writeQueueCapacity,
             SocketWriterInitializer socketWriterInitializer,
             SocketReaderInitializer socketReaderInitializer,
             NonBlockingIOThreadOutOfMemoryHandler oomeHandler) {
@@ -114,6 +124,7 @@ public class NonBlockingIOThreadingModel
         this.outputThreads = new NonBlockingIOThread[outputThreadCount];
         this.oomeHandler = oomeHandler;
         this.balanceIntervalSeconds = balanceIntervalSeconds;
+        this.writeQueueCapacity = writeQueueCapacity;
         this.socketWriterInitializer = socketWriterInitializer;
         this.socketReaderInitializer = socketReaderInitializer;
     }
@@ -138,6 +149,24 @@ public class NonBlockingIOThreadingModel
         this.selectorWorkaroundTest = selectorWorkaroundTest;
     }
 
+    /**
+     * Set to {@code true} to let threads write frames to idle connections themselves.
+     *
+     * @param writeThrough
+     */
+    public void setWriteThrough(boolean writeThrough) {
+        this.writeThrough = writeThrough;
+    }
+
+    /**
+     * Sets the minimum size in bytes of a packet to write it using a gathering write.
+     *
+     * @param gatheringWriteThreshold
+     */
+    public void setGatheringWriteThreshold(int gatheringWriteThreshold) {
+        this.gatheringWriteThreshold = gatheringWriteThreshold;
+    }
+
     @Override
     public boolean isBlocking() {
         return false;
@@ -166,6 +195,10 @@ public class NonBlockingIOThreadingModel
         logger.log(getSelectorMode() != SelectorMode.SELECT ? INFO : FINE,
                 "IO threads selector mode is " + getSelectorMode());
 
+        if (writeThrough) {
+            logger.info("IO write through is enabled");
+        }
+
         for (int i = 0; i < inputThreads.length; i++) {
             NonBlockingIOThread thread = new NonBlockingIOThread(
                     hazelcastThreadGroup.getInternalThreadGroup(),
@@ -253,7 +286,10 @@ public class NonBlockingIOThreadingModel
                 outputThread,
                 loggingService.getLogger(NonBlockingSocketWriter.class),
                 ioBalancer,
-                socketWriterInitializer);
+                socketWriterInitializer,
+                writeQueueCapacity,
+                writeThrough,
+                gatheringWriteThreshold);
     }
 
     @Override
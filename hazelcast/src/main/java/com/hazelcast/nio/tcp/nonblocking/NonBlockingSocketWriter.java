@@ -17,11 +17,15 @@
 package com.hazelcast.nio.tcp.nonblocking;
 
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
 import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Connection;
 import com.hazelcast.nio.OutboundFrame;
 import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.tcp.ClientWriteHandler;
+import com.hazelcast.nio.tcp.CompressingMemberWriteHandler;
+import com.hazelcast.nio.tcp.MemberWriteHandler;
 import com.hazelcast.nio.tcp.SocketChannelWrapper;
 import com.hazelcast.nio.tcp.SocketWriter;
 import com.hazelcast.nio.tcp.SocketWriterInitializer;
@@ -36,8 +40,11 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static com.hazelcast.nio.Protocols.CLUSTER;
 import static com.hazelcast.util.EmptyStatement.ignore;
@@ -47,6 +54,26 @@ import static java.nio.channels.SelectionKey.OP_WRITE;
 
 /**
  * The writing side of the {@link TcpIpConnection}.
+ *
+ * Frames are drained from the write queues and copied into the outputBuffer till it is full, so that many small frames
+ * are written to the socket using a single write call. {@link Packet} instances of at least the gathering write threshold,
+ * see {@link com.hazelcast.spi.properties.GroupProperty#IO_WRITE_GATHERING_THRESHOLD}, are not copied: only their header
+ * is put in the outputBuffer and the payload is written straight from its byte array using a gathering write.
+ *
+ * Normal frames are placed on a writeQueue and the number of their pending frames and bytes is tracked. If a capacity
+ * is given, a {@link Packet#isBounded() bounded} packet is rejected when the capacity has been reached; the writing
+ * thread never waits for space. Other frames, like responses and backups, are counted but never rejected. Urgent frames
+ * are never bound.
+ *
+ * When write through is enabled, a thread that writes a frame while this SocketWriter isn't scheduled, writes the
+ * pending frames to the socket itself instead of handing them over to the io thread. This saves a thread handoff and a
+ * selector wakeup, e.g. for responses send by partition threads. Only if the frames can't be written completely, the
+ * remaining work is handed over to the io thread.
+ *
+ * Write through only moves the socket write to the writing thread. Tasks, like closing and migrating this SocketWriter,
+ * are always run by the io thread, and write through is only used with a {@link MemberWriteHandler} or
+ * {@link ClientWriteHandler}, so that e.g. the compression done by a {@link CompressingMemberWriteHandler} doesn't run on
+ * the writing thread, e.g. a partition thread.
  */
 public final class NonBlockingSocketWriter
         extends AbstractHandler<Connection>
@@ -54,7 +81,6 @@ public final class NonBlockingSocketWriter
 
     private static final long TIMEOUT = 3;
 
-
     @SuppressWarnings("checkstyle:visibilitymodifier")
     @Probe(name = "writeQueueSize")
     public final Queue<OutboundFrame> writeQueue = new ConcurrentLinkedQueue<OutboundFrame>();
@@ -63,7 +89,22 @@ public final class NonBlockingSocketWriter
     public final Queue<OutboundFrame> urgentWriteQueue = new ConcurrentLinkedQueue<OutboundFrame>();
     private final SocketWriterInitializer initializer;
 
+    // the number of frames in the writeQueue; ConcurrentLinkedQueue.size() is too expensive to check on every write
+    private final AtomicInteger writeQueuePendingFrames = new AtomicInteger();
+    // the number of bytes of the packets in the writeQueue
+    private final AtomicLong writeQueuePendingBytes = new AtomicLong();
+    private final int writeQueueCapacity;
+    @Probe(name = "writeQueueFullCount")
+    private final MwCounter writeQueueFullCount = newMwCounter();
+
     private ByteBuffer outputBuffer;
+    // the payload of a packet of which the header is in the outputBuffer, is written after the outputBuffer content
+    private ByteBuffer payloadBuffer;
+    private final ByteBuffer[] gatheringBuffers = new ByteBuffer[2];
+    // the minimum size in bytes of a packet to write it using a gathering write instead of copying it into the outputBuffer
+    private final int gatheringWriteThreshold;
+    private boolean gatheringWriteEnabled;
+    private boolean gatherCurrentFrame;
 
     private final AtomicBoolean scheduled = new AtomicBoolean(false);
     @Probe(name = "bytesWritten")
@@ -72,6 +113,20 @@ public final class NonBlockingSocketWriter
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = "priorityFramesWritten")
     private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = "writeCalls")
+    private final SwCounter writeCalls = newSwCounter();
+    @Probe(name = "gatheringWrites", level = DEBUG)
+    private final SwCounter gatheringWrites = newSwCounter();
+    @Probe(name = "flushes")
+    private final SwCounter flushes = newSwCounter();
+    @Probe(name = "writeThroughs")
+    private final SwCounter writeThroughs = newSwCounter();
+    private final boolean writeThrough;
+    // set once the writeHandler is known to only copy frames into the outputBuffer, so it is cheap to call it by any thread
+    private volatile boolean writeThroughAllowed;
+    // a task polled while writing through; it is run by the io thread
+    private TaskFrame deferredTaskFrame;
+    private boolean writingThrough;
     private WriteHandler writeHandler;
 
     private volatile OutboundFrame currentFrame;
@@ -87,14 +142,20 @@ public final class NonBlockingSocketWriter
                                    NonBlockingIOThread ioThread,
                                    ILogger logger,
                                    IOBalancer balancer,
-                                   SocketWriterInitializer initializer) {
+                                   SocketWriterInitializer initializer,
+                                   int writeQueueCapacity,
+                                   boolean writeThrough,
+                                   int gatheringWriteThreshold) {
         super(connection, ioThread, OP_WRITE, socketChannel, logger, balancer);
         this.initializer = initializer;
+        this.writeQueueCapacity = writeQueueCapacity > 0 ? writeQueueCapacity : Integer.MAX_VALUE;
+        this.writeThrough = writeThrough;
+        this.gatheringWriteThreshold = gatheringWriteThreshold;
     }
 
     @Override
     public int totalFramesPending() {
-        return writeQueue.size() + urgentWriteQueue.size();
+        return writeQueuePendingFrames.get() + urgentWriteQueue.size();
     }
 
     @Override
@@ -107,9 +168,10 @@ public final class NonBlockingSocketWriter
         return writeHandler;
     }
 
+    @Override
     @Probe(name = "writeQueuePendingBytes", level = DEBUG)
     public long bytesPending() {
-        return bytesPending(writeQueue);
+        return writeQueuePendingBytes.get();
     }
 
     @Probe(name = "priorityWriteQueuePendingBytes", level = DEBUG)
@@ -120,13 +182,27 @@ public final class NonBlockingSocketWriter
     private long bytesPending(Queue<OutboundFrame> writeQueue) {
         long bytesPending = 0;
         for (OutboundFrame frame : writeQueue) {
-            if (frame instanceof Packet) {
-                bytesPending += ((Packet) frame).packetSize();
-            }
+            bytesPending += sizeOf(frame);
         }
         return bytesPending;
     }
 
+    private static int sizeOf(OutboundFrame frame) {
+        return frame instanceof Packet ? ((Packet) frame).packetSize() : 0;
+    }
+
+    @Probe(name = "bytesPerWriteCall", level = DEBUG)
+    private long bytesPerWriteCall() {
+        long writeCalls = this.writeCalls.get();
+        return writeCalls == 0 ? 0 : bytesWritten.get() / writeCalls;
+    }
+
+    @Probe(name = "framesPerFlush", level = DEBUG)
+    private long framesPerFlush() {
+        long flushes = this.flushes.get();
+        return flushes == 0 ? 0 : (normalFramesWritten.get() + priorityFramesWritten.get()) / flushes;
+    }
+
     @Probe(name = "idleTimeMs")
     private long idleTimeMs() {
         return max(currentTimeMillis() - lastWriteTime, 0);
@@ -168,24 +244,98 @@ public final class NonBlockingSocketWriter
     }
 
     @Override
-    public void write(OutboundFrame frame) {
+    public boolean write(OutboundFrame frame) {
         if (frame.isUrgent()) {
             urgentWriteQueue.offer(frame);
         } else {
+            if (writeQueuePendingFrames.incrementAndGet() > writeQueueCapacity && isBounded(frame)) {
+                writeQueuePendingFrames.decrementAndGet();
+                writeQueueFullCount.inc();
+                return false;
+            }
+            writeQueuePendingBytes.addAndGet(sizeOf(frame));
             writeQueue.offer(frame);
         }
 
-        schedule();
+        if (writeThroughAllowed && frame.getClass() != TaskFrame.class
+                && !scheduled.get() && scheduled.compareAndSet(false, true)) {
+            writeThrough();
+        } else {
+            schedule();
+        }
+        return true;
+    }
+
+    /**
+     * Writes the pending frames to the socket using the calling thread.
+     * <p/>
+     * This call is only made by a thread that managed to cas the scheduled flag to true, so it has exclusive access to
+     * this SocketWriter. If the SocketWriter is about to migrate, a task is pending or if not all data could be written,
+     * the SocketWriter stays scheduled and the remaining work is handed over to the io thread.
+     */
+    private void writeThrough() {
+        writingThrough = true;
+        try {
+            lastWriteTime = currentTimeMillis();
+            fillOutputBuffer();
+
+            if (dirtyOutputBuffer() || payloadBuffer != null) {
+                flushes.inc();
+                writeOutputBufferToSocket();
+            }
+
+            if (newOwner == null && deferredTaskFrame == null
+                    && !dirtyOutputBuffer() && currentFrame == null && payloadBuffer == null) {
+                writeThroughs.inc();
+                // everything is written; the io thread isn't interested in OP_WRITE since it unscheduled this
+                // SocketWriter the last time, so we only need to unschedule ourselves.
+                writingThrough = false;
+                scheduled.set(false);
+
+                if (writeQueue.isEmpty() && urgentWriteQueue.isEmpty()) {
+                    return;
+                }
+
+                if (!scheduled.compareAndSet(false, true)) {
+                    // someone else managed to schedule this SocketWriter, so we are done.
+                    return;
+                }
+            }
+        } catch (Throwable t) {
+            writingThrough = false;
+            onFailure(t);
+            return;
+        }
+
+        writingThrough = false;
+        ioThread.addTaskAndWakeup(this);
+    }
+
+    private static boolean isBounded(OutboundFrame frame) {
+        return frame instanceof Packet && ((Packet) frame).isBounded();
     }
 
     private OutboundFrame poll() {
         for (; ; ) {
+            if (deferredTaskFrame != null) {
+                if (writingThrough) {
+                    return null;
+                }
+                TaskFrame taskFrame = deferredTaskFrame;
+                deferredTaskFrame = null;
+                taskFrame.task.run();
+                continue;
+            }
+
             boolean urgent = true;
             OutboundFrame frame = urgentWriteQueue.poll();
 
             if (frame == null) {
                 urgent = false;
                 frame = writeQueue.poll();
+                if (frame != null) {
+                    writeQueuePendingFrames.decrementAndGet();
+                }
             }
 
             if (frame == null) {
@@ -194,6 +344,11 @@ public final class NonBlockingSocketWriter
 
             if (frame.getClass() == TaskFrame.class) {
                 TaskFrame taskFrame = (TaskFrame) frame;
+                if (writingThrough) {
+                    // tasks change the state of this SocketWriter, e.g. close or migrate it, so they are left to the io thread
+                    deferredTaskFrame = taskFrame;
+                    return null;
+                }
                 taskFrame.task.run();
                 continue;
             }
@@ -202,6 +357,7 @@ public final class NonBlockingSocketWriter
                 priorityFramesWritten.inc();
             } else {
                 normalFramesWritten.inc();
+                writeQueuePendingBytes.addAndGet(-sizeOf(frame));
             }
 
             return frame;
@@ -248,7 +404,7 @@ public final class NonBlockingSocketWriter
      * This call is only made by the IO thread.
      */
     private void unschedule() throws IOException {
-        if (dirtyOutputBuffer() || currentFrame != null) {
+        if (dirtyOutputBuffer() || currentFrame != null || payloadBuffer != null) {
             // Because not all data was written to the socket, we need to register for OP_WRITE so we get
             // notified when the socketChannel is ready for more data.
             registerOp(OP_WRITE);
@@ -294,7 +450,8 @@ public final class NonBlockingSocketWriter
 
         fillOutputBuffer();
 
-        if (dirtyOutputBuffer()) {
+        if (dirtyOutputBuffer() || payloadBuffer != null) {
+            flushes.inc();
             writeOutputBufferToSocket();
         }
 
@@ -308,6 +465,10 @@ public final class NonBlockingSocketWriter
     @Override
     public void initWriteHandler(WriteHandler writeHandler) {
         this.writeHandler = writeHandler;
+        // the gathering write knows the wire format of packets, so it can't be used when the handler transforms them
+        this.gatheringWriteEnabled = writeHandler != null && writeHandler.getClass() == MemberWriteHandler.class;
+        this.writeThroughAllowed = writeThrough && writeHandler != null
+                && (writeHandler.getClass() == MemberWriteHandler.class || writeHandler.getClass() == ClientWriteHandler.class);
     }
 
     private void startMigration() throws IOException {
@@ -326,13 +487,25 @@ public final class NonBlockingSocketWriter
     }
 
     /**
-     * Writes to content of the outputBuffer to the socket.
+     * Writes to content of the outputBuffer, followed by the pending payload if any, to the socket.
      */
     private void writeOutputBufferToSocket() throws IOException {
         // So there is data for writing, so lets prepare the buffer for writing and then write it to the socketChannel.
         outputBuffer.flip();
-        int written = socketChannel.write(outputBuffer);
+        long written;
+        if (payloadBuffer == null) {
+            written = socketChannel.write(outputBuffer);
+        } else {
+            gatheringBuffers[0] = outputBuffer;
+            gatheringBuffers[1] = payloadBuffer;
+            written = socketChannel.write(gatheringBuffers, 0, gatheringBuffers.length);
+            gatheringWrites.inc();
+            if (!payloadBuffer.hasRemaining()) {
+                payloadBuffer = null;
+            }
+        }
 
+        writeCalls.inc();
         bytesWritten.inc(written);
 
         // Now we verify if all data is written.
@@ -353,6 +526,11 @@ public final class NonBlockingSocketWriter
      */
     private void fillOutputBuffer() throws Exception {
         for (; ; ) {
+            if (payloadBuffer != null) {
+                // Nothing can be added to the outputBuffer till the pending payload, which comes after it, is written.
+                return;
+            }
+
             if (!outputBuffer.hasRemaining()) {
                 // The buffer is completely filled, we are done.
                 return;
@@ -365,6 +543,21 @@ public final class NonBlockingSocketWriter
                     // There is no frames to write, we are done.
                     return;
                 }
+
+                gatherCurrentFrame = gatheringWriteEnabled && isLargePacket(currentFrame);
+            }
+
+            if (gatherCurrentFrame) {
+                Packet packet = (Packet) currentFrame;
+                if (!packet.writeHeaderTo(outputBuffer)) {
+                    // There is no space for the header, so lets retry once the outputBuffer has been written.
+                    return;
+                }
+
+                // The payload is written straight from the byte array of the packet, after the outputBuffer content.
+                payloadBuffer = ByteBuffer.wrap(packet.toByteArray());
+                currentFrame = null;
+                return;
             }
 
             // Lets write the currentFrame to the outputBuffer.
@@ -378,6 +571,10 @@ public final class NonBlockingSocketWriter
         }
     }
 
+    private boolean isLargePacket(OutboundFrame frame) {
+        return frame.getClass() == Packet.class && ((Packet) frame).totalSize() >= gatheringWriteThreshold;
+    }
+
     @Override
     public void run() {
         try {
@@ -389,7 +586,7 @@ public final class NonBlockingSocketWriter
 
     @Override
     public void close() {
-        writeQueue.clear();
+        // the writeQueue only supports a single consumer, so it is cleared by the CloseTask on the io thread
         urgentWriteQueue.clear();
 
         CloseTask closeTask = new CloseTask();
@@ -460,6 +657,9 @@ public final class NonBlockingSocketWriter
 
         @Override
         public void run() {
+            writeQueue.clear();
+            writeQueuePendingBytes.set(0);
+            writeQueuePendingFrames.set(0);
             try {
                 socketChannel.closeOutbound();
             } catch (IOException e) {
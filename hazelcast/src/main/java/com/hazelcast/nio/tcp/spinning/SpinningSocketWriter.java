@@ -74,14 +74,16 @@ public class SpinningSocketWriter extends AbstractHandler implements SocketWrite
     }
 
     @Override
-    public void write(OutboundFrame frame) {
+    public boolean write(OutboundFrame frame) {
         if (frame.isUrgent()) {
             urgentWriteQueue.add(frame);
         } else {
             writeQueue.add(frame);
         }
+        return true;
     }
 
+    @Override
     @Probe(name = "writeQueuePendingBytes")
     public long bytesPending() {
         return bytesPending(writeQueue);
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import java.io.Serializable;
+
+/**
+ * Transforms an entry of an {@link com.hazelcast.core.IMap} into the value returned to the caller of a projection.
+ * <p>
+ * The projection is applied on the member owning the entry, so only the projected values are serialized and sent
+ * back to the caller instead of the whole entries. The projection has to be serializable since it is sent over the
+ * wire. The same instance may transform the entries of several partitions concurrently, so the projection should
+ * be stateless. The entry passed to {@link #transform(Object)} may be reused for the next entry, so the projection
+ * must not keep a reference to it.
+ * <p>
+ * The built-in projections can be found in {@link Projections}.
+ *
+ * @param <I> the type of the transformed input, usually a map entry
+ * @param <O> the type of the projected value
+ * @since 3.8
+ */
+public abstract class Projection<I, O> implements Serializable {
+
+    /**
+     * Transforms the input into the projected value.
+     *
+     * @param input the input to transform
+     * @return the projected value, may be {@code null}
+     */
+    public abstract O transform(I input);
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import com.hazelcast.projection.impl.MultiAttributeProjection;
+import com.hazelcast.projection.impl.SingleAttributeProjection;
+
+import static com.hazelcast.util.Preconditions.checkHasText;
+import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkTrue;
+
+/**
+ * Factory of the built-in {@link Projection}s.
+ * <p>
+ * The attribute paths are the same as in predicates, e.g. {@code "age"}, {@code "address.city"} or
+ * {@code "orders[0].amount"}. The attributes are extracted with the extractors configured for the map, and
+ * the attributes of {@link com.hazelcast.nio.serialization.Portable} values are read without deserializing
+ * the whole value.
+ *
+ * @since 3.8
+ */
+public final class Projections {
+
+    private Projections() {
+    }
+
+    /**
+     * @param attributePath the attribute to extract
+     * @return a projection extracting the value of a single attribute
+     */
+    public static <I, O> Projection<I, O> singleAttribute(String attributePath) {
+        return new SingleAttributeProjection<I, O>(checkHasText(attributePath, "attributePath must contain text"));
+    }
+
+    /**
+     * @param attributePaths the attributes to extract
+     * @return a projection extracting the values of the attributes into an {@code Object[]}, in the given order
+     */
+    public static <I> Projection<I, Object[]> multiAttribute(String... attributePaths) {
+        checkNotNull(attributePaths, "attributePaths should not be null");
+        checkTrue(attributePaths.length > 0, "at least one attributePath is required");
+        for (String attributePath : attributePaths) {
+            checkHasText(attributePath, "attributePath must contain text");
+        }
+        return new MultiAttributeProjection<I>(attributePaths.clone());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.impl.Extractable;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+/**
+ * Projects an entry to the values of some of its attributes.
+ *
+ * @param <I> the type of the transformed input
+ */
+public final class MultiAttributeProjection<I> extends Projection<I, Object[]> {
+
+    private final String[] attributePaths;
+
+    public MultiAttributeProjection(String... attributePaths) {
+        this.attributePaths = attributePaths;
+    }
+
+    @Override
+    public Object[] transform(I input) {
+        if (!(input instanceof Extractable)) {
+            throw new IllegalArgumentException("Cannot extract attributes from " + input);
+        }
+        Extractable extractable = (Extractable) input;
+        Object[] result = new Object[attributePaths.length];
+        for (int i = 0; i < attributePaths.length; i++) {
+            Object value = extractable.getAttributeValue(attributePaths[i]);
+            result[i] = value instanceof MultiResult ? ((MultiResult) value).getResults() : value;
+        }
+        return result;
+    }
+}
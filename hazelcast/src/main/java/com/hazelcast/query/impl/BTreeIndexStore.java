@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Store indexes rankly in a B+tree.
+ * <p>
+ * Compared to {@link SortedIndexStore} it doesn't keep a map per distinct attribute value, which makes it much
+ * more compact for large maps and attributes with many distinct values. The price is that query results are
+ * copied out of the tree instead of being views of the index.
+ */
+public class BTreeIndexStore extends BaseIndexStore {
+
+    private final ConcurrentMap<Data, QueryableEntry> recordsWithNullValue
+            = new ConcurrentHashMap<Data, QueryableEntry>();
+
+    private final IndexBTree tree = new IndexBTree();
+
+    @Override
+    void newIndexInternal(Comparable newValue, QueryableEntry record) {
+        if (newValue instanceof IndexImpl.NullObject) {
+            recordsWithNullValue.put(record.getKeyData(), record);
+        } else {
+            tree.put(newValue, record.getKeyData(), record);
+        }
+    }
+
+    @Override
+    void removeIndexInternal(Comparable oldValue, Data indexKey) {
+        if (oldValue instanceof IndexImpl.NullObject) {
+            recordsWithNullValue.remove(indexKey);
+        } else {
+            tree.remove(oldValue, indexKey);
+        }
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            recordsWithNullValue.clear();
+            tree.clear();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        takeReadLock();
+        try {
+            ConcurrentMap<Data, QueryableEntry> results = new ConcurrentHashMap<Data, QueryableEntry>();
+            tree.collect(from, true, to, true, results);
+            return new SingleResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            ConcurrentMap<Data, QueryableEntry> results = new ConcurrentHashMap<Data, QueryableEntry>();
+            switch (comparisonType) {
+                case LESSER:
+                    tree.collect(null, false, searchedValue, false, results);
+                    break;
+                case LESSER_EQUAL:
+                    tree.collect(null, false, searchedValue, true, results);
+                    break;
+                case GREATER:
+                    tree.collect(searchedValue, false, null, false, results);
+                    break;
+                case GREATER_EQUAL:
+                    tree.collect(searchedValue, true, null, false, results);
+                    break;
+                case NOT_EQUAL:
+                    tree.collectNotEqual(searchedValue, results);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized comparisonType: " + comparisonType);
+            }
+            return new SingleResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable value) {
+        takeReadLock();
+        try {
+            if (value instanceof IndexImpl.NullObject) {
+                return recordsWithNullValue;
+            }
+            ConcurrentMap<Data, QueryableEntry> results = new ConcurrentHashMap<Data, QueryableEntry>();
+            tree.collect(value, true, value, true, results);
+            return results.isEmpty() ? null : results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        takeReadLock();
+        try {
+            if (value instanceof IndexImpl.NullObject) {
+                return new SingleResultSet(recordsWithNullValue);
+            }
+            ConcurrentMap<Data, QueryableEntry> results = new ConcurrentHashMap<Data, QueryableEntry>();
+            tree.collect(value, true, value, true, results);
+            return new SingleResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            ConcurrentMap<Data, QueryableEntry> results = new ConcurrentHashMap<Data, QueryableEntry>();
+            for (Comparable value : values) {
+                if (value instanceof IndexImpl.NullObject) {
+                    results.putAll(recordsWithNullValue);
+                } else {
+                    tree.collect(value, true, value, true, results);
+                }
+            }
+            return new SingleResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BTreeIndexStore{"
+                + "tree=" + tree.size()
+                + '}';
+    }
+}
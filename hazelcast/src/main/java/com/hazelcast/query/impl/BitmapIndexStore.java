@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Store indexes as a compressed bitmap of entry ordinals per distinct attribute value.
+ * <p>
+ * Meant for attributes with few distinct values: it takes a few bytes per entry at most, instead of a map entry,
+ * and its results can be combined by bitwise operations, see {@link BitmapResultSet}. Ordered comparisons visit
+ * every distinct value.
+ */
+public class BitmapIndexStore extends BaseIndexStore {
+
+    private final EntryOrdinals ordinals;
+
+    private final CompressedBitmap recordsWithNullValue = new CompressedBitmap();
+
+    private final Map<Comparable, CompressedBitmap> recordMap = new HashMap<Comparable, CompressedBitmap>();
+
+    BitmapIndexStore(EntryOrdinals ordinals) {
+        this.ordinals = ordinals;
+    }
+
+    @Override
+    void newIndexInternal(Comparable newValue, QueryableEntry record) {
+        int ordinal = ordinals.acquire(record);
+        if (newValue instanceof IndexImpl.NullObject) {
+            recordsWithNullValue.add(ordinal);
+        } else {
+            CompressedBitmap records = recordMap.get(newValue);
+            if (records == null) {
+                records = new CompressedBitmap();
+                recordMap.put(newValue, records);
+            }
+            records.add(ordinal);
+        }
+    }
+
+    @Override
+    void removeIndexInternal(Comparable oldValue, Data indexKey) {
+        int ordinal = ordinals.ordinalOf(indexKey);
+        if (ordinal < 0) {
+            return;
+        }
+        if (oldValue instanceof IndexImpl.NullObject) {
+            recordsWithNullValue.remove(ordinal);
+        } else {
+            CompressedBitmap records = recordMap.get(oldValue);
+            if (records != null) {
+                records.remove(ordinal);
+                if (records.isEmpty()) {
+                    recordMap.remove(oldValue);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            recordsWithNullValue.clear();
+            recordMap.clear();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        takeReadLock();
+        try {
+            long sequence = ordinals.sequence();
+            Comparable lower = from;
+            Comparable upper = to;
+            if (from.compareTo(to) > 0) {
+                lower = to;
+                upper = from;
+            }
+            CompressedBitmap results = new CompressedBitmap();
+            for (Map.Entry<Comparable, CompressedBitmap> recordMapEntry : recordMap.entrySet()) {
+                Comparable value = recordMapEntry.getKey();
+                if (value.compareTo(lower) >= 0 && value.compareTo(upper) <= 0) {
+                    results = CompressedBitmap.or(results, recordMapEntry.getValue());
+                }
+            }
+            return new BitmapResultSet(results, ordinals, sequence);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            long sequence = ordinals.sequence();
+            CompressedBitmap results = new CompressedBitmap();
+            for (Map.Entry<Comparable, CompressedBitmap> recordMapEntry : recordMap.entrySet()) {
+                Comparable value = recordMapEntry.getKey();
+                boolean valid;
+                int result = searchedValue.compareTo(value);
+                switch (comparisonType) {
+                    case LESSER:
+                        valid = result > 0;
+                        break;
+                    case LESSER_EQUAL:
+                        valid = result >= 0;
+                        break;
+                    case GREATER:
+                        valid = result < 0;
+                        break;
+                    case GREATER_EQUAL:
+                        valid = result <= 0;
+                        break;
+                    case NOT_EQUAL:
+                        valid = result != 0;
+                        break;
+                    default:
+                        throw new IllegalStateException("Unrecognized comparisonType: " + comparisonType);
+                }
+                if (valid) {
+                    results = CompressedBitmap.or(results, recordMapEntry.getValue());
+                }
+            }
+            return new BitmapResultSet(results, ordinals, sequence);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable value) {
+        Set<QueryableEntry> records = getRecords(value);
+        if (records.isEmpty()) {
+            return null;
+        }
+        ConcurrentMap<Data, QueryableEntry> recordMap = new ConcurrentHashMap<Data, QueryableEntry>(records.size());
+        for (QueryableEntry record : records) {
+            recordMap.put(record.getKeyData(), record);
+        }
+        return recordMap;
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        takeReadLock();
+        try {
+            long sequence = ordinals.sequence();
+            CompressedBitmap records = bitmapOf(value);
+            return new BitmapResultSet(records == null ? new CompressedBitmap() : records.copy(), ordinals, sequence);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            long sequence = ordinals.sequence();
+            CompressedBitmap results = new CompressedBitmap();
+            for (Comparable value : values) {
+                CompressedBitmap records = bitmapOf(value);
+                if (records != null) {
+                    results = CompressedBitmap.or(results, records);
+                }
+            }
+            return new BitmapResultSet(results, ordinals, sequence);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * @return an empty result, combinable with the other results of the store
+     */
+    Set<QueryableEntry> emptyResult() {
+        return new BitmapResultSet(new CompressedBitmap(), ordinals, ordinals.sequence());
+    }
+
+    private CompressedBitmap bitmapOf(Comparable value) {
+        return value instanceof IndexImpl.NullObject ? recordsWithNullValue : recordMap.get(value);
+    }
+
+    @Override
+    public String toString() {
+        return "BitmapIndexStore{"
+                + "recordMap=" + recordMap.size()
+                + '}';
+    }
+}
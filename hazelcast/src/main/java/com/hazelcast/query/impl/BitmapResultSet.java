@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of a query on bitmap indexes.
+ * <p>
+ * The results of predicates over bitmap indexes of the same {@link Indexes} can be combined with {@link #and},
+ * {@link #or} and {@link #not} as bitwise operations. The entries are looked up lazily, only for the ordinals
+ * which survive all the operations, when the set is first iterated or sized.
+ */
+public final class BitmapResultSet extends AbstractSet<QueryableEntry> {
+
+    private final CompressedBitmap bitmap;
+    private final EntryOrdinals ordinals;
+    private final long sequence;
+
+    private volatile List<QueryableEntry> entries;
+
+    BitmapResultSet(CompressedBitmap bitmap, EntryOrdinals ordinals, long sequence) {
+        this.bitmap = bitmap;
+        this.ordinals = ordinals;
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return {@code true} if the given result can be combined with this one by bitwise operations
+     */
+    public boolean isCompatible(Set<QueryableEntry> result) {
+        return result instanceof BitmapResultSet && ((BitmapResultSet) result).ordinals == ordinals;
+    }
+
+    public BitmapResultSet and(BitmapResultSet other) {
+        checkCompatible(other);
+        return new BitmapResultSet(CompressedBitmap.and(bitmap, other.bitmap), ordinals, Math.min(sequence, other.sequence));
+    }
+
+    public BitmapResultSet or(BitmapResultSet other) {
+        checkCompatible(other);
+        return new BitmapResultSet(CompressedBitmap.or(bitmap, other.bitmap), ordinals, Math.min(sequence, other.sequence));
+    }
+
+    /**
+     * @return the entries indexed by the bitmap indexes which are not in this result
+     */
+    public BitmapResultSet not() {
+        return new BitmapResultSet(CompressedBitmap.andNot(ordinals.getAssignedOrdinals(), bitmap), ordinals, sequence);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof QueryableEntry)) {
+            return false;
+        }
+        int ordinal = ordinals.ordinalOf(((QueryableEntry) o).getKeyData());
+        return ordinal >= 0 && bitmap.contains(ordinal) && ordinals.getEntry(ordinal, sequence) != null;
+    }
+
+    @Override
+    public Iterator<QueryableEntry> iterator() {
+        return getEntries().iterator();
+    }
+
+    @Override
+    public int size() {
+        return getEntries().size();
+    }
+
+    private List<QueryableEntry> getEntries() {
+        List<QueryableEntry> entries = this.entries;
+        if (entries == null) {
+            entries = new ArrayList<QueryableEntry>(bitmap.cardinality());
+            CompressedBitmap.OrdinalIterator iterator = bitmap.iterator();
+            while (iterator.hasNext()) {
+                QueryableEntry entry = ordinals.getEntry(iterator.next(), sequence);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            this.entries = entries;
+        }
+        return entries;
+    }
+
+    private void checkCompatible(BitmapResultSet other) {
+        if (other.ordinals != ordinals) {
+            throw new IllegalArgumentException("Results of bitmap indexes of different data structures cannot be combined");
+        }
+    }
+}
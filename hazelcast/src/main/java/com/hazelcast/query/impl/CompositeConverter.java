@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+
+import static com.hazelcast.query.impl.TypeConverters.NULL_CONVERTER;
+
+/**
+ * Converts the components of a {@link CompositeValue} with the converters of the respective attributes.
+ * Infinities and components beyond the indexed attributes are left as they are.
+ */
+final class CompositeConverter implements TypeConverter {
+
+    private final TypeConverter[] converters;
+
+    CompositeConverter(TypeConverter[] converters) {
+        this.converters = converters;
+    }
+
+    /**
+     * @return {@code false} if the type of some attribute is unknown yet, because only {@code null} values
+     * have been indexed for it
+     */
+    boolean isResolved() {
+        for (TypeConverter converter : converters) {
+            if (converter == NULL_CONVERTER) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Comparable convert(Comparable value) {
+        if (!(value instanceof CompositeValue)) {
+            throw new IllegalArgumentException("Cannot convert " + value + " to a composite index value");
+        }
+        Comparable[] components = ((CompositeValue) value).getComponents();
+        Comparable[] converted = new Comparable[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Comparable component = components[i];
+            if (i < converters.length && component != CompositeValue.NEGATIVE_INFINITY
+                    && component != CompositeValue.POSITIVE_INFINITY && !(component instanceof IndexImpl.NullObject)) {
+                component = converters[i].convert(component);
+            }
+            converted[i] = component;
+        }
+        return new CompositeValue(converted);
+    }
+}
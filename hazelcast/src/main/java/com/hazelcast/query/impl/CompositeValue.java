@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+
+/**
+ * The value of a composite index: the values of the indexed attributes in the order they are listed in the
+ * index definition, e.g. {@code (customerId, status, ts)} for the index {@code "customerId,status,ts"}.
+ * <p>
+ * Values are ordered lexicographically by their components. Range bounds may contain the special
+ * {@link #NEGATIVE_INFINITY} and {@link #POSITIVE_INFINITY} components, and may be one component longer than
+ * the indexed values to express exclusive bounds: a missing component sorts between the two infinities.
+ * For instance {@code (1, "A", 10, +inf)} is a lower bound matching {@code ts > 10} for the prefix
+ * {@code customerId = 1 AND status = "A"}.
+ */
+@SuppressWarnings("unchecked")
+public final class CompositeValue implements Comparable<CompositeValue> {
+
+    /**
+     * A component which is less than any other component.
+     */
+    public static final Comparable NEGATIVE_INFINITY = new Infinity(-1);
+
+    /**
+     * A component which is greater than any other component.
+     */
+    public static final Comparable POSITIVE_INFINITY = new Infinity(1);
+
+    private final Comparable[] components;
+
+    public CompositeValue(Comparable[] components) {
+        this.components = components;
+    }
+
+    public Comparable[] getComponents() {
+        return components;
+    }
+
+    @Override
+    public int compareTo(CompositeValue that) {
+        int length = Math.max(components.length, that.components.length);
+        for (int i = 0; i < length; i++) {
+            Comparable left = i < components.length ? components[i] : null;
+            Comparable right = i < that.components.length ? that.components[i] : null;
+            int comparison = compareComponents(left, right);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two components; a {@code null} component stands for a missing one.
+     */
+    private static int compareComponents(Comparable left, Comparable right) {
+        if (left == right) {
+            return 0;
+        }
+        if (left instanceof Infinity) {
+            return ((Infinity) left).sign;
+        }
+        if (right instanceof Infinity) {
+            return -((Infinity) right).sign;
+        }
+        if (left == null) {
+            return -1;
+        }
+        if (right == null) {
+            return 1;
+        }
+        if (left instanceof IndexImpl.NullObject) {
+            return right instanceof IndexImpl.NullObject ? 0 : -1;
+        }
+        if (right instanceof IndexImpl.NullObject) {
+            return 1;
+        }
+        return left.compareTo(right);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(components, ((CompositeValue) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+
+    private static final class Infinity implements Comparable {
+
+        private final int sign;
+
+        Infinity(int sign) {
+            this.sign = sign;
+        }
+
+        @Override
+        public int compareTo(Object o) {
+            return o == this ? 0 : sign;
+        }
+
+        @Override
+        public String toString() {
+            return sign < 0 ? "-INF" : "+INF";
+        }
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Compressed bitmap of non-negative int ordinals, in the style of Roaring bitmaps.
+ * <p>
+ * The ordinals are partitioned by their upper 16 bits. The lower 16 bits of the ordinals within a partition
+ * are kept in a container: a sorted array while the partition is sparse, a plain bitmap of 2^16 bits once it
+ * holds more than {@value #ARRAY_CONTAINER_MAX_SIZE} ordinals. Intersections, unions and differences work
+ * container by container, so their cost depends on the compressed size of the bitmaps.
+ * <p>
+ * Not thread-safe. The results of {@link #and}, {@link #or} and {@link #andNot} share no state with the
+ * operands.
+ */
+final class CompressedBitmap {
+
+    static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int LOW_BITS = 16;
+    private static final int LOW_MASK = 0xFFFF;
+    private static final int BITMAP_WORDS = 1 << (LOW_BITS - 6);
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    CompressedBitmap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private CompressedBitmap(int capacity) {
+        keys = new char[capacity];
+        containers = new Container[capacity];
+    }
+
+    void add(int ordinal) {
+        char key = (char) (ordinal >>> LOW_BITS);
+        char low = (char) (ordinal & LOW_MASK);
+        int index = indexOf(key);
+        if (index >= 0) {
+            containers[index] = containers[index].add(low);
+        } else {
+            insert(-index - 1, key, new ArrayContainer().add(low));
+        }
+    }
+
+    void remove(int ordinal) {
+        int index = indexOf((char) (ordinal >>> LOW_BITS));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) (ordinal & LOW_MASK));
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    boolean contains(int ordinal) {
+        int index = indexOf((char) (ordinal >>> LOW_BITS));
+        return index >= 0 && containers[index].contains((char) (ordinal & LOW_MASK));
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    void clear() {
+        keys = new char[INITIAL_CAPACITY];
+        containers = new Container[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap(Math.max(size, INITIAL_CAPACITY));
+        for (int i = 0; i < size; i++) {
+            copy.append(keys[i], containers[i].copy());
+        }
+        return copy;
+    }
+
+    static CompressedBitmap and(CompressedBitmap left, CompressedBitmap right) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(Math.min(left.size, right.size), INITIAL_CAPACITY));
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            char leftKey = left.keys[i];
+            char rightKey = right.keys[j];
+            if (leftKey < rightKey) {
+                i++;
+            } else if (leftKey > rightKey) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(leftKey, left.containers[i++].and(right.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    static CompressedBitmap or(CompressedBitmap left, CompressedBitmap right) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(left.size + right.size, INITIAL_CAPACITY));
+        int i = 0;
+        int j = 0;
+        while (i < left.size || j < right.size) {
+            if (j == right.size || i < left.size && left.keys[i] < right.keys[j]) {
+                result.append(left.keys[i], left.containers[i++].copy());
+            } else if (i == left.size || left.keys[i] > right.keys[j]) {
+                result.append(right.keys[j], right.containers[j++].copy());
+            } else {
+                result.append(left.keys[i], left.containers[i++].or(right.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    static CompressedBitmap andNot(CompressedBitmap left, CompressedBitmap right) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(left.size, INITIAL_CAPACITY));
+        int j = 0;
+        for (int i = 0; i < left.size; i++) {
+            char key = left.keys[i];
+            while (j < right.size && right.keys[j] < key) {
+                j++;
+            }
+            if (j < right.size && right.keys[j] == key) {
+                result.appendIfNotEmpty(key, left.containers[i].andNot(right.containers[j]));
+            } else {
+                result.append(key, left.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    OrdinalIterator iterator() {
+        return new OrdinalIterator();
+    }
+
+    private int indexOf(char key) {
+        // the last partition is the most likely one to be updated, since new ordinals are allocated ascending
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Container container) {
+        ensureCapacity();
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void append(char key, Container container) {
+        ensureCapacity();
+        keys[size] = key;
+        containers[size++] = container;
+    }
+
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.cardinality() > 0) {
+            append(key, container);
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+    }
+
+    /**
+     * Iterates over the ordinals of the bitmap in ascending order.
+     */
+    final class OrdinalIterator {
+
+        private int containerIndex;
+        // the lower 16 bits of the next ordinal, or -1 if the current container is exhausted
+        private int next = -1;
+
+        OrdinalIterator() {
+            advanceContainer();
+        }
+
+        boolean hasNext() {
+            return next >= 0;
+        }
+
+        int next() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            int ordinal = (keys[containerIndex] << LOW_BITS) | next;
+            next = containers[containerIndex].nextValue(next + 1);
+            if (next < 0) {
+                containerIndex++;
+                advanceContainer();
+            }
+            return ordinal;
+        }
+
+        private void advanceContainer() {
+            next = containerIndex < size ? containers[containerIndex].nextValue(0) : -1;
+        }
+    }
+
+    private abstract static class Container {
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container copy();
+
+        /**
+         * @return the smallest value greater than or equal to {@code from}, or -1 if there is none
+         */
+        abstract int nextValue(int from);
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            values = new char[INITIAL_CAPACITY];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_CONTAINER_MAX_SIZE) {
+                return toBitmapContainer().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_CONTAINER_MAX_SIZE));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (!(other instanceof ArrayContainer)) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (cardinality + array.cardinality > ARRAY_CONTAINER_MAX_SIZE) {
+                BitmapContainer result = toBitmapContainer();
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.add(array.values[i]);
+                }
+                return result.cardinality() > ARRAY_CONTAINER_MAX_SIZE ? result : result.toArrayContainer();
+            }
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || i < cardinality && values[i] < array.values[j]) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        int nextValue(int from) {
+            if (from > LOW_MASK) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+
+        private BitmapContainer toBitmapContainer() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            int index = value >>> 6;
+            if ((words[index] & bit) == 0) {
+                words[index] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            int index = value >>> 6;
+            if ((words[index] & bit) != 0) {
+                words[index] &= ~bit;
+                cardinality--;
+                if (cardinality <= ARRAY_CONTAINER_MAX_SIZE / 2) {
+                    // shrink with some hysteresis, so that alternating updates around the threshold don't convert
+                    return toArrayContainer();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+            }
+            return create(result);
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    result[value >>> 6] |= 1L << value;
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] |= otherWords[i];
+                }
+            }
+            return create(result);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    result[value >>> 6] &= ~(1L << value);
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] &= ~otherWords[i];
+                }
+            }
+            return create(result);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(Arrays.copyOf(words, BITMAP_WORDS), cardinality);
+        }
+
+        @Override
+        int nextValue(int from) {
+            int index = from >>> 6;
+            if (index >= BITMAP_WORDS) {
+                return -1;
+            }
+            long word = words[index] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return (index << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++index == BITMAP_WORDS) {
+                    return -1;
+                }
+                word = words[index];
+            }
+        }
+
+        private ArrayContainer toArrayContainer() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int value = nextValue(0); value >= 0; value = nextValue(value + 1)) {
+                values[count++] = (char) value;
+            }
+            return new ArrayContainer(values, count);
+        }
+
+        private static Container create(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            return cardinality > ARRAY_CONTAINER_MAX_SIZE ? bitmap : bitmap.toArrayContainer();
+        }
+    }
+}
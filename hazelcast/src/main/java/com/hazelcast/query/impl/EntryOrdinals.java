@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Assigns dense int ordinals to the indexed entries, so that bitmap indexes can identify an entry by a bit.
+ * <p>
+ * The ordinals are shared by all bitmap indexes of the same {@link Indexes}, which makes the bitmaps of different
+ * attributes combinable by bitwise operations. An ordinal is taken when a bitmap index first sees the key and is
+ * released once the entry is removed from all indexes; released ordinals are reused to keep the bitmaps dense.
+ * <p>
+ * Each assignment is stamped with a sequence number. A query reads the current sequence before reading any bitmap
+ * and ignores the ordinals assigned after it: such an ordinal may have been released and reused by another entry
+ * while the query was running, so its bit in a bitmap read earlier could refer to the previous entry.
+ */
+final class EntryOrdinals {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ConcurrentMap<Data, Integer> ordinals = new ConcurrentHashMap<Data, Integer>();
+    // guarded by this
+    private final CompressedBitmap assignedOrdinals = new CompressedBitmap();
+    // guarded by this
+    private int[] releasedOrdinals = new int[INITIAL_CAPACITY];
+    // guarded by this
+    private int releasedCount;
+    // guarded by this
+    private int nextOrdinal;
+
+    private volatile AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<Slot>(INITIAL_CAPACITY);
+    private volatile long sequence;
+
+    /**
+     * Returns the ordinal of the entry's key, assigning a new one if the key has none yet.
+     * The entry replaces the one previously associated with the ordinal.
+     */
+    synchronized int acquire(QueryableEntry entry) {
+        Data key = entry.getKeyData();
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            Slot slot = slots.get(ordinal);
+            slots.set(ordinal, new Slot(entry, slot.sequence));
+            return ordinal;
+        }
+        int newOrdinal = releasedCount > 0 ? releasedOrdinals[--releasedCount] : nextOrdinal++;
+        ensureCapacity(newOrdinal);
+        long newSequence = sequence + 1;
+        sequence = newSequence;
+        slots.set(newOrdinal, new Slot(entry, newSequence));
+        assignedOrdinals.add(newOrdinal);
+        ordinals.put(key, newOrdinal);
+        return newOrdinal;
+    }
+
+    void release(Data key) {
+        // updates of a key are serialized on its partition thread, so the check can't race with its acquisition;
+        // it spares maps without bitmap indexes the lock
+        if (ordinals.containsKey(key)) {
+            releaseAssigned(key);
+        }
+    }
+
+    private synchronized void releaseAssigned(Data key) {
+        Integer ordinal = ordinals.remove(key);
+        if (ordinal == null) {
+            return;
+        }
+        slots.set(ordinal, null);
+        assignedOrdinals.remove(ordinal);
+        if (releasedCount == releasedOrdinals.length) {
+            int[] newReleasedOrdinals = new int[releasedCount * 2];
+            System.arraycopy(releasedOrdinals, 0, newReleasedOrdinals, 0, releasedCount);
+            releasedOrdinals = newReleasedOrdinals;
+        }
+        releasedOrdinals[releasedCount++] = ordinal;
+    }
+
+    /**
+     * @return the ordinal of the key or -1 if it has none
+     */
+    int ordinalOf(Data key) {
+        Integer ordinal = ordinals.get(key);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the entry with the ordinal, or {@code null} if the ordinal is not assigned or it was assigned
+     * after the given sequence
+     */
+    QueryableEntry getEntry(int ordinal, long sequence) {
+        AtomicReferenceArray<Slot> slots = this.slots;
+        if (ordinal >= slots.length()) {
+            return null;
+        }
+        Slot slot = slots.get(ordinal);
+        return slot == null || slot.sequence > sequence ? null : slot.entry;
+    }
+
+    /**
+     * @return a copy of the bitmap of all assigned ordinals
+     */
+    synchronized CompressedBitmap getAssignedOrdinals() {
+        return assignedOrdinals.copy();
+    }
+
+    synchronized void clear() {
+        ordinals.clear();
+        assignedOrdinals.clear();
+        releasedCount = 0;
+        nextOrdinal = 0;
+        slots = new AtomicReferenceArray<Slot>(INITIAL_CAPACITY);
+    }
+
+    private void ensureCapacity(int ordinal) {
+        AtomicReferenceArray<Slot> slots = this.slots;
+        if (ordinal < slots.length()) {
+            return;
+        }
+        AtomicReferenceArray<Slot> newSlots = new AtomicReferenceArray<Slot>(slots.length() * 2);
+        for (int i = 0; i < slots.length(); i++) {
+            newSlots.set(i, slots.get(i));
+        }
+        this.slots = newSlots;
+    }
+
+    private static final class Slot {
+
+        final QueryableEntry entry;
+        final long sequence;
+
+        Slot(QueryableEntry entry, long sequence) {
+            this.entry = entry;
+            this.sequence = sequence;
+        }
+    }
+}
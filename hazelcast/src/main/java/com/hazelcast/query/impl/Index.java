@@ -16,6 +16,7 @@
 
 package com.hazelcast.query.impl;
 
+import com.hazelcast.config.MapIndexConfig.IndexStoreType;
 import com.hazelcast.core.TypeConverter;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.QueryException;
@@ -57,5 +58,15 @@ public interface Index {
 
     String getAttributeName();
 
+    /**
+     * @return the statistics of this index, used to estimate the selectivity of predicates
+     */
+    IndexStatistics getStatistics();
+
     boolean isOrdered();
+
+    /**
+     * @return the type of the store which keeps this index
+     */
+    IndexStoreType getStoreType();
 }
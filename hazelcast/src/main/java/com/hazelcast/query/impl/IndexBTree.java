@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An in-memory B+tree of index entries ordered by attribute value and then by key.
+ * <p>
+ * Nodes keep their contents in plain arrays, so an indexed entry costs three array slots instead of a skip list
+ * node, a map per distinct value and a hash map node. The leaves are doubly linked to support range scans.
+ * <p>
+ * Not thread-safe: reads may run concurrently but must be excluded from writes by the owner.
+ */
+final class IndexBTree {
+
+    static final int NODE_CAPACITY = 64;
+
+    private static final int MIN_FILL = NODE_CAPACITY / 2;
+
+    private Node root;
+    private Leaf firstLeaf;
+    private int size;
+
+    // scratch state of the write path, which is always executed exclusively
+    private QueryableEntry replaced;
+    private Comparable splitValue;
+    private Data splitKey;
+
+    IndexBTree() {
+        clear();
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        firstLeaf = new Leaf();
+        root = firstLeaf;
+        size = 0;
+    }
+
+    /**
+     * Maps the (value, key) pair to the given entry.
+     *
+     * @return the entry previously mapped to the pair or {@code null} if there was none
+     */
+    QueryableEntry put(Comparable value, Data key, QueryableEntry entry) {
+        replaced = null;
+        Node sibling = insert(root, value, key, entry);
+        if (sibling != null) {
+            Inner newRoot = new Inner();
+            newRoot.children[0] = root;
+            newRoot.children[1] = sibling;
+            newRoot.values[0] = splitValue;
+            newRoot.keys[0] = splitKey;
+            newRoot.size = 2;
+            root = newRoot;
+        }
+        splitValue = null;
+        splitKey = null;
+        if (replaced == null) {
+            size++;
+        }
+        return replaced;
+    }
+
+    /**
+     * @return the entry which was mapped to the (value, key) pair or {@code null} if there was none
+     */
+    QueryableEntry remove(Comparable value, Data key) {
+        QueryableEntry removed = delete(root, value, key);
+        if (removed != null) {
+            size--;
+            if (root instanceof Inner && root.size == 1) {
+                root = ((Inner) root).children[0];
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Puts all entries whose value lies within the given bounds into the result map.
+     *
+     * @param from          the lower bound or {@code null} if unbounded
+     * @param fromInclusive {@code true} if entries equal to the lower bound match
+     * @param to            the upper bound or {@code null} if unbounded
+     * @param toInclusive   {@code true} if entries equal to the upper bound match
+     * @param result        the map to collect the matching entries into
+     */
+    void collect(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive,
+                 Map<Data, QueryableEntry> result) {
+        Leaf leaf;
+        int index;
+        if (from == null) {
+            leaf = firstLeaf;
+            index = 0;
+        } else {
+            Node node = root;
+            while (node instanceof Inner) {
+                Inner inner = (Inner) node;
+                node = inner.children[lowerBound(inner.values, inner.size - 1, from, fromInclusive)];
+            }
+            leaf = (Leaf) node;
+            index = lowerBound(leaf.values, leaf.size, from, fromInclusive);
+        }
+        for (; leaf != null; leaf = leaf.next, index = 0) {
+            for (; index < leaf.size; index++) {
+                if (to != null) {
+                    int comparison = leaf.values[index].compareTo(to);
+                    if (comparison > 0 || comparison == 0 && !toInclusive) {
+                        return;
+                    }
+                }
+                result.put(leaf.keys[index], leaf.entries[index]);
+            }
+        }
+    }
+
+    /**
+     * Puts all entries whose value is not equal to the given one into the result map.
+     */
+    void collectNotEqual(Comparable value, Map<Data, QueryableEntry> result) {
+        for (Leaf leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.size; i++) {
+                if (leaf.values[i].compareTo(value) != 0) {
+                    result.put(leaf.keys[i], leaf.entries[i]);
+                }
+            }
+        }
+    }
+
+    private Node insert(Node node, Comparable value, Data key, QueryableEntry entry) {
+        if (node instanceof Leaf) {
+            return insertIntoLeaf((Leaf) node, value, key, entry);
+        }
+        Inner inner = (Inner) node;
+        int childIndex = childIndex(inner, value, key);
+        Node sibling = insert(inner.children[childIndex], value, key, entry);
+        if (sibling == null) {
+            return null;
+        }
+        return insertIntoInner(inner, childIndex, sibling);
+    }
+
+    private Node insertIntoLeaf(Leaf leaf, Comparable value, Data key, QueryableEntry entry) {
+        int index = search(leaf.values, leaf.keys, leaf.size, value, key);
+        if (index >= 0) {
+            replaced = leaf.entries[index];
+            leaf.entries[index] = entry;
+            return null;
+        }
+        index = -index - 1;
+        if (leaf.size < NODE_CAPACITY) {
+            leaf.insert(index, value, key, entry);
+            return null;
+        }
+
+        Leaf right = new Leaf();
+        int mid = NODE_CAPACITY / 2;
+        leaf.moveTo(mid, right);
+        right.next = leaf.next;
+        if (right.next != null) {
+            right.next.previous = right;
+        }
+        right.previous = leaf;
+        leaf.next = right;
+        if (index <= mid) {
+            leaf.insert(index, value, key, entry);
+        } else {
+            right.insert(index - mid, value, key, entry);
+        }
+        splitValue = right.values[0];
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    private Node insertIntoInner(Inner inner, int childIndex, Node sibling) {
+        if (inner.size < NODE_CAPACITY) {
+            inner.insert(childIndex, splitValue, splitKey, sibling);
+            return null;
+        }
+
+        // lay out the overflowing node, then divide it into two halves around the middle separator
+        Comparable[] values = new Comparable[NODE_CAPACITY];
+        Data[] keys = new Data[NODE_CAPACITY];
+        Node[] children = new Node[NODE_CAPACITY + 1];
+        System.arraycopy(inner.values, 0, values, 0, childIndex);
+        System.arraycopy(inner.keys, 0, keys, 0, childIndex);
+        values[childIndex] = splitValue;
+        keys[childIndex] = splitKey;
+        System.arraycopy(inner.values, childIndex, values, childIndex + 1, NODE_CAPACITY - 1 - childIndex);
+        System.arraycopy(inner.keys, childIndex, keys, childIndex + 1, NODE_CAPACITY - 1 - childIndex);
+        System.arraycopy(inner.children, 0, children, 0, childIndex + 1);
+        children[childIndex + 1] = sibling;
+        System.arraycopy(inner.children, childIndex + 1, children, childIndex + 2, NODE_CAPACITY - 1 - childIndex);
+
+        int leftSize = (NODE_CAPACITY + 1) / 2;
+        int rightSize = NODE_CAPACITY + 1 - leftSize;
+        Inner right = new Inner();
+        inner.fill(values, keys, children, 0, leftSize);
+        right.fill(values, keys, children, leftSize, rightSize);
+        splitValue = values[leftSize - 1];
+        splitKey = keys[leftSize - 1];
+        return right;
+    }
+
+    private QueryableEntry delete(Node node, Comparable value, Data key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = search(leaf.values, leaf.keys, leaf.size, value, key);
+            if (index < 0) {
+                return null;
+            }
+            QueryableEntry removed = leaf.entries[index];
+            leaf.remove(index);
+            return removed;
+        }
+        Inner inner = (Inner) node;
+        int childIndex = childIndex(inner, value, key);
+        QueryableEntry removed = delete(inner.children[childIndex], value, key);
+        if (removed != null && inner.children[childIndex].size < MIN_FILL) {
+            rebalance(inner, childIndex);
+        }
+        return removed;
+    }
+
+    /**
+     * Restores the minimal fill of the given child by merging it with a sibling or by borrowing from it.
+     */
+    private void rebalance(Inner parent, int childIndex) {
+        int leftIndex = childIndex > 0 ? childIndex - 1 : childIndex;
+        Node left = parent.children[leftIndex];
+        Node right = parent.children[leftIndex + 1];
+        boolean underflowOnLeft = leftIndex == childIndex;
+
+        if (left instanceof Leaf) {
+            Leaf leftLeaf = (Leaf) left;
+            Leaf rightLeaf = (Leaf) right;
+            if (leftLeaf.size + rightLeaf.size <= NODE_CAPACITY) {
+                rightLeaf.moveTo(0, leftLeaf);
+                leftLeaf.next = rightLeaf.next;
+                if (leftLeaf.next != null) {
+                    leftLeaf.next.previous = leftLeaf;
+                }
+                parent.remove(leftIndex);
+            } else if (underflowOnLeft) {
+                leftLeaf.insert(leftLeaf.size, rightLeaf.values[0], rightLeaf.keys[0], rightLeaf.entries[0]);
+                rightLeaf.remove(0);
+                parent.values[leftIndex] = rightLeaf.values[0];
+                parent.keys[leftIndex] = rightLeaf.keys[0];
+            } else {
+                int last = leftLeaf.size - 1;
+                rightLeaf.insert(0, leftLeaf.values[last], leftLeaf.keys[last], leftLeaf.entries[last]);
+                leftLeaf.remove(last);
+                parent.values[leftIndex] = rightLeaf.values[0];
+                parent.keys[leftIndex] = rightLeaf.keys[0];
+            }
+            return;
+        }
+
+        Inner leftInner = (Inner) left;
+        Inner rightInner = (Inner) right;
+        if (leftInner.size + rightInner.size <= NODE_CAPACITY) {
+            leftInner.append(parent.values[leftIndex], parent.keys[leftIndex], rightInner);
+            parent.remove(leftIndex);
+        } else if (underflowOnLeft) {
+            leftInner.values[leftInner.size - 1] = parent.values[leftIndex];
+            leftInner.keys[leftInner.size - 1] = parent.keys[leftIndex];
+            leftInner.children[leftInner.size] = rightInner.children[0];
+            leftInner.size++;
+            parent.values[leftIndex] = rightInner.values[0];
+            parent.keys[leftIndex] = rightInner.keys[0];
+            rightInner.removeFirst();
+        } else {
+            int lastSeparator = leftInner.size - 2;
+            rightInner.insertFirst(parent.values[leftIndex], parent.keys[leftIndex],
+                    leftInner.children[leftInner.size - 1]);
+            parent.values[leftIndex] = leftInner.values[lastSeparator];
+            parent.keys[leftIndex] = leftInner.keys[lastSeparator];
+            leftInner.values[lastSeparator] = null;
+            leftInner.keys[lastSeparator] = null;
+            leftInner.children[leftInner.size - 1] = null;
+            leftInner.size--;
+        }
+    }
+
+    /**
+     * @return the index of the child whose subtree contains the (value, key) pair: the number of separators
+     * which are less than or equal to the pair
+     */
+    private static int childIndex(Inner inner, Comparable value, Data key) {
+        int low = 0;
+        int high = inner.size - 2;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(inner.values[mid], inner.keys[mid], value, key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the number of the leading values which are less than the given one (inclusive bound) or
+     * less than or equal to it (exclusive bound)
+     */
+    private static int lowerBound(Comparable[] values, int length, Comparable bound, boolean inclusive) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = values[mid].compareTo(bound);
+            if (comparison < 0 || comparison == 0 && !inclusive) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int search(Comparable[] values, Data[] keys, int length, Comparable value, Data key) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(values[mid], keys[mid], value, key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Comparable value1, Data key1, Comparable value2, Data key2) {
+        int comparison = value1.compareTo(value2);
+        return comparison != 0 ? comparison : compareKeys(key1, key2);
+    }
+
+    /**
+     * Orders keys by hash and then by their serialized form; any total order consistent with
+     * {@link Data#equals(Object)} would do.
+     */
+    static int compareKeys(Data key1, Data key2) {
+        int hash1 = key1.hashCode();
+        int hash2 = key2.hashCode();
+        if (hash1 != hash2) {
+            return hash1 < hash2 ? -1 : 1;
+        }
+        byte[] bytes1 = key1.toByteArray();
+        byte[] bytes2 = key2.toByteArray();
+        int length = Math.min(bytes1.length, bytes2.length);
+        for (int i = 0; i < length; i++) {
+            if (bytes1[i] != bytes2[i]) {
+                return bytes1[i] < bytes2[i] ? -1 : 1;
+            }
+        }
+        return bytes1.length - bytes2.length;
+    }
+
+    private abstract static class Node {
+        // the number of entries of a leaf or the number of children of an inner node
+        int size;
+    }
+
+    private static final class Leaf extends Node {
+
+        final Comparable[] values = new Comparable[NODE_CAPACITY];
+        final Data[] keys = new Data[NODE_CAPACITY];
+        final QueryableEntry[] entries = new QueryableEntry[NODE_CAPACITY];
+        Leaf previous;
+        Leaf next;
+
+        void insert(int index, Comparable value, Data key, QueryableEntry entry) {
+            int tail = size - index;
+            System.arraycopy(values, index, values, index + 1, tail);
+            System.arraycopy(keys, index, keys, index + 1, tail);
+            System.arraycopy(entries, index, entries, index + 1, tail);
+            values[index] = value;
+            keys[index] = key;
+            entries[index] = entry;
+            size++;
+        }
+
+        void remove(int index) {
+            int tail = size - index - 1;
+            System.arraycopy(values, index + 1, values, index, tail);
+            System.arraycopy(keys, index + 1, keys, index, tail);
+            System.arraycopy(entries, index + 1, entries, index, tail);
+            size--;
+            values[size] = null;
+            keys[size] = null;
+            entries[size] = null;
+        }
+
+        /**
+         * Appends the entries starting at {@code from} to the target leaf and removes them from this one.
+         */
+        void moveTo(int from, Leaf target) {
+            int count = size - from;
+            System.arraycopy(values, from, target.values, target.size, count);
+            System.arraycopy(keys, from, target.keys, target.size, count);
+            System.arraycopy(entries, from, target.entries, target.size, count);
+            target.size += count;
+            for (int i = from; i < size; i++) {
+                values[i] = null;
+                keys[i] = null;
+                entries[i] = null;
+            }
+            size = from;
+        }
+    }
+
+    /**
+     * An inner node with {@code size} children and {@code size - 1} separators. Separator {@code i} is greater than
+     * every entry under child {@code i} and less than or equal to every entry under child {@code i + 1}.
+     */
+    private static final class Inner extends Node {
+
+        final Comparable[] values = new Comparable[NODE_CAPACITY - 1];
+        final Data[] keys = new Data[NODE_CAPACITY - 1];
+        final Node[] children = new Node[NODE_CAPACITY];
+
+        /**
+         * Inserts the child right after the child at {@code childIndex}, with the given separator between them.
+         */
+        void insert(int childIndex, Comparable value, Data key, Node child) {
+            int tail = size - 1 - childIndex;
+            System.arraycopy(values, childIndex, values, childIndex + 1, tail);
+            System.arraycopy(keys, childIndex, keys, childIndex + 1, tail);
+            System.arraycopy(children, childIndex + 1, children, childIndex + 2, tail);
+            values[childIndex] = value;
+            keys[childIndex] = key;
+            children[childIndex + 1] = child;
+            size++;
+        }
+
+        /**
+         * Removes the separator at {@code index} and the child to its right.
+         */
+        void remove(int index) {
+            int tail = size - 2 - index;
+            System.arraycopy(values, index + 1, values, index, tail);
+            System.arraycopy(keys, index + 1, keys, index, tail);
+            System.arraycopy(children, index + 2, children, index + 1, tail);
+            size--;
+            values[size - 1] = null;
+            keys[size - 1] = null;
+            children[size] = null;
+        }
+
+        void removeFirst() {
+            System.arraycopy(values, 1, values, 0, size - 2);
+            System.arraycopy(keys, 1, keys, 0, size - 2);
+            System.arraycopy(children, 1, children, 0, size - 1);
+            size--;
+            values[size - 1] = null;
+            keys[size - 1] = null;
+            children[size] = null;
+        }
+
+        void insertFirst(Comparable value, Data key, Node child) {
+            System.arraycopy(values, 0, values, 1, size - 1);
+            System.arraycopy(keys, 0, keys, 1, size - 1);
+            System.arraycopy(children, 0, children, 1, size);
+            values[0] = value;
+            keys[0] = key;
+            children[0] = child;
+            size++;
+        }
+
+        /**
+         * Appends the separator and all children and separators of the given node.
+         */
+        void append(Comparable value, Data key, Inner other) {
+            values[size - 1] = value;
+            keys[size - 1] = key;
+            System.arraycopy(other.values, 0, values, size, other.size - 1);
+            System.arraycopy(other.keys, 0, keys, size, other.size - 1);
+            System.arraycopy(other.children, 0, children, size, other.size);
+            size += other.size;
+        }
+
+        /**
+         * Replaces the contents with {@code count} children, and the separators between them, starting
+         * at {@code from} in the given arrays.
+         */
+        void fill(Comparable[] allValues, Data[] allKeys, Node[] allChildren, int from, int count) {
+            Arrays.fill(values, null);
+            Arrays.fill(keys, null);
+            Arrays.fill(children, null);
+            System.arraycopy(allValues, from, values, 0, count - 1);
+            System.arraycopy(allKeys, from, keys, 0, count - 1);
+            System.arraycopy(allChildren, from, children, 0, count);
+            size = count;
+        }
+    }
+}
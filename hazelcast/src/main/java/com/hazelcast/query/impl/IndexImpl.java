@@ -16,6 +16,7 @@
 
 package com.hazelcast.query.impl;
 
+import com.hazelcast.config.MapIndexConfig.IndexStoreType;
 import com.hazelcast.core.TypeConverter;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.nio.ObjectDataInput;
@@ -24,6 +25,7 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.DataSerializable;
 import com.hazelcast.query.QueryException;
 import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.getters.MultiResult;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -38,8 +40,12 @@ public class IndexImpl implements Index {
     public static final NullObject NULL = new NullObject();
 
     private final IndexStore indexStore;
+    private final IndexStatistics statistics = new IndexStatistics();
     private final String attributeName;
+    // the attributes of a composite index, null for a single attribute index
+    private final String[] components;
     private final boolean ordered;
+    private final IndexStoreType storeType;
 
     private volatile TypeConverter converter;
 
@@ -47,13 +53,35 @@ public class IndexImpl implements Index {
     private final Extractors extractors;
 
     public IndexImpl(String attributeName, boolean ordered, InternalSerializationService ss, Extractors extractors) {
+        this(attributeName, ordered, IndexStoreType.DEFAULT, ss, extractors);
+    }
+
+    public IndexImpl(String attributeName, boolean ordered, IndexStoreType storeType, InternalSerializationService ss,
+                     Extractors extractors) {
+        this(attributeName, ordered, storeType, ss, extractors, new EntryOrdinals());
+    }
+
+    IndexImpl(String attributeName, boolean ordered, IndexStoreType storeType, InternalSerializationService ss,
+              Extractors extractors, EntryOrdinals entryOrdinals) {
         this.attributeName = attributeName;
+        this.components = Indexes.getCompositeComponents(attributeName);
         this.ordered = ordered;
+        this.storeType = storeType;
         this.ss = ss;
-        this.indexStore = ordered ? new SortedIndexStore() : new UnsortedIndexStore();
+        this.indexStore = createIndexStore(ordered, storeType, entryOrdinals);
         this.extractors = extractors;
     }
 
+    private static IndexStore createIndexStore(boolean ordered, IndexStoreType storeType, EntryOrdinals entryOrdinals) {
+        if (storeType == IndexStoreType.BITMAP) {
+            return new BitmapIndexStore(entryOrdinals);
+        }
+        if (!ordered) {
+            return new UnsortedIndexStore();
+        }
+        return storeType == IndexStoreType.BTREE ? new BTreeIndexStore() : new SortedIndexStore();
+    }
+
     @Override
     public void saveEntryIndex(QueryableEntry entry, Object oldRecordValue) throws QueryException {
         /*
@@ -63,16 +91,22 @@ public class IndexImpl implements Index {
          * another thread can query over indexes without knowing the converter and
          * this causes to class cast exceptions.
          */
-        if (converter == null || converter == NULL_CONVERTER) {
+        if (components != null) {
+            if (converter == null || !((CompositeConverter) converter).isResolved()) {
+                converter = createCompositeConverter(entry);
+            }
+        } else if (converter == null || converter == NULL_CONVERTER) {
             converter = entry.getConverter(attributeName);
         }
 
         Object newAttributeValue = extractAttributeValue(entry.getKeyData(), entry.getValue());
         if (oldRecordValue == null) {
             indexStore.newIndex(newAttributeValue, entry);
+            statistics.onEntryAdded(newAttributeValue);
         } else {
             Object oldAttributeValue = extractAttributeValue(entry.getKeyData(), oldRecordValue);
             indexStore.updateIndex(oldAttributeValue, newAttributeValue, entry);
+            statistics.onEntryUpdated(newAttributeValue);
         }
     }
 
@@ -80,10 +114,41 @@ public class IndexImpl implements Index {
     public void removeEntryIndex(Data key, Object value) {
         Object attributeValue = extractAttributeValue(key, value);
         indexStore.removeIndex(attributeValue, key);
+        statistics.onEntryRemoved();
+    }
+
+    private TypeConverter createCompositeConverter(QueryableEntry entry) {
+        TypeConverter[] converters = new TypeConverter[components.length];
+        for (int i = 0; i < components.length; i++) {
+            converters[i] = entry.getConverter(components[i]);
+        }
+        return new CompositeConverter(converters);
     }
 
     private Object extractAttributeValue(Data key, Object value) {
-        return QueryableEntry.extractAttributeValue(extractors, ss, attributeName, key, value);
+        if (components == null) {
+            return QueryableEntry.extractAttributeValue(extractors, ss, attributeName, key, value);
+        }
+        Comparable[] values = new Comparable[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Object component = QueryableEntry.extractAttributeValue(extractors, ss, components[i], key, value);
+            values[i] = sanitizeComponent(components[i], component);
+        }
+        return new CompositeValue(values);
+    }
+
+    private Comparable sanitizeComponent(String component, Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (value instanceof MultiResult || !(value instanceof Comparable)) {
+            throw new IllegalArgumentException("Attribute '" + component + "' of composite index '" + attributeName
+                    + "' must be a single Comparable value, but it is: " + value.getClass());
+        }
+        if (value.getClass().isEnum()) {
+            return TypeConverters.ENUM_CONVERTER.convert((Comparable) value);
+        }
+        return (Comparable) value;
     }
 
     @Override
@@ -98,14 +163,14 @@ public class IndexImpl implements Index {
                 }
                 return indexStore.getRecords(convertedValues);
             }
-            return Collections.EMPTY_SET;
+            return noRecords(Collections.EMPTY_SET);
         }
     }
 
     @Override
     public Set<QueryableEntry> getRecords(Comparable attributeValue) {
         if (converter == null) {
-            return new SingleResultSet(null);
+            return noRecords(new SingleResultSet(null));
         }
         return indexStore.getRecords(convert(attributeValue));
     }
@@ -113,7 +178,7 @@ public class IndexImpl implements Index {
     @Override
     public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedAttributeValue) {
         if (converter == null) {
-            return Collections.EMPTY_SET;
+            return noRecords(Collections.EMPTY_SET);
         }
         return indexStore.getSubRecords(comparisonType, convert(searchedAttributeValue));
     }
@@ -121,11 +186,21 @@ public class IndexImpl implements Index {
     @Override
     public Set<QueryableEntry> getSubRecordsBetween(Comparable fromAttributeValue, Comparable toAttributeValue) {
         if (converter == null) {
-            return Collections.EMPTY_SET;
+            return noRecords(Collections.EMPTY_SET);
         }
         return indexStore.getSubRecordsBetween(convert(fromAttributeValue), convert(toAttributeValue));
     }
 
+    /**
+     * Bitmap results have to stay combinable with the results of other bitmap indexes, even if nothing is indexed yet.
+     */
+    private Set<QueryableEntry> noRecords(Set<QueryableEntry> defaultResult) {
+        if (indexStore instanceof BitmapIndexStore) {
+            return ((BitmapIndexStore) indexStore).emptyResult();
+        }
+        return defaultResult;
+    }
+
     /**
      * Note: the fact that the given attributeValue is of type Comparable doesn't mean that this value is of the same
      * type as the one that's stored in the index, thus the conversion is needed.
@@ -148,9 +223,15 @@ public class IndexImpl implements Index {
     @Override
     public void clear() {
         indexStore.clear();
+        statistics.clear();
         converter = null;
     }
 
+    @Override
+    public IndexStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public String getAttributeName() {
         return attributeName;
@@ -161,6 +242,11 @@ public class IndexImpl implements Index {
         return ordered;
     }
 
+    @Override
+    public IndexStoreType getStoreType() {
+        return storeType;
+    }
+
     ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable indexValue) {
         return indexStore.getRecordMap(indexValue);
     }
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.util.ThreadLocalRandom;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Statistics of an {@link Index}, used by the cost based query optimizer to estimate the selectivity of predicates.
+ * <p>
+ * Besides the exact entry count it keeps a reservoir sample of the indexed attribute values. Sorted, the sample forms
+ * an equi-depth histogram: each sampled value stands for the same number of entries. The histogram is rebuilt lazily
+ * once enough new values have been sampled. Removed values stay in the sample until they are replaced, so the
+ * estimates trail the actual distribution a bit after heavy churn; they are estimates anyway.
+ * <p>
+ * {@code null} attribute values are counted but not sampled, since they are not comparable to other values.
+ */
+public final class IndexStatistics {
+
+    static final int SAMPLE_SIZE = 1024;
+
+    private static final int HISTOGRAM_REBUILD_THRESHOLD = SAMPLE_SIZE / 16;
+    private static final int LOW_CARDINALITY_FACTOR = 10;
+
+    private final AtomicLong entryCount = new AtomicLong();
+    private final AtomicLong sampledValueCount = new AtomicLong();
+    private final AtomicReferenceArray<Comparable> sample = new AtomicReferenceArray<Comparable>(SAMPLE_SIZE);
+
+    private volatile Histogram histogram;
+
+    /**
+     * @return the number of indexed entries
+     */
+    public long getEntryCount() {
+        return Math.max(0, entryCount.get());
+    }
+
+    /**
+     * @return the estimated number of distinct non-null attribute values
+     */
+    public long getDistinctValueEstimate() {
+        Histogram histogram = histogram();
+        if (histogram.values.length == 0) {
+            return 0;
+        }
+        long distinct = histogram.distinctValues;
+        long entries = getEntryCount();
+        // a sample with few distinct values, relative to its size, most likely holds all of them
+        if (histogram.values.length < SAMPLE_SIZE || distinct * LOW_CARDINALITY_FACTOR <= histogram.values.length) {
+            return distinct;
+        }
+        return Math.min(entries, distinct * entries / histogram.values.length);
+    }
+
+    /**
+     * Estimates which fraction of the entries has the given attribute value.
+     *
+     * @param value the value, already converted to the type of the attribute
+     * @return the selectivity between 0 and 1
+     */
+    public double estimateEqualSelectivity(Comparable value) {
+        Histogram histogram = histogram();
+        int sampleSize = histogram.values.length;
+        if (sampleSize == 0) {
+            return 0;
+        }
+        int matches = histogram.countBetween(value, true, value, true);
+        if (matches > 0) {
+            return (double) matches / sampleSize;
+        }
+        // a value missing from the sample is assumed to be average among the rare ones
+        return 1d / Math.max(getDistinctValueEstimate(), sampleSize);
+    }
+
+    /**
+     * Estimates which fraction of the entries has an attribute value within the given bounds.
+     *
+     * @param from          the converted lower bound or {@code null} if unbounded
+     * @param fromInclusive {@code true} if the lower bound is inclusive
+     * @param to            the converted upper bound or {@code null} if unbounded
+     * @param toInclusive   {@code true} if the upper bound is inclusive
+     * @return the selectivity between 0 and 1
+     */
+    public double estimateRangeSelectivity(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        Histogram histogram = histogram();
+        int sampleSize = histogram.values.length;
+        if (sampleSize == 0) {
+            return 0;
+        }
+        int matches = histogram.countBetween(from, fromInclusive, to, toInclusive);
+        // a range between two adjacent sampled values still covers something
+        return Math.max(matches, 1) / (double) sampleSize;
+    }
+
+    void onEntryAdded(Object attributeValue) {
+        entryCount.incrementAndGet();
+        onValueIndexed(attributeValue);
+    }
+
+    void onEntryUpdated(Object newAttributeValue) {
+        onValueIndexed(newAttributeValue);
+    }
+
+    void onEntryRemoved() {
+        entryCount.decrementAndGet();
+    }
+
+    void clear() {
+        entryCount.set(0);
+        sampledValueCount.set(0);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample.set(i, null);
+        }
+        histogram = null;
+    }
+
+    private void onValueIndexed(Object attributeValue) {
+        if (attributeValue instanceof MultiResult) {
+            for (Object result : ((MultiResult) attributeValue).getResults()) {
+                sampleValue(result);
+            }
+        } else {
+            sampleValue(attributeValue);
+        }
+    }
+
+    /**
+     * Reservoir sampling: the n-th value replaces a random sampled one with the probability SAMPLE_SIZE / n.
+     */
+    private void sampleValue(Object value) {
+        if (!(value instanceof Comparable)) {
+            return;
+        }
+        Comparable comparable = (Comparable) value;
+        if (comparable.getClass().isEnum()) {
+            comparable = TypeConverters.ENUM_CONVERTER.convert(comparable);
+        }
+        long count = sampledValueCount.incrementAndGet();
+        if (count <= SAMPLE_SIZE) {
+            sample.set((int) (count - 1), comparable);
+            return;
+        }
+        long slot = ThreadLocalRandom.current().nextLong(count);
+        if (slot < SAMPLE_SIZE) {
+            sample.set((int) slot, comparable);
+        }
+    }
+
+    private Histogram histogram() {
+        Histogram current = histogram;
+        long sampledValues = sampledValueCount.get();
+        if (current != null && sampledValues - current.sampledValueCount < HISTOGRAM_REBUILD_THRESHOLD) {
+            return current;
+        }
+        current = buildHistogram(sampledValues);
+        histogram = current;
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Histogram buildHistogram(long sampledValues) {
+        List<Comparable> values = new ArrayList<Comparable>(SAMPLE_SIZE);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            Comparable value = sample.get(i);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        Comparable[] sorted = values.toArray(new Comparable[values.size()]);
+        try {
+            Arrays.sort(sorted);
+        } catch (ClassCastException e) {
+            // the attribute holds values of incomparable types; there is no meaningful order to estimate with
+            sorted = new Comparable[0];
+        }
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i].compareTo(sorted[i - 1]) != 0) {
+                distinct++;
+            }
+        }
+        return new Histogram(sorted, distinct, sampledValues);
+    }
+
+    /**
+     * Immutable snapshot of the sorted sample.
+     */
+    private static final class Histogram {
+
+        final Comparable[] values;
+        final int distinctValues;
+        final long sampledValueCount;
+
+        Histogram(Comparable[] values, int distinctValues, long sampledValueCount) {
+            this.values = values;
+            this.distinctValues = distinctValues;
+            this.sampledValueCount = sampledValueCount;
+        }
+
+        int countBetween(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+            try {
+                int low = from == null ? 0 : firstIndex(from, fromInclusive);
+                int high = to == null ? values.length : firstIndex(to, !toInclusive);
+                return Math.max(0, high - low);
+            } catch (ClassCastException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * @return the index of the first value which is greater than or equal to the bound ({@code inclusive})
+         * or greater than it
+         */
+        @SuppressWarnings("unchecked")
+        private int firstIndex(Comparable bound, boolean inclusive) {
+            int low = 0;
+            int high = values.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int comparison = values[mid].compareTo(bound);
+                if (comparison < 0 || comparison == 0 && !inclusive) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.query.impl;
 
+import com.hazelcast.config.MapIndexConfig.IndexStoreType;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.IndexAwarePredicate;
@@ -32,9 +33,16 @@ import java.util.concurrent.atomic.AtomicReference;
  * Contains all indexes for a data-structure, e.g. an IMap.
  */
 public class Indexes {
+    /**
+     * Separates the attributes of a composite index, e.g. {@code "customerId,status,ts"}.
+     */
+    public static final char COMPOSITE_SEPARATOR = ',';
+
     private static final Index[] EMPTY_INDEX = {};
     private final ConcurrentMap<String, Index> mapIndexes = new ConcurrentHashMap<String, Index>(3);
     private final AtomicReference<Index[]> indexes = new AtomicReference<Index[]>(EMPTY_INDEX);
+    private final AtomicReference<Index[]> compositeIndexes = new AtomicReference<Index[]>(EMPTY_INDEX);
+    private final EntryOrdinals entryOrdinals = new EntryOrdinals();
     private volatile boolean hasIndex;
     private final InternalSerializationService serializationService;
     private Extractors extractors;
@@ -45,15 +53,20 @@ public class Indexes {
     }
 
     public synchronized Index destroyIndex(String attribute) {
-        return mapIndexes.remove(attribute);
+        return mapIndexes.remove(canonicalizeAttribute(attribute));
     }
 
-    public synchronized Index addOrGetIndex(String attribute, boolean ordered) {
+    public Index addOrGetIndex(String attribute, boolean ordered) {
+        return addOrGetIndex(attribute, ordered, IndexStoreType.DEFAULT);
+    }
+
+    public synchronized Index addOrGetIndex(String attribute, boolean ordered, IndexStoreType storeType) {
+        attribute = canonicalizeAttribute(attribute);
         Index index = mapIndexes.get(attribute);
         if (index != null) {
             return index;
         }
-        index = new IndexImpl(attribute, ordered, serializationService, extractors);
+        index = new IndexImpl(attribute, ordered, storeType, serializationService, extractors, entryOrdinals);
         mapIndexes.put(attribute, index);
         Object[] indexObjects = mapIndexes.values().toArray();
         Index[] newIndexes = new Index[indexObjects.length];
@@ -61,6 +74,13 @@ public class Indexes {
             newIndexes[i] = (Index) indexObjects[i];
         }
         indexes.set(newIndexes);
+        if (getCompositeComponents(attribute) != null) {
+            Index[] oldCompositeIndexes = compositeIndexes.get();
+            Index[] newCompositeIndexes = new Index[oldCompositeIndexes.length + 1];
+            System.arraycopy(oldCompositeIndexes, 0, newCompositeIndexes, 0, oldCompositeIndexes.length);
+            newCompositeIndexes[oldCompositeIndexes.length] = index;
+            compositeIndexes.set(newCompositeIndexes);
+        }
         hasIndex = true;
         return index;
     }
@@ -69,9 +89,18 @@ public class Indexes {
         return indexes.get();
     }
 
+    /**
+     * @return the indexes over multiple attributes, e.g. {@code "customerId,status,ts"}
+     */
+    public Index[] getCompositeIndexes() {
+        return compositeIndexes.get();
+    }
+
     public void clearIndexes() {
         indexes.set(EMPTY_INDEX);
+        compositeIndexes.set(EMPTY_INDEX);
         mapIndexes.clear();
+        entryOrdinals.clear();
         hasIndex = false;
     }
 
@@ -80,6 +109,7 @@ public class Indexes {
         for (Index index : indexes) {
             index.removeEntryIndex(key, value);
         }
+        entryOrdinals.release(key);
     }
 
     public boolean hasIndex() {
@@ -100,7 +130,36 @@ public class Indexes {
      * @return Index for attribute or null if the index does not exist.
      */
     public Index getIndex(String attribute) {
-        return mapIndexes.get(attribute);
+        return mapIndexes.get(canonicalizeAttribute(attribute));
+    }
+
+    /**
+     * Removes the whitespace around the attributes of a composite index definition,
+     * so that e.g. {@code "a, b"} and {@code "a,b"} denote the same index.
+     */
+    public static String canonicalizeAttribute(String attribute) {
+        if (attribute.indexOf(COMPOSITE_SEPARATOR) < 0) {
+            return attribute;
+        }
+        StringBuilder sb = new StringBuilder(attribute.length());
+        for (String component : attribute.split(String.valueOf(COMPOSITE_SEPARATOR))) {
+            if (sb.length() > 0) {
+                sb.append(COMPOSITE_SEPARATOR);
+            }
+            sb.append(component.trim());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the attributes of the given composite index definition, or {@code null}
+     * if it is a single attribute
+     */
+    public static String[] getCompositeComponents(String attribute) {
+        if (attribute.indexOf(COMPOSITE_SEPARATOR) < 0) {
+            return null;
+        }
+        return canonicalizeAttribute(attribute).split(String.valueOf(COMPOSITE_SEPARATOR));
     }
 
     public Set<QueryableEntry> query(Predicate predicate) {
@@ -23,6 +23,7 @@ import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.VisitablePredicate;
 import com.hazelcast.query.impl.AndResultSet;
+import com.hazelcast.query.impl.BitmapResultSet;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
@@ -67,6 +68,7 @@ public final class AndPredicate
         Set<QueryableEntry> smallestIndexedResult = null;
         List<Set<QueryableEntry>> otherIndexedResults = new LinkedList<Set<QueryableEntry>>();
         List<Predicate> lsNoIndexPredicates = null;
+        BitmapResultSet bitmapResult = null;
         for (Predicate predicate : predicates) {
             boolean indexed = false;
             if (predicate instanceof IndexAwarePredicate) {
@@ -74,7 +76,10 @@ public final class AndPredicate
                 if (iap.isIndexed(queryContext)) {
                     indexed = true;
                     Set<QueryableEntry> s = iap.filter(queryContext);
-                    if (smallestIndexedResult == null) {
+                    if (s instanceof BitmapResultSet && (bitmapResult == null || bitmapResult.isCompatible(s))) {
+                        // intersected bitwise, the entries are materialized only for the final result
+                        bitmapResult = bitmapResult == null ? (BitmapResultSet) s : bitmapResult.and((BitmapResultSet) s);
+                    } else if (smallestIndexedResult == null) {
                         smallestIndexedResult = s;
                     } else if (s.size() < smallestIndexedResult.size()) {
                         otherIndexedResults.add(smallestIndexedResult);
@@ -91,6 +96,19 @@ public final class AndPredicate
                 lsNoIndexPredicates.add(predicate);
             }
         }
+        if (bitmapResult != null) {
+            if (smallestIndexedResult == null && lsNoIndexPredicates == null) {
+                return bitmapResult;
+            }
+            if (smallestIndexedResult == null) {
+                smallestIndexedResult = bitmapResult;
+            } else if (bitmapResult.size() < smallestIndexedResult.size()) {
+                otherIndexedResults.add(smallestIndexedResult);
+                smallestIndexedResult = bitmapResult;
+            } else {
+                otherIndexedResults.add(bitmapResult);
+            }
+        }
         if (smallestIndexedResult == null) {
             return null;
         }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Looks up a single value of a composite index. It replaces equality predicates on all attributes
+ * of the index, e.g. {@code (a = 1 AND b = 2)} for the index {@code "a,b"}.
+ * <p>
+ * It is created by {@link CompositeIndexVisitor} while optimizing a query on a member and is never serialized.
+ */
+public class CompositeEqualPredicate implements IndexAwarePredicate {
+
+    final String indexName;
+    final CompositeValue value;
+    // the predicates this one replaces; they are used to evaluate entries without the index
+    final Predicate[] predicates;
+
+    CompositeEqualPredicate(String indexName, CompositeValue value, Predicate[] predicates) {
+        this.indexName = indexName;
+        this.value = value;
+        this.predicates = predicates;
+    }
+
+    @Override
+    public Set<QueryableEntry> filter(QueryContext queryContext) {
+        Index index = queryContext.getIndex(indexName);
+        return index.getRecords(value);
+    }
+
+    @Override
+    public boolean isIndexed(QueryContext queryContext) {
+        return queryContext.getIndex(indexName) != null;
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        for (Predicate predicate : predicates) {
+            if (!predicate.apply(mapEntry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + indexName + ")=" + value;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexImpl;
+import com.hazelcast.query.impl.Indexes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.query.impl.CompositeValue.NEGATIVE_INFINITY;
+import static com.hazelcast.query.impl.CompositeValue.POSITIVE_INFINITY;
+
+/**
+ * Replaces the predicates of an AND which match a composite index with a single lookup in that index.
+ * <p>
+ * Imagine the index {@code "customerId,status,ts"}. Then:
+ * <ul>
+ * <li>(customerId = 1 AND status = 'A' AND ts = 5) is rewritten to a lookup of (1, 'A', 5)</li>
+ * <li>(customerId = 1 AND status = 'A' AND ts > 5 AND x = 3) is rewritten to a range scan of
+ * (1, 'A', ts > 5) AND x = 3</li>
+ * <li>(customerId = 1 AND status = 'A') is rewritten to a range scan of the prefix (1, 'A')</li>
+ * </ul>
+ * Range scans need an ordered index. At least two attributes have to match, otherwise a single attribute
+ * index serves the query as well. When several composite indexes match, the one matching the most
+ * attributes wins.
+ */
+public class CompositeIndexVisitor extends AbstractVisitor {
+
+    private static final int MIN_MATCHED_ATTRIBUTES = 2;
+
+    @Override
+    public Predicate visit(AndPredicate andPredicate, Indexes indexes) {
+        Index[] compositeIndexes = indexes.getCompositeIndexes();
+        if (compositeIndexes == null || compositeIndexes.length == 0) {
+            return andPredicate;
+        }
+        Predicate[] predicates = andPredicate.predicates;
+        Match bestMatch = null;
+        for (Index index : compositeIndexes) {
+            Match match = match(index, predicates);
+            if (match != null && (bestMatch == null || match.matchedAttributes > bestMatch.matchedAttributes)) {
+                bestMatch = match;
+            }
+        }
+        if (bestMatch == null) {
+            return andPredicate;
+        }
+        return bestMatch.rewrite(predicates);
+    }
+
+    private Match match(Index index, Predicate[] predicates) {
+        String[] components = Indexes.getCompositeComponents(index.getAttributeName());
+        List<Predicate> matched = new ArrayList<Predicate>(components.length + 1);
+
+        // the leading attributes matched by equality
+        Comparable[] prefix = new Comparable[components.length];
+        int prefixLength = 0;
+        for (; prefixLength < components.length; prefixLength++) {
+            EqualPredicate equalPredicate = findEqualPredicate(predicates, components[prefixLength]);
+            if (equalPredicate == null) {
+                break;
+            }
+            prefix[prefixLength] = equalPredicate.value;
+            matched.add(equalPredicate);
+        }
+        if (prefixLength == components.length) {
+            CompositeValue value = new CompositeValue(prefix);
+            return new Match(prefixLength, new CompositeEqualPredicate(index.getAttributeName(), value, toArray(matched)),
+                    matched);
+        }
+        if (!index.isOrdered()) {
+            return null;
+        }
+
+        // an optional range on the attribute following the prefix
+        Range range = findRange(predicates, components[prefixLength], matched);
+        int matchedAttributes = range == null ? prefixLength : prefixLength + 1;
+        if (matchedAttributes < MIN_MATCHED_ATTRIBUTES) {
+            return null;
+        }
+        Comparable from = range == null ? null : range.from;
+        Comparable to = range == null ? null : range.to;
+        boolean fromInclusive = range != null && range.fromInclusive;
+        if (range != null && from == null) {
+            // an open lower end still excludes nulls, which sort below any other value: start just above them
+            from = IndexImpl.NULL;
+        }
+        boolean toInclusive = range != null && range.toInclusive;
+        Comparable fromPadding = fromInclusive ? NEGATIVE_INFINITY : POSITIVE_INFINITY;
+        Comparable toPadding = toInclusive ? POSITIVE_INFINITY : NEGATIVE_INFINITY;
+        CompositeValue lowerBound = bound(prefix, prefixLength, components.length, from, fromPadding, NEGATIVE_INFINITY);
+        CompositeValue upperBound = bound(prefix, prefixLength, components.length, to, toPadding, POSITIVE_INFINITY);
+        Predicate rewritten = new CompositeRangePredicate(index.getAttributeName(), lowerBound, upperBound,
+                toArray(matched));
+        return new Match(matchedAttributes, rewritten, matched);
+    }
+
+    /**
+     * Creates a bound one component longer than the indexed values: the prefix, then the range boundary if any,
+     * padded with the given infinity. The extra component makes sure the bound is never equal to an indexed value.
+     */
+    private static CompositeValue bound(Comparable[] prefix, int prefixLength, int indexLength, Comparable boundary,
+                                        Comparable boundaryPadding, Comparable unboundedPadding) {
+        Comparable[] components = new Comparable[indexLength + 1];
+        System.arraycopy(prefix, 0, components, 0, prefixLength);
+        int position = prefixLength;
+        Comparable padding = unboundedPadding;
+        if (boundary != null) {
+            components[position++] = boundary;
+            padding = boundaryPadding;
+        }
+        for (; position < components.length; position++) {
+            components[position] = padding;
+        }
+        return new CompositeValue(components);
+    }
+
+    private static EqualPredicate findEqualPredicate(Predicate[] predicates, String attribute) {
+        for (Predicate predicate : predicates) {
+            if (predicate.getClass() == EqualPredicate.class) {
+                EqualPredicate equalPredicate = (EqualPredicate) predicate;
+                if (equalPredicate.value != null && attribute.equals(equalPredicate.attributeName)) {
+                    return equalPredicate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds at most one lower and one upper boundary for the attribute. Further range predicates on the same
+     * attribute are left in place; they are still evaluated, just not with this index.
+     */
+    private static Range findRange(Predicate[] predicates, String attribute, List<Predicate> matched) {
+        Range range = null;
+        for (Predicate predicate : predicates) {
+            if (predicate.getClass() == BetweenPredicate.class) {
+                BetweenPredicate between = (BetweenPredicate) predicate;
+                if (range == null && attribute.equals(between.attributeName)) {
+                    range = new Range();
+                    range.setFrom(between.from, true);
+                    range.setTo(between.to, true);
+                    matched.add(between);
+                }
+            } else if (predicate instanceof GreaterLessPredicate) {
+                GreaterLessPredicate greaterLess = (GreaterLessPredicate) predicate;
+                if (!attribute.equals(greaterLess.attributeName)) {
+                    continue;
+                }
+                if (range == null) {
+                    range = new Range();
+                }
+                if (greaterLess.less && range.to == null) {
+                    range.setTo(greaterLess.value, greaterLess.equal);
+                    matched.add(greaterLess);
+                } else if (!greaterLess.less && range.from == null) {
+                    range.setFrom(greaterLess.value, greaterLess.equal);
+                    matched.add(greaterLess);
+                }
+            }
+        }
+        return range;
+    }
+
+    private static Predicate[] toArray(List<Predicate> predicates) {
+        return predicates.toArray(new Predicate[predicates.size()]);
+    }
+
+    private static final class Range {
+        Comparable from;
+        boolean fromInclusive;
+        Comparable to;
+        boolean toInclusive;
+
+        void setFrom(Comparable from, boolean inclusive) {
+            this.from = from;
+            this.fromInclusive = inclusive;
+        }
+
+        void setTo(Comparable to, boolean inclusive) {
+            this.to = to;
+            this.toInclusive = inclusive;
+        }
+    }
+
+    private static final class Match {
+        final int matchedAttributes;
+        final Predicate rewritten;
+        final List<Predicate> replaced;
+
+        Match(int matchedAttributes, Predicate rewritten, List<Predicate> replaced) {
+            this.matchedAttributes = matchedAttributes;
+            this.rewritten = rewritten;
+            this.replaced = replaced;
+        }
+
+        Predicate rewrite(Predicate[] predicates) {
+            List<Predicate> newPredicates = new ArrayList<Predicate>(predicates.length);
+            newPredicates.add(rewritten);
+            for (Predicate predicate : predicates) {
+                if (!containsIdentical(replaced, predicate)) {
+                    newPredicates.add(predicate);
+                }
+            }
+            if (newPredicates.size() == 1) {
+                return rewritten;
+            }
+            return new AndPredicate(toArray(newPredicates));
+        }
+
+        private static boolean containsIdentical(List<Predicate> predicates, Predicate predicate) {
+            for (Predicate candidate : predicates) {
+                if (candidate == predicate) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scans a range of an ordered composite index. It replaces equality predicates on a prefix of the attributes
+ * of the index, optionally followed by range predicates on the next attribute, e.g.
+ * {@code (a = 1 AND b = 2 AND c > 10)} for the index {@code "a,b,c"}.
+ * <p>
+ * The bounds are inclusive and contain infinities; see {@link CompositeValue} for how they express the
+ * original predicates. It is created by {@link CompositeIndexVisitor} while optimizing a query on a member
+ * and is never serialized.
+ */
+public class CompositeRangePredicate implements IndexAwarePredicate {
+
+    final String indexName;
+    final CompositeValue from;
+    final CompositeValue to;
+    // the predicates this one replaces; they are used to evaluate entries without the index
+    final Predicate[] predicates;
+
+    CompositeRangePredicate(String indexName, CompositeValue from, CompositeValue to, Predicate[] predicates) {
+        this.indexName = indexName;
+        this.from = from;
+        this.to = to;
+        this.predicates = predicates;
+    }
+
+    @Override
+    public Set<QueryableEntry> filter(QueryContext queryContext) {
+        Index index = queryContext.getIndex(indexName);
+        return index.getSubRecordsBetween(from, to);
+    }
+
+    @Override
+    public boolean isIndexed(QueryContext queryContext) {
+        return queryContext.getIndex(indexName) != null;
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        for (Predicate predicate : predicates) {
+            if (!predicate.apply(mapEntry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + indexName + ") BETWEEN " + from + " AND " + to;
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexImpl;
+import com.hazelcast.query.impl.IndexStatistics;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cost based optimizer. It applies the rewrites of {@link RuleBasedQueryOptimizer} first and then uses the
+ * {@link IndexStatistics} of the indexes to plan the query:
+ * <ul>
+ * <li>the most selective indexed predicate of an AND drives the query;</li>
+ * <li>other indexed predicates of the AND are intersected with the driving result only if materializing their
+ * index results is cheaper than evaluating them on the driving result, otherwise they become filters;</li>
+ * <li>the filters are ordered so that cheap and selective ones run first;</li>
+ * <li>when even the driving predicate matches a large fraction of the entries, the query falls back to a full
+ * table scan, which is cheaper than materializing such a result from the index.</li>
+ * </ul>
+ * Whenever the selectivity of an indexed predicate cannot be estimated, the predicate is left as the rule based
+ * optimizer made it.
+ */
+public final class CostBasedQueryOptimizer implements QueryOptimizer {
+
+    /**
+     * Relative cost of evaluating a predicate on an entry during a full table scan, including reading the entry.
+     */
+    static final double FULL_SCAN_ENTRY_COST = 1;
+
+    /**
+     * Relative cost of producing an entry from an index and adding it to a result set.
+     */
+    static final double INDEX_RESULT_ENTRY_COST = 4;
+
+    /**
+     * Beyond this selectivity a full table scan is cheaper than using an index.
+     */
+    static final double MAX_INDEX_SELECTIVITY = FULL_SCAN_ENTRY_COST / INDEX_RESULT_ENTRY_COST;
+
+    private static final double UNKNOWN = -1;
+    private static final double SIMPLE_FILTER_COST = 1;
+    private static final double IN_FILTER_COST = 2;
+    private static final double PATTERN_FILTER_COST = 4;
+    private static final double REGEX_FILTER_COST = 8;
+    private static final double UNKNOWN_FILTER_COST = 2;
+
+    private final QueryOptimizer ruleBasedOptimizer = new RuleBasedQueryOptimizer();
+
+    @Override
+    public <K, V> Predicate<K, V> optimize(Predicate<K, V> predicate, Indexes indexes) {
+        Predicate optimized = ruleBasedOptimizer.optimize(predicate, indexes);
+        if (indexes == null || !indexes.hasIndex()) {
+            return optimized;
+        }
+        if (optimized instanceof AndPredicate) {
+            return planAnd((AndPredicate) optimized, indexes);
+        }
+        double selectivity = estimateSelectivity(optimized, indexes);
+        if (selectivity > MAX_INDEX_SELECTIVITY) {
+            return new UnindexedPredicate(optimized);
+        }
+        return optimized;
+    }
+
+    private Predicate planAnd(AndPredicate andPredicate, Indexes indexes) {
+        QueryContext queryContext = new QueryContext(indexes);
+        Predicate[] predicates = andPredicate.predicates;
+        List<Predicate> indexed = new ArrayList<Predicate>(predicates.length);
+        List<Predicate> filters = new ArrayList<Predicate>(predicates.length);
+        final double[] selectivities = new double[predicates.length];
+        Predicate driving = null;
+        double drivingSelectivity = Double.MAX_VALUE;
+        for (int i = 0; i < predicates.length; i++) {
+            Predicate predicate = predicates[i];
+            double selectivity = estimateSelectivity(predicate, indexes);
+            selectivities[i] = selectivity;
+            if (!isIndexed(predicate, queryContext)) {
+                filters.add(predicate);
+                continue;
+            }
+            if (selectivity == UNKNOWN) {
+                return andPredicate;
+            }
+            indexed.add(predicate);
+            if (selectivity < drivingSelectivity) {
+                driving = predicate;
+                drivingSelectivity = selectivity;
+            }
+        }
+        if (driving == null) {
+            return andPredicate;
+        }
+
+        boolean fullScan = drivingSelectivity > MAX_INDEX_SELECTIVITY;
+        List<Predicate> plan = new ArrayList<Predicate>(predicates.length);
+        if (!fullScan) {
+            plan.add(driving);
+        }
+        long entryCount = getEntryCount(driving, indexes);
+        double candidates = drivingSelectivity * entryCount;
+        for (Predicate predicate : indexed) {
+            if (predicate == driving && !fullScan) {
+                continue;
+            }
+            double indexCost = selectivityOf(predicate, predicates, selectivities) * entryCount * INDEX_RESULT_ENTRY_COST;
+            double filterCost = candidates * filterCost(predicate);
+            if (!fullScan && indexCost < filterCost) {
+                plan.add(predicate);
+            } else {
+                filters.add(new UnindexedPredicate(predicate));
+            }
+        }
+        sortFilters(filters, predicates, selectivities);
+        plan.addAll(filters);
+
+        Predicate[] planned = plan.toArray(new Predicate[plan.size()]);
+        if (Arrays.equals(planned, predicates)) {
+            return andPredicate;
+        }
+        AndPredicate plannedAnd = new AndPredicate(planned);
+        return fullScan ? new UnindexedPredicate(plannedAnd) : plannedAnd;
+    }
+
+    /**
+     * Orders the filters by the cost of evaluating them per entry they reject.
+     */
+    private void sortFilters(List<Predicate> filters, final Predicate[] predicates, final double[] selectivities) {
+        Collections.sort(filters, new Comparator<Predicate>() {
+            @Override
+            public int compare(Predicate left, Predicate right) {
+                return Double.compare(rank(left), rank(right));
+            }
+
+            private double rank(Predicate predicate) {
+                double cost = filterCost(predicate);
+                double selectivity = selectivityOf(predicate, predicates, selectivities);
+                if (selectivity == UNKNOWN) {
+                    return cost;
+                }
+                return cost / Math.max(1 - selectivity, Double.MIN_VALUE);
+            }
+        });
+    }
+
+    private static double selectivityOf(Predicate predicate, Predicate[] predicates, double[] selectivities) {
+        Predicate unwrapped = predicate instanceof UnindexedPredicate ? ((UnindexedPredicate) predicate).predicate : predicate;
+        for (int i = 0; i < predicates.length; i++) {
+            if (predicates[i] == unwrapped) {
+                return selectivities[i];
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean isIndexed(Predicate predicate, QueryContext queryContext) {
+        return predicate instanceof IndexAwarePredicate && ((IndexAwarePredicate) predicate).isIndexed(queryContext);
+    }
+
+    private static long getEntryCount(Predicate predicate, Indexes indexes) {
+        Index index = indexes.getIndex(indexNameOf(predicate));
+        return index == null ? 0 : index.getStatistics().getEntryCount();
+    }
+
+    private static String indexNameOf(Predicate predicate) {
+        if (predicate instanceof CompositeEqualPredicate) {
+            return ((CompositeEqualPredicate) predicate).indexName;
+        }
+        if (predicate instanceof CompositeRangePredicate) {
+            return ((CompositeRangePredicate) predicate).indexName;
+        }
+        return ((AbstractPredicate) predicate).attributeName;
+    }
+
+    /**
+     * @return the estimated fraction of the entries matching the predicate, or {@link #UNKNOWN}
+     */
+    static double estimateSelectivity(Predicate predicate, Indexes indexes) {
+        Class<?> predicateClass = predicate.getClass();
+        boolean estimable = predicateClass == EqualPredicate.class || predicateClass == NotEqualPredicate.class
+                || predicateClass == GreaterLessPredicate.class || predicateClass == BetweenPredicate.class
+                || predicateClass == InPredicate.class || predicateClass == CompositeEqualPredicate.class
+                || predicateClass == CompositeRangePredicate.class;
+        if (!estimable) {
+            return UNKNOWN;
+        }
+        Index index = indexes.getIndex(indexNameOf(predicate));
+        if (index == null) {
+            return UNKNOWN;
+        }
+        TypeConverter converter = index.getConverter();
+        if (converter == null) {
+            // nothing has been indexed yet
+            return 0;
+        }
+        IndexStatistics statistics = index.getStatistics();
+        if (predicate instanceof EqualPredicate) {
+            Comparable value = ((EqualPredicate) predicate).value;
+            if (value == null || value instanceof IndexImpl.NullObject) {
+                return UNKNOWN;
+            }
+            double selectivity = statistics.estimateEqualSelectivity(converter.convert(value));
+            return predicate instanceof NotEqualPredicate ? 1 - selectivity : selectivity;
+        }
+        if (predicate instanceof GreaterLessPredicate) {
+            GreaterLessPredicate greaterLess = (GreaterLessPredicate) predicate;
+            Comparable value = converter.convert(greaterLess.value);
+            return greaterLess.less
+                    ? statistics.estimateRangeSelectivity(null, false, value, greaterLess.equal)
+                    : statistics.estimateRangeSelectivity(value, greaterLess.equal, null, false);
+        }
+        if (predicate instanceof BetweenPredicate) {
+            BetweenPredicate between = (BetweenPredicate) predicate;
+            return statistics.estimateRangeSelectivity(converter.convert(between.from), true,
+                    converter.convert(between.to), true);
+        }
+        if (predicate instanceof InPredicate) {
+            double selectivity = 0;
+            for (Comparable value : ((InPredicate) predicate).values) {
+                if (value == null) {
+                    return UNKNOWN;
+                }
+                selectivity += statistics.estimateEqualSelectivity(converter.convert(value));
+            }
+            return Math.min(1, selectivity);
+        }
+        if (predicate instanceof CompositeEqualPredicate) {
+            return statistics.estimateEqualSelectivity(converter.convert(((CompositeEqualPredicate) predicate).value));
+        }
+        CompositeRangePredicate range = (CompositeRangePredicate) predicate;
+        return statistics.estimateRangeSelectivity(converter.convert(range.from), true, converter.convert(range.to), true);
+    }
+
+    /**
+     * @return the relative cost of evaluating the predicate on a single entry
+     */
+    static double filterCost(Predicate predicate) {
+        if (predicate instanceof UnindexedPredicate) {
+            return filterCost(((UnindexedPredicate) predicate).predicate);
+        }
+        if (predicate instanceof RegexPredicate) {
+            return REGEX_FILTER_COST;
+        }
+        if (predicate instanceof LikePredicate) {
+            return PATTERN_FILTER_COST;
+        }
+        if (predicate instanceof InPredicate) {
+            return IN_FILTER_COST;
+        }
+        if (predicate instanceof CompoundPredicate) {
+            double cost = 0;
+            for (Predicate inner : ((CompoundPredicate) predicate).getPredicates()) {
+                cost += filterCost(inner);
+            }
+            return cost;
+        }
+        if (predicate instanceof AbstractPredicate || predicate instanceof InstanceOfPredicate
+                || predicate instanceof CompositeEqualPredicate || predicate instanceof CompositeRangePredicate) {
+            return SIMPLE_FILTER_COST;
+        }
+        return UNKNOWN_FILTER_COST;
+    }
+}
@@ -16,7 +16,10 @@
 
 package com.hazelcast.query.impl.predicates;
 
+import com.hazelcast.config.MapIndexConfig.IndexStoreType;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.BitmapResultSet;
+import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
 
@@ -41,12 +44,19 @@ public final class NotEqualPredicate extends EqualPredicate {
 
     @Override
     public boolean isIndexed(QueryContext queryContext) {
-        return false;
+        // only the complement of a bitmap contains the entries without the attribute too
+        Index index = getIndex(queryContext);
+        return index != null && index.getStoreType() == IndexStoreType.BITMAP;
     }
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
-        return null;
+        Index index = getIndex(queryContext);
+        if (index == null || index.getStoreType() != IndexStoreType.BITMAP) {
+            return null;
+        }
+        Set<QueryableEntry> equalResult = index.getRecords(value);
+        return equalResult instanceof BitmapResultSet ? ((BitmapResultSet) equalResult).not() : null;
     }
 
     @Override
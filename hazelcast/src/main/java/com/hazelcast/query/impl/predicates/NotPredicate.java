@@ -16,23 +16,33 @@
 
 package com.hazelcast.query.impl.predicates;
 
+import com.hazelcast.config.MapIndexConfig.IndexStoreType;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.VisitablePredicate;
+import com.hazelcast.query.impl.BitmapResultSet;
+import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
 
 import static com.hazelcast.internal.serialization.impl.FactoryIdHelper.PREDICATE_DS_FACTORY_ID;
 
 /**
  * Not Predicate
+ * <p>
+ * It is evaluated with indexes only if the negated predicate can be evaluated entirely on bitmap indexes,
+ * as the complement of the bitmap of its result.
  */
 public final class NotPredicate
-        implements Predicate, VisitablePredicate, NegatablePredicate, IdentifiedDataSerializable {
+        implements IndexAwarePredicate, VisitablePredicate, NegatablePredicate, IdentifiedDataSerializable {
     protected Predicate predicate;
 
     public NotPredicate(Predicate predicate) {
@@ -47,6 +57,46 @@ public final class NotPredicate
         return !predicate.apply(mapEntry);
     }
 
+    @Override
+    public Set<QueryableEntry> filter(QueryContext queryContext) {
+        Set<QueryableEntry> result = ((IndexAwarePredicate) predicate).filter(queryContext);
+        return result instanceof BitmapResultSet ? ((BitmapResultSet) result).not() : null;
+    }
+
+    @Override
+    public boolean isIndexed(QueryContext queryContext) {
+        return isBitmapIndexed(predicate, queryContext);
+    }
+
+    private static boolean isBitmapIndexed(Predicate predicate, QueryContext queryContext) {
+        if (predicate instanceof AndPredicate || predicate instanceof OrPredicate) {
+            for (Predicate inner : ((CompoundPredicate) predicate).getPredicates()) {
+                if (!isBitmapIndexed(inner, queryContext)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (predicate instanceof NotPredicate) {
+            return isBitmapIndexed(((NotPredicate) predicate).predicate, queryContext);
+        }
+        if (!(predicate instanceof IndexAwarePredicate) || !((IndexAwarePredicate) predicate).isIndexed(queryContext)) {
+            return false;
+        }
+        String indexName;
+        if (predicate instanceof AbstractIndexAwarePredicate) {
+            indexName = ((AbstractIndexAwarePredicate) predicate).attributeName;
+        } else if (predicate instanceof CompositeEqualPredicate) {
+            indexName = ((CompositeEqualPredicate) predicate).indexName;
+        } else if (predicate instanceof CompositeRangePredicate) {
+            indexName = ((CompositeRangePredicate) predicate).indexName;
+        } else {
+            return false;
+        }
+        Index index = queryContext.getIndex(indexName);
+        return index != null && index.getStoreType() == IndexStoreType.BITMAP;
+    }
+
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeObject(predicate);
@@ -22,6 +22,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.VisitablePredicate;
+import com.hazelcast.query.impl.BitmapResultSet;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.OrResultSet;
 import com.hazelcast.query.impl.QueryContext;
@@ -67,7 +68,28 @@ public final class OrPredicate
                 }
             }
         }
-        return indexedResults.isEmpty() ? null : new OrResultSet(indexedResults);
+        if (indexedResults.isEmpty()) {
+            return null;
+        }
+        BitmapResultSet bitmapResult = unionOfBitmaps(indexedResults);
+        return bitmapResult != null ? bitmapResult : new OrResultSet(indexedResults);
+    }
+
+    /**
+     * @return the bitwise union of the results if all of them come from bitmap indexes, {@code null} otherwise
+     */
+    private static BitmapResultSet unionOfBitmaps(List<Set<QueryableEntry>> indexedResults) {
+        BitmapResultSet union = null;
+        for (Set<QueryableEntry> result : indexedResults) {
+            if (union == null && result instanceof BitmapResultSet) {
+                union = (BitmapResultSet) result;
+            } else if (union != null && union.isCompatible(result)) {
+                union = union.or((BitmapResultSet) result);
+            } else {
+                return null;
+            }
+        }
+        return union;
     }
 
     @Override
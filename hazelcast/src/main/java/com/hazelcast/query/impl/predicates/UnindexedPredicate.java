@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+
+import java.util.Map;
+
+/**
+ * Hides the index awareness of the wrapped predicate, so it is evaluated entry by entry: as a filter
+ * on the results of another index, or by a full table scan.
+ * <p>
+ * It is created by {@link CostBasedQueryOptimizer} while optimizing a query on a member and is never serialized.
+ */
+public final class UnindexedPredicate implements Predicate {
+
+    final Predicate predicate;
+
+    UnindexedPredicate(Predicate predicate) {
+        this.predicate = predicate;
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        return predicate.apply(mapEntry);
+    }
+
+    @Override
+    public String toString() {
+        return "UNINDEXED(" + predicate + ")";
+    }
+}
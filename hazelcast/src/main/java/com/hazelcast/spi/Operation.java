@@ -75,6 +75,9 @@ public abstract class Operation implements DataSerializable {
     private transient Connection connection;
     private transient OperationResponseHandler responseHandler;
 
+    // local; the System.nanoTime() this operation was added to an operation queue
+    private transient long enqueueNanos;
+
     public Operation() {
         setFlag(true, BITMASK_VALIDATE_TARGET);
         setFlag(true, BITMASK_CALL_TIMEOUT_64_BIT);
@@ -301,6 +304,17 @@ public abstract class Operation implements DataSerializable {
         return this;
     }
 
+    // Accessed using OperationAccessor
+    final long getEnqueueNanos() {
+        return enqueueNanos;
+    }
+
+    // Accessed using OperationAccessor
+    final Operation setEnqueueNanos(long enqueueNanos) {
+        this.enqueueNanos = enqueueNanos;
+        return this;
+    }
+
     /**
      * Gets the call timeout in milliseconds. For example, if a call should start execution within 60 seconds otherwise
      * it should be aborted, then the call-timeout is 60000 milliseconds. Once an operation starts execution and runs for a
@@ -60,6 +60,26 @@ public final class OperationAccessor {
         op.setInvocationTime(invocationTime);
     }
 
+    /**
+     * Gets the {@link System#nanoTime()} the Operation was added to an operation queue.
+     *
+     * @param op the Operation.
+     * @return the time the Operation was queued, or 0 if it hasn't been queued.
+     */
+    public static long getEnqueueNanos(Operation op) {
+        return op.getEnqueueNanos();
+    }
+
+    /**
+     * Sets the {@link System#nanoTime()} the Operation was added to an operation queue. The time isn't serialized.
+     *
+     * @param op the Operation that is updated for its enqueue time.
+     * @param enqueueNanos the time the Operation was queued.
+     */
+    public static void setEnqueueNanos(Operation op, long enqueueNanos) {
+        op.setEnqueueNanos(enqueueNanos);
+    }
+
     /**
      * Sets the call timeout in milliseconds for the Operation.
      *
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+/**
+ * Marker interface for partition operations that can take a long time to execute, like operations that scan all entries
+ * of a partition.
+ * <p/>
+ * A partition operation thread can defer the execution of a LongRunningOperation till the short operations that are
+ * queued behind it have been executed; see
+ * {@link com.hazelcast.spi.properties.GroupProperty#OPERATION_LONG_RUNNING_MAX_DEFER_MILLIS}. Therefore only operations
+ * that don't depend on being executed in order with other operations of the same partition, should be marked as
+ * LongRunningOperation; typically read-only operations. Mutating operations, like a partition wide entry processor,
+ * must not be marked since deferring them would reorder them with the key based operations of the same partition.
+ */
+public interface LongRunningOperation {
+}
@@ -188,6 +188,7 @@ public class NodeEngineImpl implements NodeEngine {
         metricsRegistry.collectMetrics(operationService);
         metricsRegistry.collectMetrics(proxyService);
         metricsRegistry.collectMetrics(eventService);
+        metricsRegistry.collectMetrics(node.getNodeExtension().getNativeMemoryManager());
 
         serviceManager.start();
         proxyService.init();
@@ -26,6 +26,7 @@ import com.hazelcast.spi.impl.eventservice.impl.operations.PostJoinRegistrationO
 import com.hazelcast.spi.impl.eventservice.impl.operations.RegistrationOperation;
 import com.hazelcast.spi.impl.eventservice.impl.operations.SendEventOperation;
 import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.OperationBatch;
 import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation;
 import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation.PartitionResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckResponse;
@@ -60,6 +61,7 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
     public static final int DIST_OBJECT_INIT = 14;
     public static final int DIST_OBJECT_DESTROY = 15;
     public static final int POST_JOIN_PROXY = 16;
+    public static final int OPERATION_BATCH = 17;
 
     @Override
     public DataSerializableFactory createFactory() {
@@ -101,6 +103,8 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
                         return new DistributedObjectDestroyOperation();
                     case POST_JOIN_PROXY:
                         return new PostJoinProxyOperation();
+                    case OPERATION_BATCH:
+                        return new OperationBatch();
                     default:
                         return null;
                 }
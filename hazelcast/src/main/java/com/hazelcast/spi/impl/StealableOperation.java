@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+/**
+ * Marker interface for generic operations that an idle partition operation thread may execute when it helps with the
+ * generic operations; see {@link com.hazelcast.spi.properties.GroupProperty#PARTITION_OPERATION_THREAD_HELP_GENERIC}.
+ * <p/>
+ * Only short operations which never block and never invoke other operations should be marked: while a partition
+ * thread executes a generic operation, the operations of its partitions are delayed, and it is not allowed to wait
+ * for an invocation on a partition.
+ * <p/>
+ * Remote operations are flagged with {@link com.hazelcast.nio.Packet#FLAG_OP_STEALABLE} when they are send, so the
+ * packets can be stolen without deserializing them.
+ */
+public interface StealableOperation {
+}
@@ -22,12 +22,14 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.impl.AllowedDuringPassiveState;
 import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import com.hazelcast.spi.impl.StealableOperation;
 import com.hazelcast.spi.impl.eventservice.impl.EventServiceImpl;
 import com.hazelcast.spi.impl.eventservice.impl.EventServiceSegment;
 
 import java.io.IOException;
 
-public class DeregistrationOperation extends Operation implements AllowedDuringPassiveState, IdentifiedDataSerializable {
+public class DeregistrationOperation extends Operation
+        implements AllowedDuringPassiveState, IdentifiedDataSerializable, StealableOperation {
 
     private String topic;
     private String id;
@@ -18,6 +18,7 @@ package com.hazelcast.spi.impl.operationexecutor.impl;
 
 import com.hazelcast.instance.HazelcastThreadGroup;
 import com.hazelcast.instance.NodeExtension;
+import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 
@@ -39,4 +40,18 @@ public final class GenericOperationThread extends OperationThread {
     public OperationRunner getOperationRunner(int partitionId) {
         return operationRunner;
     }
+
+    /**
+     * Returns the number of normal operations pending. If work stealing is disabled, the queue is shared between all
+     * generic operation threads.
+     */
+    @Probe
+    int normalPendingCount() {
+        return queue.normalSize();
+    }
+
+    @Probe
+    long stealCount() {
+        return queue instanceof WorkStealingOperationQueue ? ((WorkStealingOperationQueue) queue).stealCount() : 0;
+    }
 }
@@ -18,10 +18,12 @@ package com.hazelcast.spi.impl.operationexecutor.impl;
 
 import com.hazelcast.instance.HazelcastThreadGroup;
 import com.hazelcast.instance.NodeExtension;
+import com.hazelcast.internal.metrics.LongProbeFunction;
 import com.hazelcast.internal.metrics.MetricsProvider;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.util.collection.MPSCQueue;
+import com.hazelcast.internal.util.counters.LatencyDistribution;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.LoggingService;
 import com.hazelcast.nio.Address;
@@ -38,13 +40,20 @@ import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
 import com.hazelcast.spi.properties.HazelcastProperties;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import static com.hazelcast.internal.metrics.ProbeLevel.INFO;
+import static com.hazelcast.internal.util.counters.LatencyDistribution.bucketLowerBound;
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.spi.OperationAccessor.setEnqueueNanos;
 import static com.hazelcast.spi.properties.GroupProperty.GENERIC_OPERATION_THREAD_COUNT;
+import static com.hazelcast.spi.properties.GroupProperty.GENERIC_OPERATION_THREAD_WORK_STEALING;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_LONG_RUNNING_MAX_DEFER_MILLIS;
 import static com.hazelcast.spi.properties.GroupProperty.PARTITION_COUNT;
 import static com.hazelcast.spi.properties.GroupProperty.PARTITION_OPERATION_THREAD_COUNT;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_OPERATION_THREAD_HELP_GENERIC;
 import static com.hazelcast.spi.properties.GroupProperty.PRIORITY_GENERIC_OPERATION_THREAD_COUNT;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -70,6 +79,9 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * </li>
  *
  * </ol>
+ * By default the generic operation threads share a single queue. If work stealing is enabled, each of the normal generic
+ * operation threads has its own {@link WorkStealingOperationQueue} and optionally idle partition threads help with the
+ * generic operations; see {@link com.hazelcast.spi.properties.GroupProperty#GENERIC_OPERATION_THREAD_WORK_STEALING}.
  */
 @SuppressWarnings("checkstyle:methodcount")
 public final class OperationExecutorImpl implements OperationExecutor, MetricsProvider {
@@ -82,12 +94,17 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
     private final PartitionOperationThread[] partitionThreads;
     private final OperationRunner[] partitionOperationRunners;
 
+    private final BlockingQueue<Object> genericPriorityQueue = new LinkedBlockingQueue<Object>();
     private final OperationQueue genericQueue
-            = new DefaultOperationQueue(new LinkedBlockingQueue<Object>(), new LinkedBlockingQueue<Object>());
+            = new DefaultOperationQueue(new LinkedBlockingQueue<Object>(), genericPriorityQueue);
+    // the queues of the normal generic threads if work stealing is enabled, otherwise null
+    private final WorkStealingOperationQueue[] genericWorkQueues;
 
     // all operations that are not specific for a partition will be executed here, e.g. heartbeat or map.size()
     private final GenericOperationThread[] genericThreads;
     private final OperationRunner[] genericOperationRunners;
+    // the runners for the generic operations executed by partition threads that help with generic operations
+    private final OperationRunner[] helperOperationRunners;
 
     private final Address thisAddress;
     private final OperationRunner adHocOperationRunner;
@@ -109,7 +126,9 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
 
         this.priorityThreadCount = properties.getInteger(PRIORITY_GENERIC_OPERATION_THREAD_COUNT);
         this.genericOperationRunners = initGenericOperationRunners(properties, runnerFactory);
+        this.genericWorkQueues = initGenericWorkQueues(properties);
         this.genericThreads = initGenericThreads(threadGroup, nodeExtension);
+        this.helperOperationRunners = initHelperOperationRunners(properties, runnerFactory);
     }
 
     private OperationRunner[] initPartitionOperationRunners(HazelcastProperties properties,
@@ -147,6 +166,7 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
             threadCount = Math.max(2, coreSize);
         }
 
+        long maxDeferMillis = properties.getMillis(OPERATION_LONG_RUNNING_MAX_DEFER_MILLIS);
         PartitionOperationThread[] threads = new PartitionOperationThread[threadCount];
         for (int threadId = 0; threadId < threads.length; threadId++) {
             String threadName = threadGroup.getThreadPoolNamePrefix("partition-operation") + threadId;
@@ -157,6 +177,7 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
             PartitionOperationThread partitionThread = new PartitionOperationThread(threadName, threadId, operationQueue, logger,
                     threadGroup, nodeExtension, partitionOperationRunners);
 
+            partitionThread.deferLongRunningOperations(maxDeferMillis);
             threads[threadId] = partitionThread;
             normalQueue.setConsumerThread(partitionThread);
         }
@@ -172,6 +193,32 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
         return threads;
     }
 
+    private WorkStealingOperationQueue[] initGenericWorkQueues(HazelcastProperties properties) {
+        int normalThreadCount = genericOperationRunners.length - priorityThreadCount;
+        if (!properties.getBoolean(GENERIC_OPERATION_THREAD_WORK_STEALING) || normalThreadCount <= 0) {
+            return null;
+        }
+
+        return WorkStealingOperationQueue.newGroup(normalThreadCount, genericPriorityQueue);
+    }
+
+    private OperationRunner[] initHelperOperationRunners(HazelcastProperties properties,
+                                                         OperationRunnerFactory runnerFactory) {
+        if (genericWorkQueues == null || !properties.getBoolean(PARTITION_OPERATION_THREAD_HELP_GENERIC)) {
+            return new OperationRunner[0];
+        }
+
+        OperationRunner[] operationRunners = new OperationRunner[partitionThreads.length];
+        for (int threadId = 0; threadId < partitionThreads.length; threadId++) {
+            PartitionOperationThread partitionThread = partitionThreads[threadId];
+            OperationRunner operationRunner = runnerFactory.createGenericRunner();
+            operationRunner.setCurrentThread(partitionThread);
+            partitionThread.helpWithGenericOperations(genericWorkQueues, operationRunner);
+            operationRunners[threadId] = operationRunner;
+        }
+        return operationRunners;
+    }
+
     private GenericOperationThread[] initGenericThreads(HazelcastThreadGroup threadGroup, NodeExtension nodeExtension) {
         // we created as many generic operation handlers, as there are generic threads
         int threadCount = genericOperationRunners.length;
@@ -184,9 +231,12 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
             String baseName = priority ? "priority-generic-operation" : "generic-operation";
             String threadName = threadGroup.getThreadPoolNamePrefix(baseName) + threadId;
             OperationRunner operationRunner = genericOperationRunners[threadIndex];
+            OperationQueue queue = priority || genericWorkQueues == null
+                    ? genericQueue
+                    : genericWorkQueues[threadIndex - priorityThreadCount];
 
             GenericOperationThread operationThread = new GenericOperationThread(
-                    threadName, threadIndex, genericQueue, logger, threadGroup, nodeExtension, operationRunner, priority);
+                    threadName, threadIndex, queue, logger, threadGroup, nodeExtension, operationRunner, priority);
 
             threads[threadIndex] = operationThread;
             operationRunner.setCurrentThread(operationThread);
@@ -209,7 +259,81 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
         registry.collectMetrics((Object[]) partitionThreads);
         registry.collectMetrics(adHocOperationRunner);
         registry.collectMetrics((Object[]) genericOperationRunners);
+        registry.collectMetrics((Object[]) helperOperationRunners);
         registry.collectMetrics((Object[]) partitionOperationRunners);
+
+        for (int waitTimeClass = 0; waitTimeClass < OperationThread.WAIT_TIME_CLASSES.length; waitTimeClass++) {
+            registerWaitTimeMetrics(registry, waitTimeClass);
+        }
+    }
+
+    /**
+     * Registers the wait time distribution of a class of operations, aggregated over all operation threads.
+     */
+    private void registerWaitTimeMetrics(MetricsRegistry registry, final int waitTimeClass) {
+        String prefix = "operation.waitTime." + OperationThread.WAIT_TIME_CLASSES[waitTimeClass];
+
+        registry.register(this, prefix + ".count", INFO, new LongProbeFunction<OperationExecutorImpl>() {
+            @Override
+            public long get(OperationExecutorImpl source) {
+                long count = 0;
+                for (LatencyDistribution distribution : source.waitTimeDistributions(waitTimeClass)) {
+                    count += distribution.count();
+                }
+                return count;
+            }
+        });
+
+        registry.register(this, prefix + ".totalMillis", INFO, new LongProbeFunction<OperationExecutorImpl>() {
+            @Override
+            public long get(OperationExecutorImpl source) {
+                long total = 0;
+                for (LatencyDistribution distribution : source.waitTimeDistributions(waitTimeClass)) {
+                    total += distribution.total();
+                }
+                return total;
+            }
+        });
+
+        registry.register(this, prefix + ".maxMillis", INFO, new LongProbeFunction<OperationExecutorImpl>() {
+            @Override
+            public long get(OperationExecutorImpl source) {
+                long max = 0;
+                for (LatencyDistribution distribution : source.waitTimeDistributions(waitTimeClass)) {
+                    max = Math.max(max, distribution.max());
+                }
+                return max;
+            }
+        });
+
+        for (int bucket = 0; bucket < LatencyDistribution.BUCKET_COUNT; bucket++) {
+            final int bucketIndex = bucket;
+            String bucketName = bucket == LatencyDistribution.BUCKET_COUNT - 1
+                    ? bucketLowerBound(bucket) + "+ms"
+                    : bucketLowerBound(bucket) + "-" + bucketLowerBound(bucket + 1) + "ms";
+            registry.register(this, prefix + "." + bucketName, INFO, new LongProbeFunction<OperationExecutorImpl>() {
+                @Override
+                public long get(OperationExecutorImpl source) {
+                    long count = 0;
+                    for (LatencyDistribution distribution : source.waitTimeDistributions(waitTimeClass)) {
+                        count += distribution.bucketCount(bucketIndex);
+                    }
+                    return count;
+                }
+            });
+        }
+    }
+
+    private LatencyDistribution[] waitTimeDistributions(int waitTimeClass) {
+        LatencyDistribution[] distributions = new LatencyDistribution[partitionThreads.length + genericThreads.length];
+        int index = 0;
+        for (OperationThread thread : partitionThreads) {
+            distributions[index++] = thread.waitTimeDistributions[waitTimeClass];
+        }
+        for (OperationThread thread : genericThreads) {
+            distributions[index++] = thread.waitTimeDistributions[waitTimeClass];
+        }
+        return distributions;
     }
 
     @SuppressFBWarnings("EI_EXPOSE_REP")
@@ -228,6 +352,7 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
     public void scan(LiveOperations result) {
         scan(partitionOperationRunners, result);
         scan(genericOperationRunners, result);
+        scan(helperOperationRunners, result);
     }
 
     private void scan(OperationRunner[] runners, LiveOperations result) {
@@ -254,7 +379,7 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
 
     @Probe(name = "runningGenericCount")
     private int getRunningGenericOperationCount() {
-        return getRunningOperationCount(genericOperationRunners);
+        return getRunningOperationCount(genericOperationRunners) + getRunningOperationCount(helperOperationRunners);
     }
 
     private static int getRunningOperationCount(OperationRunner[] runners) {
@@ -274,7 +399,7 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
         for (PartitionOperationThread partitionThread : partitionThreads) {
             size += partitionThread.queue.normalSize();
         }
-        size += genericQueue.normalSize();
+        size += getGenericQueueSize();
         return size;
     }
 
@@ -291,7 +416,13 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
 
     @Probe(name = "genericQueueSize")
     private int getGenericQueueSize() {
-        return genericQueue.normalSize();
+        int size = genericQueue.normalSize();
+        if (genericWorkQueues != null) {
+            for (WorkStealingOperationQueue queue : genericWorkQueues) {
+                size += queue.normalSize();
+            }
+        }
+        return size;
     }
 
     @Probe(name = "genericPriorityQueueSize")
@@ -336,8 +467,19 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
     }
 
     private void execute(Object task, int partitionId, boolean priority) {
+        // the time the task spends in the queue is recorded as its wait time; see OperationThread.recordWaitTime
+        if (task instanceof Operation) {
+            setEnqueueNanos((Operation) task, System.nanoTime());
+        } else if (task instanceof Packet) {
+            ((Packet) task).setEnqueueNanos(System.nanoTime());
+        }
+
         if (partitionId < 0) {
-            genericQueue.add(task, priority);
+            if (genericWorkQueues == null) {
+                genericQueue.add(task, priority);
+            } else {
+                WorkStealingOperationQueue.addToRandomQueue(genericWorkQueues, task, priority);
+            }
         } else {
             OperationThread partitionThread = partitionThreads[toPartitionThreadIndex(partitionId)];
             partitionThread.queue.add(task, priority);
@@ -480,7 +622,9 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
         startAll(partitionThreads);
 
         logger.info("Starting " + genericThreads.length + " generic threads ("
-                + priorityThreadCount + " dedicated for priority tasks)");
+                + priorityThreadCount + " dedicated for priority tasks)"
+                + (genericWorkQueues != null ? " with work stealing" : "")
+                + (helperOperationRunners.length > 0 ? ", partition threads help with generic tasks" : ""));
         startAll(genericThreads);
     }
 
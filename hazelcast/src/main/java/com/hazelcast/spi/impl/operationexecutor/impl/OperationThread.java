@@ -21,10 +21,12 @@ import com.hazelcast.instance.NodeExtension;
 import com.hazelcast.internal.metrics.MetricsProvider;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.LatencyDistribution;
 import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.LongRunningOperation;
 import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import com.hazelcast.util.executor.HazelcastManagedThread;
@@ -45,6 +47,15 @@ import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
  */
 public abstract class OperationThread extends HazelcastManagedThread implements MetricsProvider {
 
+    /**
+     * The names of the classes operations are divided in for the wait time distributions.
+     */
+    static final String[] WAIT_TIME_CLASSES = {"urgent", "normal", "longRunning"};
+
+    private static final int WAIT_TIME_URGENT = 0;
+    private static final int WAIT_TIME_NORMAL = 1;
+    private static final int WAIT_TIME_LONG_RUNNING = 2;
+
     final int threadId;
     final OperationQueue queue;
     // This field wil only be accessed by the thread itself when doing 'self' calls. So no need
@@ -65,6 +76,9 @@ public abstract class OperationThread extends HazelcastManagedThread implements
     @Probe
     private final SwCounter errorCount = newSwCounter();
 
+    // the time between queueing and the start of the execution of an operation, per class of operation.
+    final LatencyDistribution[] waitTimeDistributions = newWaitTimeDistributions();
+
     private final boolean priority;
     private final NodeExtension nodeExtension;
     private final ILogger logger;
@@ -87,6 +101,41 @@ public abstract class OperationThread extends HazelcastManagedThread implements
 
     public abstract OperationRunner getOperationRunner(int partitionId);
 
+    /**
+     * Records the time an operation waited between being added to an operation queue and being executed. The time is
+     * measured with {@link System#nanoTime()} on this member, so network latency and clock skew between members don't
+     * end up in it.
+     * <p/>
+     * Should only be called by this thread.
+     *
+     * @param op             the operation that is about to be executed.
+     * @param waitTimeMillis the time the operation waited.
+     */
+    public final void recordWaitTime(Operation op, long waitTimeMillis) {
+        int waitTimeClass;
+        if (op.isUrgent()) {
+            waitTimeClass = WAIT_TIME_URGENT;
+        } else if (op instanceof LongRunningOperation) {
+            waitTimeClass = WAIT_TIME_LONG_RUNNING;
+        } else {
+            waitTimeClass = WAIT_TIME_NORMAL;
+        }
+        waitTimeDistributions[waitTimeClass].record(waitTimeMillis);
+    }
+
+    /**
+     * Offers a {@link LongRunningOperation} to be deferred till the operations queued behind it have been executed.
+     * <p/>
+     * Should only be called by this thread, before the operation is executed. If true is returned, the thread will
+     * execute the operation at a later moment.
+     *
+     * @param op the operation to defer.
+     * @return true if the operation is deferred, false if it should be executed immediately.
+     */
+    public boolean defer(Operation op) {
+        return false;
+    }
+
     @Override
     public final void run() {
         nodeExtension.onThreadStart(this);
@@ -94,7 +143,7 @@ public abstract class OperationThread extends HazelcastManagedThread implements
             while (!shutdown) {
                 Object task;
                 try {
-                    task = queue.take(priority);
+                    task = take();
                 } catch (InterruptedException e) {
                     continue;
                 }
@@ -109,6 +158,16 @@ public abstract class OperationThread extends HazelcastManagedThread implements
         }
     }
 
+    /**
+     * Takes the next task to process. If there is no task, the call blocks.
+     *
+     * @return the task.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    Object take() throws InterruptedException {
+        return queue.take(priority);
+    }
+
     private void process(Object task) {
         try {
             if (task.getClass() == Packet.class) {
@@ -118,6 +177,9 @@ public abstract class OperationThread extends HazelcastManagedThread implements
                 completedPacketCount.inc();
             } else if (task instanceof Operation) {
                 Operation operation = (Operation) task;
+                if (operation instanceof LongRunningOperation && defer(operation)) {
+                    return;
+                }
                 currentRunner = getOperationRunner(operation.getPartitionId());
                 currentRunner.run(operation);
                 completedOperationCount.inc();
@@ -143,6 +205,14 @@ public abstract class OperationThread extends HazelcastManagedThread implements
         }
     }
 
+    private static LatencyDistribution[] newWaitTimeDistributions() {
+        LatencyDistribution[] distributions = new LatencyDistribution[WAIT_TIME_CLASSES.length];
+        for (int k = 0; k < distributions.length; k++) {
+            distributions[k] = new LatencyDistribution();
+        }
+        return distributions;
+    }
+
     @Override
     public void provideMetrics(MetricsRegistry registry) {
         registry.scanAndRegister(this, "operation.thread[" + getName() + "]");
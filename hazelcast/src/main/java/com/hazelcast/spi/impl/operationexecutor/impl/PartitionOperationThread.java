@@ -19,16 +19,36 @@ package com.hazelcast.spi.impl.operationexecutor.impl;
 import com.hazelcast.instance.HazelcastThreadGroup;
 import com.hazelcast.instance.NodeExtension;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.LongRunningOperation;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 /**
  * An {@link OperationThread} that executes Operations for a particular partition, e.g. a map.get operation.
  */
 public final class PartitionOperationThread extends OperationThread {
 
     private final OperationRunner[] partitionOperationRunners;
+    // only set if this thread helps with generic operations when it is idle
+    private WorkStealingOperationQueue[] genericQueues;
+    private OperationRunner genericOperationRunner;
+    @Probe
+    private final SwCounter genericHelpCount = newSwCounter();
+    // only accessed by this thread
+    private final Queue<DeferredOperation> deferredOperations = new ArrayDeque<DeferredOperation>();
+    private long maxDeferNanos;
+    private boolean runningDeferred;
+    @Probe
+    private final SwCounter deferredCount = newSwCounter();
 
     @SuppressFBWarnings("EI_EXPOSE_REP")
     public PartitionOperationThread(String name, int threadId,
@@ -39,15 +59,85 @@ public final class PartitionOperationThread extends OperationThread {
         this.partitionOperationRunners = partitionOperationRunners;
     }
 
+    /**
+     * Lets this thread help with executing generic operations when it has no partition operations pending.
+     *
+     * Should be called before this thread is started.
+     *
+     * @param genericQueues          the queues of the generic operation threads to take operations from.
+     * @param genericOperationRunner the OperationRunner to run the generic operations with.
+     */
+    void helpWithGenericOperations(WorkStealingOperationQueue[] genericQueues, OperationRunner genericOperationRunner) {
+        this.genericQueues = genericQueues;
+        this.genericOperationRunner = genericOperationRunner;
+    }
+
+    /**
+     * Lets this thread defer the execution of {@link LongRunningOperation} instances, in favor of the operations that
+     * are queued behind them.
+     *
+     * Should be called before this thread is started.
+     *
+     * @param maxDeferMillis the maximum time in milliseconds an operation is deferred.
+     */
+    void deferLongRunningOperations(long maxDeferMillis) {
+        this.maxDeferNanos = MILLISECONDS.toNanos(maxDeferMillis);
+    }
+
+    /**
+     * A {@link LongRunningOperation} is deferred if there are other operations pending; unless it already has been
+     * deferred.
+     */
+    @Override
+    public boolean defer(Operation op) {
+        if (maxDeferNanos <= 0 || runningDeferred || queue.normalSize() == 0) {
+            return false;
+        }
+
+        deferredOperations.add(new DeferredOperation(op, System.nanoTime() + maxDeferNanos));
+        deferredCount.inc();
+        return true;
+    }
+
     /**
      * For each partition there is a {@link com.hazelcast.spi.impl.operationexecutor.OperationRunner} instance. So we need to
      * find the right one based on the partition-id.
+     *
+     * If this thread helps with generic operations, the generic OperationRunner is returned for a negative partition-id.
      */
     @Override
     public OperationRunner getOperationRunner(int partitionId) {
+        if (partitionId < 0 && genericOperationRunner != null) {
+            return genericOperationRunner;
+        }
         return partitionOperationRunners[partitionId];
     }
 
+    /**
+     * If this thread helps with generic operations and it has no partition operations pending, a generic
+     * {@link com.hazelcast.spi.impl.StealableOperation} is stolen before blocking on its own queue. Once blocked, this
+     * thread is only woken up for partition operations.
+     */
+    @Override
+    Object take() throws InterruptedException {
+        runningDeferred = false;
+        DeferredOperation deferred = deferredOperations.peek();
+        if (deferred != null && (queue.size() == 0 || System.nanoTime() >= deferred.deadlineNanos)) {
+            deferredOperations.poll();
+            runningDeferred = true;
+            return deferred.op;
+        }
+
+        if (genericQueues != null && queue.size() == 0) {
+            Object task = WorkStealingOperationQueue.stealStealable(genericQueues);
+            if (task != null) {
+                genericHelpCount.inc();
+                return task;
+            }
+        }
+        return super.take();
+    }
+
     @Probe
     int priorityPendingCount() {
         return queue.prioritySize();
@@ -57,4 +147,14 @@ public final class PartitionOperationThread extends OperationThread {
     int normalPendingCount() {
         return queue.normalSize();
     }
+
+    private static final class DeferredOperation {
+        private final Operation op;
+        private final long deadlineNanos;
+
+        private DeferredOperation(Operation op, long deadlineNanos) {
+            this.op = op;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
 }
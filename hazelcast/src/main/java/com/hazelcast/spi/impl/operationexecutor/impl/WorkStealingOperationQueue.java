@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.util.ThreadLocalRandom;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.impl.StealableOperation;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.nio.Packet.FLAG_OP_STEALABLE;
+import static com.hazelcast.spi.impl.operationexecutor.impl.DefaultOperationQueue.TRIGGER_TASK;
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * An {@link OperationQueue} for a {@link GenericOperationThread} that is part of a group of work stealing queues.
+ * <p/>
+ * Instead of all generic threads contending on a single shared queue, each generic thread has its own deque. Tasks are
+ * placed on a random deque of the group; the owning thread takes from the head of its deque and if its deque is empty,
+ * it steals from the tail of the deques of the other threads. So a thread that is busy with a slow operation doesn't
+ * hold up the tasks placed on its deque.
+ * <p/>
+ * Priority tasks are placed on a priority queue that is shared with the priority generic threads, so they can still
+ * be taken by the priority generic threads. Just like the {@link DefaultOperationQueue}, a trigger task is placed on a
+ * deque to wake up its owner so that it can take the priority task as well.
+ * <p/>
+ * A thread that finds nothing to take or steal marks its queue idle and blocks on its deque. A task placed on the deque
+ * of a thread that is busy wakes up one idle thread of the group with a trigger task, so that it can steal the task.
+ * Because the idle flag is set before the final steal attempt and read by the producer after adding the task, either
+ * the idle thread sees the task or the producer sees the idle thread; so no task is left behind while a thread sleeps,
+ * and idle threads don't poll.
+ */
+public final class WorkStealingOperationQueue implements OperationQueue {
+
+    private final LinkedBlockingDeque<Object> normalQueue = new LinkedBlockingDeque<Object>();
+    private final BlockingQueue<Object> priorityQueue;
+    // set by the owning thread before it blocks; cleared by a producer that wakes it up
+    private final AtomicBoolean idle = new AtomicBoolean();
+    // only written by the owning thread
+    private final SwCounter stealCount = newSwCounter();
+    private WorkStealingOperationQueue[] group;
+
+    private WorkStealingOperationQueue(BlockingQueue<Object> priorityQueue) {
+        this.priorityQueue = priorityQueue;
+    }
+
+    /**
+     * Creates a group of work stealing queues.
+     *
+     * @param size          the number of queues in the group.
+     * @param priorityQueue the queue for priority tasks; shared with the priority generic threads.
+     * @return the created queues.
+     */
+    public static WorkStealingOperationQueue[] newGroup(int size, BlockingQueue<Object> priorityQueue) {
+        checkNotNull(priorityQueue, "priorityQueue can't be null");
+
+        WorkStealingOperationQueue[] group = new WorkStealingOperationQueue[size];
+        for (int k = 0; k < size; k++) {
+            group[k] = new WorkStealingOperationQueue(priorityQueue);
+        }
+        for (WorkStealingOperationQueue queue : group) {
+            queue.group = group;
+        }
+        return group;
+    }
+
+    /**
+     * Adds a task to a random queue of the group.
+     *
+     * @param group    the group of queues.
+     * @param task     the task to add.
+     * @param priority if the task has priority or not.
+     */
+    public static void addToRandomQueue(WorkStealingOperationQueue[] group, Object task, boolean priority) {
+        int index = group.length == 1 ? 0 : ThreadLocalRandom.current().nextInt(group.length);
+        group[index].add(task, priority);
+    }
+
+    @Override
+    public void add(Object task, boolean priority) {
+        checkNotNull(task, "task can't be null");
+
+        if (priority) {
+            priorityQueue.add(task);
+            normalQueue.add(TRIGGER_TASK);
+        } else {
+            normalQueue.add(task);
+            if (!idle.get()) {
+                // the owner is busy; so let an idle thread steal the task
+                wakeUpIdleThread();
+            }
+        }
+    }
+
+    private void wakeUpIdleThread() {
+        int offset = group.length == 1 ? 0 : ThreadLocalRandom.current().nextInt(group.length);
+        for (int k = 0; k < group.length; k++) {
+            WorkStealingOperationQueue queue = group[(offset + k) % group.length];
+            if (queue != this && queue.idle.compareAndSet(true, false)) {
+                queue.normalQueue.add(TRIGGER_TASK);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Object take(boolean priorityOnly) throws InterruptedException {
+        if (priorityOnly) {
+            return priorityQueue.take();
+        }
+
+        for (; ; ) {
+            Object priorityItem = priorityQueue.poll();
+            if (priorityItem != null) {
+                return priorityItem;
+            }
+
+            Object normalItem = normalQueue.pollFirst();
+            if (normalItem == null) {
+                normalItem = stealOrAwait();
+            }
+
+            if (normalItem == TRIGGER_TASK) {
+                continue;
+            }
+
+            return normalItem;
+        }
+    }
+
+    private Object stealOrAwait() throws InterruptedException {
+        idle.set(true);
+        try {
+            Object item = steal(group, this);
+            if (item != null) {
+                stealCount.inc();
+                return item;
+            }
+            return normalQueue.takeFirst();
+        } finally {
+            idle.set(false);
+        }
+    }
+
+    /**
+     * Steals a task from the tail of one of the queues in the group.
+     * <p/>
+     * This method is thread safe.
+     *
+     * @param group the group of queues to steal from.
+     * @param thief the queue of the stealing thread, which is skipped; or null if the thread has no queue in the group.
+     * @return the stolen task or null if there was nothing to steal.
+     */
+    static Object steal(WorkStealingOperationQueue[] group, WorkStealingOperationQueue thief) {
+        int offset = ThreadLocalRandom.current().nextInt(group.length);
+        for (int k = 0; k < group.length; k++) {
+            WorkStealingOperationQueue victim = group[(offset + k) % group.length];
+            if (victim == thief) {
+                continue;
+            }
+
+            Object item = victim.normalQueue.pollLast();
+            if (item == TRIGGER_TASK) {
+                // the trigger was meant to wake up the victim for a priority task; so we take care of it instead.
+                item = victim.priorityQueue.poll();
+            }
+
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Steals a {@link StealableOperation} from the tail of one of the queues in the group; either the operation itself or
+     * a packet flagged with {@link Packet#FLAG_OP_STEALABLE}. Other tasks at the tail of the queues are left in place.
+     * <p/>
+     * This method is thread safe and is meant for threads that help with the generic work, but can only execute short
+     * operations which don't invoke other operations.
+     *
+     * @param group the group of queues to steal from.
+     * @return the stolen operation or null if there was nothing to steal.
+     */
+    static Object stealStealable(WorkStealingOperationQueue[] group) {
+        int offset = ThreadLocalRandom.current().nextInt(group.length);
+        for (int k = 0; k < group.length; k++) {
+            LinkedBlockingDeque<Object> victimQueue = group[(offset + k) % group.length].normalQueue;
+            Object item = victimQueue.peekLast();
+            // the item may have been taken in the meantime; then it can't be removed anymore
+            if (isStealable(item) && victimQueue.removeLastOccurrence(item)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isStealable(Object item) {
+        if (item instanceof Packet) {
+            return ((Packet) item).isFlagSet(FLAG_OP_STEALABLE);
+        }
+        return item instanceof StealableOperation;
+    }
+
+    /**
+     * Returns the number of tasks the owning thread has stolen from other queues.
+     *
+     * @return the number of stolen tasks.
+     */
+    public long stealCount() {
+        return stealCount.get();
+    }
+
+    @Override
+    public int normalSize() {
+        return normalQueue.size();
+    }
+
+    @Override
+    public int prioritySize() {
+        return priorityQueue.size();
+    }
+
+    @Override
+    public int size() {
+        return normalQueue.size() + priorityQueue.size();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A limit on the number of concurrent invocations, that adapts itself based on the observed latency of the invocations.
+ * <p/>
+ * The latency of the completed invocations is collected in windows. At the end of every window the average latency is
+ * compared to the lowest latency seen so far, which is the latency when there is no queueing. As long as the
+ * average latency stays within a tolerance of the lowest latency, the limit grows. If the average latency goes beyond
+ * the tolerance, invocations are queueing up somewhere, and the limit shrinks in proportion. So when a member slows
+ * down, fewer invocations are sent to it and its latency doesn't collapse; when it recovers, the limit grows back.
+ * <p/>
+ * The lowest latency is forgotten once and a while, so that the limit adapts to permanent changes in the environment.
+ * <p/>
+ * Next to latency, the {@link #queueDepth()} can be used as an additional signal; if more work is queued than the
+ * current limit, the limit shrinks as well.
+ */
+class AdaptiveConcurrencyLimit {
+
+    static final long WINDOW_NANOS = MILLISECONDS.toNanos(100);
+    static final int MIN_WINDOW_SAMPLES = 10;
+
+    // the average latency may grow by 50% before the limit shrinks
+    private static final double LATENCY_TOLERANCE = 1.5;
+    // the limit never shrinks by more than half in a single window
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_LATENCY_RESET_WINDOWS = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong windowLatencyNanos = new AtomicLong();
+    private final AtomicInteger windowSamples = new AtomicInteger();
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    private volatile int limit;
+    private volatile long windowStartNanos = System.nanoTime();
+
+    // only accessed by the thread that updates the limit
+    private long minLatencyNanos;
+    private int windowsSinceMinLatencyReset;
+
+    AdaptiveConcurrencyLimit(int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        // we start with the maximum, so that nothing changes as long as latency is stable.
+        this.limit = maxLimit;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    // just for testing
+    int getWindowSamples() {
+        return windowSamples.get();
+    }
+
+    /**
+     * Tries to acquire a permit for an invocation.
+     *
+     * @return true if the permit was acquired, false if the limit has been reached.
+     */
+    boolean tryAcquire() {
+        for (; ; ) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit without taking the latency into account; either because the invocation never got executed or
+     * because its latency doesn't say anything about the load, e.g. a lock waiting to be released.
+     */
+    void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases the permit of a completed invocation.
+     *
+     * @param latencyNanos the latency of the invocation.
+     */
+    void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+
+        windowLatencyNanos.addAndGet(latencyNanos);
+        windowSamples.incrementAndGet();
+
+        long now = System.nanoTime();
+        if (now - windowStartNanos < WINDOW_NANOS) {
+            return;
+        }
+
+        if (!updating.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            // check again, another thread could just have completed the window.
+            if (now - windowStartNanos >= WINDOW_NANOS && windowSamples.get() >= MIN_WINDOW_SAMPLES) {
+                int samples = windowSamples.getAndSet(0);
+                long latencySum = windowLatencyNanos.getAndSet(0);
+                windowStartNanos = now;
+                update(latencySum / samples);
+            }
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    /**
+     * Returns the number of invocations that are waiting to be processed. Can be overridden to provide an
+     * additional overload signal next to latency.
+     *
+     * @return the queue depth.
+     */
+    int queueDepth() {
+        return 0;
+    }
+
+    // just for testing
+    void update(long avgLatencyNanos) {
+        long latencyNanos = max(1, avgLatencyNanos);
+        windowsSinceMinLatencyReset++;
+        if (minLatencyNanos == 0 || latencyNanos < minLatencyNanos
+                || windowsSinceMinLatencyReset >= MIN_LATENCY_RESET_WINDOWS) {
+            minLatencyNanos = latencyNanos;
+            windowsSinceMinLatencyReset = 0;
+        }
+
+        int current = limit;
+        double gradient = max(MIN_GRADIENT, min(1d, LATENCY_TOLERANCE * minLatencyNanos / latencyNanos));
+
+        int queueDepth = queueDepth();
+        if (queueDepth > current) {
+            gradient = max(MIN_GRADIENT, min(gradient, (double) current / queueDepth));
+        }
+
+        double newLimit;
+        if (gradient < 1d) {
+            newLimit = (1 - SMOOTHING) * current + SMOOTHING * current * gradient;
+        } else if (inFlight.get() < current / 2) {
+            // the limit isn't the bottleneck; so there is no point in growing it.
+            return;
+        } else {
+            newLimit = current + sqrt(current);
+        }
+
+        limit = (int) max(minLimit, min(maxLimit, newLimit));
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimit{"
+                + "limit=" + limit
+                + ", inFlight=" + inFlight.get()
+                + ", minLimit=" + minLimit
+                + ", maxLimit=" + maxLimit
+                + '}';
+    }
+}
@@ -16,10 +16,15 @@
 
 package com.hazelcast.spi.impl.operationservice.impl;
 
+import com.hazelcast.core.HazelcastOverloadException;
 import com.hazelcast.internal.util.ThreadLocalRandom;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.tcp.SocketWriter;
+import com.hazelcast.nio.tcp.TcpIpConnection;
 import com.hazelcast.spi.BackupAwareOperation;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
 import com.hazelcast.spi.properties.GroupProperty;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
@@ -27,7 +32,12 @@ import java.util.Random;
 
 import static com.hazelcast.nio.Bits.CACHE_LINE_LENGTH;
 import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.spi.impl.operationservice.impl.CallIdSequence.CallIdSequenceWithBackpressure.nextDelay;
+import static com.hazelcast.spi.impl.operationservice.impl.CallIdSequence.CallIdSequenceWithBackpressure.sleep;
+import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_ADAPTIVE_ENABLED;
 import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS;
+import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_CONNECTION_MAX_PENDING_BYTES;
+import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_CONNECTION_MODE;
 import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION;
 import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_SYNCWINDOW;
 import static java.lang.Math.max;
@@ -57,9 +67,21 @@ import static java.lang.Math.round;
  * overloaded.
  * </li>
  * </ol>
+ * <p/>
+ * Independently of the above, back pressure can be applied on invocations which are about to be sent over a connection
+ * that has too many bytes pending to be written; see {@link GroupProperty#BACKPRESSURE_CONNECTION_MODE}.
  */
 class BackpressureRegulator {
 
+    /**
+     * What to do with an invocation which is about to be sent over an overloaded connection.
+     */
+    enum ConnectionMode {
+        NONE,
+        PARK,
+        FAIL_FAST
+    }
+
     /**
      * The percentage above and below a certain sync-window we should randomize.
      */
@@ -75,18 +97,26 @@ class BackpressureRegulator {
 
     private final boolean enabled;
     private final boolean disabled;
+    private final boolean adaptive;
     private final int syncWindow;
     private final int partitionCount;
+    private final int maxConcurrentInvocationsPerPartition;
     private final int maxConcurrentInvocations;
     private final int backoffTimeoutMs;
+    private final ConnectionMode connectionMode;
+    private final long maxConnectionPendingBytes;
 
     BackpressureRegulator(HazelcastProperties properties, ILogger logger) {
         this.enabled = properties.getBoolean(GroupProperty.BACKPRESSURE_ENABLED);
         this.disabled = !enabled;
+        this.adaptive = properties.getBoolean(BACKPRESSURE_ADAPTIVE_ENABLED);
         this.partitionCount = properties.getInteger(GroupProperty.PARTITION_COUNT);
         this.syncWindow = getSyncWindow(properties);
-        this.maxConcurrentInvocations = getMaxConcurrentInvocations(properties);
+        this.maxConcurrentInvocationsPerPartition = getMaxConcurrentInvocationsPerPartition(properties);
+        this.maxConcurrentInvocations = (partitionCount + 1) * maxConcurrentInvocationsPerPartition;
         this.backoffTimeoutMs = getBackoffTimeoutMs(properties);
+        this.connectionMode = properties.getEnum(BACKPRESSURE_CONNECTION_MODE, ConnectionMode.class);
+        this.maxConnectionPendingBytes = getMaxConnectionPendingBytes(properties);
 
         this.syncDelays = new int[INTS_PER_CACHE_LINE * partitionCount];
         for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
@@ -96,10 +126,26 @@ class BackpressureRegulator {
         if (enabled) {
             logger.info("Backpressure is enabled"
                     + ", maxConcurrentInvocations:" + maxConcurrentInvocations
+                    + ", adaptive: " + adaptive
                     + ", syncWindow: " + syncWindow);
         } else {
             logger.info("Backpressure is disabled");
         }
+
+        if (connectionMode != ConnectionMode.NONE) {
+            logger.info("Connection backpressure is enabled"
+                    + ", mode: " + connectionMode
+                    + ", maxConnectionPendingBytes: " + maxConnectionPendingBytes);
+        }
+    }
+
+    private long getMaxConnectionPendingBytes(HazelcastProperties props) {
+        long maxPendingBytes = props.getLong(BACKPRESSURE_CONNECTION_MAX_PENDING_BYTES);
+        if (connectionMode != ConnectionMode.NONE && maxPendingBytes < 1) {
+            throw new IllegalArgumentException("Can't have '" + BACKPRESSURE_CONNECTION_MAX_PENDING_BYTES
+                    + "' with a value smaller than 1");
+        }
+        return maxPendingBytes;
     }
 
     private int getSyncWindow(HazelcastProperties props) {
@@ -119,14 +165,13 @@ class BackpressureRegulator {
         return backoffTimeoutMs;
     }
 
-    private int getMaxConcurrentInvocations(HazelcastProperties props) {
+    private int getMaxConcurrentInvocationsPerPartition(HazelcastProperties props) {
         int invocationsPerPartition = props.getInteger(BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION);
         if (invocationsPerPartition < 1) {
             throw new IllegalArgumentException("Can't have '" + BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION
                     + "' with a value smaller than 1");
         }
-
-        return (partitionCount + 1) * invocationsPerPartition;
+        return invocationsPerPartition;
     }
 
     /**
@@ -152,7 +197,10 @@ class BackpressureRegulator {
     }
 
     CallIdSequence newCallIdSequence() {
-        if (enabled) {
+        if (enabled && adaptive) {
+            return new CallIdSequence.CallIdSequenceWithAdaptiveBackpressure(
+                    maxConcurrentInvocations, maxConcurrentInvocationsPerPartition, partitionCount, backoffTimeoutMs);
+        } else if (enabled) {
             return new CallIdSequence.CallIdSequenceWithBackpressure(maxConcurrentInvocations, backoffTimeoutMs);
         } else {
             return new CallIdSequence.CallIdSequenceWithoutBackpressure();
@@ -205,6 +253,72 @@ class BackpressureRegulator {
         return false;
     }
 
+    /**
+     * Applies back pressure on an operation which is about to be sent over the given connection, if that connection has
+     * more than the configured number of bytes pending to be written.
+     * <p/>
+     * For {@link com.hazelcast.spi.UrgentSystemOperation} no back pressure is applied. A partition thread is never parked,
+     * since that would stall all partitions it owns; it fails fast instead.
+     *
+     * @param op         the operation to send.
+     * @param connection the connection to send the operation over, can be null.
+     * @throws HazelcastOverloadException if the connection is overloaded and the mode is FAIL_FAST, or if the connection
+     *                                    did not drain within the backoff timeout and the mode is PARK.
+     */
+    void checkConnection(Operation op, Connection connection) {
+        if (connectionMode == ConnectionMode.NONE || op.isUrgent() || !(connection instanceof TcpIpConnection)) {
+            return;
+        }
+
+        SocketWriter socketWriter = ((TcpIpConnection) connection).getSocketWriter();
+        if (socketWriter == null || !isOverloaded(socketWriter)) {
+            return;
+        }
+
+        if (connectionMode == ConnectionMode.FAIL_FAST || Thread.currentThread() instanceof PartitionOperationThread) {
+            throw newConnectionOverloadException(op, connection);
+        }
+
+        waitForConnection(op, connection, socketWriter);
+    }
+
+    private boolean isOverloaded(SocketWriter socketWriter) {
+        return socketWriter.bytesPending() > maxConnectionPendingBytes;
+    }
+
+    private void waitForConnection(Operation op, Connection connection, SocketWriter socketWriter) {
+        long remainingTimeoutMs = backoffTimeoutMs;
+        boolean restoreInterrupt = false;
+        try {
+            long delayMs = 1;
+            for (; ; ) {
+                long startMs = System.currentTimeMillis();
+                restoreInterrupt |= sleep(delayMs);
+                long durationMs = System.currentTimeMillis() - startMs;
+                remainingTimeoutMs -= durationMs;
+
+                if (!isOverloaded(socketWriter)) {
+                    return;
+                }
+
+                if (remainingTimeoutMs <= 0 || !connection.isAlive()) {
+                    throw newConnectionOverloadException(op, connection);
+                }
+
+                delayMs = nextDelay(remainingTimeoutMs, delayMs);
+            }
+        } finally {
+            if (restoreInterrupt) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private HazelcastOverloadException newConnectionOverloadException(Operation op, Connection connection) {
+        return new HazelcastOverloadException("Connection " + connection + " is overloaded, more than "
+                + maxConnectionPendingBytes + " bytes are pending to be written. Failed to send " + op);
+    }
+
     private int randomSyncDelay() {
         if (syncWindow == 1) {
             return 1;
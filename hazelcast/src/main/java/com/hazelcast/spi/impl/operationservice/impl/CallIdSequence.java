@@ -17,9 +17,15 @@
 package com.hazelcast.spi.impl.operationservice.impl;
 
 import com.hazelcast.core.HazelcastOverloadException;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.BlockingOperation;
+import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static com.hazelcast.nio.Bits.CACHE_LINE_LENGTH;
 import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
@@ -110,7 +116,7 @@ public abstract class CallIdSequence {
      * there are a few threads that at the same time see that the there is space and do a next. But any following
      * invocation needs to wait till there is is capacity.
      */
-    static final class CallIdSequenceWithBackpressure extends CallIdSequence {
+    static class CallIdSequenceWithBackpressure extends CallIdSequence {
         static final int MAX_DELAY_MS = 500;
         private static final int INDEX_HEAD = 7;
         private static final int INDEX_TAIL = 15;
@@ -157,7 +163,7 @@ public abstract class CallIdSequence {
             return callId;
         }
 
-        private long next() {
+        long next() {
             return longs.incrementAndGet(INDEX_HEAD);
         }
 
@@ -231,4 +237,195 @@ public abstract class CallIdSequence {
             assert newTail <= longs.get(INDEX_HEAD);
         }
     }
+
+    /**
+     * A {@link CallIdSequenceWithBackpressure} that next to the maximum number of concurrent invocations, also limits
+     * the number of concurrent invocations per member and per partition using an {@link AdaptiveConcurrencyLimit}.
+     *
+     * So when a member slows down, the latency of the invocations to that member goes up and the number of concurrent
+     * invocations to that member is reduced; without limiting the invocations to the other members. For the local member
+     * the depth of the operation queues is taken into account as well. In the same way a single hot partition is limited,
+     * without limiting the other partitions of its member.
+     *
+     * The latency of a {@link BlockingOperation}, e.g. a lock or a queue take, depends on other invocations instead of
+     * the load; so these operations do acquire a permit, but their latency isn't taken into account.
+     */
+    static final class CallIdSequenceWithAdaptiveBackpressure extends CallIdSequenceWithBackpressure {
+
+        private static final AtomicReferenceFieldUpdater<Invocation, AdaptiveConcurrencyLimit> CONCURRENCY_LIMIT
+                = AtomicReferenceFieldUpdater.newUpdater(Invocation.class, AdaptiveConcurrencyLimit.class, "concurrencyLimit");
+        private static final AtomicReferenceFieldUpdater<Invocation, AdaptiveConcurrencyLimit> PARTITION_CONCURRENCY_LIMIT
+                = AtomicReferenceFieldUpdater.newUpdater(
+                Invocation.class, AdaptiveConcurrencyLimit.class, "partitionConcurrencyLimit");
+
+        private final ConcurrentMap<Address, AdaptiveConcurrencyLimit> remoteLimits
+                = new ConcurrentHashMap<Address, AdaptiveConcurrencyLimit>();
+        private final AdaptiveConcurrencyLimit localLimit;
+        private final AdaptiveConcurrencyLimit[] partitionLimits;
+        private final int minConcurrentInvocationsPerMember;
+        private final int maxConcurrentInvocations;
+        private final long backoffTimeoutMs;
+        private volatile OperationExecutor operationExecutor;
+
+        /**
+         * @param maxConcurrentInvocations             the maximum number of concurrent invocations in total and per member.
+         * @param maxConcurrentInvocationsPerPartition the maximum number of concurrent invocations per partition; also
+         *                                             the minimum the limit of a member shrinks to.
+         * @param partitionCount                       the number of partitions.
+         * @param backoffTimeoutMs                     the maximum time to wait for a permit.
+         */
+        CallIdSequenceWithAdaptiveBackpressure(int maxConcurrentInvocations, int maxConcurrentInvocationsPerPartition,
+                                               int partitionCount, long backoffTimeoutMs) {
+            super(maxConcurrentInvocations, backoffTimeoutMs);
+            this.maxConcurrentInvocations = maxConcurrentInvocations;
+            this.minConcurrentInvocationsPerMember = maxConcurrentInvocationsPerPartition;
+            this.backoffTimeoutMs = backoffTimeoutMs;
+            this.partitionLimits = new AdaptiveConcurrencyLimit[partitionCount];
+            for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+                partitionLimits[partitionId] = new AdaptiveConcurrencyLimit(1, maxConcurrentInvocationsPerPartition);
+            }
+            this.localLimit = new AdaptiveConcurrencyLimit(minConcurrentInvocationsPerMember, maxConcurrentInvocations) {
+                @Override
+                int queueDepth() {
+                    OperationExecutor executor = operationExecutor;
+                    return executor == null ? 0 : executor.getQueueSize();
+                }
+            };
+        }
+
+        void setOperationExecutor(OperationExecutor operationExecutor) {
+            this.operationExecutor = operationExecutor;
+        }
+
+        AdaptiveConcurrencyLimit getLimit(Invocation invocation) {
+            if (!invocation.remote) {
+                return localLimit;
+            }
+
+            Address target = invocation.invTarget;
+            AdaptiveConcurrencyLimit limit = remoteLimits.get(target);
+            if (limit == null) {
+                AdaptiveConcurrencyLimit newLimit
+                        = new AdaptiveConcurrencyLimit(minConcurrentInvocationsPerMember, maxConcurrentInvocations);
+                AdaptiveConcurrencyLimit found = remoteLimits.putIfAbsent(target, newLimit);
+                limit = found == null ? newLimit : found;
+            }
+            return limit;
+        }
+
+        AdaptiveConcurrencyLimit getPartitionLimit(Invocation invocation) {
+            int partitionId = invocation.op.getPartitionId();
+            return partitionId >= 0 && partitionId < partitionLimits.length ? partitionLimits[partitionId] : null;
+        }
+
+        /**
+         * Drops the concurrency limit of a member which left the cluster. Pending invocations to that member
+         * release their permit on the limit they acquired it from, so they are not affected.
+         *
+         * @param address the address of the member that left
+         */
+        void onMemberLeft(Address address) {
+            remoteLimits.remove(address);
+        }
+
+        @Override
+        public long next(Invocation invocation) {
+            if (invocation.op.isUrgent()) {
+                return super.next(invocation);
+            }
+
+            AdaptiveConcurrencyLimit partitionLimit = getPartitionLimit(invocation);
+            if (partitionLimit != null && !partitionLimit.tryAcquire()) {
+                waitForPermit(invocation, partitionLimit);
+            }
+
+            AdaptiveConcurrencyLimit limit = getLimit(invocation);
+            long callId;
+            try {
+                callId = next(invocation, limit);
+            } catch (RuntimeException e) {
+                if (partitionLimit != null) {
+                    partitionLimit.cancel();
+                }
+                throw e;
+            }
+
+            // the limits are written last, so a completing thread that reads them also sees the registration time
+            invocation.registeredNanos = System.nanoTime();
+            invocation.partitionConcurrencyLimit = partitionLimit;
+            invocation.concurrencyLimit = limit;
+            return callId;
+        }
+
+        private long next(Invocation invocation, AdaptiveConcurrencyLimit limit) {
+            if (!limit.tryAcquire()) {
+                waitForPermit(invocation, limit);
+            }
+
+            try {
+                return super.next(invocation);
+            } catch (RuntimeException e) {
+                limit.cancel();
+                throw e;
+            }
+        }
+
+        private void waitForPermit(Invocation invocation, AdaptiveConcurrencyLimit limit) {
+            long remainingTimeoutMs = backoffTimeoutMs;
+            boolean restoreInterrupt = false;
+            try {
+                long delayMs = 1;
+                for (; ; ) {
+                    long startMs = System.currentTimeMillis();
+                    restoreInterrupt |= sleep(delayMs);
+                    long durationMs = System.currentTimeMillis() - startMs;
+                    remainingTimeoutMs -= durationMs;
+
+                    if (limit.tryAcquire()) {
+                        return;
+                    }
+
+                    if (remainingTimeoutMs <= 0) {
+                        throw new HazelcastOverloadException("Failed to get a callId for invocation: " + invocation
+                                + ", the member is overloaded: " + limit);
+                    }
+
+                    delayMs = nextDelay(remainingTimeoutMs, delayMs);
+                }
+            } finally {
+                if (restoreInterrupt) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void complete(Invocation invocation) {
+            if (invocation.op.getCallId() == 0) {
+                return;
+            }
+
+            super.complete(invocation);
+
+            // getAndSet, so a permit is never released twice
+            AdaptiveConcurrencyLimit limit = CONCURRENCY_LIMIT.getAndSet(invocation, null);
+            AdaptiveConcurrencyLimit partitionLimit = PARTITION_CONCURRENCY_LIMIT.getAndSet(invocation, null);
+            boolean sampleLatency = !(invocation.op instanceof BlockingOperation);
+            long latencyNanos = System.nanoTime() - invocation.registeredNanos;
+            release(limit, sampleLatency, latencyNanos);
+            release(partitionLimit, sampleLatency, latencyNanos);
+        }
+
+        private static void release(AdaptiveConcurrencyLimit limit, boolean sampleLatency, long latencyNanos) {
+            if (limit == null) {
+                return;
+            }
+
+            if (sampleLatency) {
+                limit.release(latencyNanos);
+            } else {
+                limit.cancel();
+            }
+        }
+    }
 }
@@ -18,6 +18,7 @@ package com.hazelcast.spi.impl.operationservice.impl;
 
 import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.core.HazelcastOverloadException;
 import com.hazelcast.instance.MemberImpl;
 import com.hazelcast.instance.Node;
 import com.hazelcast.instance.NodeState;
@@ -159,6 +160,12 @@ public abstract class Invocation implements OperationResponseHandler {
     Address invTarget;
     MemberImpl targetMember;
 
+    // only used when adaptive back pressure is enabled; see CallIdSequence.CallIdSequenceWithAdaptiveBackpressure.
+    // volatile since the invocation is normally completed by another thread than the one that registered it.
+    volatile AdaptiveConcurrencyLimit concurrencyLimit;
+    volatile AdaptiveConcurrencyLimit partitionConcurrencyLimit;
+    volatile long registeredNanos;
+
     // writes to that are normally handled through the INVOKE_COUNT to ensure atomic increments / decrements
     volatile int invokeCount;
 
@@ -285,10 +292,44 @@ public abstract class Invocation implements OperationResponseHandler {
     }
 
     private void doInvokeRemote() {
-        if (!context.operationService.send(op, invTarget)) {
+        Connection connection = context.connectionManager.getConnection(invTarget);
+        try {
+            context.operationService.backpressureRegulator.checkConnection(op, connection);
+        } catch (HazelcastOverloadException e) {
             context.invocationRegistry.deregister(this);
-            notifyError(new RetryableIOException("Packet not send to -> " + invTarget));
+            notifyError(e);
+            return;
         }
+
+        OperationBatcher operationBatcher = context.operationService.operationBatcher;
+        if (operationBatcher != null && OperationBatcher.isBatchable(op)) {
+            operationBatcher.send(this, invTarget);
+            return;
+        }
+
+        if (!context.operationService.sendInvocation(op, invTarget)) {
+            notifySendFailure(invTarget);
+        }
+    }
+
+    /**
+     * Called when the operation of this invocation could not be send to the target.
+     *
+     * @param target the target the operation was send to.
+     */
+    void notifySendFailure(Address target) {
+        context.invocationRegistry.deregister(this);
+        notifyError(new RetryableIOException("Packet not send to -> " + target));
+    }
+
+    /**
+     * Called when the operation of this invocation failed to be send, e.g. because it could not be serialized.
+     *
+     * @param cause the cause of the failure.
+     */
+    void notifySendError(Throwable cause) {
+        context.invocationRegistry.deregister(this);
+        notifyError(cause);
     }
 
     private boolean engineActive() {
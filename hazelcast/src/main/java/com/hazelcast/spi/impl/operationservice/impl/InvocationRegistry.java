@@ -22,12 +22,12 @@ import com.hazelcast.internal.metrics.MetricsProvider;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.util.collection.StripedLong2ObjectHashMap;
 
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.spi.OperationAccessor.setCallId;
@@ -40,6 +40,10 @@ import static com.hazelcast.spi.OperationAccessor.setCallId;
  * {@link com.hazelcast.spi.impl.operationservice.impl.responses.Response} comes in, the
  * appropriate invocation can be looked up.
  * <p/>
+ * The invocations are stored in a {@link StripedLong2ObjectHashMap}; so registering and looking up an invocation
+ * doesn't box the call-id or allocate a map entry, and since call-ids are sequential, concurrent registrations are
+ * spread over the stripes.
+ * <p/>
  * Some idea's:
  * - use an ringbuffer to store all invocations instead of a CHM. The call-id can be used as sequence-id for this
  * ringbuffer. It can be that you run in slots that have not been released; if that happens, just keep increasing
@@ -50,11 +54,9 @@ import static com.hazelcast.spi.OperationAccessor.setCallId;
 public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider {
 
     private static final int INITIAL_CAPACITY = 1000;
-    private static final float LOAD_FACTOR = 0.75f;
     private static final double HUNDRED_PERCENT = 100d;
 
-    @Probe(name = "invocations.pending", level = MANDATORY)
-    private final ConcurrentMap<Long, Invocation> invocations;
+    private final StripedLong2ObjectHashMap<Invocation> invocations;
     private final ILogger logger;
     private final CallIdSequence callIdSequence;
 
@@ -63,7 +65,7 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
     public InvocationRegistry(ILogger logger, CallIdSequence callIdSequence, int concurrencyLevel) {
         this.logger = logger;
         this.callIdSequence = callIdSequence;
-        this.invocations = new ConcurrentHashMap<Long, Invocation>(INITIAL_CAPACITY, LOAD_FACTOR, concurrencyLevel);
+        this.invocations = new StripedLong2ObjectHashMap<Invocation>(concurrencyLevel, INITIAL_CAPACITY);
     }
 
     @Override
@@ -71,6 +73,11 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         registry.scanAndRegister(this, "operation");
     }
 
+    @Probe(name = "invocations.pending", level = MANDATORY)
+    private int pendingInvocations() {
+        return invocations.size();
+    }
+
     @Probe(name = "invocations.usedPercentage")
     private double invocationsUsedPercentage() {
         int maxConcurrentInvocations = callIdSequence.getMaxConcurrentInvocations();
@@ -146,7 +153,8 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
     }
 
     /**
-     * Intention to expose the entry set is to mutate it.
+     * Intention to expose the entry set is to mutate it. The returned set is a snapshot; removing an entry through its
+     * iterator removes the invocation from this registry.
      *
      * @return set of invocations in this registry
      */
@@ -164,6 +172,17 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         return invocations.get(callId);
     }
 
+    /**
+     * Releases the per member state kept for invocations to the given member once it left the cluster.
+     *
+     * @param address the address of the member that left
+     */
+    void onMemberLeft(Address address) {
+        if (callIdSequence instanceof CallIdSequence.CallIdSequenceWithAdaptiveBackpressure) {
+            ((CallIdSequence.CallIdSequenceWithAdaptiveBackpressure) callIdSequence).onMemberLeft(address);
+        }
+    }
+
     public void reset() {
         for (Invocation invocation : this) {
             try {
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.OperationBatch;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.inspectOutOfMemoryError;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Batches remote invocations for the same partition, so that multiple operations are send to the partition owner in a
+ * single {@link OperationBatch} packet.
+ * <p/>
+ * The batching is natural: there is no timer and an invocation is never delayed to wait for other invocations. For every
+ * partition there is a stack of pending invocations and a flushing flag. The thread that pushes an invocation and
+ * manages to set the flag, sends all pending invocations of the partition, including the ones pushed by other threads
+ * while it is sending. A thread that can't set the flag returns immediately since its invocation will be send by the
+ * flushing thread. So when there is no contention, every invocation is send on its own as before; and the more
+ * concurrent invocations for a partition, the bigger the batches get, up to the configured maximum size.
+ * <p/>
+ * The flushing thread drains the stack only once per acquisition of the flag and then releases it, so that a thread
+ * pushing afterwards can take over; it only drains again if nobody else picked up the remaining invocations.
+ * <p/>
+ * Invocations for a partition are send in the order they were pushed. If an operation fails to serialize or to be
+ * send, only its own invocation is notified; the failure never propagates to the thread that happened to be flushing.
+ */
+final class OperationBatcher {
+
+    @Probe(name = "batchCount")
+    final MwCounter batchCount = newMwCounter();
+
+    @Probe(name = "batchedOperationCount")
+    final MwCounter batchedOperationCount = newMwCounter();
+
+    private final OperationServiceImpl operationService;
+    private final int maxBatchSize;
+    private final AtomicReferenceArray<Node> pending;
+    private final AtomicIntegerArray flushing;
+
+    OperationBatcher(OperationServiceImpl operationService, int partitionCount, int maxBatchSize) {
+        this.operationService = operationService;
+        this.maxBatchSize = maxBatchSize;
+        this.pending = new AtomicReferenceArray<Node>(partitionCount);
+        this.flushing = new AtomicIntegerArray(partitionCount);
+    }
+
+    /**
+     * Checks if the operation can be send as part of a batch. Only normal, partition specific operations are batched.
+     *
+     * @param op the operation to check.
+     * @return true if the operation can be batched.
+     */
+    static boolean isBatchable(Operation op) {
+        return op.getPartitionId() >= 0
+                && !op.isUrgent()
+                && !(op instanceof Backup)
+                && !(op instanceof OperationBatch);
+    }
+
+    /**
+     * Sends the operation of the invocation to the given target; either directly or as part of a batch.
+     *
+     * @param invocation the invocation to send the operation for.
+     * @param target     the target to send the operation to.
+     */
+    void send(Invocation invocation, Address target) {
+        int partitionId = invocation.op.getPartitionId();
+        push(partitionId, invocation, target);
+
+        for (; ; ) {
+            if (!flushing.compareAndSet(partitionId, 0, 1)) {
+                // another thread is flushing; it will also send our invocation.
+                return;
+            }
+
+            try {
+                Node head = pending.getAndSet(partitionId, null);
+                if (head != null) {
+                    sendAll(partitionId, reverse(head));
+                }
+            } finally {
+                flushing.set(partitionId, 0);
+            }
+
+            if (pending.get(partitionId) == null) {
+                return;
+            }
+            // invocations were pushed during the drain; their threads returned because we held the flag, so we try to
+            // send them unless a thread that pushed after the flag was reset has taken over in the meantime.
+        }
+    }
+
+    private void push(int partitionId, Invocation invocation, Address target) {
+        Node node = new Node(invocation, target);
+        for (; ; ) {
+            Node head = pending.get(partitionId);
+            node.next = head;
+            if (pending.compareAndSet(partitionId, head, node)) {
+                return;
+            }
+        }
+    }
+
+    private static Node reverse(Node head) {
+        Node reversed = null;
+        Node node = head;
+        while (node != null) {
+            Node next = node.next;
+            node.next = reversed;
+            reversed = node;
+            node = next;
+        }
+        return reversed;
+    }
+
+    private void sendAll(int partitionId, Node first) {
+        Node node = first;
+        while (node != null) {
+            // collect the next run of invocations with the same target
+            Address target = node.target;
+            int size = 1;
+            Node last = node;
+            while (last.next != null && size < maxBatchSize && last.next.target.equals(target)) {
+                last = last.next;
+                size++;
+            }
+            Node next = last.next;
+
+            if (size == 1) {
+                sendSingle(node.invocation, target);
+            } else {
+                sendBatch(partitionId, node, size, target);
+            }
+            node = next;
+        }
+    }
+
+    private void sendSingle(Invocation invocation, Address target) {
+        boolean send;
+        try {
+            send = operationService.sendInvocation(invocation.op, target);
+        } catch (Throwable t) {
+            inspectOutOfMemoryError(t);
+            invocation.notifySendError(t);
+            return;
+        }
+
+        if (!send) {
+            invocation.notifySendFailure(target);
+        }
+    }
+
+    private void sendBatch(int partitionId, Node first, int size, Address target) {
+        Data[] operations = new Data[size];
+        Invocation[] invocations = new Invocation[size];
+        int count = 0;
+        Node node = first;
+        for (int k = 0; k < size; k++) {
+            Invocation invocation = node.invocation;
+            node = node.next;
+            try {
+                operations[count] = operationService.nodeEngine.toData(invocation.op);
+            } catch (Throwable t) {
+                // only this invocation fails; the others in the batch are still send
+                inspectOutOfMemoryError(t);
+                invocation.notifySendError(t);
+                continue;
+            }
+            invocations[count] = invocation;
+            count++;
+        }
+
+        if (count == 0) {
+            return;
+        }
+        if (count < size) {
+            Data[] serialized = new Data[count];
+            System.arraycopy(operations, 0, serialized, 0, count);
+            operations = serialized;
+        }
+
+        batchCount.inc();
+        batchedOperationCount.inc(count);
+
+        boolean send;
+        try {
+            send = operationService.sendInvocation(new OperationBatch(operations, partitionId), target);
+        } catch (Throwable t) {
+            inspectOutOfMemoryError(t);
+            for (int k = 0; k < count; k++) {
+                invocations[k].notifySendError(t);
+            }
+            return;
+        }
+
+        if (!send) {
+            for (int k = 0; k < count; k++) {
+                invocations[k].notifySendFailure(target);
+            }
+        }
+    }
+
+    private static final class Node {
+        private final Invocation invocation;
+        private final Address target;
+        private Node next;
+
+        Node(Invocation invocation, Address target) {
+            this.invocation = invocation;
+            this.target = target;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.Connection;
 import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.quorum.impl.QuorumServiceImpl;
 import com.hazelcast.spi.BlockingOperation;
 import com.hazelcast.spi.Notifier;
@@ -46,9 +47,12 @@ import com.hazelcast.spi.exception.RetryableException;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
 import com.hazelcast.spi.exception.WrongTargetException;
 import com.hazelcast.spi.impl.AllowedDuringPassiveState;
+import com.hazelcast.spi.impl.LongRunningOperation;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
+import com.hazelcast.spi.impl.operationexecutor.impl.OperationThread;
 import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.OperationBatch;
 import com.hazelcast.spi.impl.operationservice.impl.responses.CallTimeoutResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.NormalResponse;
@@ -60,13 +64,16 @@ import java.util.logging.Level;
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static com.hazelcast.nio.IOUtil.extractOperationCallId;
+import static com.hazelcast.spi.OperationAccessor.getEnqueueNanos;
 import static com.hazelcast.spi.OperationAccessor.setCallerAddress;
 import static com.hazelcast.spi.OperationAccessor.setConnection;
+import static com.hazelcast.spi.OperationAccessor.setEnqueueNanos;
 import static com.hazelcast.spi.impl.OperationResponseHandlerFactory.createEmptyResponseHandler;
 import static com.hazelcast.spi.impl.operationutil.Operations.isJoinOperation;
 import static com.hazelcast.spi.impl.operationutil.Operations.isMigrationOperation;
 import static com.hazelcast.spi.impl.operationutil.Operations.isWanReplicationOperation;
 import static com.hazelcast.spi.properties.GroupProperty.DISABLE_STALE_READ_ON_PARTITION_MIGRATION;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.logging.Level.FINEST;
 import static java.util.logging.Level.SEVERE;
 import static java.util.logging.Level.WARNING;
@@ -162,6 +169,8 @@ class OperationRunnerImpl extends OperationRunner implements MetricsProvider {
         }
 
         try {
+            recordWaitTime(op);
+
             checkNodeState(op);
 
             if (timeout(op)) {
@@ -239,6 +248,26 @@ class OperationRunnerImpl extends OperationRunner implements MetricsProvider {
         return false;
     }
 
+    private static void recordWaitTime(Operation op) {
+        // not queued, e.g. run on the calling thread
+        long enqueueNanos = getEnqueueNanos(op);
+        if (enqueueNanos == 0) {
+            return;
+        }
+
+        Thread currentThread = Thread.currentThread();
+        if (!(currentThread instanceof OperationThread)) {
+            return;
+        }
+
+        ((OperationThread) currentThread).recordWaitTime(op, NANOSECONDS.toMillis(System.nanoTime() - enqueueNanos));
+    }
+
+    private static boolean defer(Operation op) {
+        Thread currentThread = Thread.currentThread();
+        return currentThread instanceof OperationThread && ((OperationThread) currentThread).defer(op);
+    }
+
     private boolean timeout(Operation op) {
         if (!operationService.isCallTimedOut(op)) {
             return false;
@@ -372,26 +401,37 @@ class OperationRunnerImpl extends OperationRunner implements MetricsProvider {
 
         Connection connection = packet.getConn();
         Address caller = connection.getEndPoint();
+        Operation op = null;
         try {
-            Object object = nodeEngine.toObject(packet);
-            Operation op = (Operation) object;
-            op.setNodeEngine(nodeEngine);
-            setCallerAddress(op, caller);
-            setConnection(op, connection);
-            setCallerUuidIfNotSet(caller, op);
-            setOperationResponseHandler(op);
-
-            if (!ensureValidMember(op)) {
+            op = (Operation) nodeEngine.toObject(packet);
+            // the operation doesn't retain the payload, so it can be reused for another packet.
+            packet.releasePayload();
+
+            if (op instanceof OperationBatch) {
+                if (publishCurrentTask) {
+                    currentTask = null;
+                }
+                runBatch((OperationBatch) op, connection, caller, packet.getEnqueueNanos());
+                return;
+            }
+
+            setEnqueueNanos(op, packet.getEnqueueNanos());
+
+            if (!prepare(op, connection, caller)) {
                 return;
             }
 
             if (publishCurrentTask) {
                 currentTask = null;
             }
+
+            if (op instanceof LongRunningOperation && defer(op)) {
+                return;
+            }
             run(op);
         } catch (Throwable throwable) {
-            // If exception happens we need to extract the callId from the bytes directly!
-            long callId = extractOperationCallId(packet, node.getSerializationService());
+            // If exception happens during deserialization we need to extract the callId from the bytes directly!
+            long callId = op != null ? op.getCallId() : extractOperationCallId(packet, node.getSerializationService());
             operationService.send(new ErrorResponse(throwable, callId, packet.isUrgent()), caller);
             logOperationDeserializationException(throwable, callId);
             throw ExceptionUtil.rethrow(throwable);
@@ -402,6 +442,49 @@ class OperationRunnerImpl extends OperationRunner implements MetricsProvider {
         }
     }
 
+    /**
+     * Runs each operation of the batch as if it was send in its own packet. A failing operation, including one that
+     * fails to deserialize, doesn't prevent the other operations from running; its error is send to its own invocation.
+     */
+    private void runBatch(OperationBatch batch, Connection connection, Address caller, long enqueueNanos) {
+        for (Data data : batch.getOperations()) {
+            Operation op = null;
+            try {
+                op = (Operation) nodeEngine.toObject(data);
+                setEnqueueNanos(op, enqueueNanos);
+                if (prepare(op, connection, caller)) {
+                    run(op);
+                }
+            } catch (Throwable throwable) {
+                sendBatchedOperationError(throwable, op, data, caller);
+            }
+        }
+    }
+
+    private void sendBatchedOperationError(Throwable throwable, Operation op, Data data, Address caller) {
+        long callId;
+        try {
+            callId = op != null ? op.getCallId() : extractOperationCallId(data, node.getSerializationService());
+        } catch (Throwable t) {
+            logger.warning("Failed to extract the call id of a batched operation", t);
+            callId = 0;
+        }
+        if (callId != 0) {
+            // urgent operations are never batched
+            operationService.send(new ErrorResponse(throwable, callId, false), caller);
+        }
+        logOperationDeserializationException(throwable, callId);
+    }
+
+    private boolean prepare(Operation op, Connection connection, Address caller) {
+        op.setNodeEngine(nodeEngine);
+        setCallerAddress(op, caller);
+        setConnection(op, connection);
+        setCallerUuidIfNotSet(caller, op);
+        setOperationResponseHandler(op);
+        return ensureValidMember(op);
+    }
+
     private void setOperationResponseHandler(Operation op) {
         OperationResponseHandler handler = remoteResponseHandler;
         if (op.getCallId() == 0) {
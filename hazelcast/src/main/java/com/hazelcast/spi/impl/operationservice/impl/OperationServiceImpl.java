@@ -44,11 +44,13 @@ import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.PacketHandler;
 import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.StealableOperation;
 import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
 import com.hazelcast.spi.impl.operationexecutor.impl.OperationExecutorImpl;
 import com.hazelcast.spi.impl.operationexecutor.slowoperationdetector.SlowOperationDetector;
 import com.hazelcast.spi.impl.operationservice.InternalOperationService;
 import com.hazelcast.spi.impl.operationservice.impl.responses.Response;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.util.EmptyStatement;
 import com.hazelcast.util.executor.ExecutorType;
 import com.hazelcast.util.executor.ManagedExecutorService;
@@ -65,6 +67,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.nio.Packet.FLAG_OP;
+import static com.hazelcast.nio.Packet.FLAG_OP_STEALABLE;
 import static com.hazelcast.nio.Packet.FLAG_RESPONSE;
 import static com.hazelcast.nio.Packet.FLAG_URGENT;
 import static com.hazelcast.spi.InvocationBuilder.DEFAULT_CALL_TIMEOUT;
@@ -73,7 +76,10 @@ import static com.hazelcast.spi.InvocationBuilder.DEFAULT_REPLICA_INDEX;
 import static com.hazelcast.spi.InvocationBuilder.DEFAULT_TRY_COUNT;
 import static com.hazelcast.spi.InvocationBuilder.DEFAULT_TRY_PAUSE_MILLIS;
 import static com.hazelcast.spi.impl.operationutil.Operations.isJoinOperation;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BATCHING_ENABLED;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BATCHING_MAX_SIZE;
 import static com.hazelcast.spi.properties.GroupProperty.OPERATION_CALL_TIMEOUT_MILLIS;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_COUNT;
 import static com.hazelcast.util.CollectionUtil.toIntegerList;
 import static com.hazelcast.util.Preconditions.checkNotNegative;
 import static com.hazelcast.util.Preconditions.checkNotNull;
@@ -130,6 +136,8 @@ public final class OperationServiceImpl implements InternalOperationService, Met
     final ILogger logger;
     final OperationBackupHandler backupHandler;
     final BackpressureRegulator backpressureRegulator;
+    // null if operation batching is disabled
+    final OperationBatcher operationBatcher;
     volatile Invocation.Context invocationContext;
 
     private final InvocationMonitor invocationMonitor;
@@ -159,9 +167,9 @@ public final class OperationServiceImpl implements InternalOperationService, Met
         boolean reallyMultiCore = coreSize >= CORE_SIZE_CHECK;
         int concurrencyLevel = reallyMultiCore ? coreSize * CORE_SIZE_FACTOR : CONCURRENCY_LEVEL;
 
+        CallIdSequence callIdSequence = backpressureRegulator.newCallIdSequence();
         this.invocationRegistry = new InvocationRegistry(
-                node.getLogger(OperationServiceImpl.class),
-                backpressureRegulator.newCallIdSequence(), concurrencyLevel);
+                node.getLogger(OperationServiceImpl.class), callIdSequence, concurrencyLevel);
 
         this.invocationMonitor = new InvocationMonitor(
                 nodeEngine, thisAddress, node.getHazelcastThreadGroup(), node.getProperties(), invocationRegistry,
@@ -169,6 +177,12 @@ public final class OperationServiceImpl implements InternalOperationService, Met
 
         this.backupHandler = new OperationBackupHandler(this);
 
+        HazelcastProperties properties = node.getProperties();
+        this.operationBatcher = properties.getBoolean(OPERATION_BATCHING_ENABLED)
+                ? new OperationBatcher(this, properties.getInteger(PARTITION_COUNT),
+                properties.getInteger(OPERATION_BATCHING_MAX_SIZE))
+                : null;
+
         this.responseHandler = new ResponseHandler(
                 node.getLogger(ResponseHandler.class), node.getSerializationService(), invocationRegistry, nodeEngine);
         this.asyncResponseHandler = new AsyncResponseHandler(
@@ -179,6 +193,10 @@ public final class OperationServiceImpl implements InternalOperationService, Met
                 node.getProperties(), node.loggingService, thisAddress, new OperationRunnerFactoryImpl(this),
                 node.getHazelcastThreadGroup(), node.getNodeExtension());
 
+        if (callIdSequence instanceof CallIdSequence.CallIdSequenceWithAdaptiveBackpressure) {
+            ((CallIdSequence.CallIdSequenceWithAdaptiveBackpressure) callIdSequence).setOperationExecutor(operationExecutor);
+        }
+
         this.slowOperationDetector = new SlowOperationDetector(node.loggingService,
                 operationExecutor.getGenericOperationRunners(), operationExecutor.getPartitionOperationRunners(),
                 node.getProperties(), node.getHazelcastThreadGroup());
@@ -402,6 +420,20 @@ public final class OperationServiceImpl implements InternalOperationService, Met
 
     @Override
     public boolean send(Operation op, Address target) {
+        return send(op, target, false);
+    }
+
+    /**
+     * Sends the operation of a new invocation. Unlike {@link #send(Operation, Address)}, the packet is rejected when the
+     * write queue of the connection is full, see {@link Packet#setBounded()}.
+     *
+     * @return true if the operation was send, false otherwise.
+     */
+    boolean sendInvocation(Operation op, Address target) {
+        return send(op, target, true);
+    }
+
+    private boolean send(Operation op, Address target, boolean bounded) {
         checkNotNull(target, "Target is required!");
 
         if (thisAddress.equals(target)) {
@@ -416,6 +448,12 @@ public final class OperationServiceImpl implements InternalOperationService, Met
         if (op.isUrgent()) {
             packet.setFlag(FLAG_URGENT);
         }
+        if (op instanceof StealableOperation) {
+            packet.setFlag(FLAG_OP_STEALABLE);
+        }
+        if (bounded) {
+            packet.setBounded();
+        }
 
         ConnectionManager connectionManager = node.getConnectionManager();
         Connection connection = connectionManager.getOrConnect(target);
@@ -444,6 +482,7 @@ public final class OperationServiceImpl implements InternalOperationService, Met
 
     public void onMemberLeft(MemberImpl member) {
         invocationMonitor.onMemberLeft(member);
+        invocationRegistry.onMemberLeft(member.getAddress());
     }
 
     public void reset() {
@@ -453,6 +492,9 @@ public final class OperationServiceImpl implements InternalOperationService, Met
     @Override
     public void provideMetrics(MetricsRegistry registry) {
         registry.scanAndRegister(this, "operation");
+        if (operationBatcher != null) {
+            registry.scanAndRegister(operationBatcher, "operation");
+        }
         registry.collectMetrics(invocationRegistry, invocationMonitor, responseHandler, asyncResponseHandler,
                 operationExecutor);
     }
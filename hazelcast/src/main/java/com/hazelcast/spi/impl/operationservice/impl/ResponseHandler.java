@@ -77,6 +77,7 @@ public final class ResponseHandler implements PacketHandler, MetricsProvider {
     @Override
     public void handle(Packet packet) throws Exception {
         Response response = serializationService.toObject(packet);
+        packet.releasePayload();
         Address sender = packet.getConn().getEndPoint();
         try {
             if (response instanceof NormalResponse) {
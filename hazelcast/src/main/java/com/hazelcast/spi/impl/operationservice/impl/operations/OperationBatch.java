@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl.operations;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+
+/**
+ * Carries multiple operations for the same partition to a remote member in a single packet.
+ * <p/>
+ * The OperationBatch is only an envelope; it isn't executed itself. The receiving member unpacks it on the partition
+ * thread and runs each of the operations as if it was send on its own. So each operation keeps its own call id and
+ * sends its own response to its invocation.
+ * <p/>
+ * The operations are carried in serialized form and are only deserialized when they are run, so an operation which
+ * fails to deserialize only fails its own invocation.
+ *
+ * @see com.hazelcast.spi.impl.operationservice.impl.OperationRunnerImpl
+ */
+public final class OperationBatch extends Operation implements IdentifiedDataSerializable {
+
+    private Data[] operations;
+
+    public OperationBatch() {
+    }
+
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public OperationBatch(Data[] operations, int partitionId) {
+        this.operations = operations;
+        setPartitionId(partitionId);
+    }
+
+    /**
+     * Returns the serialized operations of this batch.
+     *
+     * @return the serialized operations.
+     */
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public Data[] getOperations() {
+        return operations;
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public void run() throws Exception {
+        throw new UnsupportedOperationException("An OperationBatch should be unpacked, not run");
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SpiDataSerializerHook.OPERATION_BATCH;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(operations.length);
+        for (Data operation : operations) {
+            out.writeData(operation);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        int length = in.readInt();
+        operations = new Data[length];
+        for (int k = 0; k < length; k++) {
+            operations[k] = in.readData();
+        }
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+
+        sb.append(", operationCount=").append(operations == null ? 0 : operations.length);
+    }
+}
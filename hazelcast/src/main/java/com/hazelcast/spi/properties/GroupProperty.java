@@ -90,6 +90,55 @@ public final class GroupProperty {
     public static final HazelcastProperty PRIORITY_GENERIC_OPERATION_THREAD_COUNT
             = new HazelcastProperty("hazelcast.operation.priority.generic.thread.count", 1);
 
+    /**
+     * Enables work stealing for the generic operation threads.
+     * <p/>
+     * By default all generic operation threads take their operations from a single shared queue, which can become a point
+     * of contention under bursts of generic operations like queries. If enabled, each generic operation thread gets its
+     * own queue and idle generic operation threads steal operations from the queues of the other generic operation
+     * threads. The priority generic operation threads are not affected.
+     */
+    public static final HazelcastProperty GENERIC_OPERATION_THREAD_WORK_STEALING
+            = new HazelcastProperty("hazelcast.operation.generic.workstealing.enabled", false);
+
+    /**
+     * Lets idle partition operation threads help with executing generic operations. Only has effect if
+     * {@link #GENERIC_OPERATION_THREAD_WORK_STEALING} is enabled.
+     * <p/>
+     * A partition operation thread only helps when it has no partition operations pending; but while it is executing a
+     * generic operation, newly arriving partition operations are delayed. Therefore it only takes the generic operations
+     * which are marked as {@link com.hazelcast.spi.impl.StealableOperation}; long running operations like queries and
+     * operations which invoke other operations are always executed by the generic operation threads.
+     */
+    public static final HazelcastProperty PARTITION_OPERATION_THREAD_HELP_GENERIC
+            = new HazelcastProperty("hazelcast.operation.partition.thread.help.generic", false);
+
+    /**
+     * The maximum time in milliseconds a partition operation thread defers the execution of a
+     * {@link com.hazelcast.spi.impl.LongRunningOperation}, like a partition scan of a query, in favor of the
+     * operations that are queued behind it. A deferred operation is executed as soon as there are no other operations
+     * pending, or when this time has passed.
+     * <p/>
+     * This prevents short key based operations from waiting behind a long running operation; at the expense of the
+     * long running operation. The default is 0, which means that operations are always executed in order.
+     */
+    public static final HazelcastProperty OPERATION_LONG_RUNNING_MAX_DEFER_MILLIS
+            = new HazelcastProperty("hazelcast.operation.longrunning.max.defer.millis", 0, MILLISECONDS);
+
+    /**
+     * Enables batching of remote partition operations. If enabled, concurrent invocations for the same partition are send
+     * to the partition owner as a single packet, which reduces the number of packets and system calls under load. There is
+     * no delay involved; an invocation is never held back to wait for other invocations.
+     */
+    public static final HazelcastProperty OPERATION_BATCHING_ENABLED
+            = new HazelcastProperty("hazelcast.operation.batching.enabled", false);
+
+    /**
+     * The maximum number of operations in a single batch. Only has effect if {@link #OPERATION_BATCHING_ENABLED} is enabled.
+     */
+    public static final HazelcastProperty OPERATION_BATCHING_MAX_SIZE
+            = new HazelcastProperty("hazelcast.operation.batching.max.size", 16);
+
     /**
      * The number of threads that the client engine has available for processing requests that are not partition specific.
      * Most of the requests, such as map.put and map.get, are partition specific and will use a partition-operation-thread, but
@@ -138,6 +187,24 @@ public final class GroupProperty {
     public static final HazelcastProperty IO_OUTPUT_THREAD_COUNT
             = new HazelcastProperty("hazelcast.io.output.thread.count", IO_THREAD_COUNT);
 
+    /**
+     * The IOThreadingModel to use for member connections. Can be 'nonblocking', 'spinning', 'epoll' or the fully qualified
+     * class name of a custom {@link com.hazelcast.nio.tcp.IOThreadingModel}, e.g. one that relies on a native event loop.
+     * <p/>
+     * 'epoll' selects the {@link com.hazelcast.nio.tcp.epoll.EpollIOThreadingModel}, which needs Linux and the hazelcast-epoll
+     * library on the {@code java.library.path}.
+     * <p/>
+     * A custom IOThreadingModel needs a public constructor with the parameters ({@link com.hazelcast.nio.IOService},
+     * {@link com.hazelcast.logging.LoggingService}, {@link com.hazelcast.internal.metrics.MetricsRegistry},
+     * {@link com.hazelcast.instance.HazelcastThreadGroup}). If the class is not found or has no such constructor, the member
+     * fails to start. If the constructor fails, e.g. because the native library isn't available on this platform, the
+     * member falls back to the non blocking IOThreadingModel.
+     * <p/>
+     * The default is 'nonblocking'.
+     */
+    public static final HazelcastProperty IO_THREADING_MODEL
+            = new HazelcastProperty("hazelcast.io.threading.model", "nonblocking");
+
     /**
      * The interval in seconds between {@link com.hazelcast.nio.tcp.nonblocking.iobalancer.IOBalancer IOBalancer}
      * executions. The shorter intervals will catch I/O Imbalance faster, but they will cause higher overhead.
@@ -150,6 +217,97 @@ public final class GroupProperty {
     public static final HazelcastProperty IO_BALANCER_INTERVAL_SECONDS
             = new HazelcastProperty("hazelcast.io.balancer.interval.seconds", 20, SECONDS);
 
+    /**
+     * The maximum number of normal priority frames which can be pending to be written on a single connection before the
+     * operations of new invocations are rejected. Urgent frames are not bound by this capacity; responses and backups are
+     * counted, but never rejected since the other side can't recover from losing them.
+     * <p/>
+     * The write queues are only bound when {@link #BACKPRESSURE_CONNECTION_MODE} is not NONE; otherwise they are unbound.
+     * A rejected invocation fails with a retryable exception, the writing thread never waits for space.
+     * <p/>
+     * The default is 8192.
+     */
+    public static final HazelcastProperty IO_WRITE_QUEUE_CAPACITY
+            = new HazelcastProperty("hazelcast.io.write.queue.capacity", 8192);
+
+    /**
+     * The minimum size in bytes of a packet to write it to the socket using a gathering write, so its payload is written
+     * straight from its byte-array instead of being copied into the output buffer first.
+     * <p/>
+     * The default is 8192.
+     */
+    public static final HazelcastProperty IO_WRITE_GATHERING_THRESHOLD
+            = new HazelcastProperty("hazelcast.io.write.gathering.threshold", 8192);
+
+    /**
+     * Enables write through: a thread that writes a packet to a connection that has no pending writes, writes it to the
+     * socket itself instead of handing it over to an output thread. This saves a thread handoff and a selector wakeup,
+     * but makes the writing thread, e.g. a partition thread, do the socket write.
+     * <p/>
+     * The default is false.
+     */
+    public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
+            = new HazelcastProperty("hazelcast.io.write.through", false);
+
+    /**
+     * Enables the compression of packets send to other members. Only packets with a payload of at least
+     * {@link #IO_COMPRESSION_THRESHOLD} bytes are compressed, and only if compressing makes them smaller.
+     * <p/>
+     * A member always decompresses the compressed packets it receives, independent of this property. The members
+     * advertise their {@link #IO_COMPRESSION_CODEC} when a connection is established; packets are only compressed on
+     * connections where both members use the same codec.
+     * <p/>
+     * The default is false.
+     */
+    public static final HazelcastProperty IO_COMPRESSION_ENABLED
+            = new HazelcastProperty("hazelcast.io.compression.enabled", false);
+
+    /**
+     * The codec to compress and decompress packets send between members with. This is either 'deflate' or the class
+     * name of a {@link com.hazelcast.nio.compression.CompressionCodec} implementation.
+     * <p/>
+     * The default is 'deflate'.
+     */
+    public static final HazelcastProperty IO_COMPRESSION_CODEC
+            = new HazelcastProperty("hazelcast.io.compression.codec", "deflate");
+
+    /**
+     * The minimum payload size in bytes of a packet to compress it. This property only has meaning when
+     * {@link #IO_COMPRESSION_ENABLED} is true.
+     * <p/>
+     * The default is 4096.
+     */
+    public static final HazelcastProperty IO_COMPRESSION_THRESHOLD
+            = new HazelcastProperty("hazelcast.io.compression.threshold", 4096);
+
+    /**
+     * The maximum payload size in bytes of a compressed packet. Larger packets are send uncompressed, and a received
+     * compressed packet which claims to be larger is rejected and closes the connection, so a corrupt or malicious
+     * packet can't make a member allocate an arbitrary amount of memory.
+     * <p/>
+     * The default is 256 MB.
+     */
+    public static final HazelcastProperty IO_COMPRESSION_MAX_SIZE
+            = new HazelcastProperty("hazelcast.io.compression.max.size", 256 * 1024 * 1024);
+
+    /**
+     * The number of packet payloads each member connection keeps per payload size class, so that the payload of a
+     * received packet can be reused for a subsequent packet instead of allocating a new byte-array. 0 disables pooling.
+     * <p/>
+     * The default is 16.
+     */
+    public static final HazelcastProperty IO_READ_PAYLOAD_POOL_SIZE
+            = new HazelcastProperty("hazelcast.io.read.payload.pool.size", 16);
+
+    /**
+     * The maximum size in bytes of a packet payload to pool; larger payloads are always allocated. This property only has
+     * meaning when {@link #IO_READ_PAYLOAD_POOL_SIZE} is larger than 0.
+     * <p/>
+     * The default is 16384.
+     */
+    public static final HazelcastProperty IO_READ_PAYLOAD_POOL_MAX_SIZE
+            = new HazelcastProperty("hazelcast.io.read.payload.pool.max.size", 16 * 1024);
+
     @SuppressWarnings("checkstyle:constantname")
     public static final HazelcastProperty PREFER_IPv4_STACK
             = new HazelcastProperty("hazelcast.prefer.ipv4.stack", true);
@@ -523,6 +681,49 @@ public final class GroupProperty {
     public static final HazelcastProperty BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION
             = new HazelcastProperty("hazelcast.backpressure.max.concurrent.invocations.per.partition", 100);
 
+    /**
+     * Enables adaptive back pressure. Only has meaning when {@link #BACKPRESSURE_ENABLED} is enabled.
+     * <p/>
+     * If enabled, next to the maximum number of concurrent invocations, the number of concurrent invocations per member is
+     * limited. This limit adapts to the observed latency of the invocations to that member: when the latency goes up, the
+     * limit goes down and vice versa. For the local member the depth of the operation queues is taken into account as
+     * well. The limit per member never drops below {@link #BACKPRESSURE_MAX_CONCURRENT_INVOCATIONS_PER_PARTITION} and
+     * never exceeds the maximum number of concurrent invocations.
+     * <p/>
+     * This prevents a slow member from collecting a large backlog of invocations, which leads to a collapse in latency,
+     * while the other members can still be used at full speed.
+     */
+    public static final HazelcastProperty BACKPRESSURE_ADAPTIVE_ENABLED
+            = new HazelcastProperty("hazelcast.backpressure.adaptive.enabled", false);
+
+    /**
+     * Controls what happens to an invocation which is about to be sent over a connection which has more than
+     * {@link #BACKPRESSURE_CONNECTION_MAX_PENDING_BYTES} bytes pending to be written. This prevents a slow member from
+     * making the write queues grow till the node runs out of memory.
+     * <p/>
+     * The possible values are:
+     * <ul>
+     * <li>NONE: no back pressure is applied, this is the default.</li>
+     * <li>PARK: the invoking thread is parked using an exponential backoff till the connection has drained or till
+     * {@link #BACKPRESSURE_BACKOFF_TIMEOUT_MILLIS} has passed, after which a
+     * {@link com.hazelcast.core.HazelcastOverloadException} is thrown. Partition threads are never parked, they behave
+     * as with FAIL_FAST.</li>
+     * <li>FAIL_FAST: a {@link com.hazelcast.core.HazelcastOverloadException} is thrown immediately.</li>
+     * </ul>
+     * Urgent operations are never subject to this back pressure. When the mode is not NONE, the write queues of the
+     * connections are bound by {@link #IO_WRITE_QUEUE_CAPACITY}.
+     */
+    public static final HazelcastProperty BACKPRESSURE_CONNECTION_MODE
+            = new HazelcastProperty("hazelcast.backpressure.connection.mode", "NONE");
+
+    /**
+     * The number of bytes pending to be written on a connection above which the connection is considered overloaded.
+     * <p/>
+     * This property only has meaning when {@link #BACKPRESSURE_CONNECTION_MODE} is not NONE. The default is 64 MB.
+     */
+    public static final HazelcastProperty BACKPRESSURE_CONNECTION_MAX_PENDING_BYTES
+            = new HazelcastProperty("hazelcast.backpressure.connection.max.pending.bytes", 64 * 1024 * 1024);
+
     /**
      * Run Query Evaluations for multiple partitions in parallel.
      * <p/>
@@ -578,6 +779,7 @@ public final class GroupProperty {
      * Valid Values:
      * <ul>
      * <li>RULES - for optimizations based on static rules</li>
+     * <li>COST - for static rules followed by index selection based on index statistics</li>
      * <li>NONE - optimization are disabled</li>
      * </ul>
      * <p/>
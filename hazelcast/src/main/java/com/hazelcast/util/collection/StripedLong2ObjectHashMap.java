@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import com.hazelcast.util.QuickMath;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * A thread-safe map specialised for long keys, which is build from a number of {@link Long2ObjectHashMap} stripes that
+ * are each guarded by their own lock.
+ * <p/>
+ * The stripe is selected based on the lowest bits of the key; so for sequential keys, like call ids, consecutive keys
+ * end up in different stripes and concurrent access is spread evenly over the stripes.
+ * <p/>
+ * The {@link #get(long)}, {@link #put(long, Object)} and {@link #remove(long)} don't box the key and don't create
+ * litter, apart from growing a stripe when it runs out of capacity.
+ * <p/>
+ * The {@link #entrySet()} and {@link #values()} are weakly consistent snapshots, so they can be iterated while the map
+ * is being modified concurrently.
+ *
+ * NOTE: This map doesn't support {@code null} values!
+ *
+ * @param <V> values stored in the map
+ */
+public class StripedLong2ObjectHashMap<V> {
+
+    private final Long2ObjectHashMap<V>[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Creates a new StripedLong2ObjectHashMap.
+     *
+     * @param stripeCount     the number of stripes. Will be rounded up to the next power of two.
+     * @param initialCapacity the initial capacity of the map; so of all stripes combined.
+     */
+    @SuppressWarnings("unchecked")
+    public StripedLong2ObjectHashMap(int stripeCount, int initialCapacity) {
+        checkPositive(stripeCount, "stripeCount should be positive, but was: " + stripeCount);
+
+        int count = QuickMath.nextPowerOfTwo(stripeCount);
+        int stripeCapacity = Math.max(Long2ObjectHashMap.DEFAULT_INITIAL_CAPACITY, initialCapacity / count);
+        this.stripes = new Long2ObjectHashMap[count];
+        this.stripeMask = count - 1;
+        for (int k = 0; k < count; k++) {
+            stripes[k] = new Long2ObjectHashMap<V>(stripeCapacity);
+        }
+    }
+
+    private Long2ObjectHashMap<V> stripe(long key) {
+        return stripes[(int) (key & stripeMask)];
+    }
+
+    /**
+     * Returns the value for the given key.
+     *
+     * @param key the key
+     * @return the value, or null if not found.
+     */
+    public V get(long key) {
+        Long2ObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * Puts the value for the given key.
+     *
+     * @param key   the key
+     * @param value the value. Can't be null.
+     * @return the previous value, or null if there was no previous value.
+     */
+    public V put(long key, V value) {
+        Long2ObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Removes the value for the given key.
+     *
+     * @param key the key
+     * @return the removed value, or null if not found.
+     */
+    public V remove(long key) {
+        Long2ObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    /**
+     * Removes the entry for the given key only if it is currently mapped to the given value.
+     *
+     * @param key   the key
+     * @param value the expected value
+     * @return true if the entry was removed, false otherwise.
+     */
+    public boolean remove(long key, V value) {
+        Long2ObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            if (stripe.get(key) != value) {
+                return false;
+            }
+            stripe.remove(key);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of entries. Since the stripes are counted one by one, the returned value is only an
+     * approximation when the map is modified concurrently.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Long2ObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (Long2ObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                if (!stripe.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        for (Long2ObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the values.
+     *
+     * @return the list of values.
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<V>();
+        for (Long2ObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                result.addAll(stripe.values());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a snapshot of the entries. Removing an entry through the iterator of the returned set, removes the
+     * entry from the map if it still maps the same key to the same value.
+     *
+     * @return the set of entries.
+     */
+    public Set<Map.Entry<Long, V>> entrySet() {
+        final List<Map.Entry<Long, V>> entries = new ArrayList<Map.Entry<Long, V>>();
+        for (Long2ObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                // the entries of the Long2ObjectHashMap can't be retained, so they need to be copied.
+                for (Map.Entry<Long, V> entry : stripe.entrySet()) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<Long, V>(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        return new SnapshotEntrySet(entries);
+    }
+
+    private final class SnapshotEntrySet extends AbstractSet<Map.Entry<Long, V>> {
+        private final List<Map.Entry<Long, V>> entries;
+
+        private SnapshotEntrySet(List<Map.Entry<Long, V>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public Iterator<Map.Entry<Long, V>> iterator() {
+            final Iterator<Map.Entry<Long, V>> it = entries.iterator();
+            return new Iterator<Map.Entry<Long, V>>() {
+                private Map.Entry<Long, V> current;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Map.Entry<Long, V> next() {
+                    current = it.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    if (current == null) {
+                        throw new IllegalStateException();
+                    }
+                    it.remove();
+                    StripedLong2ObjectHashMap.this.remove(current.getKey(), current.getValue());
+                    current = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    }
+}
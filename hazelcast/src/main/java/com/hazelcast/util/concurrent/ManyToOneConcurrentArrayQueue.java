@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+import static java.lang.Math.min;
+
+/**
+ * A lock-free, bounded, array backed queue for many producers and a single consumer.
+ * <p/>
+ * Producers claim a slot by increasing the tail with a CAS and then publish the item in that slot. The consumer takes
+ * items from the head without any CAS; only a single thread at any given moment is allowed to call {@link #poll()},
+ * {@link #peek()} and {@link #clear()}. The other methods can be called by any thread.
+ * <p/>
+ * The {@link #iterator()} returns a weakly consistent snapshot and is meant for monitoring purposes only.
+ *
+ * @param <E> the type of the items
+ */
+public class ManyToOneConcurrentArrayQueue<E> extends AbstractQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a new queue.
+     *
+     * @param requestedCapacity the capacity, it is rounded up to the next power of two
+     */
+    public ManyToOneConcurrentArrayQueue(int requestedCapacity) {
+        checkPositive(requestedCapacity, "requestedCapacity should be positive");
+        this.capacity = nextPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<E>(capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public boolean offer(E item) {
+        checkNotNull(item, "item can't be null");
+
+        long currentTail;
+        do {
+            currentTail = tail.get();
+            if (currentTail - head.get() >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(currentTail, currentTail + 1));
+
+        buffer.lazySet(indexOf(currentTail), item);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long currentHead = head.get();
+        int index = indexOf(currentHead);
+        E item = waitForItem(currentHead, index);
+        if (item == null) {
+            return null;
+        }
+
+        buffer.lazySet(index, null);
+        head.lazySet(currentHead + 1);
+        return item;
+    }
+
+    @Override
+    public E peek() {
+        long currentHead = head.get();
+        return waitForItem(currentHead, indexOf(currentHead));
+    }
+
+    /**
+     * Returns the item in the slot of the head. If a producer has claimed the slot but not published its item yet,
+     * the consumer spins till the item becomes visible.
+     */
+    private E waitForItem(long currentHead, int index) {
+        E item = buffer.get(index);
+        if (item != null) {
+            return item;
+        }
+
+        if (currentHead == tail.get()) {
+            return null;
+        }
+
+        do {
+            item = buffer.get(index);
+        } while (item == null);
+        return item;
+    }
+
+    @Override
+    public int size() {
+        // the head is read before the tail, so the difference can't be negative
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        return (int) min(currentTail - currentHead, capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        long currentHead = head.get();
+        long currentTail = min(tail.get(), currentHead + capacity);
+        List<E> snapshot = new ArrayList<E>((int) (currentTail - currentHead));
+        for (long sequence = currentHead; sequence < currentTail; sequence++) {
+            E item = buffer.get(indexOf(sequence));
+            if (item != null) {
+                snapshot.add(item);
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    private int indexOf(long sequence) {
+        return (int) sequence & mask;
+    }
+}
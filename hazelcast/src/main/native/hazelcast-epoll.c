@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * The JNI part of com.hazelcast.nio.tcp.epoll.Epoll: a thin shim over the Linux epoll and eventfd system calls.
+ *
+ * Build it on Linux with:
+ *
+ *   gcc -O2 -shared -fPIC -I$JAVA_HOME/include -I$JAVA_HOME/include/linux \
+ *       -o libhazelcast-epoll.so hazelcast-epoll.c
+ *
+ * and put libhazelcast-epoll.so on the java.library.path of the member.
+ */
+
+#include <jni.h>
+#include <errno.h>
+#include <stdio.h>
+#include <string.h>
+#include <stdint.h>
+#include <unistd.h>
+#include <sys/epoll.h>
+#include <sys/eventfd.h>
+
+#define MAX_EVENTS 1024
+
+static void throwIOException(JNIEnv *env, const char *call) {
+    char message[256];
+    jclass exceptionClass = (*env)->FindClass(env, "java/io/IOException");
+    if (exceptionClass == NULL) {
+        return;
+    }
+    snprintf(message, sizeof(message), "%s failed: %s", call, strerror(errno));
+    (*env)->ThrowNew(env, exceptionClass, message);
+}
+
+JNIEXPORT jint JNICALL Java_com_hazelcast_nio_tcp_epoll_Epoll_epollCreate(JNIEnv *env, jclass clazz) {
+    int epfd = epoll_create1(EPOLL_CLOEXEC);
+    if (epfd < 0) {
+        throwIOException(env, "epoll_create1");
+    }
+    return epfd;
+}
+
+JNIEXPORT void JNICALL Java_com_hazelcast_nio_tcp_epoll_Epoll_epollCtl(JNIEnv *env, jclass clazz,
+        jint epfd, jint op, jint fd, jint events) {
+    struct epoll_event event;
+    memset(&event, 0, sizeof(event));
+    event.events = (uint32_t) events;
+    event.data.fd = fd;
+    if (epoll_ctl(epfd, op, fd, &event) < 0) {
+        throwIOException(env, "epoll_ctl");
+    }
+}
+
+JNIEXPORT jint JNICALL Java_com_hazelcast_nio_tcp_epoll_Epoll_epollWait(JNIEnv *env, jclass clazz,
+        jint epfd, jintArray fds, jintArray events, jint timeoutMillis) {
+    struct epoll_event ready[MAX_EVENTS];
+    jint readyFds[MAX_EVENTS];
+    jint readyEvents[MAX_EVENTS];
+    int max = (*env)->GetArrayLength(env, fds);
+    int count;
+    int i;
+
+    if (max > MAX_EVENTS) {
+        max = MAX_EVENTS;
+    }
+
+    count = epoll_wait(epfd, ready, max, timeoutMillis);
+    if (count < 0) {
+        if (errno == EINTR) {
+            return 0;
+        }
+        throwIOException(env, "epoll_wait");
+        return -1;
+    }
+
+    for (i = 0; i < count; i++) {
+        readyFds[i] = ready[i].data.fd;
+        readyEvents[i] = (jint) ready[i].events;
+    }
+    (*env)->SetIntArrayRegion(env, fds, 0, count, readyFds);
+    (*env)->SetIntArrayRegion(env, events, 0, count, readyEvents);
+    return count;
+}
+
+JNIEXPORT jint JNICALL Java_com_hazelcast_nio_tcp_epoll_Epoll_eventFd(JNIEnv *env, jclass clazz) {
+    int fd = eventfd(0, EFD_NONBLOCK | EFD_CLOEXEC);
+    if (fd < 0) {
+        throwIOException(env, "eventfd");
+    }
+    return fd;
+}
+
+JNIEXPORT void JNICALL Java_com_hazelcast_nio_tcp_epoll_Epoll_eventFdWrite(JNIEnv *env, jclass clazz, jint fd) {
+    uint64_t value = 1;
+    if (write(fd, &value, sizeof(value)) < 0 && errno != EAGAIN) {
+        throwIOException(env, "eventfd write");
+    }
+}
+
+JNIEXPORT void JNICALL Java_com_hazelcast_nio_tcp_epoll_Epoll_eventFdRead(JNIEnv *env, jclass clazz, jint fd) {
+    uint64_t value;
+    if (read(fd, &value, sizeof(value)) < 0 && errno != EAGAIN) {
+        throwIOException(env, "eventfd read");
+    }
+}
+
+JNIEXPORT void JNICALL Java_com_hazelcast_nio_tcp_epoll_Epoll_close(JNIEnv *env, jclass clazz, jint fd) {
+    if (close(fd) < 0) {
+        throwIOException(env, "close");
+    }
+}
+
+/*
+ * Returns the file descriptor of a java.nio SocketChannel. The JDK keeps it in the private 'fdVal' field of
+ * sun.nio.ch.SocketChannelImpl; JNI field access isn't subject to the Java access checks.
+ */
+JNIEXPORT jint JNICALL Java_com_hazelcast_nio_tcp_epoll_Epoll_fdOf(JNIEnv *env, jclass clazz, jobject channel) {
+    jclass channelClass = (*env)->GetObjectClass(env, channel);
+    jfieldID fdValField = (*env)->GetFieldID(env, channelClass, "fdVal", "I");
+    if (fdValField == NULL) {
+        // a NoSuchFieldError is pending
+        return -1;
+    }
+    return (*env)->GetIntField(env, channel, fdValField);
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.impl.CachedQueryEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.test.TestCollectionUtils.setOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class AggregatorsTest extends HazelcastTestSupport {
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void testConstructor() {
+        assertUtilityConstructor(Aggregators.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAttributePathEmpty() {
+        Aggregators.longSum("");
+    }
+
+    @Test
+    public void count() {
+        Aggregator<Map.Entry, Long> aggregator = Aggregators.count();
+
+        accumulate(aggregator, 1, 2, null);
+
+        assertEquals(Long.valueOf(3), aggregator.aggregate());
+    }
+
+    @Test
+    public void count_withAttribute_skipsNulls() {
+        Aggregator<Map.Entry, Long> aggregator = Aggregators.count("value");
+
+        accumulate(aggregator, 1, 2, null);
+
+        assertEquals(Long.valueOf(2), aggregator.aggregate());
+    }
+
+    @Test
+    public void distinct() {
+        Aggregator<Map.Entry, Set<Object>> aggregator = Aggregators.distinct("value");
+
+        accumulate(aggregator, 1, 2, 2, null, 3);
+
+        assertEquals(setOf(1, 2, 3), aggregator.aggregate());
+    }
+
+    @Test
+    public void longAggregators() {
+        Aggregator<Map.Entry, Long> sum = Aggregators.longSum("value");
+        Aggregator<Map.Entry, Double> avg = Aggregators.longAvg("value");
+        Aggregator<Map.Entry, Long> min = Aggregators.longMin("value");
+        Aggregator<Map.Entry, Long> max = Aggregators.longMax("value");
+
+        accumulate(sum, 3, -1, 7, null);
+        accumulate(avg, 3, -1, 7, null);
+        accumulate(min, 3, -1, 7, null);
+        accumulate(max, 3, -1, 7, null);
+
+        assertEquals(Long.valueOf(9), sum.aggregate());
+        assertEquals(3.0, avg.aggregate(), 0.0);
+        assertEquals(Long.valueOf(-1), min.aggregate());
+        assertEquals(Long.valueOf(7), max.aggregate());
+    }
+
+    @Test
+    public void doubleAggregators() {
+        Aggregator<Map.Entry, Double> sum = Aggregators.doubleSum("value");
+        Aggregator<Map.Entry, Double> avg = Aggregators.doubleAvg("value");
+        Aggregator<Map.Entry, Double> min = Aggregators.doubleMin("value");
+        Aggregator<Map.Entry, Double> max = Aggregators.doubleMax("value");
+
+        accumulate(sum, 0.5, 1.5, 4.0);
+        accumulate(avg, 0.5, 1.5, 4.0);
+        accumulate(min, 0.5, 1.5, 4.0);
+        accumulate(max, 0.5, 1.5, 4.0);
+
+        assertEquals(6.0, sum.aggregate(), 0.0);
+        assertEquals(2.0, avg.aggregate(), 0.0);
+        assertEquals(0.5, min.aggregate(), 0.0);
+        assertEquals(4.0, max.aggregate(), 0.0);
+    }
+
+    @Test
+    public void emptyAggregators() {
+        assertEquals(Long.valueOf(0), Aggregators.<Map.Entry>count().aggregate());
+        assertEquals(Long.valueOf(0), Aggregators.<Map.Entry>longSum("value").aggregate());
+        assertEquals(0.0, Aggregators.<Map.Entry>doubleSum("value").aggregate(), 0.0);
+        assertNull(Aggregators.<Map.Entry>longAvg("value").aggregate());
+        assertNull(Aggregators.<Map.Entry>longMin("value").aggregate());
+        assertNull(Aggregators.<Map.Entry>longMax("value").aggregate());
+        assertNull(Aggregators.<Map.Entry>doubleAvg("value").aggregate());
+        assertNull(Aggregators.<Map.Entry>doubleMin("value").aggregate());
+        assertNull(Aggregators.<Map.Entry>doubleMax("value").aggregate());
+    }
+
+    @Test
+    public void combine() {
+        Aggregator<Map.Entry, Double> avg = Aggregators.longAvg("value");
+        Aggregator<Map.Entry, Double> otherAvg = Aggregators.longAvg("value");
+        Aggregator<Map.Entry, Long> max = Aggregators.longMax("value");
+        Aggregator<Map.Entry, Long> otherMax = Aggregators.longMax("value");
+        Aggregator<Map.Entry, Long> emptyMax = Aggregators.longMax("value");
+
+        accumulate(avg, 1, 2);
+        accumulate(otherAvg, 6);
+        accumulate(max, 1, 2);
+        accumulate(otherMax, 6);
+
+        avg.combine(otherAvg);
+        max.combine(otherMax);
+        max.combine(emptyMax);
+
+        assertEquals(3.0, avg.aggregate(), 0.0);
+        assertEquals(Long.valueOf(6), max.aggregate());
+    }
+
+    @Test
+    public void combine_afterSerialization() {
+        Aggregator<Map.Entry, Long> sum = Aggregators.longSum("value");
+        Aggregator<Map.Entry, Long> otherSum = Aggregators.longSum("value");
+        accumulate(sum, 1, 2);
+        accumulate(otherSum, 3);
+
+        Aggregator<Map.Entry, Long> copy = serializationService.toObject(serializationService.toData(otherSum));
+        sum.combine(copy);
+
+        assertEquals(Long.valueOf(6), sum.aggregate());
+    }
+
+    private void accumulate(Aggregator<Map.Entry, ?> aggregator, Object... values) {
+        CachedQueryEntry entry = new CachedQueryEntry();
+        for (int i = 0; i < values.length; i++) {
+            entry.init(serializationService, serializationService.toData(i), new Value(values[i]), Extractors.empty());
+            aggregator.accumulate(entry);
+        }
+        aggregator.onAccumulationFinished();
+    }
+
+    public static class Value implements Serializable {
+
+        private final Object value;
+
+        public Value(Object value) {
+            this.value = value;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
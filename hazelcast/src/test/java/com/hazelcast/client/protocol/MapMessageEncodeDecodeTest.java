@@ -1,6 +1,7 @@
 package com.hazelcast.client.protocol;
 
 import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.MapFetchWithPredicateCodec;
 import com.hazelcast.client.impl.protocol.codec.MapPutCodec;
 import com.hazelcast.client.impl.protocol.util.ClientProtocolBuffer;
 import com.hazelcast.client.impl.protocol.util.SafeBuffer;
@@ -63,4 +64,22 @@ public class MapMessageEncodeDecodeTest {
         assertEquals(THE_LONG, decodeParams.ttl);
     }
 
+    @Test
+    public void shouldEncodeDecodeCorrectly_FETCH_WITH_PREDICATE() {
+        ClientMessage cmEncode = MapFetchWithPredicateCodec.encodeRequest(NAME, 77, 5, 100, DATA);
+        cmEncode.setVersion((short) 3).addFlag(ClientMessage.BEGIN_AND_END_FLAGS)
+                .setCorrelationId(Long.MAX_VALUE).setPartitionId(77);
+        byteBuffer = cmEncode.buffer();
+
+        ClientMessage cmDecode = ClientMessage.createForDecode(byteBuffer, 0);
+        MapFetchWithPredicateCodec.RequestParameters decodeParams = MapFetchWithPredicateCodec.decodeRequest(cmDecode);
+
+        assertEquals(MapFetchWithPredicateCodec.REQUEST_TYPE, cmDecode.getMessageType());
+        assertEquals(NAME, decodeParams.name);
+        assertEquals(77, decodeParams.partitionId);
+        assertEquals(5, decodeParams.tableIndex);
+        assertEquals(100, decodeParams.batch);
+        assertEquals(DATA, decodeParams.predicate);
+    }
+
 }
@@ -958,6 +958,24 @@ public class XMLConfigBuilderTest extends HazelcastTestSupport {
         assertIndexEqual("age", true, mapConfig.getMapIndexConfigs().get(1));
     }
 
+    @Test
+    public void testIndexesConfig_storeType() {
+        String xml = HAZELCAST_START_TAG
+                + "   <map name=\"people\">\n"
+                + "       <indexes>\n"
+                + "           <index ordered=\"true\">name</index>\n"
+                + "           <index ordered=\"true\" store-type=\"BTREE\">age</index>\n"
+                + "       </indexes>"
+                + "   </map>"
+                + HAZELCAST_END_TAG;
+
+        Config config = buildConfig(xml);
+        MapConfig mapConfig = config.getMapConfig("people");
+
+        assertEquals(MapIndexConfig.IndexStoreType.DEFAULT, mapConfig.getMapIndexConfigs().get(0).getStoreType());
+        assertEquals(MapIndexConfig.IndexStoreType.BTREE, mapConfig.getMapIndexConfigs().get(1).getStoreType());
+    }
+
     private static void assertIndexEqual(String expectedAttribute, boolean expectedOrdered, MapIndexConfig indexConfig) {
         assertEquals(expectedAttribute, indexConfig.getAttribute());
         assertEquals(expectedOrdered, indexConfig.isOrdered());
@@ -1252,6 +1270,39 @@ public class XMLConfigBuilderTest extends HazelcastTestSupport {
         assertEquals(dataLoadTimeout, hotRestartPersistenceConfig.getDataLoadTimeoutSeconds());
     }
 
+    @Test
+    public void testMapCompression() {
+        String xml = HAZELCAST_START_TAG
+                + "<map name=\"mymap\">"
+                + "<compression enabled=\"true\">"
+                + "<codec>deflate</codec>"
+                + "<threshold>2048</threshold>"
+                + "</compression>"
+                + "</map>\n"
+                + HAZELCAST_END_TAG;
+
+        Config config = buildConfig(xml);
+        CompressionConfig compressionConfig = config.getMapConfig("mymap").getCompressionConfig();
+
+        assertTrue(compressionConfig.isEnabled());
+        assertEquals("deflate", compressionConfig.getCodec());
+        assertEquals(2048, compressionConfig.getThreshold());
+    }
+
+    @Test
+    public void testMapValueDeduplication() {
+        String xml = HAZELCAST_START_TAG
+                + "<map name=\"mymap\">"
+                + "<value-deduplication-enabled>true</value-deduplication-enabled>"
+                + "</map>\n"
+                + HAZELCAST_END_TAG;
+
+        Config config = buildConfig(xml);
+
+        assertTrue(config.getMapConfig("mymap").isValueDeduplicationEnabled());
+        assertFalse(config.getMapConfig("default").isValueDeduplicationEnabled());
+    }
+
     @Test(expected = InvalidConfigurationException.class)
     public void testMissingNamespace() {
         String xml = "<hazelcast/>";
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.instance;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.logging.LoggingService;
+import com.hazelcast.nio.IOService;
+import com.hazelcast.nio.tcp.IOThreadingModel;
+import com.hazelcast.nio.tcp.TcpIpConnectionManager;
+import com.hazelcast.nio.tcp.epoll.EpollIOThreadingModel;
+import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadingModel;
+import com.hazelcast.nio.tcp.spinning.SpinningIOThreadingModel;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.spi.properties.GroupProperty.IO_THREADING_MODEL;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class DefaultNodeContextTest extends HazelcastTestSupport {
+
+    @Before
+    @After
+    public void cleanup() {
+        HazelcastInstanceFactory.terminateAll();
+    }
+
+    @Test
+    public void testDefaultThreadingModel() {
+        assertEquals(NonBlockingIOThreadingModel.class, getThreadingModelClass(newInstance(null)));
+    }
+
+    @Test
+    public void testSpinningThreadingModel() {
+        assertEquals(SpinningIOThreadingModel.class, getThreadingModelClass(newInstance("spinning")));
+    }
+
+    @Test
+    public void testEpollThreadingModel() {
+        Class<? extends IOThreadingModel> expected = EpollIOThreadingModel.isAvailable()
+                ? EpollIOThreadingModel.class
+                : NonBlockingIOThreadingModel.class;
+
+        assertEquals(expected, getThreadingModelClass(newInstance("epoll")));
+    }
+
+    @Test
+    public void testCustomThreadingModel() {
+        HazelcastInstance instance = newInstance(CustomIOThreadingModel.class.getName());
+
+        assertEquals(CustomIOThreadingModel.class, getThreadingModelClass(instance));
+    }
+
+    @Test
+    public void testCustomThreadingModel_whenUnsupported_thenFallsBackToNonBlocking() {
+        HazelcastInstance instance = newInstance(UnsupportedIOThreadingModel.class.getName());
+
+        assertEquals(NonBlockingIOThreadingModel.class, getThreadingModelClass(instance));
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testCustomThreadingModel_whenClassNotFound_thenFails() {
+        newInstance("com.hazelcast.nio.tcp.NonExistingIOThreadingModel");
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testCustomThreadingModel_whenNotAThreadingModel_thenFails() {
+        newInstance(String.class.getName());
+    }
+
+    private static HazelcastInstance newInstance(String threadingModel) {
+        Config config = new Config();
+        if (threadingModel != null) {
+            config.setProperty(IO_THREADING_MODEL.getName(), threadingModel);
+        }
+        config.getGroupConfig().setName(randomName());
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    private static Class<?> getThreadingModelClass(HazelcastInstance instance) {
+        return ((TcpIpConnectionManager) getConnectionManager(instance)).getIoThreadingModel().getClass();
+    }
+
+    public static class CustomIOThreadingModel extends NonBlockingIOThreadingModel {
+
+        public CustomIOThreadingModel(IOService ioService, LoggingService loggingService, MetricsRegistry metricsRegistry,
+                                      HazelcastThreadGroup threadGroup) {
+            super(ioService, loggingService, metricsRegistry, threadGroup);
+        }
+    }
+
+    public static class UnsupportedIOThreadingModel extends NonBlockingIOThreadingModel {
+
+        public UnsupportedIOThreadingModel(IOService ioService, LoggingService loggingService,
+                                           MetricsRegistry metricsRegistry, HazelcastThreadGroup threadGroup) {
+            super(ioService, loggingService, metricsRegistry, threadGroup);
+            throw new UnsatisfiedLinkError("no native event loop available on this platform");
+        }
+    }
+}
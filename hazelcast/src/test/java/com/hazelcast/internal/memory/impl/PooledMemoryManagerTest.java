@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class PooledMemoryManagerTest {
+
+    private static final long MAX_MEMORY = 1 << 20;
+    private static final int PAGE_SIZE = 1 << 12;
+    private static final int MIN_BLOCK_SIZE = 16;
+
+    private PooledMemoryManager memoryManager;
+    private MemoryAllocator malloc;
+    private MemoryAccessor mem;
+
+    @Before
+    public void setUp() {
+        memoryManager = new PooledMemoryManager(MAX_MEMORY, PAGE_SIZE, MIN_BLOCK_SIZE);
+        malloc = memoryManager.getAllocator();
+        mem = memoryManager.getAccessor();
+    }
+
+    @After
+    public void tearDown() {
+        memoryManager.dispose();
+        assertEquals(0, memoryManager.getCommittedMemory());
+    }
+
+    @Test
+    public void testSizeClasses() {
+        int[] sizes = PooledMemoryManager.createSizeClassSizes(16, 128);
+        assertArrayEquals(new int[]{16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128}, sizes);
+    }
+
+    @Test
+    public void testAllocate_roundsUpToSizeClass() {
+        long address = malloc.allocate(17);
+        assertEquals(24, memoryManager.getUsedMemory());
+        assertEquals(PAGE_SIZE, memoryManager.getCommittedMemory());
+
+        malloc.free(address, 17);
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testAllocate_returnsZeroedBlock_afterReuse() {
+        long address = malloc.allocate(64);
+        for (int i = 0; i < 64; i += 8) {
+            mem.putLong(address + i, -1);
+        }
+        malloc.free(address, 64);
+
+        long reused = malloc.allocate(64);
+        assertEquals(address, reused);
+        for (int i = 0; i < 64; i += 8) {
+            assertEquals(0, mem.getLong(reused + i));
+        }
+        malloc.free(reused, 64);
+    }
+
+    @Test
+    public void testAllocate_distinctBlocksAcrossPages() {
+        int count = 3 * PAGE_SIZE / 32;
+        long[] addresses = new long[count];
+        Set<Long> distinct = new HashSet<Long>();
+        for (int i = 0; i < count; i++) {
+            addresses[i] = malloc.allocate(32);
+            mem.putLong(addresses[i], i);
+            distinct.add(addresses[i]);
+        }
+        assertEquals(count, distinct.size());
+        assertEquals(3 * PAGE_SIZE, memoryManager.getCommittedMemory());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, mem.getLong(addresses[i]));
+        }
+
+        for (long address : addresses) {
+            malloc.free(address, 32);
+        }
+        // a single spare page is kept, the others are returned
+        assertEquals(PAGE_SIZE, memoryManager.getCommittedMemory());
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testReallocate_withinSameSizeClass_keepsAddress() {
+        long address = malloc.allocate(65);
+        mem.putLong(address, 42);
+
+        long reallocated = malloc.reallocate(address, 65, 80);
+        assertEquals(address, reallocated);
+        assertEquals(42, mem.getLong(reallocated));
+        malloc.free(reallocated, 80);
+    }
+
+    @Test
+    public void testReallocate_toOtherSizeClass_copiesContents() {
+        long address = malloc.allocate(16);
+        mem.putLong(address, 42);
+
+        address = malloc.reallocate(address, 16, 256);
+        assertEquals(42, mem.getLong(address));
+        assertEquals(0, mem.getLong(address + 128));
+        assertEquals(256, memoryManager.getUsedMemory());
+
+        malloc.free(address, 256);
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testHugeAllocation_bypassesPool() {
+        long address = malloc.allocate(PAGE_SIZE);
+        assertEquals(PAGE_SIZE, memoryManager.getUsedMemory());
+        assertEquals(PAGE_SIZE, memoryManager.getCommittedMemory());
+
+        malloc.free(address, PAGE_SIZE);
+        assertEquals(0, memoryManager.getCommittedMemory());
+    }
+
+    @Test(expected = NativeOutOfMemoryError.class)
+    public void testAllocate_beyondMaxMemory() {
+        malloc.allocate(MAX_MEMORY + 1);
+    }
+
+    @Test
+    public void testThreadCache_returnsBlocksOnUnregister() {
+        memoryManager.registerThread();
+        try {
+            long[] addresses = new long[100];
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] = malloc.allocate(16);
+            }
+            assertEquals(100 * 16, memoryManager.getUsedMemory());
+            for (long address : addresses) {
+                malloc.free(address, 16);
+            }
+            assertEquals(0, memoryManager.getUsedMemory());
+        } finally {
+            memoryManager.unregisterThread();
+        }
+        assertEquals(0, memoryManager.getUsedMemory());
+        assertTrue(memoryManager.getCommittedMemory() <= PAGE_SIZE);
+    }
+
+    @Test
+    public void testThreadCache_keepsPartialBatch_whenMemoryRunsOut() {
+        memoryManager.dispose();
+        memoryManager = new PooledMemoryManager(2 * PAGE_SIZE, PAGE_SIZE, MIN_BLOCK_SIZE);
+        malloc = memoryManager.getAllocator();
+
+        memoryManager.registerThread();
+        try {
+            // the batch of 32 blocks runs out of memory after two pages of 8 blocks each
+            long address = malloc.allocate(512);
+            assertEquals(2 * PAGE_SIZE, memoryManager.getCommittedMemory());
+            malloc.free(address, 512);
+        } finally {
+            memoryManager.unregisterThread();
+        }
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testUnregisterThread_afterDispose() {
+        memoryManager.registerThread();
+        malloc.allocate(64);
+        memoryManager.dispose();
+
+        memoryManager.unregisterThread();
+        assertEquals(0, memoryManager.getCommittedMemory());
+    }
+}
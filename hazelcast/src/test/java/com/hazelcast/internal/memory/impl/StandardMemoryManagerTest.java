@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class StandardMemoryManagerTest {
+
+    private static final long MAX_MEMORY = 1 << 20;
+
+    private StandardMemoryManager memoryManager;
+    private MemoryAllocator malloc;
+    private MemoryAccessor mem;
+
+    @Before
+    public void setUp() {
+        memoryManager = new StandardMemoryManager(MAX_MEMORY);
+        malloc = memoryManager.getAllocator();
+        mem = memoryManager.getAccessor();
+    }
+
+    @After
+    public void tearDown() {
+        memoryManager.dispose();
+    }
+
+    @Test
+    public void testAllocate_returnsZeroedBlock() {
+        long address = malloc.allocate(64);
+        for (int i = 0; i < 64; i += 8) {
+            assertEquals(0, mem.getLong(address + i));
+        }
+        assertEquals(64, memoryManager.getUsedMemory());
+
+        malloc.free(address, 64);
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testReallocate_keepsContentsAndTracksUsage() {
+        long address = malloc.allocate(16);
+        mem.putLong(address, 42);
+
+        address = malloc.reallocate(address, 16, 128);
+        assertEquals(42, mem.getLong(address));
+        assertEquals(0, mem.getLong(address + 64));
+        assertEquals(128, memoryManager.getUsedMemory());
+
+        address = malloc.reallocate(address, 128, 8);
+        assertEquals(42, mem.getLong(address));
+        assertEquals(8, memoryManager.getUsedMemory());
+
+        malloc.free(address, 8);
+    }
+
+    @Test(expected = NativeOutOfMemoryError.class)
+    public void testAllocate_failsBeyondMaxMemory() {
+        malloc.allocate(MAX_MEMORY + 1);
+    }
+}
@@ -8,6 +8,7 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.CustomSerializationTest;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataSerializable;
 import com.hazelcast.nio.serialization.HazelcastSerializationException;
 import com.hazelcast.nio.serialization.StreamSerializer;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -183,6 +184,73 @@ public class AbstractSerializationServiceTest {
         abstractSerializationService.serializerFor(new CustomSerializationTest.Foo());
     }
 
+    @Test
+    public void testRegister_dataSerializableType_thenCustomSerializerUsed() throws Exception {
+        abstractSerializationService.register(DataSerializableValue.class, new DataSerializableValueSerializer());
+
+        Data data = abstractSerializationService.toData(new DataSerializableValue(100));
+        DataSerializableValue found = abstractSerializationService.toObject(data);
+
+        assertEquals(DataSerializableValueSerializer.TYPE_ID, data.getType());
+        assertEquals(100, found.value);
+    }
+
+    @Test
+    public void testRegister_dataSerializableType_thenNotUsedForSubclass() throws Exception {
+        abstractSerializationService.register(DataSerializableValue.class, new DataSerializableValueSerializer());
+
+        Data data = abstractSerializationService.toData(new DataSerializableSubValue());
+
+        assertEquals(SerializationConstants.CONSTANT_TYPE_DATA_SERIALIZABLE, data.getType());
+    }
+
+    static class DataSerializableValue implements DataSerializable {
+        int value;
+
+        DataSerializableValue() {
+        }
+
+        DataSerializableValue(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public void writeData(ObjectDataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            value = in.readInt();
+        }
+    }
+
+    static class DataSerializableSubValue extends DataSerializableValue {
+    }
+
+    private static class DataSerializableValueSerializer implements StreamSerializer<DataSerializableValue> {
+        static final int TYPE_ID = 100001;
+
+        @Override
+        public int getTypeId() {
+            return TYPE_ID;
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public void write(ObjectDataOutput out, DataSerializableValue object) throws IOException {
+            out.writeInt(object.value);
+        }
+
+        @Override
+        public DataSerializableValue read(ObjectDataInput in) throws IOException {
+            return new DataSerializableValue(in.readInt());
+        }
+    }
+
     private class StringBufferSerializer implements StreamSerializer<StringBuffer> {
         int typeId = 100000;
         private boolean fail;
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.nio.serialization.Compact;
+import com.hazelcast.nio.serialization.CompactReader;
+import com.hazelcast.nio.serialization.CompactWriter;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompactSerializationTest {
+
+    private InternalSerializationService serializationService;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder()
+                .addCompactClass(Employee.class)
+                .build();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Employee employee = new Employee("Joe", 42, true, false, new Address("Main Street", "London"), new long[]{1, 2, 3});
+
+        Data data = serializationService.toData(employee);
+        Employee found = serializationService.toObject(data);
+
+        assertEquals(SerializationConstants.COMPACT_TYPE, data.getType());
+        assertTrue(SerializationUtil.isCompact(data));
+        assertEquals(employee, found);
+    }
+
+    @Test
+    public void testRoundTrip_nullValues() {
+        Employee employee = new Employee(null, 1, false, true, null, null);
+
+        Employee found = serializationService.toObject(serializationService.toData(employee));
+
+        assertEquals(employee, found);
+    }
+
+    @Test
+    public void testRead_topLevelField() throws IOException {
+        Employee employee = new Employee("Joe", 42, true, false, new Address("Main Street", "London"), new long[]{1, 2, 3});
+        DefaultCompactReader reader = createReader(employee);
+
+        assertEquals("Joe", reader.read("name"));
+        assertEquals(42, reader.read("age"));
+        assertEquals(true, reader.read("active"));
+        assertEquals(false, reader.read("retired"));
+        assertArrayEquals(new long[]{1, 2, 3}, (long[]) reader.read("ids"));
+    }
+
+    @Test
+    public void testRead_fieldsInAnyOrder() throws IOException {
+        Employee employee = new Employee("Joe", 42, true, false, new Address("Main Street", "London"), new long[]{1, 2, 3});
+        DefaultCompactReader reader = createReader(employee);
+
+        assertEquals(false, reader.read("retired"));
+        assertEquals("London", reader.read("address.city"));
+        assertEquals(42, reader.read("age"));
+        assertEquals("Joe", reader.read("name"));
+    }
+
+    @Test
+    public void testRead_nestedField() throws IOException {
+        Employee employee = new Employee("Joe", 42, true, false, new Address("Main Street", "London"), null);
+
+        assertEquals("Main Street", createReader(employee).read("address.street"));
+        assertEquals("London", createReader(employee).read("address.city"));
+    }
+
+    @Test
+    public void testRead_nestedField_whenNestedObjectNull() throws IOException {
+        Employee employee = new Employee("Joe", 42, true, false, null, null);
+
+        assertNull(createReader(employee).read("address.city"));
+    }
+
+    @Test
+    public void testRead_unknownField() throws IOException {
+        Employee employee = new Employee("Joe", 42, true, false, new Address("Main Street", "London"), null);
+        DefaultCompactReader reader = createReader(employee);
+
+        assertFalse(reader.hasField("salary"));
+        assertNull(reader.read("salary"));
+        assertNull(reader.read("age.value"));
+    }
+
+    @Test(expected = HazelcastSerializationException.class)
+    public void testRead_wrongKind() throws IOException {
+        Employee employee = new Employee("Joe", 42, true, false, null, null);
+
+        createReader(employee).readLong("age");
+    }
+
+    @Test
+    public void testDeserialize_unknownSchema_thenSchemaReadFromData() {
+        InternalSerializationService other = new DefaultSerializationServiceBuilder().build();
+        Employee employee = new Employee("Joe", 42, true, false, new Address("Main Street", "London"), new long[]{1, 2});
+
+        Employee found = other.toObject(serializationService.toData(employee));
+
+        assertEquals(employee, found);
+    }
+
+    @Test
+    public void testRead_unknownSchema_thenSchemaReadFromData() throws IOException {
+        InternalSerializationService other = new DefaultSerializationServiceBuilder().build();
+        Employee employee = new Employee("Joe", 42, true, false, new Address("Main Street", "London"), null);
+        Data data = serializationService.toData(employee);
+
+        DefaultCompactReader reader = (DefaultCompactReader) other.createCompactReader(data);
+
+        assertEquals(42, reader.read("age"));
+        assertEquals("London", reader.read("address.city"));
+    }
+
+    @Test
+    public void testDeserialize_schemaRegisteredUpfront() {
+        InternalSerializationService other = new DefaultSerializationServiceBuilder()
+                .addCompactClass(Employee.class)
+                .addCompactClass(Address.class)
+                .build();
+        Employee employee = new Employee("Joe", 42, true, false, new Address("Main Street", "London"), null);
+
+        Employee found = other.toObject(serializationService.toData(employee));
+
+        assertEquals(employee, found);
+    }
+
+    @Test
+    public void testSchema_independentOfWriteOrder() {
+        Map<String, CompactSchema.Kind> kinds = new LinkedHashMap<String, CompactSchema.Kind>();
+        kinds.put("b", CompactSchema.Kind.INT);
+        kinds.put("a", CompactSchema.Kind.UTF);
+        kinds.put("c", CompactSchema.Kind.BOOLEAN);
+        Map<String, CompactSchema.Kind> reversed = new LinkedHashMap<String, CompactSchema.Kind>();
+        reversed.put("c", CompactSchema.Kind.BOOLEAN);
+        reversed.put("a", CompactSchema.Kind.UTF);
+        reversed.put("b", CompactSchema.Kind.INT);
+
+        CompactSchema schema = new CompactSchema("type", kinds);
+        CompactSchema other = new CompactSchema("type", reversed);
+
+        assertEquals(schema, other);
+        assertEquals(schema.getFingerprint(), other.getFingerprint());
+        assertEquals(schema.getField("b").getOffset(), other.getField("b").getOffset());
+    }
+
+    @Test(expected = HazelcastSerializationException.class)
+    public void testWrite_duplicateField() throws IOException {
+        CompactSchemaWriter writer = new CompactSchemaWriter("type");
+        writer.writeInt("a", 1);
+        writer.writeLong("a", 1);
+    }
+
+    private DefaultCompactReader createReader(Compact object) throws IOException {
+        return (DefaultCompactReader) serializationService.createCompactReader(serializationService.toData(object));
+    }
+
+    public static class Address implements Compact {
+
+        private String street;
+        private String city;
+
+        public Address() {
+        }
+
+        Address(String street, String city) {
+            this.street = street;
+            this.city = city;
+        }
+
+        @Override
+        public void writeCompact(CompactWriter writer) throws IOException {
+            writer.writeUTF("street", street);
+            writer.writeUTF("city", city);
+        }
+
+        @Override
+        public void readCompact(CompactReader reader) throws IOException {
+            street = reader.readUTF("street");
+            city = reader.readUTF("city");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Address that = (Address) o;
+            return equal(street, that.street) && equal(city, that.city);
+        }
+
+        @Override
+        public int hashCode() {
+            return street != null ? street.hashCode() : 0;
+        }
+    }
+
+    public static class Employee implements Compact {
+
+        private String name;
+        private int age;
+        private boolean active;
+        private boolean retired;
+        private Address address;
+        private long[] ids;
+
+        public Employee() {
+        }
+
+        Employee(String name, int age, boolean active, boolean retired, Address address, long[] ids) {
+            this.name = name;
+            this.age = age;
+            this.active = active;
+            this.retired = retired;
+            this.address = address;
+            this.ids = ids;
+        }
+
+        @Override
+        public void writeCompact(CompactWriter writer) throws IOException {
+            writer.writeUTF("name", name);
+            writer.writeInt("age", age);
+            writer.writeBoolean("active", active);
+            writer.writeBoolean("retired", retired);
+            writer.writeCompact("address", address);
+            writer.writeLongArray("ids", ids);
+        }
+
+        @Override
+        public void readCompact(CompactReader reader) throws IOException {
+            name = reader.readUTF("name");
+            age = reader.readInt("age");
+            active = reader.readBoolean("active");
+            retired = reader.readBoolean("retired");
+            address = reader.readCompact("address");
+            ids = reader.readLongArray("ids");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Employee that = (Employee) o;
+            return equal(name, that.name) && age == that.age && active == that.active && retired == that.retired
+                    && equal(address, that.address) && Arrays.equals(ids, that.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return age;
+        }
+    }
+
+    private static boolean equal(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.nio.compression.CompressionCodec;
+import com.hazelcast.nio.compression.DeflateCompressionCodec;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompressedDataTest {
+
+    private final CompressionCodec codec = new DeflateCompressionCodec();
+    private InternalSerializationService serializationService;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+    }
+
+    @Test
+    public void testCompress() {
+        Data data = serializationService.toData(document(100));
+
+        Data compressed = CompressedData.compress(data, codec, 1024);
+
+        assertTrue(compressed instanceof CompressedData);
+        assertTrue(compressed.getHeapCost() < data.getHeapCost() / 5);
+        assertArrayEquals(data.toByteArray(), compressed.toByteArray());
+        assertEquals(data.getType(), compressed.getType());
+        assertEquals(data.totalSize(), compressed.totalSize());
+        assertEquals(data.dataSize(), compressed.dataSize());
+        assertEquals(data.hashCode(), compressed.hashCode());
+        assertEquals(data.hash64(), compressed.hash64());
+        assertEquals(data.getPartitionHash(), compressed.getPartitionHash());
+        assertEquals(document(100), serializationService.toObject(compressed));
+    }
+
+    @Test
+    public void testCompress_belowThreshold() {
+        Data data = serializationService.toData(document(10));
+
+        assertSame(data, CompressedData.compress(data, codec, data.dataSize() + 1));
+    }
+
+    @Test
+    public void testCompress_incompressible() {
+        byte[] bytes = new byte[4096];
+        new Random(1).nextBytes(bytes);
+        Data data = serializationService.toData(bytes);
+
+        assertSame(data, CompressedData.compress(data, codec, 1024));
+    }
+
+    @Test
+    public void testCompress_alreadyCompressed() {
+        Data compressed = CompressedData.compress(serializationService.toData(document(100)), codec, 1024);
+
+        assertSame(compressed, CompressedData.compress(compressed, codec, 1024));
+    }
+
+    @Test
+    public void testEquals() {
+        Data data = serializationService.toData(document(100));
+        Data compressed = CompressedData.compress(data, codec, 1024);
+        Data other = CompressedData.compress(serializationService.toData(document(101)), codec, 1024);
+
+        assertEquals(data, compressed);
+        assertEquals(compressed, data);
+        assertEquals(compressed, CompressedData.compress(data, codec, 1024));
+        assertNotEquals(compressed, other);
+        assertFalse(compressed.equals(null));
+    }
+
+    private static String document(int entries) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < entries; i++) {
+            sb.append("\"field").append(i).append("\":\"value\",");
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.impl.bufferpool.BufferPool;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link AbstractSerializationService#toData(Object)}, which uses the {@link ConstantTypeDataWriter} for the
+ * common constant types, with serializing through a pooled {@link BufferObjectDataOutput} as it was done before.
+ * <p/>
+ * Run with {@code -prof gc} to compare the allocation rates as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConstantTypeDataWriterPerformanceTest {
+
+    private static final int WARMUP_ITERATIONS_COUNT = 10;
+    private static final int MEASUREMENT_ITERATIONS_COUNT = 20;
+
+    private AbstractSerializationService ss;
+
+    private Long longKey = 1234567890L;
+    private String stringKey = "customer-0000042";
+    private Integer smallInteger = 42;
+    private byte[] byteArray = new byte[64];
+    private TimeUnit enumConstant = TimeUnit.SECONDS;
+
+    @Setup
+    public void setup() {
+        ss = (AbstractSerializationService) new DefaultSerializationServiceBuilder().build();
+    }
+
+    @Benchmark
+    public Data toData_long() {
+        return ss.toData(longKey);
+    }
+
+    @Benchmark
+    public Data toData_long_buffered() throws IOException {
+        return toDataBuffered(longKey);
+    }
+
+    @Benchmark
+    public Data toData_string() {
+        return ss.toData(stringKey);
+    }
+
+    @Benchmark
+    public Data toData_string_buffered() throws IOException {
+        return toDataBuffered(stringKey);
+    }
+
+    @Benchmark
+    public Data toData_smallInteger() {
+        return ss.toData(smallInteger);
+    }
+
+    @Benchmark
+    public Data toData_smallInteger_buffered() throws IOException {
+        return toDataBuffered(smallInteger);
+    }
+
+    @Benchmark
+    public Data toData_byteArray() {
+        return ss.toData(byteArray);
+    }
+
+    @Benchmark
+    public Data toData_byteArray_buffered() throws IOException {
+        return toDataBuffered(byteArray);
+    }
+
+    @Benchmark
+    public Data toData_enum() {
+        return ss.toData(enumConstant);
+    }
+
+    @Benchmark
+    public Data toData_enum_buffered() throws IOException {
+        return toDataBuffered(enumConstant);
+    }
+
+    private Data toDataBuffered(Object obj) throws IOException {
+        BufferPool pool = ss.bufferPoolThreadLocal.get();
+        BufferObjectDataOutput out = pool.takeOutputBuffer();
+        try {
+            SerializerAdapter serializer = ss.serializerFor(obj);
+            out.writeInt(ss.calculatePartitionHash(obj, null), ByteOrder.BIG_ENDIAN);
+            out.writeInt(serializer.getTypeId(), ByteOrder.BIG_ENDIAN);
+            serializer.write(out, obj);
+            return new HeapData(out.toByteArray());
+        } finally {
+            pool.returnOutputBuffer(out);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ConstantTypeDataWriterPerformanceTest.class.getSimpleName())
+                .warmupIterations(WARMUP_ITERATIONS_COUNT)
+                .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+                .verbosity(VerboseMode.NORMAL)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
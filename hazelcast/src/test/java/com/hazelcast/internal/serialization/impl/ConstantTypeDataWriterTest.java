@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_BOOLEAN;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_BYTE;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_BYTE_ARRAY;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_CHAR;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_INTEGER;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_LONG;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_SHORT;
+import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_STRING;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ConstantTypeDataWriterTest {
+
+    private static final Object[] VALUES = {
+            1L, -5L, 1000L, Long.MIN_VALUE, Long.MAX_VALUE,
+            7, 100000, Integer.MIN_VALUE,
+            "", "abc", "h\u00e9llo \u20ac\u0000",
+            new byte[0], new byte[]{1, 2, 3},
+            (short) 3, (byte) -2, true, false, 'x', '\u20ac',
+    };
+
+    private static final PartitioningStrategy PARTITIONING_STRATEGY = new PartitioningStrategy() {
+        @Override
+        public Object getPartitionKey(Object key) {
+            return "partitionKey";
+        }
+    };
+
+    @Test
+    public void testToBytes_bigEndian() throws IOException {
+        assertSameBytesAsOutput(ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void testToBytes_littleEndian() throws IOException {
+        assertSameBytesAsOutput(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testIsSupported() {
+        for (Object value : VALUES) {
+            assertTrue(ConstantTypeDataWriter.isSupported(value));
+        }
+        assertFalse(ConstantTypeDataWriter.isSupported(1.0d));
+        assertFalse(ConstantTypeDataWriter.isSupported(1.0f));
+        assertFalse(ConstantTypeDataWriter.isSupported(new int[0]));
+    }
+
+    @Test
+    public void testToData_roundTrip() {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+        for (Object value : VALUES) {
+            Data data = ss.toData(value);
+            if (value instanceof byte[]) {
+                assertArrayEquals((byte[]) value, (byte[]) ss.toObject(data));
+            } else {
+                assertEquals(value, ss.toObject(data));
+            }
+        }
+    }
+
+    @Test
+    public void testToData_smallIntegersAreCached() {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+        assertSame(ss.toData(ConstantTypeDataWriter.CACHE_LOW), ss.toData(ConstantTypeDataWriter.CACHE_LOW));
+        assertSame(ss.toData((long) ConstantTypeDataWriter.CACHE_HIGH), ss.toData((long) ConstantTypeDataWriter.CACHE_HIGH));
+        assertNotSame(ss.toData(ConstantTypeDataWriter.CACHE_HIGH + 1), ss.toData(ConstantTypeDataWriter.CACHE_HIGH + 1));
+    }
+
+    @Test
+    public void testToData_withPartitionHash_notCached() {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+        Data data = ss.toData(1, PARTITIONING_STRATEGY);
+
+        assertTrue(data.hasPartitionHash());
+        assertEquals(ss.toData("partitionKey").getPartitionHash(), data.getPartitionHash());
+        assertNotSame(ss.toData(1), data);
+        assertEquals(Integer.valueOf(1), ss.toObject(data));
+    }
+
+    @Test
+    public void testToData_enumIsCached() {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+        Data data = ss.toData(TimeUnit.SECONDS);
+
+        assertSame(data, ss.toData(TimeUnit.SECONDS));
+        assertEquals(TimeUnit.SECONDS, ss.toObject(data));
+        assertNotSame(data, ss.toData(TimeUnit.SECONDS, PARTITIONING_STRATEGY));
+    }
+
+    private static void assertSameBytesAsOutput(ByteOrder byteOrder) throws IOException {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().setByteOrder(byteOrder).build();
+        ConstantTypeDataWriter writer = new ConstantTypeDataWriter(ss.getByteOrder());
+
+        for (Object value : VALUES) {
+            BufferObjectDataOutput out = ss.createObjectDataOutput(16);
+            out.writeInt(42, ByteOrder.BIG_ENDIAN);
+            writePayload(out, value);
+
+            assertArrayEquals(String.valueOf(value), out.toByteArray(), writer.toBytes(value, 42));
+        }
+    }
+
+    private static void writePayload(BufferObjectDataOutput out, Object value) throws IOException {
+        if (value instanceof Long) {
+            out.writeInt(CONSTANT_TYPE_LONG, ByteOrder.BIG_ENDIAN);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeInt(CONSTANT_TYPE_INTEGER, ByteOrder.BIG_ENDIAN);
+            out.writeInt((Integer) value);
+        } else if (value instanceof String) {
+            out.writeInt(CONSTANT_TYPE_STRING, ByteOrder.BIG_ENDIAN);
+            out.writeUTF((String) value);
+        } else if (value instanceof byte[]) {
+            out.writeInt(CONSTANT_TYPE_BYTE_ARRAY, ByteOrder.BIG_ENDIAN);
+            out.writeByteArray((byte[]) value);
+        } else if (value instanceof Short) {
+            out.writeInt(CONSTANT_TYPE_SHORT, ByteOrder.BIG_ENDIAN);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeInt(CONSTANT_TYPE_BYTE, ByteOrder.BIG_ENDIAN);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeInt(CONSTANT_TYPE_BOOLEAN, ByteOrder.BIG_ENDIAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            out.writeInt(CONSTANT_TYPE_CHAR, ByteOrder.BIG_ENDIAN);
+            out.writeChar((Character) value);
+        }
+    }
+}
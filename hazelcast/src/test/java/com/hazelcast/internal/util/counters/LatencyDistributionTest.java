@@ -0,0 +1,74 @@
+package com.hazelcast.internal.util.counters;
+
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.util.counters.LatencyDistribution.BUCKET_COUNT;
+import static com.hazelcast.internal.util.counters.LatencyDistribution.bucket;
+import static com.hazelcast.internal.util.counters.LatencyDistribution.bucketLowerBound;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class LatencyDistributionTest {
+
+    private LatencyDistribution distribution;
+
+    @Before
+    public void setup() {
+        distribution = new LatencyDistribution();
+    }
+
+    @Test
+    public void bucket() {
+        assertEquals(0, bucket(0));
+        assertEquals(1, bucket(1));
+        assertEquals(2, bucket(2));
+        assertEquals(2, bucket(3));
+        assertEquals(3, bucket(4));
+        assertEquals(BUCKET_COUNT - 1, bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void bucketLowerBound() {
+        assertEquals(0, bucketLowerBound(0));
+        assertEquals(1, bucketLowerBound(1));
+        assertEquals(2, bucketLowerBound(2));
+        assertEquals(4, bucketLowerBound(3));
+    }
+
+    @Test
+    public void bucketLowerBound_matchesBucket() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            assertEquals(bucket, bucket(bucketLowerBound(bucket)));
+        }
+    }
+
+    @Test
+    public void record() {
+        distribution.record(0);
+        distribution.record(3);
+        distribution.record(3);
+        distribution.record(10);
+
+        assertEquals(4, distribution.count());
+        assertEquals(16, distribution.total());
+        assertEquals(10, distribution.max());
+        assertEquals(1, distribution.bucketCount(0));
+        assertEquals(2, distribution.bucketCount(2));
+        assertEquals(1, distribution.bucketCount(4));
+    }
+
+    @Test
+    public void record_whenNegative_thenRecordedAsZero() {
+        distribution.record(-5);
+
+        assertEquals(1, distribution.count());
+        assertEquals(0, distribution.total());
+        assertEquals(1, distribution.bucketCount(0));
+    }
+}
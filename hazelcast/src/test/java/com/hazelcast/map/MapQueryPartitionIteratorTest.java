@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapQueryPartitionIteratorTest extends HazelcastTestSupport {
+
+    private HazelcastInstance instance;
+    private MapProxyImpl<String, Integer> proxy;
+
+    @Before
+    public void setUp() {
+        instance = createHazelcastInstance();
+        proxy = (MapProxyImpl<String, Integer>) instance.<String, Integer>getMap(randomMapName());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void test_next_Throws_Exception_On_EmptyPartition() {
+        Predicate<String, Integer> predicate = Predicates.greaterEqual("this", 0);
+
+        Iterator<Map.Entry<String, Integer>> iterator = proxy.iterator(10, 1, predicate);
+        iterator.next();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void test_iterator_Throws_Exception_When_Predicate_Is_Null() {
+        proxy.iterator(10, 1, (Predicate<String, Integer>) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_iterator_Throws_Exception_When_Predicate_Is_PagingPredicate() {
+        proxy.iterator(10, 1, new PagingPredicate<String, Integer>(10));
+    }
+
+    @Test
+    public void test_HasNext_Returns_False_When_Nothing_Matches() {
+        putValuesToPartition(1, 100);
+        Predicate<String, Integer> predicate = Predicates.greaterEqual("this", 100);
+
+        Iterator<Map.Entry<String, Integer>> iterator = proxy.iterator(10, 1, predicate);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void test_Next_Returns_Only_Matching_Entries() {
+        putValuesToPartition(1, 100);
+        Predicate<String, Integer> predicate = Predicates.lessThan("this", 30);
+
+        Set<Integer> values = readValues(proxy.iterator(7, 1, predicate));
+
+        assertEquals(30, values.size());
+        for (Integer value : values) {
+            assertTrue(value < 30);
+        }
+    }
+
+    @Test
+    public void test_Next_Returns_Matching_Entries_When_Chunks_Are_Empty() {
+        // with a fetch size of 1, a single fetch scans far fewer entries than the partition holds
+        putValuesToPartition(1, 300);
+        Predicate<String, Integer> predicate = Predicates.greaterEqual("this", 295);
+
+        Set<Integer> values = readValues(proxy.iterator(1, 1, predicate));
+
+        assertEquals(5, values.size());
+    }
+
+    @Test
+    public void test_Remove() {
+        putValuesToPartition(1, 10);
+        Predicate<String, Integer> predicate = Predicates.equal("this", 5);
+
+        Iterator<Map.Entry<String, Integer>> iterator = proxy.iterator(10, 1, predicate);
+        iterator.next();
+        iterator.remove();
+
+        assertEquals(9, proxy.size());
+        assertFalse(proxy.containsValue(5));
+    }
+
+    private void putValuesToPartition(int partitionId, int count) {
+        for (int i = 0; i < count; i++) {
+            String key = generateKeyForPartition(instance, partitionId);
+            proxy.put(key, i);
+        }
+    }
+
+    private static Set<Integer> readValues(Iterator<Map.Entry<String, Integer>> iterator) {
+        Set<Integer> values = new HashSet<Integer>();
+        while (iterator.hasNext()) {
+            assertTrue(values.add(iterator.next().getValue()));
+        }
+        return values;
+    }
+}
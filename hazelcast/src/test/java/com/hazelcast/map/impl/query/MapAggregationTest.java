@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapAggregationTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private IMap<Integer, Person> map;
+
+    @Before
+    public void setup() {
+        Config config = getConfig();
+        String mapName = randomName();
+        config.getMapConfig(mapName).addMapIndexConfig(new MapIndexConfig("age", true));
+
+        HazelcastInstance[] cluster = createHazelcastInstanceFactory(2).newInstances(config);
+        map = cluster[0].getMap(mapName);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenAggregatorNull() {
+        map.aggregate(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenPredicateNull() {
+        map.aggregate(Aggregators.<Map.Entry<Integer, Person>>count(), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenPagingPredicate() {
+        map.aggregate(Aggregators.<Map.Entry<Integer, Person>>count(), new PagingPredicate<Integer, Person>(10));
+    }
+
+    @Test
+    public void whenMapEmpty() {
+        assertEquals(Long.valueOf(0), map.aggregate(Aggregators.<Map.Entry<Integer, Person>>count()));
+        assertEquals(Long.valueOf(0), map.aggregate(Aggregators.<Map.Entry<Integer, Person>>longSum("age")));
+        assertNull(map.aggregate(Aggregators.<Map.Entry<Integer, Person>>longAvg("age")));
+        assertNull(map.aggregate(Aggregators.<Map.Entry<Integer, Person>>longMax("age")));
+    }
+
+    @Test
+    public void whenAggregatingAllEntries() {
+        populateMap();
+
+        long expectedSum = 0;
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            expectedSum += i % 100;
+        }
+
+        assertEquals(Long.valueOf(ENTRY_COUNT), map.aggregate(Aggregators.<Map.Entry<Integer, Person>>count()));
+        assertEquals(Long.valueOf(expectedSum), map.aggregate(Aggregators.<Map.Entry<Integer, Person>>longSum("age")));
+        assertEquals((double) expectedSum / ENTRY_COUNT,
+                map.aggregate(Aggregators.<Map.Entry<Integer, Person>>longAvg("age")), 0.0001);
+        assertEquals(Long.valueOf(0), map.aggregate(Aggregators.<Map.Entry<Integer, Person>>longMin("age")));
+        assertEquals(Long.valueOf(99), map.aggregate(Aggregators.<Map.Entry<Integer, Person>>longMax("age")));
+        assertEquals(ENTRY_COUNT * 0.5, map.aggregate(Aggregators.<Map.Entry<Integer, Person>>doubleSum("weight")), 0.0001);
+    }
+
+    @Test
+    public void whenAggregatingWithIndexedPredicate() {
+        populateMap();
+
+        Predicate<Integer, Person> oldPredicate = Predicates.greaterEqual("age", 90);
+        Predicate<Integer, Person> youngPredicate = Predicates.lessThan("age", 50);
+
+        Long count = map.aggregate(Aggregators.<Map.Entry<Integer, Person>>count(), oldPredicate);
+        Long max = map.aggregate(Aggregators.<Map.Entry<Integer, Person>>longMax("age"), youngPredicate);
+
+        assertEquals(Long.valueOf(ENTRY_COUNT / 10), count);
+        assertEquals(Long.valueOf(49), max);
+    }
+
+    @Test
+    public void whenAggregatingWithNonIndexedPredicate() {
+        populateMap();
+
+        Predicate<Integer, Person> predicate = Predicates.equal("name", "name-7");
+
+        Double sum = map.aggregate(Aggregators.<Map.Entry<Integer, Person>>doubleSum("weight"), predicate);
+
+        assertEquals(0.5, sum, 0.0001);
+    }
+
+    @Test
+    public void whenCollectingDistinctValues() {
+        populateMap();
+
+        Set<Integer> expected = new HashSet<Integer>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(i);
+        }
+
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 10);
+
+        Set<Integer> result = map.aggregate(Aggregators.<Map.Entry<Integer, Person>, Integer>distinct("age"), predicate);
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void whenAggregating_thenGivenAggregatorIsNotModified() {
+        populateMap();
+        Aggregator<Map.Entry<Integer, Person>, Long> aggregator = Aggregators.count();
+
+        map.aggregate(aggregator);
+
+        assertEquals(Long.valueOf(0), aggregator.aggregate());
+    }
+
+    private void populateMap() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Person("name-" + i, i % 100, 0.5));
+        }
+    }
+
+    public static class Person implements Serializable {
+
+        private final String name;
+        private final int age;
+        private final double weight;
+
+        public Person(String name, int age, double weight) {
+            this.name = name;
+            this.age = age;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+}
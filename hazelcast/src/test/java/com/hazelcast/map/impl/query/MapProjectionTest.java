@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.impl.query.MapAggregationTest.Person;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapProjectionTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 100;
+
+    private IMap<Integer, Person> map;
+
+    @Before
+    public void setup() {
+        Config config = getConfig();
+        String mapName = randomName();
+        config.getMapConfig(mapName).addMapIndexConfig(new MapIndexConfig("age", true));
+
+        HazelcastInstance[] cluster = createHazelcastInstanceFactory(2).newInstances(config);
+        map = cluster[0].getMap(mapName);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenProjectionNull() {
+        map.project(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenPredicateNull() {
+        map.project(Projections.<Map.Entry<Integer, Person>, Integer>singleAttribute("age"), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenPagingPredicate() {
+        map.project(Projections.<Map.Entry<Integer, Person>, Integer>singleAttribute("age"),
+                new PagingPredicate<Integer, Person>(10));
+    }
+
+    @Test
+    public void whenMapEmpty() {
+        Collection<Integer> result = map.project(Projections.<Map.Entry<Integer, Person>, Integer>singleAttribute("age"));
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void whenProjectingAllEntries_thenDuplicatesAreKept() {
+        populateMap();
+
+        Collection<Integer> result = map.project(Projections.<Map.Entry<Integer, Person>, Integer>singleAttribute("age"));
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            expected.add(i % 10);
+        }
+        assertEquals(sorted(expected), sorted(result));
+    }
+
+    @Test
+    public void whenProjectingWithIndexedPredicate() {
+        populateMap();
+        Predicate<Integer, Person> predicate = Predicates.equal("age", 3);
+
+        Collection<String> result = map.project(
+                Projections.<Map.Entry<Integer, Person>, String>singleAttribute("name"), predicate);
+
+        List<String> expected = new ArrayList<String>();
+        for (int i = 3; i < ENTRY_COUNT; i += 10) {
+            expected.add("name-" + i);
+        }
+        assertEquals(sorted(expected), sorted(result));
+    }
+
+    @Test
+    public void whenProjectingMultipleAttributes() {
+        populateMap();
+        Predicate<Integer, Person> predicate = Predicates.equal("name", "name-42");
+
+        Collection<Object[]> result = map.project(
+                Projections.<Map.Entry<Integer, Person>>multiAttribute("name", "age", "weight"), predicate);
+
+        assertEquals(1, result.size());
+        assertArrayEquals(new Object[]{"name-42", 2, 0.5}, result.iterator().next());
+    }
+
+    @Test
+    public void whenProjectingWithCustomProjection() {
+        populateMap();
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 1);
+
+        Collection<Integer> result = map.project(new KeyProjection(), predicate);
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < ENTRY_COUNT; i += 10) {
+            expected.add(i);
+        }
+        assertEquals(expected, sorted(result));
+    }
+
+    private void populateMap() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Person("name-" + i, i % 10, 0.5));
+        }
+    }
+
+    private static <T extends Comparable<T>> List<T> sorted(Collection<T> collection) {
+        List<T> list = new ArrayList<T>(collection);
+        Collections.sort(list);
+        return list;
+    }
+
+    private static class KeyProjection extends Projection<Map.Entry<Integer, Person>, Integer> {
+
+        @Override
+        public Integer transform(Map.Entry<Integer, Person> input) {
+            return input.getKey();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.query.TruePredicate;
+import com.hazelcast.query.impl.predicates.RuleBasedQueryOptimizer;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+import static com.hazelcast.util.IterationType.ENTRY;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The records of a NATIVE map may be freed by the partition thread at any time, so the local scans which run on
+ * other threads must leave them to the partition operations.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapQueryEngineImpl_nativeMapTest extends HazelcastTestSupport {
+
+    private String nativeMapName = randomName();
+    private String binaryMapName = randomName();
+    private MapQueryEngineImpl queryEngine;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.getNativeMemoryConfig().setEnabled(true);
+        config.getMapConfig(nativeMapName).setInMemoryFormat(NATIVE);
+        config.getMapConfig(binaryMapName).setInMemoryFormat(BINARY);
+        HazelcastInstance hz = createHazelcastInstance(config);
+
+        MapService mapService = getNodeEngineImpl(hz).getService(MapService.SERVICE_NAME);
+        queryEngine = new MapQueryEngineImpl(mapService.getMapServiceContext(), new RuleBasedQueryOptimizer());
+    }
+
+    @Test
+    public void queryLocalPartitions_nativeMap_leavesPartitionsToPartitionOperations() throws Exception {
+        QueryResult result = queryEngine.queryLocalPartitions(nativeMapName, TruePredicate.INSTANCE, ENTRY);
+
+        assertNull(result.getPartitionIds());
+    }
+
+    @Test
+    public void aggregateLocalPartitions_nativeMap_leavesPartitionsToPartitionOperations() {
+        AggregationResult result = queryEngine.aggregateLocalPartitions(nativeMapName, TruePredicate.INSTANCE,
+                Aggregators.count());
+
+        assertNull(result.getPartitionIds());
+    }
+
+    @Test
+    public void queryLocalPartitions_binaryMap_scansLocalPartitions() throws Exception {
+        QueryResult result = queryEngine.queryLocalPartitions(binaryMapName, TruePredicate.INSTANCE, ENTRY);
+
+        assertNotNull(result.getPartitionIds());
+        assertFalse(result.getPartitionIds().isEmpty());
+    }
+}
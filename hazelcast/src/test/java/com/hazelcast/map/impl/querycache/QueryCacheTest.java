@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.map.impl.query.MapAggregationTest.Person;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class QueryCacheTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 100;
+
+    private IMap<Integer, Person> map;
+
+    @Before
+    public void setUp() {
+        String mapName = randomMapName();
+        Config config = getConfig();
+        QueryCacheConfig queryCacheConfig = new QueryCacheConfig("young");
+        queryCacheConfig.getPredicateConfig().setSql("age < 30");
+        config.getMapConfig(mapName).addQueryCacheConfig(queryCacheConfig);
+
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance[] instances = factory.newInstances(config);
+        map = instances[0].getMap(mapName);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenNameIsNull() {
+        map.getQueryCache(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNoConfigExists() {
+        map.getQueryCache("unknown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenPagingPredicate() {
+        map.getQueryCache("paging", new PagingPredicate<Integer, Person>(10), true);
+    }
+
+    @Test
+    public void whenCreated_thenPopulatedWithMatchingEntries() {
+        populateMap();
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 30);
+
+        QueryCache<Integer, Person> queryCache = map.getQueryCache("cache", predicate, true);
+
+        assertEquals(30, queryCache.size());
+        assertEquals(10, queryCache.get(10).getAge());
+        assertNull(queryCache.get(50));
+    }
+
+    @Test
+    public void whenCreatedFromConfig_thenConfiguredPredicateIsUsed() {
+        populateMap();
+
+        QueryCache<Integer, Person> queryCache = map.getQueryCache("young");
+
+        assertEquals(30, queryCache.size());
+    }
+
+    @Test
+    public void whenSameName_thenSameInstanceIsReturned() {
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 30);
+
+        QueryCache<Integer, Person> queryCache = map.getQueryCache("cache", predicate, true);
+
+        assertSame(queryCache, map.getQueryCache("cache", predicate, true));
+    }
+
+    @Test
+    public void whenMapIsUpdated_thenQueryCacheIsUpdated() {
+        populateMap();
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 30);
+        final QueryCache<Integer, Person> queryCache = map.getQueryCache("cache", predicate, true);
+
+        map.put(ENTRY_COUNT, new Person("new", 5, 5));
+        map.put(10, new Person("older", 60, 60));
+        map.remove(20);
+        map.put(50, new Person("younger", 15, 15));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(30, queryCache.size());
+                assertEquals("new", queryCache.get(ENTRY_COUNT).getName());
+                assertEquals("younger", queryCache.get(50).getName());
+                assertFalse(queryCache.containsKey(10));
+                assertFalse(queryCache.containsKey(20));
+            }
+        });
+    }
+
+    @Test
+    public void whenMapIsCleared_thenQueryCacheIsCleared() {
+        populateMap();
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 30);
+        final QueryCache<Integer, Person> queryCache = map.getQueryCache("cache", predicate, true);
+
+        map.clear();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(queryCache.isEmpty());
+            }
+        });
+    }
+
+    @Test
+    public void whenQueried_thenResultIsComputedLocally() {
+        populateMap();
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 30);
+        QueryCache<Integer, Person> queryCache = map.getQueryCache("cache", predicate, true);
+        queryCache.addIndex("age", true);
+        Predicate<Integer, Person> query = Predicates.greaterEqual("age", 20);
+
+        assertEquals(10, queryCache.keySet(query).size());
+        assertEquals(10, queryCache.values(query).size());
+        assertEquals(10, queryCache.entrySet(query).size());
+    }
+
+    @Test
+    public void whenListenerIsAdded_thenEventsAreReceived() {
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 30);
+        final AtomicInteger added = new AtomicInteger();
+        final AtomicInteger removed = new AtomicInteger();
+        map.getQueryCache("cache", new CountingListener(added, removed), predicate, true);
+
+        populateMap();
+        map.put(10, new Person("older", 60, 60));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(30, added.get());
+                assertEquals(1, removed.get());
+            }
+        });
+    }
+
+    @Test
+    public void whenNothingIsLost_thenRecoverySucceeds() {
+        populateMap();
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 30);
+        QueryCache<Integer, Person> queryCache = map.getQueryCache("cache", predicate, true);
+
+        assertTrue(queryCache.tryRecover());
+    }
+
+    @Test
+    public void whenDestroyed_thenNewInstanceIsCreated() {
+        Predicate<Integer, Person> predicate = Predicates.lessThan("age", 30);
+        QueryCache<Integer, Person> queryCache = map.getQueryCache("cache", predicate, true);
+
+        queryCache.destroy();
+
+        assertTrue(queryCache != map.getQueryCache("cache", predicate, true));
+    }
+
+    private void populateMap() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Person("name" + i, i, i));
+        }
+    }
+
+    private static class CountingListener implements EntryAddedListener<Integer, Person>,
+            EntryRemovedListener<Integer, Person> {
+
+        private final AtomicInteger added;
+        private final AtomicInteger removed;
+
+        CountingListener(AtomicInteger added, AtomicInteger removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+
+        @Override
+        public void entryAdded(EntryEvent<Integer, Person> event) {
+            added.incrementAndGet();
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<Integer, Person> event) {
+            removed.incrementAndGet();
+        }
+    }
+}
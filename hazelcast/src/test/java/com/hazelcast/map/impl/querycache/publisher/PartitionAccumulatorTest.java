@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.querycache.event.DefaultQueryCacheEventData;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PartitionAccumulatorTest {
+
+    private InternalSerializationService serializationService;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+    }
+
+    @Test
+    public void testAccumulate_assignsSequences() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, false);
+
+        QueryCacheEventData first = newEvent(1);
+        QueryCacheEventData second = newEvent(2);
+        accumulator.accumulate(first);
+        accumulator.accumulate(second);
+
+        assertEquals(1, first.getSequence());
+        assertEquals(2, second.getSequence());
+        assertEquals(2, accumulator.getHeadSequence());
+        assertEquals(2, accumulator.pendingCount());
+    }
+
+    @Test
+    public void testDrain_whenBatchIsFull() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, false);
+        for (int i = 0; i < 5; i++) {
+            accumulator.accumulate(newEvent(i));
+        }
+
+        List<QueryCacheEventData> batch = accumulator.drain(3, Long.MAX_VALUE, System.currentTimeMillis());
+
+        assertEquals(3, batch.size());
+        assertEquals(1, batch.get(0).getSequence());
+        assertEquals(3, batch.get(2).getSequence());
+        assertEquals(2, accumulator.pendingCount());
+    }
+
+    @Test
+    public void testDrain_whenBatchIsNotFullAndDelayNotPassed() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, false);
+        accumulator.accumulate(newEvent(1));
+
+        assertNull(accumulator.drain(3, Long.MAX_VALUE, System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testDrain_whenBatchIsNotFullAndDelayPassed() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, false);
+        accumulator.accumulate(newEvent(1));
+
+        List<QueryCacheEventData> batch = accumulator.drain(3, 0, System.currentTimeMillis());
+
+        assertEquals(1, batch.size());
+        assertEquals(0, accumulator.pendingCount());
+        assertNull(accumulator.drain(3, 0, System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testAccumulate_coalescesUnsentEventsOfSameKey() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, true);
+        accumulator.accumulate(newEvent(1));
+        accumulator.accumulate(newEvent(2));
+        QueryCacheEventData latest = newEvent(1);
+        accumulator.accumulate(latest);
+
+        assertEquals(1, latest.getSequence());
+        assertEquals(2, accumulator.pendingCount());
+
+        List<QueryCacheEventData> batch = accumulator.drain(10, 0, System.currentTimeMillis());
+        assertEquals(2, batch.size());
+        assertTrue(latest == batch.get(0));
+    }
+
+    @Test
+    public void testAccumulate_doesNotCoalesceSentEvents() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, true);
+        accumulator.accumulate(newEvent(1));
+        accumulator.drain(10, 0, System.currentTimeMillis());
+
+        QueryCacheEventData next = newEvent(1);
+        accumulator.accumulate(next);
+
+        assertEquals(2, next.getSequence());
+    }
+
+    @Test
+    public void testAccumulate_doesNotCoalesceAcrossKeylessEvents() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, true);
+        accumulator.accumulate(newEvent(1));
+        accumulator.accumulate(new DefaultQueryCacheEventData());
+
+        QueryCacheEventData next = newEvent(1);
+        accumulator.accumulate(next);
+
+        assertEquals(3, next.getSequence());
+        assertEquals(3, accumulator.pendingCount());
+    }
+
+    @Test
+    public void testDrain_whenCoalesced_thenDelayCountsFromFirstEvent() throws InterruptedException {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, true);
+        QueryCacheEventData first = newEvent(1);
+        accumulator.accumulate(first);
+        Thread.sleep(10);
+        accumulator.accumulate(newEvent(1));
+
+        assertNotNull(accumulator.drain(10, 10, first.getCreationTime() + 10));
+    }
+
+    @Test
+    public void testAccumulate_whenBufferOverflows_thenOldestUnsentEventsAreSkipped() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 4, false);
+        for (int i = 0; i < 6; i++) {
+            accumulator.accumulate(newEvent(i));
+        }
+
+        List<QueryCacheEventData> batch = accumulator.drain(10, 0, System.currentTimeMillis());
+
+        assertEquals(4, batch.size());
+        assertEquals(3, batch.get(0).getSequence());
+        assertEquals(6, batch.get(3).getSequence());
+    }
+
+    @Test
+    public void testSetReadCursor_resendsEvents() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 10, false);
+        for (int i = 0; i < 5; i++) {
+            accumulator.accumulate(newEvent(i));
+        }
+        accumulator.drain(10, 0, System.currentTimeMillis());
+
+        assertTrue(accumulator.setReadCursor(3));
+
+        List<QueryCacheEventData> batch = accumulator.drain(10, 0, System.currentTimeMillis());
+        assertEquals(3, batch.size());
+        assertEquals(3, batch.get(0).getSequence());
+    }
+
+    @Test
+    public void testSetReadCursor_whenSequenceIsOverwritten() {
+        PartitionAccumulator accumulator = new PartitionAccumulator(1, 4, false);
+        for (int i = 0; i < 6; i++) {
+            accumulator.accumulate(newEvent(i));
+        }
+
+        assertFalse(accumulator.setReadCursor(2));
+        assertFalse(accumulator.setReadCursor(8));
+        assertTrue(accumulator.setReadCursor(7));
+        assertEquals(0, accumulator.pendingCount());
+    }
+
+    private QueryCacheEventData newEvent(int key) {
+        DefaultQueryCacheEventData event = new DefaultQueryCacheEventData();
+        event.setDataKey(serializationService.toData(key));
+        return event;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache.subscriber;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PartitionSequencerTest {
+
+    private final PartitionSequencer sequencer = new PartitionSequencer();
+
+    @Test
+    public void testGap_marksPartitionLost() {
+        assertTrue(sequencer.onEvent(1, 1));
+        assertTrue(sequencer.onEvent(1, 3));
+
+        assertTrue(sequencer.isLost());
+        assertEquals(2, sequencer.beginRecovery());
+    }
+
+    @Test
+    public void testLateEventOfRetiredAccumulator_isDroppedAndMarksPartitionLost() {
+        assertTrue(sequencer.onEvent(1, 1));
+        assertTrue(sequencer.onEvent(2, 1));
+        assertFalse(sequencer.isLost());
+
+        assertFalse(sequencer.onEvent(1, 2));
+        assertTrue(sequencer.isLost());
+        assertEquals(2, sequencer.getAccumulatorId());
+    }
+}
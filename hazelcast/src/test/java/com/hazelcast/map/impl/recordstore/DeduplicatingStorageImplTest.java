@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class DeduplicatingStorageImplTest {
+
+    private SerializationService serializationService;
+    private RecordFactory recordFactory;
+    private DeduplicatingStorageImpl<Record> storage;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        recordFactory = new DataRecordFactory(new MapConfig(), serializationService, mock(PartitioningStrategy.class));
+        storage = new DeduplicatingStorageImpl<Record>(recordFactory, BINARY, serializationService);
+    }
+
+    @Test
+    public void put_equalValues_shareInstance() {
+        Record record1 = newRecord("value");
+        Record record2 = newRecord("value");
+        assertNotSame(record1.getValue(), record2.getValue());
+
+        storage.put(toData(1), record1);
+        storage.put(toData(2), record2);
+
+        assertSame(record1.getValue(), record2.getValue());
+        assertEquals(1, storage.getValuePool().size());
+    }
+
+    @Test
+    public void put_differentValues_notShared() {
+        storage.put(toData(1), newRecord("value1"));
+        storage.put(toData(2), newRecord("value2"));
+
+        assertEquals(2, storage.getValuePool().size());
+    }
+
+    @Test
+    public void removeRecord_releasesValue() {
+        storage.put(toData(1), newRecord("value"));
+        storage.put(toData(2), newRecord("value"));
+
+        storage.removeRecord(storage.get(toData(1)));
+        assertEquals(1, storage.getValuePool().size());
+
+        storage.removeRecord(storage.get(toData(2)));
+        assertEquals(0, storage.getValuePool().size());
+    }
+
+    @Test
+    public void put_replacingRecord_releasesPreviousValue() {
+        storage.put(toData(1), newRecord("value1"));
+        storage.put(toData(1), newRecord("value2"));
+
+        assertEquals(1, storage.getValuePool().size());
+        assertEquals(toData("value2"), storage.get(toData(1)).getValue());
+    }
+
+    @Test
+    public void put_sameRecordAgain_keepsValue() {
+        Record record = newRecord("value");
+        storage.put(toData(1), record);
+        storage.put(toData(1), record);
+
+        storage.removeRecord(record);
+        assertEquals(0, storage.getValuePool().size());
+    }
+
+    @Test
+    public void updateRecordValue_releasesOldValue() {
+        storage.put(toData(1), newRecord("value1"));
+        storage.put(toData(2), newRecord("value2"));
+
+        Record record = storage.get(toData(1));
+        storage.updateRecordValue(toData(1), record, "value2");
+
+        assertSame(storage.get(toData(2)).getValue(), record.getValue());
+        assertEquals(1, storage.getValuePool().size());
+    }
+
+    @Test
+    public void clear_emptiesPool() {
+        storage.put(toData(1), newRecord("value"));
+
+        storage.clear(false);
+
+        assertEquals(0, storage.getValuePool().size());
+        assertEquals(0, storage.getSizeEstimator().getSize());
+    }
+
+    @Test
+    public void sizeEstimator_countsSharedValueOnce() {
+        StorageImpl<Record> plainStorage = new StorageImpl<Record>(recordFactory, BINARY, serializationService);
+        plainStorage.put(toData(1), newRecord("value"));
+        plainStorage.put(toData(2), newRecord("value"));
+
+        storage.put(toData(1), newRecord("value"));
+        storage.put(toData(2), newRecord("value"));
+
+        long valueCost = toData("value").getHeapCost();
+        long expected = plainStorage.getSizeEstimator().getSize() - valueCost + ValuePool.ENTRY_COST_IN_BYTES;
+        assertEquals(expected, storage.getSizeEstimator().getSize());
+    }
+
+    @Test
+    public void sizeEstimator_isZero_afterAllRecordsRemoved() {
+        storage.put(toData(1), newRecord("value1"));
+        storage.put(toData(2), newRecord("value1"));
+        storage.updateRecordValue(toData(2), storage.get(toData(2)), "value2");
+        storage.put(toData(1), newRecord("value2"));
+
+        storage.removeRecord(storage.get(toData(1)));
+        storage.removeRecord(storage.get(toData(2)));
+
+        assertEquals(0, storage.getValuePool().size());
+        assertEquals(0, storage.getSizeEstimator().getSize());
+    }
+
+    private Record newRecord(Object value) {
+        return recordFactory.newRecord(value);
+    }
+
+    private Data toData(Object object) {
+        return serializationService.toData(object);
+    }
+}
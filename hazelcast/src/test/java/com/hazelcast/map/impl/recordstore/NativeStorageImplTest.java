@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.memory.impl.StandardMemoryManager;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class NativeStorageImplTest {
+
+    private static final long MAX_MEMORY = 64 << 20;
+
+    private InternalSerializationService serializationService;
+    private StandardMemoryManager memoryManager;
+    private NativeRecordFactory recordFactory;
+    private NativeStorageImpl<Record> storage;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        memoryManager = new StandardMemoryManager(MAX_MEMORY);
+        MapConfig mapConfig = new MapConfig("test").setInMemoryFormat(InMemoryFormat.NATIVE);
+        recordFactory = new NativeRecordFactory(mapConfig, serializationService, null);
+        storage = new NativeStorageImpl<Record>(recordFactory, memoryManager, serializationService);
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+        assertEquals(0, memoryManager.getUsedMemory());
+        memoryManager.dispose();
+        serializationService.dispose();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        Data key = toData("key");
+        Record record = newRecord("value");
+        record.setTtl(1000);
+        storage.put(key, record);
+
+        Record found = storage.get(key);
+        assertEquals(key, found.getKey());
+        assertEquals("value", serializationService.toObject(found.getValue()));
+        assertEquals(1000, found.getTtl());
+        assertEquals(1, storage.size());
+        assertTrue(storage.containsKey(key));
+    }
+
+    @Test
+    public void testRecordIsWrittenThroughAfterPut() {
+        Data key = toData("key");
+        Record record = newRecord("value");
+        storage.put(key, record);
+
+        record.setTtl(5000);
+        record.onUpdate(10);
+
+        Record found = storage.get(key);
+        assertEquals(5000, found.getTtl());
+        assertEquals(1, found.getVersion());
+        assertEquals(1, found.getHits());
+        assertEquals(10, found.getLastUpdateTime());
+    }
+
+    @Test
+    public void testUpdateRecordValue() {
+        Data key = toData("key");
+        storage.put(key, newRecord("value"));
+
+        Record record = storage.get(key);
+        storage.updateRecordValue(key, record, "a much longer value than the original one");
+
+        assertEquals("a much longer value than the original one",
+                serializationService.toObject(storage.get(key).getValue()));
+        assertEquals(memoryManager.getUsedMemory(), storage.getSizeEstimator().getSize());
+    }
+
+    @Test
+    public void testRemoveRecord_freesMemoryOnDisposeDeferredBlocks() {
+        long emptyFootprint = memoryManager.getUsedMemory();
+        Data key = toData("key");
+        storage.put(key, newRecord("value"));
+
+        storage.removeRecord(storage.get(key));
+
+        assertNull(storage.get(key));
+        assertFalse(storage.containsKey(key));
+        assertEquals(0, storage.size());
+        assertTrue(memoryManager.getUsedMemory() > emptyFootprint);
+
+        storage.disposeDeferredBlocks();
+
+        assertEquals(emptyFootprint, memoryManager.getUsedMemory());
+        assertEquals(emptyFootprint, storage.getSizeEstimator().getSize());
+    }
+
+    @Test
+    public void testSizeEstimatorReportsExactNativeUsage() {
+        for (int i = 0; i < 1000; i++) {
+            storage.put(toData(i), newRecord("value-" + i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            Data key = toData(i);
+            storage.removeRecord(storage.get(key));
+        }
+        storage.disposeDeferredBlocks();
+
+        assertEquals(500, storage.size());
+        assertEquals(memoryManager.getUsedMemory(), storage.getSizeEstimator().getSize());
+    }
+
+    @Test
+    public void testValues() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(toData(i), newRecord(i));
+        }
+
+        Set<Integer> values = new HashSet<Integer>();
+        for (Record record : storage.values()) {
+            values.add((Integer) serializationService.toObject(record.getValue()));
+        }
+        assertEquals(100, values.size());
+    }
+
+    @Test
+    public void testValuesIteration_stopsAfterBlocksAreFreed() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(toData(i), newRecord(i));
+        }
+        Iterable<Record> values = storage.values();
+        storage.removeRecord(storage.get(toData(0)));
+        storage.disposeDeferredBlocks();
+
+        assertFalse(values.iterator().hasNext());
+    }
+
+    @Test
+    public void testFetchKeys() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(toData(i), newRecord(i));
+        }
+
+        Set<Data> keys = new HashSet<Data>();
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            MapKeysWithCursor batch = storage.fetchKeys(tableIndex, 10);
+            keys.addAll(batch.getKeys());
+            tableIndex = batch.getNextTableIndexToReadFrom();
+        } while (tableIndex >= 0);
+
+        assertEquals(100, keys.size());
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(toData(i), newRecord(i));
+        }
+
+        storage.clear(false);
+
+        assertEquals(0, storage.size());
+        assertEquals(memoryManager.getUsedMemory(), storage.getSizeEstimator().getSize());
+    }
+
+    private Record newRecord(Object value) {
+        return recordFactory.newRecord(value);
+    }
+
+    private Data toData(Object object) {
+        return serializationService.toData(object);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PacketPayloadPoolTest {
+
+    private PacketPayloadPool pool = new PacketPayloadPool(4, 100);
+
+    @Test
+    public void take_whenEmpty() {
+        byte[] payload = pool.take(10);
+
+        assertEquals(10, payload.length);
+    }
+
+    @Test
+    public void take_whenReleasedPayloadOfSameSize() {
+        byte[] payload = pool.take(10);
+        pool.release(payload);
+
+        assertSame(payload, pool.take(10));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void take_whenReleasedPayloadOfDifferentSize_thenPayloadKept() {
+        byte[] payload = pool.take(10);
+        pool.release(payload);
+
+        byte[] found = pool.take(20);
+
+        assertNotSame(payload, found);
+        assertEquals(20, found.length);
+        assertEquals(1, pool.size());
+        assertSame(payload, pool.take(10));
+    }
+
+    @Test
+    public void take_whenReleasedPayloadOfDifferentSizeInSameSizeClass_thenPayloadKept() {
+        int otherSize = 10 + PacketPayloadPool.SIZE_CLASSES;
+        byte[] payload = pool.take(10);
+        pool.release(payload);
+
+        byte[] found = pool.take(otherSize);
+
+        assertNotSame(payload, found);
+        assertEquals(otherSize, found.length);
+        assertEquals(1, pool.size());
+        assertSame(payload, pool.take(10));
+    }
+
+    @Test
+    public void take_whenMixedSizes_thenAllReused() {
+        byte[] payload1 = pool.take(10);
+        byte[] payload2 = pool.take(20);
+        byte[] payload3 = pool.take(30);
+        pool.release(payload1);
+        pool.release(payload2);
+        pool.release(payload3);
+
+        assertSame(payload3, pool.take(30));
+        assertSame(payload1, pool.take(10));
+        assertSame(payload2, pool.take(20));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void release_whenTooBig() {
+        pool.release(new byte[101]);
+
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void release_whenFull() {
+        for (int k = 0; k < 5; k++) {
+            pool.release(new byte[10]);
+        }
+
+        assertEquals(4, pool.size());
+    }
+
+    @Test
+    public void release_whenFullWithMixedSizes() {
+        for (int k = 0; k < 5; k++) {
+            pool.release(new byte[10 + k]);
+        }
+
+        assertEquals(4, pool.size());
+    }
+
+    @Test
+    public void packet_releasePayload() {
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        new Packet(new byte[]{0, 0, 0, 0, 0, 0, 0, 1, 2, 3}).writeTo(buffer);
+        buffer.flip();
+
+        Packet packet = new Packet(pool);
+        assertTrue(packet.readFrom(buffer));
+        byte[] payload = packet.toByteArray();
+
+        packet.releasePayload();
+
+        assertNull(packet.toByteArray());
+        assertEquals(1, pool.size());
+        assertSame(payload, pool.take(payload.length));
+    }
+
+    @Test
+    public void packet_releasePayload_whenNotPooled() {
+        Packet packet = new Packet(new byte[]{0, 0, 0, 0, 0, 0, 0, 1, 2, 3});
+
+        packet.releasePayload();
+
+        assertEquals(10, packet.toByteArray().length);
+    }
+}
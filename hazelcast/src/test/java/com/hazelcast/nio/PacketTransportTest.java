@@ -14,6 +14,7 @@ import java.util.Random;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -94,6 +95,36 @@ public class PacketTransportTest extends HazelcastTestSupport {
         assertPacketEquals(originalPacket, clonedPacket);
     }
 
+    // This test verifies that a Packet of which the header and the payload are written separately, as done by a
+    // gathering write, can be read back as a single Packet.
+    @Test
+    public void headerAndPayloadWrittenSeparately() {
+        Packet originalPacket = new Packet(generateRandomString(1000).getBytes(), 42);
+        originalPacket.setFlag(Packet.FLAG_OP);
+
+        ByteBuffer header = ByteBuffer.allocate(100);
+        assertTrue(originalPacket.writeHeaderTo(header));
+        header.flip();
+        ByteBuffer payload = ByteBuffer.wrap(originalPacket.toByteArray());
+
+        Packet clonedPacket = new Packet();
+        assertFalse(clonedPacket.readFrom(header));
+        assertTrue(clonedPacket.readFrom(payload));
+
+        assertPacketEquals(originalPacket, clonedPacket);
+        assertEquals(originalPacket.getPartitionId(), clonedPacket.getPartitionId());
+    }
+
+    @Test
+    public void headerNotWrittenWhenNoSpace() {
+        Packet packet = new Packet("foobarbaz".getBytes());
+
+        ByteBuffer bb = ByteBuffer.allocate(5);
+
+        assertFalse(packet.writeHeaderTo(bb));
+        assertEquals(0, bb.position());
+    }
+
     private void assertPacketEquals(Packet originalPacket, Packet clonedPacket) {
         assertEquals(originalPacket.getFlags(), clonedPacket.getFlags());
         assertArrayEquals(originalPacket.toByteArray(), clonedPacket.toByteArray());
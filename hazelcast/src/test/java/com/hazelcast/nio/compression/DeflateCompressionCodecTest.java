@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.compression;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class DeflateCompressionCodecTest {
+
+    private final DeflateCompressionCodec codec = new DeflateCompressionCodec();
+
+    @Test
+    public void testRoundTrip_compressible() {
+        byte[] bytes = compressibleBytes(10000);
+
+        byte[] compressed = codec.compress(bytes, 0, bytes.length);
+
+        assertTrue(compressed.length < bytes.length / 5);
+        assertArrayEquals(bytes, decompress(compressed, bytes.length));
+    }
+
+    @Test
+    public void testRoundTrip_incompressible() {
+        byte[] bytes = new byte[10000];
+        new Random(1).nextBytes(bytes);
+
+        byte[] compressed = codec.compress(bytes, 0, bytes.length);
+
+        assertArrayEquals(bytes, decompress(compressed, bytes.length));
+    }
+
+    @Test
+    public void testRoundTrip_range() {
+        byte[] bytes = compressibleBytes(1000);
+
+        byte[] compressed = codec.compress(bytes, 100, 500);
+        byte[] decompressed = new byte[600];
+        codec.decompress(compressed, 0, compressed.length, decompressed, 100, 500);
+
+        assertArrayEquals(Arrays.copyOfRange(bytes, 100, 600), Arrays.copyOfRange(decompressed, 100, 600));
+    }
+
+    @Test
+    public void testRoundTrip_empty() {
+        byte[] compressed = codec.compress(new byte[0], 0, 0);
+
+        assertArrayEquals(new byte[0], decompress(compressed, 0));
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testDecompress_truncated() {
+        byte[] bytes = compressibleBytes(10000);
+        byte[] compressed = codec.compress(bytes, 0, bytes.length);
+
+        codec.decompress(compressed, 0, compressed.length / 2, new byte[bytes.length], 0, bytes.length);
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testDecompress_largerThanExpected() {
+        byte[] bytes = compressibleBytes(10000);
+        byte[] compressed = codec.compress(bytes, 0, bytes.length);
+
+        codec.decompress(compressed, 0, compressed.length, new byte[bytes.length], 0, bytes.length - 1);
+    }
+
+    @Test
+    public void testDecompress_returnsDecompressedLength() {
+        byte[] bytes = compressibleBytes(10000);
+        byte[] compressed = codec.compress(bytes, 0, bytes.length);
+
+        assertEquals(bytes.length, codec.decompress(compressed, 0, compressed.length, new byte[bytes.length], 0, bytes.length));
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testDecompress_corrupt() {
+        byte[] corrupt = new byte[100];
+        Arrays.fill(corrupt, (byte) -1);
+
+        decompress(corrupt, 1000);
+    }
+
+    @Test
+    public void testNewCodec_builtIn() {
+        assertTrue(CompressionCodecs.newCodec("deflate", null) instanceof DeflateCompressionCodec);
+        assertTrue(CompressionCodecs.newCodec("DEFLATE", null) instanceof DeflateCompressionCodec);
+    }
+
+    @Test
+    public void testNewCodec_className() {
+        CompressionCodec codec = CompressionCodecs.newCodec(DeflateCompressionCodec.class.getName(), null);
+
+        assertTrue(codec instanceof DeflateCompressionCodec);
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testNewCodec_unknown() {
+        CompressionCodecs.newCodec("com.hazelcast.NoSuchCodec", null);
+    }
+
+    private byte[] decompress(byte[] compressed, int length) {
+        byte[] decompressed = new byte[length];
+        codec.decompress(compressed, 0, compressed.length, decompressed, 0, length);
+        return decompressed;
+    }
+
+    static byte[] compressibleBytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) ("{\"name\":\"value\"}".charAt(i % 16));
+        }
+        return bytes;
+    }
+}
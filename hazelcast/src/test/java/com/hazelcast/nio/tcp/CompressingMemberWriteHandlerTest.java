@@ -0,0 +1,129 @@
+package com.hazelcast.nio.tcp;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.compression.DeflateCompressionCodec;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompressingMemberWriteHandlerTest extends HazelcastTestSupport {
+
+    private static final int THRESHOLD = 1024;
+    private static final int MAX_SIZE = 64 * 1024;
+
+    private InternalSerializationService serializationService;
+    private TcpIpConnection connection;
+    private CompressingMemberWriteHandler writeHandler;
+
+    @Before
+    public void setup() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        connection = mock(TcpIpConnection.class);
+        when(connection.isCompressionEnabled()).thenReturn(true);
+        writeHandler = new CompressingMemberWriteHandler(connection, new DeflateCompressionCodec(), THRESHOLD, MAX_SIZE);
+    }
+
+    @Test
+    public void whenSmallPacket_thenNotCompressed() {
+        Packet packet = new Packet(serializationService.toBytes("foobar"), 1).setFlag(Packet.FLAG_OP);
+        ByteBuffer bb = ByteBuffer.allocate(1000);
+
+        assertTrue(writeHandler.onWrite(packet, bb));
+
+        bb.flip();
+        Packet resultPacket = new Packet();
+        resultPacket.readFrom(bb);
+        assertEquals(packet, resultPacket);
+    }
+
+    @Test
+    public void whenLargePacket_thenCompressed() {
+        Packet packet = new Packet(serializationService.toBytes(largeString()), 1).setFlag(Packet.FLAG_OP);
+        ByteBuffer bb = ByteBuffer.allocate(packet.packetSize());
+
+        assertTrue(writeHandler.onWrite(packet, bb));
+
+        bb.flip();
+        Packet resultPacket = new Packet();
+        resultPacket.readFrom(bb);
+        assertTrue(resultPacket.isFlagSet(Packet.FLAG_COMPRESSED));
+        assertTrue(resultPacket.isFlagSet(Packet.FLAG_OP));
+        assertEquals(1, resultPacket.getPartitionId());
+        assertTrue(resultPacket.totalSize() < packet.totalSize() / 5);
+    }
+
+    @Test
+    public void whenCompressionNotNegotiated_thenNotCompressed() {
+        when(connection.isCompressionEnabled()).thenReturn(false);
+        Packet packet = new Packet(serializationService.toBytes(largeString()), 1).setFlag(Packet.FLAG_OP);
+        ByteBuffer bb = ByteBuffer.allocate(packet.packetSize());
+
+        assertTrue(writeHandler.onWrite(packet, bb));
+
+        bb.flip();
+        Packet resultPacket = new Packet();
+        resultPacket.readFrom(bb);
+        assertEquals(packet, resultPacket);
+        assertFalse(resultPacket.isFlagSet(Packet.FLAG_COMPRESSED));
+    }
+
+    @Test
+    public void whenPacketLargerThanMaxSize_thenNotCompressed() {
+        Packet packet = new Packet(new byte[MAX_SIZE + 1], 1).setFlag(Packet.FLAG_OP);
+        ByteBuffer bb = ByteBuffer.allocate(packet.packetSize());
+
+        assertTrue(writeHandler.onWrite(packet, bb));
+
+        bb.flip();
+        Packet resultPacket = new Packet();
+        resultPacket.readFrom(bb);
+        assertFalse(resultPacket.isFlagSet(Packet.FLAG_COMPRESSED));
+        assertEquals(MAX_SIZE + 1, resultPacket.totalSize());
+    }
+
+    @Test
+    public void whenLargePacketWrittenInParts() {
+        Packet packet = new Packet(serializationService.toBytes(largeString()), 1).setFlag(Packet.FLAG_OP);
+        ByteBuffer complete = ByteBuffer.allocate(packet.packetSize());
+        ByteBuffer bb = ByteBuffer.allocate(32);
+
+        boolean written;
+        do {
+            bb.clear();
+            written = writeHandler.onWrite(packet, bb);
+            bb.flip();
+            complete.put(bb);
+        } while (!written);
+
+        complete.flip();
+        Packet resultPacket = new Packet();
+        assertTrue(resultPacket.readFrom(complete));
+        assertTrue(resultPacket.isFlagSet(Packet.FLAG_COMPRESSED));
+        assertFalse(complete.hasRemaining());
+    }
+
+    private static String largeString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("{\"name\":\"value\"}");
+        }
+        return sb.toString();
+    }
+}
@@ -1,6 +1,9 @@
 package com.hazelcast.nio.tcp;
 
+import com.hazelcast.nio.Bits;
 import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.compression.CompressionCodec;
+import com.hazelcast.nio.compression.DeflateCompressionCodec;
 import com.hazelcast.spi.impl.packetdispatcher.PacketDispatcher;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.annotation.QuickTest;
@@ -13,13 +16,18 @@ import java.nio.ByteBuffer;
 import java.util.LinkedList;
 import java.util.List;
 
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 @RunWith(HazelcastSerialClassRunner.class)
 @Category(QuickTest.class)
 public class MemberReadHandlerTest extends TcpIpConnection_AbstractTest {
 
+    private static final int MAX_SIZE = 64 * 1024;
+
     private MockPacketDispatcher dispatcher;
     private MemberReadHandler readHandler;
     private long oldPriorityPacketsRead;
@@ -103,6 +111,102 @@ public class MemberReadHandlerTest extends TcpIpConnection_AbstractTest {
         assertEquals(oldPriorityPacketsRead + 1, socketReader.getPriorityFramesReadCounter().get());
     }
 
+    @Test
+    public void whenPayloadReleased_thenReusedForPacketOfSameSize() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(1000);
+        new Packet(serializationService.toBytes("packet1")).writeTo(buffer);
+        new Packet(serializationService.toBytes("packet2")).writeTo(buffer);
+
+        buffer.flip();
+        int limit = buffer.limit();
+        buffer.limit(limit / 2);
+        readHandler.onRead(buffer);
+
+        Packet packet1 = dispatcher.packets.get(0);
+        byte[] payload = packet1.toByteArray();
+        packet1.releasePayload();
+
+        buffer.limit(limit);
+        readHandler.onRead(buffer);
+
+        Packet packet2 = dispatcher.packets.get(1);
+        assertSame(payload, packet2.toByteArray());
+        assertEquals("packet2", serializationService.toObject(packet2));
+    }
+
+    @Test
+    public void whenCompressedPacket_thenDecompressed() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("foobar");
+        }
+        Packet packet = new Packet(serializationService.toBytes(sb.toString()), 1).setFlag(Packet.FLAG_OP);
+        ByteBuffer buffer = ByteBuffer.allocate(packet.packetSize());
+        readHandler.connection.setCompressionEnabled(true);
+        new CompressingMemberWriteHandler(readHandler.connection, new DeflateCompressionCodec(), 1024, MAX_SIZE)
+                .onWrite(packet, buffer);
+        readHandler = newDecompressingReadHandler(new DeflateCompressionCodec());
+
+        buffer.flip();
+        readHandler.onRead(buffer);
+
+        assertEquals(1, dispatcher.packets.size());
+        Packet found = dispatcher.packets.get(0);
+        assertEquals(packet, found);
+        assertFalse(found.isFlagSet(Packet.FLAG_COMPRESSED));
+        assertEquals(sb.toString(), serializationService.toObject(found));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenCompressedPacketWithNegativeSize_thenRejected() throws Exception {
+        readHandler = newDecompressingReadHandler(new DeflateCompressionCodec());
+
+        readCompressedPacket(-1, new byte[16]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenCompressedPacketLargerThanMaxSize_thenRejected() throws Exception {
+        readHandler = newDecompressingReadHandler(new DeflateCompressionCodec());
+
+        readCompressedPacket(MAX_SIZE + 1, new byte[16]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenCompressedPacketDecompressesToFewerBytes_thenRejected() throws Exception {
+        readHandler = newDecompressingReadHandler(new TruncatingCompressionCodec());
+
+        readCompressedPacket(100, new byte[16]);
+    }
+
+    private MemberReadHandler newDecompressingReadHandler(CompressionCodec codec) {
+        return new MemberReadHandler(readHandler.connection, dispatcher, codec, MAX_SIZE, null);
+    }
+
+    private void readCompressedPacket(int size, byte[] compressed) throws Exception {
+        byte[] payload = new byte[INT_SIZE_IN_BYTES + compressed.length];
+        Bits.writeIntB(payload, 0, size);
+        System.arraycopy(compressed, 0, payload, INT_SIZE_IN_BYTES, compressed.length);
+        Packet packet = new Packet(payload, 1).setAllFlags(Packet.FLAG_OP | Packet.FLAG_COMPRESSED);
+        ByteBuffer buffer = ByteBuffer.allocate(packet.packetSize());
+        packet.writeTo(buffer);
+
+        buffer.flip();
+        readHandler.onRead(buffer);
+    }
+
+    private static class TruncatingCompressionCodec implements CompressionCodec {
+
+        @Override
+        public byte[] compress(byte[] src, int offset, int length) {
+            return new byte[0];
+        }
+
+        @Override
+        public int decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength) {
+            return dstLength / 2;
+        }
+    }
+
     class MockPacketDispatcher implements PacketDispatcher {
         private List<Packet> packets = new LinkedList<Packet>();
 
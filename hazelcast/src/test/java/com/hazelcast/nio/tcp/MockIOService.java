@@ -16,12 +16,16 @@ import com.hazelcast.nio.Connection;
 import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.MemberSocketInterceptor;
 import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.PacketPayloadPool;
+import com.hazelcast.nio.compression.CompressionCodec;
+import com.hazelcast.nio.compression.DeflateCompressionCodec;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.EventFilter;
 import com.hazelcast.spi.EventRegistration;
 import com.hazelcast.spi.EventService;
 import com.hazelcast.spi.impl.PacketHandler;
 import com.hazelcast.spi.impl.packetdispatcher.PacketDispatcher;
+import com.hazelcast.spi.properties.GroupProperty;
 
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
@@ -230,6 +234,52 @@ public class MockIOService implements IOService {
         return 0;
     }
 
+    @Override
+    public int getWriteQueueCapacity() {
+        // unbound, as without connection back pressure
+        return 0;
+    }
+
+    @Override
+    public int getGatheringWriteThreshold() {
+        return Integer.parseInt(GroupProperty.IO_WRITE_GATHERING_THRESHOLD.getDefaultValue());
+    }
+
+    @Override
+    public boolean isWriteThroughEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isCompressionEnabled() {
+        return false;
+    }
+
+    @Override
+    public int getCompressionThreshold() {
+        return Integer.parseInt(GroupProperty.IO_COMPRESSION_THRESHOLD.getDefaultValue());
+    }
+
+    @Override
+    public int getCompressionMaxSize() {
+        return Integer.parseInt(GroupProperty.IO_COMPRESSION_MAX_SIZE.getDefaultValue());
+    }
+
+    @Override
+    public CompressionCodec getCompressionCodec() {
+        return new DeflateCompressionCodec();
+    }
+
+    @Override
+    public int getReadPayloadPoolSize() {
+        return Integer.parseInt(GroupProperty.IO_READ_PAYLOAD_POOL_SIZE.getDefaultValue());
+    }
+
+    @Override
+    public int getReadPayloadPoolMaxSize() {
+        return Integer.parseInt(GroupProperty.IO_READ_PAYLOAD_POOL_MAX_SIZE.getDefaultValue());
+    }
+
     @Override
     public void onDisconnect(Address endpoint, Throwable cause) {
 
@@ -393,7 +443,7 @@ public class MockIOService implements IOService {
                     logger.severe(e);
                 }
             }
-        });
+        }, null, 0, new PacketPayloadPool(getReadPayloadPoolSize(), getReadPayloadPoolMaxSize()));
     }
 
     @Override
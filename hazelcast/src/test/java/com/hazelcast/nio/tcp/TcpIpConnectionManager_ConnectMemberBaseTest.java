@@ -116,4 +116,20 @@ public abstract class TcpIpConnectionManager_ConnectMemberBaseTest extends TcpIp
         assertEquals(connManagerA.getIoService().getThisAddress(), connBA.getEndPoint());
         assertEquals(connManagerB.getIoService().getThisAddress(), connAB.getEndPoint());
     }
+
+    @Test
+    public void connect_whenSameCompressionCodec_thenCompressionEnabledOnBothSides() {
+        startAllConnectionManagers();
+
+        final TcpIpConnection connAB = connect(connManagerA, addressB);
+        final TcpIpConnection connBA = connect(connManagerB, addressA);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(connAB.isCompressionEnabled());
+                assertTrue(connBA.isCompressionEnabled());
+            }
+        });
+    }
 }
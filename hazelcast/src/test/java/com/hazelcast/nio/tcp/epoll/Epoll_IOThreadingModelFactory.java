@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.epoll;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.nio.tcp.IOThreadingModelFactory;
+import com.hazelcast.nio.tcp.MockIOService;
+
+public class Epoll_IOThreadingModelFactory implements IOThreadingModelFactory {
+
+    @Override
+    public EpollIOThreadingModel create(
+            MockIOService ioService, MetricsRegistry metricsRegistry) {
+        return new EpollIOThreadingModel(
+                ioService,
+                ioService.loggingService,
+                metricsRegistry,
+                ioService.hazelcastThreadGroup);
+    }
+}
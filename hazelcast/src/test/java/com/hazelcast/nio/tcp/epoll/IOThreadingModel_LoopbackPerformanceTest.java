@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.epoll;
+
+import com.hazelcast.internal.metrics.impl.MetricsRegistryImpl;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.tcp.IOThreadingModelFactory;
+import com.hazelcast.nio.tcp.MockIOService;
+import com.hazelcast.nio.tcp.TcpIpConnectionManager;
+import com.hazelcast.nio.tcp.nonblocking.Select_NonBlockingIOThreadingModelFactory;
+import com.hazelcast.spi.impl.PacketHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.internal.metrics.ProbeLevel.INFO;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Compares the non blocking and the native epoll {@link com.hazelcast.nio.tcp.IOThreadingModel} over loopback: member A
+ * sends packets to member B, which echoes every packet back on the io thread that read it. {@code roundTrip} measures the
+ * latency of a single packet, {@code batch} the time per packet when {@link #BATCH_SIZE} packets are in flight.
+ * <p/>
+ * The epoll model needs the hazelcast-epoll library on the {@code java.library.path}, see
+ * {@code src/main/native/hazelcast-epoll.c}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IOThreadingModel_LoopbackPerformanceTest {
+
+    private static final int WARMUP_ITERATIONS_COUNT = 10;
+    private static final int MEASUREMENT_ITERATIONS_COUNT = 20;
+
+    private static final int BATCH_SIZE = 64;
+    private static final int PAYLOAD_SIZE = 100;
+    private static final int PORT_A = 6701;
+    private static final int PORT_B = 6702;
+
+    @Param({"nonblocking", "epoll"})
+    public String threadingModel;
+
+    private final Semaphore echoes = new Semaphore(0);
+    private final byte[] payload = new byte[PAYLOAD_SIZE];
+
+    private MetricsRegistryImpl metricsRegistryA;
+    private MetricsRegistryImpl metricsRegistryB;
+    private TcpIpConnectionManager connManagerA;
+    private TcpIpConnectionManager connManagerB;
+    private Connection connection;
+
+    @Setup
+    public void setup() throws Exception {
+        IOThreadingModelFactory threadingModelFactory = "epoll".equals(threadingModel)
+                ? new Epoll_IOThreadingModelFactory()
+                : new Select_NonBlockingIOThreadingModelFactory();
+
+        MockIOService ioServiceA = new MockIOService(PORT_A);
+        metricsRegistryA = new MetricsRegistryImpl(ioServiceA.loggingService.getLogger(MetricsRegistryImpl.class), INFO);
+        connManagerA = newConnectionManager(ioServiceA, metricsRegistryA, threadingModelFactory);
+        ioServiceA.packetHandler = new PacketHandler() {
+            @Override
+            public void handle(Packet packet) {
+                packet.releasePayload();
+                echoes.release();
+            }
+        };
+
+        MockIOService ioServiceB = new MockIOService(PORT_B);
+        metricsRegistryB = new MetricsRegistryImpl(ioServiceB.loggingService.getLogger(MetricsRegistryImpl.class), INFO);
+        connManagerB = newConnectionManager(ioServiceB, metricsRegistryB, threadingModelFactory);
+        ioServiceB.packetHandler = new PacketHandler() {
+            @Override
+            public void handle(Packet packet) {
+                Packet echo = new Packet(packet.toByteArray());
+                packet.releasePayload();
+                packet.getConn().write(echo);
+            }
+        };
+
+        connManagerA.start();
+        connManagerB.start();
+
+        Address addressB = ioServiceB.thisAddress;
+        connManagerA.getOrConnect(addressB);
+        while ((connection = connManagerA.getConnection(addressB)) == null) {
+            MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static TcpIpConnectionManager newConnectionManager(MockIOService ioService, MetricsRegistryImpl metricsRegistry,
+                                                               IOThreadingModelFactory threadingModelFactory) {
+        return new TcpIpConnectionManager(
+                ioService,
+                ioService.serverSocketChannel,
+                ioService.loggingService,
+                metricsRegistry,
+                threadingModelFactory.create(ioService, metricsRegistry));
+    }
+
+    @TearDown
+    public void tearDown() {
+        connManagerA.shutdown();
+        connManagerB.shutdown();
+        metricsRegistryA.shutdown();
+        metricsRegistryB.shutdown();
+    }
+
+    @Benchmark
+    public void roundTrip() throws InterruptedException {
+        connection.write(new Packet(payload));
+        echoes.acquire();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void batch() throws InterruptedException {
+        for (int k = 0; k < BATCH_SIZE; k++) {
+            connection.write(new Packet(payload));
+        }
+        echoes.acquire(BATCH_SIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(IOThreadingModel_LoopbackPerformanceTest.class.getSimpleName())
+                .warmupIterations(WARMUP_ITERATIONS_COUNT)
+                .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+                .verbosity(VerboseMode.NORMAL)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.nonblocking;
+
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.compression.DeflateCompressionCodec;
+import com.hazelcast.nio.tcp.CompressingMemberWriteHandler;
+import com.hazelcast.nio.tcp.MemberWriteHandler;
+import com.hazelcast.nio.tcp.SocketChannelWrapper;
+import com.hazelcast.nio.tcp.SocketWriterInitializer;
+import com.hazelcast.nio.tcp.nonblocking.iobalancer.IOBalancer;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.nio.Packet.FLAG_OP;
+import static com.hazelcast.nio.Packet.FLAG_RESPONSE;
+import static com.hazelcast.nio.Packet.FLAG_URGENT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class NonBlockingSocketWriterTest {
+
+    private static final int CAPACITY = 2;
+
+    private SocketChannelWrapper socketChannel;
+    private NonBlockingIOThread ioThread;
+    private NonBlockingSocketWriter writer;
+
+    @Before
+    public void setup() throws Exception {
+        socketChannel = mock(SocketChannelWrapper.class);
+        when(socketChannel.write(any(ByteBuffer.class))).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) {
+                ByteBuffer src = (ByteBuffer) invocation.getArguments()[0];
+                int written = src.remaining();
+                src.position(src.limit());
+                return written;
+            }
+        });
+        ioThread = mock(NonBlockingIOThread.class);
+        writer = newWriter(false);
+    }
+
+    private NonBlockingSocketWriter newWriter(boolean writeThrough) {
+        return new NonBlockingSocketWriter(mock(Connection.class), socketChannel, ioThread,
+                Logger.getLogger(NonBlockingSocketWriterTest.class), mock(IOBalancer.class),
+                mock(SocketWriterInitializer.class), CAPACITY, writeThrough, 8192);
+    }
+
+    @Test
+    public void write_whenBoundedAndFull_thenRejected() {
+        assertTrue(writer.write(newInvocationPacket()));
+        assertTrue(writer.write(newInvocationPacket()));
+
+        assertFalse(writer.write(newInvocationPacket()));
+        assertEquals(CAPACITY, writer.totalFramesPending());
+    }
+
+    @Test
+    public void write_whenNotBoundedAndFull_thenAccepted() {
+        writer.write(newInvocationPacket());
+        writer.write(newInvocationPacket());
+
+        assertTrue(writer.write(new Packet(new byte[10]).setAllFlags(FLAG_OP | FLAG_RESPONSE)));
+        assertTrue(writer.write(new Packet(new byte[10]).setFlag(FLAG_OP)));
+        assertEquals(CAPACITY + 2, writer.totalFramesPending());
+    }
+
+    @Test
+    public void write_whenNotBoundedFramesFillQueue_thenBoundedRejected() {
+        writer.write(new Packet(new byte[10]).setAllFlags(FLAG_OP | FLAG_RESPONSE));
+        writer.write(new Packet(new byte[10]).setAllFlags(FLAG_OP | FLAG_RESPONSE));
+
+        assertFalse(writer.write(newInvocationPacket()));
+    }
+
+    @Test
+    public void write_whenUrgentAndFull_thenAccepted() {
+        writer.write(newInvocationPacket());
+        writer.write(newInvocationPacket());
+
+        assertTrue(writer.write(newInvocationPacket().setFlag(FLAG_URGENT)));
+    }
+
+    @Test
+    public void write_whenWriteThroughWithMemberWriteHandler_thenWrittenByCallingThread() throws Exception {
+        writer = newWriter(true);
+        writer.initWriteHandler(new MemberWriteHandler());
+        writer.initOutputBuffer(ByteBuffer.allocate(1024));
+
+        writer.write(new Packet(new byte[10]).setAllFlags(FLAG_OP | FLAG_RESPONSE));
+
+        verify(socketChannel).write(any(ByteBuffer.class));
+        verify(ioThread, never()).addTaskAndWakeup(writer);
+        assertEquals(0, writer.totalFramesPending());
+    }
+
+    @Test
+    public void write_whenWriteThroughWithCompressingWriteHandler_thenHandedOverToIoThread() throws Exception {
+        writer = newWriter(true);
+        writer.initWriteHandler(new CompressingMemberWriteHandler(
+                mock(TcpIpConnection.class), new DeflateCompressionCodec(), 0, Integer.MAX_VALUE));
+        writer.initOutputBuffer(ByteBuffer.allocate(1024));
+
+        writer.write(new Packet(new byte[10]).setAllFlags(FLAG_OP | FLAG_RESPONSE));
+
+        verify(socketChannel, never()).write(any(ByteBuffer.class));
+        verify(ioThread).addTaskAndWakeup(writer);
+    }
+
+    @Test
+    public void write_whenWriteThroughWithTask_thenHandedOverToIoThread() throws Exception {
+        writer = newWriter(true);
+        writer.initWriteHandler(new MemberWriteHandler());
+        writer.initOutputBuffer(ByteBuffer.allocate(1024));
+
+        writer.requestMigration(mock(NonBlockingIOThread.class));
+
+        verify(ioThread).addTaskAndWakeup(writer);
+    }
+
+    private static Packet newInvocationPacket() {
+        return new Packet(new byte[10]).setFlag(FLAG_OP).setBounded();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import com.hazelcast.aggregation.AggregatorsTest.Value;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.impl.CachedQueryEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.AbstractMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ProjectionsTest extends HazelcastTestSupport {
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void testConstructor() {
+        assertUtilityConstructor(Projections.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleAttribute_whenAttributePathEmpty() {
+        Projections.singleAttribute("");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiAttribute_whenNoAttributePath() {
+        Projections.multiAttribute();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiAttribute_whenAttributePathNull() {
+        Projections.multiAttribute("value", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleAttribute_whenNotExtractable() {
+        Projection<Map.Entry, Object> projection = Projections.singleAttribute("value");
+
+        projection.transform(new AbstractMap.SimpleEntry<Object, Object>(1, new Value(1)));
+    }
+
+    @Test
+    public void singleAttribute() {
+        Projection<Map.Entry, Object> projection = Projections.singleAttribute("value");
+
+        assertEquals(5, projection.transform(entry(new Value(5))));
+        assertNull(projection.transform(entry(new Value(null))));
+    }
+
+    @Test
+    public void multiAttribute() {
+        Projection<Map.Entry, Object[]> projection = Projections.multiAttribute("value", "__key");
+
+        assertArrayEquals(new Object[]{"a", 1}, projection.transform(entry(new Value("a"))));
+    }
+
+    @Test
+    public void projection_afterSerialization() {
+        Projection<Map.Entry, Object[]> projection = Projections.multiAttribute("value");
+
+        Projection<Map.Entry, Object[]> copy = serializationService.toObject(serializationService.toData(projection));
+
+        assertArrayEquals(new Object[]{"a"}, copy.transform(entry(new Value("a"))));
+    }
+
+    private CachedQueryEntry entry(Object value) {
+        return new CachedQueryEntry(serializationService, serializationService.toData(1), value, Extractors.empty());
+    }
+}
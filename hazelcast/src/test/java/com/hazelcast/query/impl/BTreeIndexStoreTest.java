@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class BTreeIndexStoreTest {
+
+    private static final int KEY_COUNT = 5000;
+    private static final int VALUE_RANGE = 100;
+
+    private InternalSerializationService serializationService;
+    private BTreeIndexStore store;
+    // key -> indexed value, the reference the store is checked against
+    private Map<Integer, Integer> expected;
+    private QueryableEntry[] entries;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        store = new BTreeIndexStore();
+        expected = new HashMap<Integer, Integer>();
+        entries = new QueryableEntry[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            entries[i] = createEntry(i);
+        }
+    }
+
+    @Test
+    public void testRandomUpdates_matchReference() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10 * KEY_COUNT; i++) {
+            int key = random.nextInt(KEY_COUNT);
+            Integer oldValue = expected.get(key);
+            if (oldValue != null && random.nextInt(3) == 0) {
+                store.removeIndex(oldValue, entries[key].getKeyData());
+                expected.remove(key);
+            } else {
+                int newValue = random.nextInt(VALUE_RANGE);
+                if (oldValue == null) {
+                    store.newIndex(newValue, entries[key]);
+                } else {
+                    store.updateIndex(oldValue, newValue, entries[key]);
+                }
+                expected.put(key, newValue);
+            }
+        }
+
+        for (int value = -1; value <= VALUE_RANGE; value++) {
+            assertKeys(keysMatching(value, value, true, true), store.getRecords(value));
+            assertKeys(keysMatching(null, value, false, false), store.getSubRecords(ComparisonType.LESSER, value));
+            assertKeys(keysMatching(null, value, false, true), store.getSubRecords(ComparisonType.LESSER_EQUAL, value));
+            assertKeys(keysMatching(value, null, false, false), store.getSubRecords(ComparisonType.GREATER, value));
+            assertKeys(keysMatching(value, null, true, false), store.getSubRecords(ComparisonType.GREATER_EQUAL, value));
+            assertKeys(keysMatching(value, value + 10, true, true), store.getSubRecordsBetween(value, value + 10));
+        }
+    }
+
+    @Test
+    public void testRemoveAll_emptiesStore() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            store.newIndex(i % VALUE_RANGE, entries[i]);
+        }
+        for (int i = 0; i < KEY_COUNT; i++) {
+            store.removeIndex(i % VALUE_RANGE, entries[i].getKeyData());
+        }
+
+        assertEquals(0, store.getSubRecords(ComparisonType.GREATER_EQUAL, 0).size());
+        assertNull(store.getRecordMap(0));
+    }
+
+    @Test
+    public void testNotEqual() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            store.newIndex(i % VALUE_RANGE, entries[i]);
+            expected.put(i, i % VALUE_RANGE);
+        }
+
+        Set<Integer> keys = keysMatching(null, null, false, false);
+        keys.removeAll(keysMatching(7, 7, true, true));
+        assertKeys(keys, store.getSubRecords(ComparisonType.NOT_EQUAL, 7));
+    }
+
+    @Test
+    public void testNullValues() {
+        store.newIndex(null, entries[0]);
+        store.newIndex(1, entries[1]);
+
+        assertEquals(1, store.getRecords(IndexImpl.NULL).size());
+        assertEquals(1, store.getRecords(1).size());
+
+        store.clear();
+        assertEquals(0, store.getRecords(IndexImpl.NULL).size());
+        assertEquals(0, store.getRecords(1).size());
+    }
+
+    private Set<Integer> keysMatching(Integer from, Integer to, boolean fromInclusive, boolean toInclusive) {
+        Set<Integer> keys = new HashSet<Integer>();
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            int value = entry.getValue();
+            boolean aboveFrom = from == null || value > from || fromInclusive && value == from;
+            boolean belowTo = to == null || value < to || toInclusive && value == to;
+            if (aboveFrom && belowTo) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    private void assertKeys(Set<Integer> expectedKeys, Set<QueryableEntry> actual) {
+        Set<Integer> actualKeys = new HashSet<Integer>();
+        for (QueryableEntry entry : actual) {
+            actualKeys.add((Integer) serializationService.toObject(entry.getKeyData()));
+        }
+        assertEquals(expectedKeys, actualKeys);
+    }
+
+    private QueryableEntry createEntry(int key) {
+        QueryableEntry entry = mock(QueryableEntry.class);
+        Data keyData = serializationService.toData(key);
+        when(entry.getKeyData()).thenReturn(keyData);
+        return entry;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.config.MapIndexConfig.IndexStoreType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import static com.hazelcast.instance.TestUtil.toData;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.notEqual;
+import static com.hazelcast.query.Predicates.or;
+import static com.hazelcast.query.Predicates.regex;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class BitmapIndexTest extends HazelcastTestSupport {
+
+    private static final int CUSTOMERS = 1000;
+    private static final String[] COUNTRIES = {"NL", "DE", "UK", "US", "PL"};
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    private IMap<Integer, Customer> map;
+    // the same data without indexes, queried by full scans
+    private IMap<Integer, Customer> referenceMap;
+
+    @Before
+    public void setUp() {
+        String name = randomMapName();
+        Config config = new Config();
+        config.getMapConfig(name)
+                .addMapIndexConfig(new MapIndexConfig("country", false).setStoreType(IndexStoreType.BITMAP))
+                .addMapIndexConfig(new MapIndexConfig("tier", true).setStoreType(IndexStoreType.BITMAP))
+                .addMapIndexConfig(new MapIndexConfig("active", false).setStoreType(IndexStoreType.BITMAP))
+                .addMapIndexConfig(new MapIndexConfig("name", false));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        map = instance.getMap(name);
+        referenceMap = instance.getMap(randomMapName());
+
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String country = i % 50 == 0 ? null : COUNTRIES[i % COUNTRIES.length];
+            Customer customer = new Customer("name" + i, country, i % 3, i % 7 != 0);
+            map.put(i, customer);
+            referenceMap.put(i, customer);
+        }
+    }
+
+    @Test
+    public void testEqualAndIn() {
+        assertQuery(equal("country", "NL"));
+        assertQuery(equal("country", null));
+        assertQuery(in("country", "NL", "UK"));
+        assertQuery(equal("tier", 2));
+    }
+
+    @Test
+    public void testRanges() {
+        assertQuery(greaterThan("tier", 0));
+        assertQuery(between("tier", 1, 2));
+    }
+
+    @Test
+    public void testAndOrNot() {
+        assertQuery(and(equal("country", "DE"), equal("tier", 1), equal("active", true)));
+        assertQuery(or(equal("country", "DE"), equal("tier", 1)));
+        assertQuery(not(equal("country", "DE")));
+        assertQuery(notEqual("country", "DE"));
+        assertQuery(and(not(in("country", "DE", "US")), equal("tier", 1)));
+        assertQuery(not(or(equal("country", "DE"), and(equal("tier", 1), equal("active", false)))));
+    }
+
+    @Test
+    public void testCombinedWithOtherIndexesAndFullScan() {
+        assertQuery(and(equal("country", "PL"), equal("name", "name4")));
+        assertQuery(and(equal("country", "PL"), regex("name", "name1.*")));
+        assertQuery(or(equal("country", "PL"), equal("name", "name3")));
+    }
+
+    @Test
+    public void testUpdatesAndRemovals() {
+        for (int i = 0; i < CUSTOMERS; i += 3) {
+            Customer customer = new Customer("name" + i, "NL", 0, true);
+            map.put(i, customer);
+            referenceMap.put(i, customer);
+        }
+        for (int i = 0; i < CUSTOMERS; i += 5) {
+            map.remove(i);
+            referenceMap.remove(i);
+        }
+        for (int i = CUSTOMERS; i < CUSTOMERS + 100; i++) {
+            Customer customer = new Customer("name" + i, "US", 2, false);
+            map.put(i, customer);
+            referenceMap.put(i, customer);
+        }
+
+        assertQuery(equal("country", "NL"));
+        assertQuery(and(equal("country", "US"), equal("tier", 2)));
+        assertQuery(not(equal("active", true)));
+    }
+
+    @Test
+    public void testResultsAreBitmaps() {
+        Indexes indexes = new Indexes(serializationService, Extractors.empty());
+        indexes.addOrGetIndex("country", false, IndexStoreType.BITMAP);
+        indexes.addOrGetIndex("tier", false, IndexStoreType.BITMAP);
+        for (int i = 0; i < 100; i++) {
+            save(indexes, i, new Customer("name" + i, COUNTRIES[i % COUNTRIES.length], i % 3, true));
+        }
+
+        Set<QueryableEntry> result = indexes.query(and(equal("country", "NL"), not(equal("tier", 0))));
+
+        assertThat(result, instanceOf(BitmapResultSet.class));
+        assertEquals(13, result.size());
+    }
+
+    @Test
+    public void testResultIgnoresEntriesAddedAfterQuery() {
+        Indexes indexes = new Indexes(serializationService, Extractors.empty());
+        indexes.addOrGetIndex("country", false, IndexStoreType.BITMAP);
+        save(indexes, 1, new Customer("name1", "NL", 0, true));
+        save(indexes, 2, new Customer("name2", "NL", 0, true));
+
+        Set<QueryableEntry> result = indexes.query(equal("country", "NL"));
+        // the ordinal of the removed entry is reused by the new one
+        indexes.removeEntryIndex(toData(1), new Customer("name1", "NL", 0, true));
+        save(indexes, 3, new Customer("name3", "DE", 0, true));
+
+        assertEquals(1, result.size());
+        assertEquals(toData(2), result.iterator().next().getKeyData());
+        Customer customer = new Customer("name2", "NL", 0, true);
+        assertTrue(result.contains(new QueryEntry(serializationService, toData(2), customer, Extractors.empty())));
+    }
+
+    private void save(Indexes indexes, int key, Customer customer) {
+        indexes.saveEntryIndex(new QueryEntry(serializationService, toData(key), customer, Extractors.empty()), null);
+    }
+
+    private void assertQuery(Predicate predicate) {
+        Set<Integer> expected = referenceMap.keySet(predicate);
+        Set<Integer> actual = map.keySet(predicate);
+        assertEquals(predicate.toString(), expected, actual);
+    }
+
+    public static class Customer implements Serializable {
+
+        public String name;
+        public String country;
+        public int tier;
+        public boolean active;
+
+        public Customer(String name, String country, int tier, boolean active) {
+            this.name = name;
+            this.country = country;
+            this.tier = tier;
+            this.active = active;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.test.HazelcastTestSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+
+/**
+ * Compares a composite index lookup of {@code customerId = ? AND status = ? AND ts > ?} with the intersection
+ * of the results of three single attribute indexes, which is what the query engine does without the composite index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompositeIndexQueryPerformanceTest extends HazelcastTestSupport {
+
+    private static final int WARMUP_ITERATIONS_COUNT = 100;
+    private static final int MEASUREMENT_ITERATIONS_COUNT = 1000;
+
+    private static final int CUSTOMERS = 1000;
+    private static final int ORDERS_PER_CUSTOMER = 100;
+    private static final String[] STATUSES = {"NEW", "PAID", "SHIPPED", "CLOSED"};
+
+    private HazelcastInstance hz;
+    private IMap<Integer, Order> singleAttributeIndexesMap;
+    private IMap<Integer, Order> compositeIndexMap;
+    private int customerId;
+
+    @Setup
+    public void setup() {
+        Config config = new Config();
+        config.getMapConfig("singleAttributeIndexes")
+                .addMapIndexConfig(new MapIndexConfig("customerId", false))
+                .addMapIndexConfig(new MapIndexConfig("status", false))
+                .addMapIndexConfig(new MapIndexConfig("ts", true));
+        config.getMapConfig("compositeIndex")
+                .addMapIndexConfig(new MapIndexConfig("customerId,status,ts", true));
+        hz = createHazelcastInstance(config);
+        singleAttributeIndexesMap = hz.getMap("singleAttributeIndexes");
+        compositeIndexMap = hz.getMap("compositeIndex");
+
+        int key = 0;
+        for (int customer = 0; customer < CUSTOMERS; customer++) {
+            for (int ts = 0; ts < ORDERS_PER_CUSTOMER; ts++) {
+                Order order = new Order(customer, STATUSES[ts % STATUSES.length], ts);
+                singleAttributeIndexesMap.put(key, order);
+                compositeIndexMap.put(key, order);
+                key++;
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        hz.shutdown();
+    }
+
+    @Benchmark
+    public Object query_singleAttributeIndexes_intersection() {
+        return singleAttributeIndexesMap.values(nextPredicate());
+    }
+
+    @Benchmark
+    public Object query_compositeIndex() {
+        return compositeIndexMap.values(nextPredicate());
+    }
+
+    private Predicate nextPredicate() {
+        customerId = (customerId + 1) % CUSTOMERS;
+        return and(equal("customerId", customerId), equal("status", "PAID"), greaterThan("ts", ORDERS_PER_CUSTOMER / 2));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CompositeIndexQueryPerformanceTest.class.getSimpleName())
+                .warmupIterations(WARMUP_ITERATIONS_COUNT)
+                .warmupTime(TimeValue.milliseconds(2))
+                .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+                .measurementTime(TimeValue.milliseconds(2))
+                .verbosity(VerboseMode.NORMAL)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    public static class Order implements Serializable {
+
+        public int customerId;
+        public String status;
+        public int ts;
+
+        public Order(int customerId, String status, int ts) {
+            this.customerId = customerId;
+            this.status = status;
+            this.ts = ts;
+        }
+    }
+}
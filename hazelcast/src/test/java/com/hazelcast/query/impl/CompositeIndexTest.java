@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.lessThan;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompositeIndexTest extends HazelcastTestSupport {
+
+    private static final int CUSTOMERS = 10;
+    private static final int ORDERS_PER_CUSTOMER = 100;
+
+    private IMap<Integer, Order> map;
+    // the same data without indexes, queried by full scans
+    private IMap<Integer, Order> referenceMap;
+
+    @Before
+    public void setUp() {
+        String name = randomMapName();
+        Config config = new Config();
+        config.getMapConfig(name)
+                .addMapIndexConfig(new MapIndexConfig("customerId, status, ts", true))
+                .addMapIndexConfig(new MapIndexConfig("customerId,status", false));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        map = instance.getMap(name);
+        referenceMap = instance.getMap(randomMapName());
+
+        int key = 0;
+        for (int customerId = 0; customerId < CUSTOMERS; customerId++) {
+            for (long ts = 0; ts < ORDERS_PER_CUSTOMER; ts++) {
+                Status status = ts % 2 == 0 ? Status.OPEN : Status.CLOSED;
+                Order order = new Order(customerId, status, ts);
+                map.put(key, order);
+                referenceMap.put(key, order);
+                key++;
+            }
+        }
+    }
+
+    @Test
+    public void testEqualityOnAllAttributes() {
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN"), equal("ts", 42L)));
+    }
+
+    @Test
+    public void testEqualityOnAllAttributes_ofUnorderedIndex() {
+        assertQuery(and(equal("status", Status.CLOSED), equal("customerId", 3)));
+    }
+
+    @Test
+    public void testRangeOnLastAttribute() {
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN"), greaterThan("ts", 42)));
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN"), greaterEqual("ts", 42)));
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN"), lessThan("ts", 42)));
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN"), greaterThan("ts", 10), lessThan("ts", 20)));
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN"), between("ts", 10, 20)));
+    }
+
+    @Test
+    public void testRangeOnMiddleAttribute() {
+        assertQuery(and(equal("customerId", 3), greaterThan("status", "CLOSED")));
+    }
+
+    @Test
+    public void testWithAdditionalPredicates() {
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN"), greaterThan("ts", 42), lessThan("ts", 90),
+                lessThan("ts", 80)));
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN"), Predicates.notEqual("ts", 50)));
+    }
+
+    @Test
+    public void testNullAttributes() {
+        map.put(-1, new Order(3, null, 1));
+        referenceMap.put(-1, new Order(3, null, 1));
+        assertQuery(and(equal("customerId", 3), equal("status", "OPEN")));
+        assertQuery(and(equal("customerId", 3), greaterEqual("ts", 0)));
+        assertQuery(and(equal("customerId", 3), lessThan("status", "OPEN")));
+    }
+
+    private void assertQuery(Predicate predicate) {
+        Set<Integer> expected = referenceMap.keySet(predicate);
+        Set<Integer> actual = map.keySet(predicate);
+        assertEquals(predicate.toString(), expected, actual);
+    }
+
+    public enum Status {
+        OPEN, CLOSED
+    }
+
+    public static class Order implements Serializable {
+
+        public int customerId;
+        public Status status;
+        public long ts;
+
+        public Order(int customerId, Status status, long ts) {
+            this.customerId = customerId;
+            this.status = status;
+            this.ts = ts;
+        }
+    }
+}
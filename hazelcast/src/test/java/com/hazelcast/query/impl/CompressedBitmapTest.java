@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompressedBitmapTest {
+
+    private final Random random = new Random();
+
+    @Test
+    public void testAddRemoveContains() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(1);
+        bitmap.add(70000);
+        bitmap.add(1);
+
+        assertTrue(bitmap.contains(1));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(2));
+        assertEquals(2, bitmap.cardinality());
+
+        bitmap.remove(1);
+        bitmap.remove(70000);
+        bitmap.remove(3);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    public void testDenseContainer() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 3 * CompressedBitmap.ARRAY_CONTAINER_MAX_SIZE; i++) {
+            bitmap.add(i);
+        }
+        assertEquals(3 * CompressedBitmap.ARRAY_CONTAINER_MAX_SIZE, bitmap.cardinality());
+
+        for (int i = 0; i < 3 * CompressedBitmap.ARRAY_CONTAINER_MAX_SIZE; i += 2) {
+            bitmap.remove(i);
+        }
+        SortedSet<Integer> expected = new TreeSet<Integer>();
+        for (int i = 1; i < 3 * CompressedBitmap.ARRAY_CONTAINER_MAX_SIZE; i += 2) {
+            expected.add(i);
+        }
+        assertEquals(expected, toSet(bitmap));
+    }
+
+    @Test
+    public void testOperations_againstSets() {
+        int[] ranges = {100, 1 << 16, 1 << 18, 1 << 20};
+        for (int round = 0; round < 100; round++) {
+            int range = ranges[round % ranges.length];
+            CompressedBitmap left = new CompressedBitmap();
+            CompressedBitmap right = new CompressedBitmap();
+            SortedSet<Integer> leftSet = new TreeSet<Integer>();
+            SortedSet<Integer> rightSet = new TreeSet<Integer>();
+            fill(left, leftSet, range);
+            fill(right, rightSet, range);
+
+            assertEquals(leftSet, toSet(left));
+            assertEquals(leftSet, toSet(left.copy()));
+
+            SortedSet<Integer> expected = new TreeSet<Integer>(leftSet);
+            expected.retainAll(rightSet);
+            assertEquals(expected, toSet(CompressedBitmap.and(left, right)));
+
+            expected = new TreeSet<Integer>(leftSet);
+            expected.addAll(rightSet);
+            assertEquals(expected, toSet(CompressedBitmap.or(left, right)));
+
+            expected = new TreeSet<Integer>(leftSet);
+            expected.removeAll(rightSet);
+            assertEquals(expected, toSet(CompressedBitmap.andNot(left, right)));
+        }
+    }
+
+    private void fill(CompressedBitmap bitmap, SortedSet<Integer> set, int range) {
+        int count = random.nextInt(20000);
+        for (int i = 0; i < count; i++) {
+            int ordinal = random.nextInt(range);
+            if (random.nextInt(4) == 0) {
+                bitmap.remove(ordinal);
+                set.remove(ordinal);
+            } else {
+                bitmap.add(ordinal);
+                set.add(ordinal);
+            }
+        }
+    }
+
+    private static SortedSet<Integer> toSet(CompressedBitmap bitmap) {
+        SortedSet<Integer> set = new TreeSet<Integer>();
+        CompressedBitmap.OrdinalIterator iterator = bitmap.iterator();
+        while (iterator.hasNext()) {
+            set.add(iterator.next());
+        }
+        assertEquals(set.size(), bitmap.cardinality());
+        return set;
+    }
+}
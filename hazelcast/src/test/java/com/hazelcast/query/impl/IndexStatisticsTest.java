@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class IndexStatisticsTest {
+
+    private static final double DELTA = 0.05;
+
+    private final IndexStatistics statistics = new IndexStatistics();
+
+    @Test
+    public void whenEmpty_thenNothingSelected() {
+        assertEquals(0, statistics.getEntryCount());
+        assertEquals(0, statistics.getDistinctValueEstimate());
+        assertEquals(0, statistics.estimateEqualSelectivity(1), 0);
+        assertEquals(0, statistics.estimateRangeSelectivity(1, true, null, false), 0);
+    }
+
+    @Test
+    public void whenEntriesAddedAndRemoved_thenEntryCountTracked() {
+        for (int i = 0; i < 100; i++) {
+            statistics.onEntryAdded(i);
+        }
+        statistics.onEntryUpdated(5);
+        statistics.onEntryRemoved();
+
+        assertEquals(99, statistics.getEntryCount());
+    }
+
+    @Test
+    public void whenLowCardinality_thenEqualSelectivityFromFrequency() {
+        for (int i = 0; i < 10000; i++) {
+            statistics.onEntryAdded(i % 4 == 0 ? "rare" : "common");
+        }
+
+        assertEquals(2, statistics.getDistinctValueEstimate());
+        assertEquals(0.25, statistics.estimateEqualSelectivity("rare"), DELTA);
+        assertEquals(0.75, statistics.estimateEqualSelectivity("common"), DELTA);
+        assertEquals(1d / IndexStatistics.SAMPLE_SIZE, statistics.estimateEqualSelectivity("missing"), 0);
+    }
+
+    @Test
+    public void whenUniqueValues_thenDistinctValuesScaledToEntryCount() {
+        for (int i = 0; i < 10000; i++) {
+            statistics.onEntryAdded(i);
+        }
+
+        assertEquals(10000, statistics.getDistinctValueEstimate());
+        assertEquals(0.0001, statistics.estimateEqualSelectivity(42), 0.001);
+    }
+
+    @Test
+    public void whenUniformValues_thenRangeSelectivityProportional() {
+        for (int i = 0; i < 10000; i++) {
+            statistics.onEntryAdded(i);
+        }
+
+        assertEquals(0.1, statistics.estimateRangeSelectivity(null, false, 1000, false), DELTA);
+        assertEquals(0.5, statistics.estimateRangeSelectivity(5000, true, null, false), DELTA);
+        assertEquals(0.25, statistics.estimateRangeSelectivity(2500, true, 5000, true), DELTA);
+        assertEquals(1, statistics.estimateRangeSelectivity(null, false, null, false), 0);
+    }
+
+    @Test
+    public void whenRangeBetweenSampledValues_thenSelectivityNotZero() {
+        for (int i = 0; i < 100; i++) {
+            statistics.onEntryAdded(i * 10);
+        }
+
+        assertEquals(0.01, statistics.estimateRangeSelectivity(1, true, 9, true), 0);
+    }
+
+    @Test
+    public void whenNullsIndexed_thenCountedButNotSampled() {
+        statistics.onEntryAdded(null);
+        statistics.onEntryAdded(1);
+
+        assertEquals(2, statistics.getEntryCount());
+        assertEquals(1, statistics.getDistinctValueEstimate());
+        assertEquals(1, statistics.estimateEqualSelectivity(1), 0);
+    }
+
+    @Test
+    public void whenIncomparableValues_thenNoEstimates() {
+        statistics.onEntryAdded(1);
+        statistics.onEntryAdded("a");
+
+        assertEquals(0, statistics.getDistinctValueEstimate());
+        assertEquals(0, statistics.estimateEqualSelectivity(1), 0);
+    }
+
+    @Test
+    public void whenCleared_thenReset() {
+        for (int i = 0; i < 100; i++) {
+            statistics.onEntryAdded(i);
+        }
+        statistics.estimateEqualSelectivity(1);
+
+        statistics.clear();
+
+        assertEquals(0, statistics.getEntryCount());
+        assertEquals(0, statistics.getDistinctValueEstimate());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.lessEqual;
+import static com.hazelcast.query.impl.CompositeValue.NEGATIVE_INFINITY;
+import static com.hazelcast.query.impl.CompositeValue.POSITIVE_INFINITY;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompositeIndexVisitorTest {
+
+    private CompositeIndexVisitor visitor;
+    private Indexes mockIndexes;
+
+    @Before
+    public void setUp() {
+        visitor = new CompositeIndexVisitor();
+        mockIndexes = mock(Indexes.class);
+        Index orderedIndex = mockIndex("a,b,c", true);
+        Index unorderedIndex = mockIndex("x,y", false);
+        when(mockIndexes.getCompositeIndexes()).thenReturn(new Index[]{orderedIndex, unorderedIndex});
+    }
+
+    @Test
+    public void whenNoCompositeIndexes_thenNotRewritten() {
+        when(mockIndexes.getCompositeIndexes()).thenReturn(new Index[0]);
+        AndPredicate and = (AndPredicate) and(equal("a", 1), equal("b", 2));
+
+        assertSame(and, visitor.visit(and, mockIndexes));
+    }
+
+    @Test
+    public void whenAllAttributesEqual_thenRewrittenToLookup() {
+        AndPredicate and = (AndPredicate) and(equal("c", 3), equal("a", 1), equal("b", 2));
+
+        Predicate result = visitor.visit(and, mockIndexes);
+
+        assertThat(result, instanceOf(CompositeEqualPredicate.class));
+        CompositeEqualPredicate equalPredicate = (CompositeEqualPredicate) result;
+        assertEquals("a,b,c", equalPredicate.indexName);
+        assertArrayEquals(new Comparable[]{1, 2, 3}, equalPredicate.value.getComponents());
+    }
+
+    @Test
+    public void whenPrefixAndRange_thenRewrittenToRangeScan() {
+        Predicate other = equal("d", 4);
+        AndPredicate and = (AndPredicate) and(equal("a", 1), equal("b", 2), greaterThan("c", 10), lessEqual("c", 20), other);
+
+        Predicate result = visitor.visit(and, mockIndexes);
+
+        assertThat(result, instanceOf(AndPredicate.class));
+        Predicate[] predicates = ((AndPredicate) result).predicates;
+        assertEquals(2, predicates.length);
+        assertSame(other, predicates[1]);
+        CompositeRangePredicate range = (CompositeRangePredicate) predicates[0];
+        assertArrayEquals(new Comparable[]{1, 2, 10, POSITIVE_INFINITY}, range.from.getComponents());
+        assertArrayEquals(new Comparable[]{1, 2, 20, POSITIVE_INFINITY}, range.to.getComponents());
+    }
+
+    @Test
+    public void whenPrefixOnly_thenRewrittenToPrefixScan() {
+        AndPredicate and = (AndPredicate) and(equal("a", 1), equal("b", 2));
+
+        CompositeRangePredicate range = (CompositeRangePredicate) visitor.visit(and, mockIndexes);
+
+        assertArrayEquals(new Comparable[]{1, 2, NEGATIVE_INFINITY, NEGATIVE_INFINITY}, range.from.getComponents());
+        assertArrayEquals(new Comparable[]{1, 2, POSITIVE_INFINITY, POSITIVE_INFINITY}, range.to.getComponents());
+    }
+
+    @Test
+    public void whenSingleAttributeMatches_thenNotRewritten() {
+        AndPredicate and = (AndPredicate) and(equal("a", 1), equal("c", 2));
+
+        assertSame(and, visitor.visit(and, mockIndexes));
+    }
+
+    @Test
+    public void whenUnorderedIndexMatchesPartially_thenNotRewritten() {
+        AndPredicate and = (AndPredicate) and(equal("x", 1), greaterThan("y", 2));
+
+        assertSame(and, visitor.visit(and, mockIndexes));
+    }
+
+    @Test
+    public void compositeValueOrdering() {
+        CompositeValue value = new CompositeValue(new Comparable[]{1, 2, 10});
+        CompositeValue inclusiveLowerBound = new CompositeValue(new Comparable[]{1, 2, 10, NEGATIVE_INFINITY});
+        CompositeValue exclusiveLowerBound = new CompositeValue(new Comparable[]{1, 2, 10, POSITIVE_INFINITY});
+
+        assertEquals(1, value.compareTo(inclusiveLowerBound));
+        assertEquals(-1, value.compareTo(exclusiveLowerBound));
+        assertEquals(1, inclusiveLowerBound.compareTo(new CompositeValue(new Comparable[]{1, 2, 9})));
+    }
+
+    private static Index mockIndex(String attributeName, boolean ordered) {
+        Index index = mock(Index.class);
+        when(index.getAttributeName()).thenReturn(attributeName);
+        when(index.isOrdered()).thenReturn(ordered);
+        return index;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.instance.TestUtil.toData;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.regex;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CostBasedQueryOptimizerTest {
+
+    private static final int ENTRY_COUNT = 10000;
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final CostBasedQueryOptimizer optimizer = new CostBasedQueryOptimizer();
+    private Indexes indexes;
+
+    @Before
+    public void setUp() {
+        indexes = new Indexes(serializationService, Extractors.empty());
+        indexes.addOrGetIndex("name", false);
+        indexes.addOrGetIndex("age", true);
+        indexes.addOrGetIndex("active", false);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Employee employee = new Employee(i + "Name", i % 80, i % 2 == 0, 100 + i % 1000);
+            indexes.saveEntryIndex(new QueryEntry(serializationService, toData(i), employee, Extractors.empty()), null);
+        }
+    }
+
+    @Test
+    public void whenNoIndexes_thenNotChanged() {
+        Predicate predicate = equal("active", true);
+
+        assertSame(predicate, optimizer.optimize(predicate, new Indexes(serializationService, Extractors.empty())));
+    }
+
+    @Test
+    public void whenSelectivePredicate_thenIndexUsed() {
+        Predicate predicate = equal("name", "140Name");
+
+        assertSame(predicate, optimizer.optimize(predicate, indexes));
+    }
+
+    @Test
+    public void whenUnselectivePredicate_thenFullScan() {
+        Predicate predicate = equal("active", true);
+
+        Predicate optimized = optimizer.optimize(predicate, indexes);
+
+        assertThat(optimized, instanceOf(UnindexedPredicate.class));
+        assertSame(predicate, ((UnindexedPredicate) optimized).predicate);
+    }
+
+    @Test
+    public void whenAnd_thenMostSelectiveIndexDrivesAndOthersFilter() {
+        Predicate active = equal("active", true);
+        Predicate age = equal("age", 60);
+        Predicate name = equal("name", "140Name");
+
+        Predicate optimized = optimizer.optimize(and(active, age, name), indexes);
+
+        assertThat(optimized, instanceOf(AndPredicate.class));
+        Predicate[] predicates = ((AndPredicate) optimized).predicates;
+        assertEquals(3, predicates.length);
+        assertSame(name, predicates[0]);
+        assertThat(predicates[1], instanceOf(UnindexedPredicate.class));
+        assertThat(predicates[2], instanceOf(UnindexedPredicate.class));
+        // the age filter rejects more entries than the active one
+        assertSame(age, ((UnindexedPredicate) predicates[1]).predicate);
+        assertEquals(1, indexes.query(optimized).size());
+    }
+
+    @Test
+    public void whenAndWithoutSelectiveIndex_thenFullScan() {
+        Predicate optimized = optimizer.optimize(and(greaterThan("age", 10), equal("active", true)), indexes);
+
+        assertThat(optimized, instanceOf(UnindexedPredicate.class));
+        assertThat(((UnindexedPredicate) optimized).predicate, instanceOf(AndPredicate.class));
+    }
+
+    @Test
+    public void whenAndWithExpensiveFilter_thenCheapFilterFirst() {
+        Predicate regex = regex("name", ".*0Name");
+        Predicate active = equal("active", true);
+        Predicate age = equal("age", 5);
+
+        Predicate optimized = optimizer.optimize(and(regex, active, age), indexes);
+
+        Predicate[] predicates = ((AndPredicate) optimized).predicates;
+        assertSame(age, predicates[0]);
+        assertSame(active, ((UnindexedPredicate) predicates[1]).predicate);
+        assertSame(regex, predicates[2]);
+    }
+
+    @Test
+    public void estimateSelectivity() {
+        assertEquals(0.5, CostBasedQueryOptimizer.estimateSelectivity(equal("active", true), indexes), 0.05);
+        assertEquals(1d / 80, CostBasedQueryOptimizer.estimateSelectivity(equal("age", 5), indexes), 0.01);
+        assertEquals(-1, CostBasedQueryOptimizer.estimateSelectivity(regex("name", ".*"), indexes), 0);
+        assertEquals(-1, CostBasedQueryOptimizer.estimateSelectivity(equal("salary", 5), indexes), 0);
+    }
+}
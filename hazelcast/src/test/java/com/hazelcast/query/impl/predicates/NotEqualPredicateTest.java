@@ -16,6 +16,7 @@
 
 package com.hazelcast.query.impl.predicates;
 
+import com.hazelcast.config.MapIndexConfig.IndexStoreType;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
@@ -34,9 +35,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -119,7 +122,18 @@ public class NotEqualPredicateTest {
     }
 
     @Test
-    public void filter_givenAttributeNameIsFoo_whenTheFooFieldIsIndex_thenReturnsNullAndDoesNotTouchQueryContext() {
+    public void isIndexed_givenAttributeNameIsFoo_whenTheFooFieldHasBitmapIndex_returnTrue() {
+        String fieldName = "name";
+
+        NotEqualPredicate name = new NotEqualPredicate(fieldName, "foo");
+        QueryContext queryContext = newMockContextWithIndex(fieldName, IndexStoreType.BITMAP);
+
+        boolean indexed = name.isIndexed(queryContext);
+        assertTrue(indexed);
+    }
+
+    @Test
+    public void filter_givenAttributeNameIsFoo_whenTheFooFieldIsIndex_thenReturnsNull() {
         /** see {@link #isIndexed_givenAttributeNameIsFoo_whenTheFooFieldIsIndexed_returnFalse()} */
         String fieldName = "foo";
         NotEqualPredicate predicate = new NotEqualPredicate(fieldName, "foo");
@@ -128,12 +142,26 @@ public class NotEqualPredicateTest {
         Set<QueryableEntry> filter = predicate.filter(queryContext);
 
         assertNull(filter);
-        verifyZeroInteractions(queryContext);
+        verify(queryContext.getIndex(fieldName), never()).getRecords(any(Comparable.class));
+    }
+
+    @Test
+    public void filter_whenNoIndex_thenReturnsNull() {
+        NotEqualPredicate predicate = new NotEqualPredicate("foo", "foo");
+
+        Set<QueryableEntry> filter = predicate.filter(mock(QueryContext.class));
+
+        assertNull(filter);
     }
 
     private QueryContext newMockContextWithIndex(String indexedFieldName) {
+        return newMockContextWithIndex(indexedFieldName, IndexStoreType.DEFAULT);
+    }
+
+    private QueryContext newMockContextWithIndex(String indexedFieldName, IndexStoreType storeType) {
         QueryContext queryContext = mock(QueryContext.class);
         Index mockIndex = mock(Index.class);
+        when(mockIndex.getStoreType()).thenReturn(storeType);
         when(queryContext.getIndex(indexedFieldName)).thenReturn(mockIndex);
 
         return queryContext;
@@ -0,0 +1,138 @@
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.LongRunningOperation;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_LONG_RUNNING_MAX_DEFER_MILLIS;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_OPERATION_THREAD_COUNT;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OperationExecutorImpl_DeferLongRunningTest extends OperationExecutorImpl_AbstractTest {
+
+    private final CountDownLatch blockLatch = new CountDownLatch(1);
+    private final List<String> executed = new CopyOnWriteArrayList<String>();
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        config.setProperty(PARTITION_OPERATION_THREAD_COUNT.getName(), "1");
+    }
+
+    @After
+    public void releaseBlockedThreads() {
+        blockLatch.countDown();
+    }
+
+    @Test
+    public void whenDisabled_thenExecutedInOrder() {
+        initExecutor();
+
+        executeBehindBlockingOperation();
+
+        assertExecutedEventually("longRunning", "short");
+    }
+
+    @Test
+    public void whenEnabled_thenShortOperationExecutedFirst() {
+        config.setProperty(OPERATION_LONG_RUNNING_MAX_DEFER_MILLIS.getName(), "60000");
+        initExecutor();
+
+        executeBehindBlockingOperation();
+
+        assertExecutedEventually("short", "longRunning");
+    }
+
+    @Test
+    public void whenEnabled_andNothingPending_thenExecutedImmediately() {
+        config.setProperty(OPERATION_LONG_RUNNING_MAX_DEFER_MILLIS.getName(), "60000");
+        initExecutor();
+
+        executor.execute(new LongRunningDummyOperation());
+
+        assertExecutedEventually("longRunning");
+    }
+
+    @Test
+    public void whenDeadlinePassed_thenExecutedBeforePendingOperations() {
+        config.setProperty(OPERATION_LONG_RUNNING_MAX_DEFER_MILLIS.getName(), "1");
+        initExecutor();
+
+        // the first short operation takes longer than the deadline; so the long running operation is executed before
+        // the second short operation.
+        executor.execute(new BlockingOperation());
+        executor.execute(new LongRunningDummyOperation());
+        executor.execute(new RecordingOperation("short1", 100));
+        executor.execute(new RecordingOperation("short2", 0));
+        blockLatch.countDown();
+
+        assertExecutedEventually("short1", "longRunning", "short2");
+    }
+
+    private void executeBehindBlockingOperation() {
+        executor.execute(new BlockingOperation());
+        executor.execute(new LongRunningDummyOperation());
+        executor.execute(new RecordingOperation("short", 0));
+        blockLatch.countDown();
+    }
+
+    private void assertExecutedEventually(final String... expected) {
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(asList(expected), executed);
+            }
+        });
+    }
+
+    private class BlockingOperation extends Operation {
+
+        BlockingOperation() {
+            setPartitionId(0);
+        }
+
+        @Override
+        public void run() throws Exception {
+            blockLatch.await();
+        }
+    }
+
+    private class RecordingOperation extends Operation {
+
+        private final String name;
+        private final int durationMs;
+
+        RecordingOperation(String name, int durationMs) {
+            this.name = name;
+            this.durationMs = durationMs;
+            setPartitionId(0);
+        }
+
+        @Override
+        public void run() throws Exception {
+            sleepMillis(durationMs);
+            executed.add(name);
+        }
+    }
+
+    private class LongRunningDummyOperation extends RecordingOperation implements LongRunningOperation {
+
+        LongRunningDummyOperation() {
+            super("longRunning", 0);
+        }
+    }
+}
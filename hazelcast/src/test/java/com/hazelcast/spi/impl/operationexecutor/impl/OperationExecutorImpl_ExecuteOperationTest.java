@@ -8,8 +8,12 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.hazelcast.spi.OperationAccessor.getEnqueueNanos;
+import static org.junit.Assert.assertTrue;
+
 @RunWith(HazelcastSerialClassRunner.class)
 @Category(QuickTest.class)
 public class OperationExecutorImpl_ExecuteOperationTest extends OperationExecutorImpl_AbstractTest {
@@ -64,4 +68,27 @@ public class OperationExecutorImpl_ExecuteOperationTest extends OperationExecuto
             }
         });
     }
+
+    @Test
+    public void whenExecuted_thenEnqueueTimeSet() {
+        initExecutor();
+
+        final AtomicLong enqueueNanos = new AtomicLong();
+
+        Operation op = new Operation() {
+            @Override
+            public void run() throws Exception {
+                enqueueNanos.set(getEnqueueNanos(this));
+            }
+        };
+        final long beforeNanos = System.nanoTime();
+        executor.execute(op.setPartitionId(0));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(enqueueNanos.get() - beforeNanos >= 0);
+            }
+        });
+    }
 }
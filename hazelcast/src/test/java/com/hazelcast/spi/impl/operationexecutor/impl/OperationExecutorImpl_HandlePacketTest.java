@@ -68,6 +68,19 @@ public class OperationExecutorImpl_HandlePacketTest extends OperationExecutorImp
         });
     }
 
+    @Test
+    public void test_whenOperationPacket_thenEnqueueTimeSet() {
+        initExecutor();
+
+        DummyOperation operation = new DummyOperation(0);
+        Packet packet = new Packet(serializationService.toBytes(operation), operation.getPartitionId())
+                .setFlag(FLAG_OP);
+        long beforeNanos = System.nanoTime();
+        executor.handle(packet);
+
+        assertTrue(packet.getEnqueueNanos() - beforeNanos >= 0);
+    }
+
     @Test
     public void test_whenGenericOperationPacket() {
         initExecutor();
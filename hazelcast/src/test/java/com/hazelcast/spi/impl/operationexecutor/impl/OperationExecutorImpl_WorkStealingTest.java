@@ -0,0 +1,237 @@
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.UrgentSystemOperation;
+import com.hazelcast.spi.impl.StealableOperation;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.nio.Packet.FLAG_OP;
+import static com.hazelcast.nio.Packet.FLAG_OP_STEALABLE;
+import static com.hazelcast.spi.properties.GroupProperty.GENERIC_OPERATION_THREAD_COUNT;
+import static com.hazelcast.spi.properties.GroupProperty.GENERIC_OPERATION_THREAD_WORK_STEALING;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_OPERATION_THREAD_HELP_GENERIC;
+import static com.hazelcast.spi.properties.GroupProperty.PRIORITY_GENERIC_OPERATION_THREAD_COUNT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OperationExecutorImpl_WorkStealingTest extends OperationExecutorImpl_AbstractTest {
+
+    private final CountDownLatch blockLatch = new CountDownLatch(1);
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        config.setProperty(GENERIC_OPERATION_THREAD_WORK_STEALING.getName(), "true");
+    }
+
+    @After
+    public void releaseBlockedThreads() {
+        blockLatch.countDown();
+    }
+
+    @Test
+    public void whenGenericOperations_thenExecutedOnGenericThreads() {
+        initExecutor();
+
+        final AtomicInteger executedOnGenericThread = new AtomicInteger();
+        final int operationCount = 1000;
+        for (int k = 0; k < operationCount; k++) {
+            executor.execute(new Operation() {
+                @Override
+                public void run() throws Exception {
+                    if (Thread.currentThread() instanceof GenericOperationThread) {
+                        executedOnGenericThread.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(operationCount, executedOnGenericThread.get());
+            }
+        });
+    }
+
+    @Test
+    public void whenPriorityGenericOperation_thenExecuted() {
+        config.setProperty(PRIORITY_GENERIC_OPERATION_THREAD_COUNT.getName(), "1");
+        initExecutor();
+
+        final CountDownLatch executed = new CountDownLatch(1);
+        executor.execute(new UrgentOperation(executed));
+
+        assertOpenEventually(executed);
+    }
+
+    @Test
+    public void whenGenericThreadBlocked_thenOperationStolenByOtherGenericThread() {
+        config.setProperty(GENERIC_OPERATION_THREAD_COUNT.getName(), "2");
+        config.setProperty(PRIORITY_GENERIC_OPERATION_THREAD_COUNT.getName(), "0");
+        initExecutor();
+
+        // if both operations are placed on the same queue, the second one is stolen by the other generic thread
+        final CountDownLatch executed = new CountDownLatch(1);
+        executor.execute(new BlockingOperation());
+        executor.execute(new Operation() {
+            @Override
+            public void run() throws Exception {
+                executed.countDown();
+            }
+        });
+
+        assertOpenEventually(executed);
+    }
+
+    @Test
+    public void whenPartitionThreadsHelp_thenGenericOperationExecutedOnIdlePartitionThread() {
+        config.setProperty(GENERIC_OPERATION_THREAD_COUNT.getName(), "1");
+        config.setProperty(PRIORITY_GENERIC_OPERATION_THREAD_COUNT.getName(), "0");
+        config.setProperty(PARTITION_OPERATION_THREAD_HELP_GENERIC.getName(), "true");
+        initExecutor();
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(new BlockingOperation(blocked));
+        assertOpenEventually(blocked);
+
+        final RecordingOperation operation = new StealableRecordingOperation();
+        executor.execute(operation);
+
+        // a partition thread only helps once it becomes idle
+        executor.execute(new DummyPartitionOperation(0));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertInstanceOf(PartitionOperationThread.class, operation.executingThread.get());
+            }
+        });
+    }
+
+    @Test
+    public void whenPartitionThreadsHelp_thenStealablePacketExecutedOnIdlePartitionThread() {
+        config.setProperty(GENERIC_OPERATION_THREAD_COUNT.getName(), "1");
+        config.setProperty(PRIORITY_GENERIC_OPERATION_THREAD_COUNT.getName(), "0");
+        config.setProperty(PARTITION_OPERATION_THREAD_HELP_GENERIC.getName(), "true");
+        initExecutor();
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(new BlockingOperation(blocked));
+        assertOpenEventually(blocked);
+
+        StealablePacketOperation.EXECUTING_THREAD.set(null);
+        Packet packet = new Packet(serializationService.toBytes(new StealablePacketOperation()), -1)
+                .setAllFlags(FLAG_OP | FLAG_OP_STEALABLE);
+        executor.handle(packet);
+        executor.execute(new DummyPartitionOperation(0));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertInstanceOf(PartitionOperationThread.class, StealablePacketOperation.EXECUTING_THREAD.get());
+            }
+        });
+    }
+
+    @Test
+    public void whenPartitionThreadsHelp_thenNonStealableGenericOperationLeftForGenericThreads() {
+        config.setProperty(GENERIC_OPERATION_THREAD_COUNT.getName(), "1");
+        config.setProperty(PRIORITY_GENERIC_OPERATION_THREAD_COUNT.getName(), "0");
+        config.setProperty(PARTITION_OPERATION_THREAD_HELP_GENERIC.getName(), "true");
+        initExecutor();
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(new BlockingOperation(blocked));
+        assertOpenEventually(blocked);
+
+        final RecordingOperation operation = new RecordingOperation();
+        executor.execute(operation);
+        executor.execute(new DummyPartitionOperation(0));
+
+        assertTrueAllTheTime(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertNull(operation.executingThread.get());
+            }
+        }, 1);
+
+        blockLatch.countDown();
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertInstanceOf(GenericOperationThread.class, operation.executingThread.get());
+            }
+        });
+    }
+
+    private class BlockingOperation extends Operation {
+
+        private final CountDownLatch blocked;
+
+        BlockingOperation() {
+            this(new CountDownLatch(1));
+        }
+
+        BlockingOperation(CountDownLatch blocked) {
+            this.blocked = blocked;
+        }
+
+        @Override
+        public void run() throws Exception {
+            blocked.countDown();
+            blockLatch.await();
+        }
+    }
+
+    private static class RecordingOperation extends Operation {
+
+        final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+
+        @Override
+        public void run() throws Exception {
+            executingThread.set(Thread.currentThread());
+        }
+    }
+
+    private static class StealableRecordingOperation extends RecordingOperation implements StealableOperation {
+    }
+
+    public static class StealablePacketOperation extends Operation implements StealableOperation {
+
+        static final AtomicReference<Thread> EXECUTING_THREAD = new AtomicReference<Thread>();
+
+        @Override
+        public void run() throws Exception {
+            EXECUTING_THREAD.set(Thread.currentThread());
+        }
+    }
+
+    private static class UrgentOperation extends Operation implements UrgentSystemOperation {
+
+        private final CountDownLatch executed;
+
+        UrgentOperation(CountDownLatch executed) {
+            this.executed = executed;
+        }
+
+        @Override
+        public void run() throws Exception {
+            executed.countDown();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.StealableOperation;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.hazelcast.nio.Packet.FLAG_OP;
+import static com.hazelcast.nio.Packet.FLAG_OP_STEALABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class WorkStealingOperationQueueTest extends HazelcastTestSupport {
+
+    private LinkedBlockingQueue<Object> priorityQueue;
+    private WorkStealingOperationQueue[] group;
+
+    @Before
+    public void setup() {
+        priorityQueue = new LinkedBlockingQueue<Object>();
+        group = WorkStealingOperationQueue.newGroup(2, priorityQueue);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void add_whenNull() {
+        group[0].add(null, false);
+    }
+
+    @Test
+    public void add_whenNormal() {
+        group[0].add(new Object(), false);
+
+        assertEquals(1, group[0].normalSize());
+        assertEquals(0, group[0].prioritySize());
+        assertEquals(0, group[1].normalSize());
+    }
+
+    @Test
+    public void add_whenPriority() {
+        Object task = new Object();
+        group[0].add(task, true);
+
+        assertEquals(1, group[0].prioritySize());
+        assertEquals(1, group[0].normalSize());
+        assertSame(task, priorityQueue.peek());
+    }
+
+    @Test
+    public void take_whenOwnTasks_thenFifo() throws Exception {
+        Object task1 = new Object();
+        Object task2 = new Object();
+        group[0].add(task1, false);
+        group[0].add(task2, false);
+
+        assertSame(task1, group[0].take(false));
+        assertSame(task2, group[0].take(false));
+        assertEquals(0, group[0].stealCount());
+    }
+
+    @Test
+    public void take_whenPriorityTask_thenTakenFirst() throws Exception {
+        Object normalTask = new Object();
+        Object priorityTask = new Object();
+        group[0].add(normalTask, false);
+        group[0].add(priorityTask, true);
+
+        assertSame(priorityTask, group[0].take(false));
+        assertSame(normalTask, group[0].take(false));
+    }
+
+    @Test
+    public void take_whenPriorityOnly() throws Exception {
+        Object priorityTask = new Object();
+        group[1].add(priorityTask, true);
+
+        assertSame(priorityTask, group[0].take(true));
+    }
+
+    @Test
+    public void take_whenOwnQueueEmpty_thenStealFromTail() throws Exception {
+        Object task1 = new Object();
+        Object task2 = new Object();
+        group[1].add(task1, false);
+        group[1].add(task2, false);
+
+        assertSame(task2, group[0].take(false));
+        assertEquals(1, group[0].stealCount());
+        assertSame(task1, group[1].take(false));
+    }
+
+    @Test
+    public void steal_whenTriggerTask_thenPriorityTaskTaken() {
+        Object priorityTask = new Object();
+        group[1].add(priorityTask, true);
+
+        assertSame(priorityTask, WorkStealingOperationQueue.steal(group, null));
+        assertEquals(0, group[1].size());
+    }
+
+    @Test
+    public void steal_whenNothingToSteal() {
+        group[0].add(new Object(), false);
+
+        assertNull(WorkStealingOperationQueue.steal(group, group[0]));
+    }
+
+    @Test
+    public void take_whenTaskAddedToOtherQueueLater_thenWokenUpAndStolen() throws Exception {
+        final Object task = new Object();
+        spawn(new Runnable() {
+            @Override
+            public void run() {
+                sleepMillis(100);
+                group[1].add(task, false);
+            }
+        });
+
+        assertSame(task, group[0].take(false));
+    }
+
+    @Test
+    public void stealStealable_whenStealableOperation_thenStolen() {
+        Object operation = new DummyStealableOperation();
+        group[1].add(operation, false);
+
+        assertSame(operation, WorkStealingOperationQueue.stealStealable(group));
+        assertEquals(0, group[1].size());
+    }
+
+    @Test
+    public void stealStealable_whenStealablePacket_thenStolen() {
+        Packet packet = new Packet(new byte[0], -1).setAllFlags(FLAG_OP | FLAG_OP_STEALABLE);
+        group[1].add(packet, false);
+
+        assertSame(packet, WorkStealingOperationQueue.stealStealable(group));
+        assertEquals(0, group[1].size());
+    }
+
+    @Test
+    public void stealStealable_whenOtherPacket_thenLeftInPlace() {
+        group[1].add(new Packet(new byte[0], -1).setFlag(FLAG_OP), false);
+
+        assertNull(WorkStealingOperationQueue.stealStealable(group));
+        assertEquals(1, group[1].normalSize());
+    }
+
+    @Test
+    public void stealStealable_whenOtherTask_thenLeftInPlace() {
+        group[0].add(new DummyStealableOperation(), false);
+        group[0].add(new Object(), false);
+        group[1].add(new Object(), true);
+
+        assertNull(WorkStealingOperationQueue.stealStealable(group));
+        assertEquals(2, group[0].normalSize());
+        assertEquals(1, group[1].normalSize());
+    }
+
+    private static class DummyStealableOperation extends Operation implements StealableOperation {
+
+        @Override
+        public void run() throws Exception {
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class AdaptiveConcurrencyLimitTest extends HazelcastTestSupport {
+
+    private static final long LATENCY_NANOS = MILLISECONDS.toNanos(1);
+
+    @Test
+    public void construct_thenLimitIsMax() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 100);
+
+        assertEquals(100, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void tryAcquire_whenLimitReached() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 2);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    public void release_thenPermitAvailable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1);
+        limit.tryAcquire();
+
+        limit.release(LATENCY_NANOS);
+
+        assertEquals(0, limit.getInFlight());
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    public void cancel_thenPermitAvailable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1);
+        limit.tryAcquire();
+
+        limit.cancel();
+
+        assertEquals(0, limit.getInFlight());
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    public void update_whenLatencyStable_thenLimitUnchanged() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1000);
+
+        limit.update(LATENCY_NANOS);
+        limit.update(LATENCY_NANOS);
+
+        assertEquals(1000, limit.getLimit());
+    }
+
+    @Test
+    public void update_whenLatencyIncreases_thenLimitShrinks() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1000);
+        limit.update(LATENCY_NANOS);
+
+        limit.update(10 * LATENCY_NANOS);
+
+        assertTrue(limit.getLimit() < 1000);
+    }
+
+    @Test
+    public void update_whenLatencyKeepsHigh_thenLimitShrinksToMin() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1000);
+        limit.update(LATENCY_NANOS);
+
+        for (int k = 0; k < 1000; k++) {
+            limit.update(10 * LATENCY_NANOS);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void update_whenLatencyRecovers_andLimitUsed_thenLimitGrows() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1000);
+        limit.update(LATENCY_NANOS);
+        for (int k = 0; k < 1000; k++) {
+            limit.update(10 * LATENCY_NANOS);
+        }
+        while (limit.tryAcquire()) {
+        }
+
+        limit.update(LATENCY_NANOS);
+
+        assertTrue(limit.getLimit() > 10);
+    }
+
+    @Test
+    public void update_whenLatencyRecovers_andLimitNotUsed_thenLimitUnchanged() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1000);
+        limit.update(LATENCY_NANOS);
+        for (int k = 0; k < 1000; k++) {
+            limit.update(10 * LATENCY_NANOS);
+        }
+
+        limit.update(LATENCY_NANOS);
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void update_whenQueueDepthExceedsLimit_thenLimitShrinks() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1000) {
+            @Override
+            int queueDepth() {
+                return 10000;
+            }
+        };
+
+        limit.update(LATENCY_NANOS);
+
+        assertTrue(limit.getLimit() < 1000);
+    }
+
+    @Test
+    public void release_whenWindowCompleted_thenLimitUpdated() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1000);
+        limit.update(LATENCY_NANOS);
+
+        sleepMillis((int) NANOSECONDS.toMillis(AdaptiveConcurrencyLimit.WINDOW_NANOS) + 10);
+        for (int k = 0; k < AdaptiveConcurrencyLimit.MIN_WINDOW_SAMPLES; k++) {
+            limit.tryAcquire();
+            limit.release(10 * LATENCY_NANOS);
+        }
+
+        assertTrue(limit.getLimit() < 1000);
+    }
+}
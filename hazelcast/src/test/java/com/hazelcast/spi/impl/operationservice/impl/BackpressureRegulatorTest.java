@@ -16,6 +16,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_ADAPTIVE_ENABLED;
 import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_ENABLED;
 import static com.hazelcast.spi.properties.GroupProperty.BACKPRESSURE_SYNCWINDOW;
 import static org.junit.Assert.assertEquals;
@@ -82,6 +83,33 @@ public class BackpressureRegulatorTest extends HazelcastTestSupport {
         assertEquals(backpressureRegulator.getMaxConcurrentInvocations(), callIdSequence.getMaxConcurrentInvocations());
     }
 
+    @Test
+    public void newCallIdSequence_whenAdaptiveBackPressureEnabled() {
+        Config config = new Config();
+        config.setProperty(BACKPRESSURE_ENABLED.getName(), "true");
+        config.setProperty(BACKPRESSURE_ADAPTIVE_ENABLED.getName(), "true");
+        HazelcastProperties hazelcastProperties = new HazelcastProperties(config);
+        BackpressureRegulator backpressureRegulator = new BackpressureRegulator(hazelcastProperties, logger);
+
+        CallIdSequence callIdSequence = backpressureRegulator.newCallIdSequence();
+
+        assertInstanceOf(CallIdSequence.CallIdSequenceWithAdaptiveBackpressure.class, callIdSequence);
+        assertEquals(backpressureRegulator.getMaxConcurrentInvocations(), callIdSequence.getMaxConcurrentInvocations());
+    }
+
+    @Test
+    public void newCallIdSequence_whenAdaptiveEnabledButBackPressureDisabled() {
+        Config config = new Config();
+        config.setProperty(BACKPRESSURE_ENABLED.getName(), "false");
+        config.setProperty(BACKPRESSURE_ADAPTIVE_ENABLED.getName(), "true");
+        HazelcastProperties hazelcastProperties = new HazelcastProperties(config);
+        BackpressureRegulator backpressureRegulator = new BackpressureRegulator(hazelcastProperties, logger);
+
+        CallIdSequence callIdSequence = backpressureRegulator.newCallIdSequence();
+
+        assertInstanceOf(CallIdSequence.CallIdSequenceWithoutBackpressure.class, callIdSequence);
+    }
+
     @Test
     public void newCallIdSequence_whenBackPressureDisabled() {
         Config config = new Config();
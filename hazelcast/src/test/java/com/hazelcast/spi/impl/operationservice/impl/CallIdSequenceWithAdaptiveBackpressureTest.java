@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.core.HazelcastOverloadException;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.BlockingOperation;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.WaitNotifyKey;
+import com.hazelcast.spi.impl.operationservice.impl.CallIdSequence.CallIdSequenceWithAdaptiveBackpressure;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.spi.OperationAccessor.setCallId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CallIdSequenceWithAdaptiveBackpressureTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT = 10;
+
+    private Address member1;
+    private Address member2;
+
+    @Before
+    public void setup() throws Exception {
+        member1 = new Address("127.0.0.1", 5701);
+        member2 = new Address("127.0.0.1", 5702);
+    }
+
+    @Test
+    public void next_thenPermitAcquired() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+        Invocation invocation = newInvocation(new DummyOperation(), member1);
+
+        long callId = sequence.next(invocation);
+
+        assertEquals(1, callId);
+        AdaptiveConcurrencyLimit limit = sequence.getLimit(invocation);
+        assertSame(limit, invocation.concurrencyLimit);
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    public void next_whenUrgent_thenNoPermitAcquired() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+        Invocation invocation = newInvocation(new DummyPriorityOperation(), member1);
+
+        sequence.next(invocation);
+
+        assertNull(invocation.concurrencyLimit);
+        assertEquals(0, sequence.getLimit(invocation).getInFlight());
+    }
+
+    @Test
+    public void complete_thenPermitReleased() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+        Invocation invocation = newInvocation(new DummyOperation(), member1);
+        setCallId(invocation.op, sequence.next(invocation));
+
+        sequence.complete(invocation);
+
+        assertNull(invocation.concurrencyLimit);
+        assertEquals(0, sequence.getLimit(invocation).getInFlight());
+        assertEquals(1, sequence.getTail());
+    }
+
+    @Test
+    public void getLimit_whenDifferentMembers_thenDifferentLimits() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+
+        AdaptiveConcurrencyLimit limit1 = sequence.getLimit(newInvocation(new DummyOperation(), member1));
+        AdaptiveConcurrencyLimit limit2 = sequence.getLimit(newInvocation(new DummyOperation(), member2));
+        AdaptiveConcurrencyLimit local = sequence.getLimit(newInvocation(new DummyOperation(), null));
+
+        assertSame(limit1, sequence.getLimit(newInvocation(new DummyOperation(), member1)));
+        assertNotSame(limit1, limit2);
+        assertNotSame(limit1, local);
+        assertSame(local, sequence.getLimit(newInvocation(new DummyOperation(), null)));
+    }
+
+    @Test
+    public void onMemberLeft_thenLimitDropped_andPendingInvocationStillCompletes() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+        Invocation invocation = newInvocation(new DummyOperation(), member1);
+        setCallId(invocation.op, sequence.next(invocation));
+        AdaptiveConcurrencyLimit oldLimit = invocation.concurrencyLimit;
+        AdaptiveConcurrencyLimit otherLimit = sequence.getLimit(newInvocation(new DummyOperation(), member2));
+
+        sequence.onMemberLeft(member1);
+
+        assertNotSame(oldLimit, sequence.getLimit(newInvocation(new DummyOperation(), member1)));
+        assertSame(otherLimit, sequence.getLimit(newInvocation(new DummyOperation(), member2)));
+
+        sequence.complete(invocation);
+        assertEquals(0, oldLimit.getInFlight());
+    }
+
+    @Test
+    public void next_whenMemberLimitReached_thenOverload() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(1, 1, PARTITION_COUNT, 100);
+        sequence.next(newInvocation(new DummyOperation(), member1));
+
+        try {
+            sequence.next(newInvocation(new DummyOperation(), member1));
+            fail();
+        } catch (HazelcastOverloadException expected) {
+            ignore(expected);
+        }
+
+        assertEquals(1, sequence.getLastCallId());
+    }
+
+    @Test
+    public void next_whenPartitionOperation_thenPartitionPermitAcquired() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+        Invocation invocation = newInvocation(new DummyOperation().setPartitionId(1), member1);
+
+        sequence.next(invocation);
+
+        AdaptiveConcurrencyLimit partitionLimit = sequence.getPartitionLimit(invocation);
+        assertSame(partitionLimit, invocation.partitionConcurrencyLimit);
+        assertEquals(1, partitionLimit.getInFlight());
+        assertEquals(1, invocation.concurrencyLimit.getInFlight());
+    }
+
+    @Test
+    public void next_whenNoPartition_thenNoPartitionPermitAcquired() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+        Invocation invocation = newInvocation(new DummyOperation(), member1);
+
+        sequence.next(invocation);
+
+        assertNull(sequence.getPartitionLimit(invocation));
+        assertNull(invocation.partitionConcurrencyLimit);
+    }
+
+    @Test
+    public void next_whenPartitionLimitReached_thenOverload_andOtherPartitionsNotLimited() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 100);
+        Invocation first = newInvocation(new DummyOperation().setPartitionId(1), member1);
+        sequence.next(first);
+
+        try {
+            sequence.next(newInvocation(new DummyOperation().setPartitionId(1), member1));
+            fail();
+        } catch (HazelcastOverloadException expected) {
+            ignore(expected);
+        }
+
+        // the member permit is only acquired after the partition permit
+        assertEquals(1, first.concurrencyLimit.getInFlight());
+        sequence.next(newInvocation(new DummyOperation().setPartitionId(2), member1));
+        assertEquals(2, first.concurrencyLimit.getInFlight());
+    }
+
+    @Test
+    public void complete_whenPartitionOperation_thenBothPermitsReleased() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+        Invocation invocation = newInvocation(new DummyOperation().setPartitionId(1), member1);
+        setCallId(invocation.op, sequence.next(invocation));
+        AdaptiveConcurrencyLimit limit = invocation.concurrencyLimit;
+        AdaptiveConcurrencyLimit partitionLimit = invocation.partitionConcurrencyLimit;
+
+        sequence.complete(invocation);
+
+        assertNull(invocation.concurrencyLimit);
+        assertNull(invocation.partitionConcurrencyLimit);
+        assertEquals(0, limit.getInFlight());
+        assertEquals(0, partitionLimit.getInFlight());
+        assertEquals(1, limit.getWindowSamples());
+        assertEquals(1, partitionLimit.getWindowSamples());
+    }
+
+    @Test
+    public void complete_whenBlockingOperation_thenLatencyNotSampled() {
+        CallIdSequenceWithAdaptiveBackpressure sequence
+                = new CallIdSequenceWithAdaptiveBackpressure(100, 1, PARTITION_COUNT, 60000);
+        Invocation invocation = newInvocation(new DummyBlockingOperation().setPartitionId(1), member1);
+        setCallId(invocation.op, sequence.next(invocation));
+        AdaptiveConcurrencyLimit limit = invocation.concurrencyLimit;
+        AdaptiveConcurrencyLimit partitionLimit = invocation.partitionConcurrencyLimit;
+
+        sequence.complete(invocation);
+
+        assertEquals(0, limit.getInFlight());
+        assertEquals(0, partitionLimit.getInFlight());
+        assertEquals(0, limit.getWindowSamples());
+        assertEquals(0, partitionLimit.getWindowSamples());
+    }
+
+    private Invocation newInvocation(Operation op, Address target) {
+        Invocation.Context context = new Invocation.Context(null, null, null, null, null, 0, null, null, null, null, null, null,
+                null, null, null, null, null, null);
+        Invocation invocation = new PartitionInvocation(context, op, 0, 0, 0, false);
+        invocation.remote = target != null;
+        invocation.invTarget = target;
+        return invocation;
+    }
+
+    private static class DummyBlockingOperation extends DummyOperation implements BlockingOperation {
+
+        @Override
+        public WaitNotifyKey getWaitKey() {
+            return null;
+        }
+
+        @Override
+        public boolean shouldWait() {
+            return false;
+        }
+
+        @Override
+        public long getWaitTimeout() {
+            return 0;
+        }
+
+        @Override
+        public void onWaitExpire() {
+        }
+    }
+}
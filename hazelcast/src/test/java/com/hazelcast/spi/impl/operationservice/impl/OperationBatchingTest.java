@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.spi.InternalCompletableFuture;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.OperationBatch;
+import com.hazelcast.test.ExceptionThrowingCallable;
+import com.hazelcast.test.ExpectedRuntimeException;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BATCHING_ENABLED;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BATCHING_MAX_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class OperationBatchingTest extends HazelcastTestSupport {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int INVOCATIONS_PER_THREAD = 500;
+
+    private HazelcastInstance local;
+    private HazelcastInstance remote;
+    private InternalOperationService operationService;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.setProperty(OPERATION_BATCHING_ENABLED.getName(), "true");
+        config.setProperty(OPERATION_BATCHING_MAX_SIZE.getName(), "4");
+
+        HazelcastInstance[] nodes = createHazelcastInstanceFactory(2).newInstances(config);
+        warmUpPartitions(nodes);
+
+        local = nodes[0];
+        remote = nodes[1];
+        operationService = getOperationService(local);
+    }
+
+    @Test
+    public void whenDisabledByDefault() {
+        HazelcastInstance hz = createHazelcastInstance();
+
+        assertNull(getOperationServiceImpl(hz).operationBatcher);
+    }
+
+    @Test
+    public void whenEnabled() {
+        assertNotNull(getOperationServiceImpl(local).operationBatcher);
+    }
+
+    @Test
+    public void isBatchable() {
+        DummyOperation op = new DummyOperation();
+        op.setPartitionId(1);
+
+        assertTrue(OperationBatcher.isBatchable(op));
+    }
+
+    @Test
+    public void isBatchable_whenNotPartitionSpecific() {
+        assertFalse(OperationBatcher.isBatchable(new DummyOperation()));
+    }
+
+    @Test
+    public void isBatchable_whenUrgent() {
+        DummyPriorityOperation op = new DummyPriorityOperation();
+        op.setPartitionId(1);
+
+        assertFalse(OperationBatcher.isBatchable(op));
+    }
+
+    @Test
+    public void isBatchable_whenBackup() {
+        Backup backup = new Backup();
+        backup.setPartitionId(1);
+
+        assertFalse(OperationBatcher.isBatchable(backup));
+    }
+
+    @Test
+    public void isBatchable_whenBatch() {
+        assertFalse(OperationBatcher.isBatchable(new OperationBatch(new Data[0], 1)));
+    }
+
+    @Test
+    public void whenConcurrentRemoteInvocations() throws Exception {
+        final int partitionId = getPartitionId(remote);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        List<InvokeThread> threads = new ArrayList<InvokeThread>();
+        for (int k = 0; k < THREAD_COUNT; k++) {
+            InvokeThread thread = new InvokeThread(k, partitionId, startLatch);
+            thread.start();
+            threads.add(thread);
+        }
+
+        startLatch.countDown();
+
+        for (InvokeThread thread : threads) {
+            thread.join();
+            assertNull(thread.failure);
+        }
+
+        OperationBatcher batcher = getOperationServiceImpl(local).operationBatcher;
+        assertTrue(batcher.batchedOperationCount.get() >= 2 * batcher.batchCount.get());
+    }
+
+    @Test
+    public void whenExceptionThrownInOperation_thenOtherOperationsNotAffected() throws Exception {
+        int partitionId = getPartitionId(remote);
+        List<InternalCompletableFuture<Object>> futures = new ArrayList<InternalCompletableFuture<Object>>();
+        for (int k = 0; k < 100; k++) {
+            Object value = k % 2 == 0 ? k : new ExceptionThrowingCallable();
+            futures.add(operationService.<Object>invokeOnPartition(null, new DummyOperation(value), partitionId));
+        }
+
+        for (int k = 0; k < futures.size(); k++) {
+            InternalCompletableFuture<Object> future = futures.get(k);
+            if (k % 2 == 0) {
+                assertEquals(k, future.join());
+            } else {
+                try {
+                    future.join();
+                    fail();
+                } catch (ExpectedRuntimeException expected) {
+                    ignore(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenOperationFailsToDeserialize_thenOtherOperationsNotAffected() throws Exception {
+        int partitionId = getPartitionId(remote);
+        List<InternalCompletableFuture<Object>> futures = new ArrayList<InternalCompletableFuture<Object>>();
+        for (int k = 0; k < 100; k++) {
+            Operation op = k % 2 == 0 ? new DummyOperation(k) : new DeserializationFailingOperation();
+            futures.add(operationService.<Object>invokeOnPartition(null, op, partitionId));
+        }
+
+        for (int k = 0; k < futures.size(); k++) {
+            InternalCompletableFuture<Object> future = futures.get(k);
+            if (k % 2 == 0) {
+                assertEquals(k, future.join());
+            } else {
+                try {
+                    future.join();
+                    fail();
+                } catch (HazelcastSerializationException expected) {
+                    ignore(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenOperationFailsToSerialize_thenOtherOperationsNotAffected() throws Exception {
+        int partitionId = getPartitionId(remote);
+        List<InternalCompletableFuture<Object>> futures = new ArrayList<InternalCompletableFuture<Object>>();
+        for (int k = 0; k < 100; k++) {
+            Operation op = k % 2 == 0 ? new DummyOperation(k) : new SerializationFailingOperation();
+            futures.add(operationService.<Object>invokeOnPartition(null, op, partitionId));
+        }
+
+        for (int k = 0; k < futures.size(); k++) {
+            InternalCompletableFuture<Object> future = futures.get(k);
+            if (k % 2 == 0) {
+                assertEquals(k, future.join());
+            } else {
+                try {
+                    future.join();
+                    fail();
+                } catch (HazelcastSerializationException expected) {
+                    ignore(expected);
+                }
+            }
+        }
+    }
+
+    public static class SerializationFailingOperation extends Operation {
+
+        @Override
+        public void run() throws Exception {
+        }
+
+        @Override
+        protected void writeInternal(ObjectDataOutput out) throws IOException {
+            throw new IOException("expected");
+        }
+    }
+
+    public static class DeserializationFailingOperation extends Operation {
+
+        @Override
+        public void run() throws Exception {
+        }
+
+        @Override
+        protected void readInternal(ObjectDataInput in) throws IOException {
+            throw new IOException("expected");
+        }
+    }
+
+    private class InvokeThread extends Thread {
+        private final int threadIndex;
+        private final int partitionId;
+        private final CountDownLatch startLatch;
+        private volatile Throwable failure;
+
+        InvokeThread(int threadIndex, int partitionId, CountDownLatch startLatch) {
+            this.threadIndex = threadIndex;
+            this.partitionId = partitionId;
+            this.startLatch = startLatch;
+        }
+
+        @Override
+        public void run() {
+            try {
+                startLatch.await();
+
+                List<InternalCompletableFuture<Object>> futures = new ArrayList<InternalCompletableFuture<Object>>();
+                for (int k = 0; k < INVOCATIONS_PER_THREAD; k++) {
+                    String value = threadIndex + "-" + k;
+                    futures.add(operationService.<Object>invokeOnPartition(null, new DummyOperation(value), partitionId));
+                }
+
+                for (int k = 0; k < INVOCATIONS_PER_THREAD; k++) {
+                    assertEquals(threadIndex + "-" + k, futures.get(k).join());
+                }
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.packetdispatcher.impl;
+
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.PacketPayloadPool;
+import com.hazelcast.spi.impl.PacketHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.nio.Packet.FLAG_OP;
+import static com.hazelcast.nio.Packet.FLAG_RESPONSE;
+
+/**
+ * Measures reading packets from a receive buffer and dispatching them through the {@link PacketDispatcherImpl}, the way
+ * the {@link com.hazelcast.nio.tcp.MemberReadHandler} does, with and without a {@link PacketPayloadPool}. The packets
+ * are a mix of operations and responses of different sizes; the handlers release the payload like the operation and
+ * response threads do once a packet has been deserialized.
+ * <p/>
+ * Run with {@code -prof gc} to compare the allocation rates as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PacketDispatcherImplPerformanceTest {
+
+    private static final int WARMUP_ITERATIONS_COUNT = 10;
+    private static final int MEASUREMENT_ITERATIONS_COUNT = 20;
+
+    private static final int PACKET_COUNT = 64;
+    private static final int[] PAYLOAD_SIZES = {48, 100, 260, 1000, 4000};
+
+    private final PacketHandler releasingHandler = new PacketHandler() {
+        @Override
+        public void handle(Packet packet) {
+            packet.releasePayload();
+        }
+    };
+
+    private PacketDispatcherImpl packetDispatcher;
+    private PacketPayloadPool payloadPool;
+    private ByteBuffer packets;
+
+    @Setup
+    public void setup() {
+        packetDispatcher = new PacketDispatcherImpl(Logger.getLogger(PacketDispatcherImplPerformanceTest.class),
+                releasingHandler, releasingHandler, releasingHandler, releasingHandler, releasingHandler);
+        payloadPool = new PacketPayloadPool(16, 16 * 1024);
+
+        Random random = new Random(0);
+        packets = ByteBuffer.allocate(PACKET_COUNT * (PAYLOAD_SIZES[PAYLOAD_SIZES.length - 1] + 64));
+        for (int k = 0; k < PACKET_COUNT; k++) {
+            int flags = k % 2 == 0 ? FLAG_OP : FLAG_OP | FLAG_RESPONSE;
+            int size = PAYLOAD_SIZES[random.nextInt(PAYLOAD_SIZES.length)];
+            new Packet(new byte[size], k).setAllFlags(flags).writeTo(packets);
+        }
+        packets.flip();
+    }
+
+    @Benchmark
+    public int dispatch_pooledPayloads() {
+        return readAndDispatch(payloadPool);
+    }
+
+    @Benchmark
+    public int dispatch_allocatedPayloads() {
+        return readAndDispatch(null);
+    }
+
+    private int readAndDispatch(PacketPayloadPool pool) {
+        ByteBuffer src = packets.duplicate();
+        int count = 0;
+        while (src.hasRemaining()) {
+            Packet packet = pool == null ? new Packet() : new Packet(pool);
+            packet.readFrom(src);
+            packetDispatcher.dispatch(packet);
+            count++;
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PacketDispatcherImplPerformanceTest.class.getSimpleName())
+                .warmupIterations(WARMUP_ITERATIONS_COUNT)
+                .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+                .verbosity(VerboseMode.NORMAL)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
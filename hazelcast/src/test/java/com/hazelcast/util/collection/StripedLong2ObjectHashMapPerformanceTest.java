@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the {@link StripedLong2ObjectHashMap} with the {@link ConcurrentHashMap} for the access pattern of the
+ * InvocationRegistry: a sequential call id is registered, looked up when the response arrives and deregistered.
+ * <p/>
+ * Run with '-prof gc' to see the difference in allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class StripedLong2ObjectHashMapPerformanceTest {
+
+    private static final int CONCURRENCY_LEVEL = 64;
+    private static final int INITIAL_CAPACITY = 1000;
+    private static final int WARMUP_ITERATIONS_COUNT = 5;
+    private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+
+    private final Object value = new Object();
+    private final AtomicLong callIdSequence = new AtomicLong();
+    private final ConcurrentHashMap<Long, Object> concurrentHashMap
+            = new ConcurrentHashMap<Long, Object>(INITIAL_CAPACITY, 0.75f, CONCURRENCY_LEVEL);
+    private final StripedLong2ObjectHashMap<Object> stripedMap
+            = new StripedLong2ObjectHashMap<Object>(CONCURRENCY_LEVEL, INITIAL_CAPACITY);
+
+    @Benchmark
+    public Object concurrentHashMap() {
+        long callId = callIdSequence.incrementAndGet();
+        concurrentHashMap.put(callId, value);
+        Object found = concurrentHashMap.get(callId);
+        concurrentHashMap.remove(callId);
+        return found;
+    }
+
+    @Benchmark
+    public Object stripedLong2ObjectHashMap() {
+        long callId = callIdSequence.incrementAndGet();
+        stripedMap.put(callId, value);
+        Object found = stripedMap.get(callId);
+        stripedMap.remove(callId);
+        return found;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StripedLong2ObjectHashMapPerformanceTest.class.getSimpleName())
+                .warmupIterations(WARMUP_ITERATIONS_COUNT)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+                .measurementTime(TimeValue.seconds(1))
+                .verbosity(VerboseMode.NORMAL)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class StripedLong2ObjectHashMapTest {
+
+    private final StripedLong2ObjectHashMap<String> map = new StripedLong2ObjectHashMap<String>(4, 16);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construct_whenZeroStripes() {
+        new StripedLong2ObjectHashMap<String>(0, 16);
+    }
+
+    @Test
+    public void put_thenGet() {
+        assertNull(map.put(1, "1"));
+
+        assertEquals("1", map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void put_whenExisting_thenReplaced() {
+        map.put(1, "1");
+
+        assertEquals("1", map.put(1, "2"));
+        assertEquals("2", map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void get_whenNotFound() {
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void remove() {
+        map.put(1, "1");
+
+        assertEquals("1", map.remove(1));
+        assertNull(map.get(1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void remove_whenNotFound() {
+        assertNull(map.remove(1));
+    }
+
+    @Test
+    public void removeWithValue_whenMatching() {
+        String value = "1";
+        map.put(1, value);
+
+        assertTrue(map.remove(1, value));
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void removeWithValue_whenNotMatching() {
+        map.put(1, "1");
+
+        assertFalse(map.remove(1, "2"));
+        assertEquals("1", map.get(1));
+    }
+
+    @Test
+    public void manyKeys() {
+        for (int k = 0; k < 10000; k++) {
+            map.put(k, "" + k);
+        }
+
+        assertEquals(10000, map.size());
+        for (int k = 0; k < 10000; k++) {
+            assertEquals("" + k, map.get(k));
+        }
+    }
+
+    @Test
+    public void clear() {
+        for (int k = 0; k < 100; k++) {
+            map.put(k, "" + k);
+        }
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void values() {
+        for (int k = 0; k < 100; k++) {
+            map.put(k, "" + k);
+        }
+
+        List<String> values = map.values();
+
+        assertEquals(100, values.size());
+        for (int k = 0; k < 100; k++) {
+            assertTrue(values.contains("" + k));
+        }
+    }
+
+    @Test
+    public void entrySet() {
+        for (int k = 0; k < 100; k++) {
+            map.put(k, "" + k);
+        }
+
+        Set<Map.Entry<Long, String>> entries = map.entrySet();
+
+        assertEquals(100, entries.size());
+        for (Map.Entry<Long, String> entry : entries) {
+            assertEquals("" + entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Test
+    public void entrySet_isSnapshot() {
+        map.put(1, "1");
+        Set<Map.Entry<Long, String>> entries = map.entrySet();
+
+        map.put(2, "2");
+        map.remove(1);
+
+        assertEquals(1, entries.size());
+        assertEquals(1L, entries.iterator().next().getKey().longValue());
+    }
+
+    @Test
+    public void entrySet_iteratorRemove() {
+        map.put(1, "1");
+        map.put(2, "2");
+
+        Iterator<Map.Entry<Long, String>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() == 1L) {
+                it.remove();
+            }
+        }
+
+        assertNull(map.get(1));
+        assertEquals("2", map.get(2));
+    }
+
+    @Test
+    public void entrySet_iteratorRemove_whenValueChanged_thenNotRemoved() {
+        map.put(1, "1");
+
+        Iterator<Map.Entry<Long, String>> it = map.entrySet().iterator();
+        it.next();
+        map.put(1, "2");
+        it.remove();
+
+        assertEquals("2", map.get(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void entrySet_iteratorRemove_whenNoNext() {
+        map.put(1, "1");
+
+        map.entrySet().iterator().remove();
+    }
+}
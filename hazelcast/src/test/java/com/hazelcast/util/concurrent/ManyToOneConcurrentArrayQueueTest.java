@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ManyToOneConcurrentArrayQueueTest extends HazelcastTestSupport {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construct_whenZeroCapacity() {
+        new ManyToOneConcurrentArrayQueue<Integer>(0);
+    }
+
+    @Test
+    public void construct_capacityRoundedUpToPowerOfTwo() {
+        ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(5);
+
+        assertEquals(8, queue.capacity());
+        assertEquals(8, queue.remainingCapacity());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offer_whenNull() {
+        new ManyToOneConcurrentArrayQueue<Integer>(4).offer(null);
+    }
+
+    @Test
+    public void offer_whenFull() {
+        ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(4);
+        for (int k = 0; k < 4; k++) {
+            assertTrue(queue.offer(k));
+        }
+
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+    }
+
+    @Test
+    public void poll_whenEmpty() {
+        ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(4);
+
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void poll_inFifoOrder_whenWrappingAround() {
+        ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(4);
+
+        for (int round = 0; round < 3; round++) {
+            for (int k = 0; k < 3; k++) {
+                queue.offer(round * 10 + k);
+            }
+            for (int k = 0; k < 3; k++) {
+                assertEquals(Integer.valueOf(round * 10 + k), queue.peek());
+                assertEquals(Integer.valueOf(round * 10 + k), queue.poll());
+            }
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void iterator() {
+        ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(4);
+        queue.addAll(asList(1, 2, 3));
+
+        List<Integer> result = new ArrayList<Integer>();
+        for (Iterator<Integer> it = queue.iterator(); it.hasNext(); ) {
+            result.add(it.next());
+        }
+
+        assertEquals(asList(1, 2, 3), result);
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        final int producerCount = 4;
+        final int itemsPerProducer = 100000;
+        final ManyToOneConcurrentArrayQueue<Long> queue = new ManyToOneConcurrentArrayQueue<Long>(1024);
+
+        Thread[] producers = new Thread[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            final int producerId = p;
+            producers[p] = new Thread() {
+                @Override
+                public void run() {
+                    for (long k = 0; k < itemsPerProducer; k++) {
+                        long item = ((long) producerId << 32) | k;
+                        while (!queue.offer(item)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            producers[p].start();
+        }
+
+        long[] expected = new long[producerCount];
+        int consumed = 0;
+        while (consumed < producerCount * itemsPerProducer) {
+            Long item = queue.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            int producerId = (int) (item >>> 32);
+            long sequence = item & 0xFFFFFFFFL;
+            assertEquals("items of producer " + producerId + " were received out of order", expected[producerId], sequence);
+            expected[producerId] = sequence + 1;
+            consumed++;
+        }
+
+        for (Thread producer : producers) {
+            assertJoinable(producer);
+        }
+        assertTrue(queue.isEmpty());
+    }
+}